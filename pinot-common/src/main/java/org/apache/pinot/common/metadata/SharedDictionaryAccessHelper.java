@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.metadata;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.helix.AccessOption;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.helix.zookeeper.datamodel.serializer.ZNRecordSerializer;
+import org.apache.helix.zookeeper.zkclient.exception.ZkBadVersionException;
+import org.apache.pinot.segment.spi.creator.SharedDictionary;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Class to help to read, write the table-level shared dictionaries in the property store.
+ * <p>Each shared dictionary is stored under {@code /SHARED_DICTIONARIES/<tableNameWithType>/<column>}, and only grows:
+ * adding new values writes a new version of the dictionary, while the segments built against the older versions keep
+ * working with their own copy of the dictionary.
+ */
+public class SharedDictionaryAccessHelper {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SharedDictionaryAccessHelper.class);
+
+  // Upper bound of the cardinality of a shared dictionary, the dictionary stops growing once reaching this bound
+  public static final int MAX_CARDINALITY = 10_000;
+  // Upper bound of the serialized size of a shared dictionary, which keeps the znode well below the default ZK max
+  // buffer size (1MB) for long values
+  public static final int MAX_SERIALIZED_SIZE_IN_BYTES = 512 * 1024;
+
+  private static final String VERSION_KEY = "version";
+  private static final String VALUES_KEY = "values";
+  private static final int MAX_NUM_ATTEMPTS = 10;
+
+  private SharedDictionaryAccessHelper() {
+  }
+
+  /**
+   * Read the shared dictionary from the property store
+   *
+   * @param propertyStore a property store
+   * @param tableNameWithType a table name with type
+   * @param column a column name
+   * @return the shared dictionary, return null if znode does not exist
+   */
+  @Nullable
+  public static SharedDictionary getSharedDictionary(ZkHelixPropertyStore<ZNRecord> propertyStore,
+      String tableNameWithType, String column) {
+    String path = ZKMetadataProvider.constructPropertyStorePathForSharedDictionary(tableNameWithType, column);
+    ZNRecord znRecord = propertyStore.get(path, null, AccessOption.PERSISTENT);
+    return znRecord != null ? fromZNRecord(znRecord) : null;
+  }
+
+  /**
+   * Adds the given values to the shared dictionary, and writes a new version of the dictionary to the property store
+   * if any value is added. Concurrent updates are resolved with the version of the znode.
+   *
+   * @param propertyStore a property store
+   * @param tableNameWithType a table name with type
+   * @param column a column name
+   * @param values the values to be added
+   * @return the shared dictionary containing all the given values, or the existing one (null if it does not exist)
+   *         when the values cannot be added without exceeding {@link #MAX_CARDINALITY} or
+   *         {@link #MAX_SERIALIZED_SIZE_IN_BYTES}, or the update keeps failing
+   */
+  @Nullable
+  public static SharedDictionary addValues(ZkHelixPropertyStore<ZNRecord> propertyStore, String tableNameWithType,
+      String column, Collection<String> values) {
+    String path = ZKMetadataProvider.constructPropertyStorePathForSharedDictionary(tableNameWithType, column);
+    SharedDictionary existingDictionary = null;
+    for (int i = 0; i < MAX_NUM_ATTEMPTS; i++) {
+      Stat stat = new Stat();
+      ZNRecord znRecord = propertyStore.get(path, stat, AccessOption.PERSISTENT);
+      existingDictionary = znRecord != null ? fromZNRecord(znRecord) : null;
+      SharedDictionary dictionary =
+          existingDictionary != null ? existingDictionary : new SharedDictionary(0, new String[0]);
+      SharedDictionary updatedDictionary = dictionary.withValues(values);
+      if (updatedDictionary == dictionary) {
+        return existingDictionary;
+      }
+      if (updatedDictionary.getCardinality() > MAX_CARDINALITY) {
+        LOGGER.warn("Cannot add values to shared dictionary for table: {}, column: {} without exceeding max "
+            + "cardinality: {}", tableNameWithType, column, MAX_CARDINALITY);
+        return existingDictionary;
+      }
+      ZNRecord updatedZNRecord = toZNRecord(column, updatedDictionary);
+      int serializedSize = getSerializedSizeInBytes(updatedZNRecord);
+      if (serializedSize > MAX_SERIALIZED_SIZE_IN_BYTES) {
+        LOGGER.warn("Cannot add values to shared dictionary for table: {}, column: {} without exceeding max "
+            + "serialized size: {} bytes (got: {} bytes)", tableNameWithType, column, MAX_SERIALIZED_SIZE_IN_BYTES,
+            serializedSize);
+        return existingDictionary;
+      }
+      if (writeSharedDictionary(propertyStore, path, updatedZNRecord, znRecord != null ? stat.getVersion() : -1)) {
+        LOGGER.info("Updated shared dictionary for table: {}, column: {} to: {}", tableNameWithType, column,
+            updatedDictionary);
+        return updatedDictionary;
+      }
+    }
+    LOGGER.warn("Failed to update shared dictionary for table: {}, column: {} after {} attempts", tableNameWithType,
+        column, MAX_NUM_ATTEMPTS);
+    return existingDictionary;
+  }
+
+  private static boolean writeSharedDictionary(ZkHelixPropertyStore<ZNRecord> propertyStore, String path,
+      ZNRecord znRecord, int expectedVersion) {
+    if (expectedVersion < 0) {
+      return propertyStore.create(path, znRecord, AccessOption.PERSISTENT);
+    }
+    try {
+      return propertyStore.set(path, znRecord, expectedVersion, AccessOption.PERSISTENT);
+    } catch (ZkBadVersionException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Delete all the shared dictionaries of the table from the property store
+   *
+   * @param propertyStore a property store
+   * @param tableNameWithType a table name with type
+   * @return true if delete is successful. false otherwise.
+   */
+  public static boolean deleteSharedDictionaries(ZkHelixPropertyStore<ZNRecord> propertyStore,
+      String tableNameWithType) {
+    String path = ZKMetadataProvider.constructPropertyStorePathForSharedDictionaries(tableNameWithType);
+    return propertyStore.remove(path, AccessOption.PERSISTENT);
+  }
+
+  public static ZNRecord toZNRecord(String column, SharedDictionary sharedDictionary) {
+    ZNRecord znRecord = new ZNRecord(column);
+    znRecord.setIntField(VERSION_KEY, sharedDictionary.getVersion());
+    znRecord.setListField(VALUES_KEY, Arrays.asList(sharedDictionary.getSortedValues()));
+    return znRecord;
+  }
+
+  public static int getSerializedSizeInBytes(ZNRecord znRecord) {
+    return new ZNRecordSerializer().serialize(znRecord).length;
+  }
+
+  public static SharedDictionary fromZNRecord(ZNRecord znRecord) {
+    List<String> values = znRecord.getListField(VALUES_KEY);
+    return new SharedDictionary(znRecord.getIntField(VERSION_KEY, 0),
+        values != null ? values.toArray(new String[0]) : new String[0]);
+  }
+}
@@ -74,6 +74,7 @@ public class ZKMetadataProvider {
   private static final String PROPERTYSTORE_INSTANCE_CONFIGS_PREFIX = "/CONFIGS/INSTANCE";
   private static final String PROPERTYSTORE_CLUSTER_CONFIGS_PREFIX = "/CONFIGS/CLUSTER";
   private static final String PROPERTYSTORE_SEGMENT_LINEAGE = "/SEGMENT_LINEAGE";
+  private static final String PROPERTYSTORE_SHARED_DICTIONARIES_PREFIX = "/SHARED_DICTIONARIES";
   private static final String PROPERTYSTORE_MINION_TASK_METADATA_PREFIX = "/MINION_TASK_METADATA";
 
   public static void setUserConfig(ZkHelixPropertyStore<ZNRecord> propertyStore, String username, ZNRecord znRecord) {
@@ -282,6 +283,14 @@ public class ZKMetadataProvider {
     return StringUtil.join("/", PROPERTYSTORE_SEGMENT_LINEAGE, tableNameWithType);
   }
 
+  public static String constructPropertyStorePathForSharedDictionaries(String tableNameWithType) {
+    return StringUtil.join("/", PROPERTYSTORE_SHARED_DICTIONARIES_PREFIX, tableNameWithType);
+  }
+
+  public static String constructPropertyStorePathForSharedDictionary(String tableNameWithType, String column) {
+    return StringUtil.join("/", PROPERTYSTORE_SHARED_DICTIONARIES_PREFIX, tableNameWithType, column);
+  }
+
   public static String getPropertyStorePathForMinionTaskMetadataPrefix() {
     return PROPERTYSTORE_MINION_TASK_METADATA_PREFIX;
   }
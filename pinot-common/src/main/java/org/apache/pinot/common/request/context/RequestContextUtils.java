@@ -269,6 +269,21 @@ public class RequestContextUtils {
     return RequestUtils.getLiteralString(literal);
   }
 
+  /**
+   * Parses the given JSON_MATCH filter string into a {@link FilterContext}, which can be evaluated against the json
+   * index.
+   */
+  public static FilterContext getJsonMatchFilter(String filterString) {
+    FilterContext filter;
+    try {
+      filter = getFilter(CalciteSqlParser.compileToExpression(filterString));
+      Preconditions.checkArgument(!filter.isConstant());
+    } catch (Exception e) {
+      throw new BadQueryRequestException("Invalid json match filter: " + filterString);
+    }
+    return filter;
+  }
+
   /**
    * Converts the given filter {@link ExpressionContext} into a {@link FilterContext}.
    * <p>NOTE: Currently the query engine only accepts string literals as the right-hand side of the predicate, so we
@@ -20,6 +20,8 @@ package org.apache.pinot.common.request.context.predicate;
 
 import java.util.Objects;
 import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.FilterContext;
+import org.apache.pinot.common.request.context.RequestContextUtils;
 
 
 /**
@@ -28,6 +30,9 @@ import org.apache.pinot.common.request.context.ExpressionContext;
 public class JsonMatchPredicate extends BasePredicate {
   private final String _value;
 
+  // Lazily parsed filter shared across all the segments of the query
+  private volatile FilterContext _filter;
+
   public JsonMatchPredicate(ExpressionContext lhs, String value) {
     super(lhs);
     _value = value;
@@ -42,6 +47,19 @@ public class JsonMatchPredicate extends BasePredicate {
     return _value;
   }
 
+  /**
+   * Returns the parsed filter of the JSON_MATCH filter string. The filter is parsed only once per query instead of once
+   * per segment.
+   */
+  public FilterContext getFilter() {
+    FilterContext filter = _filter;
+    if (filter == null) {
+      filter = RequestContextUtils.getJsonMatchFilter(_value);
+      _filter = filter;
+    }
+    return filter;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
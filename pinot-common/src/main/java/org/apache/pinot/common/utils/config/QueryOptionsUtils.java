@@ -138,6 +138,10 @@ public class QueryOptionsUtils {
     return "false".equalsIgnoreCase(queryOptions.get(QueryOptionKey.USE_STAR_TREE));
   }
 
+  public static boolean isVectorPreFilter(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.VECTOR_PRE_FILTER));
+  }
+
   public static boolean isSkipScanFilterReorder(Map<String, String> queryOptions) {
     return "false".equalsIgnoreCase(queryOptions.get(QueryOptionKey.USE_SCAN_REORDER_OPTIMIZATION));
   }
@@ -271,6 +275,12 @@ public class QueryOptionsUtils {
     return checkedParseInt(QueryOptionKey.GROUP_TRIM_THRESHOLD, groupByTrimThreshold);
   }
 
+  @Nullable
+  public static Integer getBitmapIntersectionMaxCardinality(Map<String, String> queryOptions) {
+    String bitmapIntersectionMaxCardinality = queryOptions.get(QueryOptionKey.BITMAP_INTERSECTION_MAX_CARDINALITY);
+    return checkedParseInt(QueryOptionKey.BITMAP_INTERSECTION_MAX_CARDINALITY, bitmapIntersectionMaxCardinality);
+  }
+
   private static Long checkedParseLong(String optionName, String optionValue, int minValue) {
     try {
       if (optionValue != null) {
@@ -341,6 +351,12 @@ public class QueryOptionsUtils {
     return checkedParseInt(QueryOptionKey.MAX_ROWS_IN_WINDOW, maxRowsInWindow);
   }
 
+  @Nullable
+  public static Integer getSortSpillThresholdRows(Map<String, String> queryOptions) {
+    String sortSpillThresholdRows = queryOptions.get(QueryOptionKey.SORT_SPILL_THRESHOLD_ROWS);
+    return checkedParseInt(QueryOptionKey.SORT_SPILL_THRESHOLD_ROWS, sortSpillThresholdRows);
+  }
+
   @Nullable
   public static WindowOverFlowMode getWindowOverflowMode(Map<String, String> queryOptions) {
     String windowOverflowModeStr = queryOptions.get(QueryOptionKey.WINDOW_OVERFLOW_MODE);
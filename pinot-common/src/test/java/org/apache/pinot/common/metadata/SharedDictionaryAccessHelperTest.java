@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.metadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.helix.AccessOption;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.helix.zookeeper.zkclient.exception.ZkBadVersionException;
+import org.apache.pinot.segment.spi.creator.SharedDictionary;
+import org.apache.zookeeper.data.Stat;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class SharedDictionaryAccessHelperTest {
+  private static final String TABLE_NAME_WITH_TYPE = "testTable_REALTIME";
+  private static final String COLUMN = "country";
+  private static final String PATH =
+      ZKMetadataProvider.constructPropertyStorePathForSharedDictionary(TABLE_NAME_WITH_TYPE, COLUMN);
+
+  @Test
+  public void testToFromZNRecord() {
+    SharedDictionary sharedDictionary = new SharedDictionary(3, new String[]{"CA", "DE", "US"});
+    ZNRecord znRecord = SharedDictionaryAccessHelper.toZNRecord(COLUMN, sharedDictionary);
+    assertEquals(znRecord.getId(), COLUMN);
+
+    SharedDictionary deserialized = SharedDictionaryAccessHelper.fromZNRecord(znRecord);
+    assertEquals(deserialized.getVersion(), 3);
+    assertEquals(deserialized.getSortedValues(), new String[]{"CA", "DE", "US"});
+
+    deserialized = SharedDictionaryAccessHelper.fromZNRecord(new ZNRecord(COLUMN));
+    assertEquals(deserialized.getVersion(), 0);
+    assertEquals(deserialized.getCardinality(), 0);
+  }
+
+  @Test
+  public void testAddValuesCreatesDictionary() {
+    ZkHelixPropertyStore<ZNRecord> propertyStore = mockPropertyStore(null, 0);
+    when(propertyStore.create(eq(PATH), any(ZNRecord.class), eq(AccessOption.PERSISTENT))).thenReturn(true);
+
+    SharedDictionary sharedDictionary =
+        SharedDictionaryAccessHelper.addValues(propertyStore, TABLE_NAME_WITH_TYPE, COLUMN, Arrays.asList("US", "CA"));
+    assertEquals(sharedDictionary.getVersion(), 1);
+    assertEquals(sharedDictionary.getSortedValues(), new String[]{"CA", "US"});
+
+    ArgumentCaptor<ZNRecord> captor = ArgumentCaptor.forClass(ZNRecord.class);
+    verify(propertyStore).create(eq(PATH), captor.capture(), eq(AccessOption.PERSISTENT));
+    assertEquals(SharedDictionaryAccessHelper.fromZNRecord(captor.getValue()).getSortedValues(),
+        new String[]{"CA", "US"});
+  }
+
+  @Test
+  public void testAddValuesToExistingDictionary() {
+    SharedDictionary existingDictionary = new SharedDictionary(1, new String[]{"CA", "US"});
+    ZkHelixPropertyStore<ZNRecord> propertyStore =
+        mockPropertyStore(SharedDictionaryAccessHelper.toZNRecord(COLUMN, existingDictionary), 5);
+
+    // No new value, should not write
+    SharedDictionary sharedDictionary = SharedDictionaryAccessHelper.addValues(propertyStore, TABLE_NAME_WITH_TYPE,
+        COLUMN, Collections.singletonList("US"));
+    assertEquals(sharedDictionary.getVersion(), 1);
+    verify(propertyStore, never()).set(any(), any(), anyInt(), anyInt());
+
+    // Concurrent update on the first attempt, should retry
+    when(propertyStore.set(eq(PATH), any(ZNRecord.class), eq(5), eq(AccessOption.PERSISTENT))).thenThrow(
+        ZkBadVersionException.class).thenReturn(true);
+    sharedDictionary = SharedDictionaryAccessHelper.addValues(propertyStore, TABLE_NAME_WITH_TYPE, COLUMN,
+        Collections.singletonList("DE"));
+    assertEquals(sharedDictionary.getVersion(), 2);
+    assertEquals(sharedDictionary.getSortedValues(), new String[]{"CA", "DE", "US"});
+    verify(propertyStore, times(2)).set(eq(PATH), any(ZNRecord.class), eq(5), eq(AccessOption.PERSISTENT));
+  }
+
+  @Test
+  public void testMaxCardinality() {
+    String[] values = new String[SharedDictionaryAccessHelper.MAX_CARDINALITY];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = String.format("%05d", i);
+    }
+    SharedDictionary existingDictionary = new SharedDictionary(1, values);
+    ZkHelixPropertyStore<ZNRecord> propertyStore =
+        mockPropertyStore(SharedDictionaryAccessHelper.toZNRecord(COLUMN, existingDictionary), 0);
+
+    SharedDictionary sharedDictionary = SharedDictionaryAccessHelper.addValues(propertyStore, TABLE_NAME_WITH_TYPE,
+        COLUMN, Collections.singletonList("new"));
+    assertEquals(sharedDictionary.getVersion(), 1);
+    assertEquals(sharedDictionary.getCardinality(), SharedDictionaryAccessHelper.MAX_CARDINALITY);
+    verify(propertyStore, never()).set(any(), any(), anyInt(), anyInt());
+  }
+
+  @Test
+  public void testMaxSerializedSize() {
+    // Few but long values, which stay below the max cardinality but exceed the max serialized size
+    int valueLength = 1000;
+    int numValues = SharedDictionaryAccessHelper.MAX_SERIALIZED_SIZE_IN_BYTES / valueLength + 1;
+    assertTrue(numValues < SharedDictionaryAccessHelper.MAX_CARDINALITY);
+    List<String> values = new ArrayList<>(numValues);
+    for (int i = 0; i < numValues; i++) {
+      values.add(StringUtils.leftPad(Integer.toString(i), valueLength, 'x'));
+    }
+    ZkHelixPropertyStore<ZNRecord> propertyStore = mockPropertyStore(null, 0);
+
+    assertNull(SharedDictionaryAccessHelper.addValues(propertyStore, TABLE_NAME_WITH_TYPE, COLUMN, values));
+    verify(propertyStore, never()).create(any(), any(), anyInt());
+
+    // Values fitting into the max serialized size can still be added
+    when(propertyStore.create(eq(PATH), any(ZNRecord.class), eq(AccessOption.PERSISTENT))).thenReturn(true);
+    List<String> fittingValues = values.subList(0, numValues / 2);
+    SharedDictionary sharedDictionary =
+        SharedDictionaryAccessHelper.addValues(propertyStore, TABLE_NAME_WITH_TYPE, COLUMN, fittingValues);
+    assertEquals(sharedDictionary.getCardinality(), fittingValues.size());
+    assertTrue(SharedDictionaryAccessHelper.getSerializedSizeInBytes(
+        SharedDictionaryAccessHelper.toZNRecord(COLUMN, sharedDictionary))
+        <= SharedDictionaryAccessHelper.MAX_SERIALIZED_SIZE_IN_BYTES);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ZkHelixPropertyStore<ZNRecord> mockPropertyStore(ZNRecord znRecord, int znRecordVersion) {
+    ZkHelixPropertyStore<ZNRecord> propertyStore = mock(ZkHelixPropertyStore.class);
+    when(propertyStore.get(eq(PATH), any(Stat.class), eq(AccessOption.PERSISTENT))).thenAnswer(invocation -> {
+      invocation.<Stat>getArgument(1).setVersion(znRecordVersion);
+      return znRecord;
+    });
+    return propertyStore;
+  }
+}
@@ -625,6 +625,12 @@ public class PinotTableRestletResource {
       @QueryParam("externalViewCheckIntervalInMs") long externalViewCheckIntervalInMs,
       @ApiParam(value = "How long to wait till external view converges with ideal states") @DefaultValue("3600000")
       @QueryParam("externalViewStabilizationTimeoutInMs") long externalViewStabilizationTimeoutInMs,
+      @ApiParam(value = "For no-downtime rebalance, max total bytes of the segment replicas added in each step, where "
+          + "the next step starts after the external view converges (non-positive means no limit)") @DefaultValue("-1")
+      @QueryParam("maxBytesPerBatch") long maxBytesPerBatch,
+      @ApiParam(value = "For no-downtime rebalance, max number of segments added to each server in each step "
+          + "(non-positive means no limit)") @DefaultValue("-1")
+      @QueryParam("maxSegmentsToAddPerServer") int maxSegmentsToAddPerServer,
       @ApiParam(value = "How often to make a status update (i.e. heartbeat)") @DefaultValue("300000")
       @QueryParam("heartbeatIntervalInMs") long heartbeatIntervalInMs,
       @ApiParam(value = "How long to wait for next status update (i.e. heartbeat) before the job is considered failed")
@@ -651,6 +657,8 @@ public class PinotTableRestletResource {
     rebalanceConfig.setBestEfforts(bestEfforts);
     rebalanceConfig.setExternalViewCheckIntervalInMs(externalViewCheckIntervalInMs);
     rebalanceConfig.setExternalViewStabilizationTimeoutInMs(externalViewStabilizationTimeoutInMs);
+    rebalanceConfig.setMaxBytesPerBatch(maxBytesPerBatch);
+    rebalanceConfig.setMaxSegmentsToAddPerServer(maxSegmentsToAddPerServer);
     heartbeatIntervalInMs = Math.max(externalViewCheckIntervalInMs, heartbeatIntervalInMs);
     rebalanceConfig.setHeartbeatIntervalInMs(heartbeatIntervalInMs);
     heartbeatTimeoutInMs = Math.max(heartbeatTimeoutInMs, 3 * heartbeatIntervalInMs);
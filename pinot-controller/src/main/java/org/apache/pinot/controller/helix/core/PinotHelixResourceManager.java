@@ -110,6 +110,7 @@ import org.apache.pinot.common.messages.SegmentRefreshMessage;
 import org.apache.pinot.common.messages.SegmentReloadMessage;
 import org.apache.pinot.common.messages.TableConfigRefreshMessage;
 import org.apache.pinot.common.messages.TableDeletionMessage;
+import org.apache.pinot.common.metadata.SharedDictionaryAccessHelper;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
 import org.apache.pinot.common.metadata.controllerjob.ControllerJobType;
 import org.apache.pinot.common.metadata.instance.InstanceZKMetadata;
@@ -2102,6 +2103,10 @@ public class PinotHelixResourceManager {
     SegmentLineageAccessHelper.deleteSegmentLineage(_propertyStore, tableNameWithType);
     LOGGER.info("Deleting table {}: Removed segment lineage", tableNameWithType);
 
+    // Remove shared dictionaries
+    SharedDictionaryAccessHelper.deleteSharedDictionaries(_propertyStore, tableNameWithType);
+    LOGGER.info("Deleting table {}: Removed shared dictionaries", tableNameWithType);
+
     // Remove task related metadata
     MinionTaskMetadataUtils.deleteTaskMetadata(_propertyStore, tableNameWithType);
     LOGGER.info("Deleting table {}: Removed all minion task metadata", tableNameWithType);
@@ -93,6 +93,9 @@ public class SegmentAssignmentStrategyFactory {
         case AssignmentStrategy.REPLICA_GROUP_SEGMENT_ASSIGNMENT_STRATEGY:
           segmentAssignmentStrategy = new ReplicaGroupSegmentAssignmentStrategy();
           break;
+        case AssignmentStrategy.SIZE_BALANCED_SEGMENT_ASSIGNMENT_STRATEGY:
+          segmentAssignmentStrategy = new SizeBalancedSegmentAssignmentStrategy();
+          break;
         case AssignmentStrategy.BALANCE_NUM_SEGMENT_ASSIGNMENT_STRATEGY:
         default:
           segmentAssignmentStrategy = new BalancedNumSegmentAssignmentStrategy();
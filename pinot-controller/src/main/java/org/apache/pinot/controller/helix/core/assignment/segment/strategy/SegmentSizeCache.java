@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.helix.core.assignment.segment.strategy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.common.metadata.ZKMetadataProvider;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Cache of the segment sizes from the segment ZK metadata, shared by all the
+ * {@link SizeBalancedSegmentAssignmentStrategy} instances on the controller so that assigning a new segment does not
+ * need to read the ZK metadata of all the segments of the table.
+ * <p>The cache is updated incrementally: only the sizes of the segments not cached yet are read. All the segment sizes
+ * of the table are reloaded when too many segments are missing, or when explicitly requested (once per rebalance) to
+ * pick up the changed sizes and drop the deleted segments.
+ */
+class SegmentSizeCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentSizeCache.class);
+
+  // Size of the segments without a known size in the ZK metadata, e.g. CONSUMING segments
+  static final long UNKNOWN_SIZE = -1L;
+  // Reload all the segment sizes of the table instead of reading them one by one when more segments are missing
+  static final int MAX_NUM_SEGMENTS_TO_READ = 100;
+
+  // Key: table name with type, value: map from segment name to size in bytes
+  private static final Map<String, Map<String, Long>> TABLE_SEGMENT_SIZES = new ConcurrentHashMap<>();
+
+  private SegmentSizeCache() {
+  }
+
+  /**
+   * Returns the sizes of the given segments and the new segment (if not null), where the segments without a known size
+   * are mapped to {@link #UNKNOWN_SIZE}, and the segments without ZK metadata are not included.
+   */
+  static Map<String, Long> getSegmentSizes(ZkHelixPropertyStore<ZNRecord> propertyStore, String tableNameWithType,
+      Collection<String> segments, @Nullable String newSegment, boolean reload) {
+    Map<String, Long> segmentSizeMap =
+        TABLE_SEGMENT_SIZES.computeIfAbsent(tableNameWithType, k -> new ConcurrentHashMap<>());
+    if (!reload) {
+      List<String> missingSegments = new ArrayList<>();
+      for (String segment : segments) {
+        if (!segmentSizeMap.containsKey(segment)) {
+          missingSegments.add(segment);
+        }
+      }
+      if (missingSegments.size() <= MAX_NUM_SEGMENTS_TO_READ) {
+        for (String segment : missingSegments) {
+          readSegmentSize(propertyStore, tableNameWithType, segment, segmentSizeMap);
+        }
+      } else {
+        reload = true;
+      }
+    }
+    if (reload) {
+      Map<String, Long> loadedSegmentSizeMap = new HashMap<>();
+      for (SegmentZKMetadata segmentZKMetadata : ZKMetadataProvider.getSegmentsZKMetadata(propertyStore,
+          tableNameWithType)) {
+        loadedSegmentSizeMap.put(segmentZKMetadata.getSegmentName(), getSize(segmentZKMetadata));
+      }
+      segmentSizeMap.keySet().retainAll(loadedSegmentSizeMap.keySet());
+      segmentSizeMap.putAll(loadedSegmentSizeMap);
+      LOGGER.info("Loaded sizes of {} segments for table: {}", loadedSegmentSizeMap.size(), tableNameWithType);
+    }
+    if (newSegment != null) {
+      // The new segment might be added or uploaded again with a different size after its size is cached
+      readSegmentSize(propertyStore, tableNameWithType, newSegment, segmentSizeMap);
+    }
+
+    // Return a snapshot so that the sizes do not change during the assignment
+    Map<String, Long> segmentSizes = new HashMap<>();
+    for (String segment : segments) {
+      Long size = segmentSizeMap.get(segment);
+      if (size != null) {
+        segmentSizes.put(segment, size);
+      }
+    }
+    if (newSegment != null) {
+      Long size = segmentSizeMap.get(newSegment);
+      if (size != null) {
+        segmentSizes.put(newSegment, size);
+      }
+    }
+    return segmentSizes;
+  }
+
+  private static void readSegmentSize(ZkHelixPropertyStore<ZNRecord> propertyStore, String tableNameWithType,
+      String segment, Map<String, Long> segmentSizeMap) {
+    SegmentZKMetadata segmentZKMetadata =
+        ZKMetadataProvider.getSegmentZKMetadata(propertyStore, tableNameWithType, segment);
+    if (segmentZKMetadata != null) {
+      segmentSizeMap.put(segment, getSize(segmentZKMetadata));
+    }
+  }
+
+  private static long getSize(SegmentZKMetadata segmentZKMetadata) {
+    long sizeInBytes = segmentZKMetadata.getSizeInBytes();
+    return sizeInBytes > 0 ? sizeInBytes : UNKNOWN_SIZE;
+  }
+}
@@ -0,0 +1,238 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.helix.core.assignment.segment.strategy;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+import org.apache.helix.HelixManager;
+import org.apache.pinot.common.assignment.InstancePartitions;
+import org.apache.pinot.controller.helix.core.assignment.segment.SegmentAssignmentUtils;
+import org.apache.pinot.spi.config.table.SegmentsValidationAndRetentionConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.assignment.InstancePartitionsType;
+import org.apache.pinot.spi.utils.CommonConstants.Helix.StateModel.SegmentStateModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Size balanced segment assignment strategy, which balances the total bytes of the segments assigned to each instance
+ * instead of the number of segments. The segment sizes are read from the segment ZK metadata through the
+ * {@link SegmentSizeCache}; segments without a known size (e.g. CONSUMING segments) are counted as the average size of
+ * the known segments.
+ * <ul>
+ *   <li>
+ *     New segments are assigned to the instances with the least bytes assigned. With replica-groups, one instance is
+ *     picked from each replica-group.
+ *   </li>
+ *   <li>
+ *     When reassigning, segments are placed from the largest to the smallest. A segment stays on its current instances
+ *     as long as they do not exceed the average bytes per instance by more than {@link #MAX_LOAD_IMBALANCE}, and is
+ *     otherwise moved to the instances with the least bytes assigned, which minimizes the data movement.
+ *   </li>
+ * </ul>
+ * Only a single instance partition is supported (no partition based assignment).
+ */
+public class SizeBalancedSegmentAssignmentStrategy implements SegmentAssignmentStrategy {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SizeBalancedSegmentAssignmentStrategy.class);
+
+  static final double MAX_LOAD_IMBALANCE = 0.1;
+
+  // Segment sizes provided for testing, or null to read the segment sizes through the SegmentSizeCache
+  private final Map<String, Long> _providedSegmentSizeMap;
+  private HelixManager _helixManager;
+  private String _tableNameWithType;
+  private int _replication;
+
+  public SizeBalancedSegmentAssignmentStrategy() {
+    _providedSegmentSizeMap = null;
+  }
+
+  @VisibleForTesting
+  SizeBalancedSegmentAssignmentStrategy(Map<String, Long> segmentSizeMap) {
+    _providedSegmentSizeMap = segmentSizeMap;
+  }
+
+  @Override
+  public void init(HelixManager helixManager, TableConfig tableConfig) {
+    _helixManager = helixManager;
+    _tableNameWithType = tableConfig.getTableName();
+    SegmentsValidationAndRetentionConfig validationAndRetentionConfig = tableConfig.getValidationConfig();
+    Preconditions.checkState(validationAndRetentionConfig != null, "Validation Config is null");
+    _replication = tableConfig.getReplication();
+    LOGGER.info("Initialized SizeBalancedSegmentAssignmentStrategy for table: {} with replication: {}",
+        _tableNameWithType, _replication);
+  }
+
+  @Override
+  public List<String> assignSegment(String segmentName, Map<String, Map<String, String>> currentAssignment,
+      InstancePartitions instancePartitions, InstancePartitionsType instancePartitionsType) {
+    List<InstanceGroup> instanceGroups = getInstanceGroups(instancePartitions);
+    SegmentSizes segmentSizes = new SegmentSizes(currentAssignment.keySet(), segmentName, false);
+    Map<String, Long> instanceToBytesMap = new HashMap<>();
+    for (Map.Entry<String, Map<String, String>> entry : currentAssignment.entrySet()) {
+      long segmentSize = segmentSizes.get(entry.getKey());
+      for (String instance : entry.getValue().keySet()) {
+        instanceToBytesMap.merge(instance, segmentSize, Long::sum);
+      }
+    }
+    List<String> instancesAssigned = new ArrayList<>(_replication);
+    for (InstanceGroup instanceGroup : instanceGroups) {
+      instancesAssigned.addAll(
+          pickLeastLoadedInstances(instanceGroup, Collections.emptySet(), segmentSizes.get(segmentName),
+              instanceToBytesMap, Long.MAX_VALUE));
+    }
+    return instancesAssigned;
+  }
+
+  @Override
+  public Map<String, Map<String, String>> reassignSegments(Map<String, Map<String, String>> currentAssignment,
+      InstancePartitions instancePartitions, InstancePartitionsType instancePartitionsType) {
+    List<InstanceGroup> instanceGroups = getInstanceGroups(instancePartitions);
+    // Reload all the segment sizes once per rebalance to pick up the changed and deleted segments
+    SegmentSizes segmentSizes = new SegmentSizes(currentAssignment.keySet(), null, true);
+
+    // Place the largest segments first so that the small ones can fill the gaps
+    List<String> segments = new ArrayList<>(currentAssignment.keySet());
+    segments.sort(
+        Comparator.<String>comparingLong(segmentSizes::get).reversed().thenComparing(Comparator.naturalOrder()));
+    long totalBytes = 0;
+    for (String segment : segments) {
+      totalBytes += segmentSizes.get(segment);
+    }
+
+    Map<String, Long> instanceToBytesMap = new HashMap<>();
+    Map<String, Map<String, String>> newAssignment = new TreeMap<>();
+    for (String segment : segments) {
+      long segmentSize = segmentSizes.get(segment);
+      Set<String> currentInstances = currentAssignment.get(segment).keySet();
+      List<String> instancesAssigned = new ArrayList<>(_replication);
+      for (InstanceGroup instanceGroup : instanceGroups) {
+        long maxBytesPerInstance = (long) Math.ceil(
+            (double) totalBytes * instanceGroup._numReplicas / instanceGroup._instances.size() * (1
+                + MAX_LOAD_IMBALANCE));
+        instancesAssigned.addAll(
+            pickLeastLoadedInstances(instanceGroup, currentInstances, segmentSize, instanceToBytesMap,
+                maxBytesPerInstance));
+      }
+      newAssignment.put(segment, SegmentAssignmentUtils.getInstanceStateMap(instancesAssigned,
+          SegmentStateModel.ONLINE));
+    }
+    return newAssignment;
+  }
+
+  /**
+   * Picks the instances for a segment within an instance group, keeping the current instances of the segment that can
+   * take it without exceeding the max bytes, and filling the rest with the instances with the least bytes assigned.
+   * Updates the bytes assigned to the picked instances.
+   */
+  private static List<String> pickLeastLoadedInstances(InstanceGroup instanceGroup, Set<String> currentInstances,
+      long segmentSize, Map<String, Long> instanceToBytesMap, long maxBytesPerInstance) {
+    List<String> instancesPicked = new ArrayList<>(instanceGroup._numReplicas);
+    for (String instance : instanceGroup._instances) {
+      if (instancesPicked.size() < instanceGroup._numReplicas && currentInstances.contains(instance)
+          && instanceToBytesMap.getOrDefault(instance, 0L) + segmentSize <= maxBytesPerInstance) {
+        instancesPicked.add(instance);
+      }
+    }
+    if (instancesPicked.size() < instanceGroup._numReplicas) {
+      // Stable sort to break ties with the order of the instances in the instance partitions
+      List<String> candidates = new ArrayList<>(instanceGroup._instances);
+      candidates.removeAll(instancesPicked);
+      candidates.sort(Comparator.comparingLong(instance -> instanceToBytesMap.getOrDefault(instance, 0L)));
+      instancesPicked.addAll(candidates.subList(0, instanceGroup._numReplicas - instancesPicked.size()));
+    }
+    for (String instance : instancesPicked) {
+      instanceToBytesMap.merge(instance, segmentSize, Long::sum);
+    }
+    return instancesPicked;
+  }
+
+  private List<InstanceGroup> getInstanceGroups(InstancePartitions instancePartitions) {
+    int numReplicaGroups = instancePartitions.getNumReplicaGroups();
+    Preconditions.checkState(instancePartitions.getNumPartitions() == 1,
+        "Partitions should be 1 in order to use SizeBalancedSegmentAssignmentStrategy, got: %s for table: %s",
+        instancePartitions.getNumPartitions(), _tableNameWithType);
+    if (numReplicaGroups == 1) {
+      return Collections.singletonList(new InstanceGroup(
+          SegmentAssignmentUtils.getInstancesForNonReplicaGroupBasedAssignment(instancePartitions, _replication),
+          _replication));
+    }
+    Preconditions.checkState(numReplicaGroups == _replication,
+        "Replica groups: %s should match the replication: %s for table: %s", numReplicaGroups, _replication,
+        _tableNameWithType);
+    List<InstanceGroup> instanceGroups = new ArrayList<>(numReplicaGroups);
+    for (int replicaGroupId = 0; replicaGroupId < numReplicaGroups; replicaGroupId++) {
+      instanceGroups.add(new InstanceGroup(instancePartitions.getInstances(0, replicaGroupId), 1));
+    }
+    return instanceGroups;
+  }
+
+  private static class InstanceGroup {
+    final List<String> _instances;
+    final int _numReplicas;
+
+    InstanceGroup(List<String> instances, int numReplicas) {
+      _instances = instances;
+      _numReplicas = numReplicas;
+    }
+  }
+
+  /**
+   * Sizes of the segments involved in an assignment, where the unknown sizes default to the average known size.
+   */
+  private class SegmentSizes {
+    final Map<String, Long> _segmentSizeMap;
+    final long _defaultSize;
+
+    SegmentSizes(Set<String> segments, @Nullable String newSegment, boolean reload) {
+      if (_providedSegmentSizeMap != null) {
+        _segmentSizeMap = _providedSegmentSizeMap;
+      } else {
+        _segmentSizeMap =
+            SegmentSizeCache.getSegmentSizes(_helixManager.getHelixPropertyStore(), _tableNameWithType, segments,
+                newSegment, reload);
+      }
+      long totalKnownSize = 0;
+      int numKnownSizes = 0;
+      for (String segment : segments) {
+        Long size = _segmentSizeMap.get(segment);
+        if (size != null && size > 0) {
+          totalKnownSize += size;
+          numKnownSizes++;
+        }
+      }
+      _defaultSize = numKnownSizes > 0 ? Math.max(totalKnownSize / numKnownSizes, 1) : 1;
+    }
+
+    long get(String segment) {
+      Long size = _segmentSizeMap.get(segment);
+      return size != null && size > 0 ? size : _defaultSize;
+    }
+  }
+}
@@ -29,6 +29,10 @@ public class NoOpTableRebalanceObserver implements TableRebalanceObserver {
       Map<String, Map<String, String>> targetState) {
   }
 
+  @Override
+  public void onDataMovement(TableRebalanceProgressStats.DataMovementStats dataMovementStats) {
+  }
+
   @Override
   public void onNoop(String msg) {
   }
@@ -28,6 +28,8 @@ public class RebalanceConfig {
   public static final int DEFAULT_MIN_REPLICAS_TO_KEEP_UP_FOR_NO_DOWNTIME = 1;
   public static final long DEFAULT_EXTERNAL_VIEW_CHECK_INTERVAL_IN_MS = 1000L; // 1 second
   public static final long DEFAULT_EXTERNAL_VIEW_STABILIZATION_TIMEOUT_IN_MS = 3600000L; // 1 hour
+  public static final long DISABLE_MAX_BYTES_PER_BATCH = -1L;
+  public static final int DISABLE_MAX_SEGMENTS_TO_ADD_PER_SERVER = -1;
 
   // Whether to rebalance table in dry-run mode
   @JsonProperty("dryRun")
@@ -88,6 +90,19 @@ public class RebalanceConfig {
   @ApiModelProperty(example = "3600000")
   private long _externalViewStabilizationTimeoutInMs = DEFAULT_EXTERNAL_VIEW_STABILIZATION_TIMEOUT_IN_MS;
 
+  // For no-downtime rebalance, maximum total bytes of the segment replicas added in each step of the rebalance. The
+  // next step starts after the ExternalView converges with the IdealState. At least one segment is moved in each step
+  // so that the rebalance can always make progress. Non-positive value means no limit.
+  @JsonProperty("maxBytesPerBatch")
+  @ApiModelProperty(example = "-1")
+  private long _maxBytesPerBatch = DISABLE_MAX_BYTES_PER_BATCH;
+
+  // For no-downtime rebalance, maximum number of segments added to (i.e. downloaded by) each server in each step of the
+  // rebalance. Non-positive value means no limit.
+  @JsonProperty("maxSegmentsToAddPerServer")
+  @ApiModelProperty(example = "-1")
+  private int _maxSegmentsToAddPerServer = DISABLE_MAX_SEGMENTS_TO_ADD_PER_SERVER;
+
   @JsonProperty("updateTargetTier")
   @ApiModelProperty(example = "false")
   private boolean _updateTargetTier = false;
@@ -190,6 +205,22 @@ public class RebalanceConfig {
     _externalViewStabilizationTimeoutInMs = externalViewStabilizationTimeoutInMs;
   }
 
+  public long getMaxBytesPerBatch() {
+    return _maxBytesPerBatch;
+  }
+
+  public void setMaxBytesPerBatch(long maxBytesPerBatch) {
+    _maxBytesPerBatch = maxBytesPerBatch;
+  }
+
+  public int getMaxSegmentsToAddPerServer() {
+    return _maxSegmentsToAddPerServer;
+  }
+
+  public void setMaxSegmentsToAddPerServer(int maxSegmentsToAddPerServer) {
+    _maxSegmentsToAddPerServer = maxSegmentsToAddPerServer;
+  }
+
   public boolean isUpdateTargetTier() {
     return _updateTargetTier;
   }
@@ -236,7 +267,8 @@ public class RebalanceConfig {
         + ", _includeConsuming=" + _includeConsuming + ", _bootstrap=" + _bootstrap + ", _downtime=" + _downtime
         + ", _minAvailableReplicas=" + _minAvailableReplicas + ", _bestEfforts=" + _bestEfforts
         + ", _externalViewCheckIntervalInMs=" + _externalViewCheckIntervalInMs
-        + ", _externalViewStabilizationTimeoutInMs=" + _externalViewStabilizationTimeoutInMs + ", _updateTargetTier="
+        + ", _externalViewStabilizationTimeoutInMs=" + _externalViewStabilizationTimeoutInMs + ", _maxBytesPerBatch="
+        + _maxBytesPerBatch + ", _maxSegmentsToAddPerServer=" + _maxSegmentsToAddPerServer + ", _updateTargetTier="
         + _updateTargetTier + ", _heartbeatIntervalInMs=" + _heartbeatIntervalInMs + ", _heartbeatTimeoutInMs="
         + _heartbeatTimeoutInMs + ", _maxAttempts=" + _maxAttempts + ", _retryInitialDelayInMs="
         + _retryInitialDelayInMs + '}';
@@ -253,6 +285,8 @@ public class RebalanceConfig {
     rc._bestEfforts = cfg._bestEfforts;
     rc._externalViewCheckIntervalInMs = cfg._externalViewCheckIntervalInMs;
     rc._externalViewStabilizationTimeoutInMs = cfg._externalViewStabilizationTimeoutInMs;
+    rc._maxBytesPerBatch = cfg._maxBytesPerBatch;
+    rc._maxSegmentsToAddPerServer = cfg._maxSegmentsToAddPerServer;
     rc._updateTargetTier = cfg._updateTargetTier;
     rc._heartbeatIntervalInMs = cfg._heartbeatIntervalInMs;
     rc._heartbeatTimeoutInMs = cfg._heartbeatTimeoutInMs;
@@ -40,6 +40,12 @@ public interface TableRebalanceObserver {
   void onTrigger(Trigger trigger, Map<String, Map<String, String>> currentState,
       Map<String, Map<String, String>> targetState);
 
+  /**
+   * Called when the projected or actual data movement of the rebalance changes, i.e. when the rebalance starts and
+   * after each step of the rebalance is applied to the IdealState.
+   */
+  void onDataMovement(TableRebalanceProgressStats.DataMovementStats dataMovementStats);
+
   void onNoop(String msg);
 
   void onSuccess(String msg);
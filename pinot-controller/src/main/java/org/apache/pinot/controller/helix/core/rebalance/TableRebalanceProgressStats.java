@@ -41,6 +41,24 @@ public class TableRebalanceProgressStats {
     }
   }
 
+  /**
+   * Data movement of the rebalance, where moving a segment replica means adding it to (i.e. downloading it on) a
+   * server. The projected movement is the movement done so far plus the movement from the current to the target
+   * assignment, and is updated when the target assignment is re-calculated. Segments without a known size (e.g.
+   * CONSUMING segments) are counted as 0 bytes. The bytes are only tracked when the bytes moved in each step are
+   * limited (i.e. maxBytesPerBatch is configured), otherwise they are always 0.
+   */
+  public static class DataMovementStats {
+    public int _projectedReplicasToMove;
+    public long _projectedBytesToMove;
+    public int _replicasMoved;
+    public long _bytesMoved;
+    public int _numBatches;
+
+    DataMovementStats() {
+    }
+  }
+
   // Done/In_progress/Failed
   private RebalanceResult.Status _status;
   // When did Rebalance start
@@ -55,11 +73,14 @@ public class TableRebalanceProgressStats {
   private RebalanceStateStats _currentToTargetConvergence;
   @JsonProperty("externalViewToIdealStateConvergence")
   private RebalanceStateStats _externalViewToIdealStateConvergence;
+  @JsonProperty("dataMovement")
+  private DataMovementStats _dataMovement;
 
   public TableRebalanceProgressStats() {
     _currentToTargetConvergence = new RebalanceStateStats();
     _externalViewToIdealStateConvergence = new RebalanceStateStats();
     _initialToTargetStateConvergence = new RebalanceStateStats();
+    _dataMovement = new DataMovementStats();
   }
 
   public void setStatus(RebalanceResult.Status status) {
@@ -86,6 +107,10 @@ public class TableRebalanceProgressStats {
     _currentToTargetConvergence = currentToTargetConvergence;
   }
 
+  public void setDataMovement(DataMovementStats dataMovement) {
+    _dataMovement = dataMovement;
+  }
+
   public void setCompletionStatusMsg(String completionStatusMsg) {
     _completionStatusMsg = completionStatusMsg;
   }
@@ -118,6 +143,10 @@ public class TableRebalanceProgressStats {
     return _currentToTargetConvergence;
   }
 
+  public DataMovementStats getDataMovement() {
+    return _dataMovement;
+  }
+
   public static boolean statsDiffer(RebalanceStateStats base, RebalanceStateStats compare) {
     if (base._replicasToRebalance != compare._replicasToRebalance
         || base._segmentsToRebalance != compare._segmentsToRebalance
@@ -21,6 +21,7 @@ package org.apache.pinot.controller.helix.core.rebalance;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -48,6 +49,8 @@ import org.apache.helix.zookeeper.zkclient.exception.ZkBadVersionException;
 import org.apache.pinot.common.assignment.InstanceAssignmentConfigUtils;
 import org.apache.pinot.common.assignment.InstancePartitions;
 import org.apache.pinot.common.assignment.InstancePartitionsUtils;
+import org.apache.pinot.common.metadata.ZKMetadataProvider;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
 import org.apache.pinot.common.metrics.ControllerMetrics;
 import org.apache.pinot.common.metrics.ControllerTimer;
 import org.apache.pinot.common.tier.PinotServerTierStorage;
@@ -182,16 +185,20 @@ public class TableRebalancer {
     boolean bestEfforts = rebalanceConfig.isBestEfforts();
     long externalViewCheckIntervalInMs = rebalanceConfig.getExternalViewCheckIntervalInMs();
     long externalViewStabilizationTimeoutInMs = rebalanceConfig.getExternalViewStabilizationTimeoutInMs();
+    long maxBytesPerBatch = rebalanceConfig.getMaxBytesPerBatch();
+    int maxSegmentsToAddPerServer = rebalanceConfig.getMaxSegmentsToAddPerServer();
     boolean enableStrictReplicaGroup = tableConfig.getRoutingConfig() != null
         && RoutingConfig.STRICT_REPLICA_GROUP_INSTANCE_SELECTOR_TYPE.equalsIgnoreCase(
         tableConfig.getRoutingConfig().getInstanceSelectorType());
     LOGGER.info(
         "Start rebalancing table: {} with dryRun: {}, reassignInstances: {}, includeConsuming: {}, bootstrap: {}, "
             + "downtime: {}, minReplicasToKeepUpForNoDowntime: {}, enableStrictReplicaGroup: {}, lowDiskMode: {}, "
-            + "bestEfforts: {}, externalViewCheckIntervalInMs: {}, externalViewStabilizationTimeoutInMs: {}",
+            + "bestEfforts: {}, externalViewCheckIntervalInMs: {}, externalViewStabilizationTimeoutInMs: {}, "
+            + "maxBytesPerBatch: {}, maxSegmentsToAddPerServer: {}",
         tableNameWithType, dryRun, reassignInstances, includeConsuming, bootstrap, downtime,
         minReplicasToKeepUpForNoDowntime, enableStrictReplicaGroup, lowDiskMode, bestEfforts,
-        externalViewCheckIntervalInMs, externalViewStabilizationTimeoutInMs);
+        externalViewCheckIntervalInMs, externalViewStabilizationTimeoutInMs, maxBytesPerBatch,
+        maxSegmentsToAddPerServer);
 
     // Fetch ideal state
     PropertyKey idealStatePropertyKey = _helixDataAccessor.keyBuilder().idealStates(tableNameWithType);
@@ -347,6 +354,27 @@ public class TableRebalancer {
     _tableRebalanceObserver.onTrigger(TableRebalanceObserver.Trigger.START_TRIGGER, currentAssignment,
         targetAssignment);
 
+    // Fetch the segment sizes to limit the bytes moved in each step. Reading the segment ZK metadata is skipped when
+    // the bytes are not limited, in which case the data movement is tracked in segment replicas only.
+    Map<String, Long> segmentSizeMap;
+    try {
+      segmentSizeMap = maxBytesPerBatch > 0 ? getSegmentSizeMap(tableNameWithType) : Collections.emptyMap();
+    } catch (Exception e) {
+      onReturnFailure(String.format(
+          "For rebalanceId: %s, caught exception while fetching segment sizes for table: %s, aborting the rebalance",
+          rebalanceJobId, tableNameWithType), e);
+      return new RebalanceResult(rebalanceJobId, RebalanceResult.Status.FAILED,
+          "Caught exception while fetching segment sizes: " + e, instancePartitionsMap, tierToInstancePartitionsMap,
+          targetAssignment);
+    }
+    TableRebalanceProgressStats.DataMovementStats dataMovementStats =
+        new TableRebalanceProgressStats.DataMovementStats();
+    updateProjectedDataMovement(dataMovementStats, currentAssignment, targetAssignment, segmentSizeMap);
+    LOGGER.info("For rebalanceId: {}, projected to move {} segment replicas with {} bytes for table: {}",
+        rebalanceJobId, dataMovementStats._projectedReplicasToMove, dataMovementStats._projectedBytesToMove,
+        tableNameWithType);
+    _tableRebalanceObserver.onDataMovement(dataMovementStats);
+
     // Calculate the min available replicas for no-downtime rebalance
     // NOTE:
     // 1. The calculation is based on the number of replicas of the target assignment. In case of increasing the number
@@ -504,6 +532,11 @@ public class TableRebalancer {
       Map<String, Map<String, String>> nextAssignment =
           getNextAssignment(currentAssignment, targetAssignment, minAvailableReplicas, enableStrictReplicaGroup,
               lowDiskMode);
+      if (maxBytesPerBatch > 0 || maxSegmentsToAddPerServer > 0) {
+        nextAssignment = getNextBatchAssignment(currentAssignment, nextAssignment, segmentSizeMap, maxBytesPerBatch,
+            maxSegmentsToAddPerServer);
+      }
+      Pair<Integer, Long> batchDataMovement = getDataMovement(currentAssignment, nextAssignment, segmentSizeMap);
       LOGGER.info("For rebalanceId: {}, got the next assignment for table: {} with number of segments to be "
               + "added/removed for each instance: {}", rebalanceJobId, tableNameWithType,
           SegmentAssignmentUtils.getNumSegmentsToMovePerInstance(currentAssignment, nextAssignment));
@@ -520,8 +553,14 @@ public class TableRebalancer {
             "Failed to update IdealState");
         currentAssignment = nextAssignment;
         expectedVersion++;
-        LOGGER.info("For rebalanceId: {}, successfully updated the IdealState for table: {}", rebalanceJobId,
-            tableNameWithType);
+        LOGGER.info("For rebalanceId: {}, successfully updated the IdealState for table: {}, moving {} segment "
+                + "replicas with {} bytes", rebalanceJobId, tableNameWithType, batchDataMovement.getLeft(),
+            batchDataMovement.getRight());
+        dataMovementStats._replicasMoved += batchDataMovement.getLeft();
+        dataMovementStats._bytesMoved += batchDataMovement.getRight();
+        dataMovementStats._numBatches++;
+        updateProjectedDataMovement(dataMovementStats, currentAssignment, targetAssignment, segmentSizeMap);
+        _tableRebalanceObserver.onDataMovement(dataMovementStats);
       } catch (ZkBadVersionException e) {
         LOGGER.info("For rebalanceId: {}, version changed while updating IdealState for table: {}", rebalanceJobId,
             tableNameWithType);
@@ -972,6 +1011,108 @@ public class TableRebalancer {
     return nextAssignment;
   }
 
+  /**
+   * Returns the sizes of the segments of the table from the segment ZK metadata. Segments without a known size (e.g.
+   * CONSUMING segments) are not included.
+   */
+  private Map<String, Long> getSegmentSizeMap(String tableNameWithType) {
+    Map<String, Long> segmentSizeMap = new HashMap<>();
+    for (SegmentZKMetadata segmentZKMetadata : ZKMetadataProvider.getSegmentsZKMetadata(
+        _helixManager.getHelixPropertyStore(), tableNameWithType)) {
+      long sizeInBytes = segmentZKMetadata.getSizeInBytes();
+      if (sizeInBytes > 0) {
+        segmentSizeMap.put(segmentZKMetadata.getSegmentName(), sizeInBytes);
+      }
+    }
+    return segmentSizeMap;
+  }
+
+  /**
+   * Returns the number of segment replicas added to the servers and their total bytes when moving from the current
+   * assignment to the next assignment.
+   */
+  @VisibleForTesting
+  static Pair<Integer, Long> getDataMovement(Map<String, Map<String, String>> currentAssignment,
+      Map<String, Map<String, String>> nextAssignment, Map<String, Long> segmentSizeMap) {
+    int numReplicasToAdd = 0;
+    long numBytesToAdd = 0;
+    for (Map.Entry<String, Map<String, String>> entry : nextAssignment.entrySet()) {
+      String segmentName = entry.getKey();
+      int numInstancesToAdd = getInstancesToAdd(currentAssignment.get(segmentName), entry.getValue()).size();
+      numReplicasToAdd += numInstancesToAdd;
+      numBytesToAdd += segmentSizeMap.getOrDefault(segmentName, 0L) * numInstancesToAdd;
+    }
+    return Pair.of(numReplicasToAdd, numBytesToAdd);
+  }
+
+  private static void updateProjectedDataMovement(TableRebalanceProgressStats.DataMovementStats dataMovementStats,
+      Map<String, Map<String, String>> currentAssignment, Map<String, Map<String, String>> targetAssignment,
+      Map<String, Long> segmentSizeMap) {
+    Pair<Integer, Long> remainingDataMovement = getDataMovement(currentAssignment, targetAssignment, segmentSizeMap);
+    dataMovementStats._projectedReplicasToMove = dataMovementStats._replicasMoved + remainingDataMovement.getLeft();
+    dataMovementStats._projectedBytesToMove = dataMovementStats._bytesMoved + remainingDataMovement.getRight();
+  }
+
+  private static List<String> getInstancesToAdd(@Nullable Map<String, String> currentInstanceStateMap,
+      Map<String, String> nextInstanceStateMap) {
+    List<String> instancesToAdd = new ArrayList<>();
+    for (String instance : nextInstanceStateMap.keySet()) {
+      if (currentInstanceStateMap == null || !currentInstanceStateMap.containsKey(instance)) {
+        instancesToAdd.add(instance);
+      }
+    }
+    return instancesToAdd;
+  }
+
+  /**
+   * Limits the segments added to the servers in the next assignment to a batch bounded by the total bytes of the added
+   * segment replicas, and by the number of segments added to each server. Segments exceeding the limits keep their
+   * current assignment, and will be moved in the following steps after the ExternalView converges. Keeping the current
+   * assignment never breaks the minimum available replicas requirement. Segments not added to any server (e.g. only
+   * dropped from servers) are not limited, and at least one segment is always moved so that the rebalance can make
+   * progress.
+   */
+  @VisibleForTesting
+  static Map<String, Map<String, String>> getNextBatchAssignment(Map<String, Map<String, String>> currentAssignment,
+      Map<String, Map<String, String>> nextAssignment, Map<String, Long> segmentSizeMap, long maxBytesPerBatch,
+      int maxSegmentsToAddPerServer) {
+    Map<String, Map<String, String>> nextBatchAssignment = new TreeMap<>();
+    Map<String, Integer> numSegmentsToAddMap = new HashMap<>();
+    long numBytesToAdd = 0;
+    boolean segmentMoved = false;
+    for (Map.Entry<String, Map<String, String>> entry : nextAssignment.entrySet()) {
+      String segmentName = entry.getKey();
+      Map<String, String> currentInstanceStateMap = currentAssignment.get(segmentName);
+      Map<String, String> nextInstanceStateMap = entry.getValue();
+      List<String> instancesToAdd = getInstancesToAdd(currentInstanceStateMap, nextInstanceStateMap);
+      if (instancesToAdd.isEmpty() || currentInstanceStateMap == null) {
+        nextBatchAssignment.put(segmentName, nextInstanceStateMap);
+        continue;
+      }
+      long segmentBytesToAdd = segmentSizeMap.getOrDefault(segmentName, 0L) * instancesToAdd.size();
+      boolean canMove = !segmentMoved || maxBytesPerBatch <= 0 || numBytesToAdd + segmentBytesToAdd <= maxBytesPerBatch;
+      if (canMove && maxSegmentsToAddPerServer > 0) {
+        for (String instance : instancesToAdd) {
+          if (numSegmentsToAddMap.getOrDefault(instance, 0) >= maxSegmentsToAddPerServer) {
+            canMove = false;
+            break;
+          }
+        }
+      }
+      if (canMove) {
+        nextBatchAssignment.put(segmentName, nextInstanceStateMap);
+        for (String instance : instancesToAdd) {
+          numSegmentsToAddMap.merge(instance, 1, Integer::sum);
+        }
+        numBytesToAdd += segmentBytesToAdd;
+        segmentMoved = true;
+      } else {
+        nextBatchAssignment.put(segmentName, currentInstanceStateMap);
+      }
+    }
+    return nextBatchAssignment;
+  }
+
   /**
    * Returns the map from instance to number of segments to be offloaded from the instance based on the current and
    * target assignment.
@@ -121,6 +121,12 @@ public class ZkBasedTableRebalanceObserver implements TableRebalanceObserver {
     _tableRebalanceProgressStats.setStartTimeMs(System.currentTimeMillis());
   }
 
+  @Override
+  public void onDataMovement(TableRebalanceProgressStats.DataMovementStats dataMovementStats) {
+    _tableRebalanceProgressStats.setDataMovement(dataMovementStats);
+    trackStatsInZk();
+  }
+
   @Override
   public void onNoop(String msg) {
     _controllerMetrics.setValueOfTableGauge(_tableNameWithType, ControllerGauge.TABLE_REBALANCE_IN_PROGRESS, 0);
@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.helix.core.assignment.segment.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.common.metadata.ZKMetadataProvider;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+
+
+public class SegmentSizeCacheTest {
+
+  private static SegmentZKMetadata getSegmentZKMetadata(String segmentName, long sizeInBytes) {
+    SegmentZKMetadata segmentZKMetadata = new SegmentZKMetadata(segmentName);
+    segmentZKMetadata.setSizeInBytes(sizeInBytes);
+    return segmentZKMetadata;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testIncrementalUpdate() {
+    String tableNameWithType = "testIncrementalUpdate_OFFLINE";
+    ZkHelixPropertyStore<ZNRecord> propertyStore = mock(ZkHelixPropertyStore.class);
+    int numSegments = SegmentSizeCache.MAX_NUM_SEGMENTS_TO_READ + 1;
+    List<String> segments = new ArrayList<>(numSegments);
+    List<SegmentZKMetadata> segmentsZKMetadata = new ArrayList<>(numSegments);
+    for (int i = 0; i < numSegments; i++) {
+      String segment = "segment_" + i;
+      segments.add(segment);
+      segmentsZKMetadata.add(getSegmentZKMetadata(segment, i + 1));
+    }
+
+    try (MockedStatic<ZKMetadataProvider> zkMetadataProvider = Mockito.mockStatic(ZKMetadataProvider.class)) {
+      zkMetadataProvider.when(() -> ZKMetadataProvider.getSegmentsZKMetadata(propertyStore, tableNameWithType))
+          .thenReturn(segmentsZKMetadata);
+      zkMetadataProvider.when(
+              () -> ZKMetadataProvider.getSegmentZKMetadata(eq(propertyStore), eq(tableNameWithType), anyString()))
+          .thenAnswer(invocation -> {
+            String segment = invocation.getArgument(2);
+            return segment.equals("newSegment") ? getSegmentZKMetadata(segment, 1000) : null;
+          });
+
+      // Too many segments missing, should load all the segment sizes
+      Map<String, Long> segmentSizes =
+          SegmentSizeCache.getSegmentSizes(propertyStore, tableNameWithType, segments, null, false);
+      assertEquals(segmentSizes.size(), numSegments);
+      assertEquals(segmentSizes.get("segment_0"), 1L);
+      zkMetadataProvider.verify(() -> ZKMetadataProvider.getSegmentsZKMetadata(propertyStore, tableNameWithType));
+
+      // Assigning a new segment should only read the ZK metadata of the new segment
+      segmentSizes = SegmentSizeCache.getSegmentSizes(propertyStore, tableNameWithType, segments, "newSegment", false);
+      assertEquals(segmentSizes.size(), numSegments + 1);
+      assertEquals(segmentSizes.get("newSegment"), 1000L);
+      zkMetadataProvider.verify(() -> ZKMetadataProvider.getSegmentsZKMetadata(propertyStore, tableNameWithType));
+      zkMetadataProvider.verify(() -> ZKMetadataProvider.getSegmentZKMetadata(any(), anyString(), anyString()));
+
+      // Reload should drop the deleted segments
+      segments.add("newSegment");
+      segmentSizes = SegmentSizeCache.getSegmentSizes(propertyStore, tableNameWithType, segments, null, true);
+      assertEquals(segmentSizes.size(), numSegments);
+      zkMetadataProvider.verify(() -> ZKMetadataProvider.getSegmentsZKMetadata(propertyStore, tableNameWithType),
+          Mockito.times(2));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testReadMissingSegments() {
+    String tableNameWithType = "testReadMissingSegments_OFFLINE";
+    ZkHelixPropertyStore<ZNRecord> propertyStore = mock(ZkHelixPropertyStore.class);
+
+    try (MockedStatic<ZKMetadataProvider> zkMetadataProvider = Mockito.mockStatic(ZKMetadataProvider.class)) {
+      zkMetadataProvider.when(
+              () -> ZKMetadataProvider.getSegmentZKMetadata(eq(propertyStore), eq(tableNameWithType), anyString()))
+          .thenAnswer(invocation -> {
+            String segment = invocation.getArgument(2);
+            // CONSUMING segment without size
+            return getSegmentZKMetadata(segment, segment.equals("consuming") ? -1 : 10);
+          });
+
+      Map<String, Long> segmentSizes = SegmentSizeCache.getSegmentSizes(propertyStore, tableNameWithType,
+          Set.of("segment_0", "segment_1", "consuming"), null, false);
+      assertEquals(segmentSizes,
+          Map.of("segment_0", 10L, "segment_1", 10L, "consuming", SegmentSizeCache.UNKNOWN_SIZE));
+      zkMetadataProvider.verify(
+          () -> ZKMetadataProvider.getSegmentZKMetadata(any(), anyString(), anyString()), Mockito.times(3));
+
+      // Cached sizes, including the unknown ones, should not be read again
+      segmentSizes = SegmentSizeCache.getSegmentSizes(propertyStore, tableNameWithType,
+          Set.of("segment_0", "consuming", "segment_2"), null, false);
+      assertEquals(segmentSizes.size(), 3);
+      zkMetadataProvider.verify(
+          () -> ZKMetadataProvider.getSegmentZKMetadata(any(), anyString(), anyString()), Mockito.times(4));
+      zkMetadataProvider.verify(() -> ZKMetadataProvider.getSegmentsZKMetadata(any(), anyString()), Mockito.never());
+    }
+  }
+}
@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.controller.helix.core.assignment.segment.strategy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.apache.pinot.common.assignment.InstancePartitions;
+import org.apache.pinot.controller.helix.core.assignment.segment.SegmentAssignmentTestUtils;
+import org.apache.pinot.controller.helix.core.assignment.segment.SegmentAssignmentUtils;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.config.table.assignment.InstancePartitionsType;
+import org.apache.pinot.spi.config.table.assignment.SegmentAssignmentConfig;
+import org.apache.pinot.spi.utils.CommonConstants.Helix.StateModel.SegmentStateModel;
+import org.apache.pinot.spi.utils.CommonConstants.Segment.AssignmentStrategy;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class SizeBalancedSegmentAssignmentStrategyTest {
+  private static final int NUM_REPLICAS = 2;
+  private static final String SEGMENT_NAME_PREFIX = "segment_";
+  private static final int NUM_SEGMENTS = 200;
+  private static final List<String> SEGMENTS =
+      SegmentAssignmentTestUtils.getNameList(SEGMENT_NAME_PREFIX, NUM_SEGMENTS);
+  private static final String INSTANCE_NAME_PREFIX = "instance_";
+  private static final int NUM_INSTANCES = 8;
+  private static final List<String> INSTANCES =
+      SegmentAssignmentTestUtils.getNameList(INSTANCE_NAME_PREFIX, NUM_INSTANCES);
+  private static final String RAW_TABLE_NAME = "assignmentTable";
+  private static final String INSTANCE_PARTITIONS_NAME =
+      InstancePartitionsType.OFFLINE.getInstancePartitionsName(RAW_TABLE_NAME);
+
+  private static SizeBalancedSegmentAssignmentStrategy createStrategy(Map<String, Long> segmentSizeMap) {
+    TableConfig tableConfig =
+        new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).setNumReplicas(NUM_REPLICAS).build();
+    SizeBalancedSegmentAssignmentStrategy strategy = new SizeBalancedSegmentAssignmentStrategy(segmentSizeMap);
+    strategy.init(null, tableConfig);
+    return strategy;
+  }
+
+  private static InstancePartitions createInstancePartitions(List<String> instances) {
+    InstancePartitions instancePartitions = new InstancePartitions(INSTANCE_PARTITIONS_NAME);
+    instancePartitions.setInstances(0, 0, instances);
+    return instancePartitions;
+  }
+
+  private static Map<String, Long> getBytesPerInstance(Map<String, Map<String, String>> assignment,
+      Map<String, Long> segmentSizeMap) {
+    Map<String, Long> bytesPerInstance = new HashMap<>();
+    for (Map.Entry<String, Map<String, String>> entry : assignment.entrySet()) {
+      for (String instance : entry.getValue().keySet()) {
+        bytesPerInstance.merge(instance, segmentSizeMap.get(entry.getKey()), Long::sum);
+      }
+    }
+    return bytesPerInstance;
+  }
+
+  @Test
+  public void testFactory() {
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .setSegmentAssignmentConfigMap(Map.of(InstancePartitionsType.OFFLINE.toString(),
+            new SegmentAssignmentConfig(AssignmentStrategy.SIZE_BALANCED_SEGMENT_ASSIGNMENT_STRATEGY))).build();
+    assertTrue(SegmentAssignmentStrategyFactory.getSegmentAssignmentStrategy(null, tableConfig,
+        InstancePartitionsType.OFFLINE.toString(),
+        createInstancePartitions(INSTANCES)) instanceof SizeBalancedSegmentAssignmentStrategy);
+  }
+
+  @Test
+  public void testAssignSegmentToLeastBytes() {
+    // A large segment on instance 0 and 1, and 3 small segments on instance 2 and 3
+    Map<String, Long> segmentSizeMap = new HashMap<>();
+    Map<String, Map<String, String>> currentAssignment = new TreeMap<>();
+    segmentSizeMap.put("large", 1000L);
+    currentAssignment.put("large",
+        SegmentAssignmentUtils.getInstanceStateMap(List.of("instance_0", "instance_1"), SegmentStateModel.ONLINE));
+    for (int i = 0; i < 3; i++) {
+      segmentSizeMap.put("small_" + i, 10L);
+      currentAssignment.put("small_" + i,
+          SegmentAssignmentUtils.getInstanceStateMap(List.of("instance_2", "instance_3"), SegmentStateModel.ONLINE));
+    }
+    segmentSizeMap.put("new", 10L);
+    SizeBalancedSegmentAssignmentStrategy strategy = createStrategy(segmentSizeMap);
+
+    // Instances 0 and 1 have the fewest segments, but the most bytes
+    List<String> instancesAssigned = strategy.assignSegment("new", currentAssignment,
+        createInstancePartitions(INSTANCES.subList(0, 4)), InstancePartitionsType.OFFLINE);
+    assertEquals(instancesAssigned, List.of("instance_2", "instance_3"));
+  }
+
+  @Test
+  public void testReassignSegmentsBalancesBytes() {
+    // Segment sizes vary by 100x
+    Random random = new Random(42);
+    Map<String, Long> segmentSizeMap = new HashMap<>();
+    long totalBytes = 0;
+    long maxSegmentSize = 0;
+    for (String segment : SEGMENTS) {
+      long size = 1 + random.nextInt(100);
+      segmentSizeMap.put(segment, size);
+      totalBytes += size;
+      maxSegmentSize = Math.max(maxSegmentSize, size);
+    }
+    // Assign all segments to the first 2 instances, then rebalance to all instances
+    Map<String, Map<String, String>> currentAssignment = new TreeMap<>();
+    for (String segment : SEGMENTS) {
+      currentAssignment.put(segment,
+          SegmentAssignmentUtils.getInstanceStateMap(INSTANCES.subList(0, 2), SegmentStateModel.ONLINE));
+    }
+    SizeBalancedSegmentAssignmentStrategy strategy = createStrategy(segmentSizeMap);
+    Map<String, Map<String, String>> newAssignment =
+        strategy.reassignSegments(currentAssignment, createInstancePartitions(INSTANCES),
+            InstancePartitionsType.OFFLINE);
+
+    assertEquals(newAssignment.size(), NUM_SEGMENTS);
+    for (Map<String, String> instanceStateMap : newAssignment.values()) {
+      assertEquals(instanceStateMap.size(), NUM_REPLICAS);
+    }
+    Map<String, Long> bytesPerInstance = getBytesPerInstance(newAssignment, segmentSizeMap);
+    assertEquals(bytesPerInstance.size(), NUM_INSTANCES);
+    long maxBytesPerInstance =
+        (long) Math.ceil((double) totalBytes * NUM_REPLICAS / NUM_INSTANCES * (1
+            + SizeBalancedSegmentAssignmentStrategy.MAX_LOAD_IMBALANCE));
+    for (long bytes : bytesPerInstance.values()) {
+      assertTrue(bytes <= maxBytesPerInstance + maxSegmentSize, "Unbalanced bytes: " + bytesPerInstance);
+    }
+
+    // Rebalancing a size balanced assignment should keep the segments on the instances within the max bytes
+    Map<String, Map<String, String>> rebalancedAssignment =
+        strategy.reassignSegments(newAssignment, createInstancePartitions(INSTANCES), InstancePartitionsType.OFFLINE);
+    int numSegmentsMoved = 0;
+    for (String segment : SEGMENTS) {
+      if (!rebalancedAssignment.get(segment).equals(newAssignment.get(segment))) {
+        numSegmentsMoved++;
+      }
+    }
+    assertTrue(numSegmentsMoved < NUM_SEGMENTS / 10, "Too many segments moved: " + numSegmentsMoved);
+  }
+
+  @Test
+  public void testUnknownSizeUsesAverage() {
+    Map<String, Long> segmentSizeMap = new HashMap<>();
+    Map<String, Map<String, String>> currentAssignment = new TreeMap<>();
+    // Known segments of 100 bytes on instance 0 and 1, and 2 segments without size on instance 2 and 3
+    segmentSizeMap.put("known_0", 100L);
+    currentAssignment.put("known_0",
+        SegmentAssignmentUtils.getInstanceStateMap(List.of("instance_0", "instance_1"), SegmentStateModel.ONLINE));
+    for (int i = 0; i < 2; i++) {
+      currentAssignment.put("unknown_" + i,
+          SegmentAssignmentUtils.getInstanceStateMap(List.of("instance_2", "instance_3"), SegmentStateModel.ONLINE));
+    }
+    SizeBalancedSegmentAssignmentStrategy strategy = createStrategy(segmentSizeMap);
+
+    // Unknown segments count as 100 bytes each, so instance 0 and 1 have the least bytes
+    List<String> instancesAssigned = strategy.assignSegment("new", currentAssignment,
+        createInstancePartitions(INSTANCES.subList(0, 4)), InstancePartitionsType.OFFLINE);
+    assertEquals(instancesAssigned, List.of("instance_0", "instance_1"));
+  }
+}
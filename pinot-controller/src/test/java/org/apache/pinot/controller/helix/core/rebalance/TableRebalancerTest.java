@@ -1256,6 +1256,72 @@ public class TableRebalancerTest {
     assertEquals(nextAssignment, targetAssignment);
   }
 
+  @Test
+  public void testNextBatchAssignment() {
+    // Segments 0-3 move from host1 and host2 to host3 and host4, segment 4 is only dropped from host2, and segment 5
+    // with unknown size moves from host2 to host3
+    Map<String, Map<String, String>> currentAssignment = new TreeMap<>();
+    Map<String, Map<String, String>> nextAssignment = new TreeMap<>();
+    Map<String, Long> segmentSizeMap = new HashMap<>();
+    for (int i = 0; i < 4; i++) {
+      String segmentName = "segment" + i;
+      currentAssignment.put(segmentName,
+          SegmentAssignmentUtils.getInstanceStateMap(Arrays.asList("host1", "host2"), ONLINE));
+      nextAssignment.put(segmentName,
+          SegmentAssignmentUtils.getInstanceStateMap(Arrays.asList("host3", "host4"), ONLINE));
+      segmentSizeMap.put(segmentName, 100L);
+    }
+    currentAssignment.put("segment4",
+        SegmentAssignmentUtils.getInstanceStateMap(Arrays.asList("host1", "host2"), ONLINE));
+    nextAssignment.put("segment4",
+        SegmentAssignmentUtils.getInstanceStateMap(Collections.singletonList("host1"), ONLINE));
+    segmentSizeMap.put("segment4", 100L);
+    currentAssignment.put("segment5",
+        SegmentAssignmentUtils.getInstanceStateMap(Arrays.asList("host1", "host2"), ONLINE));
+    nextAssignment.put("segment5",
+        SegmentAssignmentUtils.getInstanceStateMap(Arrays.asList("host1", "host3"), ONLINE));
+
+    assertEquals(TableRebalancer.getDataMovement(currentAssignment, nextAssignment, segmentSizeMap),
+        Pair.of(9, 800L));
+
+    // Bytes limit: segment 0 takes 200 bytes, segment 1 would exceed the limit, segment 5 has no known size
+    Map<String, Map<String, String>> batchAssignment =
+        TableRebalancer.getNextBatchAssignment(currentAssignment, nextAssignment, segmentSizeMap, 250L, -1);
+    assertEquals(batchAssignment.get("segment0"), nextAssignment.get("segment0"));
+    for (int i = 1; i < 4; i++) {
+      assertEquals(batchAssignment.get("segment" + i), currentAssignment.get("segment" + i));
+    }
+    assertEquals(batchAssignment.get("segment4"), nextAssignment.get("segment4"));
+    assertEquals(batchAssignment.get("segment5"), nextAssignment.get("segment5"));
+    assertEquals(TableRebalancer.getDataMovement(currentAssignment, batchAssignment, segmentSizeMap),
+        Pair.of(3, 200L));
+
+    // At least one segment is moved even if it exceeds the bytes limit
+    batchAssignment =
+        TableRebalancer.getNextBatchAssignment(currentAssignment, nextAssignment, segmentSizeMap, 50L, -1);
+    assertEquals(batchAssignment.get("segment0"), nextAssignment.get("segment0"));
+    assertEquals(batchAssignment.get("segment1"), currentAssignment.get("segment1"));
+
+    // Per server limit: host3 can take segment 0 and 1, and segment 5 has to wait
+    batchAssignment =
+        TableRebalancer.getNextBatchAssignment(currentAssignment, nextAssignment, segmentSizeMap, -1L, 2);
+    assertEquals(batchAssignment.get("segment0"), nextAssignment.get("segment0"));
+    assertEquals(batchAssignment.get("segment1"), nextAssignment.get("segment1"));
+    assertEquals(batchAssignment.get("segment2"), currentAssignment.get("segment2"));
+    assertEquals(batchAssignment.get("segment3"), currentAssignment.get("segment3"));
+    assertEquals(batchAssignment.get("segment4"), nextAssignment.get("segment4"));
+    assertEquals(batchAssignment.get("segment5"), currentAssignment.get("segment5"));
+
+    // Moving the batches one after another should reach the next assignment
+    Map<String, Map<String, String>> assignment = currentAssignment;
+    int numBatches = 0;
+    while (!assignment.equals(nextAssignment)) {
+      assignment = TableRebalancer.getNextBatchAssignment(assignment, nextAssignment, segmentSizeMap, 250L, 2);
+      numBatches++;
+    }
+    assertEquals(numBatches, 4);
+  }
+
   @Test
   public void testIsExternalViewConverged() {
     String offlineTableName = "testTable_OFFLINE";
@@ -112,6 +112,8 @@ public class MinionConstants {
     public static final String MAX_NUM_RECORDS_PER_SEGMENT_KEY = "maxNumRecordsPerSegment";
     public static final String SEGMENT_MAPPER_FILE_SIZE_IN_BYTES = "segmentMapperFileSizeThresholdInBytes";
     public static final String MAX_NUM_PARALLEL_BUCKETS = "maxNumParallelBuckets";
+    public static final String SEGMENT_PROCESSOR_NUM_THREADS_KEY = "segmentProcessorNumThreads";
+    public static final String SEGMENT_PROCESSOR_MEMORY_BUDGET_IN_BYTES_KEY = "segmentProcessorMemoryBudgetInBytes";
     public static final String SEGMENT_NAME_PREFIX_KEY = "segmentNamePrefix";
     public static final String SEGMENT_NAME_POSTFIX_KEY = "segmentNamePostfix";
     public static final String FIXED_SEGMENT_NAME_KEY = "fixedSegmentName";
@@ -134,6 +136,17 @@ public class MinionConstants {
 
     // Custom segment group manager class name
     public static final String SEGMENT_GROUP_MANAGER_CLASS_NAME_KEY = "segment.group.manager.class.name";
+
+    /**
+     * Whether to only merge the unmerged segments of a time bucket that already has merged segments, and append the
+     * output to the bucket instead of re-merging the whole bucket, by default false
+     */
+    public static final String INCREMENTAL_MERGE_KEY = "incrementalMerge";
+
+    /**
+     * When incremental merge is enabled, the whole bucket is re-merged once it accumulates this many merged segments
+     */
+    public static final String MAX_NUM_MERGED_SEGMENTS_PER_BUCKET_KEY = "maxNumMergedSegmentsPerBucket";
   }
 
   /**
@@ -219,5 +232,18 @@ public class MinionConstants {
      * number of segments to query in one batch to fetch valid doc id metadata, by default 500
      */
     public static final String NUM_SEGMENTS_BATCH_PER_SERVER_REQUEST = "numSegmentsBatchPerServerRequest";
+
+    /**
+     * Whether to compact the segment by remapping the doc ids of the existing indexes instead of re-creating the
+     * segment from the valid records, by default false. Segments with indexes that cannot be remapped (e.g. text, json,
+     * star-tree) are still re-created.
+     */
+    public static final String REMAP_DOC_IDS = "remapDocIds";
+
+    /**
+     * Whether to remove the dictionary entries no longer referenced by the valid records when remapping the doc ids,
+     * by default false
+     */
+    public static final String PRUNE_UNUSED_DICTIONARY_ENTRIES = "pruneUnusedDictionaryEntries";
   }
 }
@@ -40,9 +40,11 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.function.BooleanSupplier;
 import javax.annotation.Nullable;
+import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.common.Utils;
+import org.apache.pinot.common.metadata.SharedDictionaryAccessHelper;
 import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
 import org.apache.pinot.common.metrics.ServerGauge;
 import org.apache.pinot.common.metrics.ServerMeter;
@@ -66,6 +68,8 @@ import org.apache.pinot.segment.local.utils.IngestionUtils;
 import org.apache.pinot.segment.spi.MutableSegment;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.creator.SegmentVersion;
+import org.apache.pinot.segment.spi.creator.SharedDictionary;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
 import org.apache.pinot.segment.spi.memory.PinotDataBufferMemoryManager;
 import org.apache.pinot.segment.spi.partition.PartitionFunctionFactory;
 import org.apache.pinot.segment.spi.store.SegmentDirectoryPaths;
@@ -77,6 +81,7 @@ import org.apache.pinot.spi.config.table.IndexingConfig;
 import org.apache.pinot.spi.config.table.SegmentPartitionConfig;
 import org.apache.pinot.spi.config.table.SegmentZKPropsConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.metrics.PinotMeter;
@@ -1058,7 +1063,7 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
       RealtimeSegmentConverter converter =
           new RealtimeSegmentConverter(_realtimeSegment, segmentZKPropsConfig, tempSegmentFolder.getAbsolutePath(),
               _schema, _tableNameWithType, _tableConfig, _segmentZKMetadata.getSegmentName(),
-              _defaultNullHandlingEnabled);
+              _defaultNullHandlingEnabled, getSharedDictionaries());
       _segmentLogger.info("Trying to build segment");
       try {
         converter.build(_segmentVersion, _serverMetrics);
@@ -1569,6 +1574,9 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
             .setPartitionDedupMetadataManager(partitionDedupMetadataManager)
             .setDedupTimeColumn(tableConfig.getDedupTimeColumn())
             .setFieldConfigList(tableConfig.getFieldConfigList());
+    if (indexingConfig.isEnableStarTreeForConsumingSegments()) {
+      realtimeSegmentConfigBuilder.setStarTreeIndexConfigs(indexingConfig.getStarTreeIndexConfigs());
+    }
 
     // Create message decoder
     Set<String> fieldsToRead = IngestionUtils.getFieldsForRecordExtractor(_tableConfig.getIngestionConfig(), _schema);
@@ -1728,6 +1736,45 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
     return null;
   }
 
+  /**
+   * Adds the values of the shared dictionary columns within the consuming segment to the table-level shared
+   * dictionaries, and returns the shared dictionaries to encode the completed segment against. Columns whose shared
+   * dictionary cannot be updated are encoded with a segment-local dictionary.
+   */
+  private Map<String, SharedDictionary> getSharedDictionaries() {
+    List<String> sharedDictionaryColumns = _tableConfig.getIndexingConfig().getSharedDictionaryColumns();
+    if (CollectionUtils.isEmpty(sharedDictionaryColumns)) {
+      return Collections.emptyMap();
+    }
+    Map<String, SharedDictionary> sharedDictionaries = new HashMap<>();
+    for (String column : sharedDictionaryColumns) {
+      FieldSpec fieldSpec = _schema.getFieldSpecFor(column);
+      Dictionary dictionary = null;
+      if (fieldSpec != null && !fieldSpec.isVirtualColumn() && fieldSpec.getDataType() == FieldSpec.DataType.STRING) {
+        dictionary = _realtimeSegment.getDataSource(column).getDictionary();
+      }
+      if (dictionary == null) {
+        _segmentLogger.warn("Skipping shared dictionary for column: {} without STRING dictionary", column);
+        continue;
+      }
+      int cardinality = dictionary.length();
+      List<String> values = new ArrayList<>(cardinality);
+      for (int dictId = 0; dictId < cardinality; dictId++) {
+        values.add(dictionary.getStringValue(dictId));
+      }
+      try {
+        SharedDictionary sharedDictionary = SharedDictionaryAccessHelper.addValues(
+            _realtimeTableDataManager.getHelixManager().getHelixPropertyStore(), _tableNameWithType, column, values);
+        if (sharedDictionary != null) {
+          sharedDictionaries.put(column, sharedDictionary);
+        }
+      } catch (Exception e) {
+        _segmentLogger.warn("Caught exception while updating shared dictionary for column: {}", column, e);
+      }
+    }
+    return sharedDictionaries;
+  }
+
   /*
    * set the following partition parameters in RT segment config builder:
    *  - partition column
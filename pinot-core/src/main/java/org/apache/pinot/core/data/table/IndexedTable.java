@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.common.request.context.OrderByExpressionContext;
 import org.apache.pinot.common.utils.DataSchema;
@@ -162,6 +163,23 @@ public abstract class IndexedTable extends BaseTable {
     _resizeTimeNs += resizeTimeNs;
   }
 
+  /**
+   * Converts the key columns of all the records with the given key converter, e.g. to materialize the group keys
+   * encoded as dictionary ids. The conversion must be one-to-one so that no record needs to be merged. Should be called
+   * before {@link #finish(boolean, boolean)}.
+   */
+  public void convertKeys(UnaryOperator<Object[]> keyConverter) {
+    assert _topRecords == null;
+    Record[] records = _lookupMap.values().toArray(new Record[0]);
+    _lookupMap.clear();
+    for (Record record : records) {
+      Object[] values = record.getValues();
+      Object[] keyValues = keyConverter.apply(Arrays.copyOf(values, _numKeyColumns));
+      System.arraycopy(keyValues, 0, values, 0, _numKeyColumns);
+      _lookupMap.put(new Key(keyValues), record);
+    }
+  }
+
   @Override
   public void finish(boolean sort, boolean storeFinalResult) {
     if (_hasOrderBy) {
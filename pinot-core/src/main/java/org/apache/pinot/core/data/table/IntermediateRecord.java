@@ -34,4 +34,12 @@ public class IntermediateRecord {
     _record = record;
     _values = values;
   }
+
+  /**
+   * Creates an IntermediateRecord without the values to be ordered, for the segment level results that are merged
+   * without being trimmed.
+   */
+  public static IntermediateRecord create(Key key, Record record) {
+    return new IntermediateRecord(key, record, new Comparable[0]);
+  }
 }
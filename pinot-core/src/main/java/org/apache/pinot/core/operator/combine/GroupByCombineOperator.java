@@ -41,8 +41,10 @@ import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
 import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.aggregation.groupby.SharedGroupByDictionaries;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.util.GroupByUtils;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
 import org.apache.pinot.spi.trace.Tracing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -241,6 +243,17 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
     }
 
     IndexedTable indexedTable = _indexedTable;
+    SharedGroupByDictionaries sharedGroupByDictionaries = _queryContext.getSharedGroupByDictionaries();
+    if (sharedGroupByDictionaries != null) {
+      Dictionary[] dictionaries = sharedGroupByDictionaries.getDictionaries();
+      // Group keys are merged on the dictionary ids of the shared dictionaries, materialize the values
+      indexedTable.convertKeys(keys -> {
+        for (int i = 0; i < _numGroupByExpressions; i++) {
+          keys[i] = dictionaries[i].getInternal((Integer) keys[i]);
+        }
+        return keys;
+      });
+    }
     if (_queryContext.isServerReturnFinalResult()) {
       indexedTable.finish(true, true);
     } else if (_queryContext.isServerReturnFinalResultKeyUnpartitioned()) {
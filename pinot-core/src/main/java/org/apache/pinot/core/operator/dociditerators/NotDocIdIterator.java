@@ -41,6 +41,14 @@ public class NotDocIdIterator implements BlockDocIdIterator {
     _numDocs = numDocs;
   }
 
+  public BlockDocIdIterator getChildDocIdIterator() {
+    return _childDocIdIterator;
+  }
+
+  public int getNumDocs() {
+    return _numDocs;
+  }
+
   @Override
   public int next() {
     if (_nextDocId >= _numDocs) {
@@ -29,6 +29,7 @@ import org.apache.pinot.core.common.BlockDocIdIterator;
 import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.operator.dociditerators.AndDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.BitmapBasedDocIdIterator;
+import org.apache.pinot.core.operator.dociditerators.NotDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.RangelessBitmapDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.SortedDocIdIterator;
@@ -44,11 +45,13 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
  * BlockDocIdSets:
  * <ul>
  *   <li>
- *     When there are at least one index-base BlockDocIdIterator (SortedDocIdIterator or BitmapBasedDocIdIterator) and
- *     at least one ScanBasedDocIdIterator, or more than one index-based BlockDocIdIterator, merge them and construct a
- *     RangelessBitmapDocIdIterator from the merged document ids. If there is no remaining BlockDocIdIterator, directly
- *     return the merged RangelessBitmapDocIdIterator; otherwise, construct and return an AndDocIdIterator with the
- *     merged RangelessBitmapDocIdIterator and the remaining BlockDocIdIterators.
+ *     When there are at least one index-base BlockDocIdIterator (SortedDocIdIterator, BitmapBasedDocIdIterator or
+ *     NotDocIdIterator on top of a BitmapBasedDocIdIterator) and at least one ScanBasedDocIdIterator, or more than one
+ *     index-based BlockDocIdIterator, merge them and construct a RangelessBitmapDocIdIterator from the merged document
+ *     ids. The excluded document ids of the NotDocIdIterators are removed with ANDNOT after intersecting the other
+ *     index-based BlockDocIdIterators, without materializing their complement. If there is no remaining
+ *     BlockDocIdIterator, directly return the merged RangelessBitmapDocIdIterator; otherwise, construct and return an
+ *     AndDocIdIterator with the merged RangelessBitmapDocIdIterator and the remaining BlockDocIdIterators.
  *   </li>
  *   <li>
  *     Otherwise, construct and return an AndDocIdIterator with all BlockDocIdIterators.
@@ -76,6 +79,8 @@ public final class AndDocIdSet implements BlockDocIdSet {
     BlockDocIdIterator[] allDocIdIterators = new BlockDocIdIterator[numDocIdSets];
     List<SortedDocIdIterator> sortedDocIdIterators = new ArrayList<>();
     List<BitmapBasedDocIdIterator> bitmapBasedDocIdIterators = new ArrayList<>();
+    // NotDocIdIterators on top of BitmapBasedDocIdIterators, e.g. from complemented inverted index bitmaps
+    List<NotDocIdIterator> excludedBitmapDocIdIterators = new ArrayList<>();
     List<ScanBasedDocIdIterator> scanBasedDocIdIterators = new ArrayList<>();
     List<BlockDocIdIterator> remainingDocIdIterators = new ArrayList<>();
     long numEntriesScannedForNonScanBasedDocIdSets = 0L;
@@ -91,6 +96,10 @@ public final class AndDocIdSet implements BlockDocIdSet {
       } else if (docIdIterator instanceof BitmapBasedDocIdIterator) {
         bitmapBasedDocIdIterators.add((BitmapBasedDocIdIterator) docIdIterator);
         numEntriesScannedForNonScanBasedDocIdSets += docIdSet.getNumEntriesScannedInFilter();
+      } else if (docIdIterator instanceof NotDocIdIterator
+          && ((NotDocIdIterator) docIdIterator).getChildDocIdIterator() instanceof BitmapBasedDocIdIterator) {
+        excludedBitmapDocIdIterators.add((NotDocIdIterator) docIdIterator);
+        numEntriesScannedForNonScanBasedDocIdSets += docIdSet.getNumEntriesScannedInFilter();
       } else if (docIdIterator instanceof ScanBasedDocIdIterator) {
         scanBasedDocIdIterators.add((ScanBasedDocIdIterator) docIdIterator);
         scanBasedDocIdSets.add(docIdSet);
@@ -121,9 +130,11 @@ public final class AndDocIdSet implements BlockDocIdSet {
 
     int numSortedDocIdIterators = sortedDocIdIterators.size();
     int numBitmapBasedDocIdIterators = bitmapBasedDocIdIterators.size();
+    int numExcludedBitmapDocIdIterators = excludedBitmapDocIdIterators.size();
     int numScanBasedDocIdIterators = scanBasedDocIdIterators.size();
     int numRemainingDocIdIterators = remainingDocIdIterators.size();
-    int numIndexBasedDocIdIterators = numSortedDocIdIterators + numBitmapBasedDocIdIterators;
+    int numIndexBasedDocIdIterators =
+        numSortedDocIdIterators + numBitmapBasedDocIdIterators + numExcludedBitmapDocIdIterators;
     if ((numIndexBasedDocIdIterators > 0 && numScanBasedDocIdIterators > 0) || numIndexBasedDocIdIterators > 1) {
       // When there are at least one index-base BlockDocIdIterator (SortedDocIdIterator or BitmapBasedDocIdIterator)
       // and at least one ScanBasedDocIdIterator, or more than one index-based BlockDocIdIterator, merge them and
@@ -152,17 +163,22 @@ public final class AndDocIdSet implements BlockDocIdSet {
         for (BitmapBasedDocIdIterator bitmapBasedDocIdIterator : bitmapBasedDocIdIterators) {
           mutableDocIds.and(bitmapBasedDocIdIterator.getDocIds());
         }
-        docIds = mutableDocIds;
-      } else {
-        if (numBitmapBasedDocIdIterators == 1) {
+        docIds = applyExcludedDocIds(mutableDocIds, excludedBitmapDocIdIterators);
+      } else if (numBitmapBasedDocIdIterators > 0) {
+        if (numBitmapBasedDocIdIterators == 1 && numExcludedBitmapDocIdIterators == 0) {
           docIds = bitmapBasedDocIdIterators.get(0).getDocIds();
         } else {
           MutableRoaringBitmap mutableDocIds = bitmapBasedDocIdIterators.get(0).getDocIds().toMutableRoaringBitmap();
           for (int i = 1; i < numBitmapBasedDocIdIterators; i++) {
             mutableDocIds.and(bitmapBasedDocIdIterators.get(i).getDocIds());
           }
-          docIds = mutableDocIds;
+          docIds = applyExcludedDocIds(mutableDocIds, excludedBitmapDocIdIterators);
         }
+      } else {
+        // Only excluded document ids, start from all the documents
+        MutableRoaringBitmap mutableDocIds = new MutableRoaringBitmap();
+        mutableDocIds.add(0L, excludedBitmapDocIdIterators.get(0).getNumDocs());
+        docIds = applyExcludedDocIds(mutableDocIds, excludedBitmapDocIdIterators);
       }
       for (ScanBasedDocIdIterator scanBasedDocIdIterator : scanBasedDocIdIterators) {
         docIds = scanBasedDocIdIterator.applyAnd(docIds);
@@ -185,6 +201,14 @@ public final class AndDocIdSet implements BlockDocIdSet {
     }
   }
 
+  private static MutableRoaringBitmap applyExcludedDocIds(MutableRoaringBitmap docIds,
+      List<NotDocIdIterator> excludedBitmapDocIdIterators) {
+    for (NotDocIdIterator excludedBitmapDocIdIterator : excludedBitmapDocIdIterators) {
+      docIds.andNot(((BitmapBasedDocIdIterator) excludedBitmapDocIdIterator.getChildDocIdIterator()).getDocIds());
+    }
+    return docIds;
+  }
+
   @Override
   public long getNumEntriesScannedInFilter() {
     List<BlockDocIdSet> scanBasedDocIdSets = _scanBasedDocIdSets.get();
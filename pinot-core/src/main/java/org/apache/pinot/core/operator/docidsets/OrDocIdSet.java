@@ -25,9 +25,11 @@ import org.apache.pinot.core.common.BlockDocIdIterator;
 import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.operator.dociditerators.BitmapBasedDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.BitmapDocIdIterator;
+import org.apache.pinot.core.operator.dociditerators.NotDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.OrDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.SortedDocIdIterator;
 import org.apache.pinot.spi.utils.Pairs;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
@@ -37,8 +39,10 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
  * BlockDocIdSets:
  * <ul>
  *   <li>
- *     When there are more than one index-base BlockDocIdIterator (SortedDocIdIterator or BitmapBasedDocIdIterator),
- *     merge them and construct a BitmapDocIdIterator from the merged document ids. If there is no remaining
+ *     When there are more than one index-base BlockDocIdIterator (SortedDocIdIterator, BitmapBasedDocIdIterator or
+ *     NotDocIdIterator on top of a BitmapBasedDocIdIterator), merge them and construct a BitmapDocIdIterator from the
+ *     merged document ids. The NotDocIdIterators are merged by removing the other matching document ids from the
+ *     intersection of their excluded document ids, then flipping the result once. If there is no remaining
  *     BlockDocIdIterator, directly return the merged BitmapDocIdIterator; otherwise, construct and return an
  *     OrDocIdIterator with the merged BitmapDocIdIterator and the remaining BlockDocIdIterators.
  *   </li>
@@ -65,6 +69,8 @@ public final class OrDocIdSet implements BlockDocIdSet {
     BlockDocIdIterator[] allDocIdIterators = new BlockDocIdIterator[numDocIdSets];
     List<SortedDocIdIterator> sortedDocIdIterators = new ArrayList<>();
     List<BitmapBasedDocIdIterator> bitmapBasedDocIdIterators = new ArrayList<>();
+    // NotDocIdIterators on top of BitmapBasedDocIdIterators, e.g. from complemented inverted index bitmaps
+    List<NotDocIdIterator> excludedBitmapDocIdIterators = new ArrayList<>();
     List<BlockDocIdIterator> remainingDocIdIterators = new ArrayList<>();
     long numEntriesScannedForNonScanBasedDocIdSets = 0L;
     List<BlockDocIdSet> scanBasedDocIdSets = new ArrayList<>();
@@ -77,6 +83,11 @@ public final class OrDocIdSet implements BlockDocIdSet {
         sortedDocIdIterators.add((SortedDocIdIterator) docIdIterator);
         numEntriesScannedForNonScanBasedDocIdSets += docIdSet.getNumEntriesScannedInFilter();
       } else if (docIdIterator instanceof BitmapBasedDocIdIterator) {
+        bitmapBasedDocIdIterators.add((BitmapBasedDocIdIterator) docIdIterator);
+        numEntriesScannedForNonScanBasedDocIdSets += docIdSet.getNumEntriesScannedInFilter();
+      } else if (docIdIterator instanceof NotDocIdIterator
+          && ((NotDocIdIterator) docIdIterator).getChildDocIdIterator() instanceof BitmapBasedDocIdIterator) {
+        excludedBitmapDocIdIterators.add((NotDocIdIterator) docIdIterator);
         numEntriesScannedForNonScanBasedDocIdSets += docIdSet.getNumEntriesScannedInFilter();
       } else {
         remainingDocIdIterators.add(docIdIterator);
@@ -91,11 +102,13 @@ public final class OrDocIdSet implements BlockDocIdSet {
 
     int numSortedDocIdIterators = sortedDocIdIterators.size();
     int numBitmapBasedDocIdIterators = bitmapBasedDocIdIterators.size();
-    if (numSortedDocIdIterators + numBitmapBasedDocIdIterators > 1) {
-      // When there are more than one index-base BlockDocIdIterator (SortedDocIdIterator or BitmapBasedDocIdIterator),
-      // merge them and construct a BitmapDocIdIterator from the merged document ids. If there is no remaining
-      // BlockDocIdIterator, directly return the merged BitmapDocIdIterator; otherwise, construct and return an
-      // OrDocIdIterator with the merged BitmapDocIdIterator and the remaining BlockDocIdIterators.
+    int numExcludedBitmapDocIdIterators = excludedBitmapDocIdIterators.size();
+    if (numSortedDocIdIterators + numBitmapBasedDocIdIterators + numExcludedBitmapDocIdIterators > 1) {
+      // When there are more than one index-base BlockDocIdIterator (SortedDocIdIterator, BitmapBasedDocIdIterator or
+      // NotDocIdIterator on top of a BitmapBasedDocIdIterator), merge them and construct a BitmapDocIdIterator from the
+      // merged document ids. If there is no remaining BlockDocIdIterator, directly return the merged
+      // BitmapDocIdIterator; otherwise, construct and return an OrDocIdIterator with the merged BitmapDocIdIterator and
+      // the remaining BlockDocIdIterators.
 
       MutableRoaringBitmap docIds = new MutableRoaringBitmap();
       for (SortedDocIdIterator sortedDocIdIterator : sortedDocIdIterators) {
@@ -107,6 +120,18 @@ public final class OrDocIdSet implements BlockDocIdSet {
       for (BitmapBasedDocIdIterator bitmapBasedDocIdIterator : bitmapBasedDocIdIterators) {
         docIds.or(bitmapBasedDocIdIterator.getDocIds());
       }
+      if (numExcludedBitmapDocIdIterators > 0) {
+        // A document is NOT matched only when it is excluded by all the NotDocIdIterators and not matched by the other
+        // iterators. Compute the non-matching documents from the (usually small) excluded bitmaps, then flip them.
+        MutableRoaringBitmap nonMatchingDocIds =
+            getExcludedDocIds(excludedBitmapDocIdIterators.get(0)).toMutableRoaringBitmap();
+        for (int i = 1; i < numExcludedBitmapDocIdIterators; i++) {
+          nonMatchingDocIds.and(getExcludedDocIds(excludedBitmapDocIdIterators.get(i)));
+        }
+        nonMatchingDocIds.andNot(docIds);
+        nonMatchingDocIds.flip(0L, _numDocs);
+        docIds = nonMatchingDocIds;
+      }
       BitmapDocIdIterator bitmapDocIdIterator = new BitmapDocIdIterator(docIds, _numDocs);
       int numRemainingDocIdIterators = remainingDocIdIterators.size();
       if (numRemainingDocIdIterators == 0) {
@@ -126,6 +151,10 @@ public final class OrDocIdSet implements BlockDocIdSet {
     }
   }
 
+  private static ImmutableRoaringBitmap getExcludedDocIds(NotDocIdIterator excludedBitmapDocIdIterator) {
+    return ((BitmapBasedDocIdIterator) excludedBitmapDocIdIterator.getChildDocIdIterator()).getDocIds();
+  }
+
   @Override
   public long getNumEntriesScannedInFilter() {
     List<BlockDocIdSet> scanBasedDocIdSets = _scanBasedDocIdSets.get();
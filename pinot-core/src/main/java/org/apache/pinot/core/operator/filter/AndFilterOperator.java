@@ -89,11 +89,7 @@ public class AndFilterOperator extends BaseFilterOperator {
 
   @Override
   public boolean canOptimizeCount() {
-    boolean allChildrenCanProduceBitmaps = true;
-    for (BaseFilterOperator child : _filterOperators) {
-      allChildrenCanProduceBitmaps &= child.canProduceBitmaps();
-    }
-    return allChildrenCanProduceBitmaps;
+    return canProduceBitmaps();
   }
 
   @Override
@@ -109,6 +105,25 @@ public class AndFilterOperator extends BaseFilterOperator {
     return BufferFastAggregation.andCardinality(bitmaps);
   }
 
+  @Override
+  public boolean canProduceBitmaps() {
+    for (BaseFilterOperator child : _filterOperators) {
+      if (!child.canProduceBitmaps()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public BitmapCollection getBitmaps() {
+    List<BitmapCollection> bitmapCollections = new ArrayList<>(_filterOperators.size());
+    for (BaseFilterOperator child : _filterOperators) {
+      bitmapCollections.add(child.getBitmaps());
+    }
+    return BitmapCollection.and(_numDocs, bitmapCollections);
+  }
+
   @Override
   public List<Operator> getChildOperators() {
     return new ArrayList<>(_filterOperators);
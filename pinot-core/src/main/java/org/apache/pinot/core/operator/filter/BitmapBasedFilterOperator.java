@@ -23,6 +23,7 @@ import java.util.List;
 import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.docidsets.BitmapDocIdSet;
+import org.apache.pinot.core.operator.docidsets.NotDocIdSet;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 
 
@@ -41,7 +42,8 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
   @Override
   protected BlockDocIdSet getTrues() {
     if (_exclusive) {
-      return new BitmapDocIdSet(ImmutableRoaringBitmap.flip(_docIds, 0L, _numDocs), _numDocs);
+      // NOTE: Do not materialize the flipped bitmap, so that AndDocIdSet can apply the excluded docs with ANDNOT
+      return new NotDocIdSet(new BitmapDocIdSet(_docIds, _numDocs), _numDocs);
     } else {
       return new BitmapDocIdSet(_docIds, _numDocs);
     }
@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.core.operator.filter;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.roaringbitmap.buffer.BufferFastAggregation;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
@@ -95,6 +97,70 @@ public class BitmapCollection {
     }
   }
 
+  /**
+   * Computes the intersection of the given bitmap collections. Negated collections are subtracted from the
+   * intersection of the non-negated ones, and the result stays negated (without materializing the complement) when all
+   * collections are negated.
+   *
+   * @param numDocs the number of documents in the segment
+   * @param bitmapCollections the bitmap collections to intersect
+   * @return a bitmap collection containing the intersection
+   */
+  public static BitmapCollection and(int numDocs, List<BitmapCollection> bitmapCollections) {
+    List<ImmutableRoaringBitmap> includes = new ArrayList<>(bitmapCollections.size());
+    List<ImmutableRoaringBitmap> excludes = new ArrayList<>(bitmapCollections.size());
+    for (BitmapCollection bitmapCollection : bitmapCollections) {
+      if (bitmapCollection._inverted) {
+        excludes.add(bitmapCollection.reduceInternal());
+      } else {
+        includes.add(bitmapCollection.reduceInternal());
+      }
+    }
+    if (includes.isEmpty()) {
+      // NOT(a) AND NOT(b) == NOT(a OR b)
+      return new BitmapCollection(numDocs, true, excludes.toArray(new ImmutableRoaringBitmap[0]));
+    }
+    return new BitmapCollection(numDocs, false, andNot(includes, excludes));
+  }
+
+  /**
+   * Computes the union of the given bitmap collections. When any collection is negated, the complement of the union is
+   * computed as the intersection of the complements, and the result stays negated.
+   *
+   * @param numDocs the number of documents in the segment
+   * @param bitmapCollections the bitmap collections to union
+   * @return a bitmap collection containing the union
+   */
+  public static BitmapCollection or(int numDocs, List<BitmapCollection> bitmapCollections) {
+    List<ImmutableRoaringBitmap> includes = new ArrayList<>(bitmapCollections.size());
+    List<ImmutableRoaringBitmap> excludes = new ArrayList<>(bitmapCollections.size());
+    for (BitmapCollection bitmapCollection : bitmapCollections) {
+      if (bitmapCollection._inverted) {
+        includes.add(bitmapCollection.reduceInternal());
+      } else {
+        excludes.addAll(List.of(bitmapCollection._bitmaps));
+      }
+    }
+    if (includes.isEmpty()) {
+      return new BitmapCollection(numDocs, false, excludes.toArray(new ImmutableRoaringBitmap[0]));
+    }
+    // a OR NOT(b) == NOT(b AND NOT(a))
+    return new BitmapCollection(numDocs, true, andNot(includes, excludes));
+  }
+
+  private static ImmutableRoaringBitmap andNot(List<ImmutableRoaringBitmap> includes,
+      List<ImmutableRoaringBitmap> excludes) {
+    if (excludes.isEmpty()) {
+      return includes.size() == 1 ? includes.get(0) : BufferFastAggregation.and(includes.iterator());
+    }
+    MutableRoaringBitmap result = includes.size() == 1 ? includes.get(0).toMutableRoaringBitmap()
+        : BufferFastAggregation.and(includes.iterator());
+    for (ImmutableRoaringBitmap exclude : excludes) {
+      result.andNot(exclude);
+    }
+    return result;
+  }
+
   private ImmutableRoaringBitmap reduceInternal() {
     if (_bitmaps.length == 1) {
       return _bitmaps[0];
@@ -120,7 +120,11 @@ public class FilterOperatorUtils {
             && queryContext.isIndexUseAllowed(dataSource, FieldConfig.IndexType.SORTED)) {
           return new SortedIndexBasedFilterOperator(queryContext, predicateEvaluator, dataSource, numDocs);
         }
-        if (dataSource.getInvertedIndex() != null
+        if (RawValueInvertedIndexFilterOperator.canEvaluate(predicateEvaluator, dataSource, numDocs)
+            && queryContext.isIndexUseAllowed(dataSource, FieldConfig.IndexType.INVERTED)) {
+          return new RawValueInvertedIndexFilterOperator(queryContext, predicateEvaluator, dataSource, numDocs);
+        }
+        if (dataSource.getInvertedIndex() != null && dataSource.getDictionary() != null
             && queryContext.isIndexUseAllowed(dataSource, FieldConfig.IndexType.INVERTED)) {
           return new InvertedIndexFilterOperator(queryContext, predicateEvaluator, dataSource, numDocs);
         }
@@ -219,7 +223,8 @@ public class FilterOperatorUtils {
           if (filterOperator instanceof SortedIndexBasedFilterOperator) {
             return PrioritizedFilterOperator.HIGH_PRIORITY;
           }
-          if (filterOperator instanceof BitmapBasedFilterOperator) {
+          if (filterOperator instanceof BitmapBasedFilterOperator
+              || filterOperator instanceof RawValueInvertedIndexFilterOperator) {
             return PrioritizedFilterOperator.MEDIUM_PRIORITY;
           }
           if (filterOperator instanceof RangeIndexBasedFilterOperator
@@ -27,9 +27,11 @@ import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.ExplainAttributeBuilder;
 import org.apache.pinot.core.operator.docidsets.BitmapDocIdSet;
 import org.apache.pinot.core.operator.docidsets.EmptyDocIdSet;
+import org.apache.pinot.core.operator.docidsets.NotDocIdSet;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.DensityAwareInvertedIndexReader;
 import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
 import org.apache.pinot.spi.trace.FilterType;
 import org.apache.pinot.spi.trace.InvocationRecording;
@@ -64,6 +66,14 @@ public class InvertedIndexFilterOperator extends BaseColumnFilterOperator {
       return EmptyDocIdSet.getInstance();
     }
     if (numDictIds == 1) {
+      if (isComplemented(dictIds[0])) {
+        // The stored bitmap contains the docs NOT matching the dictionary id. Apply it without flipping so that
+        // AndDocIdSet can remove the docs with ANDNOT.
+        ImmutableRoaringBitmap storedDocIds =
+            ((DensityAwareInvertedIndexReader) _invertedIndexReader).getStoredDocIds(dictIds[0]);
+        BitmapDocIdSet storedDocIdSet = new BitmapDocIdSet(storedDocIds, _numDocs);
+        return _exclusive ? storedDocIdSet : new NotDocIdSet(storedDocIdSet, _numDocs);
+      }
       ImmutableRoaringBitmap docIds = _invertedIndexReader.getDocIds(dictIds[0]);
       if (_exclusive) {
         if (docIds instanceof MutableRoaringBitmap) {
@@ -108,7 +118,12 @@ public class InvertedIndexFilterOperator extends BaseColumnFilterOperator {
       case 0:
         break;
       case 1: {
-        count = _invertedIndexReader.getDocIds(dictIds[0]).getCardinality();
+        if (isComplemented(dictIds[0])) {
+          count = _numDocs - ((DensityAwareInvertedIndexReader) _invertedIndexReader).getStoredDocIds(dictIds[0])
+              .getCardinality();
+        } else {
+          count = _invertedIndexReader.getDocIds(dictIds[0]).getCardinality();
+        }
         break;
       }
       case 2: {
@@ -137,6 +152,10 @@ public class InvertedIndexFilterOperator extends BaseColumnFilterOperator {
   @Override
   public BitmapCollection getBitmaps() {
     int[] dictIds = _exclusive ? _predicateEvaluator.getNonMatchingDictIds() : _predicateEvaluator.getMatchingDictIds();
+    if (dictIds.length == 1 && isComplemented(dictIds[0])) {
+      return new BitmapCollection(_numDocs, !_exclusive,
+          ((DensityAwareInvertedIndexReader) _invertedIndexReader).getStoredDocIds(dictIds[0]));
+    }
     ImmutableRoaringBitmap[] bitmaps = new ImmutableRoaringBitmap[dictIds.length];
     for (int i = 0; i < dictIds.length; i++) {
       bitmaps[i] = _invertedIndexReader.getDocIds(dictIds[i]);
@@ -144,6 +163,11 @@ public class InvertedIndexFilterOperator extends BaseColumnFilterOperator {
     return new BitmapCollection(_numDocs, _exclusive, bitmaps);
   }
 
+  private boolean isComplemented(int dictId) {
+    return _invertedIndexReader instanceof DensityAwareInvertedIndexReader
+        && ((DensityAwareInvertedIndexReader) _invertedIndexReader).isComplemented(dictId);
+  }
+
   @Override
   @SuppressWarnings("rawtypes")
   public List<Operator> getChildOperators() {
@@ -86,6 +86,25 @@ public class OrFilterOperator extends BaseFilterOperator {
     return new NotDocIdSet(new OrDocIdSet(blockDocIdSets, _numDocs), _numDocs);
   }
 
+  @Override
+  public boolean canProduceBitmaps() {
+    for (BaseFilterOperator child : _filterOperators) {
+      if (!child.canProduceBitmaps()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public BitmapCollection getBitmaps() {
+    List<BitmapCollection> bitmapCollections = new ArrayList<>(_filterOperators.size());
+    for (BaseFilterOperator child : _filterOperators) {
+      bitmapCollections.add(child.getBitmaps());
+    }
+    return BitmapCollection.or(_numDocs, bitmapCollections);
+  }
+
   @Override
   public String toExplainString() {
     return EXPLAIN_NAME;
@@ -98,11 +117,7 @@ public class OrFilterOperator extends BaseFilterOperator {
 
   @Override
   public boolean canOptimizeCount() {
-    boolean allChildrenProduceBitmaps = true;
-    for (BaseFilterOperator child : _filterOperators) {
-      allChildrenProduceBitmaps &= child.canProduceBitmaps();
-    }
-    return allChildrenProduceBitmaps;
+    return canProduceBitmaps();
   }
 
   @Override
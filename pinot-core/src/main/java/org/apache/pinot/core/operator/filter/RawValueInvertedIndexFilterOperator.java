@@ -0,0 +1,238 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import com.google.common.base.CaseFormat;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.core.common.BlockDocIdSet;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.ExplainAttributeBuilder;
+import org.apache.pinot.core.operator.docidsets.BitmapDocIdSet;
+import org.apache.pinot.core.operator.filter.predicate.EqualsPredicateEvaluatorFactory.EqRawPredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.InPredicateEvaluatorFactory.InRawPredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.mutable.MutableRawValueInvertedIndex;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.RawValueInvertedIndexReader;
+import org.apache.pinot.spi.data.MultiValueVisitor;
+import org.apache.pinot.spi.trace.FilterType;
+import org.apache.pinot.spi.trace.InvocationRecording;
+import org.apache.pinot.spi.trace.Tracing;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Filter operator for EQ and IN predicates on raw (no-dictionary) columns, which looks up the matching values in the
+ * {@link RawValueInvertedIndexReader} instead of scanning the forward index.
+ */
+public class RawValueInvertedIndexFilterOperator extends BaseColumnFilterOperator {
+  private static final String EXPLAIN_NAME = "FILTER_RAW_VALUE_INVERTED_INDEX";
+
+  private final PredicateEvaluator _predicateEvaluator;
+  private final RawValueInvertedIndexReader<? extends ImmutableRoaringBitmap> _invertedIndex;
+
+  /**
+   * Returns whether the predicate can be solved with the raw value inverted index. The index of a consuming segment
+   * stops indexing once it reaches its memory limit, in which case it cannot be used for the documents after that.
+   */
+  static boolean canEvaluate(PredicateEvaluator predicateEvaluator, DataSource dataSource, int numDocs) {
+    if (!(predicateEvaluator instanceof EqRawPredicateEvaluator)
+        && !(predicateEvaluator instanceof InRawPredicateEvaluator)) {
+      return false;
+    }
+    InvertedIndexReader<?> invertedIndex = dataSource.getInvertedIndex();
+    if (invertedIndex instanceof MutableRawValueInvertedIndex) {
+      return numDocs <= ((MutableRawValueInvertedIndex) invertedIndex).getNumDocsLimit();
+    }
+    return invertedIndex instanceof RawValueInvertedIndexReader;
+  }
+
+  @SuppressWarnings("unchecked")
+  RawValueInvertedIndexFilterOperator(QueryContext queryContext, PredicateEvaluator predicateEvaluator,
+      DataSource dataSource, int numDocs) {
+    super(queryContext, dataSource, numDocs);
+    _predicateEvaluator = predicateEvaluator;
+    _invertedIndex = (RawValueInvertedIndexReader<? extends ImmutableRoaringBitmap>) dataSource.getInvertedIndex();
+  }
+
+  @Override
+  protected BlockDocIdSet getNextBlockWithoutNullHandling() {
+    ImmutableRoaringBitmap[] bitmaps = getMatchingBitmaps();
+    ImmutableRoaringBitmap docIds = bitmaps.length == 1 ? bitmaps[0] : ImmutableRoaringBitmap.or(bitmaps);
+    InvocationRecording recording = Tracing.activeRecording();
+    if (recording.isEnabled()) {
+      recording.setColumnName(_predicateEvaluator.getPredicate().getLhs().getIdentifier());
+      recording.setNumDocsMatchingAfterFilter(docIds.getCardinality());
+      recording.setFilter(FilterType.INDEX, String.valueOf(_predicateEvaluator.getPredicateType()));
+    }
+    return new BitmapDocIdSet(docIds, _numDocs);
+  }
+
+  @Override
+  public boolean canOptimizeCount() {
+    return true;
+  }
+
+  @Override
+  public int getNumMatchingDocs() {
+    ImmutableRoaringBitmap[] bitmaps = getMatchingBitmaps();
+    if (bitmaps.length == 1) {
+      // NOTE: The posting lists can contain documents added after the query started
+      return (int) bitmaps[0].rangeCardinality(0, _numDocs);
+    }
+    MutableRoaringBitmap docIds = ImmutableRoaringBitmap.or(bitmaps);
+    return (int) docIds.rangeCardinality(0, _numDocs);
+  }
+
+  @Override
+  public boolean canProduceBitmaps() {
+    return true;
+  }
+
+  @Override
+  public BitmapCollection getBitmaps() {
+    return new BitmapCollection(_numDocs, false, getMatchingBitmaps());
+  }
+
+  private ImmutableRoaringBitmap[] getMatchingBitmaps() {
+    BitmapLookup bitmapLookup = new BitmapLookup(_invertedIndex);
+    if (_predicateEvaluator instanceof EqRawPredicateEvaluator) {
+      return ((EqRawPredicateEvaluator) _predicateEvaluator).accept(bitmapLookup);
+    } else {
+      return ((InRawPredicateEvaluator) _predicateEvaluator).accept(bitmapLookup);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public List<Operator> getChildOperators() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public String toExplainString() {
+    StringBuilder stringBuilder = new StringBuilder(EXPLAIN_NAME).append("(indexLookUp:raw_value_inverted_index");
+    Predicate predicate = _predicateEvaluator.getPredicate();
+    stringBuilder.append(",operator:").append(predicate.getType());
+    stringBuilder.append(",predicate:").append(predicate);
+    return stringBuilder.append(')').toString();
+  }
+
+  @Override
+  protected String getExplainName() {
+    return CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, EXPLAIN_NAME);
+  }
+
+  @Override
+  protected void explainAttributes(ExplainAttributeBuilder attributeBuilder) {
+    super.explainAttributes(attributeBuilder);
+    attributeBuilder.putString("indexLookUp", "raw_value_inverted_index");
+    attributeBuilder.putString("operator", _predicateEvaluator.getPredicate().getType().name());
+    attributeBuilder.putString("predicate", _predicateEvaluator.getPredicate().toString());
+  }
+
+  /**
+   * Looks up the posting lists of the matching values visited from the raw predicate evaluator. The raw value inverted
+   * index only supports INT, LONG, STRING and BYTES stored types.
+   */
+  private static class BitmapLookup implements MultiValueVisitor<ImmutableRoaringBitmap[]> {
+    final RawValueInvertedIndexReader<? extends ImmutableRoaringBitmap> _invertedIndex;
+
+    BitmapLookup(RawValueInvertedIndexReader<? extends ImmutableRoaringBitmap> invertedIndex) {
+      _invertedIndex = invertedIndex;
+    }
+
+    @Override
+    public ImmutableRoaringBitmap[] visitInt(int[] value) {
+      ImmutableRoaringBitmap[] bitmaps = new ImmutableRoaringBitmap[value.length];
+      for (int i = 0; i < value.length; i++) {
+        bitmaps[i] = _invertedIndex.getDocIdsForValue(value[i]);
+      }
+      return bitmaps;
+    }
+
+    @Override
+    public ImmutableRoaringBitmap[] visitLong(long[] value) {
+      ImmutableRoaringBitmap[] bitmaps = new ImmutableRoaringBitmap[value.length];
+      for (int i = 0; i < value.length; i++) {
+        bitmaps[i] = _invertedIndex.getDocIdsForValue(value[i]);
+      }
+      return bitmaps;
+    }
+
+    @Override
+    public ImmutableRoaringBitmap[] visitFloat(float[] value) {
+      throw new IllegalStateException("Raw value inverted index does not support FLOAT");
+    }
+
+    @Override
+    public ImmutableRoaringBitmap[] visitDouble(double[] value) {
+      throw new IllegalStateException("Raw value inverted index does not support DOUBLE");
+    }
+
+    @Override
+    public ImmutableRoaringBitmap[] visitBigDecimal(BigDecimal[] value) {
+      throw new IllegalStateException("Raw value inverted index does not support BIG_DECIMAL");
+    }
+
+    @Override
+    public ImmutableRoaringBitmap[] visitBoolean(boolean[] value) {
+      int[] intValues = new int[value.length];
+      for (int i = 0; i < value.length; i++) {
+        intValues[i] = value[i] ? 1 : 0;
+      }
+      return visitInt(intValues);
+    }
+
+    @Override
+    public ImmutableRoaringBitmap[] visitTimestamp(long[] value) {
+      return visitLong(value);
+    }
+
+    @Override
+    public ImmutableRoaringBitmap[] visitString(String[] value) {
+      ImmutableRoaringBitmap[] bitmaps = new ImmutableRoaringBitmap[value.length];
+      for (int i = 0; i < value.length; i++) {
+        bitmaps[i] = _invertedIndex.getDocIdsForValue(value[i]);
+      }
+      return bitmaps;
+    }
+
+    @Override
+    public ImmutableRoaringBitmap[] visitJson(String[] value) {
+      return visitString(value);
+    }
+
+    @Override
+    public ImmutableRoaringBitmap[] visitBytes(byte[][] value) {
+      ImmutableRoaringBitmap[] bitmaps = new ImmutableRoaringBitmap[value.length];
+      for (int i = 0; i < value.length; i++) {
+        bitmaps[i] = _invertedIndex.getDocIdsForValue(new ByteArray(value[i]));
+      }
+      return bitmaps;
+    }
+  }
+}
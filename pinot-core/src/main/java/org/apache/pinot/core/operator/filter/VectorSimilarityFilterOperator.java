@@ -22,17 +22,22 @@ import com.google.common.base.CaseFormat;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.request.context.predicate.VectorSimilarityPredicate;
+import org.apache.pinot.core.common.BlockDocIdIterator;
 import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.ExplainAttributeBuilder;
 import org.apache.pinot.core.operator.docidsets.BitmapDocIdSet;
+import org.apache.pinot.segment.spi.Constants;
 import org.apache.pinot.segment.spi.index.reader.VectorIndexReader;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.trace.FilterType;
 import org.apache.pinot.spi.trace.InvocationRecording;
 import org.apache.pinot.spi.trace.Tracing;
+import org.roaringbitmap.RoaringBitmapWriter;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 /**
@@ -52,30 +57,65 @@ public class VectorSimilarityFilterOperator extends BaseFilterOperator {
 
   private final VectorIndexReader _vectorIndexReader;
   private final VectorSimilarityPredicate _predicate;
+  // Filter operator of the other predicates to be applied during the vector index search
+  private final BaseFilterOperator _preFilterOperator;
   private ImmutableRoaringBitmap _matches;
 
   public VectorSimilarityFilterOperator(VectorIndexReader vectorIndexReader, VectorSimilarityPredicate predicate,
       int numDocs) {
+    this(vectorIndexReader, predicate, numDocs, null);
+  }
+
+  private VectorSimilarityFilterOperator(VectorIndexReader vectorIndexReader, VectorSimilarityPredicate predicate,
+      int numDocs, @Nullable BaseFilterOperator preFilterOperator) {
     super(numDocs, false);
     _vectorIndexReader = vectorIndexReader;
     _predicate = predicate;
+    _preFilterOperator = preFilterOperator;
     _matches = null;
   }
 
-  @Override
-  protected BlockDocIdSet getTrues() {
+  /**
+   * Returns a filter operator that searches the top K closest vectors among the docs matching the given filter
+   * operator, instead of among all the docs. The returned operator already applies the given filter, so it should
+   * replace the AND of this operator and the given filter operator.
+   */
+  public VectorSimilarityFilterOperator withPreFilter(BaseFilterOperator preFilterOperator) {
+    return new VectorSimilarityFilterOperator(_vectorIndexReader, _predicate, _numDocs, preFilterOperator);
+  }
+
+  private ImmutableRoaringBitmap getMatches() {
     if (_matches == null) {
-      _matches = _vectorIndexReader.getDocIds(_predicate.getValue(), _predicate.getTopK());
+      if (_preFilterOperator == null) {
+        _matches = _vectorIndexReader.getDocIds(_predicate.getValue(), _predicate.getTopK());
+      } else {
+        _matches = _vectorIndexReader.getDocIds(_predicate.getValue(), _predicate.getTopK(), getPreFilterDocIds());
+      }
+    }
+    return _matches;
+  }
+
+  private ImmutableRoaringBitmap getPreFilterDocIds() {
+    if (_preFilterOperator.canProduceBitmaps()) {
+      return _preFilterOperator.getBitmaps().reduce();
+    }
+    RoaringBitmapWriter<MutableRoaringBitmap> bitmapWriter = RoaringBitmapWriter.bufferWriter().get();
+    BlockDocIdIterator docIdIterator = _preFilterOperator.nextBlock().getBlockDocIdSet().iterator();
+    int docId;
+    while ((docId = docIdIterator.next()) != Constants.EOF) {
+      bitmapWriter.add(docId);
     }
-    return new BitmapDocIdSet(_matches, _numDocs);
+    return bitmapWriter.get();
+  }
+
+  @Override
+  protected BlockDocIdSet getTrues() {
+    return new BitmapDocIdSet(getMatches(), _numDocs);
   }
 
   @Override
   public int getNumMatchingDocs() {
-    if (_matches == null) {
-      _matches = _vectorIndexReader.getDocIds(_predicate.getValue(), _predicate.getTopK());
-    }
-    return _matches.getCardinality();
+    return getMatches().getCardinality();
   }
 
   @Override
@@ -85,16 +125,14 @@ public class VectorSimilarityFilterOperator extends BaseFilterOperator {
 
   @Override
   public BitmapCollection getBitmaps() {
-    if (_matches == null) {
-      _matches = _vectorIndexReader.getDocIds(_predicate.getValue(), _predicate.getTopK());
-    }
-    record(_matches);
-    return new BitmapCollection(_numDocs, false, _matches);
+    ImmutableRoaringBitmap matches = getMatches();
+    record(matches);
+    return new BitmapCollection(_numDocs, false, matches);
   }
 
   @Override
   public List<Operator> getChildOperators() {
-    return Collections.emptyList();
+    return _preFilterOperator != null ? Collections.singletonList(_preFilterOperator) : Collections.emptyList();
   }
 
   @Override
@@ -104,6 +142,7 @@ public class VectorSimilarityFilterOperator extends BaseFilterOperator {
         + ", vector identifier:" + _predicate.getLhs().getIdentifier()
         + ", vector literal:" + Arrays.toString(_predicate.getValue())
         + ", topK to search:" + _predicate.getTopK()
+        + (_preFilterOperator != null ? ", pre-filtered" : "")
         + ')';
   }
 
@@ -120,6 +159,9 @@ public class VectorSimilarityFilterOperator extends BaseFilterOperator {
     attributeBuilder.putString("vectorIdentifier", _predicate.getLhs().getIdentifier());
     attributeBuilder.putString("vectorLiteral", Arrays.toString(_predicate.getValue()));
     attributeBuilder.putLongIdempotent("topKtoSearch", _predicate.getTopK());
+    if (_preFilterOperator != null) {
+      attributeBuilder.putBool("preFiltered", true);
+    }
   }
 
   private void record(ImmutableRoaringBitmap matches) {
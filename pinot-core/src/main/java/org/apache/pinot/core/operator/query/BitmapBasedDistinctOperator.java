@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.common.request.context.OrderByExpressionContext;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.results.DistinctResultsBlock;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.query.distinct.DistinctTable;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.DensityAwareInvertedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.spi.trace.Tracing;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Operator which executes filtered DISTINCT on a single column with sorted dictionary and bitmap inverted index by
+ * checking whether the bitmap of the matching documents intersects with the inverted index bitmap of each dictionary
+ * id, instead of scanning the matching documents. Because the dictionary is sorted, the values are added in order and
+ * the iteration stops once the limit is reached.
+ */
+public class BitmapBasedDistinctOperator extends BaseOperator<DistinctResultsBlock> {
+  private static final String EXPLAIN_NAME = "DISTINCT_BITMAP";
+
+  private final DataSource _dataSource;
+  private final InvertedIndexReader<ImmutableRoaringBitmap> _invertedIndex;
+  private final BaseFilterOperator _filterOperator;
+  private final QueryContext _queryContext;
+
+  private int _numDictIdsChecked;
+
+  public BitmapBasedDistinctOperator(DataSource dataSource, InvertedIndexReader<ImmutableRoaringBitmap> invertedIndex,
+      BaseFilterOperator filterOperator, QueryContext queryContext) {
+    _dataSource = dataSource;
+    _invertedIndex = invertedIndex;
+    _filterOperator = filterOperator;
+    _queryContext = queryContext;
+  }
+
+  @Override
+  protected DistinctResultsBlock getNextBlock() {
+    String column = _queryContext.getSelectExpressions().get(0).getIdentifier();
+    Dictionary dictionary = _dataSource.getDictionary();
+    assert dictionary != null && dictionary.isSorted();
+    DataSchema dataSchema = new DataSchema(new String[]{column}, new DataSchema.ColumnDataType[]{
+        DataSchema.ColumnDataType.fromDataTypeSV(_dataSource.getDataSourceMetadata().getDataType())
+    });
+    ImmutableRoaringBitmap matchingDocIds = _filterOperator.getBitmaps().reduce();
+    int limit = _queryContext.getLimit();
+    int dictLength = dictionary.length();
+    List<OrderByExpressionContext> orderByExpressions = _queryContext.getOrderByExpressions();
+    boolean descending = orderByExpressions != null && !orderByExpressions.get(0).isAsc();
+
+    List<Record> records = new ArrayList<>(Math.min(limit, dictLength));
+    long numMatchingDocs = -1;
+    for (int i = 0; i < dictLength && records.size() < limit; i++) {
+      Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(i);
+      int dictId = descending ? dictLength - 1 - i : i;
+      _numDictIdsChecked++;
+      boolean matches;
+      if (_invertedIndex instanceof DensityAwareInvertedIndexReader
+          && ((DensityAwareInvertedIndexReader) _invertedIndex).isComplemented(dictId)) {
+        // Some matching doc is NOT in the stored bitmap, checked without materializing the complement
+        if (numMatchingDocs < 0) {
+          numMatchingDocs = matchingDocIds.getCardinality();
+        }
+        matches = numMatchingDocs > ImmutableRoaringBitmap.andCardinality(matchingDocIds,
+            ((DensityAwareInvertedIndexReader) _invertedIndex).getStoredDocIds(dictId));
+      } else {
+        matches = ImmutableRoaringBitmap.intersects(matchingDocIds, _invertedIndex.getDocIds(dictId));
+      }
+      if (matches) {
+        records.add(new Record(new Object[]{dictionary.getInternal(dictId)}));
+      }
+    }
+    return new DistinctResultsBlock(new DistinctTable(dataSchema, records, false), _queryContext);
+  }
+
+  @Override
+  public String toExplainString() {
+    return EXPLAIN_NAME;
+  }
+
+  @Override
+  public List<Operator> getChildOperators() {
+    return Collections.singletonList(_filterOperator);
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    // NOTE: No document is actually scanned, set numDocsScanned to the number of dictionary ids checked similar to
+    //       DictionaryBasedDistinctOperator
+    return new ExecutionStatistics(_numDictIdsChecked, 0, _numDictIdsChecked,
+        _dataSource.getDataSourceMetadata().getNumDocs());
+  }
+}
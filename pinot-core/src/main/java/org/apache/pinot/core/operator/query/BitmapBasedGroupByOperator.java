@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.data.table.IntermediateRecord;
+import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.aggregation.groupby.SharedGroupByDictionaries;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.DensityAwareInvertedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.spi.trace.Tracing;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Operator which executes COUNT group-by on a single column with dictionary and bitmap inverted index by intersecting
+ * the bitmap of the matching documents with the inverted index bitmap of each dictionary id, instead of scanning the
+ * matching documents.
+ */
+@SuppressWarnings("rawtypes")
+public class BitmapBasedGroupByOperator extends BaseOperator<GroupByResultsBlock> {
+  private static final String EXPLAIN_NAME = "GROUP_BY_BITMAP";
+
+  private final QueryContext _queryContext;
+  private final AggregationFunction[] _aggregationFunctions;
+  private final ExpressionContext _groupByExpression;
+  private final BaseFilterOperator _filterOperator;
+  private final Dictionary _dictionary;
+  private final InvertedIndexReader<ImmutableRoaringBitmap> _invertedIndex;
+  private final long _numTotalDocs;
+  // Keep the dictionary ids as group keys when the group keys are merged on the shared dictionary ids
+  private final boolean _dictIdsAsKeys;
+  // Mapping onto the dictionary ids of the latest shared dictionary version, null if already on the latest version
+  private final int[] _sharedDictIdMapping;
+  private final DataSchema _dataSchema;
+
+  private long _numDocsScanned;
+
+  public BitmapBasedGroupByOperator(QueryContext queryContext, BaseFilterOperator filterOperator,
+      DataSource dataSource, InvertedIndexReader<ImmutableRoaringBitmap> invertedIndex, long numTotalDocs) {
+    assert queryContext.getAggregationFunctions() != null && queryContext.getGroupByExpressions() != null;
+    _queryContext = queryContext;
+    _aggregationFunctions = queryContext.getAggregationFunctions();
+    _groupByExpression = queryContext.getGroupByExpressions().get(0);
+    _filterOperator = filterOperator;
+    _dictionary = dataSource.getDictionary();
+    _invertedIndex = invertedIndex;
+    _numTotalDocs = numTotalDocs;
+    SharedGroupByDictionaries sharedGroupByDictionaries = queryContext.getSharedGroupByDictionaries();
+    _dictIdsAsKeys = sharedGroupByDictionaries != null;
+    _sharedDictIdMapping = sharedGroupByDictionaries != null ? sharedGroupByDictionaries.getDictIdMapping(0,
+        dataSource.getDataSourceMetadata().getSharedDictionaryVersion()) : null;
+
+    // NOTE: The indexedTable expects that the data schema will have group by columns before aggregation columns
+    int numAggregationFunctions = _aggregationFunctions.length;
+    String[] columnNames = new String[numAggregationFunctions + 1];
+    ColumnDataType[] columnDataTypes = new ColumnDataType[numAggregationFunctions + 1];
+    columnNames[0] = _groupByExpression.toString();
+    columnDataTypes[0] = ColumnDataType.fromDataTypeSV(dataSource.getDataSourceMetadata().getDataType());
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      AggregationFunction aggregationFunction = _aggregationFunctions[i];
+      columnNames[i + 1] = aggregationFunction.getResultColumnName();
+      columnDataTypes[i + 1] = aggregationFunction.getIntermediateResultColumnType();
+    }
+    _dataSchema = new DataSchema(columnNames, columnDataTypes);
+  }
+
+  @Override
+  protected GroupByResultsBlock getNextBlock() {
+    ImmutableRoaringBitmap matchingDocIds = _filterOperator.getBitmaps().reduce();
+    int numAggregationFunctions = _aggregationFunctions.length;
+    int numGroupsLimit = _queryContext.getNumGroupsLimit();
+    int dictLength = _dictionary.length();
+    List<IntermediateRecord> intermediateRecords = new ArrayList<>();
+    long numMatchingDocs = -1;
+    for (int dictId = 0; dictId < dictLength && intermediateRecords.size() < numGroupsLimit; dictId++) {
+      Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(dictId);
+      long count;
+      if (_invertedIndex instanceof DensityAwareInvertedIndexReader
+          && ((DensityAwareInvertedIndexReader) _invertedIndex).isComplemented(dictId)) {
+        // Count the matching docs NOT in the stored bitmap without materializing the complement
+        if (numMatchingDocs < 0) {
+          numMatchingDocs = matchingDocIds.getCardinality();
+        }
+        count = numMatchingDocs - ImmutableRoaringBitmap.andCardinality(matchingDocIds,
+            ((DensityAwareInvertedIndexReader) _invertedIndex).getStoredDocIds(dictId));
+      } else {
+        count = ImmutableRoaringBitmap.andCardinality(matchingDocIds, _invertedIndex.getDocIds(dictId));
+      }
+      if (count == 0) {
+        continue;
+      }
+      _numDocsScanned += count;
+      Object key;
+      if (_dictIdsAsKeys) {
+        key = _sharedDictIdMapping != null ? _sharedDictIdMapping[dictId] : dictId;
+      } else {
+        key = _dictionary.getInternal(dictId);
+      }
+      Object[] values = new Object[numAggregationFunctions + 1];
+      values[0] = key;
+      Arrays.fill(values, 1, numAggregationFunctions + 1, count);
+      intermediateRecords.add(IntermediateRecord.create(new Key(new Object[]{key}), new Record(values)));
+    }
+
+    GroupByResultsBlock resultsBlock = new GroupByResultsBlock(_dataSchema, intermediateRecords, _queryContext);
+    resultsBlock.setNumGroupsLimitReached(intermediateRecords.size() >= numGroupsLimit);
+    return resultsBlock;
+  }
+
+  @Override
+  public List<Operator> getChildOperators() {
+    return Collections.singletonList(_filterOperator);
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    // NOTE: No document is actually scanned, set numDocsScanned to the number of matching documents for consistency
+    return new ExecutionStatistics(_numDocsScanned, 0, 0, _numTotalDocs);
+  }
+
+  @Override
+  public String toExplainString() {
+    StringBuilder stringBuilder =
+        new StringBuilder(EXPLAIN_NAME).append("(groupKeys:").append(_groupByExpression).append(", aggregations:");
+    stringBuilder.append(_aggregationFunctions[0].toExplainString());
+    for (int i = 1; i < _aggregationFunctions.length; i++) {
+      stringBuilder.append(", ").append(_aggregationFunctions[i].toExplainString());
+    }
+    return stringBuilder.append(')').toString();
+  }
+}
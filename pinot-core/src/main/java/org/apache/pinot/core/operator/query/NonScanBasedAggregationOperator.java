@@ -152,7 +152,8 @@ public class NonScanBasedAggregationOperator extends BaseOperator<AggregationRes
 
   private static Double getMinValue(DataSource dataSource) {
     Dictionary dictionary = dataSource.getDictionary();
-    if (dictionary != null) {
+    // NOTE: Shared dictionary might contain values not present in the segment
+    if (dictionary != null && dataSource.getDataSourceMetadata().getSharedDictionaryVersion() < 0) {
       return toDouble(dictionary.getMinVal());
     }
     return toDouble(dataSource.getDataSourceMetadata().getMinValue());
@@ -160,7 +161,8 @@ public class NonScanBasedAggregationOperator extends BaseOperator<AggregationRes
 
   private static Double getMaxValue(DataSource dataSource) {
     Dictionary dictionary = dataSource.getDictionary();
-    if (dictionary != null) {
+    // NOTE: Shared dictionary might contain values not present in the segment
+    if (dictionary != null && dataSource.getDataSourceMetadata().getSharedDictionaryVersion() < 0) {
       return toDouble(dictionary.getMaxVal());
     }
     return toDouble(dataSource.getDataSourceMetadata().getMaxValue());
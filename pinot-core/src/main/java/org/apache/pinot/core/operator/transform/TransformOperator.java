@@ -51,11 +51,22 @@ public class TransformOperator extends BaseProjectOperator<TransformBlock> {
 
   public TransformOperator(QueryContext queryContext, BaseProjectOperator<?> projectOperator,
       Collection<ExpressionContext> expressions) {
+    this(queryContext, projectOperator, expressions, Collections.emptyMap());
+  }
+
+  /**
+   * Constructs the operator with the segment specific overrides of the expressions (e.g. the shredded JSON columns).
+   * The override is evaluated in place of the original expression, while the values are still looked up with the
+   * original expression.
+   */
+  public TransformOperator(QueryContext queryContext, BaseProjectOperator<?> projectOperator,
+      Collection<ExpressionContext> expressions, Map<ExpressionContext, ExpressionContext> expressionOverrides) {
     _projectOperator = projectOperator;
     _transformFunctionMap = new HashMap<>(HashUtil.getHashMapCapacity(expressions.size()));
     for (ExpressionContext expression : expressions) {
       TransformFunction transformFunction =
-          TransformFunctionFactory.get(expression, projectOperator.getSourceColumnContextMap(), queryContext);
+          TransformFunctionFactory.get(expressionOverrides.getOrDefault(expression, expression),
+              projectOperator.getSourceColumnContextMap(), queryContext);
       _transformFunctionMap.put(expression, transformFunction);
     }
   }
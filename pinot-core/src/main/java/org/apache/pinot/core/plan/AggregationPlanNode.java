@@ -168,7 +168,9 @@ public class AggregationPlanNode implements PlanNode {
       }
       DataSource dataSource = indexSegment.getDataSource(argument.getIdentifier());
       if (DICTIONARY_BASED_FUNCTIONS.contains(aggregationFunction.getType())) {
-        if (dataSource.getDictionary() != null) {
+        // NOTE: Shared dictionary might contain values not present in the segment
+        if (dataSource.getDictionary() != null
+            && dataSource.getDataSourceMetadata().getSharedDictionaryVersion() < 0) {
           continue;
         }
       }
@@ -23,13 +23,18 @@ import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.BaseProjectOperator;
 import org.apache.pinot.core.operator.blocks.results.DistinctResultsBlock;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.operator.query.BitmapBasedDistinctOperator;
 import org.apache.pinot.core.operator.query.DictionaryBasedDistinctOperator;
 import org.apache.pinot.core.operator.query.DistinctOperator;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.util.BitmapIntersectionUtils;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.SegmentContext;
 import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
 import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 
 
 /**
@@ -55,7 +60,9 @@ public class DistinctPlanNode implements PlanNode {
       String column = expressions.get(0).getIdentifier();
       if (column != null) {
         DataSource dataSource = _indexSegment.getDataSource(column);
-        if (dataSource.getDictionary() != null) {
+        // NOTE: Shared dictionary might contain values not present in the segment
+        if (dataSource.getDictionary() != null
+            && dataSource.getDataSourceMetadata().getSharedDictionaryVersion() < 0) {
           if (!_queryContext.isNullHandlingEnabled()) {
             return new DictionaryBasedDistinctOperator(dataSource, _queryContext);
           }
@@ -72,8 +79,24 @@ public class DistinctPlanNode implements PlanNode {
       }
     }
 
+    // Use bitmap intersections to solve the filtered query on low cardinality column with inverted index if possible
+    BaseFilterOperator filterOperator = null;
+    if (_queryContext.getFilter() != null && expressions.size() == 1) {
+      InvertedIndexReader<ImmutableRoaringBitmap> invertedIndex =
+          BitmapIntersectionUtils.getInvertedIndex(_indexSegment, expressions.get(0), _queryContext);
+      if (invertedIndex != null) {
+        filterOperator = new FilterPlanNode(_segmentContext, _queryContext).run();
+        DataSource dataSource = _indexSegment.getDataSource(expressions.get(0).getIdentifier());
+        if (BitmapIntersectionUtils.canUseFilter(_queryContext, filterOperator, dataSource.getDictionary(),
+            _indexSegment.getSegmentMetadata().getTotalDocs())) {
+          return new BitmapBasedDistinctOperator(dataSource, invertedIndex, filterOperator, _queryContext);
+        }
+      }
+    }
+
     BaseProjectOperator<?> projectOperator =
-        new ProjectPlanNode(_segmentContext, _queryContext, expressions, DocIdSetPlanNode.MAX_DOC_PER_CALL).run();
+        new ProjectPlanNode(_segmentContext, _queryContext, expressions, DocIdSetPlanNode.MAX_DOC_PER_CALL,
+            filterOperator).run();
     return new DistinctOperator(_indexSegment, _queryContext, projectOperator);
   }
 }
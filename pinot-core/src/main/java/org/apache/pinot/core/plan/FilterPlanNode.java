@@ -21,7 +21,12 @@ package org.apache.pinot.core.plan;
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.pinot.common.request.context.ExpressionContext;
@@ -33,6 +38,7 @@ import org.apache.pinot.common.request.context.predicate.RegexpLikePredicate;
 import org.apache.pinot.common.request.context.predicate.TextContainsPredicate;
 import org.apache.pinot.common.request.context.predicate.TextMatchPredicate;
 import org.apache.pinot.common.request.context.predicate.VectorSimilarityPredicate;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.geospatial.transform.function.StDistanceFunction;
 import org.apache.pinot.core.operator.filter.BaseFilterOperator;
 import org.apache.pinot.core.operator.filter.BitmapBasedFilterOperator;
@@ -49,18 +55,23 @@ import org.apache.pinot.core.operator.filter.VectorSimilarityFilterOperator;
 import org.apache.pinot.core.operator.filter.predicate.FSTBasedRegexpPredicateEvaluatorFactory;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import org.apache.pinot.core.operator.transform.function.ItemTransformFunction;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.segment.local.realtime.impl.invertedindex.NativeMutableTextIndex;
 import org.apache.pinot.segment.local.segment.index.readers.text.NativeTextIndexReader;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.SegmentContext;
 import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.datasource.MapDataSource;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.segment.spi.index.reader.CompositeIndexReader;
 import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
 import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
 import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
 import org.apache.pinot.segment.spi.index.reader.VectorIndexReader;
 import org.apache.pinot.spi.config.table.FieldConfig;
 import org.apache.pinot.spi.exception.BadQueryRequestException;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
@@ -189,6 +200,167 @@ public class FilterPlanNode implements PlanNode {
     }
   }
 
+  /**
+   * Returns the data source of the map key when the predicate is applied to a map value lookup (e.g.
+   * {@code mapCol['key'] = 'value'}) and the key is stored as a dictionary-encoded sub-column, {@code null} otherwise.
+   * Such predicates can be solved with the indexes of the key instead of evaluating the expression per document.
+   */
+  @Nullable
+  private DataSource getMapKeyDataSource(Predicate predicate, FunctionContext function) {
+    switch (predicate.getType()) {
+      case EQ:
+      case NOT_EQ:
+      case IN:
+      case NOT_IN:
+      case RANGE:
+        break;
+      default:
+        return null;
+    }
+    if (!function.getFunctionName().equals(ItemTransformFunction.FUNCTION_NAME)) {
+      return null;
+    }
+    List<ExpressionContext> arguments = function.getArguments();
+    if (arguments.size() != 2 || arguments.get(0).getType() != ExpressionContext.Type.IDENTIFIER
+        || arguments.get(1).getType() != ExpressionContext.Type.LITERAL) {
+      return null;
+    }
+    DataSource dataSource = _indexSegment.getDataSource(arguments.get(0).getIdentifier());
+    if (!(dataSource instanceof MapDataSource)) {
+      return null;
+    }
+    String key = arguments.get(1).getLiteral().getStringValue();
+    DataSource keyDataSource = ((MapDataSource) dataSource).getKeyDataSource(key);
+    return keyDataSource != null && keyDataSource.getDictionary() != null ? keyDataSource : null;
+  }
+
+  /**
+   * Returns the data source of the shredded JSON column if the predicate is on a {@code jsonExtractScalar} function
+   * that can be replaced by the shredded column (see {@link JsonShreddingRewriter}), or {@code null} otherwise.
+   */
+  @Nullable
+  private DataSource getShreddedJsonDataSource(Predicate predicate) {
+    switch (predicate.getType()) {
+      case EQ:
+      case NOT_EQ:
+      case IN:
+      case NOT_IN:
+      case RANGE:
+      case REGEXP_LIKE:
+        break;
+      default:
+        return null;
+    }
+    String shreddedColumn = JsonShreddingRewriter.getShreddedColumn(predicate.getLhs(), _indexSegment, _queryContext);
+    return shreddedColumn != null ? _indexSegment.getDataSource(shreddedColumn) : null;
+  }
+
+  /**
+   * Pushes the other child filter operators of an AND filter into the VECTOR_SIMILARITY filter operator, so that the
+   * top K closest vectors are searched among the docs matching the other filters. Only applies when there is exactly
+   * one VECTOR_SIMILARITY filter operator among the children.
+   */
+  private List<BaseFilterOperator> applyVectorPreFilter(List<BaseFilterOperator> childFilterOperators, int numDocs) {
+    VectorSimilarityFilterOperator vectorSimilarityFilterOperator = null;
+    List<BaseFilterOperator> preFilterOperators = new ArrayList<>(childFilterOperators.size() - 1);
+    for (BaseFilterOperator childFilterOperator : childFilterOperators) {
+      if (childFilterOperator instanceof VectorSimilarityFilterOperator) {
+        if (vectorSimilarityFilterOperator != null) {
+          return childFilterOperators;
+        }
+        vectorSimilarityFilterOperator = (VectorSimilarityFilterOperator) childFilterOperator;
+      } else {
+        preFilterOperators.add(childFilterOperator);
+      }
+    }
+    if (vectorSimilarityFilterOperator == null) {
+      return childFilterOperators;
+    }
+    BaseFilterOperator preFilterOperator =
+        FilterOperatorUtils.getAndFilterOperator(_queryContext, preFilterOperators, numDocs);
+    return Collections.singletonList(vectorSimilarityFilterOperator.withPreFilter(preFilterOperator));
+  }
+
+  /**
+   * Solves the EQ predicates on all the columns of a composite index among the child filters of an AND filter with a
+   * single bitmap lookup instead of intersecting the bitmaps of each predicate. Adds the filter operators for the
+   * composite indexes to the given list, and returns the child filters that are not solved by any composite index, or
+   * {@code null} if no document can match.
+   */
+  @Nullable
+  private List<FilterContext> applyCompositeIndexes(List<FilterContext> childFilters,
+      List<BaseFilterOperator> childFilterOperators, int numDocs) {
+    Map<String, FilterContext> eqFilters = new LinkedHashMap<>();
+    for (FilterContext childFilter : childFilters) {
+      if (childFilter.getType() == FilterContext.Type.PREDICATE) {
+        Predicate predicate = childFilter.getPredicate();
+        if (predicate.getType() == Predicate.Type.EQ
+            && predicate.getLhs().getType() == ExpressionContext.Type.IDENTIFIER) {
+          eqFilters.putIfAbsent(predicate.getLhs().getIdentifier(), childFilter);
+        }
+      }
+    }
+    if (eqFilters.size() < 2) {
+      return childFilters;
+    }
+    Set<FilterContext> solvedFilters = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Map.Entry<String, FilterContext> entry : eqFilters.entrySet()) {
+      String column = entry.getKey();
+      if (solvedFilters.contains(entry.getValue())
+          || !_queryContext.isIndexUseAllowed(column, FieldConfig.IndexType.INVERTED)) {
+        continue;
+      }
+      CompositeIndexReader compositeIndex = _indexSegment.getDataSource(column).getIndex(StandardIndexes.composite());
+      if (compositeIndex == null) {
+        continue;
+      }
+      List<String> indexColumns = compositeIndex.getColumns();
+      boolean allColumnsMatched = true;
+      for (String indexColumn : indexColumns) {
+        FilterContext eqFilter = eqFilters.get(indexColumn);
+        if (eqFilter == null || solvedFilters.contains(eqFilter)
+            || !_queryContext.isIndexUseAllowed(indexColumn, FieldConfig.IndexType.INVERTED)) {
+          allColumnsMatched = false;
+          break;
+        }
+      }
+      if (!allColumnsMatched) {
+        continue;
+      }
+      int numColumns = indexColumns.size();
+      int[] dictIds = new int[numColumns];
+      for (int i = 0; i < numColumns; i++) {
+        String indexColumn = indexColumns.get(i);
+        FilterContext eqFilter = eqFilters.get(indexColumn);
+        Predicate predicate = eqFilter.getPredicate();
+        PredicateEvaluator predicateEvaluator =
+            PredicateEvaluatorProvider.getPredicateEvaluator(predicate, _indexSegment.getDataSource(indexColumn),
+                _queryContext);
+        _predicateEvaluators.add(Pair.of(predicate, predicateEvaluator));
+        if (predicateEvaluator.isAlwaysFalse()) {
+          return null;
+        }
+        dictIds[i] = predicateEvaluator.getMatchingDictIds()[0];
+        solvedFilters.add(eqFilter);
+      }
+      ImmutableRoaringBitmap docIds = compositeIndex.getDocIds(dictIds);
+      if (docIds.isEmpty()) {
+        return null;
+      }
+      childFilterOperators.add(new BitmapBasedFilterOperator(docIds, false, numDocs));
+    }
+    if (solvedFilters.isEmpty()) {
+      return childFilters;
+    }
+    List<FilterContext> remainingFilters = new ArrayList<>(childFilters.size() - solvedFilters.size());
+    for (FilterContext childFilter : childFilters) {
+      if (!solvedFilters.contains(childFilter)) {
+        remainingFilters.add(childFilter);
+      }
+    }
+    return remainingFilters;
+  }
+
   /**
    * Helper method to build the operator tree from the filter.
    */
@@ -197,6 +369,13 @@ public class FilterPlanNode implements PlanNode {
       case AND:
         List<FilterContext> childFilters = filter.getChildren();
         List<BaseFilterOperator> childFilterOperators = new ArrayList<>(childFilters.size());
+        // Composite indexes do not track null values, so they cannot be used when null handling is enabled
+        if (!_queryContext.isNullHandlingEnabled()) {
+          childFilters = applyCompositeIndexes(childFilters, childFilterOperators, numDocs);
+          if (childFilters == null) {
+            return EmptyFilterOperator.getInstance();
+          }
+        }
         for (FilterContext childFilter : childFilters) {
           BaseFilterOperator childFilterOperator = constructPhysicalOperator(childFilter, numDocs);
           if (childFilterOperator.isResultEmpty()) {
@@ -207,6 +386,9 @@ public class FilterPlanNode implements PlanNode {
             childFilterOperators.add(childFilterOperator);
           }
         }
+        if (childFilterOperators.size() > 1 && QueryOptionsUtils.isVectorPreFilter(_queryContext.getQueryOptions())) {
+          childFilterOperators = applyVectorPreFilter(childFilterOperators, numDocs);
+        }
         return FilterOperatorUtils.getAndFilterOperator(_queryContext, childFilterOperators, numDocs);
       case OR:
         childFilters = filter.getChildren();
@@ -236,6 +418,20 @@ public class FilterPlanNode implements PlanNode {
           } else if (canApplyH3IndexForInclusionCheck(predicate, lhs.getFunction())) {
             return new H3InclusionIndexFilterOperator(_indexSegment, _queryContext, predicate, numDocs);
           } else {
+            DataSource mapKeyDataSource = getMapKeyDataSource(predicate, lhs.getFunction());
+            if (mapKeyDataSource != null) {
+              PredicateEvaluator predicateEvaluator =
+                  PredicateEvaluatorProvider.getPredicateEvaluator(predicate, mapKeyDataSource, _queryContext);
+              return FilterOperatorUtils.getLeafFilterOperator(_queryContext, predicateEvaluator, mapKeyDataSource,
+                  numDocs);
+            }
+            DataSource shreddedJsonDataSource = getShreddedJsonDataSource(predicate);
+            if (shreddedJsonDataSource != null) {
+              PredicateEvaluator predicateEvaluator =
+                  PredicateEvaluatorProvider.getPredicateEvaluator(predicate, shreddedJsonDataSource, _queryContext);
+              return FilterOperatorUtils.getLeafFilterOperator(_queryContext, predicateEvaluator,
+                  shreddedJsonDataSource, numDocs);
+            }
             // TODO: ExpressionFilterOperator does not support predicate types without PredicateEvaluator (TEXT_MATCH)
             return new ExpressionFilterOperator(_indexSegment, _queryContext, predicate, numDocs);
           }
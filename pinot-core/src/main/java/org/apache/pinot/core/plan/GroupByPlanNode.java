@@ -18,15 +18,24 @@
  */
 package org.apache.pinot.core.plan;
 
+import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.BaseOperator;
 import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
 import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.operator.query.BitmapBasedGroupByOperator;
 import org.apache.pinot.core.operator.query.FilteredGroupByOperator;
 import org.apache.pinot.core.operator.query.GroupByOperator;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.util.BitmapIntersectionUtils;
+import org.apache.pinot.segment.spi.AggregationFunctionType;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 
 
 /**
@@ -55,13 +64,43 @@ public class GroupByPlanNode implements PlanNode {
         _indexSegment.getSegmentMetadata().getTotalDocs());
   }
 
-  private GroupByOperator buildNonFilteredGroupByPlan() {
+  private BaseOperator<GroupByResultsBlock> buildNonFilteredGroupByPlan() {
     FilterPlanNode filterPlanNode = new FilterPlanNode(_segmentContext, _queryContext);
     BaseFilterOperator filterOperator = filterPlanNode.run();
     AggregationFunctionUtils.AggregationInfo aggregationInfo =
         AggregationFunctionUtils.buildAggregationInfo(_segmentContext, _queryContext,
             _queryContext.getAggregationFunctions(), _queryContext.getFilter(), filterOperator,
             filterPlanNode.getPredicateEvaluators());
+    if (!aggregationInfo.isUseStarTree() && isFitForBitmapBasedPlan()) {
+      ExpressionContext groupByExpression = _queryContext.getGroupByExpressions().get(0);
+      InvertedIndexReader<ImmutableRoaringBitmap> invertedIndex =
+          BitmapIntersectionUtils.getInvertedIndex(_indexSegment, groupByExpression, _queryContext);
+      if (invertedIndex != null) {
+        DataSource dataSource = _indexSegment.getDataSource(groupByExpression.getIdentifier());
+        int numTotalDocs = _indexSegment.getSegmentMetadata().getTotalDocs();
+        if (BitmapIntersectionUtils.canUseFilter(_queryContext, filterOperator, dataSource.getDictionary(),
+            numTotalDocs)) {
+          return new BitmapBasedGroupByOperator(_queryContext, filterOperator, dataSource, invertedIndex,
+              numTotalDocs);
+        }
+      }
+    }
     return new GroupByOperator(_queryContext, aggregationInfo, _indexSegment.getSegmentMetadata().getTotalDocs());
   }
+
+  /**
+   * Returns {@code true} if the query is a COUNT group-by on a single expression, which can be solved by intersecting
+   * the filter bitmap with the inverted index bitmap of each group.
+   */
+  private boolean isFitForBitmapBasedPlan() {
+    if (_queryContext.getGroupByExpressions().size() != 1) {
+      return false;
+    }
+    for (AggregationFunction aggregationFunction : _queryContext.getAggregationFunctions()) {
+      if (aggregationFunction.getType() != AggregationFunctionType.COUNT) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.FunctionContext;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
+import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.JsonShreddingUtils;
+
+
+/**
+ * Rewrites {@code jsonExtractScalar(jsonColumn, 'jsonPath', 'resultsType'[, 'defaultValue'])} into the shredded JSON
+ * column (see {@link JsonShreddingUtils}) of the segment, so that the value is read from a typed column instead of
+ * parsing the JSON documents.
+ * <p>The shredded column stores the default null value and tracks the missing paths in the null value vector, so it
+ * can only be used when it has the same data type as the results type, and either no path is missing in the segment,
+ * or the default value of the function is the same as the default null value of the shredded column.
+ * <p>NOTE: The rewrite is per segment because the shredded columns can differ across segments. The query context is
+ * shared among all the segments, so it should never be modified in place.
+ */
+public class JsonShreddingRewriter {
+  private JsonShreddingRewriter() {
+  }
+
+  /**
+   * Returns the expression with the {@code jsonExtractScalar} functions on shredded paths replaced by the shredded
+   * columns, or the same expression object if nothing can be rewritten.
+   */
+  public static ExpressionContext rewrite(ExpressionContext expression, IndexSegment indexSegment,
+      QueryContext queryContext) {
+    if (expression.getType() != ExpressionContext.Type.FUNCTION) {
+      return expression;
+    }
+    String shreddedColumn = getShreddedColumn(expression, indexSegment, queryContext);
+    if (shreddedColumn != null) {
+      return ExpressionContext.forIdentifier(shreddedColumn);
+    }
+    FunctionContext function = expression.getFunction();
+    List<ExpressionContext> arguments = function.getArguments();
+    List<ExpressionContext> rewrittenArguments = null;
+    int numArguments = arguments.size();
+    for (int i = 0; i < numArguments; i++) {
+      ExpressionContext argument = arguments.get(i);
+      ExpressionContext rewrittenArgument = rewrite(argument, indexSegment, queryContext);
+      if (rewrittenArgument != argument) {
+        if (rewrittenArguments == null) {
+          rewrittenArguments = new ArrayList<>(arguments);
+        }
+        rewrittenArguments.set(i, rewrittenArgument);
+      }
+    }
+    return rewrittenArguments != null ? ExpressionContext.forFunction(
+        new FunctionContext(function.getType(), function.getFunctionName(), rewrittenArguments)) : expression;
+  }
+
+  /**
+   * Returns the shredded column that can replace the given expression, or {@code null} if the expression is not a
+   * {@code jsonExtractScalar} function on a shredded path of the segment.
+   */
+  @Nullable
+  public static String getShreddedColumn(ExpressionContext expression, IndexSegment indexSegment,
+      QueryContext queryContext) {
+    if (expression.getType() != ExpressionContext.Type.FUNCTION) {
+      return null;
+    }
+    FunctionContext function = expression.getFunction();
+    String functionName = function.getFunctionName();
+    if (!functionName.equals("jsonextractscalar") && !functionName.equals("json_extract_scalar")) {
+      return null;
+    }
+    List<ExpressionContext> arguments = function.getArguments();
+    int numArguments = arguments.size();
+    if ((numArguments != 3 && numArguments != 4)
+        || arguments.get(0).getType() != ExpressionContext.Type.IDENTIFIER) {
+      return null;
+    }
+    for (int i = 1; i < numArguments; i++) {
+      if (arguments.get(i).getType() != ExpressionContext.Type.LITERAL) {
+        return null;
+      }
+    }
+    String jsonPath = arguments.get(1).getLiteral().getStringValue();
+    if (!JsonShreddingUtils.isShreddableJsonPath(jsonPath)) {
+      return null;
+    }
+    String shreddedColumn = JsonShreddingUtils.getShreddedColumnName(arguments.get(0).getIdentifier(), jsonPath);
+    if (!indexSegment.getColumnNames().contains(shreddedColumn)) {
+      return null;
+    }
+    DataSource dataSource = indexSegment.getDataSource(shreddedColumn);
+    DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
+    String resultsType = arguments.get(2).getLiteral().getStringValue().toUpperCase();
+    DataType dataType = dataSourceMetadata.getDataType();
+    if (!dataSourceMetadata.isSingleValue() || !dataType.name().equals(resultsType)) {
+      return null;
+    }
+
+    // NOTE: Docs can be added to the mutable segment after the query is planned, so we cannot rely on the null value
+    //       vector of the mutable segment
+    NullValueVectorReader nullValueVector = dataSource.getNullValueVector();
+    if (nullValueVector != null && !(indexSegment instanceof MutableSegment) && nullValueVector.getNullBitmap()
+        .isEmpty()) {
+      return shreddedColumn;
+    }
+    // With null handling enabled, the missing paths will be read as null instead of the default value
+    if (numArguments == 4 && !queryContext.isNullHandlingEnabled()) {
+      Object defaultValue;
+      try {
+        defaultValue = dataType.convert(arguments.get(3).getLiteral().getStringValue());
+      } catch (Exception e) {
+        return null;
+      }
+      if (defaultValue.equals(dataSourceMetadata.getFieldSpec().getDefaultNullValue())) {
+        return shreddedColumn;
+      }
+    }
+    return null;
+  }
+}
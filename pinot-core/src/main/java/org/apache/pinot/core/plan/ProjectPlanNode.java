@@ -19,6 +19,7 @@
 package org.apache.pinot.core.plan;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -68,11 +69,22 @@ public class ProjectPlanNode implements PlanNode {
   public BaseProjectOperator<?> run() {
     Set<String> projectionColumns = new HashSet<>();
     boolean hasNonIdentifierExpression = false;
+    // Read the shredded JSON columns of the segment instead of parsing the JSON documents when possible
+    Map<ExpressionContext, ExpressionContext> expressionOverrides = Collections.emptyMap();
     for (ExpressionContext expression : _expressions) {
-      expression.getColumns(projectionColumns);
       if (expression.getType() != ExpressionContext.Type.IDENTIFIER) {
         hasNonIdentifierExpression = true;
+        ExpressionContext rewrittenExpression = JsonShreddingRewriter.rewrite(expression, _indexSegment, _queryContext);
+        if (rewrittenExpression != expression) {
+          if (expressionOverrides.isEmpty()) {
+            expressionOverrides = new HashMap<>();
+          }
+          expressionOverrides.put(expression, rewrittenExpression);
+          rewrittenExpression.getColumns(projectionColumns);
+          continue;
+        }
       }
+      expression.getColumns(projectionColumns);
     }
     Map<String, DataSource> dataSourceMap = new HashMap<>(HashUtil.getHashMapCapacity(projectionColumns.size()));
     projectionColumns.forEach(column -> dataSourceMap.put(column, _indexSegment.getDataSource(column)));
@@ -82,7 +94,7 @@ public class ProjectPlanNode implements PlanNode {
             _filterOperator).run() : null;
     ProjectionOperator projectionOperator =
         ProjectionOperatorUtils.getProjectionOperator(dataSourceMap, docIdSetOperator);
-    return hasNonIdentifierExpression ? new TransformOperator(_queryContext, projectionOperator, _expressions)
-        : projectionOperator;
+    return hasNonIdentifierExpression ? new TransformOperator(_queryContext, projectionOperator, _expressions,
+        expressionOverrides) : projectionOperator;
   }
 }
@@ -20,11 +20,17 @@ package org.apache.pinot.core.plan.maker;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.pinot.common.metrics.ServerMetrics;
@@ -46,6 +52,7 @@ import org.apache.pinot.core.plan.SelectionPlanNode;
 import org.apache.pinot.core.plan.StreamingInstanceResponsePlanNode;
 import org.apache.pinot.core.plan.StreamingSelectionPlanNode;
 import org.apache.pinot.core.plan.TimeSeriesPlanNode;
+import org.apache.pinot.core.query.aggregation.groupby.SharedGroupByDictionaries;
 import org.apache.pinot.core.query.executor.ResultsBlockStreamer;
 import org.apache.pinot.core.query.prefetch.FetchPlanner;
 import org.apache.pinot.core.query.prefetch.FetchPlannerRegistry;
@@ -55,6 +62,8 @@ import org.apache.pinot.core.util.GroupByUtils;
 import org.apache.pinot.segment.spi.FetchContext;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -87,6 +96,11 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   // set as pinot.server.query.executor.groupby.trim.threshold
   public static final String GROUPBY_TRIM_THRESHOLD_KEY = "groupby.trim.threshold";
   public static final int DEFAULT_GROUPBY_TRIM_THRESHOLD = 1_000_000;
+  // Instance config key for the max cardinality of the group-by/distinct column to solve filtered COUNT group-by and
+  // DISTINCT queries with bitmap intersections on the inverted index
+  // Set as pinot.server.query.executor.bitmap.intersection.max.cardinality
+  public static final String BITMAP_INTERSECTION_MAX_CARDINALITY_KEY = "bitmap.intersection.max.cardinality";
+  public static final int DEFAULT_BITMAP_INTERSECTION_MAX_CARDINALITY = 1_000;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(InstancePlanMakerImplV2.class);
 
@@ -99,6 +113,7 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   private int _minSegmentGroupTrimSize = DEFAULT_MIN_SEGMENT_GROUP_TRIM_SIZE;
   private int _minServerGroupTrimSize = DEFAULT_MIN_SERVER_GROUP_TRIM_SIZE;
   private int _groupByTrimThreshold = DEFAULT_GROUPBY_TRIM_THRESHOLD;
+  private int _bitmapIntersectionMaxCardinality = DEFAULT_BITMAP_INTERSECTION_MAX_CARDINALITY;
 
   public InstancePlanMakerImplV2() {
   }
@@ -129,15 +144,19 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     _groupByTrimThreshold = queryExecutorConfig.getProperty(GROUPBY_TRIM_THRESHOLD_KEY, DEFAULT_GROUPBY_TRIM_THRESHOLD);
     Preconditions.checkState(_groupByTrimThreshold > 0,
         "Invalid configurable: groupByTrimThreshold: %d must be positive", _groupByTrimThreshold);
+    _bitmapIntersectionMaxCardinality = queryExecutorConfig.getProperty(BITMAP_INTERSECTION_MAX_CARDINALITY_KEY,
+        DEFAULT_BITMAP_INTERSECTION_MAX_CARDINALITY);
     LOGGER.info("Initialized plan maker with maxExecutionThreads: {}, maxInitialResultHolderCapacity: {}, "
-            + "numGroupsLimit: {}, minSegmentGroupTrimSize: {}, minServerGroupTrimSize: {}, groupByTrimThreshold: {}",
-        _maxExecutionThreads, _maxInitialResultHolderCapacity, _numGroupsLimit, _minSegmentGroupTrimSize,
-        _minServerGroupTrimSize, _groupByTrimThreshold);
+            + "numGroupsLimit: {}, minSegmentGroupTrimSize: {}, minServerGroupTrimSize: {}, groupByTrimThreshold: {}, "
+            + "bitmapIntersectionMaxCardinality: {}", _maxExecutionThreads, _maxInitialResultHolderCapacity,
+        _numGroupsLimit, _minSegmentGroupTrimSize, _minServerGroupTrimSize, _groupByTrimThreshold,
+        _bitmapIntersectionMaxCardinality);
   }
 
   public Plan makeInstancePlan(List<SegmentContext> segmentContexts, QueryContext queryContext,
       ExecutorService executorService, ServerMetrics serverMetrics) {
     applyQueryOptions(queryContext);
+    queryContext.setSharedGroupByDictionaries(getSharedGroupByDictionaries(segmentContexts, queryContext));
 
     int numSegments = segmentContexts.size();
     List<PlanNode> planNodes = new ArrayList<>(numSegments);
@@ -193,6 +212,14 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     }
     queryContext.setMaxExecutionThreads(maxExecutionThreads);
 
+    // Set bitmapIntersectionMaxCardinality
+    Integer bitmapIntersectionMaxCardinality = QueryOptionsUtils.getBitmapIntersectionMaxCardinality(queryOptions);
+    if (bitmapIntersectionMaxCardinality != null) {
+      queryContext.setBitmapIntersectionMaxCardinality(bitmapIntersectionMaxCardinality);
+    } else {
+      queryContext.setBitmapIntersectionMaxCardinality(_bitmapIntersectionMaxCardinality);
+    }
+
     // Set group-by query options
     if (QueryContextUtils.isAggregationQuery(queryContext) && queryContext.getGroupByExpressions() != null) {
       // Set maxInitialResultHolderCapacity
@@ -231,6 +258,109 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     }
   }
 
+  /**
+   * Returns the shared dictionaries of the group-by columns when all the segments encode the group-by columns against
+   * the table-level shared dictionaries, in which case the group keys can be merged on dictionary ids across the
+   * segments, or {@code null} otherwise. The group keys are merged on the latest version of each shared dictionary
+   * among the segments, and the segments encoded against an older version map their dictionary ids onto it.
+   */
+  @Nullable
+  public static SharedGroupByDictionaries getSharedGroupByDictionaries(List<SegmentContext> segmentContexts,
+      QueryContext queryContext) {
+    List<ExpressionContext> groupByExpressions = queryContext.getGroupByExpressions();
+    if (groupByExpressions == null || !QueryContextUtils.isAggregationQuery(queryContext)
+        || QueryContextUtils.isTimeSeriesQuery(queryContext) || segmentContexts.size() < 2
+        || queryContext.isEnablePrefetch() || queryContext.isNullHandlingEnabled()
+        || MapUtils.isNotEmpty(queryContext.getExpressionOverrideHints())) {
+      return null;
+    }
+    int numGroupByExpressions = groupByExpressions.size();
+    Set<String> groupByColumns = new HashSet<>();
+    for (ExpressionContext groupByExpression : groupByExpressions) {
+      if (groupByExpression.getType() != ExpressionContext.Type.IDENTIFIER) {
+        return null;
+      }
+      groupByColumns.add(groupByExpression.getIdentifier());
+    }
+    // The shared dictionaries are sorted, so ordering on the dictionary ids of a group-by column is the same as
+    // ordering on the values, but other expressions on the group-by columns cannot be evaluated on the dictionary ids
+    List<OrderByExpressionContext> orderByExpressions = queryContext.getOrderByExpressions();
+    if (orderByExpressions != null) {
+      for (OrderByExpressionContext orderByExpression : orderByExpressions) {
+        ExpressionContext expression = orderByExpression.getExpression();
+        if (expression.getType() == ExpressionContext.Type.IDENTIFIER) {
+          continue;
+        }
+        Set<String> orderByColumns = new HashSet<>();
+        expression.getColumns(orderByColumns);
+        if (!Collections.disjoint(groupByColumns, orderByColumns)) {
+          return null;
+        }
+      }
+    }
+    int numSegments = segmentContexts.size();
+    Dictionary[][] segmentDictionaries = new Dictionary[numSegments][numGroupByExpressions];
+    int[][] segmentVersions = new int[numSegments][numGroupByExpressions];
+    Dictionary[] dictionaries = new Dictionary[numGroupByExpressions];
+    int[] versions = new int[numGroupByExpressions];
+    Arrays.fill(versions, -1);
+    for (int i = 0; i < numSegments; i++) {
+      IndexSegment indexSegment = segmentContexts.get(i).getIndexSegment();
+      for (int j = 0; j < numGroupByExpressions; j++) {
+        String column = groupByExpressions.get(j).getIdentifier();
+        if (!indexSegment.getPhysicalColumnNames().contains(column)) {
+          return null;
+        }
+        DataSource dataSource = indexSegment.getDataSource(column);
+        Dictionary dictionary = dataSource.getDictionary();
+        int version = dataSource.getDataSourceMetadata().getSharedDictionaryVersion();
+        if (dictionary == null || version < 0) {
+          return null;
+        }
+        segmentDictionaries[i][j] = dictionary;
+        segmentVersions[i][j] = version;
+        if (version > versions[j]) {
+          dictionaries[j] = dictionary;
+          versions[j] = version;
+        }
+      }
+    }
+    // Map the dictionary ids of the older versions onto the latest version. The shared dictionaries only grow, so the
+    // values of an older version should all exist in the latest version unless the shared dictionary was recreated.
+    List<Int2ObjectMap<int[]>> dictIdMappings = new ArrayList<>(numGroupByExpressions);
+    for (int j = 0; j < numGroupByExpressions; j++) {
+      Dictionary dictionary = dictionaries[j];
+      Int2ObjectMap<int[]> versionToDictIdMapping = new Int2ObjectOpenHashMap<>();
+      for (int i = 0; i < numSegments; i++) {
+        Dictionary segmentDictionary = segmentDictionaries[i][j];
+        int version = segmentVersions[i][j];
+        if (version == versions[j]) {
+          if (segmentDictionary.length() != dictionary.length()) {
+            return null;
+          }
+          continue;
+        }
+        int[] dictIdMapping = versionToDictIdMapping.get(version);
+        if (dictIdMapping == null) {
+          int length = segmentDictionary.length();
+          dictIdMapping = new int[length];
+          for (int dictId = 0; dictId < length; dictId++) {
+            int mappedDictId = dictionary.indexOf(segmentDictionary.getStringValue(dictId));
+            if (mappedDictId < 0) {
+              return null;
+            }
+            dictIdMapping[dictId] = mappedDictId;
+          }
+          versionToDictIdMapping.put(version, dictIdMapping);
+        } else if (dictIdMapping.length != segmentDictionary.length()) {
+          return null;
+        }
+      }
+      dictIdMappings.add(versionToDictIdMapping);
+    }
+    return new SharedGroupByDictionaries(dictionaries, versions, dictIdMappings);
+  }
+
   @Override
   public PlanNode makeSegmentPlanNode(SegmentContext segmentContext, QueryContext queryContext) {
     rewriteQueryContextWithHints(queryContext, segmentContext.getIndexSegment());
@@ -116,7 +116,8 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
         }
       } else {
         _groupKeyGenerator = new DictionaryBasedGroupKeyGenerator(projectOperator, groupByExpressions, numGroupsLimit,
-            maxInitialResultHolderCapacity, groupByExpressionSizesFromPredicates);
+            maxInitialResultHolderCapacity, groupByExpressionSizesFromPredicates,
+            queryContext.getSharedGroupByDictionaries());
       }
     }
 
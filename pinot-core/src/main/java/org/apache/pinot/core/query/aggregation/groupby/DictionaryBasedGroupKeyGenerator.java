@@ -36,6 +36,7 @@ import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.operator.BaseProjectOperator;
 import org.apache.pinot.core.operator.ColumnContext;
 import org.apache.pinot.core.operator.blocks.ValueBlock;
+import org.apache.pinot.segment.spi.datasource.DataSource;
 import org.apache.pinot.segment.spi.index.reader.Dictionary;
 
 
@@ -98,6 +99,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
   private final int[][][] _multiValueDictIds;
 
   private final Object[][] _internedDictionaryValues;
+  // Whether to return the dictionary ids instead of the values as the group keys, which is used when all the segments
+  // share the same dictionaries for the group-by columns
+  private final boolean _dictIdsAsKeys;
+  // Mappings onto the dictionary ids of the latest shared dictionary versions, null if already on the latest version
+  private final int[][] _sharedDictIdMappings;
 
   private final int _globalGroupIdUpperBound;
   private final RawKeyHolder _rawKeyHolder;
@@ -105,8 +111,18 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
   public DictionaryBasedGroupKeyGenerator(BaseProjectOperator<?> projectOperator,
       ExpressionContext[] groupByExpressions, int numGroupsLimit, int arrayBasedThreshold,
       @Nullable Map<ExpressionContext, Integer> groupByExpressionSizesFromPredicates) {
+    this(projectOperator, groupByExpressions, numGroupsLimit, arrayBasedThreshold,
+        groupByExpressionSizesFromPredicates, null);
+  }
+
+  public DictionaryBasedGroupKeyGenerator(BaseProjectOperator<?> projectOperator,
+      ExpressionContext[] groupByExpressions, int numGroupsLimit, int arrayBasedThreshold,
+      @Nullable Map<ExpressionContext, Integer> groupByExpressionSizesFromPredicates,
+      @Nullable SharedGroupByDictionaries sharedGroupByDictionaries) {
     assert numGroupsLimit >= arrayBasedThreshold;
 
+    _dictIdsAsKeys = sharedGroupByDictionaries != null;
+
     _groupByExpressions = groupByExpressions;
     _numGroupByExpressions = groupByExpressions.length;
 
@@ -115,6 +131,7 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     _dictionaries = new Dictionary[_numGroupByExpressions];
     _singleValueDictIds = new int[_numGroupByExpressions][];
     _multiValueDictIds = new int[_numGroupByExpressions][][];
+    _sharedDictIdMappings = new int[_numGroupByExpressions][];
     // no need to intern dictionary values when there is only one group by expression because
     // only one call will be made to the dictionary to extract each raw value.
     _internedDictionaryValues = _numGroupByExpressions > 1 ? new Object[_numGroupByExpressions][] : null;
@@ -126,6 +143,12 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
       ColumnContext columnContext = projectOperator.getResultColumnContext(groupByExpression);
       _dictionaries[i] = columnContext.getDictionary();
       assert _dictionaries[i] != null;
+      if (sharedGroupByDictionaries != null) {
+        DataSource dataSource = columnContext.getDataSource();
+        assert dataSource != null;
+        _sharedDictIdMappings[i] = sharedGroupByDictionaries.getDictIdMapping(i,
+            dataSource.getDataSourceMetadata().getSharedDictionaryVersion());
+      }
       int cardinality = _dictionaries[i].length();
       _cardinalities[i] = cardinality;
       cardinalityMap.put(groupByExpression, cardinality);
@@ -577,7 +600,7 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
   private Object[] getKeys(int rawKey) {
     // Specialize single group-by column case
     if (_numGroupByExpressions == 1) {
-      return new Object[]{_dictionaries[0].getInternal(rawKey)};
+      return new Object[]{_dictIdsAsKeys ? getSharedDictId(0, rawKey) : _dictionaries[0].getInternal(rawKey)};
     } else {
       Object[] groupKeys = new Object[_numGroupByExpressions];
       for (int i = 0; i < _numGroupByExpressions; i++) {
@@ -590,6 +613,9 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
   }
 
   private Object getRawValue(int dictionaryIndex, int dictId) {
+    if (_dictIdsAsKeys) {
+      return getSharedDictId(dictionaryIndex, dictId);
+    }
     Dictionary dictionary = _dictionaries[dictionaryIndex];
     Object[] table = _internedDictionaryValues[dictionaryIndex];
     if (table == null) {
@@ -604,6 +630,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     return rawValue;
   }
 
+  private int getSharedDictId(int dictionaryIndex, int dictId) {
+    int[] sharedDictIdMapping = _sharedDictIdMappings[dictionaryIndex];
+    return sharedDictIdMapping != null ? sharedDictIdMapping[dictId] : dictId;
+  }
+
   /**
    * Helper method to get the string key from the raw key.
    */
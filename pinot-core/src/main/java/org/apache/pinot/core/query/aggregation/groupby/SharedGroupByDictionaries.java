@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+
+
+/**
+ * The table-level shared dictionaries of the group-by columns, on which the group keys are merged across the segments.
+ * <p>Each new version of a shared dictionary re-sorts the values, which can shift the dictionary ids. The group keys
+ * are merged on the dictionary ids of the latest version among the queried segments, and the dictionary ids of the
+ * segments encoded against an older version are mapped onto the latest version.
+ */
+public class SharedGroupByDictionaries {
+  private final Dictionary[] _dictionaries;
+  private final int[] _versions;
+  private final List<Int2ObjectMap<int[]>> _dictIdMappings;
+
+  /**
+   * @param dictionaries Dictionaries of the latest version for each group-by column
+   * @param versions Latest version for each group-by column
+   * @param dictIdMappings For each group-by column, map from the older versions to the mappings from the dictionary
+   *                       ids of the older version to the dictionary ids of the latest version
+   */
+  public SharedGroupByDictionaries(Dictionary[] dictionaries, int[] versions,
+      List<Int2ObjectMap<int[]>> dictIdMappings) {
+    _dictionaries = dictionaries;
+    _versions = versions;
+    _dictIdMappings = dictIdMappings;
+  }
+
+  /**
+   * Returns the dictionaries of the latest version, on which the merged group keys are encoded.
+   */
+  public Dictionary[] getDictionaries() {
+    return _dictionaries;
+  }
+
+  /**
+   * Returns the mapping from the dictionary ids of the given version to the dictionary ids of the latest version for
+   * the group-by column at the given index, or {@code null} if the dictionary ids do not need to be mapped.
+   */
+  @Nullable
+  public int[] getDictIdMapping(int index, int version) {
+    if (version == _versions[index]) {
+      return null;
+    }
+    int[] dictIdMapping = _dictIdMappings.get(index).get(version);
+    assert dictIdMapping != null;
+    return dictIdMapping;
+  }
+}
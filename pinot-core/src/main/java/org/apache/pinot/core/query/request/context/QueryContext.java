@@ -40,6 +40,7 @@ import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionFactory;
+import org.apache.pinot.core.query.aggregation.groupby.SharedGroupByDictionaries;
 import org.apache.pinot.core.util.MemoizedClassAssociation;
 import org.apache.pinot.segment.spi.datasource.DataSource;
 import org.apache.pinot.spi.config.table.FieldConfig;
@@ -122,12 +123,17 @@ public class QueryContext {
   private int _minServerGroupTrimSize = InstancePlanMakerImplV2.DEFAULT_MIN_SERVER_GROUP_TRIM_SIZE;
   // Trim threshold to use for server combine for SQL GROUP BY
   private int _groupTrimThreshold = InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD;
+  // Max cardinality of the group-by/distinct column to solve the query with bitmap intersections
+  private int _bitmapIntersectionMaxCardinality = InstancePlanMakerImplV2.DEFAULT_BITMAP_INTERSECTION_MAX_CARDINALITY;
   // Whether null handling is enabled
   private boolean _nullHandlingEnabled;
   // Whether server returns the final result
   private boolean _serverReturnFinalResult;
   // Whether server returns the final result with unpartitioned group key
   private boolean _serverReturnFinalResultKeyUnpartitioned;
+  // Shared dictionaries of the group-by columns when all the segments are encoded against the shared dictionaries, in
+  // which case the group keys are merged on dictionary ids and materialized after combining all the segments
+  private SharedGroupByDictionaries _sharedGroupByDictionaries;
   // Collection of index types to skip per column
   private Map<String, Set<FieldConfig.IndexType>> _skipIndexes;
 
@@ -392,6 +398,14 @@ public class QueryContext {
     _minServerGroupTrimSize = minServerGroupTrimSize;
   }
 
+  public int getBitmapIntersectionMaxCardinality() {
+    return _bitmapIntersectionMaxCardinality;
+  }
+
+  public void setBitmapIntersectionMaxCardinality(int bitmapIntersectionMaxCardinality) {
+    _bitmapIntersectionMaxCardinality = bitmapIntersectionMaxCardinality;
+  }
+
   public int getGroupTrimThreshold() {
     return _groupTrimThreshold;
   }
@@ -424,6 +438,15 @@ public class QueryContext {
     _serverReturnFinalResultKeyUnpartitioned = serverReturnFinalResultKeyUnpartitioned;
   }
 
+  @Nullable
+  public SharedGroupByDictionaries getSharedGroupByDictionaries() {
+    return _sharedGroupByDictionaries;
+  }
+
+  public void setSharedGroupByDictionaries(@Nullable SharedGroupByDictionaries sharedGroupByDictionaries) {
+    _sharedGroupByDictionaries = sharedGroupByDictionaries;
+  }
+
   /**
    * Gets or computes a value of type {@code V} associated with a key of type {@code K} so that it can be shared
    * within the scope of a query.
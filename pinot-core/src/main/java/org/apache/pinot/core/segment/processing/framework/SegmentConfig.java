@@ -32,12 +32,16 @@ import javax.annotation.Nullable;
 public class SegmentConfig {
   public static final int DEFAULT_MAX_NUM_RECORDS_PER_SEGMENT = 5_000_000;
   public static final long DEFAULT_SEGMENT_MAPPER_FILE_SIZE_IN_BYTES = Long.MAX_VALUE;
+  public static final int DEFAULT_NUM_THREADS = 1;
+  public static final long DEFAULT_MEMORY_BUDGET_IN_BYTES = Long.MAX_VALUE;
 
   private final int _maxNumRecordsPerSegment;
   private final String _segmentNamePrefix;
   private final String _segmentNamePostfix;
   private final String _fixedSegmentName;
   private final long _segmentMapperFileSizeThresholdInBytes;
+  private final int _numThreads;
+  private final long _memoryBudgetInBytes;
 
   @JsonCreator
   private SegmentConfig(@JsonProperty(value = "maxNumRecordsPerSegment", required = true) int maxNumRecordsPerSegment,
@@ -45,14 +49,20 @@ public class SegmentConfig {
       @JsonProperty("segmentNamePostfix") @Nullable String segmentNamePostfix,
       @JsonProperty("fixedSegmentName") @Nullable String fixedSegmentName,
       @JsonProperty(value = "segmentMapperFileSizeThresholdInBytes", required = true)
-      long segmentMapperFileSizeThresholdInBytes) {
+      long segmentMapperFileSizeThresholdInBytes,
+      @JsonProperty("numThreads") @Nullable Integer numThreads,
+      @JsonProperty("memoryBudgetInBytes") @Nullable Long memoryBudgetInBytes) {
     Preconditions.checkState(maxNumRecordsPerSegment > 0, "Max num records per segment must be > 0");
     Preconditions.checkState(segmentMapperFileSizeThresholdInBytes > 0, "Intermediate file size threshold must be > 0");
+    Preconditions.checkState(numThreads == null || numThreads > 0, "Num threads must be > 0");
+    Preconditions.checkState(memoryBudgetInBytes == null || memoryBudgetInBytes > 0, "Memory budget must be > 0");
     _maxNumRecordsPerSegment = maxNumRecordsPerSegment;
     _segmentNamePrefix = segmentNamePrefix;
     _segmentNamePostfix = segmentNamePostfix;
     _fixedSegmentName = fixedSegmentName;
     _segmentMapperFileSizeThresholdInBytes = segmentMapperFileSizeThresholdInBytes;
+    _numThreads = numThreads != null ? numThreads : DEFAULT_NUM_THREADS;
+    _memoryBudgetInBytes = memoryBudgetInBytes != null ? memoryBudgetInBytes : DEFAULT_MEMORY_BUDGET_IN_BYTES;
   }
 
   /**
@@ -81,6 +91,22 @@ public class SegmentConfig {
     return _segmentMapperFileSizeThresholdInBytes;
   }
 
+  /**
+   * The number of threads used to map the record readers, reduce the partitions and create the segments. Record readers
+   * are only mapped in parallel when the intermediate file size threshold is not set.
+   */
+  public int getNumThreads() {
+    return _numThreads;
+  }
+
+  /**
+   * The max total size of the intermediate files of the partitions being reduced or converted into segments at the same
+   * time. A partition larger than the budget is processed alone.
+   */
+  public long getMemoryBudgetInBytes() {
+    return _memoryBudgetInBytes;
+  }
+
   /**
    * Builder for SegmentConfig
    */
@@ -90,7 +116,8 @@ public class SegmentConfig {
     private String _segmentNamePrefix;
     private String _segmentNamePostfix;
     private String _fixedSegmentName;
-
+    private int _numThreads = DEFAULT_NUM_THREADS;
+    private long _memoryBudgetInBytes = DEFAULT_MEMORY_BUDGET_IN_BYTES;
 
     public Builder setMaxNumRecordsPerSegment(int maxNumRecordsPerSegment) {
       _maxNumRecordsPerSegment = maxNumRecordsPerSegment;
@@ -116,12 +143,24 @@ public class SegmentConfig {
       return this;
     }
 
+    public Builder setNumThreads(int numThreads) {
+      _numThreads = numThreads;
+      return this;
+    }
+
+    public Builder setMemoryBudgetInBytes(long memoryBudgetInBytes) {
+      _memoryBudgetInBytes = memoryBudgetInBytes;
+      return this;
+    }
+
     public SegmentConfig build() {
       Preconditions.checkState(_maxNumRecordsPerSegment > 0, "Max num records per segment must be > 0");
       Preconditions.checkState(_segmentMapperFileSizeThresholdInBytes > 0,
           "Intermediate file size threshold must be > 0");
+      Preconditions.checkState(_numThreads > 0, "Num threads must be > 0");
+      Preconditions.checkState(_memoryBudgetInBytes > 0, "Memory budget must be > 0");
       return new SegmentConfig(_maxNumRecordsPerSegment, _segmentNamePrefix, _segmentNamePostfix, _fixedSegmentName,
-          _segmentMapperFileSizeThresholdInBytes);
+          _segmentMapperFileSizeThresholdInBytes, _numThreads, _memoryBudgetInBytes);
     }
   }
 
@@ -130,6 +169,7 @@ public class SegmentConfig {
     return "SegmentConfig{" + "_maxNumRecordsPerSegment=" + _maxNumRecordsPerSegment
         + ", _segmentMapperFileSizeThresholdInBytes=" + _segmentMapperFileSizeThresholdInBytes
         + ", _segmentNamePrefix='" + _segmentNamePrefix + '\'' + ", _segmentNamePostfix='" + _segmentNamePostfix + '\''
-        + ", _fixedSegmentName='" + _fixedSegmentName + '\'' + '}';
+        + ", _fixedSegmentName='" + _fixedSegmentName + '\'' + ", _numThreads=" + _numThreads
+        + ", _memoryBudgetInBytes=" + _memoryBudgetInBytes + '}';
   }
 }
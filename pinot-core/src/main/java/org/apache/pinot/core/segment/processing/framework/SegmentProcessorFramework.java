@@ -19,12 +19,18 @@
 package org.apache.pinot.core.segment.processing.framework;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.core.segment.processing.genericrow.GenericRowFileManager;
@@ -57,6 +63,11 @@ import org.slf4j.LoggerFactory;
  *
  * This will typically be used by minion tasks, which want to perform some processing on segments
  * (eg task which merges segments, tasks which aligns segments per time boundaries etc)
+ *
+ * When {@link SegmentConfig#getNumThreads()} is larger than 1, the record readers are mapped in parallel (see
+ * {@link SegmentMapper}), the partitions are reduced in parallel, and the segments are created in parallel. The
+ * partitions being reduced or converted into segments at the same time are bounded by
+ * {@link SegmentConfig#getMemoryBudgetInBytes()} based on the size of their intermediate files.
  */
 public class SegmentProcessorFramework {
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentProcessorFramework.class);
@@ -257,6 +268,11 @@ public class SegmentProcessorFramework {
     LOGGER.info("Beginning reduce phase on partitions: {}", partitionToFileManagerMap.keySet());
     Consumer<Object> observer = _segmentProcessorConfig.getProgressObserver();
     int totalCount = partitionToFileManagerMap.keySet().size();
+    int numThreads = Math.min(_segmentProcessorConfig.getSegmentConfig().getNumThreads(), totalCount);
+    if (numThreads > 1) {
+      doReduceInParallel(partitionToFileManagerMap, numThreads);
+      return;
+    }
     int count = 1;
     for (Map.Entry<String, GenericRowFileManager> entry : partitionToFileManagerMap.entrySet()) {
       String partitionId = entry.getKey();
@@ -269,10 +285,110 @@ public class SegmentProcessorFramework {
     }
   }
 
+  private void doReduceInParallel(Map<String, GenericRowFileManager> partitionToFileManagerMap, int numThreads)
+      throws Exception {
+    Consumer<Object> observer = _segmentProcessorConfig.getProgressObserver();
+    int totalCount = partitionToFileManagerMap.keySet().size();
+    MemoryBudget memoryBudget = new MemoryBudget(_segmentProcessorConfig.getSegmentConfig().getMemoryBudgetInBytes());
+    List<Callable<GenericRowFileManager>> tasks = new ArrayList<>(totalCount);
+    int count = 1;
+    for (Map.Entry<String, GenericRowFileManager> entry : partitionToFileManagerMap.entrySet()) {
+      String partitionId = entry.getKey();
+      GenericRowFileManager fileManager = entry.getValue();
+      String progressMessage =
+          String.format("Doing reduce phase on data from partition: %s (%d out of %d)", partitionId, count++,
+              totalCount);
+      tasks.add(memoryBudget.bound(fileManager.getFileSizeInBytes(), () -> {
+        observer.accept(progressMessage);
+        return ReducerFactory.getReducer(partitionId, fileManager, _segmentProcessorConfig, _reducerOutputDir)
+            .reduce();
+      }));
+    }
+    List<GenericRowFileManager> reducedFileManagers = runInParallel(tasks, numThreads, "segment-reducer-%d");
+    int index = 0;
+    for (Map.Entry<String, GenericRowFileManager> entry : partitionToFileManagerMap.entrySet()) {
+      entry.setValue(reducedFileManagers.get(index++));
+    }
+  }
+
   private List<File> generateSegment(Map<String, GenericRowFileManager> partitionToFileManagerMap)
       throws Exception {
     LOGGER.info("Beginning segment creation phase on partitions: {}", partitionToFileManagerMap.keySet());
+    int numThreads = _segmentProcessorConfig.getSegmentConfig().getNumThreads();
+    if (numThreads > 1) {
+      return generateSegmentsInParallel(partitionToFileManagerMap, numThreads);
+    }
     List<File> outputSegmentDirs = new ArrayList<>();
+    SegmentGeneratorConfig generatorConfig = getSegmentGeneratorConfig();
+    for (Map.Entry<String, GenericRowFileManager> entry : partitionToFileManagerMap.entrySet()) {
+      String partitionId = entry.getKey();
+      GenericRowFileManager fileManager = entry.getValue();
+      try {
+        GenericRowFileReader fileReader = fileManager.getFileReader();
+        int numRows = fileReader.getNumRows();
+        int numSortFields = fileReader.getNumSortFields();
+        LOGGER.info("Start creating segments on partition: {}, numRows: {}, numSortFields: {}", partitionId, numRows,
+            numSortFields);
+        GenericRowFileRecordReader recordReader = fileReader.getRecordReader();
+        int maxNumRecordsPerSegment;
+        for (int startRowId = 0; startRowId < numRows; startRowId += maxNumRecordsPerSegment, _segmentSequenceId++) {
+          maxNumRecordsPerSegment = _segmentNumRowProvider.getNumRows();
+          int endRowId = Math.min(startRowId + maxNumRecordsPerSegment, numRows);
+          outputSegmentDirs.add(
+              createSegment(generatorConfig, _segmentSequenceId, partitionId, recordReader, startRowId, endRowId,
+                  numRows));
+        }
+      } finally {
+        fileManager.cleanUp();
+      }
+    }
+    LOGGER.info("Successfully created segments: {}", outputSegmentDirs);
+    return outputSegmentDirs;
+  }
+
+  /**
+   * Creates the segments in parallel. The row ranges and sequence ids of the segments are assigned upfront, so the
+   * {@link SegmentNumRowProvider} only receives the info of the segments created before the assignment.
+   */
+  private List<File> generateSegmentsInParallel(Map<String, GenericRowFileManager> partitionToFileManagerMap,
+      int numThreads)
+      throws Exception {
+    MemoryBudget memoryBudget = new MemoryBudget(_segmentProcessorConfig.getSegmentConfig().getMemoryBudgetInBytes());
+    List<Callable<File>> tasks = new ArrayList<>();
+    try {
+      for (Map.Entry<String, GenericRowFileManager> entry : partitionToFileManagerMap.entrySet()) {
+        String partitionId = entry.getKey();
+        GenericRowFileManager fileManager = entry.getValue();
+        GenericRowFileReader fileReader = fileManager.getFileReader();
+        int numRows = fileReader.getNumRows();
+        LOGGER.info("Start creating segments on partition: {}, numRows: {}, numSortFields: {}", partitionId, numRows,
+            fileReader.getNumSortFields());
+        GenericRowFileRecordReader recordReader = fileReader.getRecordReader();
+        long fileSizeInBytes = fileManager.getFileSizeInBytes();
+        int maxNumRecordsPerSegment;
+        for (int startRowId = 0; startRowId < numRows; startRowId += maxNumRecordsPerSegment, _segmentSequenceId++) {
+          synchronized (_segmentNumRowProvider) {
+            maxNumRecordsPerSegment = _segmentNumRowProvider.getNumRows();
+          }
+          int sequenceId = _segmentSequenceId;
+          int startRow = startRowId;
+          int endRow = Math.min(startRowId + maxNumRecordsPerSegment, numRows);
+          tasks.add(memoryBudget.bound((long) ((double) fileSizeInBytes * (endRow - startRow) / numRows),
+              () -> createSegment(getSegmentGeneratorConfig(), sequenceId, partitionId, recordReader, startRow, endRow,
+                  numRows)));
+        }
+      }
+      List<File> outputSegmentDirs = runInParallel(tasks, numThreads, "segment-creator-%d");
+      LOGGER.info("Successfully created segments: {}", outputSegmentDirs);
+      return outputSegmentDirs;
+    } finally {
+      for (GenericRowFileManager fileManager : partitionToFileManagerMap.values()) {
+        fileManager.cleanUp();
+      }
+    }
+  }
+
+  private SegmentGeneratorConfig getSegmentGeneratorConfig() {
     TableConfig tableConfig = _segmentProcessorConfig.getTableConfig();
     Schema schema = _segmentProcessorConfig.getSchema();
     String segmentNamePrefix = _segmentProcessorConfig.getSegmentConfig().getSegmentNamePrefix();
@@ -280,7 +396,6 @@ public class SegmentProcessorFramework {
     String fixedSegmentName = _segmentProcessorConfig.getSegmentConfig().getFixedSegmentName();
     SegmentGeneratorConfig generatorConfig = new SegmentGeneratorConfig(tableConfig, schema);
     generatorConfig.setOutDir(_segmentsOutputDir.getPath());
-    Consumer<Object> observer = _segmentProcessorConfig.getProgressObserver();
 
     if (tableConfig.getIndexingConfig().getSegmentNameGeneratorType() != null) {
       generatorConfig.setSegmentNameGenerator(
@@ -292,42 +407,88 @@ public class SegmentProcessorFramework {
       generatorConfig.setSegmentNamePostfix(segmentNamePostfix);
       generatorConfig.setSegmentName(fixedSegmentName);
     }
+    return generatorConfig;
+  }
 
-    for (Map.Entry<String, GenericRowFileManager> entry : partitionToFileManagerMap.entrySet()) {
-      String partitionId = entry.getKey();
-      GenericRowFileManager fileManager = entry.getValue();
-      try {
-        GenericRowFileReader fileReader = fileManager.getFileReader();
-        int numRows = fileReader.getNumRows();
-        int numSortFields = fileReader.getNumSortFields();
-        LOGGER.info("Start creating segments on partition: {}, numRows: {}, numSortFields: {}", partitionId, numRows,
-            numSortFields);
-        GenericRowFileRecordReader recordReader = fileReader.getRecordReader();
-        int maxNumRecordsPerSegment;
-        for (int startRowId = 0; startRowId < numRows; startRowId += maxNumRecordsPerSegment, _segmentSequenceId++) {
-          maxNumRecordsPerSegment = _segmentNumRowProvider.getNumRows();
-          int endRowId = Math.min(startRowId + maxNumRecordsPerSegment, numRows);
-          LOGGER.info("Start creating segment of sequenceId: {} with row range: {} to {}", _segmentSequenceId,
-              startRowId, endRowId);
-          observer.accept(String.format(
-              "Creating segment of sequentId: %d with data from partition: %s and row range: [%d, %d) out of [0, %d)",
-              _segmentSequenceId, partitionId, startRowId, endRowId, numRows));
-          generatorConfig.setSequenceId(_segmentSequenceId);
-          GenericRowFileRecordReader recordReaderForRange = recordReader.getRecordReaderForRange(startRowId, endRowId);
-          SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
-          driver.init(generatorConfig, new RecordReaderSegmentCreationDataSource(recordReaderForRange),
-              RecordEnricherPipeline.getPassThroughPipeline(),
-              TransformPipeline.getPassThroughPipeline());
-          driver.build();
-          outputSegmentDirs.add(driver.getOutputDirectory());
-          _segmentNumRowProvider.updateSegmentInfo(driver.getSegmentStats().getTotalDocCount(),
-              FileUtils.sizeOfDirectory(driver.getOutputDirectory()));
+  private File createSegment(SegmentGeneratorConfig generatorConfig, int sequenceId, String partitionId,
+      GenericRowFileRecordReader recordReader, int startRowId, int endRowId, int numRows)
+      throws Exception {
+    LOGGER.info("Start creating segment of sequenceId: {} with row range: {} to {}", sequenceId, startRowId, endRowId);
+    _segmentProcessorConfig.getProgressObserver().accept(String.format(
+        "Creating segment of sequentId: %d with data from partition: %s and row range: [%d, %d) out of [0, %d)",
+        sequenceId, partitionId, startRowId, endRowId, numRows));
+    generatorConfig.setSequenceId(sequenceId);
+    GenericRowFileRecordReader recordReaderForRange = recordReader.getRecordReaderForRange(startRowId, endRowId);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(generatorConfig, new RecordReaderSegmentCreationDataSource(recordReaderForRange),
+        RecordEnricherPipeline.getPassThroughPipeline(),
+        TransformPipeline.getPassThroughPipeline());
+    driver.build();
+    synchronized (_segmentNumRowProvider) {
+      _segmentNumRowProvider.updateSegmentInfo(driver.getSegmentStats().getTotalDocCount(),
+          FileUtils.sizeOfDirectory(driver.getOutputDirectory()));
+    }
+    return driver.getOutputDirectory();
+  }
+
+  /**
+   * Runs the tasks with the given number of threads, and returns the results in the same order as the tasks.
+   */
+  private static <T> List<T> runInParallel(List<Callable<T>> tasks, int numThreads, String threadNameFormat)
+      throws Exception {
+    ExecutorService executorService = Executors.newFixedThreadPool(Math.min(numThreads, tasks.size()),
+        new ThreadFactoryBuilder().setNameFormat(threadNameFormat).setDaemon(true).build());
+    try {
+      List<Future<T>> futures = new ArrayList<>(tasks.size());
+      for (Callable<T> task : tasks) {
+        futures.add(executorService.submit(task));
+      }
+      List<T> results = new ArrayList<>(tasks.size());
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } finally {
+      // Wait for the running tasks to stop on failure so that the intermediate files can be cleaned up
+      executorService.shutdownNow();
+      executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Bounds the total size of the intermediate files processed at the same time. A task is always admitted when no other
+   * task is running, so that a partition larger than the budget can still be processed.
+   */
+  private static class MemoryBudget {
+    private final long _budgetInBytes;
+    private long _numBytesInUse;
+
+    MemoryBudget(long budgetInBytes) {
+      _budgetInBytes = budgetInBytes;
+    }
+
+    <T> Callable<T> bound(long numBytes, Callable<T> task) {
+      return () -> {
+        acquire(numBytes);
+        try {
+          return task.call();
+        } finally {
+          release(numBytes);
         }
-      } finally {
-        fileManager.cleanUp();
+      };
+    }
+
+    private synchronized void acquire(long numBytes)
+        throws InterruptedException {
+      while (_numBytesInUse > 0 && _numBytesInUse + numBytes > _budgetInBytes) {
+        wait();
       }
+      _numBytesInUse += numBytes;
+    }
+
+    private synchronized void release(long numBytes) {
+      _numBytesInUse -= numBytes;
+      notifyAll();
     }
-    LOGGER.info("Successfully created segments: {}", outputSegmentDirs);
-    return outputSegmentDirs;
   }
 }
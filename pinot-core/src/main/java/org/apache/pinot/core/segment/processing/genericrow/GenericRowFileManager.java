@@ -72,6 +72,13 @@ public class GenericRowFileManager {
     return _numSortFields;
   }
 
+  /**
+   * Returns the total size of the offset and data files.
+   */
+  public long getFileSizeInBytes() {
+    return _offsetFile.length() + _dataFile.length();
+  }
+
   /**
    * Returns the file writer. Creates one if not exists.
    */
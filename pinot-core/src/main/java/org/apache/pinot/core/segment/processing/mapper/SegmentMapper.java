@@ -18,14 +18,23 @@
  */
 package org.apache.pinot.core.segment.processing.mapper;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.pinot.core.segment.processing.framework.SegmentProcessorConfig;
@@ -61,6 +70,11 @@ import org.slf4j.LoggerFactory;
  * - record filtering
  * - column transformations
  * - partitioning
+ *
+ * When constructed with custom record transformers, configured with more than 1 thread and without intermediate file
+ * size threshold, the record readers are mapped in parallel. Each thread has its own transform pipeline, time handler
+ * and partitioners, and the rows are appended to the shared partition files, so the custom record transformers must be
+ * thread-safe and the order of the rows within a partition is not deterministic.
  */
 public class SegmentMapper {
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentMapper.class);
@@ -78,20 +92,35 @@ public class SegmentMapper {
   private final Map<String, GenericRowFileManager> _partitionToFileManagerMap = new TreeMap<>();
   private final AdaptiveSizeBasedWriter _adaptiveSizeBasedWriter;
   private final List<RecordReaderFileConfig> _recordReaderFileConfigs;
+  // Creates a new transform pipeline for each mapping thread, null when the transform pipeline is provided
+  private final Supplier<TransformPipeline> _transformPipelineSupplier;
 
   public SegmentMapper(List<RecordReaderFileConfig> recordReaderFileConfigs,
       List<RecordTransformer> customRecordTransformers, SegmentProcessorConfig processorConfig, File mapperOutputDir) {
-    this(recordReaderFileConfigs,
-        new TransformPipeline(
+    this(recordReaderFileConfigs, () -> new TransformPipeline(
             CompositeTransformer.composeAllTransformers(customRecordTransformers, processorConfig.getTableConfig(),
                 processorConfig.getSchema()),
-            ComplexTypeTransformer.getComplexTypeTransformer(processorConfig.getTableConfig())),
-        processorConfig, mapperOutputDir);
+            ComplexTypeTransformer.getComplexTypeTransformer(processorConfig.getTableConfig())), processorConfig,
+        mapperOutputDir);
   }
 
   public SegmentMapper(List<RecordReaderFileConfig> recordReaderFileConfigs, TransformPipeline transformPipeline,
       SegmentProcessorConfig processorConfig, File mapperOutputDir) {
+    this(recordReaderFileConfigs, transformPipeline, null, processorConfig, mapperOutputDir);
+  }
+
+  private SegmentMapper(List<RecordReaderFileConfig> recordReaderFileConfigs,
+      Supplier<TransformPipeline> transformPipelineSupplier, SegmentProcessorConfig processorConfig,
+      File mapperOutputDir) {
+    this(recordReaderFileConfigs, transformPipelineSupplier.get(), transformPipelineSupplier, processorConfig,
+        mapperOutputDir);
+  }
+
+  private SegmentMapper(List<RecordReaderFileConfig> recordReaderFileConfigs, TransformPipeline transformPipeline,
+      @Nullable Supplier<TransformPipeline> transformPipelineSupplier, SegmentProcessorConfig processorConfig,
+      File mapperOutputDir) {
     _recordReaderFileConfigs = recordReaderFileConfigs;
+    _transformPipelineSupplier = transformPipelineSupplier;
     _processorConfig = processorConfig;
     _mapperOutputDir = mapperOutputDir;
 
@@ -143,6 +172,13 @@ public class SegmentMapper {
 
   private Map<String, GenericRowFileManager> doMap()
       throws Exception {
+    int numThreads = Math.min(_processorConfig.getSegmentConfig().getNumThreads(), _recordReaderFileConfigs.size());
+    // Mapping in parallel is not supported when the transform pipeline is provided, or when the mapper needs to stop at
+    // the intermediate file size threshold
+    if (numThreads > 1 && _transformPipelineSupplier != null
+        && _adaptiveSizeBasedWriter.getBytesLimit() == Long.MAX_VALUE) {
+      return doMapInParallel(numThreads);
+    }
     Consumer<Object> observer = _processorConfig.getProgressObserver();
     int count = 1;
     int totalNumRecordReaders = _recordReaderFileConfigs.size();
@@ -215,33 +251,143 @@ public class SegmentMapper {
 
   protected void writeRecord(GenericRow row)
       throws IOException {
-    String timePartition = _timeHandler.handleTime(row);
-    if (timePartition == null) {
+    String partition = getPartition(row, _timeHandler, _partitioners, _partitionsBuffer);
+    if (partition == null) {
       // Record not in the valid time range
       return;
     }
-    _partitionsBuffer[0] = timePartition;
+
+    // Get the file writer.
+    FileWriter<GenericRow> fileWriter = getFileManager(partition).getFileWriter();
+
+    // Write the row.
+    _adaptiveSizeBasedWriter.write(fileWriter, row);
+  }
+
+  /**
+   * Maps the record readers with the given number of threads, where each thread picks the next record reader to map
+   * until all of them are processed.
+   */
+  private Map<String, GenericRowFileManager> doMapInParallel(int numThreads)
+      throws Exception {
+    Consumer<Object> observer = _processorConfig.getProgressObserver();
+    int totalNumRecordReaders = _recordReaderFileConfigs.size();
+    LOGGER.info("Mapping {} record readers with {} threads", totalNumRecordReaders, numThreads);
+    AtomicInteger nextRecordReaderIndex = new AtomicInteger();
+    ExecutorService executorService = Executors.newFixedThreadPool(numThreads,
+        new ThreadFactoryBuilder().setNameFormat("segment-mapper-%d").setDaemon(true).build());
+    try {
+      List<Future<Void>> futures = new ArrayList<>(numThreads);
+      for (int i = 0; i < numThreads; i++) {
+        futures.add(executorService.submit(() -> {
+          MappingThreadContext context = new MappingThreadContext();
+          int recordReaderIndex;
+          while (!Thread.currentThread().isInterrupted()
+              && (recordReaderIndex = nextRecordReaderIndex.getAndIncrement()) < totalNumRecordReaders) {
+            observer.accept(String.format("Doing map phase on data from RecordReader (%d out of %d)",
+                recordReaderIndex + 1, totalNumRecordReaders));
+            RecordReaderFileConfig recordReaderFileConfig = _recordReaderFileConfigs.get(recordReaderIndex);
+            context.map(recordReaderFileConfig.getRecordReader());
+            recordReaderFileConfig.closeRecordReader();
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      // Wait for the other threads to stop on failure so that the partition files can be cleaned up
+      executorService.shutdownNow();
+      executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    for (GenericRowFileManager fileManager : _partitionToFileManagerMap.values()) {
+      fileManager.closeFileWriter();
+    }
+    return _partitionToFileManagerMap;
+  }
+
+  /**
+   * Returns the partition of the row, or {@code null} if the row is not in the valid time range.
+   */
+  @Nullable
+  private static String getPartition(GenericRow row, TimeHandler timeHandler, Partitioner[] partitioners,
+      String[] partitionsBuffer) {
+    String timePartition = timeHandler.handleTime(row);
+    if (timePartition == null) {
+      return null;
+    }
+    partitionsBuffer[0] = timePartition;
 
     // Partitioning
-    int numPartitioners = _partitioners.length;
+    int numPartitioners = partitioners.length;
     for (int i = 0; i < numPartitioners; i++) {
-      _partitionsBuffer[i + 1] = _partitioners[i].getPartition(row);
+      partitionsBuffer[i + 1] = partitioners[i].getPartition(row);
     }
-    String partition = StringUtil.join("_", _partitionsBuffer);
-
-    // Create writer for the partition if not exists
-    GenericRowFileManager fileManager = _partitionToFileManagerMap.get(partition);
-    if (fileManager == null) {
-      File partitionOutputDir = new File(_mapperOutputDir, partition);
-      FileUtils.forceMkdir(partitionOutputDir);
-      fileManager = new GenericRowFileManager(partitionOutputDir, _fieldSpecs, _includeNullFields, _numSortFields);
-      _partitionToFileManagerMap.put(partition, fileManager);
+    return StringUtil.join("_", partitionsBuffer);
+  }
+
+  /**
+   * Returns the file manager for the partition. Creates one if not exists.
+   */
+  private GenericRowFileManager getFileManager(String partition)
+      throws IOException {
+    synchronized (_partitionToFileManagerMap) {
+      GenericRowFileManager fileManager = _partitionToFileManagerMap.get(partition);
+      if (fileManager == null) {
+        File partitionOutputDir = new File(_mapperOutputDir, partition);
+        FileUtils.forceMkdir(partitionOutputDir);
+        fileManager = new GenericRowFileManager(partitionOutputDir, _fieldSpecs, _includeNullFields, _numSortFields);
+        _partitionToFileManagerMap.put(partition, fileManager);
+      }
+      return fileManager;
     }
+  }
 
-    // Get the file writer.
-    FileWriter<GenericRow> fileWriter = fileManager.getFileWriter();
+  /**
+   * Per thread state to map the records when mapping the record readers in parallel.
+   */
+  private class MappingThreadContext {
+    private final RecordEnricherPipeline _threadRecordEnricherPipeline =
+        RecordEnricherPipeline.fromTableConfig(_processorConfig.getTableConfig());
+    private final TransformPipeline _threadTransformPipeline = _transformPipelineSupplier.get();
+    private final TimeHandler _threadTimeHandler = TimeHandlerFactory.getTimeHandler(_processorConfig);
+    private final Partitioner[] _threadPartitioners = _processorConfig.getPartitionerConfigs().stream()
+        .map(PartitionerFactory::getPartitioner).toArray(Partitioner[]::new);
+    private final String[] _threadPartitionsBuffer = new String[_threadPartitioners.length + 1];
+    private final TransformPipeline.Result _reusedResult = new TransformPipeline.Result();
 
-    // Write the row.
-    _adaptiveSizeBasedWriter.write(fileWriter, row);
+    void map(RecordReader recordReader) {
+      boolean continueOnError =
+          _processorConfig.getTableConfig().getIngestionConfig() != null && _processorConfig.getTableConfig()
+              .getIngestionConfig().isContinueOnError();
+      GenericRow reuse = new GenericRow();
+      while (recordReader.hasNext() && !Thread.currentThread().isInterrupted()) {
+        try {
+          reuse = recordReader.next(reuse);
+          _threadRecordEnricherPipeline.run(reuse);
+          _threadTransformPipeline.processRow(reuse, _reusedResult);
+          for (GenericRow transformedRow : _reusedResult.getTransformedRows()) {
+            String partition =
+                getPartition(transformedRow, _threadTimeHandler, _threadPartitioners, _threadPartitionsBuffer);
+            if (partition != null) {
+              GenericRowFileManager fileManager = getFileManager(partition);
+              synchronized (fileManager) {
+                fileManager.getFileWriter().writeData(transformedRow);
+              }
+            }
+          }
+        } catch (Exception e) {
+          if (!continueOnError) {
+            throw new RuntimeException("Caught exception while reading data", e);
+          } else {
+            LOGGER.debug("Caught exception while reading data", e);
+            continue;
+          }
+        }
+        reuse.clear();
+      }
+    }
   }
 }
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.util;
+
+import javax.annotation.Nullable;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.SortedIndexReader;
+import org.apache.pinot.spi.config.table.FieldConfig;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Utility methods to decide whether a filtered COUNT group-by or DISTINCT query on a single column can be solved by
+ * intersecting the bitmap of the matching documents with the inverted index bitmap of each dictionary id, instead of
+ * scanning the matching documents.
+ */
+public final class BitmapIntersectionUtils {
+  private BitmapIntersectionUtils() {
+  }
+
+  // Each intersection touches every container of the inverted index bitmap, so there need to be enough matching
+  // documents per dictionary id to amortize it compared to scanning the matching documents
+  public static final int MIN_NUM_DOCS_PER_DICT_ID = 100;
+
+  /**
+   * Returns the bitmap inverted index of the given expression if the query can be solved with bitmap intersections on
+   * it, or {@code null} otherwise. The expression must be a single-value column with a sorted (immutable) dictionary
+   * and a bitmap inverted index, and its cardinality must be within the configured max cardinality.
+   * NOTE: Mutable inverted index is not supported because it might contain documents beyond the queried documents.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public static InvertedIndexReader<ImmutableRoaringBitmap> getInvertedIndex(IndexSegment indexSegment,
+      ExpressionContext expression, QueryContext queryContext) {
+    String column = expression.getIdentifier();
+    if (column == null || queryContext.isNullHandlingEnabled()) {
+      return null;
+    }
+    int maxCardinality = queryContext.getBitmapIntersectionMaxCardinality();
+    if (maxCardinality <= 0) {
+      return null;
+    }
+    DataSource dataSource = indexSegment.getDataSource(column);
+    if (!dataSource.getDataSourceMetadata().isSingleValue()) {
+      return null;
+    }
+    Dictionary dictionary = dataSource.getDictionary();
+    if (dictionary == null || !dictionary.isSorted()) {
+      return null;
+    }
+    if (dictionary.length() > maxCardinality) {
+      return null;
+    }
+    InvertedIndexReader<?> invertedIndex = dataSource.getInvertedIndex();
+    if (invertedIndex == null || invertedIndex instanceof SortedIndexReader
+        || !queryContext.isIndexUseAllowed(dataSource, FieldConfig.IndexType.INVERTED)) {
+      return null;
+    }
+    return (InvertedIndexReader<ImmutableRoaringBitmap>) invertedIndex;
+  }
+
+  /**
+   * Returns {@code true} if the matching documents of the filter can be retrieved as bitmap without scanning, and the
+   * estimated number of matching documents is large enough to amortize one intersection per dictionary id of the
+   * given dictionary. When the filter cannot count the matching documents cheaply, the number of documents in the
+   * segment is used as the estimate.
+   */
+  public static boolean canUseFilter(QueryContext queryContext, BaseFilterOperator filterOperator,
+      Dictionary dictionary, int numTotalDocs) {
+    if (queryContext.getFilter() == null || filterOperator.isResultEmpty() || !filterOperator.canProduceBitmaps()) {
+      return false;
+    }
+    int numMatchingDocs = filterOperator.canOptimizeCount() ? filterOperator.getNumMatchingDocs() : numTotalDocs;
+    return (long) dictionary.length() * MIN_NUM_DOCS_PER_DICT_ID <= numMatchingDocs;
+  }
+}
@@ -65,6 +65,30 @@ public final class DataBlockExtractUtils {
     return rows;
   }
 
+  public static List<Object[]> extractRows(DataBlock dataBlock, int numMatchedRows, RoaringBitmap matchedBitmap) {
+    DataSchema dataSchema = dataBlock.getDataSchema();
+    ColumnDataType[] storedTypes = dataSchema.getStoredColumnDataTypes();
+    int numColumns = storedTypes.length;
+    RoaringBitmap[] nullBitmaps = new RoaringBitmap[numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      nullBitmaps[colId] = dataBlock.getNullRowIds(colId);
+    }
+    List<Object[]> rows = new ArrayList<>(numMatchedRows);
+    PeekableIntIterator iterator = matchedBitmap.getIntIterator();
+    for (int matchedRowId = 0; matchedRowId < numMatchedRows; matchedRowId++) {
+      int rowId = iterator.next();
+      Object[] row = new Object[numColumns];
+      for (int colId = 0; colId < numColumns; colId++) {
+        RoaringBitmap nullBitmap = nullBitmaps[colId];
+        if (nullBitmap == null || !nullBitmap.contains(rowId)) {
+          row[colId] = extractValue(dataBlock, storedTypes[colId], rowId, colId);
+        }
+      }
+      rows.add(row);
+    }
+    return rows;
+  }
+
   private static Object extractValue(DataBlock dataBlock, ColumnDataType storedType, int rowId, int colId) {
     switch (storedType) {
       // Single-value column
@@ -91,6 +91,49 @@ public class AndFilterOperatorTest {
     Assert.assertEquals(iterator.next(), Constants.EOF);
   }
 
+  @Test
+  public void testIntersectionWithExcludedBitmaps() {
+    int numDocs = 40;
+    MutableRoaringBitmap included = MutableRoaringBitmap.bitmapOf(2, 3, 6, 10, 15, 16, 28);
+    MutableRoaringBitmap excluded1 = MutableRoaringBitmap.bitmapOf(3, 15, 39);
+    MutableRoaringBitmap excluded2 = MutableRoaringBitmap.bitmapOf(0, 1, 2, 16);
+
+    // Bitmap AND NOT excluded bitmaps
+    List<BaseFilterOperator> operators = new ArrayList<>();
+    operators.add(new BitmapBasedFilterOperator(excluded1, true, numDocs));
+    operators.add(new BitmapBasedFilterOperator(included, false, numDocs));
+    operators.add(new BitmapBasedFilterOperator(excluded2, true, numDocs));
+    AndFilterOperator andOperator = new AndFilterOperator(operators, null, numDocs, false);
+    BlockDocIdIterator iterator = andOperator.nextBlock().getBlockDocIdSet().iterator();
+    Assert.assertEquals(iterator.next(), 6);
+    Assert.assertEquals(iterator.next(), 10);
+    Assert.assertEquals(iterator.next(), 28);
+    Assert.assertEquals(iterator.next(), Constants.EOF);
+
+    // Only excluded bitmaps
+    operators = new ArrayList<>();
+    operators.add(new BitmapBasedFilterOperator(excluded1, true, numDocs));
+    operators.add(new BitmapBasedFilterOperator(excluded2, true, numDocs));
+    andOperator = new AndFilterOperator(operators, null, numDocs, false);
+    iterator = andOperator.nextBlock().getBlockDocIdSet().iterator();
+    for (int docId = 0; docId < numDocs; docId++) {
+      if (!excluded1.contains(docId) && !excluded2.contains(docId)) {
+        Assert.assertEquals(iterator.next(), docId);
+      }
+    }
+    Assert.assertEquals(iterator.next(), Constants.EOF);
+
+    // Excluded bitmap with a non-bitmap child
+    operators = new ArrayList<>();
+    operators.add(new BitmapBasedFilterOperator(excluded2, true, numDocs));
+    operators.add(new TestFilterOperator(new int[]{1, 2, 3, 5}, numDocs));
+    andOperator = new AndFilterOperator(operators, null, numDocs, false);
+    iterator = andOperator.nextBlock().getBlockDocIdSet().iterator();
+    Assert.assertEquals(iterator.next(), 3);
+    Assert.assertEquals(iterator.next(), 5);
+    Assert.assertEquals(iterator.next(), Constants.EOF);
+  }
+
   @Test
   void testAndDocIdSetReordering() {
     int numDocs = 10_000;
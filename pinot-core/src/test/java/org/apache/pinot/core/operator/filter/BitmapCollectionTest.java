@@ -18,7 +18,9 @@
  */
 package org.apache.pinot.core.operator.filter;
 
+import java.util.List;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -225,6 +227,53 @@ public class BitmapCollectionTest {
         new BitmapCollection(numDocs, rightInverted, split(right))), expected);
   }
 
+  @Test(dataProvider = "andCardinalityTestCases")
+  public void testAnd(int numDocs, ImmutableRoaringBitmap left, boolean leftInverted, ImmutableRoaringBitmap right,
+      boolean rightInverted, int expected) {
+    assertEquals(BitmapCollection.and(numDocs, List.of(new BitmapCollection(numDocs, leftInverted, split(left)),
+        new BitmapCollection(numDocs, rightInverted, split(right)))).reduce().getCardinality(), expected);
+    ImmutableRoaringBitmap expectedBitmap = expected(numDocs, left, leftInverted);
+    expectedBitmap = ImmutableRoaringBitmap.and(expectedBitmap, expected(numDocs, right, rightInverted));
+    assertEquals(BitmapCollection.and(numDocs, List.of(new BitmapCollection(numDocs, leftInverted, left),
+        new BitmapCollection(numDocs, rightInverted, right))).reduce(), expectedBitmap);
+  }
+
+  @Test(dataProvider = "orCardinalityTestCases")
+  public void testOr(int numDocs, ImmutableRoaringBitmap left, boolean leftInverted, ImmutableRoaringBitmap right,
+      boolean rightInverted, int expected) {
+    assertEquals(BitmapCollection.or(numDocs, List.of(new BitmapCollection(numDocs, leftInverted, split(left)),
+        new BitmapCollection(numDocs, rightInverted, split(right)))).reduce().getCardinality(), expected);
+    ImmutableRoaringBitmap expectedBitmap = expected(numDocs, left, leftInverted);
+    expectedBitmap = ImmutableRoaringBitmap.or(expectedBitmap, expected(numDocs, right, rightInverted));
+    assertEquals(BitmapCollection.or(numDocs, List.of(new BitmapCollection(numDocs, leftInverted, left),
+        new BitmapCollection(numDocs, rightInverted, right))).reduce(), expectedBitmap);
+  }
+
+  @Test
+  public void testAndOrWithThreeCollections() {
+    int numDocs = 10;
+    BitmapCollection first = new BitmapCollection(numDocs, false, ImmutableRoaringBitmap.bitmapOf(0, 1, 2, 3, 4));
+    BitmapCollection second = new BitmapCollection(numDocs, false, ImmutableRoaringBitmap.bitmapOf(1, 2, 3, 8));
+    BitmapCollection third = new BitmapCollection(numDocs, true, ImmutableRoaringBitmap.bitmapOf(2));
+    assertEquals(BitmapCollection.and(numDocs, List.of(first, second, third)).reduce(),
+        ImmutableRoaringBitmap.bitmapOf(1, 3));
+    assertEquals(BitmapCollection.or(numDocs, List.of(first, second, third)).reduce(),
+        ImmutableRoaringBitmap.bitmapOf(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+    third = new BitmapCollection(numDocs, true, ImmutableRoaringBitmap.bitmapOf(2, 5, 6, 7, 9));
+    assertEquals(BitmapCollection.or(numDocs, List.of(first, second, third)).reduce(),
+        ImmutableRoaringBitmap.bitmapOf(0, 1, 2, 3, 4, 8));
+  }
+
+  private ImmutableRoaringBitmap expected(int numDocs, ImmutableRoaringBitmap bitmap, boolean inverted) {
+    if (!inverted) {
+      return bitmap;
+    }
+    MutableRoaringBitmap complement = new MutableRoaringBitmap();
+    complement.add(0L, numDocs);
+    complement.andNot(bitmap);
+    return complement;
+  }
+
   private ImmutableRoaringBitmap[] split(ImmutableRoaringBitmap bitmap) {
     if (bitmap.isEmpty()) {
       return new ImmutableRoaringBitmap[]{bitmap};
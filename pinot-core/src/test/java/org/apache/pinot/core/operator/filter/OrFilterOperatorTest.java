@@ -27,7 +27,9 @@ import java.util.List;
 import java.util.TreeSet;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.core.operator.dociditerators.BitmapDocIdIterator;
 import org.apache.pinot.segment.spi.Constants;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -181,4 +183,54 @@ public class OrFilterOperatorTest {
     Assert.assertEquals(TestUtils.getDocIds(orFilterOperator.getTrues()), Collections.emptyList());
     Assert.assertEquals(TestUtils.getDocIds(orFilterOperator.getFalses()), Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
   }
+
+  @Test
+  public void testUnionWithExcludedBitmaps() {
+    int numDocs = 40;
+    MutableRoaringBitmap included = MutableRoaringBitmap.bitmapOf(2, 3, 6, 10, 15, 16, 28);
+    MutableRoaringBitmap excluded1 = MutableRoaringBitmap.bitmapOf(3, 15, 20, 21, 39);
+    MutableRoaringBitmap excluded2 = MutableRoaringBitmap.bitmapOf(0, 1, 2, 15, 20, 39);
+
+    // Bitmap OR NOT excluded bitmaps, merged into a single bitmap
+    List<BaseFilterOperator> operators = new ArrayList<>();
+    operators.add(new BitmapBasedFilterOperator(excluded1, true, numDocs));
+    operators.add(new BitmapBasedFilterOperator(included, false, numDocs));
+    operators.add(new BitmapBasedFilterOperator(excluded2, true, numDocs));
+    OrFilterOperator orOperator = new OrFilterOperator(operators, null, numDocs, false);
+    BlockDocIdIterator iterator = orOperator.nextBlock().getBlockDocIdSet().iterator();
+    Assert.assertTrue(iterator instanceof BitmapDocIdIterator);
+    // Documents excluded by both excluded bitmaps and not included: 20, 39
+    for (int docId = 0; docId < numDocs; docId++) {
+      if (docId != 20 && docId != 39) {
+        Assert.assertEquals(iterator.next(), docId);
+      }
+    }
+    Assert.assertEquals(iterator.next(), Constants.EOF);
+
+    // Only excluded bitmaps
+    operators = new ArrayList<>();
+    operators.add(new BitmapBasedFilterOperator(excluded1, true, numDocs));
+    operators.add(new BitmapBasedFilterOperator(excluded2, true, numDocs));
+    orOperator = new OrFilterOperator(operators, null, numDocs, false);
+    iterator = orOperator.nextBlock().getBlockDocIdSet().iterator();
+    for (int docId = 0; docId < numDocs; docId++) {
+      if (!excluded1.contains(docId) || !excluded2.contains(docId)) {
+        Assert.assertEquals(iterator.next(), docId);
+      }
+    }
+    Assert.assertEquals(iterator.next(), Constants.EOF);
+
+    // Excluded bitmap with a non-bitmap child
+    operators = new ArrayList<>();
+    operators.add(new BitmapBasedFilterOperator(excluded2, true, numDocs));
+    operators.add(new TestFilterOperator(new int[]{1, 2, 3, 5}, numDocs));
+    orOperator = new OrFilterOperator(operators, null, numDocs, false);
+    iterator = orOperator.nextBlock().getBlockDocIdSet().iterator();
+    for (int docId = 0; docId < numDocs; docId++) {
+      if (!excluded2.contains(docId) || docId == 1 || docId == 2) {
+        Assert.assertEquals(iterator.next(), docId);
+      }
+    }
+    Assert.assertEquals(iterator.next(), Constants.EOF);
+  }
 }
@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import java.util.Arrays;
+import java.util.List;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.predicate.EqPredicate;
+import org.apache.pinot.common.request.context.predicate.InPredicate;
+import org.apache.pinot.core.operator.filter.predicate.EqualsPredicateEvaluatorFactory;
+import org.apache.pinot.core.operator.filter.predicate.InPredicateEvaluatorFactory;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeRawValueInvertedIndex;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.RawValueInvertedIndexReader;
+import org.apache.pinot.spi.config.table.FieldConfig;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class RawValueInvertedIndexFilterOperatorTest {
+  private static final ExpressionContext COLUMN_EXPRESSION = ExpressionContext.forIdentifier("column");
+  private static final int NUM_DOCS = 10;
+
+  @Test
+  public void testEqOnMutableIndex() {
+    RealtimeRawValueInvertedIndex invertedIndex = new RealtimeRawValueInvertedIndex(DataType.STRING);
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      invertedIndex.add("v" + docId % 3, -1, docId);
+    }
+    // Doc added after the query started should not be counted
+    invertedIndex.add("v1", -1, NUM_DOCS);
+    PredicateEvaluator predicateEvaluator =
+        EqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator(new EqPredicate(COLUMN_EXPRESSION, "v1"),
+            DataType.STRING);
+
+    BaseFilterOperator filterOperator = getFilterOperator(predicateEvaluator, invertedIndex, NUM_DOCS);
+    assertTrue(filterOperator instanceof RawValueInvertedIndexFilterOperator);
+    assertEquals(TestUtils.getDocIds(filterOperator.nextBlock().getBlockDocIdSet()), Arrays.asList(1, 4, 7));
+    assertTrue(filterOperator.canOptimizeCount());
+    assertEquals(filterOperator.getNumMatchingDocs(), 3);
+    assertTrue(filterOperator.canProduceBitmaps());
+
+    // Value not in the index
+    predicateEvaluator =
+        EqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator(new EqPredicate(COLUMN_EXPRESSION, "v3"),
+            DataType.STRING);
+    filterOperator = getFilterOperator(predicateEvaluator, invertedIndex, NUM_DOCS);
+    assertTrue(TestUtils.getDocIds(filterOperator.nextBlock().getBlockDocIdSet()).isEmpty());
+    assertEquals(filterOperator.getNumMatchingDocs(), 0);
+  }
+
+  @Test
+  public void testInOnImmutableIndex() {
+    @SuppressWarnings("unchecked")
+    RawValueInvertedIndexReader<ImmutableRoaringBitmap> invertedIndex = mock(RawValueInvertedIndexReader.class);
+    when(invertedIndex.getDocIdsForValue(any())).thenReturn(new MutableRoaringBitmap());
+    when(invertedIndex.getDocIdsForValue(1L)).thenReturn(MutableRoaringBitmap.bitmapOf(0, 5));
+    when(invertedIndex.getDocIdsForValue(3L)).thenReturn(MutableRoaringBitmap.bitmapOf(2, 5, 9));
+    PredicateEvaluator predicateEvaluator = InPredicateEvaluatorFactory.newRawValueBasedEvaluator(
+        new InPredicate(COLUMN_EXPRESSION, List.of("1", "2", "3")), DataType.LONG);
+
+    BaseFilterOperator filterOperator = getFilterOperator(predicateEvaluator, invertedIndex, NUM_DOCS);
+    assertTrue(filterOperator instanceof RawValueInvertedIndexFilterOperator);
+    assertEquals(TestUtils.getDocIds(filterOperator.nextBlock().getBlockDocIdSet()), Arrays.asList(0, 2, 5, 9));
+    assertEquals(filterOperator.getNumMatchingDocs(), 4);
+  }
+
+  @Test
+  public void testFallbackToScanWhenIndexIsFull() {
+    // Room for 2 INT values (160 + 16 bytes each)
+    RealtimeRawValueInvertedIndex invertedIndex = new RealtimeRawValueInvertedIndex(DataType.INT, 352);
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      invertedIndex.add(docId, -1, docId);
+    }
+    assertEquals(invertedIndex.getNumDocsLimit(), 2);
+    PredicateEvaluator predicateEvaluator =
+        EqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator(new EqPredicate(COLUMN_EXPRESSION, "1"),
+            DataType.INT);
+
+    // Documents after the limit are not indexed
+    assertTrue(getFilterOperator(predicateEvaluator, invertedIndex, NUM_DOCS) instanceof ScanBasedFilterOperator);
+
+    // Documents before the limit can still be solved with the index
+    BaseFilterOperator filterOperator = getFilterOperator(predicateEvaluator, invertedIndex, 2);
+    assertTrue(filterOperator instanceof RawValueInvertedIndexFilterOperator);
+    assertEquals(TestUtils.getDocIds(filterOperator.nextBlock().getBlockDocIdSet()), List.of(1));
+  }
+
+  @Test
+  public void testInvertedIndexUseNotAllowed() {
+    RealtimeRawValueInvertedIndex invertedIndex = new RealtimeRawValueInvertedIndex(DataType.INT);
+    PredicateEvaluator predicateEvaluator =
+        EqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator(new EqPredicate(COLUMN_EXPRESSION, "1"),
+            DataType.INT);
+    QueryContext queryContext = mock(QueryContext.class);
+    when(queryContext.isIndexUseAllowed(any(DataSource.class), any(FieldConfig.IndexType.class))).thenReturn(false);
+    assertTrue(FilterOperatorUtils.getLeafFilterOperator(queryContext, predicateEvaluator,
+        mockDataSource(invertedIndex), NUM_DOCS) instanceof ScanBasedFilterOperator);
+  }
+
+  private static BaseFilterOperator getFilterOperator(PredicateEvaluator predicateEvaluator,
+      InvertedIndexReader<?> invertedIndex, int numDocs) {
+    QueryContext queryContext = mock(QueryContext.class);
+    when(queryContext.isIndexUseAllowed(any(DataSource.class), any(FieldConfig.IndexType.class))).thenReturn(true);
+    return FilterOperatorUtils.getLeafFilterOperator(queryContext, predicateEvaluator, mockDataSource(invertedIndex),
+        numDocs);
+  }
+
+  private static DataSource mockDataSource(InvertedIndexReader<?> invertedIndex) {
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.getFieldSpec()).thenReturn(new DimensionFieldSpec("column", DataType.INT, true));
+    when(dataSourceMetadata.isSingleValue()).thenReturn(true);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getColumnName()).thenReturn("column");
+    when(dataSource.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    doReturn(invertedIndex).when(dataSource).getInvertedIndex();
+    doReturn(mock(ForwardIndexReader.class)).when(dataSource).getForwardIndex();
+    return dataSource;
+  }
+}
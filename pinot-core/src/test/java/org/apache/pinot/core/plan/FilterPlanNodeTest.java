@@ -18,24 +18,40 @@
  */
 package org.apache.pinot.core.plan;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.FilterContext;
+import org.apache.pinot.common.request.context.FunctionContext;
+import org.apache.pinot.common.request.context.predicate.EqPredicate;
 import org.apache.pinot.core.common.BlockDocIdIterator;
 import org.apache.pinot.core.common.BlockDocIdSet;
 import org.apache.pinot.core.operator.blocks.FilterBlock;
 import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.operator.filter.InvertedIndexFilterOperator;
+import org.apache.pinot.core.operator.transform.function.ItemTransformFunction;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.segment.local.upsert.UpsertUtils;
 import org.apache.pinot.segment.spi.Constants;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.SegmentContext;
 import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
+import org.apache.pinot.segment.spi.datasource.MapDataSource;
 import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.mockito.stubbing.Answer;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.testng.annotations.Test;
 
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 
 public class FilterPlanNodeTest {
@@ -79,6 +95,45 @@ public class FilterPlanNodeTest {
     updater.join();
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testMapKeyIndex() {
+    IndexSegment segment = mock(IndexSegment.class);
+    SegmentMetadata meta = mock(SegmentMetadata.class);
+    when(segment.getSegmentMetadata()).thenReturn(meta);
+    when(meta.getTotalDocs()).thenReturn(10);
+
+    // Key "k" of the map column is stored as a dictionary-encoded sub-column with an inverted index
+    Dictionary keyDictionary = mock(Dictionary.class);
+    when(keyDictionary.length()).thenReturn(3);
+    when(keyDictionary.indexOf("5")).thenReturn(1);
+    DataSourceMetadata keyMetadata = mock(DataSourceMetadata.class);
+    when(keyMetadata.getDataType()).thenReturn(DataType.INT);
+    InvertedIndexReader<ImmutableRoaringBitmap> keyInvertedIndex = mock(InvertedIndexReader.class);
+    when(keyInvertedIndex.getDocIds(1)).thenReturn(ImmutableRoaringBitmap.bitmapOf(2, 5, 7));
+    DataSource keyDataSource = mock(DataSource.class);
+    when(keyDataSource.getColumnName()).thenReturn("mapCol");
+    when(keyDataSource.getDictionary()).thenReturn(keyDictionary);
+    when(keyDataSource.getDataSourceMetadata()).thenReturn(keyMetadata);
+    doReturn(keyInvertedIndex).when(keyDataSource).getInvertedIndex();
+    MapDataSource mapDataSource = mock(MapDataSource.class);
+    when(mapDataSource.getKeyDataSource("k")).thenReturn(keyDataSource);
+    when(segment.getDataSource("mapCol")).thenReturn(mapDataSource);
+
+    // mapCol['k'] = 5
+    ExpressionContext item = ExpressionContext.forFunction(
+        new FunctionContext(FunctionContext.Type.TRANSFORM, ItemTransformFunction.FUNCTION_NAME,
+            List.of(ExpressionContext.forIdentifier("mapCol"), ExpressionContext.forLiteral(DataType.STRING, "k"))));
+    QueryContext queryContext = new QueryContext.Builder().setTableName("testTable")
+        .setSelectExpressions(List.of(ExpressionContext.forIdentifier("*")))
+        .setFilter(FilterContext.forPredicate(new EqPredicate(item, "5")))
+        .build();
+
+    BaseFilterOperator op = new FilterPlanNode(new SegmentContext(segment), queryContext).run();
+    assertTrue(op instanceof InvertedIndexFilterOperator);
+    assertEquals(getNumberOfFilteredDocs(new SegmentContext(segment), queryContext), 3);
+  }
+
   private int getNumberOfFilteredDocs(SegmentContext segmentContext, QueryContext queryContext) {
     FilterPlanNode node = new FilterPlanNode(segmentContext, queryContext);
     BaseFilterOperator op = node.run();
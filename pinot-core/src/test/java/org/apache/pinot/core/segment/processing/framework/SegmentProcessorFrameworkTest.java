@@ -667,6 +667,53 @@ public class SegmentProcessorFrameworkTest {
     rewindRecordReaders(_multipleSegments);
   }
 
+  @Test
+  public void testMultipleSegmentsWithMultipleThreads()
+      throws Exception {
+    File workingDir = new File(TEMP_DIR, "multiple_segments_multiple_threads_output");
+    FileUtils.forceMkdir(workingDir);
+
+    // Split into multiple segments, which are created in parallel
+    SegmentProcessorConfig config = new SegmentProcessorConfig.Builder().setTableConfig(_tableConfig).setSchema(_schema)
+        .setSegmentConfig(new SegmentConfig.Builder().setMaxNumRecordsPerSegment(3).setNumThreads(4).build()).build();
+    SegmentProcessorFramework framework = new SegmentProcessorFramework(_multipleSegments, config, workingDir);
+    List<File> outputSegments = framework.process();
+    assertEquals(outputSegments.size(), 4);
+    String[] outputDirs = workingDir.list();
+    assertTrue(outputDirs != null && outputDirs.length == 1, Arrays.toString(outputDirs));
+    int totalDocs = 0;
+    for (File outputSegment : outputSegments) {
+      totalDocs += new SegmentMetadataImpl(outputSegment).getTotalDocs();
+    }
+    assertEquals(totalDocs, 10);
+    FileUtils.cleanDirectory(workingDir);
+    rewindRecordReaders(_multipleSegments);
+
+    // Time round, partition, rollup with the partitions reduced in parallel, and a memory budget that only allows one
+    // partition to be processed at a time
+    config = new SegmentProcessorConfig.Builder().setTableConfig(_tableConfig).setSchema(_schema).setTimeHandlerConfig(
+            new TimeHandlerConfig.Builder(TimeHandler.Type.EPOCH).setRoundBucketMs(86400000)
+                .setPartitionBucketMs(86400000).build()).setMergeType(MergeType.ROLLUP)
+        .setSegmentConfig(new SegmentConfig.Builder().setNumThreads(4).setMemoryBudgetInBytes(1).build()).build();
+    framework = new SegmentProcessorFramework(_multipleSegments, config, workingDir);
+    outputSegments = framework.process();
+    assertEquals(outputSegments.size(), 3);
+    outputDirs = workingDir.list();
+    assertTrue(outputDirs != null && outputDirs.length == 1, Arrays.toString(outputDirs));
+    outputSegments.sort(null);
+    SegmentMetadata segmentMetadata = new SegmentMetadataImpl(outputSegments.get(0));
+    assertEquals(segmentMetadata.getTotalDocs(), 2);
+    assertEquals(segmentMetadata.getName(), "myTable_1597708800000_1597708800000_0");
+    segmentMetadata = new SegmentMetadataImpl(outputSegments.get(1));
+    assertEquals(segmentMetadata.getTotalDocs(), 3);
+    assertEquals(segmentMetadata.getName(), "myTable_1597795200000_1597795200000_1");
+    segmentMetadata = new SegmentMetadataImpl(outputSegments.get(2));
+    assertEquals(segmentMetadata.getTotalDocs(), 2);
+    assertEquals(segmentMetadata.getName(), "myTable_1597881600000_1597881600000_2");
+    FileUtils.cleanDirectory(workingDir);
+    rewindRecordReaders(_multipleSegments);
+  }
+
   @Test
   public void testConfigurableMapperOutputSize()
       throws Exception {
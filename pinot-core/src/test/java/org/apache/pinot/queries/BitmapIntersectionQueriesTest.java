@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.query.BitmapBasedDistinctOperator;
+import org.apache.pinot.core.operator.query.BitmapBasedGroupByOperator;
+import org.apache.pinot.core.operator.query.DistinctOperator;
+import org.apache.pinot.core.operator.query.GroupByOperator;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Queries test for filtered COUNT group-by and DISTINCT solved with bitmap intersections on the inverted index.
+ */
+public class BitmapIntersectionQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BitmapIntersectionQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_RECORDS = 10_000;
+  private static final int STATUS_CARDINALITY = 5;
+  private static final int COUNTRY_CARDINALITY = 7;
+
+  private static final String STATUS_COLUMN = "status";
+  private static final String COUNTRY_COLUMN = "country";
+  private static final String VALUE_COLUMN = "value";
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension(STATUS_COLUMN, DataType.STRING)
+      .addSingleValueDimension(COUNTRY_COLUMN, DataType.STRING)
+      .addSingleValueDimension(VALUE_COLUMN, DataType.INT)
+      .build();
+  private static final TableConfig TABLE_CONFIG = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+      .setInvertedIndexColumns(List.of(STATUS_COLUMN, COUNTRY_COLUMN))
+      .build();
+
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      // Status s4 never appears together with country c0
+      int status = i % STATUS_CARDINALITY;
+      int country = status == 4 ? 1 + i % (COUNTRY_CARDINALITY - 1) : i % COUNTRY_CARDINALITY;
+      record.putValue(STATUS_COLUMN, "s" + status);
+      record.putValue(COUNTRY_COLUMN, "c" + country);
+      record.putValue(VALUE_COLUMN, i);
+      records.add(record);
+    }
+
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(TABLE_CONFIG, SCHEMA);
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(SEGMENT_NAME);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    ImmutableSegment immutableSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME),
+        new IndexLoadingConfig(TABLE_CONFIG, SCHEMA));
+    _indexSegment = immutableSegment;
+    _indexSegments = List.of(immutableSegment, immutableSegment);
+  }
+
+  @Test
+  public void testGroupBy() {
+    String query = "SELECT status, COUNT(*) FROM testTable WHERE country = 'c0' GROUP BY status ORDER BY status";
+    Operator<?> operator = getOperator(query);
+    assertTrue(operator instanceof BitmapBasedGroupByOperator);
+    BrokerResponseNative brokerResponse = getBrokerResponse(query);
+    assertEquals(brokerResponse.getNumEntriesScannedPostFilter(), 0);
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    // Status s4 does not match the filter
+    assertEquals(rows.size(), STATUS_CARDINALITY - 1);
+    assertResultsMatchScan(query);
+
+    query = "SELECT status, COUNT(*), COUNT(status) FROM testTable WHERE country <> 'c0' GROUP BY status "
+        + "ORDER BY COUNT(*) DESC, status";
+    assertTrue(getOperator(query) instanceof BitmapBasedGroupByOperator);
+    assertResultsMatchScan(query);
+
+    query = "SELECT status, COUNT(*) FROM testTable WHERE country IN ('c1', 'c2') GROUP BY status ORDER BY status "
+        + "LIMIT 3";
+    assertTrue(getOperator(query) instanceof BitmapBasedGroupByOperator);
+    assertResultsMatchScan(query);
+
+    // Two predicates on indexed columns
+    query = "SELECT status, COUNT(*) FROM testTable WHERE country <> 'c0' AND status <> 's4' GROUP BY status "
+        + "ORDER BY status";
+    assertTrue(getOperator(query) instanceof BitmapBasedGroupByOperator);
+    assertEquals(getBrokerResponse(query).getResultTable().getRows().size(), STATUS_CARDINALITY - 1);
+    assertResultsMatchScan(query);
+    query = "SELECT country, COUNT(*) FROM testTable WHERE status IN ('s1', 's4') AND country <> 'c3' "
+        + "GROUP BY country ORDER BY country";
+    assertTrue(getOperator(query) instanceof BitmapBasedGroupByOperator);
+    assertResultsMatchScan(query);
+    query = "SELECT status, COUNT(*) FROM testTable WHERE country = 'c0' OR status = 's4' GROUP BY status "
+        + "ORDER BY status";
+    assertTrue(getOperator(query) instanceof BitmapBasedGroupByOperator);
+    assertEquals(getBrokerResponse(query).getResultTable().getRows().size(), STATUS_CARDINALITY);
+    assertResultsMatchScan(query);
+    query = "SELECT country, COUNT(*) FROM testTable WHERE country = 'c0' OR status <> 's4' GROUP BY country "
+        + "ORDER BY country";
+    assertTrue(getOperator(query) instanceof BitmapBasedGroupByOperator);
+    assertResultsMatchScan(query);
+
+    // Scan based filter
+    assertTrue(getOperator("SELECT status, COUNT(*) FROM testTable WHERE value > 100 GROUP BY status")
+        instanceof GroupByOperator);
+    assertTrue(getOperator("SELECT status, COUNT(*) FROM testTable WHERE country <> 'c0' AND value > 100 "
+        + "GROUP BY status") instanceof GroupByOperator);
+    // Non-COUNT aggregation
+    assertTrue(getOperator("SELECT status, SUM(value) FROM testTable WHERE country = 'c0' GROUP BY status")
+        instanceof GroupByOperator);
+    // Multiple group-by expressions
+    assertTrue(getOperator("SELECT status, country, COUNT(*) FROM testTable WHERE country = 'c0' "
+        + "GROUP BY status, country") instanceof GroupByOperator);
+    // Group-by column without inverted index
+    assertTrue(getOperator("SELECT value, COUNT(*) FROM testTable WHERE country = 'c0' GROUP BY value")
+        instanceof GroupByOperator);
+    // Too few matching documents (~286) per group to amortize the intersections
+    query = "SELECT status, COUNT(*) FROM testTable WHERE country = 'c0' AND status = 's1' GROUP BY status";
+    assertTrue(getOperator(query) instanceof GroupByOperator);
+    assertResultsMatchScan(query);
+  }
+
+  @Test
+  public void testDistinct() {
+    String query = "SELECT DISTINCT status FROM testTable WHERE country = 'c0' ORDER BY status";
+    Operator<?> operator = getOperator(query);
+    assertTrue(operator instanceof BitmapBasedDistinctOperator);
+    List<Object[]> rows = getBrokerResponse(query).getResultTable().getRows();
+    assertEquals(rows.size(), STATUS_CARDINALITY - 1);
+    for (int i = 0; i < rows.size(); i++) {
+      assertEquals(rows.get(i)[0], "s" + i);
+    }
+    assertResultsMatchScan(query);
+
+    query = "SELECT DISTINCT status FROM testTable WHERE country = 'c0' ORDER BY status DESC LIMIT 2";
+    rows = getBrokerResponse(query).getResultTable().getRows();
+    assertEquals(rows.size(), 2);
+    assertEquals(rows.get(0)[0], "s3");
+    assertEquals(rows.get(1)[0], "s2");
+    assertResultsMatchScan(query);
+
+    query = "SELECT DISTINCT country FROM testTable WHERE status = 's4' ORDER BY country";
+    assertTrue(getOperator(query) instanceof BitmapBasedDistinctOperator);
+    assertResultsMatchScan(query);
+
+    // Two predicates on indexed columns
+    query = "SELECT DISTINCT country FROM testTable WHERE status = 's4' AND country <> 'c1' ORDER BY country";
+    assertTrue(getOperator(query) instanceof BitmapBasedDistinctOperator);
+    rows = getBrokerResponse(query).getResultTable().getRows();
+    assertEquals(rows.size(), COUNTRY_CARDINALITY - 2);
+    assertResultsMatchScan(query);
+    query = "SELECT DISTINCT country FROM testTable WHERE status = 's4' OR country = 'c0' ORDER BY country";
+    assertTrue(getOperator(query) instanceof BitmapBasedDistinctOperator);
+    assertEquals(getBrokerResponse(query).getResultTable().getRows().size(), COUNTRY_CARDINALITY);
+    assertResultsMatchScan(query);
+
+    // Scan based filter
+    assertTrue(getOperator("SELECT DISTINCT status FROM testTable WHERE value > 100") instanceof DistinctOperator);
+    assertTrue(getOperator("SELECT DISTINCT status FROM testTable WHERE country = 'c0' OR value > 100")
+        instanceof DistinctOperator);
+    // Too few matching documents (~286) per distinct value to amortize the intersections
+    query = "SELECT DISTINCT status FROM testTable WHERE country = 'c0' AND status = 's1'";
+    assertTrue(getOperator(query) instanceof DistinctOperator);
+    assertResultsMatchScan(query);
+  }
+
+  private void assertResultsMatchScan(String query) {
+    List<Object[]> rows = getBrokerResponse(query).getResultTable().getRows();
+    List<Object[]> expectedRows =
+        getBrokerResponse("SET bitmapIntersectionMaxCardinality = 0; " + query).getResultTable().getRows();
+    assertEquals(rows.size(), expectedRows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      assertEquals(rows.get(i), expectedRows.get(i));
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
+import org.apache.pinot.core.operator.filter.AndFilterOperator;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.operator.filter.BitmapBasedFilterOperator;
+import org.apache.pinot.core.operator.filter.EmptyFilterOperator;
+import org.apache.pinot.core.plan.FilterPlanNode;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.FieldConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Queries test for the composite index, which should be used by the filter planner to solve an AND of EQ predicates on
+ * all its columns.
+ */
+public class CompositeIndexQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "CompositeIndexQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 1000;
+  private static final String TENANT = "tenant";
+  private static final String EVENT_TYPE = "eventType";
+  private static final String METRIC = "metric";
+
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension(TENANT, DataType.STRING).addSingleValueDimension(EVENT_TYPE, DataType.STRING)
+      .addMetric(METRIC, DataType.INT).build();
+
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(INDEX_DIR);
+
+    // Event type is correlated with tenant, so some combinations of values do not exist
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(TENANT, "t" + (i % 10));
+      row.putValue(EVENT_TYPE, "e" + (i % 5));
+      row.putValue(METRIC, i);
+      rows.add(row);
+    }
+
+    FieldConfig fieldConfig = new FieldConfig.Builder(TENANT).withEncodingType(FieldConfig.EncodingType.DICTIONARY)
+        .withIndexes(JsonUtils.stringToJsonNode("{\"composite\": {\"columns\": [\"" + EVENT_TYPE + "\"]}}")).build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .setInvertedIndexColumns(List.of(TENANT, EVENT_TYPE)).setFieldConfigList(List.of(fieldConfig)).build();
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, SCHEMA);
+    config.setOutDir(INDEX_DIR.getPath());
+    config.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows));
+    driver.build();
+
+    ImmutableSegment immutableSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME),
+        new IndexLoadingConfig(tableConfig, SCHEMA));
+    _indexSegment = immutableSegment;
+    _indexSegments = Arrays.asList(immutableSegment, immutableSegment);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Test
+  public void testFilterPlan() {
+    // Both predicates should be solved with a single composite index lookup
+    assertTrue(getFilterOperator("tenant = 't3' AND eventType = 'e3'") instanceof BitmapBasedFilterOperator);
+    assertTrue(getFilterOperator("eventType = 'e3' AND tenant = 't3'") instanceof BitmapBasedFilterOperator);
+
+    // Combination without any document
+    assertTrue(getFilterOperator("tenant = 't3' AND eventType = 'e2'") instanceof EmptyFilterOperator);
+
+    // Value not in the dictionary
+    assertTrue(getFilterOperator("tenant = 't3' AND eventType = 'e9'") instanceof EmptyFilterOperator);
+
+    // Composite index cannot be used without EQ predicates on all its columns
+    assertTrue(getFilterOperator("tenant = 't3' AND eventType <> 'e2'") instanceof AndFilterOperator);
+  }
+
+  @Test
+  public void testFilterPlanWithSkipIndexes() {
+    // Composite index should not be used when inverted index use is skipped for any of its columns
+    for (String column : List.of(TENANT, EVENT_TYPE)) {
+      Map<String, Set<FieldConfig.IndexType>> skipIndexes = Map.of(column, Set.of(FieldConfig.IndexType.INVERTED));
+      assertTrue(getFilterOperator("tenant = 't3' AND eventType = 'e3'", skipIndexes) instanceof AndFilterOperator,
+          column);
+      assertTrue(getFilterOperator("eventType = 'e3' AND tenant = 't3'", skipIndexes) instanceof AndFilterOperator,
+          column);
+    }
+  }
+
+  @Test
+  public void testCount() {
+    assertEquals(getCount("tenant = 't3' AND eventType = 'e3'"), 100L);
+    assertEquals(getCount("eventType = 'e3' AND tenant = 't3'"), 100L);
+    assertEquals(getCount("tenant = 't3' AND eventType = 'e2'"), 0L);
+    assertEquals(getCount("tenant = 't3' AND eventType = 'e3' AND metric < 500"), 50L);
+    assertEquals(getCount("tenant = 't3' AND eventType = 'e3' AND tenant = 't3'"), 100L);
+    assertEquals(getCount("(tenant = 't3' AND eventType = 'e3') OR (tenant = 't4' AND eventType = 'e4')"), 200L);
+    assertEquals(getCount("tenant = 't3' AND eventType <> 'e3'"), 0L);
+    assertEquals(getCount("tenant = 't3' AND eventType IN ('e3', 'e4')"), 100L);
+  }
+
+  private BaseFilterOperator getFilterOperator(String filter) {
+    return getFilterOperator(filter, null);
+  }
+
+  private BaseFilterOperator getFilterOperator(String filter,
+      @Nullable Map<String, Set<FieldConfig.IndexType>> skipIndexes) {
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT * FROM testTable WHERE " + filter);
+    queryContext.setSkipIndexes(skipIndexes);
+    return new FilterPlanNode(new SegmentContext(_indexSegment), queryContext).run();
+  }
+
+  private long getCount(String filter) {
+    Operator<AggregationResultsBlock> operator = getOperator("SELECT COUNT(*) FROM testTable WHERE " + filter);
+    return ((Number) operator.nextBlock().getResults().get(0)).longValue();
+  }
+}
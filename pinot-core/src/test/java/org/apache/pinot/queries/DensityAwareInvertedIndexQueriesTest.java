@@ -0,0 +1,232 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
+import org.apache.pinot.core.operator.docidsets.BitmapDocIdSet;
+import org.apache.pinot.core.operator.docidsets.NotDocIdSet;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.operator.filter.InvertedIndexFilterOperator;
+import org.apache.pinot.core.plan.FilterPlanNode;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.DensityAwareInvertedIndexReader;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Queries test for the density-aware inverted index, where the bitmaps of the values covering most of the documents
+ * are stored as complements. The complemented bitmaps should be applied with ANDNOT in AND, and merged without
+ * iterating over the complement in OR.
+ */
+public class DensityAwareInvertedIndexQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "DensityAwareInvertedIndexQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 3000;
+  private static final String STATUS = "status";
+  private static final String FLAG = "flag";
+  private static final String CATEGORY = "category";
+  // Raw sorted column without index, solved with scan
+  private static final String METRIC = "metric";
+
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension(STATUS, DataType.STRING).addSingleValueDimension(FLAG, DataType.STRING)
+      .addSingleValueDimension(CATEGORY, DataType.STRING).addMetric(METRIC, DataType.INT).build();
+
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(INDEX_DIR);
+
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(STATUS, isRare(i) ? "rare" : "common");
+      row.putValue(FLAG, isNo(i) ? "no" : "yes");
+      row.putValue(CATEGORY, "c" + (i % 3));
+      row.putValue(METRIC, i);
+      rows.add(row);
+    }
+
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .setInvertedIndexColumns(List.of(STATUS, FLAG, CATEGORY)).setNoDictionaryColumns(List.of(METRIC)).build();
+    tableConfig.getIndexingConfig().setDensityAwareInvertedIndex(true);
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, SCHEMA);
+    config.setOutDir(INDEX_DIR.getPath());
+    config.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows));
+    driver.build();
+
+    ImmutableSegment immutableSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME),
+        new IndexLoadingConfig(tableConfig, SCHEMA));
+    _indexSegment = immutableSegment;
+    _indexSegments = Arrays.asList(immutableSegment, immutableSegment);
+  }
+
+  private static boolean isRare(int docId) {
+    return docId % 10 == 0;
+  }
+
+  private static boolean isNo(int docId) {
+    return docId % 7 == 0;
+  }
+
+  private static int getCategory(int docId) {
+    return docId % 3;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Test
+  public void testComplementedBitmaps() {
+    assertTrue(isComplemented(STATUS, "common"));
+    assertFalse(isComplemented(STATUS, "rare"));
+    assertTrue(isComplemented(FLAG, "yes"));
+    assertFalse(isComplemented(FLAG, "no"));
+    assertFalse(isComplemented(CATEGORY, "c1"));
+
+    // The complemented bitmap is applied as NOT of the stored bitmap, or directly for exclusive predicates
+    BaseFilterOperator filterOperator = getFilterOperator("status = 'common'");
+    assertTrue(filterOperator instanceof InvertedIndexFilterOperator);
+    assertTrue(filterOperator.nextBlock().getBlockDocIdSet() instanceof NotDocIdSet);
+    filterOperator = getFilterOperator("status <> 'common'");
+    assertTrue(filterOperator instanceof InvertedIndexFilterOperator);
+    assertTrue(filterOperator.nextBlock().getBlockDocIdSet() instanceof BitmapDocIdSet);
+  }
+
+  @Test
+  public void testComplement() {
+    testQuery("status = 'common'", docId -> !isRare(docId));
+    testQuery("status <> 'common'", docId -> isRare(docId));
+    testQuery("status = 'rare'", docId -> isRare(docId));
+    testQuery("status IN ('common', 'rare')", docId -> true);
+    testQuery("NOT status = 'common'", docId -> isRare(docId));
+  }
+
+  @Test
+  public void testAndNot() {
+    testQuery("status = 'common' AND category = 'c1'", docId -> !isRare(docId) && getCategory(docId) == 1);
+    testQuery("status = 'common' AND flag = 'yes'", docId -> !isRare(docId) && !isNo(docId));
+    testQuery("status = 'common' AND flag = 'yes' AND category = 'c2'",
+        docId -> !isRare(docId) && !isNo(docId) && getCategory(docId) == 2);
+    testQuery("status = 'common' AND metric < 1500", docId -> !isRare(docId) && docId < 1500);
+    testQuery("status = 'common' AND flag <> 'yes'", docId -> !isRare(docId) && isNo(docId));
+  }
+
+  @Test
+  public void testComplementInsideOr() {
+    testQuery("status = 'common' OR category = 'c1'", docId -> !isRare(docId) || getCategory(docId) == 1);
+    testQuery("status = 'common' OR flag = 'yes'", docId -> !isRare(docId) || !isNo(docId));
+    testQuery("status = 'common' OR flag = 'yes' OR category = 'c2'",
+        docId -> !isRare(docId) || !isNo(docId) || getCategory(docId) == 2);
+    testQuery("status = 'common' OR metric < 100", docId -> !isRare(docId) || docId < 100);
+    testQuery("status = 'common' OR category = 'c1' OR metric < 100",
+        docId -> !isRare(docId) || getCategory(docId) == 1 || docId < 100);
+    testQuery("(status = 'common' AND category = 'c1') OR (flag = 'yes' AND category = 'c2')",
+        docId -> (!isRare(docId) && getCategory(docId) == 1) || (!isNo(docId) && getCategory(docId) == 2));
+    testQuery("(status = 'common' OR flag = 'no') AND category = 'c0'",
+        docId -> (!isRare(docId) || isNo(docId)) && getCategory(docId) == 0);
+  }
+
+  private boolean isComplemented(String column, String value) {
+    DataSource dataSource = _indexSegment.getDataSource(column);
+    int dictId = dataSource.getDictionary().indexOf(value);
+    return ((DensityAwareInvertedIndexReader) dataSource.getInvertedIndex()).isComplemented(dictId);
+  }
+
+  private BaseFilterOperator getFilterOperator(String filter) {
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT * FROM testTable WHERE " + filter);
+    return new FilterPlanNode(new SegmentContext(_indexSegment), queryContext).run();
+  }
+
+  /**
+   * Checks the count, solved with the filter operator without iterating the documents, and the sum, solved by
+   * iterating the matching documents, against the expected matching documents.
+   */
+  private void testQuery(String filter, IntPredicate expected) {
+    long expectedCount = 0;
+    long expectedSum = 0;
+    for (int docId = 0; docId < NUM_ROWS; docId++) {
+      if (expected.test(docId)) {
+        expectedCount++;
+        expectedSum += docId;
+      }
+    }
+
+    Operator<AggregationResultsBlock> operator = getOperator("SELECT COUNT(*) FROM testTable WHERE " + filter);
+    assertEquals(((Number) operator.nextBlock().getResults().get(0)).longValue(), expectedCount, filter);
+    operator = getOperator("SELECT COUNT(*), SUM(metric) FROM testTable WHERE " + filter);
+    List<Object> results = operator.nextBlock().getResults();
+    assertEquals(((Number) results.get(0)).longValue(), expectedCount, filter);
+    assertEquals(((Number) results.get(1)).longValue(), expectedSum, filter);
+  }
+}
@@ -0,0 +1,231 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.plan.JsonShreddingRewriter;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
+import org.apache.pinot.spi.config.table.ingestion.JsonShreddingConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.JsonShreddingUtils;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Queries test for {@code jsonExtractScalar} on shredded JSON paths. One segment is built with JSON shredding and the
+ * other one without, so that the results must be identical no matter whether the function is rewritten.
+ */
+public class JsonShreddingQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "JsonShreddingQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SHREDDED_SEGMENT_NAME = "shreddedSegment";
+  private static final String PLAIN_SEGMENT_NAME = "plainSegment";
+  private static final int NUM_RECORDS = 10;
+
+  private static final String JSON_COLUMN = "payload";
+  private static final String INT_COLUMN = "intColumn";
+  private static final String ID_COLUMN = JsonShreddingUtils.getShreddedColumnName(JSON_COLUMN, "$.id");
+  private static final String LAST_NAME_COLUMN = JsonShreddingUtils.getShreddedColumnName(JSON_COLUMN, "$.name.last");
+  private static final String FIRST_NAME_COLUMN =
+      JsonShreddingUtils.getShreddedColumnName(JSON_COLUMN, "$.name.first");
+  private static final String SCORE_COLUMN = JsonShreddingUtils.getShreddedColumnName(JSON_COLUMN, "$.score");
+
+  private IndexSegment _shreddedSegment;
+  private IndexSegment _plainSegment;
+  private List<IndexSegment> _indexSegments;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _shreddedSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      record.putValue(INT_COLUMN, i);
+      String lastName = i % 2 == 0 ? "duck" : "mouse";
+      // The last record does not have the id
+      String id = i < NUM_RECORDS - 1 ? "\"id\": " + i + ", " : "";
+      record.putValue(JSON_COLUMN,
+          "{" + id + "\"name\": {\"first\": \"f" + i + "\", \"last\": \"" + lastName + "\"}, \"score\": " + (i + 0.5)
+              + "}");
+      records.add(record);
+    }
+
+    JsonShreddingConfig jsonShreddingConfig =
+        new JsonShreddingConfig(JSON_COLUMN, Map.of("$.id", DataType.LONG, "$.name.last", DataType.STRING), true, 5,
+            1.0, null);
+    IngestionConfig ingestionConfig = new IngestionConfig();
+    ingestionConfig.setJsonShreddingConfigs(List.of(jsonShreddingConfig));
+    TableConfig shreddedTableConfig =
+        new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).setIngestionConfig(ingestionConfig)
+            .build();
+    TableConfig plainTableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).build();
+
+    _shreddedSegment = buildSegment(shreddedTableConfig, SHREDDED_SEGMENT_NAME, records);
+    _plainSegment = buildSegment(plainTableConfig, PLAIN_SEGMENT_NAME, records);
+    _indexSegments = List.of(_shreddedSegment, _plainSegment);
+  }
+
+  private static Schema getSchema() {
+    return new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension(JSON_COLUMN, DataType.STRING).addSingleValueDimension(INT_COLUMN, DataType.INT)
+        .build();
+  }
+
+  private static ImmutableSegment buildSegment(TableConfig tableConfig, String segmentName, List<GenericRow> records)
+      throws Exception {
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(tableConfig, getSchema());
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(segmentName);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+    return ImmutableSegmentLoader.load(new File(INDEX_DIR, segmentName),
+        new IndexLoadingConfig(tableConfig, getSchema()));
+  }
+
+  @Test
+  public void testShreddedColumns() {
+    assertTrue(_shreddedSegment.getColumnNames().contains(ID_COLUMN));
+    assertTrue(_shreddedSegment.getColumnNames().contains(LAST_NAME_COLUMN));
+    // Auto-detected paths
+    assertTrue(_shreddedSegment.getColumnNames().contains(FIRST_NAME_COLUMN));
+    assertTrue(_shreddedSegment.getColumnNames().contains(SCORE_COLUMN));
+    assertFalse(_plainSegment.getColumnNames().contains(ID_COLUMN));
+
+    DataSource idDataSource = _shreddedSegment.getDataSource(ID_COLUMN);
+    assertEquals(idDataSource.getDataSourceMetadata().getDataType(), DataType.LONG);
+    assertNotNull(idDataSource.getNullValueVector());
+    assertTrue(idDataSource.getNullValueVector().isNull(NUM_RECORDS - 1));
+    assertEquals(_shreddedSegment.getDataSource(FIRST_NAME_COLUMN).getDataSourceMetadata().getDataType(),
+        DataType.STRING);
+    assertEquals(_shreddedSegment.getDataSource(SCORE_COLUMN).getDataSourceMetadata().getDataType(), DataType.DOUBLE);
+  }
+
+  @Test
+  public void testRewrite() {
+    assertEquals(getShreddedColumn("jsonExtractScalar(payload, '$.name.last', 'STRING')"), LAST_NAME_COLUMN);
+    assertEquals(getShreddedColumn("json_extract_scalar(payload, '$.score', 'DOUBLE')"), SCORE_COLUMN);
+    // One record does not have the id, so it can only be rewritten when the default value matches the default null
+    // value of the shredded column
+    assertNull(getShreddedColumn("jsonExtractScalar(payload, '$.id', 'LONG')"));
+    assertNull(getShreddedColumn("jsonExtractScalar(payload, '$.id', 'LONG', '0')"));
+    assertEquals(getShreddedColumn("jsonExtractScalar(payload, '$.id', 'LONG', '" + Long.MIN_VALUE + "')"), ID_COLUMN);
+    // Data type mismatch
+    assertNull(getShreddedColumn("jsonExtractScalar(payload, '$.id', 'INT', '" + Long.MIN_VALUE + "')"));
+    // Path not shredded
+    assertNull(getShreddedColumn("jsonExtractScalar(payload, '$.name', 'STRING')"));
+    assertNull(getShreddedColumn("jsonExtractScalar(payload, '$.name.first', 'STRING')", _plainSegment));
+  }
+
+  private static String getShreddedColumn(String expression, IndexSegment indexSegment) {
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT " + expression + " FROM " + RAW_TABLE_NAME);
+    return JsonShreddingRewriter.getShreddedColumn(queryContext.getSelectExpressions().get(0), indexSegment,
+        queryContext);
+  }
+
+  private String getShreddedColumn(String expression) {
+    return getShreddedColumn(expression, _shreddedSegment);
+  }
+
+  @Test
+  public void testQueries() {
+    // Filter on the shredded column
+    BrokerResponseNative brokerResponse = getBrokerResponse(
+        "SELECT COUNT(*) FROM testTable WHERE jsonExtractScalar(payload, '$.name.last', 'STRING') = 'duck'");
+    assertEquals(brokerResponse.getResultTable().getRows().get(0)[0], 20L);
+
+    brokerResponse = getBrokerResponse("SELECT COUNT(*) FROM testTable WHERE jsonExtractScalar(payload, '$.id', "
+        + "'LONG', '-9223372036854775808') >= 5");
+    assertEquals(brokerResponse.getResultTable().getRows().get(0)[0], 16L);
+
+    // Group-by on the shredded columns
+    brokerResponse = getBrokerResponse(
+        "SELECT jsonExtractScalar(payload, '$.name.last', 'STRING'), SUM(jsonExtractScalar(payload, '$.score', "
+            + "'DOUBLE')) FROM testTable GROUP BY jsonExtractScalar(payload, '$.name.last', 'STRING') ORDER BY "
+            + "jsonExtractScalar(payload, '$.name.last', 'STRING')");
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 2);
+    assertEquals(rows.get(0), new Object[]{"duck", 90.0});
+    assertEquals(rows.get(1), new Object[]{"mouse", 110.0});
+
+    // Selection with the default value for the missing path
+    brokerResponse = getBrokerResponse(
+        "SELECT intColumn, jsonExtractScalar(payload, '$.id', 'LONG', '-9223372036854775808') FROM testTable WHERE "
+            + "intColumn = 9");
+    rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 4);
+    for (Object[] row : rows) {
+      assertEquals(row, new Object[]{9, Long.MIN_VALUE});
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _shreddedSegment.destroy();
+    _plainSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
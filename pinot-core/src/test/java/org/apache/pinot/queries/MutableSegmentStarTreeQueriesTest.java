@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.segment.local.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.segment.local.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentConfig;
+import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentStatsHistory;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.stream.StreamMessageMetadata;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Queries test for the star-tree maintained on a consuming segment, which should return the same results as solving
+ * the queries without the star-tree.
+ */
+public class MutableSegmentStarTreeQueriesTest extends BaseQueriesTest {
+  private static final File CONSUMER_DIR = new File(FileUtils.getTempDirectory(), "MutableSegmentStarTreeQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testTable__0__0__155555";
+  private static final int NUM_ROWS = 1000;
+  private static final String DIMENSION_1 = "dim1";
+  private static final String DIMENSION_2 = "dim2";
+  private static final String METRIC = "metric";
+
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension(DIMENSION_1, DataType.INT).addSingleValueDimension(DIMENSION_2, DataType.STRING)
+      .addMetric(METRIC, DataType.LONG).build();
+
+  private static final String[] QUERIES = new String[]{
+      "SELECT COUNT(*), SUM(metric), MIN(metric), MAX(metric) FROM testTable",
+      "SELECT COUNT(*), SUM(metric) FROM testTable WHERE dim1 = 3",
+      "SELECT COUNT(*), MIN(metric), MAX(metric) FROM testTable WHERE dim1 > 1 AND dim2 IN ('v1', 'v2')",
+      "SELECT dim1, COUNT(*), SUM(metric) FROM testTable GROUP BY dim1 ORDER BY dim1",
+      "SELECT dim2, MAX(metric) FROM testTable WHERE dim1 <> 2 GROUP BY dim2 ORDER BY dim2 LIMIT 100",
+      "SELECT dim1, dim2, SUM(metric) FROM testTable GROUP BY dim1, dim2 ORDER BY dim1, dim2 LIMIT 100"
+  };
+
+  private final Random _random = new Random();
+  private MutableSegmentImpl _mutableSegment;
+  private List<IndexSegment> _indexSegments;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _mutableSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp() {
+    FileUtils.deleteQuietly(CONSUMER_DIR);
+    StarTreeIndexConfig starTreeIndexConfig =
+        new StarTreeIndexConfig(List.of(DIMENSION_1, DIMENSION_2), null, List.of("COUNT__*", "SUM__metric",
+            "MIN__metric", "MAX__metric"), null, 100);
+    RealtimeSegmentStatsHistory statsHistory = mock(RealtimeSegmentStatsHistory.class);
+    when(statsHistory.getEstimatedCardinality(anyString())).thenReturn(200);
+    when(statsHistory.getEstimatedAvgColSize(anyString())).thenReturn(32);
+    RealtimeSegmentConfig config =
+        new RealtimeSegmentConfig.Builder().setTableNameWithType("testTable_REALTIME").setSegmentName(SEGMENT_NAME)
+            .setStreamName("testStream").setSchema(SCHEMA).setCapacity(NUM_ROWS * 2).setAvgNumMultiValues(2)
+            .setSegmentZKMetadata(new SegmentZKMetadata(SEGMENT_NAME))
+            .setMemoryManager(new DirectMemoryManager(SEGMENT_NAME)).setStatsHistory(statsHistory)
+            .setConsumerDir(CONSUMER_DIR.getAbsolutePath()).setStarTreeIndexConfigs(List.of(starTreeIndexConfig))
+            .build();
+    _mutableSegment = new MutableSegmentImpl(config, null);
+    _indexSegments = Arrays.asList(_mutableSegment, _mutableSegment);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _mutableSegment.destroy();
+    FileUtils.deleteQuietly(CONSUMER_DIR);
+  }
+
+  @Test
+  public void testStarTreeMatchesNonStarTree()
+      throws Exception {
+    // Star-tree results should match while the segment keeps consuming
+    indexRows(NUM_ROWS / 2);
+    testQueries();
+    indexRows(NUM_ROWS / 2);
+    testQueries();
+  }
+
+  private void indexRows(int numRows)
+      throws Exception {
+    StreamMessageMetadata metadata = new StreamMessageMetadata(System.currentTimeMillis(), new GenericRow());
+    for (int i = 0; i < numRows; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(DIMENSION_1, _random.nextInt(5));
+      row.putValue(DIMENSION_2, "v" + _random.nextInt(10));
+      row.putValue(METRIC, (long) _random.nextInt(1000));
+      _mutableSegment.index(row, metadata);
+    }
+  }
+
+  private void testQueries() {
+    assertNotNull(_mutableSegment.getStarTrees());
+    for (String query : QUERIES) {
+      BrokerResponseNative starTreeResponse = getBrokerResponse(query);
+      BrokerResponseNative nonStarTreeResponse =
+          getBrokerResponse(query, Map.of(QueryOptionKey.USE_STAR_TREE, "false"));
+      assertTrue(starTreeResponse.getExceptions().isEmpty(), query);
+      assertTrue(nonStarTreeResponse.getExceptions().isEmpty(), query);
+      List<Object[]> starTreeRows = starTreeResponse.getResultTable().getRows();
+      List<Object[]> nonStarTreeRows = nonStarTreeResponse.getResultTable().getRows();
+      assertFalse(starTreeRows.isEmpty(), query);
+      assertEquals(starTreeRows.size(), nonStarTreeRows.size(), query);
+      for (int i = 0; i < starTreeRows.size(); i++) {
+        assertEquals(starTreeRows.get(i), nonStarTreeRows.get(i), query);
+      }
+      // Star-tree should scan the pre-aggregated records instead of the rows
+      assertTrue(starTreeResponse.getNumDocsScanned() < nonStarTreeResponse.getNumDocsScanned(), query);
+    }
+  }
+}
@@ -0,0 +1,319 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.response.broker.ResultTable;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.query.aggregation.groupby.SharedGroupByDictionaries;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.creator.SharedDictionary;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Queries test for segments whose dictionaries are encoded against the table-level shared dictionaries.
+ */
+public class SharedDictionaryQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "SharedDictionaryQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME_1 = "testSegment1";
+  private static final String SEGMENT_NAME_2 = "testSegment2";
+  private static final String SEGMENT_NAME_3 = "testSegment3";
+  private static final String SEGMENT_NAME_4 = "testSegment4";
+  private static final int NUM_RECORDS = 100;
+
+  private static final String COUNTRY_COLUMN = "country";
+  private static final String DEVICE_COLUMN = "device";
+  private static final String REGION_COLUMN = "region";
+  private static final String[] COUNTRIES_1 = new String[]{"US", "CA", "DE"};
+  private static final String[] COUNTRIES_2 = new String[]{"US", "IN", "FR"};
+  private static final String[] DEVICES_1 = new String[]{"ios", "android"};
+  private static final String[] DEVICES_2 = new String[]{"ios", "android", "web"};
+
+  private static final Map<String, SharedDictionary> SHARED_DICTIONARIES = new HashMap<>();
+  // Newer version of the country dictionary, where adding "BR" shifts the dictionary ids of the existing values
+  private static final Map<String, SharedDictionary> SHARED_DICTIONARIES_V2 = new HashMap<>();
+  // Country dictionary recreated after being deleted, which does not contain all the values of the older versions
+  private static final Map<String, SharedDictionary> RECREATED_SHARED_DICTIONARIES = new HashMap<>();
+
+  static {
+    SHARED_DICTIONARIES.put(COUNTRY_COLUMN, new SharedDictionary(1, new String[]{"CA", "CN", "DE", "FR", "IN", "US"}));
+    SHARED_DICTIONARIES.put(DEVICE_COLUMN, new SharedDictionary(3, new String[]{"android", "ios", "web"}));
+    SHARED_DICTIONARIES.put(REGION_COLUMN, new SharedDictionary(2, new String[]{"east", "north", "south", "west"}));
+    SHARED_DICTIONARIES_V2.putAll(SHARED_DICTIONARIES);
+    SHARED_DICTIONARIES_V2.put(COUNTRY_COLUMN,
+        SHARED_DICTIONARIES.get(COUNTRY_COLUMN).withValues(Collections.singletonList("BR")));
+    RECREATED_SHARED_DICTIONARIES.putAll(SHARED_DICTIONARIES);
+    RECREATED_SHARED_DICTIONARIES.put(COUNTRY_COLUMN, new SharedDictionary(5, new String[]{"CA", "DE", "US"}));
+  }
+
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension(COUNTRY_COLUMN, DataType.STRING)
+      .addSingleValueDimension(DEVICE_COLUMN, DataType.STRING)
+      .addSingleValueDimension(REGION_COLUMN, DataType.STRING)
+      .build();
+  private static final TableConfig TABLE_CONFIG =
+      new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).build();
+
+  // Expected (country, device) -> count, doubled because the broker response merges 2 identical servers
+  private final Map<List<String>, Long> _expectedCounts = new HashMap<>();
+  private final Map<String, Long> _expectedCountryCounts = new HashMap<>();
+
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+  private ImmutableSegment _unsharedSegment;
+  private ImmutableSegment _recreatedSegment;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    ImmutableSegment segment1 = buildSegment(SEGMENT_NAME_1, COUNTRIES_1, DEVICES_1, SHARED_DICTIONARIES);
+    ImmutableSegment segment2 = buildSegment(SEGMENT_NAME_2, COUNTRIES_2, DEVICES_2, SHARED_DICTIONARIES_V2);
+    _indexSegment = segment1;
+    _indexSegments = Arrays.asList(segment1, segment2);
+
+    // Values outside of the shared dictionary, should fall back to a segment-local dictionary
+    _unsharedSegment = buildSegment(SEGMENT_NAME_3, new String[]{"BR"}, DEVICES_1, SHARED_DICTIONARIES);
+    _recreatedSegment = buildSegment(SEGMENT_NAME_4, COUNTRIES_1, DEVICES_1, RECREATED_SHARED_DICTIONARIES);
+  }
+
+  private ImmutableSegment buildSegment(String segmentName, String[] countries, String[] devices,
+      Map<String, SharedDictionary> sharedDictionaries)
+      throws Exception {
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      String country = countries[i % countries.length];
+      String device = devices[i % devices.length];
+      GenericRow record = new GenericRow();
+      record.putValue(COUNTRY_COLUMN, country);
+      record.putValue(DEVICE_COLUMN, device);
+      // Sorted within the segment
+      record.putValue(REGION_COLUMN, i < NUM_RECORDS / 2 ? "east" : "west");
+      records.add(record);
+      if (segmentName.equals(SEGMENT_NAME_1) || segmentName.equals(SEGMENT_NAME_2)) {
+        _expectedCounts.merge(Arrays.asList(country, device), 2L, Long::sum);
+        _expectedCountryCounts.merge(country, 2L, Long::sum);
+      }
+    }
+
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(TABLE_CONFIG, SCHEMA);
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(segmentName);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+    segmentGeneratorConfig.setSharedDictionaries(sharedDictionaries);
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    return ImmutableSegmentLoader.load(new File(INDEX_DIR, segmentName), ReadMode.mmap);
+  }
+
+  @Test
+  public void testColumnMetadata() {
+    ColumnMetadata countryMetadata = _indexSegments.get(0).getSegmentMetadata().getColumnMetadataFor(COUNTRY_COLUMN);
+    assertEquals(countryMetadata.getSharedDictionaryVersion(), 1);
+    assertEquals(countryMetadata.getCardinality(), 6);
+    countryMetadata = _indexSegments.get(1).getSegmentMetadata().getColumnMetadataFor(COUNTRY_COLUMN);
+    assertEquals(countryMetadata.getSharedDictionaryVersion(), 2);
+    assertEquals(countryMetadata.getCardinality(), 7);
+    for (IndexSegment indexSegment : _indexSegments) {
+      ColumnMetadata deviceMetadata = indexSegment.getSegmentMetadata().getColumnMetadataFor(DEVICE_COLUMN);
+      assertEquals(deviceMetadata.getSharedDictionaryVersion(), 3);
+      assertEquals(deviceMetadata.getCardinality(), 3);
+    }
+    // Min/max values still reflect the values within the segment
+    countryMetadata = _indexSegments.get(1).getSegmentMetadata().getColumnMetadataFor(COUNTRY_COLUMN);
+    assertEquals(countryMetadata.getMinValue(), "FR");
+    assertEquals(countryMetadata.getMaxValue(), "US");
+
+    ColumnMetadata unsharedMetadata = _unsharedSegment.getSegmentMetadata().getColumnMetadataFor(COUNTRY_COLUMN);
+    assertEquals(unsharedMetadata.getSharedDictionaryVersion(), -1);
+    assertEquals(unsharedMetadata.getCardinality(), 1);
+    assertEquals(_unsharedSegment.getSegmentMetadata().getColumnMetadataFor(DEVICE_COLUMN)
+        .getSharedDictionaryVersion(), 3);
+
+    // Sorted column should not use the shared dictionary because the sorted forward index requires every dictionary id
+    // to be present in the segment
+    for (IndexSegment indexSegment : _indexSegments) {
+      ColumnMetadata regionMetadata = indexSegment.getSegmentMetadata().getColumnMetadataFor(REGION_COLUMN);
+      assertTrue(regionMetadata.isSorted());
+      assertEquals(regionMetadata.getSharedDictionaryVersion(), -1);
+      assertEquals(regionMetadata.getCardinality(), 2);
+    }
+  }
+
+  @Test
+  public void testSortedColumnFilter() {
+    // 2 segments on 2 identical servers, half of the records of each segment in each region
+    assertEquals(getCount("region = 'west'"), 2L * NUM_RECORDS);
+    assertEquals(getCount("region = 'east'"), 2L * NUM_RECORDS);
+    assertEquals(getCount("region = 'north'"), 0L);
+    assertEquals(getCount("region > 'east'"), 2L * NUM_RECORDS);
+    assertEquals(getCount("region BETWEEN 'north' AND 'south'"), 0L);
+    assertEquals(getCount("region <> 'south'"), 4L * NUM_RECORDS);
+    assertEquals(getCount("region = 'west' AND country = 'US'"), _expectedCountryCounts.get("US") / 2);
+  }
+
+  private long getCount(String filter) {
+    return (long) getBrokerResponse("SELECT COUNT(*) FROM testTable WHERE " + filter).getResultTable().getRows()
+        .get(0)[0];
+  }
+
+  @Test
+  public void testSharedGroupByDictionaries() {
+    List<SegmentContext> segmentContexts =
+        Arrays.asList(new SegmentContext(_indexSegments.get(0)), new SegmentContext(_indexSegments.get(1)));
+
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT country, device, COUNT(*) FROM testTable GROUP BY country, device ORDER BY country");
+    SharedGroupByDictionaries sharedGroupByDictionaries =
+        InstancePlanMakerImplV2.getSharedGroupByDictionaries(segmentContexts, queryContext);
+    assertNotNull(sharedGroupByDictionaries);
+    Dictionary[] dictionaries = sharedGroupByDictionaries.getDictionaries();
+    assertEquals(dictionaries.length, 2);
+    // Group keys are merged on the latest version of the country dictionary
+    assertEquals(dictionaries[0].length(), 7);
+    assertEquals(dictionaries[1].length(), 3);
+    assertNull(sharedGroupByDictionaries.getDictIdMapping(0, 2));
+    assertNull(sharedGroupByDictionaries.getDictIdMapping(1, 3));
+    // "BR" is inserted before all the values of version 1, which shifts their dictionary ids by 1
+    assertEquals(sharedGroupByDictionaries.getDictIdMapping(0, 1), new int[]{1, 2, 3, 4, 5, 6});
+
+    // Order-by on a transform of a group-by column cannot be evaluated on dictionary ids
+    queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT country, COUNT(*) FROM testTable GROUP BY country ORDER BY UPPER(country)");
+    assertNull(InstancePlanMakerImplV2.getSharedGroupByDictionaries(segmentContexts, queryContext));
+
+    // Segments not sharing the dictionary
+    queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT country, COUNT(*) FROM testTable GROUP BY country");
+    assertNull(InstancePlanMakerImplV2.getSharedGroupByDictionaries(
+        Arrays.asList(new SegmentContext(_indexSegments.get(0)), new SegmentContext(_unsharedSegment)),
+        queryContext));
+
+    // Latest version not containing all the values of the older versions
+    assertNull(InstancePlanMakerImplV2.getSharedGroupByDictionaries(
+        Arrays.asList(new SegmentContext(_indexSegments.get(0)), new SegmentContext(_recreatedSegment)),
+        queryContext));
+  }
+
+  @Test
+  public void testGroupBy() {
+    ResultTable resultTable = getBrokerResponse(
+        "SELECT country, COUNT(*) FROM testTable GROUP BY country ORDER BY country LIMIT 10").getResultTable();
+    List<Object[]> rows = resultTable.getRows();
+    assertEquals(rows.size(), 5);
+    String[] expectedCountries = new String[]{"CA", "DE", "FR", "IN", "US"};
+    for (int i = 0; i < 5; i++) {
+      Object[] row = rows.get(i);
+      assertEquals(row[0], expectedCountries[i]);
+      assertEquals(row[1], _expectedCountryCounts.get(expectedCountries[i]));
+    }
+
+    resultTable = getBrokerResponse(
+        "SELECT country, COUNT(*) FROM testTable GROUP BY country ORDER BY COUNT(*) DESC LIMIT 1").getResultTable();
+    rows = resultTable.getRows();
+    assertEquals(rows.size(), 1);
+    assertEquals(rows.get(0)[0], "US");
+    assertEquals(rows.get(0)[1], _expectedCountryCounts.get("US"));
+
+    resultTable = getBrokerResponse(
+        "SELECT country, device, COUNT(*) FROM testTable GROUP BY country, device LIMIT 100").getResultTable();
+    rows = resultTable.getRows();
+    assertEquals(rows.size(), _expectedCounts.size());
+    for (Object[] row : rows) {
+      assertEquals(row[2], _expectedCounts.get(Arrays.asList((String) row[0], (String) row[1])));
+    }
+  }
+
+  @Test
+  public void testDistinct() {
+    // Values that only exist in the shared dictionary should not be returned
+    List<Object[]> rows = getBrokerResponse(
+        "SELECT DISTINCT country FROM testTable ORDER BY country LIMIT 10").getResultTable().getRows();
+    assertEquals(rows.size(), 5);
+    String[] expectedCountries = new String[]{"CA", "DE", "FR", "IN", "US"};
+    for (int i = 0; i < 5; i++) {
+      assertEquals(rows.get(i)[0], expectedCountries[i]);
+    }
+
+    rows = getBrokerResponse("SELECT DISTINCTCOUNT(country) FROM testTable").getResultTable().getRows();
+    assertEquals(rows.get(0)[0], 5);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    for (IndexSegment indexSegment : _indexSegments) {
+      indexSegment.destroy();
+    }
+    _unsharedSegment.destroy();
+    _recreatedSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
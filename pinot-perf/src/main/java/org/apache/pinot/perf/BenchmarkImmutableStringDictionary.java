@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentDictionaryCreator;
+import org.apache.pinot.segment.local.segment.index.readers.StringDictionary;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmark for the immutable STRING dictionary on high cardinality values with shared prefixes (URLs), comparing the
+ * fixed length, var-length and front-coded encodings. This is the immutable counterpart of
+ * {@link BenchmarkStringDictionary}, which covers the mutable dictionaries. The dictionary size of each encoding is
+ * reported by the {@link BytesCounter} auxiliary counters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class BenchmarkImmutableStringDictionary {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkImmutableStringDictionary");
+  private static final String COLUMN_NAME = "url";
+  private static final int NUM_LOOKUPS = 10_000;
+  private static final int BLOCK_SIZE = 10_000;
+
+  @Param({"100000", "1000000"})
+  private int _cardinality;
+
+  // FIXED, VAR_LENGTH or FRONT_CODED_<bucketSize>
+  @Param({"FIXED", "VAR_LENGTH", "FRONT_CODED_8", "FRONT_CODED_16", "FRONT_CODED_64"})
+  private String _encoding;
+
+  private long _dictionarySize;
+  private PinotDataBuffer _dataBuffer;
+  private StringDictionary _dictionary;
+  private String[] _lookupValues;
+  private int[] _lookupDictIds;
+  private int[] _blockDictIds;
+  private String[] _outValues;
+
+  @Setup(Level.Trial)
+  public void setUp()
+      throws IOException {
+    FileUtils.deleteQuietly(INDEX_DIR);
+    FileUtils.forceMkdir(INDEX_DIR);
+    Random random = new Random(42);
+    Set<String> uniqueValues = new HashSet<>();
+    while (uniqueValues.size() < _cardinality) {
+      uniqueValues.add("https://host-" + random.nextInt(100) + ".example.com/api/v1/resources/"
+          + Long.toHexString(random.nextLong()));
+    }
+    String[] sortedValues = uniqueValues.toArray(new String[0]);
+    Arrays.sort(sortedValues);
+
+    boolean useVarLengthDictionary = _encoding.equals("VAR_LENGTH");
+    int frontCodingBucketSize =
+        _encoding.startsWith("FRONT_CODED_") ? Integer.parseInt(_encoding.substring("FRONT_CODED_".length())) : 0;
+    int numBytesPerValue;
+    try (SegmentDictionaryCreator creator = new SegmentDictionaryCreator(
+        new DimensionFieldSpec(COLUMN_NAME, DataType.STRING, true), INDEX_DIR, useVarLengthDictionary,
+        frontCodingBucketSize)) {
+      creator.build(sortedValues);
+      numBytesPerValue = creator.getNumBytesPerEntry();
+    }
+    File dictionaryFile = new File(INDEX_DIR, COLUMN_NAME + V1Constants.Dict.FILE_EXTENSION);
+    _dictionarySize = dictionaryFile.length();
+    _dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(dictionaryFile);
+    _dictionary = new StringDictionary(_dataBuffer, _cardinality, numBytesPerValue);
+
+    _lookupValues = new String[NUM_LOOKUPS];
+    _lookupDictIds = new int[NUM_LOOKUPS];
+    for (int i = 0; i < NUM_LOOKUPS; i++) {
+      int dictId = random.nextInt(_cardinality);
+      _lookupDictIds[i] = dictId;
+      // Half of the lookups are for values not in the dictionary
+      _lookupValues[i] = (i & 1) == 0 ? sortedValues[dictId] : sortedValues[dictId] + "0";
+    }
+    // Dict ids of a block read from a sorted forward index
+    int startDictId = random.nextInt(_cardinality - BLOCK_SIZE);
+    _blockDictIds = new int[BLOCK_SIZE];
+    for (int i = 0; i < BLOCK_SIZE; i++) {
+      _blockDictIds[i] = startDictId + i;
+    }
+    _outValues = new String[BLOCK_SIZE];
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown()
+      throws IOException {
+    _dictionary.close();
+    _dataBuffer.close();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Benchmark
+  public int indexOf(BytesCounter dictionarySize) {
+    dictionarySize._bytes = _dictionarySize;
+    int sum = 0;
+    for (String lookupValue : _lookupValues) {
+      sum += _dictionary.indexOf(lookupValue);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int rangeLookup(BytesCounter dictionarySize) {
+    dictionarySize._bytes = _dictionarySize;
+    int sum = 0;
+    for (int i = 0; i < NUM_LOOKUPS; i += 2) {
+      int lower = _dictionary.insertionIndexOf(_lookupValues[i]);
+      int upper = _dictionary.insertionIndexOf(_lookupValues[i + 1]);
+      sum += upper - lower;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int get(BytesCounter dictionarySize) {
+    dictionarySize._bytes = _dictionarySize;
+    int sum = 0;
+    for (int dictId : _lookupDictIds) {
+      sum += _dictionary.getStringValue(dictId).length();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public String[] readStringValues(BytesCounter dictionarySize) {
+    dictionarySize._bytes = _dictionarySize;
+    _dictionary.readStringValues(_blockDictIds, BLOCK_SIZE, _outValues);
+    return _outValues;
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkImmutableStringDictionary.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.request.context.FilterContext;
+import org.apache.pinot.common.request.context.RequestContextUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.json.OnHeapJsonIndexCreator;
+import org.apache.pinot.segment.local.segment.index.readers.json.ImmutableJsonIndexReader;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.index.creator.JsonIndexCreator;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.config.table.JsonIndexConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Benchmark for JSON_MATCH on documents with large arrays, where each document is flattened into many flattened docs.
+ * Compares parsing the filter string on every call (once per segment) against reusing the parsed filter (once per
+ * query).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class BenchmarkJsonMatch {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkJsonMatch");
+  private static final String COLUMN_NAME = "json";
+
+  @Param({"10000", "100000"})
+  private int _numDocs;
+
+  @Param({"1", "10", "100"})
+  private int _numArrayElements;
+
+  @Param({
+      "\"items[*].tag\" = 'tag-1'",
+      "\"items[*].tag\" = 'tag-1' AND \"items[*].price\" > 50",
+      "\"items[0].tag\" IS NULL"
+  })
+  private String _filterString;
+
+  private PinotDataBuffer _dataBuffer;
+  private ImmutableJsonIndexReader _jsonIndexReader;
+  private FilterContext _filter;
+
+  @Setup(Level.Trial)
+  public void setUp()
+      throws IOException {
+    FileUtils.deleteQuietly(INDEX_DIR);
+    FileUtils.forceMkdir(INDEX_DIR);
+    JsonIndexConfig jsonIndexConfig = new JsonIndexConfig();
+    try (JsonIndexCreator indexCreator = new OnHeapJsonIndexCreator(INDEX_DIR, COLUMN_NAME, jsonIndexConfig)) {
+      StringBuilder stringBuilder = new StringBuilder();
+      for (int i = 0; i < _numDocs; i++) {
+        stringBuilder.setLength(0);
+        stringBuilder.append("{\"id\":").append(i).append(",\"items\":[");
+        for (int j = 0; j < _numArrayElements; j++) {
+          if (j > 0) {
+            stringBuilder.append(',');
+          }
+          stringBuilder.append("{\"tag\":\"tag-").append((i + j) % 10).append("\",\"price\":").append((i * j) % 100)
+              .append('}');
+        }
+        stringBuilder.append("]}");
+        indexCreator.add(stringBuilder.toString());
+      }
+      indexCreator.seal();
+    }
+    _dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(
+        new File(INDEX_DIR, COLUMN_NAME + V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION));
+    _jsonIndexReader = new ImmutableJsonIndexReader(_dataBuffer, _numDocs);
+    _filter = RequestContextUtils.getJsonMatchFilter(_filterString);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown()
+      throws IOException {
+    _jsonIndexReader.close();
+    _dataBuffer.close();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Benchmark
+  public MutableRoaringBitmap parseFilterPerCall() {
+    return _jsonIndexReader.getMatchingDocIds(_filterString);
+  }
+
+  @Benchmark
+  public MutableRoaringBitmap parsedFilter() {
+    return _jsonIndexReader.getMatchingDocIds(_filter);
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkJsonMatch.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,245 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.vector.HnswVectorIndexCreator;
+import org.apache.pinot.segment.local.segment.index.readers.vector.HnswVectorIndexReader;
+import org.apache.pinot.segment.local.segment.store.VectorIndexUtils;
+import org.apache.pinot.segment.spi.index.creator.VectorIndexConfig;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Benchmark for vector similarity search combined with a selective filter. Compares applying the filter during the
+ * HNSW graph traversal (pre-filter) against searching the top K docs and then applying the filter (post-filter), for
+ * float and scalar quantized vectors. Note that post-filter usually returns less than top K docs when the filter is
+ * selective.
+ *
+ * <p>The recall@K of each search, i.e. the fraction of the exact top K docs (found by brute force over the float
+ * vectors, among the docs matching the filter for the filtered searches) that are returned, is computed once during
+ * the setup and reported by the {@link RecallCounter} auxiliary counter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class BenchmarkVectorIndex {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkVectorIndex");
+  private static final String COLUMN_NAME = "embedding";
+  private static final int NUM_QUERIES = 100;
+  private static final int TOP_K = 10;
+
+  @Param({"100000"})
+  private int _numDocs;
+
+  @Param({"128"})
+  private int _vectorDimension;
+
+  @Param({"NONE", "INT8", "INT4"})
+  private String _quantization;
+
+  // Percentage of docs matching the filter
+  @Param({"1", "10", "50"})
+  private int _filterSelectivity;
+
+  private HnswVectorIndexReader _vectorIndexReader;
+  private ImmutableRoaringBitmap _filterDocIds;
+  private float[][] _queries;
+  private int _queryId;
+  private double _unfilteredRecall;
+  private double _postFilterRecall;
+  private double _preFilterRecall;
+
+  @Setup(Level.Trial)
+  public void setUp()
+      throws IOException {
+    FileUtils.deleteQuietly(INDEX_DIR);
+    FileUtils.forceMkdir(INDEX_DIR);
+    Map<String, String> properties = new HashMap<>();
+    properties.put("vectorIndexType", "HNSW");
+    properties.put("vectorDimension", Integer.toString(_vectorDimension));
+    properties.put("vectorDistanceFunction", "COSINE");
+    properties.put(VectorIndexUtils.QUANTIZATION, _quantization);
+    VectorIndexConfig config = new VectorIndexConfig(properties);
+    Random random = new Random(42);
+    float[][] vectors = new float[_numDocs][];
+    try (HnswVectorIndexCreator creator = new HnswVectorIndexCreator(COLUMN_NAME, INDEX_DIR, config)) {
+      for (int i = 0; i < _numDocs; i++) {
+        vectors[i] = randomVector(random);
+        creator.add(vectors[i]);
+      }
+      creator.seal();
+    }
+    _vectorIndexReader = new HnswVectorIndexReader(COLUMN_NAME, INDEX_DIR, _numDocs, config);
+
+    MutableRoaringBitmap filterDocIds = new MutableRoaringBitmap();
+    for (int i = 0; i < _numDocs; i++) {
+      if (random.nextInt(100) < _filterSelectivity) {
+        filterDocIds.add(i);
+      }
+    }
+    _filterDocIds = filterDocIds;
+    _queries = new float[NUM_QUERIES][];
+    for (int i = 0; i < NUM_QUERIES; i++) {
+      _queries[i] = randomVector(random);
+    }
+    computeRecalls(vectors);
+  }
+
+  /**
+   * Computes the average recall@K of each search over all the queries against the exact top K docs.
+   */
+  private void computeRecalls(float[][] vectors) {
+    int numFilteredTopK = Math.min(TOP_K, _filterDocIds.getCardinality());
+    long numUnfilteredHits = 0;
+    long numPostFilterHits = 0;
+    long numPreFilterHits = 0;
+    for (float[] query : _queries) {
+      ImmutableRoaringBitmap exactDocIds = getExactTopK(vectors, query, null);
+      ImmutableRoaringBitmap exactFilteredDocIds = getExactTopK(vectors, query, _filterDocIds);
+      ImmutableRoaringBitmap docIds = _vectorIndexReader.getDocIds(query, TOP_K);
+      numUnfilteredHits += ImmutableRoaringBitmap.andCardinality(docIds, exactDocIds);
+      numPostFilterHits += ImmutableRoaringBitmap.andCardinality(ImmutableRoaringBitmap.and(docIds, _filterDocIds),
+          exactFilteredDocIds);
+      numPreFilterHits += ImmutableRoaringBitmap.andCardinality(
+          _vectorIndexReader.getDocIds(query, TOP_K, _filterDocIds), exactFilteredDocIds);
+    }
+    _unfilteredRecall = (double) numUnfilteredHits / ((long) NUM_QUERIES * TOP_K);
+    _postFilterRecall = (double) numPostFilterHits / ((long) NUM_QUERIES * numFilteredTopK);
+    _preFilterRecall = (double) numPreFilterHits / ((long) NUM_QUERIES * numFilteredTopK);
+  }
+
+  /**
+   * Returns the top K docs closest to the query by cosine similarity, among the docs matching the filter if present.
+   */
+  private ImmutableRoaringBitmap getExactTopK(float[][] vectors, float[] query,
+      @Nullable ImmutableRoaringBitmap filterDocIds) {
+    double[] similarities = new double[_numDocs];
+    // Min heap on the similarity to keep the K most similar docs
+    PriorityQueue<Integer> topK =
+        new PriorityQueue<>(TOP_K + 1, (d1, d2) -> Double.compare(similarities[d1], similarities[d2]));
+    for (int docId = 0; docId < _numDocs; docId++) {
+      if (filterDocIds != null && !filterDocIds.contains(docId)) {
+        continue;
+      }
+      similarities[docId] = cosineSimilarity(vectors[docId], query);
+      topK.add(docId);
+      if (topK.size() > TOP_K) {
+        topK.poll();
+      }
+    }
+    MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+    for (int docId : topK) {
+      docIds.add(docId);
+    }
+    return docIds;
+  }
+
+  private static double cosineSimilarity(float[] vector1, float[] vector2) {
+    double dotProduct = 0;
+    double norm1 = 0;
+    double norm2 = 0;
+    for (int i = 0; i < vector1.length; i++) {
+      dotProduct += vector1[i] * vector2[i];
+      norm1 += vector1[i] * vector1[i];
+      norm2 += vector2[i] * vector2[i];
+    }
+    return dotProduct / Math.sqrt(norm1 * norm2);
+  }
+
+  private float[] randomVector(Random random) {
+    float[] vector = new float[_vectorDimension];
+    for (int i = 0; i < _vectorDimension; i++) {
+      vector[i] = random.nextFloat();
+    }
+    return vector;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown()
+      throws IOException {
+    _vectorIndexReader.close();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  private float[] nextQuery() {
+    return _queries[_queryId++ % NUM_QUERIES];
+  }
+
+  @Benchmark
+  public ImmutableRoaringBitmap unfiltered(RecallCounter recall) {
+    recall._recall = _unfilteredRecall;
+    return _vectorIndexReader.getDocIds(nextQuery(), TOP_K);
+  }
+
+  @Benchmark
+  public ImmutableRoaringBitmap postFilter(RecallCounter recall) {
+    recall._recall = _postFilterRecall;
+    return ImmutableRoaringBitmap.and(_vectorIndexReader.getDocIds(nextQuery(), TOP_K), _filterDocIds);
+  }
+
+  @Benchmark
+  public ImmutableRoaringBitmap preFilter(RecallCounter recall) {
+    recall._recall = _preFilterRecall;
+    return _vectorIndexReader.getDocIds(nextQuery(), TOP_K, _filterDocIds);
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class RecallCounter {
+    double _recall;
+
+    public double recallAtK() {
+      return _recall;
+    }
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkVectorIndex.class.getSimpleName()).build()).run();
+  }
+}
@@ -34,6 +34,7 @@ import com.azure.storage.file.datalake.DataLakeServiceClient;
 import com.azure.storage.file.datalake.DataLakeServiceClientBuilder;
 import com.azure.storage.file.datalake.models.DataLakeRequestConditions;
 import com.azure.storage.file.datalake.models.DataLakeStorageException;
+import com.azure.storage.file.datalake.models.FileRange;
 import com.azure.storage.file.datalake.models.ListPathsOptions;
 import com.azure.storage.file.datalake.models.PathHttpHeaders;
 import com.azure.storage.file.datalake.models.PathItem;
@@ -63,6 +64,8 @@ import org.apache.commons.io.FileUtils;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.filesystem.BasePinotFS;
 import org.apache.pinot.spi.filesystem.FileMetadata;
+import org.apache.pinot.spi.filesystem.ParallelTransferHelper;
+import org.apache.pinot.spi.utils.DataSizeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -112,6 +115,10 @@ public class ADLSGen2PinotFS extends BasePinotFS {
   // However, there's some overhead in computing hash. (Adds roughly 3 seconds for 1GB file)
   private boolean _enableChecksum;
 
+  private ParallelTransferHelper _parallelTransferHelper =
+      new ParallelTransferHelper(DataSizeUtils.toBytes(ParallelTransferHelper.DEFAULT_PARALLEL_TRANSFER_PART_SIZE),
+          ParallelTransferHelper.DEFAULT_PARALLEL_TRANSFER_PARALLELISM);
+
   public ADLSGen2PinotFS() {
   }
 
@@ -119,9 +126,15 @@ public class ADLSGen2PinotFS extends BasePinotFS {
     _fileSystemClient = fileSystemClient;
   }
 
+  public ADLSGen2PinotFS(DataLakeFileSystemClient fileSystemClient, ParallelTransferHelper parallelTransferHelper) {
+    _fileSystemClient = fileSystemClient;
+    _parallelTransferHelper = parallelTransferHelper;
+  }
+
   @Override
   public void init(PinotConfiguration config) {
     _enableChecksum = config.getProperty(ENABLE_CHECKSUM, false);
+    _parallelTransferHelper = ParallelTransferHelper.fromConfig(config);
 
     // Azure storage account name
     String accountName = config.getProperty(ACCOUNT_NAME);
@@ -487,12 +500,22 @@ public class ADLSGen2PinotFS extends BasePinotFS {
         FileUtils.deleteQuietly(dstFile);
       }
     }
-    int bytesRead;
-    byte[] buffer = new byte[BUFFER_SIZE];
-    try (InputStream inputStream = open(srcUri)) {
-      try (OutputStream outputStream = new FileOutputStream(dstFile)) {
-        while ((bytesRead = inputStream.read(buffer)) != -1) {
-          outputStream.write(buffer, 0, bytesRead);
+    DataLakeFileClient srcFileClient = _parallelTransferHelper.getParallelism() > 1 ? _fileSystemClient.getFileClient(
+        AzurePinotFSUtil.convertUriToAzureStylePath(srcUri)) : null;
+    long fileSize = srcFileClient != null ? srcFileClient.getProperties().getFileSize() : -1;
+    if (_parallelTransferHelper.shouldTransferInParallel(fileSize)) {
+      // Download the byte ranges in parallel to not be bounded by the throughput of a single connection
+      _parallelTransferHelper.download(fileSize, dstFile,
+          (offset, length, outputStream) -> srcFileClient.readWithResponse(outputStream, new FileRange(offset, length),
+              null, null, false, null, Context.NONE));
+    } else {
+      int bytesRead;
+      byte[] buffer = new byte[BUFFER_SIZE];
+      try (InputStream inputStream = open(srcUri)) {
+        try (OutputStream outputStream = new FileOutputStream(dstFile)) {
+          while ((bytesRead = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, bytesRead);
+          }
         }
       }
     }
@@ -524,6 +547,22 @@ public class ADLSGen2PinotFS extends BasePinotFS {
       throws Exception {
     LOGGER.debug("copyFromLocalFile is called with srcFile='{}', dstUri='{}'", srcFile, dstUri);
     byte[] contentMd5 = computeContentMd5(srcFile);
+    long fileSize = srcFile.length();
+    if (_parallelTransferHelper.shouldTransferInParallel(fileSize)) {
+      // Append the parts at their offsets in parallel, then commit the whole file with a single flush
+      DataLakeFileClient fileClient = createFileClient(dstUri, contentMd5);
+      try {
+        _parallelTransferHelper.upload(srcFile, (partId, offset, length) -> {
+          try (InputStream inputStream = ParallelTransferHelper.openRange(srcFile, offset, length)) {
+            return appendInBlocks(fileClient, inputStream, offset);
+          }
+        });
+        fileClient.flush(fileSize, true);
+      } catch (DataLakeStorageException e) {
+        throw new IOException(e);
+      }
+      return;
+    }
     try (InputStream fileInputStream = new FileInputStream(srcFile)) {
       copyInputStreamToDst(fileInputStream, dstUri, contentMd5);
     }
@@ -627,11 +666,25 @@ public class ADLSGen2PinotFS extends BasePinotFS {
    */
   private boolean copyInputStreamToDst(InputStream inputStream, URI dstUri, byte[] contentMd5)
       throws IOException {
-    int bytesRead;
-    long totalBytesRead = 0;
-    byte[] buffer = new byte[BUFFER_SIZE];
     // TODO: the newer client now has the API 'uploadFromFile' that directly takes the file as an input. We can replace
     // this upload logic with the 'uploadFromFile'/
+    DataLakeFileClient fileClient = createFileClient(dstUri, contentMd5);
+    try {
+      long totalBytesRead = appendInBlocks(fileClient, inputStream, 0);
+      // Call flush on ADLS Gen 2
+      fileClient.flush(totalBytesRead, true);
+
+      return true;
+    } catch (DataLakeStorageException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Creates (or overwrites) the file at the destination URI, and sets its MD5 metadata if provided.
+   */
+  private DataLakeFileClient createFileClient(URI dstUri, byte[] contentMd5)
+      throws IOException {
     DataLakeFileClient fileClient;
     try {
       fileClient = _fileSystemClient.createFile(AzurePinotFSUtil.convertUriToAzureStylePath(dstUri));
@@ -653,7 +706,18 @@ public class ADLSGen2PinotFS extends BasePinotFS {
       pathHttpHeaders.setContentMd5(contentMd5);
       fileClient.setHttpHeaders(pathHttpHeaders);
     }
+    return fileClient;
+  }
 
+  /**
+   * Appends the input stream to the file starting at the given offset, without flushing, and returns the number of
+   * bytes appended.
+   */
+  private long appendInBlocks(DataLakeFileClient fileClient, InputStream inputStream, long startOffset)
+      throws IOException {
+    int bytesRead;
+    long totalBytesRead = 0;
+    byte[] buffer = new byte[BUFFER_SIZE];
     try {
       while ((bytesRead = inputStream.read(buffer)) != -1) {
         byte[] md5BlockHash = null;
@@ -665,15 +729,12 @@ public class ADLSGen2PinotFS extends BasePinotFS {
         }
         // Upload 4MB at a time since Azure's limit for each append call is 4MB.
         ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(buffer, 0, bytesRead);
-        fileClient.appendWithResponse(byteArrayInputStream, totalBytesRead, bytesRead, md5BlockHash, null, null,
-            Context.NONE);
+        fileClient.appendWithResponse(byteArrayInputStream, startOffset + totalBytesRead, bytesRead, md5BlockHash,
+            null, null, Context.NONE);
         byteArrayInputStream.close();
         totalBytesRead += bytesRead;
       }
-      // Call flush on ADLS Gen 2
-      fileClient.flush(totalBytesRead, true);
-
-      return true;
+      return totalBytesRead;
     } catch (DataLakeStorageException | NoSuchAlgorithmException e) {
       throw new IOException(e);
     }
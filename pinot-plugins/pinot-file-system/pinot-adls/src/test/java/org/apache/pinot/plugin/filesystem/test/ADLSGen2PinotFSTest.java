@@ -27,10 +27,13 @@ import com.azure.storage.file.datalake.DataLakeFileSystemClient;
 import com.azure.storage.file.datalake.DataLakeServiceClient;
 import com.azure.storage.file.datalake.models.DataLakeFileOpenInputStreamResult;
 import com.azure.storage.file.datalake.models.DataLakeStorageException;
+import com.azure.storage.file.datalake.models.FileRange;
 import com.azure.storage.file.datalake.models.PathItem;
 import com.azure.storage.file.datalake.models.PathProperties;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.Instant;
@@ -38,11 +41,15 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Stream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.pinot.plugin.filesystem.ADLSGen2PinotFS;
 import org.apache.pinot.plugin.filesystem.AzurePinotFSUtil;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.filesystem.FileMetadata;
+import org.apache.pinot.spi.filesystem.ParallelTransferHelper;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.testng.Assert;
@@ -445,4 +452,67 @@ public class ADLSGen2PinotFSTest {
     verify(_mockFileClient).openInputStream();
     verify(_mockFileOpenInputStreamResult).getInputStream();
   }
+
+  @Test
+  public void testParallelUploadAndDownload()
+      throws Exception {
+    byte[] content = new byte[1_000_003];
+    new Random(42).nextBytes(content);
+    File srcFile = File.createTempFile("ADLSGen2PinotFSTest", "src");
+    File dstFile = new File(srcFile.getPath() + ".dst");
+    try {
+      FileUtils.writeByteArrayToFile(srcFile, content);
+      ADLSGen2PinotFS pinotFS =
+          new ADLSGen2PinotFS(_mockFileSystemClient, new ParallelTransferHelper(100_000, 4));
+      String path = AzurePinotFSUtil.convertUriToAzureStylePath(_mockURI);
+
+      // Parts are appended at their offsets, then committed with a single flush
+      byte[] uploaded = new byte[content.length];
+      when(_mockFileSystemClient.createFile(path)).thenReturn(_mockFileClient);
+      when(_mockFileClient.getProperties()).thenReturn(_mockPathProperties);
+      when(_mockFileClient.appendWithResponse(any(), anyLong(), anyLong(), any(), any(), any(), any())).thenAnswer(
+          invocation -> {
+            try (InputStream inputStream = invocation.getArgument(0)) {
+              IOUtils.readFully(inputStream, uploaded, (int) (long) invocation.getArgument(1),
+                  (int) (long) invocation.getArgument(2));
+            }
+            return null;
+          });
+      pinotFS.copyFromLocalFile(srcFile, _mockURI);
+      Assert.assertEquals(uploaded, content);
+
+      verify(_mockFileSystemClient).createFile(path);
+      verify(_mockFileClient).getProperties();
+      verify(_mockFileClient).setHttpHeaders(any());
+      verify(_mockFileClient, times(11)).appendWithResponse(any(), anyLong(), anyLong(), any(), any(), any(), any());
+      verify(_mockFileClient).flush(content.length, true);
+      verify(_mockPathProperties).getCacheControl();
+      verify(_mockPathProperties).getContentDisposition();
+      verify(_mockPathProperties).getContentEncoding();
+      verify(_mockPathProperties).getContentMd5();
+      verify(_mockPathProperties).getContentLanguage();
+      verify(_mockPathProperties).getContentType();
+
+      // Byte ranges are downloaded in parallel
+      when(_mockFileSystemClient.getFileClient(path)).thenReturn(_mockFileClient);
+      when(_mockPathProperties.getFileSize()).thenReturn((long) content.length);
+      when(_mockFileClient.readWithResponse(any(), any(), any(), any(), anyBoolean(), any(), any())).thenAnswer(
+          invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            FileRange range = invocation.getArgument(1);
+            outputStream.write(uploaded, (int) range.getOffset(), range.getCount().intValue());
+            return null;
+          });
+      pinotFS.copyToLocalFile(_mockURI, dstFile);
+      Assert.assertEquals(FileUtils.readFileToByteArray(dstFile), content);
+
+      verify(_mockFileSystemClient).getFileClient(path);
+      verify(_mockFileClient, times(2)).getProperties();
+      verify(_mockFileClient, times(11)).readWithResponse(any(), any(), any(), any(), anyBoolean(), any(), any());
+      verify(_mockPathProperties).getFileSize();
+    } finally {
+      FileUtils.deleteQuietly(srcFile);
+      FileUtils.deleteQuietly(dstFile);
+    }
+  }
 }
@@ -21,6 +21,7 @@ package org.apache.pinot.plugin.filesystem;
 import com.google.api.gax.paging.Page;
 import com.google.auth.Credentials;
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.ReadChannel;
 import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
@@ -31,6 +32,7 @@ import com.google.cloud.storage.StorageBatch;
 import com.google.cloud.storage.StorageBatchResult;
 import com.google.cloud.storage.StorageException;
 import com.google.cloud.storage.StorageOptions;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import java.io.File;
@@ -51,6 +53,8 @@ import org.apache.commons.io.IOUtils;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.filesystem.BasePinotFS;
 import org.apache.pinot.spi.filesystem.FileMetadata;
+import org.apache.pinot.spi.filesystem.ParallelTransferHelper;
+import org.apache.pinot.spi.utils.DataSizeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,7 +69,22 @@ public class GcsPinotFS extends BasePinotFS {
   private static final Logger LOGGER = LoggerFactory.getLogger(GcsPinotFS.class);
   // See https://cloud.google.com/storage/docs/json_api/v1/how-tos/batch
   private static final int BATCH_LIMIT = 100;
+  // See https://cloud.google.com/storage/docs/composite-objects
+  private static final int MAX_COMPOSE_SOURCES = 32;
+  private static final String PART_SUFFIX = ".pinot-part-";
   private Storage _storage;
+  private ParallelTransferHelper _parallelTransferHelper =
+      new ParallelTransferHelper(DataSizeUtils.toBytes(ParallelTransferHelper.DEFAULT_PARALLEL_TRANSFER_PART_SIZE),
+          ParallelTransferHelper.DEFAULT_PARALLEL_TRANSFER_PARALLELISM);
+
+  public GcsPinotFS() {
+  }
+
+  @VisibleForTesting
+  GcsPinotFS(Storage storage, ParallelTransferHelper parallelTransferHelper) {
+    _storage = storage;
+    _parallelTransferHelper = parallelTransferHelper;
+  }
 
   @Override
   public void init(PinotConfiguration config) {
@@ -98,6 +117,7 @@ public class GcsPinotFS extends BasePinotFS {
         credentials = GoogleCredentials.getApplicationDefault();
       }
       _storage = storageBuilder.setCredentials(credentials).build().getService();
+      _parallelTransferHelper = ParallelTransferHelper.fromConfig(config);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
@@ -233,6 +253,18 @@ public class GcsPinotFS extends BasePinotFS {
     FileUtils.forceMkdir(dstFile.getParentFile());
     Blob blob = getBlob(new GcsUri(srcUri));
     checkState(existsBlob(blob), "File '%s' does not exists", srcUri);
+    long fileSize = blob.getSize();
+    if (_parallelTransferHelper.shouldTransferInParallel(fileSize)) {
+      // Download the byte ranges in parallel to not be bounded by the throughput of a single connection
+      _parallelTransferHelper.download(fileSize, dstFile, (offset, length, outputStream) -> {
+        try (ReadChannel reader = _storage.reader(blob.getBlobId())) {
+          reader.seek(offset);
+          reader.limit(offset + length);
+          IOUtils.copy(Channels.newInputStream(reader), outputStream);
+        }
+      });
+      return;
+    }
     blob.downloadTo(dstFile.toPath());
   }
 
@@ -243,7 +275,43 @@ public class GcsPinotFS extends BasePinotFS {
     GcsUri dstGcsUri = new GcsUri(dstUri);
     checkState(!isPathTerminatedByDelimiter(dstGcsUri), "Path '%s' must be a filename", dstGcsUri);
     BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(dstGcsUri.getBucketName(), dstGcsUri.getPath())).build();
-    _storage.createFrom(blobInfo, Files.newInputStream(srcFile.toPath()));
+    if (_parallelTransferHelper.shouldTransferInParallel(srcFile.length())) {
+      uploadInParts(srcFile, blobInfo);
+      return;
+    }
+    try (InputStream inputStream = Files.newInputStream(srcFile.toPath())) {
+      _storage.createFrom(blobInfo, inputStream);
+    }
+  }
+
+  /**
+   * Uploads the parts of the file as temporary objects in parallel, then composes them into the destination object.
+   * The part size is increased if needed to stay within the max number of sources of a compose request.
+   */
+  private void uploadInParts(File srcFile, BlobInfo blobInfo)
+      throws Exception {
+    long fileSize = srcFile.length();
+    long partSize = Math.max(_parallelTransferHelper.getPartSize(),
+        (fileSize + MAX_COMPOSE_SOURCES - 1) / MAX_COMPOSE_SOURCES);
+    ParallelTransferHelper partUploadHelper = _parallelTransferHelper.withPartSize(partSize);
+    String bucketName = blobInfo.getBucket();
+    List<String> partNames = new ArrayList<>();
+    for (int i = 0; i < partUploadHelper.getNumParts(fileSize); i++) {
+      partNames.add(blobInfo.getName() + PART_SUFFIX + i);
+    }
+    try {
+      partUploadHelper.upload(srcFile, (partId, offset, length) -> {
+        try (InputStream inputStream = ParallelTransferHelper.openRange(srcFile, offset, length)) {
+          _storage.createFrom(BlobInfo.newBuilder(BlobId.of(bucketName, partNames.get(partId))).build(), inputStream);
+        }
+        return null;
+      });
+      _storage.compose(Storage.ComposeRequest.newBuilder().addSource(partNames).setTarget(blobInfo).build());
+    } finally {
+      for (String partName : partNames) {
+        _storage.delete(BlobId.of(bucketName, partName));
+      }
+    }
   }
 
   @Override
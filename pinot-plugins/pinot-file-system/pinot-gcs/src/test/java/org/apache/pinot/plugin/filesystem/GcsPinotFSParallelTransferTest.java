@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.filesystem;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.pinot.spi.filesystem.ParallelTransferHelper;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+
+/**
+ * Tests the parallel upload and download of GcsPinotFS against an in-memory stand-in of the GCS storage.
+ */
+public class GcsPinotFSParallelTransferTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "GcsPinotFSParallelTransferTest");
+  private static final String BUCKET = "bucket";
+  private static final int FILE_SIZE = 1_000_003;
+
+  private final Map<String, byte[]> _objects = new ConcurrentHashMap<>();
+  private byte[] _content;
+  private File _srcFile;
+  private GcsPinotFS _pinotFS;
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    FileUtils.forceMkdir(TEMP_DIR);
+    _content = new byte[FILE_SIZE];
+    new Random(42).nextBytes(_content);
+    _srcFile = new File(TEMP_DIR, "src");
+    FileUtils.writeByteArrayToFile(_srcFile, _content);
+    _pinotFS = new GcsPinotFS(mockStorage(), new ParallelTransferHelper(100_000, 4));
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testParallelUploadAndDownload()
+      throws Exception {
+    URI uri = URI.create("gs://" + BUCKET + "/dir/segment.tar.gz");
+    _pinotFS.copyFromLocalFile(_srcFile, uri);
+    // The parts are composed into the destination object, then deleted
+    assertEquals(_objects.keySet(), Set.of("dir/segment.tar.gz"));
+    assertEquals(_objects.get("dir/segment.tar.gz"), _content);
+
+    File dstFile = new File(TEMP_DIR, "dst");
+    _pinotFS.copyToLocalFile(uri, dstFile);
+    assertEquals(FileUtils.readFileToByteArray(dstFile), _content);
+  }
+
+  private Storage mockStorage()
+      throws IOException {
+    Storage storage = mock(Storage.class);
+    doAnswer(invocation -> {
+      BlobInfo blobInfo = invocation.getArgument(0);
+      try (InputStream inputStream = invocation.getArgument(1)) {
+        _objects.put(blobInfo.getName(), IOUtils.toByteArray(inputStream));
+      }
+      return null;
+    }).when(storage).createFrom(any(BlobInfo.class), any(InputStream.class));
+    doAnswer(invocation -> {
+      Storage.ComposeRequest composeRequest = invocation.getArgument(0);
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      for (Storage.ComposeRequest.SourceBlob sourceBlob : composeRequest.getSourceBlobs()) {
+        outputStream.write(_objects.get(sourceBlob.getName()));
+      }
+      _objects.put(composeRequest.getTarget().getName(), outputStream.toByteArray());
+      return null;
+    }).when(storage).compose(any(Storage.ComposeRequest.class));
+    when(storage.delete(any(BlobId.class))).thenAnswer(
+        invocation -> _objects.remove(((BlobId) invocation.getArgument(0)).getName()) != null);
+    when(storage.get(any(BlobId.class))).thenAnswer(invocation -> {
+      BlobId blobId = invocation.getArgument(0);
+      byte[] object = _objects.get(blobId.getName());
+      if (object == null) {
+        return null;
+      }
+      Blob blob = mock(Blob.class);
+      when(blob.exists()).thenReturn(true);
+      when(blob.getBlobId()).thenReturn(blobId);
+      when(blob.getSize()).thenReturn((long) object.length);
+      return blob;
+    });
+    when(storage.reader(any(BlobId.class))).thenAnswer(
+        invocation -> mockReadChannel(_objects.get(((BlobId) invocation.getArgument(0)).getName())));
+    return storage;
+  }
+
+  /**
+   * Returns a read channel over the object, honoring the seek position and the limit set by the range downloads.
+   */
+  private static ReadChannel mockReadChannel(byte[] object)
+      throws IOException {
+    ReadChannel readChannel = mock(ReadChannel.class);
+    long[] positionAndLimit = {0, object.length};
+    doAnswer(invocation -> {
+      positionAndLimit[0] = invocation.getArgument(0);
+      return null;
+    }).when(readChannel).seek(anyLong());
+    doAnswer(invocation -> {
+      positionAndLimit[1] = invocation.getArgument(0);
+      return readChannel;
+    }).when(readChannel).limit(anyLong());
+    when(readChannel.isOpen()).thenReturn(true);
+    when(readChannel.read(any(ByteBuffer.class))).thenAnswer(invocation -> {
+      ByteBuffer buffer = invocation.getArgument(0);
+      long end = Math.min(positionAndLimit[1], object.length);
+      int length = (int) Math.min(buffer.remaining(), end - positionAndLimit[0]);
+      if (length <= 0) {
+        return -1;
+      }
+      buffer.put(object, (int) positionAndLimit[0], length);
+      positionAndLimit[0] += length;
+      return length;
+    });
+    return readChannel;
+  }
+}
@@ -42,7 +42,7 @@ public class S3Config {
   private static final boolean DEFAULT_DISABLE_ACL = true;
   // From https://docs.aws.amazon.com/AmazonS3/latest/userguide/qfacts.html, the part number must be an integer
   // between 1 and 10000, inclusive; and the min part size allowed is 5MiB, except the last one.
-  private static final long MULTI_PART_UPLOAD_MIN_PART_SIZE = 5 * 1024 * 1024;
+  static final long MULTI_PART_UPLOAD_MIN_PART_SIZE = 5 * 1024 * 1024;
   public static final int MULTI_PART_UPLOAD_MAX_PART_NUM = 10000;
 
   public static final String ACCESS_KEY = "accessKey";
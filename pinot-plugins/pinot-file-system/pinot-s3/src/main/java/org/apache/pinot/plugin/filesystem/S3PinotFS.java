@@ -23,7 +23,6 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -32,7 +31,6 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +41,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.filesystem.BasePinotFS;
 import org.apache.pinot.spi.filesystem.FileMetadata;
+import org.apache.pinot.spi.filesystem.ParallelTransferHelper;
+import org.apache.pinot.spi.utils.DataSizeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
@@ -105,6 +105,9 @@ public class S3PinotFS extends BasePinotFS {
   private long _minObjectSizeToUploadInParts;
   private long _multiPartUploadPartSize;
   private @Nullable StorageClass _storageClass;
+  private ParallelTransferHelper _parallelTransferHelper =
+      new ParallelTransferHelper(DataSizeUtils.toBytes(ParallelTransferHelper.DEFAULT_PARALLEL_TRANSFER_PART_SIZE),
+          ParallelTransferHelper.DEFAULT_PARALLEL_TRANSFER_PARALLELISM);
 
   @Override
   public void init(PinotConfiguration config) {
@@ -163,6 +166,7 @@ public class S3PinotFS extends BasePinotFS {
 
       _s3Client = s3ClientBuilder.build();
       setMultiPartUploadConfigs(s3Config);
+      _parallelTransferHelper = ParallelTransferHelper.fromConfig(config);
     } catch (S3Exception e) {
       throw new RuntimeException("Could not initialize S3PinotFS", e);
     }
@@ -192,6 +196,11 @@ public class S3PinotFS extends BasePinotFS {
     setDisableAcl(s3Config);
   }
 
+  @VisibleForTesting
+  void setParallelTransferHelper(ParallelTransferHelper parallelTransferHelper) {
+    _parallelTransferHelper = parallelTransferHelper;
+  }
+
   @VisibleForTesting
   void setStorageClass(@Nullable StorageClass storageClass) {
     _storageClass = storageClass;
@@ -601,6 +610,16 @@ public class S3PinotFS extends BasePinotFS {
     URI base = getBase(srcUri);
     FileUtils.forceMkdir(dstFile.getParentFile());
     String prefix = sanitizePath(base.relativize(srcUri).getPath());
+    long fileSize = _parallelTransferHelper.getParallelism() > 1 ? getS3ObjectMetadata(srcUri).contentLength() : -1;
+    if (_parallelTransferHelper.shouldTransferInParallel(fileSize)) {
+      // Download the byte ranges in parallel to not be bounded by the throughput of a single connection
+      _parallelTransferHelper.download(fileSize, dstFile, (offset, length, outputStream) -> {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(srcUri.getHost()).key(prefix)
+            .range("bytes=" + offset + "-" + (offset + length - 1)).build();
+        _s3Client.getObject(getObjectRequest, ResponseTransformer.toOutputStream(outputStream));
+      });
+      return;
+    }
     GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(srcUri.getHost()).key(prefix).build();
 
     _s3Client.getObject(getObjectRequest, ResponseTransformer.toFile(dstFile));
@@ -609,7 +628,11 @@ public class S3PinotFS extends BasePinotFS {
   @Override
   public void copyFromLocalFile(File srcFile, URI dstUri)
       throws Exception {
-    if (_minObjectSizeToUploadInParts > 0 && srcFile.length() > _minObjectSizeToUploadInParts) {
+    long fileSize = srcFile.length();
+    // With parallel transfer enabled, any file spanning multiple parts is uploaded in parts to upload them in parallel
+    boolean uploadInParts = (_minObjectSizeToUploadInParts > 0 && fileSize > _minObjectSizeToUploadInParts) || (
+        _parallelTransferHelper.getParallelism() > 1 && fileSize > getUploadPartSize());
+    if (uploadInParts) {
       LOGGER.info("Copy {} from local to {} in parts", srcFile.getAbsolutePath(), dstUri);
       uploadFileInParts(srcFile, dstUri);
     } else {
@@ -632,34 +655,30 @@ public class S3PinotFS extends BasePinotFS {
     CreateMultipartUploadResponse multipartUpload =
         _s3Client.createMultipartUpload(createMultipartUploadRequestBuilder.build());
     String uploadId = multipartUpload.uploadId();
-    // Upload parts sequentially to overcome the 5GB limit of a single PutObject call.
-    // TODO: parts can be uploaded in parallel for higher throughput, given a thread pool.
-    try (FileInputStream inputStream = FileUtils.openInputStream(srcFile)) {
-      long totalUploaded = 0;
+    try {
       long fileSize = srcFile.length();
       // The part number must start from 1 and no more than the max part num allowed, 10000 by default.
       // The default configs can upload a single file of 1TB, so the if-branch should rarely happen.
-      int partNum = 1;
-      long partSizeToUse = _multiPartUploadPartSize;
+      long partSize = getUploadPartSize();
+      long partSizeToUse = partSize;
       if (partSizeToUse * S3Config.MULTI_PART_UPLOAD_MAX_PART_NUM < fileSize) {
         partSizeToUse =
             (fileSize + S3Config.MULTI_PART_UPLOAD_MAX_PART_NUM - 1) / S3Config.MULTI_PART_UPLOAD_MAX_PART_NUM;
         LOGGER.info("Increased part size from {} to {} for large file size {} due to max allowed uploads {}",
-            _multiPartUploadPartSize, partSizeToUse, fileSize, S3Config.MULTI_PART_UPLOAD_MAX_PART_NUM);
-      }
-      List<CompletedPart> parts = new ArrayList<>();
-      while (totalUploaded < srcFile.length()) {
-        long nextPartSize = Math.min(partSizeToUse, fileSize - totalUploaded);
-        UploadPartResponse uploadPartResponse = _s3Client.uploadPart(
-            UploadPartRequest.builder().bucket(bucket).key(prefix).uploadId(uploadId).partNumber(partNum).build(),
-            RequestBody.fromInputStream(inputStream, nextPartSize));
-        parts.add(CompletedPart.builder().partNumber(partNum).eTag(uploadPartResponse.eTag()).build());
-        totalUploaded += nextPartSize;
-        LOGGER.debug("Uploaded part {} of size {}, with total uploaded {} and file size {}", partNum, nextPartSize,
-            totalUploaded, fileSize);
-        // set counters to upload the next part.
-        partNum++;
+            partSize, partSizeToUse, fileSize, S3Config.MULTI_PART_UPLOAD_MAX_PART_NUM);
       }
+      // Parts are uploaded in parallel when the parallelism is configured, and sequentially otherwise
+      ParallelTransferHelper partUploadHelper = _parallelTransferHelper.withPartSize(partSizeToUse);
+      List<CompletedPart> parts = partUploadHelper.upload(srcFile, (partId, offset, length) -> {
+        int partNum = partId + 1;
+        try (InputStream inputStream = ParallelTransferHelper.openRange(srcFile, offset, length)) {
+          UploadPartResponse uploadPartResponse = _s3Client.uploadPart(
+              UploadPartRequest.builder().bucket(bucket).key(prefix).uploadId(uploadId).partNumber(partNum).build(),
+              RequestBody.fromInputStream(inputStream, length));
+          LOGGER.debug("Uploaded part {} of size {} at offset {} with file size {}", partNum, length, offset, fileSize);
+          return CompletedPart.builder().partNumber(partNum).eTag(uploadPartResponse.eTag()).build();
+        }
+      });
       // complete the multipart upload
       _s3Client.completeMultipartUpload(
           CompleteMultipartUploadRequest.builder().uploadId(uploadId).bucket(bucket).key(prefix)
@@ -672,6 +691,18 @@ public class S3PinotFS extends BasePinotFS {
     }
   }
 
+  /**
+   * Returns the size of the parts of a multipart upload. With parallel transfer enabled, the parts are sized like the
+   * ranges of the parallel downloads so that the parallel transfer part size is the only setting controlling them,
+   * but no smaller than the min part size allowed by S3. Otherwise, the multipart upload part size is used.
+   */
+  private long getUploadPartSize() {
+    if (_parallelTransferHelper.getParallelism() > 1) {
+      return Math.max(_parallelTransferHelper.getPartSize(), S3Config.MULTI_PART_UPLOAD_MIN_PART_SIZE);
+    }
+    return _multiPartUploadPartSize;
+  }
+
   private void setMultiPartUploadConfigs(S3Config s3Config) {
     setMultiPartUploadConfigs(s3Config.getMinObjectSizeForMultiPartUpload(), s3Config.getMultiPartUploadPartSize());
   }
@@ -33,6 +33,7 @@ import java.util.stream.Collectors;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.pinot.spi.filesystem.FileMetadata;
+import org.apache.pinot.spi.filesystem.ParallelTransferHelper;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -419,6 +420,36 @@ public class S3PinotFSTest {
     }
   }
 
+  @Test(dataProvider = "scheme")
+  public void testParallelUploadAndDownload(String scheme)
+      throws Exception {
+    String fileName = "copyFile_for_parallel_transfer.txt";
+    File fileToCopy = new File(TEMP_FILE, fileName);
+    File fileToDownload = new File(TEMP_FILE, "copyFile_download_parallel_transfer.txt").getAbsoluteFile();
+    try {
+      // Make a file of 11MB to upload and download in 3 parts of 5MB with parallelism 2. The parallel transfer part
+      // size also sizes the upload parts, regardless of the multipart upload part size.
+      createDummyFile(fileToCopy, 11 * 1024 * 1024);
+      _s3PinotFS.setMultiPartUploadConfigs(-1, 128 * 1024 * 1024);
+      _s3PinotFS.setParallelTransferHelper(new ParallelTransferHelper(5 * 1024 * 1024, 2));
+      try {
+        _s3PinotFS.copyFromLocalFile(fileToCopy, URI.create(String.format(FILE_FORMAT, scheme, BUCKET, fileName)));
+        HeadObjectResponse headObjectResponse =
+            _s3Client.headObject(S3TestUtils.getHeadObjectRequest(BUCKET, fileName));
+        Assert.assertEquals(headObjectResponse.contentLength(), (Long) fileToCopy.length());
+        _s3PinotFS.copyToLocalFile(URI.create(String.format(FILE_FORMAT, scheme, BUCKET, fileName)), fileToDownload);
+      } finally {
+        // disable parallel transfer again for the other UT cases.
+        _s3PinotFS.setMultiPartUploadConfigs(-1, 128 * 1024 * 1024);
+        _s3PinotFS.setParallelTransferHelper(new ParallelTransferHelper(128 * 1024 * 1024, 1));
+      }
+      Assert.assertTrue(FileUtils.contentEquals(fileToCopy, fileToDownload));
+    } finally {
+      FileUtils.deleteQuietly(fileToCopy);
+      FileUtils.deleteQuietly(fileToDownload);
+    }
+  }
+
   @Test(dataProvider = "scheme")
   public void testOpenFile(String scheme)
       throws Exception {
@@ -43,8 +43,9 @@ import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.orc.OrcFile;
 import org.apache.orc.Reader;
 import org.apache.orc.TypeDescription;
+import org.apache.pinot.spi.data.readers.ColumnReader;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
-import org.apache.pinot.spi.data.readers.RecordReader;
 import org.apache.pinot.spi.data.readers.RecordReaderConfig;
 import org.apache.pinot.spi.data.readers.RecordReaderUtils;
 
@@ -65,10 +66,14 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  *   <li>LIST -> Object[] of the supported types</li> TODO: -> List?
  *   <li>MAP -> Map of the supported types</li>
  * </ul>
+ * <p>The values of a single column can be read with {@link #getColumnReader(String)}, which only reads the stripes of
+ * the requested column from the file.
  */
-public class ORCRecordReader implements RecordReader {
+public class ORCRecordReader implements ColumnarRecordReader {
   private static final String EXTENSION = "orc";
 
+  private Reader _orcReader;
+  private TypeDescription _orcSchema;
   private List<String> _orcFields;
   private List<TypeDescription> _orcFieldTypes;
   private boolean[] _includeOrcFields;
@@ -85,6 +90,8 @@ public class ORCRecordReader implements RecordReader {
     Reader orcReader = OrcFile.createReader(new Path(orcFile.getAbsolutePath()),
         OrcFile.readerOptions(configuration).filesystem(FileSystem.getLocal(configuration)));
     TypeDescription orcSchema = orcReader.getSchema();
+    _orcReader = orcReader;
+    _orcSchema = orcSchema;
     Preconditions.checkState(orcSchema.getCategory() == TypeDescription.Category.STRUCT,
         "ORC schema must be of type: STRUCT");
     _orcFields = orcSchema.getFieldNames();
@@ -393,4 +400,81 @@ public class ORCRecordReader implements RecordReader {
       throws IOException {
     _orcRecordReader.close();
   }
+
+  @Override
+  public int getNumRecords() {
+    return Math.toIntExact(_orcReader.getNumberOfRows());
+  }
+
+  @Nullable
+  @Override
+  public ColumnReader getColumnReader(String column)
+      throws IOException {
+    int fieldIndex = _orcFields.indexOf(column);
+    if (fieldIndex < 0) {
+      return null;
+    }
+    return new ORCColumnReader(column, fieldIndex);
+  }
+
+  /**
+   * Column reader that only reads the given field from the ORC file, and extracts the values from the column vector of
+   * the field one batch at a time.
+   */
+  private class ORCColumnReader implements ColumnReader {
+    private final String _field;
+    private final int _fieldIndex;
+    private final TypeDescription _fieldType;
+    private final org.apache.orc.RecordReader _fieldRecordReader;
+    private final VectorizedRowBatch _fieldRowBatch;
+    private boolean _fieldHasNext;
+    private int _fieldNextRowId;
+
+    ORCColumnReader(String field, int fieldIndex)
+        throws IOException {
+      _field = field;
+      _fieldIndex = fieldIndex;
+      _fieldType = _orcFieldTypes.get(fieldIndex);
+      boolean[] orcReaderInclude = new boolean[_orcSchema.getMaximumId() + 1];
+      orcReaderInclude[_orcSchema.getId()] = true;
+      initFieldsToRead(orcReaderInclude, _fieldType, field);
+      _fieldRecordReader = _orcReader.rows(new Reader.Options().include(orcReaderInclude));
+      _fieldRowBatch = _orcSchema.createRowBatch();
+      _fieldHasNext = _fieldRecordReader.nextBatch(_fieldRowBatch);
+      _fieldNextRowId = 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _fieldHasNext;
+    }
+
+    @Nullable
+    @Override
+    public Object next()
+        throws IOException {
+      Object value = extractValue(_field, _fieldRowBatch.cols[_fieldIndex], _fieldType, _fieldNextRowId);
+      if (_fieldNextRowId == _fieldRowBatch.size - 1) {
+        _fieldHasNext = _fieldRecordReader.nextBatch(_fieldRowBatch);
+        _fieldNextRowId = 0;
+      } else {
+        _fieldNextRowId++;
+      }
+      return value;
+    }
+
+    @Override
+    public void rewind()
+        throws IOException {
+      _fieldRecordReader.seekToRow(0);
+      _fieldHasNext = _fieldRecordReader.nextBatch(_fieldRowBatch);
+      _fieldNextRowId = 0;
+    }
+
+    @Override
+    public void close()
+        throws IOException {
+      _fieldRecordReader.close();
+    }
+  }
 }
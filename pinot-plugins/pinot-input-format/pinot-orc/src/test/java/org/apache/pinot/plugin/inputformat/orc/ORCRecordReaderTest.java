@@ -30,10 +30,18 @@ import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.orc.OrcFile;
 import org.apache.orc.TypeDescription;
 import org.apache.orc.Writer;
+import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.readers.AbstractRecordReaderTest;
+import org.apache.pinot.spi.data.readers.ColumnReader;
+import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.RecordReader;
+import org.testng.annotations.Test;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 
 public class ORCRecordReaderTest extends AbstractRecordReaderTest {
@@ -143,6 +151,40 @@ public class ORCRecordReaderTest extends AbstractRecordReaderTest {
     writer.close();
   }
 
+  @Test
+  public void testColumnReader()
+      throws Exception {
+    try (ORCRecordReader orcRecordReader = (ORCRecordReader) createRecordReader(_dataFile)) {
+      int numRecords = _records.size();
+      assertEquals(orcRecordReader.getNumRecords(), numRecords);
+      assertNull(orcRecordReader.getColumnReader("nonExisting"));
+
+      GenericRow[] rows = new GenericRow[numRecords];
+      for (int i = 0; i < numRecords; i++) {
+        rows[i] = orcRecordReader.next();
+      }
+      for (FieldSpec fieldSpec : _pinotSchema.getAllFieldSpecs()) {
+        String column = fieldSpec.getName();
+        try (ColumnReader columnReader = orcRecordReader.getColumnReader(column)) {
+          // Read twice to also verify rewind
+          for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < numRecords; i++) {
+              assertTrue(columnReader.hasNext());
+              Object value = columnReader.next();
+              if (fieldSpec.isSingleValueField()) {
+                assertEquals(value, rows[i].getValue(column));
+              } else {
+                assertEquals((Object[]) value, (Object[]) rows[i].getValue(column));
+              }
+            }
+            assertFalse(columnReader.hasNext());
+            columnReader.rewind();
+          }
+        }
+      }
+    }
+  }
+
   @Override
   protected String getDataFileName() {
     return "data.orc";
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
+import org.apache.parquet.column.ColumnReader;
 import org.apache.parquet.example.data.Group;
 import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.GroupType;
@@ -124,6 +125,15 @@ public class ParquetNativeRecordExtractor extends BaseRecordExtractor<Group> {
     return to;
   }
 
+  /**
+   * Extracts the value of a single field from the given {@link Group}, in the same format as {@link #extract}.
+   */
+  @Nullable
+  public Object extractField(Group from, int fieldIndex) {
+    Object value = extractValue(from, fieldIndex);
+    return value != null ? convert(value) : null;
+  }
+
   private Object extractValue(Group from, int fieldIndex) {
     int valueCount = from.getFieldRepetitionCount(fieldIndex);
     Type fieldType = from.getType().getType(fieldIndex);
@@ -147,21 +157,9 @@ public class ParquetNativeRecordExtractor extends BaseRecordExtractor<Group> {
       PrimitiveType.PrimitiveTypeName primitiveTypeName = fieldType.asPrimitiveType().getPrimitiveTypeName();
       switch (primitiveTypeName) {
         case INT32:
-          int intValue = from.getInteger(fieldIndex, index);
-          if (logicalTypeAnnotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) {
-            LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimalLogicalTypeAnnotation =
-                (LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) logicalTypeAnnotation;
-            return BigDecimal.valueOf(intValue, decimalLogicalTypeAnnotation.getScale());
-          }
-          return intValue;
+          return convertInt(from.getInteger(fieldIndex, index), logicalTypeAnnotation);
         case INT64:
-          long longValue = from.getLong(fieldIndex, index);
-          if (logicalTypeAnnotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) {
-            LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimalLogicalTypeAnnotation =
-                (LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) logicalTypeAnnotation;
-            return BigDecimal.valueOf(longValue, decimalLogicalTypeAnnotation.getScale());
-          }
-          return longValue;
+          return convertLong(from.getLong(fieldIndex, index), logicalTypeAnnotation);
         case FLOAT:
           return from.getFloat(fieldIndex, index);
         case DOUBLE:
@@ -173,19 +171,7 @@ public class ParquetNativeRecordExtractor extends BaseRecordExtractor<Group> {
           return convertInt96ToLong(int96.getBytes());
         case BINARY:
         case FIXED_LEN_BYTE_ARRAY:
-          if (logicalTypeAnnotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) {
-            LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimalLogicalTypeAnnotation =
-                (LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) logicalTypeAnnotation;
-            return binaryToDecimal(from.getBinary(fieldIndex, index), decimalLogicalTypeAnnotation.getPrecision(),
-                decimalLogicalTypeAnnotation.getScale());
-          }
-          if (logicalTypeAnnotation instanceof LogicalTypeAnnotation.StringLogicalTypeAnnotation) {
-            return from.getValueToString(fieldIndex, index);
-          }
-          if (logicalTypeAnnotation instanceof LogicalTypeAnnotation.EnumLogicalTypeAnnotation) {
-            return from.getValueToString(fieldIndex, index);
-          }
-          return from.getBinary(fieldIndex, index).getBytes();
+          return convertBinary(from.getBinary(fieldIndex, index), logicalTypeAnnotation);
         default:
           throw new IllegalArgumentException(
               String.format("Unsupported field type: %s, primitive type: %s, logical type: %s", fieldType,
@@ -202,6 +188,79 @@ public class ParquetNativeRecordExtractor extends BaseRecordExtractor<Group> {
     return null;
   }
 
+  /**
+   * Extracts the current value of the given column reader for a non-repeated primitive field, in the same format as
+   * {@link #extract}. This allows reading the values of a primitive column without assembling a {@link Group} for each
+   * record.
+   */
+  @Nullable
+  public Object extractField(ColumnReader columnReader, PrimitiveType fieldType) {
+    LogicalTypeAnnotation logicalTypeAnnotation = fieldType.getLogicalTypeAnnotation();
+    PrimitiveType.PrimitiveTypeName primitiveTypeName = fieldType.getPrimitiveTypeName();
+    Object value;
+    switch (primitiveTypeName) {
+      case INT32:
+        value = convertInt(columnReader.getInteger(), logicalTypeAnnotation);
+        break;
+      case INT64:
+        value = convertLong(columnReader.getLong(), logicalTypeAnnotation);
+        break;
+      case FLOAT:
+        value = columnReader.getFloat();
+        break;
+      case DOUBLE:
+        value = columnReader.getDouble();
+        break;
+      case BOOLEAN:
+        value = Boolean.toString(columnReader.getBoolean());
+        break;
+      case INT96:
+        value = convertInt96ToLong(columnReader.getBinary().getBytes());
+        break;
+      case BINARY:
+      case FIXED_LEN_BYTE_ARRAY:
+        value = convertBinary(columnReader.getBinary(), logicalTypeAnnotation);
+        break;
+      default:
+        throw new IllegalArgumentException(
+            String.format("Unsupported field type: %s, primitive type: %s, logical type: %s", fieldType,
+                primitiveTypeName, logicalTypeAnnotation));
+    }
+    return convert(value);
+  }
+
+  private static Object convertInt(int intValue, @Nullable LogicalTypeAnnotation logicalTypeAnnotation) {
+    if (logicalTypeAnnotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) {
+      LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimalLogicalTypeAnnotation =
+          (LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) logicalTypeAnnotation;
+      return BigDecimal.valueOf(intValue, decimalLogicalTypeAnnotation.getScale());
+    }
+    return intValue;
+  }
+
+  private static Object convertLong(long longValue, @Nullable LogicalTypeAnnotation logicalTypeAnnotation) {
+    if (logicalTypeAnnotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) {
+      LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimalLogicalTypeAnnotation =
+          (LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) logicalTypeAnnotation;
+      return BigDecimal.valueOf(longValue, decimalLogicalTypeAnnotation.getScale());
+    }
+    return longValue;
+  }
+
+  private static Object convertBinary(Binary binaryValue, @Nullable LogicalTypeAnnotation logicalTypeAnnotation) {
+    if (logicalTypeAnnotation instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) {
+      LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimalLogicalTypeAnnotation =
+          (LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) logicalTypeAnnotation;
+      return binaryToDecimal(binaryValue, decimalLogicalTypeAnnotation.getPrecision(),
+          decimalLogicalTypeAnnotation.getScale());
+    }
+    if (logicalTypeAnnotation instanceof LogicalTypeAnnotation.StringLogicalTypeAnnotation
+        || logicalTypeAnnotation instanceof LogicalTypeAnnotation.EnumLogicalTypeAnnotation) {
+      return binaryValue.toStringUsingUTF8();
+    }
+    return binaryValue.getBytes();
+  }
+
   public static long convertInt96ToLong(byte[] int96Bytes) {
     ByteBuffer buf = ByteBuffer.wrap(int96Bytes).order(ByteOrder.LITTLE_ENDIAN);
     return (buf.getInt(8) - JULIAN_DAY_NUMBER_FOR_UNIX_EPOCH) * DateTimeConstants.MILLIS_PER_DAY
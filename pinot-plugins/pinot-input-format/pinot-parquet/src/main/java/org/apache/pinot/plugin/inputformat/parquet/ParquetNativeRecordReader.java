@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.plugin.inputformat.parquet;
 
+import com.google.common.base.Preconditions;
 import java.io.File;
 import java.io.IOException;
 import java.util.Set;
@@ -25,6 +26,8 @@ import javax.annotation.Nullable;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
 import org.apache.parquet.column.page.PageReadStore;
 import org.apache.parquet.example.data.Group;
 import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
@@ -33,18 +36,28 @@ import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.util.HadoopInputFile;
 import org.apache.parquet.io.ColumnIOFactory;
 import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.readers.ColumnReader;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
-import org.apache.pinot.spi.data.readers.RecordReader;
 import org.apache.pinot.spi.data.readers.RecordReaderConfig;
 import org.apache.pinot.spi.data.readers.RecordReaderUtils;
 
 
 /**
  * Record reader for Native Parquet file.
+ * <p>The values of a single column can be read with {@link #getColumnReader(String)}, which only reads the column
+ * chunks of the requested column from each row group. The values of the non-repeated primitive columns are decoded in
+ * batches directly from the column chunks, without assembling the records, and the numeric ones can also be read in
+ * primitive batches without boxing.
  */
-public class ParquetNativeRecordReader implements RecordReader {
+public class ParquetNativeRecordReader implements ColumnarRecordReader {
   private static final String EXTENSION = "parquet";
+  private static final int COLUMN_READER_BATCH_SIZE = 1024;
 
   private Path _dataFilePath;
   private ParquetNativeRecordExtractor _recordExtractor;
@@ -134,4 +147,307 @@ public class ParquetNativeRecordReader implements RecordReader {
       throws IOException {
     _parquetFileReader.close();
   }
+
+  @Override
+  public int getNumRecords() {
+    return Math.toIntExact(_parquetFileReader.getRecordCount());
+  }
+
+  @Nullable
+  @Override
+  public ColumnReader getColumnReader(String column)
+      throws IOException {
+    if (!_schema.containsField(column)) {
+      return null;
+    }
+    Type fieldType = _schema.getType(column);
+    MessageType fieldSchema = new MessageType(_schema.getName(), fieldType);
+    if (fieldType.isPrimitive() && !fieldType.isRepetition(Type.Repetition.REPEATED)) {
+      return new ParquetNativePrimitiveColumnReader(fieldSchema);
+    }
+    return new ParquetNativeColumnReader(fieldSchema);
+  }
+
+  /**
+   * Column reader for a non-repeated primitive field, which decodes the values from the column chunks in batches
+   * without assembling a {@link Group} for each record.
+   */
+  private class ParquetNativePrimitiveColumnReader implements ColumnReader {
+    private final MessageType _fieldSchema;
+    private final PrimitiveType _fieldType;
+    private final ColumnDescriptor _columnDescriptor;
+    private final int _maxDefinitionLevel;
+    private final DataType _primitiveBatchType;
+    private final Object[] _batch = new Object[COLUMN_READER_BATCH_SIZE];
+    private ParquetFileReader _fieldFileReader;
+    private org.apache.parquet.column.ColumnReader _fieldColumnReader;
+    private long _numRowsLeftInRowGroup;
+    private int _batchSize;
+    private int _batchIdx;
+
+    ParquetNativePrimitiveColumnReader(MessageType fieldSchema)
+        throws IOException {
+      _fieldSchema = fieldSchema;
+      _fieldType = fieldSchema.getType(0).asPrimitiveType();
+      _columnDescriptor = fieldSchema.getColumns().get(0);
+      _maxDefinitionLevel = _columnDescriptor.getMaxDefinitionLevel();
+      _primitiveBatchType = toPrimitiveBatchType(_fieldType);
+      open();
+    }
+
+    /**
+     * Returns the type of the values that can be read in primitive batches, i.e. the numeric values that need no
+     * conversion, or {@code null} otherwise.
+     */
+    @Nullable
+    private DataType toPrimitiveBatchType(PrimitiveType fieldType) {
+      if (fieldType.getLogicalTypeAnnotation() instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation) {
+        return null;
+      }
+      switch (fieldType.getPrimitiveTypeName()) {
+        case INT32:
+          return DataType.INT;
+        case INT64:
+          return DataType.LONG;
+        case FLOAT:
+          return DataType.FLOAT;
+        case DOUBLE:
+          return DataType.DOUBLE;
+        default:
+          return null;
+      }
+    }
+
+    private void open()
+        throws IOException {
+      _fieldFileReader =
+          ParquetFileReader.open(HadoopInputFile.fromPath(_dataFilePath, _hadoopConf), _parquetReadOptions);
+      _fieldFileReader.setRequestedSchema(_fieldSchema);
+      _numRowsLeftInRowGroup = 0;
+      _batchSize = 0;
+      _batchIdx = 0;
+    }
+
+    /**
+     * Moves to the next row group when all the rows of the current row group are read, and returns {@code false} if
+     * there is no more row to read.
+     */
+    private boolean prepareRowGroup()
+        throws IOException {
+      while (_numRowsLeftInRowGroup == 0) {
+        PageReadStore pageReadStore = _fieldFileReader.readNextRowGroup();
+        if (pageReadStore == null) {
+          return false;
+        }
+        ColumnReadStoreImpl columnReadStore =
+            new ColumnReadStoreImpl(pageReadStore, new GroupRecordConverter(_fieldSchema).getRootConverter(),
+                _fieldSchema, _fieldFileReader.getFooter().getFileMetaData().getCreatedBy());
+        _fieldColumnReader = columnReadStore.getColumnReader(_columnDescriptor);
+        _numRowsLeftInRowGroup = pageReadStore.getRowCount();
+      }
+      return true;
+    }
+
+    /**
+     * Decodes the next batch of values, and returns {@code false} if there is no more value to read.
+     */
+    private boolean readNextBatch()
+        throws IOException {
+      if (!prepareRowGroup()) {
+        return false;
+      }
+      // Non-repeated field has exactly one (possibly null) value per row
+      _batchSize = (int) Math.min(COLUMN_READER_BATCH_SIZE, _numRowsLeftInRowGroup);
+      for (int i = 0; i < _batchSize; i++) {
+        if (_fieldColumnReader.getCurrentDefinitionLevel() == _maxDefinitionLevel) {
+          _batch[i] = _recordExtractor.extractField(_fieldColumnReader, _fieldType);
+        } else {
+          _batch[i] = null;
+        }
+        _fieldColumnReader.consume();
+      }
+      _numRowsLeftInRowGroup -= _batchSize;
+      _batchIdx = 0;
+      return true;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (_batchIdx < _batchSize) {
+        return true;
+      }
+      try {
+        return readNextBatch();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Nullable
+    @Override
+    public Object next() {
+      return _batch[_batchIdx++];
+    }
+
+    @Nullable
+    @Override
+    public DataType getPrimitiveBatchType() {
+      return _primitiveBatchType;
+    }
+
+    /**
+     * Returns the number of values to read into the next primitive batch, which is bounded by the rows left in the
+     * current row group.
+     */
+    private int startPrimitiveBatch(DataType dataType, int maxNumValues)
+        throws IOException {
+      Preconditions.checkState(_primitiveBatchType == dataType, "Cannot read %s batch for column: %s of type: %s",
+          dataType, _columnDescriptor, _fieldType);
+      if (!prepareRowGroup()) {
+        return 0;
+      }
+      int numValues = (int) Math.min(maxNumValues, _numRowsLeftInRowGroup);
+      _numRowsLeftInRowGroup -= numValues;
+      return numValues;
+    }
+
+    @Override
+    public int nextIntBatch(int[] values, boolean[] nulls)
+        throws IOException {
+      int numValues = startPrimitiveBatch(DataType.INT, values.length);
+      for (int i = 0; i < numValues; i++) {
+        nulls[i] = _fieldColumnReader.getCurrentDefinitionLevel() != _maxDefinitionLevel;
+        if (!nulls[i]) {
+          values[i] = _fieldColumnReader.getInteger();
+        }
+        _fieldColumnReader.consume();
+      }
+      return numValues;
+    }
+
+    @Override
+    public int nextLongBatch(long[] values, boolean[] nulls)
+        throws IOException {
+      int numValues = startPrimitiveBatch(DataType.LONG, values.length);
+      for (int i = 0; i < numValues; i++) {
+        nulls[i] = _fieldColumnReader.getCurrentDefinitionLevel() != _maxDefinitionLevel;
+        if (!nulls[i]) {
+          values[i] = _fieldColumnReader.getLong();
+        }
+        _fieldColumnReader.consume();
+      }
+      return numValues;
+    }
+
+    @Override
+    public int nextFloatBatch(float[] values, boolean[] nulls)
+        throws IOException {
+      int numValues = startPrimitiveBatch(DataType.FLOAT, values.length);
+      for (int i = 0; i < numValues; i++) {
+        nulls[i] = _fieldColumnReader.getCurrentDefinitionLevel() != _maxDefinitionLevel;
+        if (!nulls[i]) {
+          values[i] = _fieldColumnReader.getFloat();
+        }
+        _fieldColumnReader.consume();
+      }
+      return numValues;
+    }
+
+    @Override
+    public int nextDoubleBatch(double[] values, boolean[] nulls)
+        throws IOException {
+      int numValues = startPrimitiveBatch(DataType.DOUBLE, values.length);
+      for (int i = 0; i < numValues; i++) {
+        nulls[i] = _fieldColumnReader.getCurrentDefinitionLevel() != _maxDefinitionLevel;
+        if (!nulls[i]) {
+          values[i] = _fieldColumnReader.getDouble();
+        }
+        _fieldColumnReader.consume();
+      }
+      return numValues;
+    }
+
+    @Override
+    public void rewind()
+        throws IOException {
+      _fieldFileReader.close();
+      open();
+    }
+
+    @Override
+    public void close()
+        throws IOException {
+      _fieldFileReader.close();
+    }
+  }
+
+  /**
+   * Column reader that projects the file to a single field, so that only the column chunks of the field are read.
+   */
+  private class ParquetNativeColumnReader implements ColumnReader {
+    private final MessageType _fieldSchema;
+    private final MessageColumnIO _fieldColumnIO;
+    private ParquetFileReader _fieldFileReader;
+    private PageReadStore _fieldPageReadStore;
+    private org.apache.parquet.io.RecordReader<Group> _fieldRecordReader;
+    private long _fieldNextRowId;
+
+    ParquetNativeColumnReader(MessageType fieldSchema)
+        throws IOException {
+      _fieldSchema = fieldSchema;
+      _fieldColumnIO = new ColumnIOFactory().getColumnIO(fieldSchema);
+      open();
+    }
+
+    private void open()
+        throws IOException {
+      _fieldFileReader =
+          ParquetFileReader.open(HadoopInputFile.fromPath(_dataFilePath, _hadoopConf), _parquetReadOptions);
+      _fieldFileReader.setRequestedSchema(_fieldSchema);
+      readNextRowGroup();
+    }
+
+    private void readNextRowGroup()
+        throws IOException {
+      _fieldPageReadStore = _fieldFileReader.readNextRowGroup();
+      if (_fieldPageReadStore != null) {
+        _fieldRecordReader =
+            _fieldColumnIO.getRecordReader(_fieldPageReadStore, new GroupRecordConverter(_fieldSchema));
+        _fieldNextRowId = 0;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (_fieldPageReadStore != null && _fieldNextRowId >= _fieldPageReadStore.getRowCount()) {
+          readNextRowGroup();
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      return _fieldPageReadStore != null;
+    }
+
+    @Nullable
+    @Override
+    public Object next() {
+      Group group = _fieldRecordReader.read();
+      _fieldNextRowId++;
+      return _recordExtractor.extractField(group, 0);
+    }
+
+    @Override
+    public void rewind()
+        throws IOException {
+      _fieldFileReader.close();
+      open();
+    }
+
+    @Override
+    public void close()
+        throws IOException {
+      _fieldFileReader.close();
+    }
+  }
 }
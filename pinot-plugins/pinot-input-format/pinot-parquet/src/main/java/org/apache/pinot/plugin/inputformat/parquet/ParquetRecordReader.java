@@ -23,6 +23,8 @@ import java.io.IOException;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.hadoop.fs.Path;
+import org.apache.pinot.spi.data.readers.ColumnReader;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.RecordReader;
 import org.apache.pinot.spi.data.readers.RecordReaderConfig;
@@ -32,8 +34,9 @@ import org.apache.pinot.spi.data.readers.RecordReaderUtils;
 /**
  * Pinot Record reader for Parquet file.<p>
  * It has two implementations: {@link ParquetAvroRecordReader} (Default) and {@link ParquetNativeRecordReader}.
+ * Column readers are only supported with {@link ParquetNativeRecordReader}.
  */
-public class ParquetRecordReader implements RecordReader {
+public class ParquetRecordReader implements ColumnarRecordReader {
   private static final String EXTENSION = "parquet";
 
   private RecordReader _internalParquetRecordReader;
@@ -84,6 +87,32 @@ public class ParquetRecordReader implements RecordReader {
     _internalParquetRecordReader.close();
   }
 
+  @Override
+  public boolean isColumnReaderSupported() {
+    return _internalParquetRecordReader instanceof ColumnarRecordReader;
+  }
+
+  @Override
+  public int getNumRecords()
+      throws IOException {
+    return getColumnarRecordReader().getNumRecords();
+  }
+
+  @Nullable
+  @Override
+  public ColumnReader getColumnReader(String column)
+      throws IOException {
+    return getColumnarRecordReader().getColumnReader(column);
+  }
+
+  private ColumnarRecordReader getColumnarRecordReader() {
+    if (!(_internalParquetRecordReader instanceof ColumnarRecordReader)) {
+      throw new UnsupportedOperationException(
+          "Column reader is not supported by: " + _internalParquetRecordReader.getClass().getSimpleName());
+    }
+    return (ColumnarRecordReader) _internalParquetRecordReader;
+  }
+
   public boolean useAvroParquetRecordReader() {
     return _useAvroParquetRecordReader;
   }
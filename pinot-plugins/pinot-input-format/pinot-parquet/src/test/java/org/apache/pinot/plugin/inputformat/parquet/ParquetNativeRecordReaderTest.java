@@ -30,7 +30,15 @@ import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.pinot.plugin.inputformat.avro.AvroUtils;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.readers.AbstractRecordReaderTest;
+import org.apache.pinot.spi.data.readers.ColumnReader;
+import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.RecordReader;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 
 public class ParquetNativeRecordReaderTest extends AbstractRecordReaderTest {
@@ -63,6 +71,123 @@ public class ParquetNativeRecordReaderTest extends AbstractRecordReaderTest {
     }
   }
 
+  @Test
+  public void testColumnReader()
+      throws Exception {
+    try (ParquetNativeRecordReader recordReader = (ParquetNativeRecordReader) createRecordReader(_dataFile)) {
+      int numRecords = _records.size();
+      assertEquals(recordReader.getNumRecords(), numRecords);
+      assertNull(recordReader.getColumnReader("nonExisting"));
+
+      GenericRow[] rows = new GenericRow[numRecords];
+      for (int i = 0; i < numRecords; i++) {
+        rows[i] = recordReader.next();
+      }
+      // Single-value columns are decoded in batches from the column chunks, multi-value columns from the records
+      for (FieldSpec fieldSpec : _pinotSchema.getAllFieldSpecs()) {
+        String column = fieldSpec.getName();
+        try (ColumnReader columnReader = recordReader.getColumnReader(column)) {
+          // Read twice to also verify rewind
+          for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < numRecords; i++) {
+              assertTrue(columnReader.hasNext());
+              Object value = columnReader.next();
+              if (fieldSpec.isSingleValueField()) {
+                assertEquals(value, rows[i].getValue(column));
+              } else {
+                assertEquals((Object[]) value, (Object[]) rows[i].getValue(column));
+              }
+            }
+            assertFalse(columnReader.hasNext());
+            columnReader.rewind();
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testPrimitiveBatch()
+      throws Exception {
+    try (ParquetNativeRecordReader recordReader = (ParquetNativeRecordReader) createRecordReader(_dataFile)) {
+      int numRecords = _records.size();
+      GenericRow[] rows = new GenericRow[numRecords];
+      for (int i = 0; i < numRecords; i++) {
+        rows[i] = recordReader.next();
+      }
+      for (FieldSpec fieldSpec : _pinotSchema.getAllFieldSpecs()) {
+        String column = fieldSpec.getName();
+        try (ColumnReader columnReader = recordReader.getColumnReader(column)) {
+          FieldSpec.DataType dataType = fieldSpec.getDataType();
+          if (!fieldSpec.isSingleValueField() || dataType == FieldSpec.DataType.STRING) {
+            assertNull(columnReader.getPrimitiveBatchType());
+            continue;
+          }
+          assertEquals(columnReader.getPrimitiveBatchType(), dataType);
+          // Use a batch size not aligned with the number of records, and read twice to also verify rewind
+          int batchSize = 7;
+          boolean[] nulls = new boolean[batchSize];
+          for (int pass = 0; pass < 2; pass++) {
+            int numValuesRead = 0;
+            while (true) {
+              Object[] values = new Object[batchSize];
+              int numValues;
+              switch (dataType) {
+                case INT: {
+                  int[] batch = new int[batchSize];
+                  numValues = columnReader.nextIntBatch(batch, nulls);
+                  for (int i = 0; i < numValues; i++) {
+                    values[i] = batch[i];
+                  }
+                  break;
+                }
+                case LONG: {
+                  long[] batch = new long[batchSize];
+                  numValues = columnReader.nextLongBatch(batch, nulls);
+                  for (int i = 0; i < numValues; i++) {
+                    values[i] = batch[i];
+                  }
+                  break;
+                }
+                case FLOAT: {
+                  float[] batch = new float[batchSize];
+                  numValues = columnReader.nextFloatBatch(batch, nulls);
+                  for (int i = 0; i < numValues; i++) {
+                    values[i] = batch[i];
+                  }
+                  break;
+                }
+                case DOUBLE: {
+                  double[] batch = new double[batchSize];
+                  numValues = columnReader.nextDoubleBatch(batch, nulls);
+                  for (int i = 0; i < numValues; i++) {
+                    values[i] = batch[i];
+                  }
+                  break;
+                }
+                default:
+                  throw new IllegalStateException("Unexpected data type: " + dataType);
+              }
+              if (numValues == 0) {
+                break;
+              }
+              for (int i = 0; i < numValues; i++) {
+                Object expected = rows[numValuesRead + i].getValue(column);
+                assertEquals(nulls[i], expected == null);
+                if (expected != null) {
+                  assertEquals(values[i], expected);
+                }
+              }
+              numValuesRead += numValues;
+            }
+            assertEquals(numValuesRead, numRecords);
+            columnReader.rewind();
+          }
+        }
+      }
+    }
+  }
+
   @Override
   protected String getDataFileName() {
     return "data.parquet";
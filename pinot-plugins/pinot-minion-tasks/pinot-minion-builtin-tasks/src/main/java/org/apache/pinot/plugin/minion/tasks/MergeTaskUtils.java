@@ -150,6 +150,14 @@ public class MergeTaskUtils {
     if (segmentMapperFileSizeThreshold != null) {
       segmentConfigBuilder.setIntermediateFileSizeThreshold(Long.parseLong(segmentMapperFileSizeThreshold));
     }
+    String numThreads = taskConfig.get(MergeTask.SEGMENT_PROCESSOR_NUM_THREADS_KEY);
+    if (numThreads != null) {
+      segmentConfigBuilder.setNumThreads(Integer.parseInt(numThreads));
+    }
+    String memoryBudgetInBytes = taskConfig.get(MergeTask.SEGMENT_PROCESSOR_MEMORY_BUDGET_IN_BYTES_KEY);
+    if (memoryBudgetInBytes != null) {
+      segmentConfigBuilder.setMemoryBudgetInBytes(Long.parseLong(memoryBudgetInBytes));
+    }
     segmentConfigBuilder.setSegmentNamePrefix(taskConfig.get(MergeTask.SEGMENT_NAME_PREFIX_KEY));
     segmentConfigBuilder.setSegmentNamePostfix(taskConfig.get(MergeTask.SEGMENT_NAME_POSTFIX_KEY));
     segmentConfigBuilder.setFixedSegmentName(taskConfig.get(MergeTask.FIXED_SEGMENT_NAME_KEY));
@@ -19,10 +19,13 @@
 package org.apache.pinot.plugin.minion.tasks.mergerollup;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -34,6 +37,8 @@ import org.I0Itec.zkclient.exception.ZkException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.helix.task.TaskState;
 import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.common.lineage.LineageEntry;
+import org.apache.pinot.common.lineage.LineageEntryState;
 import org.apache.pinot.common.lineage.SegmentLineage;
 import org.apache.pinot.common.lineage.SegmentLineageUtils;
 import org.apache.pinot.common.metadata.segment.SegmentPartitionMetadata;
@@ -47,6 +52,7 @@ import org.apache.pinot.core.common.MinionConstants;
 import org.apache.pinot.core.common.MinionConstants.MergeRollupTask;
 import org.apache.pinot.core.common.MinionConstants.MergeTask;
 import org.apache.pinot.core.minion.PinotTaskConfig;
+import org.apache.pinot.core.segment.processing.framework.MergeType;
 import org.apache.pinot.plugin.minion.tasks.MergeTaskUtils;
 import org.apache.pinot.plugin.minion.tasks.MinionTaskUtils;
 import org.apache.pinot.plugin.minion.tasks.mergerollup.segmentgroupmananger.MergeRollupTaskSegmentGroupManagerProvider;
@@ -113,6 +119,10 @@ import org.slf4j.LoggerFactory;
  *        - If there's no spilled over segments (segments spanning multiple time buckets), schedule buckets in parallel
  *        - Else, schedule buckets till the first one that has spilled over data (included), so the spilled over data
  *          will be merged next round
+ *      - If incremental merge is enabled, only keep the unmerged segments for the buckets that already have merged
+ *        segments, so that the output is appended to the bucket instead of re-merging the whole bucket. The whole
+ *        bucket is re-merged once it accumulates maxNumMergedSegmentsPerBucket merged segments. Segments being merged
+ *        by incomplete tasks or in-progress segment replacements are skipped
  *      - Create the tasks for the current bucket (and per partition for partitioned tables) based on
  *        maxNumRecordsPerTask
  */
@@ -122,6 +132,7 @@ public class MergeRollupTaskGenerator extends BaseTaskGenerator {
 
   private static final int DEFAULT_MAX_NUM_RECORDS_PER_TASK = 50_000_000;
   private static final int DEFAULT_NUM_PARALLEL_BUCKETS = 1;
+  private static final int DEFAULT_MAX_NUM_MERGED_SEGMENTS_PER_BUCKET = 10;
   private static final String REFRESH = "REFRESH";
   private static final String DELIMITER_IN_SEGMENT_NAME = "_";
 
@@ -207,12 +218,26 @@ public class MergeRollupTaskGenerator extends BaseTaskGenerator {
       sortedMergeLevelConfigs.sort(Comparator.comparingLong(
           e -> TimeUtils.convertPeriodToMillis(e.getValue().get(MinionConstants.MergeTask.BUCKET_TIME_PERIOD_KEY))));
 
-      // Get incomplete merge levels
+      // Get incomplete merge levels, and the segments being merged by the incomplete tasks or the in-progress segment
+      // replacements (e.g. left behind by a failed task), which should not be merged again by the incremental merge
       Set<String> inCompleteMergeLevels = new HashSet<>();
+      Set<String> segmentsInMerge = new HashSet<>();
       for (Map.Entry<String, TaskState> entry : TaskGeneratorUtils.getIncompleteTasks(taskType, tableNameWithType,
           _clusterInfoAccessor).entrySet()) {
         for (PinotTaskConfig taskConfig : _clusterInfoAccessor.getTaskConfigs(entry.getKey())) {
           inCompleteMergeLevels.add(taskConfig.getConfigs().get(MergeRollupTask.MERGE_LEVEL_KEY));
+          String segmentNames = taskConfig.getConfigs().get(MinionConstants.SEGMENT_NAME_KEY);
+          if (segmentNames != null) {
+            segmentsInMerge.addAll(
+                Arrays.asList(StringUtils.split(segmentNames, MinionConstants.SEGMENT_NAME_SEPARATOR)));
+          }
+        }
+      }
+      if (segmentLineage != null) {
+        for (LineageEntry lineageEntry : segmentLineage.getLineageEntries().values()) {
+          if (lineageEntry.getState() == LineageEntryState.IN_PROGRESS) {
+            segmentsInMerge.addAll(lineageEntry.getSegmentsFrom());
+          }
         }
       }
 
@@ -402,6 +427,27 @@ public class MergeRollupTaskGenerator extends BaseTaskGenerator {
               bucketMs);
         }
 
+        // For incremental merge, skip the merged segments in the buckets unless there are too many of them. DEDUP
+        // always re-merges the whole bucket, because the duplicates across the merged segments cannot be removed
+        // otherwise.
+        if (isIncrementalMerge(mergeConfigs)) {
+          String maxNumMergedSegmentsPerBucketStr =
+              mergeConfigs.get(MergeRollupTask.MAX_NUM_MERGED_SEGMENTS_PER_BUCKET_KEY);
+          int maxNumMergedSegmentsPerBucket =
+              maxNumMergedSegmentsPerBucketStr != null ? Integer.parseInt(maxNumMergedSegmentsPerBucketStr)
+                  : DEFAULT_MAX_NUM_MERGED_SEGMENTS_PER_BUCKET;
+          List<List<SegmentZKMetadata>> incrementalSegmentsForAllBuckets = new ArrayList<>();
+          for (List<SegmentZKMetadata> selectedSegmentsPerBucket : selectedSegmentsForAllBuckets) {
+            List<SegmentZKMetadata> incrementalSegments =
+                selectSegmentsForIncrementalMerge(selectedSegmentsPerBucket, tableNameWithType, mergeLevel,
+                    sortedMergeLevels, bucketMs, segmentsInMerge, maxNumMergedSegmentsPerBucket);
+            if (!incrementalSegments.isEmpty()) {
+              incrementalSegmentsForAllBuckets.add(incrementalSegments);
+            }
+          }
+          selectedSegmentsForAllBuckets = incrementalSegmentsForAllBuckets;
+        }
+
         // Create task configs
         int maxNumRecordsPerTask =
             mergeConfigs.get(MergeRollupTask.MAX_NUM_RECORDS_PER_TASK_KEY) != null ? Integer.parseInt(
@@ -530,6 +576,24 @@ public class MergeRollupTaskGenerator extends BaseTaskGenerator {
   /**
    * Validate table config for merge/rollup task
    */
+  private static boolean isIncrementalMerge(Map<String, String> mergeConfigs) {
+    return Boolean.parseBoolean(mergeConfigs.get(MergeRollupTask.INCREMENTAL_MERGE_KEY))
+        && !MergeType.DEDUP.name().equalsIgnoreCase(mergeConfigs.get(MergeTask.MERGE_TYPE_KEY));
+  }
+
+  @Override
+  public void validateTaskConfigs(TableConfig tableConfig, Map<String, String> taskConfigs) {
+    for (Map.Entry<String, Map<String, String>> entry : MergeRollupTaskUtils.getLevelToConfigMap(taskConfigs)
+        .entrySet()) {
+      Map<String, String> mergeConfigs = entry.getValue();
+      // Incremental merge only dedups the unmerged segments among themselves, which keeps the duplicates across the
+      // merged segments of the bucket
+      Preconditions.checkState(!Boolean.parseBoolean(mergeConfigs.get(MergeRollupTask.INCREMENTAL_MERGE_KEY))
+              || !MergeType.DEDUP.name().equalsIgnoreCase(mergeConfigs.get(MergeTask.MERGE_TYPE_KEY)),
+          "Incremental merge is not supported with DEDUP merge type for merge level: %s", entry.getKey());
+    }
+  }
+
   @VisibleForTesting
   static boolean validate(TableConfig tableConfig, String taskType) {
     String tableNameWithType = tableConfig.getTableName();
@@ -612,6 +676,60 @@ public class MergeRollupTaskGenerator extends BaseTaskGenerator {
     return false;
   }
 
+  /**
+   * Returns the segments to merge for a bucket with incremental merge enabled. When the bucket already has merged
+   * segments, only the unmerged segments are returned so that the merged segments are neither downloaded nor
+   * re-aggregated, and the output is appended to the bucket as an extra merged segment. Once the bucket accumulates
+   * {@code maxNumMergedSegmentsPerBucket} merged segments, all the segments are returned to compact the bucket.
+   *
+   * <p>The segments being merged by the incomplete tasks or the in-progress segment replacements are skipped, and only
+   * the merged segments of the current merge level that fit in the bucket are counted towards the threshold, because
+   * they are the appended outputs of the previous merges. An empty list is returned when all the unmerged segments of
+   * the bucket are already being merged.
+   */
+  private List<SegmentZKMetadata> selectSegmentsForIncrementalMerge(List<SegmentZKMetadata> segmentsForBucket,
+      String tableNameWithType, String mergeLevel, List<String> sortedMergeLevels, long bucketMs,
+      Set<String> segmentsInMerge, int maxNumMergedSegmentsPerBucket) {
+    Map<String, SegmentZKMetadata> eligibleSegmentMap = new LinkedHashMap<>();
+    for (SegmentZKMetadata segment : segmentsForBucket) {
+      if (!segmentsInMerge.contains(segment.getSegmentName())) {
+        eligibleSegmentMap.putIfAbsent(segment.getSegmentName(), segment);
+      }
+    }
+    List<SegmentZKMetadata> eligibleSegments = new ArrayList<>(eligibleSegmentMap.values());
+    List<SegmentZKMetadata> unmergedSegments = new ArrayList<>();
+    int numMergedSegments = 0;
+    for (SegmentZKMetadata segment : eligibleSegments) {
+      if (!isMergedSegment(segment, mergeLevel, sortedMergeLevels)) {
+        unmergedSegments.add(segment);
+      } else if (mergeLevel.equalsIgnoreCase(getMergeLevel(segment)) && !hasSpilledOverData(segment, bucketMs)) {
+        numMergedSegments++;
+      }
+    }
+    if (unmergedSegments.isEmpty()) {
+      LOGGER.info("Skipping bucket with all the unmerged segments being merged (table : {}, mergeLevel : {})",
+          tableNameWithType, mergeLevel);
+      return unmergedSegments;
+    }
+    if (numMergedSegments == 0) {
+      return eligibleSegments;
+    }
+    if (numMergedSegments >= maxNumMergedSegmentsPerBucket) {
+      LOGGER.info("Re-merging bucket with {} merged segments and {} unmerged segments (table : {}, mergeLevel : {})",
+          numMergedSegments, unmergedSegments.size(), tableNameWithType, mergeLevel);
+      return eligibleSegments;
+    }
+    LOGGER.info("Incrementally merging {} unmerged segments into bucket with {} merged segments (table : {}, "
+        + "mergeLevel : {})", unmergedSegments.size(), numMergedSegments, tableNameWithType, mergeLevel);
+    return unmergedSegments;
+  }
+
+  @Nullable
+  private static String getMergeLevel(SegmentZKMetadata segmentZKMetadata) {
+    Map<String, String> customMap = segmentZKMetadata.getCustomMap();
+    return customMap != null ? customMap.get(MergeRollupTask.SEGMENT_ZK_METADATA_MERGE_LEVEL_KEY) : null;
+  }
+
   /**
    * Check if the bucket end time is valid
    */
@@ -20,6 +20,7 @@ package org.apache.pinot.plugin.minion.tasks.mergerollup;
 
 import java.util.Map;
 import java.util.TreeMap;
+import org.apache.pinot.core.common.MinionConstants.MergeRollupTask;
 import org.apache.pinot.core.common.MinionConstants.MergeTask;
 
 
@@ -35,7 +36,9 @@ public class MergeRollupTaskUtils {
       MergeTask.MERGE_TYPE_KEY,
       MergeTask.MAX_NUM_RECORDS_PER_SEGMENT_KEY,
       MergeTask.MAX_NUM_RECORDS_PER_TASK_KEY,
-      MergeTask.MAX_NUM_PARALLEL_BUCKETS
+      MergeTask.MAX_NUM_PARALLEL_BUCKETS,
+      MergeRollupTask.INCREMENTAL_MERGE_KEY,
+      MergeRollupTask.MAX_NUM_MERGED_SEGMENTS_PER_BUCKET_KEY
   };
   //@formatter:on
 
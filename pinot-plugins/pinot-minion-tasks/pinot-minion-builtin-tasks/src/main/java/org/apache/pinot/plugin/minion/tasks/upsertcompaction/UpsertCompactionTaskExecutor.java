@@ -30,6 +30,7 @@ import org.apache.pinot.core.minion.PinotTaskConfig;
 import org.apache.pinot.plugin.minion.tasks.BaseSingleSegmentConversionExecutor;
 import org.apache.pinot.plugin.minion.tasks.MinionTaskUtils;
 import org.apache.pinot.plugin.minion.tasks.SegmentConversionResult;
+import org.apache.pinot.segment.local.segment.creator.impl.DocIdRemappingSegmentCompactor;
 import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
 import org.apache.pinot.segment.local.segment.readers.CompactedPinotSegmentRecordReader;
 import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
@@ -94,18 +95,29 @@ public class UpsertCompactionTaskExecutor extends BaseSingleSegmentConversionExe
           .build();
     }
 
-    int totalDocsAfterCompaction;
-    try (CompactedPinotSegmentRecordReader compactedRecordReader = new CompactedPinotSegmentRecordReader(indexDir,
-        validDocIds)) {
-      SegmentGeneratorConfig config = getSegmentGeneratorConfig(workingDir, tableConfig, segmentMetadata, segmentName,
-          getSchema(tableNameWithType));
-      SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
-      driver.init(config, compactedRecordReader);
-      driver.build();
-      totalDocsAfterCompaction = driver.getSegmentStats().getTotalDocCount();
+    Schema schema = getSchema(tableNameWithType);
+    File compactedSegmentFile = null;
+    int totalDocsAfterCompaction = validDocIds.getCardinality();
+    if (Boolean.parseBoolean(configs.get(MinionConstants.UpsertCompactionTask.REMAP_DOC_IDS))) {
+      boolean pruneDictionaries =
+          Boolean.parseBoolean(configs.get(MinionConstants.UpsertCompactionTask.PRUNE_UNUSED_DICTIONARY_ENTRIES));
+      compactedSegmentFile =
+          new DocIdRemappingSegmentCompactor(indexDir, validDocIds, tableConfig, schema, pruneDictionaries).compact(
+              workingDir);
+    }
+    if (compactedSegmentFile == null) {
+      try (CompactedPinotSegmentRecordReader compactedRecordReader = new CompactedPinotSegmentRecordReader(indexDir,
+          validDocIds)) {
+        SegmentGeneratorConfig config =
+            getSegmentGeneratorConfig(workingDir, tableConfig, segmentMetadata, segmentName, schema);
+        SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+        driver.init(config, compactedRecordReader);
+        driver.build();
+        totalDocsAfterCompaction = driver.getSegmentStats().getTotalDocCount();
+      }
+      compactedSegmentFile = new File(workingDir, segmentName);
     }
 
-    File compactedSegmentFile = new File(workingDir, segmentName);
     SegmentConversionResult result =
         new SegmentConversionResult.Builder().setFile(compactedSegmentFile).setTableNameWithType(tableNameWithType)
             .setSegmentName(segmentName).build();
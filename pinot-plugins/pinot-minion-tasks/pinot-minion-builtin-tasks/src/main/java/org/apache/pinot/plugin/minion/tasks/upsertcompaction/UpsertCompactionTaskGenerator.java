@@ -185,6 +185,13 @@ public class UpsertCompactionTaskGenerator extends BaseTaskGenerator {
         configs.put(MinionConstants.UPLOAD_URL_KEY, _clusterInfoAccessor.getVipUrl() + "/segments");
         configs.put(MinionConstants.ORIGINAL_SEGMENT_CRC_KEY, String.valueOf(segment.getCrc()));
         configs.put(UpsertCompactionTask.VALID_DOC_IDS_TYPE, validDocIdsType.toString());
+        for (String key : List.of(UpsertCompactionTask.REMAP_DOC_IDS,
+            UpsertCompactionTask.PRUNE_UNUSED_DICTIONARY_ENTRIES)) {
+          String value = taskConfigs.get(key);
+          if (value != null) {
+            configs.put(key, value);
+          }
+        }
         pinotTaskConfigs.add(new PinotTaskConfig(UpsertCompactionTask.TASK_TYPE, configs));
         numTasks++;
       }
@@ -179,6 +179,8 @@ public class MergeTaskUtilsTest {
     taskConfig.put(MergeTask.SEGMENT_NAME_POSTFIX_KEY, "myPostfix");
     taskConfig.put(MergeTask.FIXED_SEGMENT_NAME_KEY, "mySegment");
     taskConfig.put(MergeTask.SEGMENT_MAPPER_FILE_SIZE_IN_BYTES, "1000000000");
+    taskConfig.put(MergeTask.SEGMENT_PROCESSOR_NUM_THREADS_KEY, "4");
+    taskConfig.put(MergeTask.SEGMENT_PROCESSOR_MEMORY_BUDGET_IN_BYTES_KEY, "500000000");
     SegmentConfig segmentConfig = MergeTaskUtils.getSegmentConfig(taskConfig);
     assertEquals(segmentConfig.getMaxNumRecordsPerSegment(), 10000);
     assertEquals(segmentConfig.getSegmentNamePrefix(), "myPrefix");
@@ -186,15 +188,20 @@ public class MergeTaskUtilsTest {
     assertEquals(segmentConfig.getSegmentNamePostfix(), "myPostfix");
     assertEquals(segmentConfig.getFixedSegmentName(), "mySegment");
     assertEquals(segmentConfig.getIntermediateFileSizeThreshold(), 1000000000L);
+    assertEquals(segmentConfig.getNumThreads(), 4);
+    assertEquals(segmentConfig.getMemoryBudgetInBytes(), 500000000L);
     assertEquals(segmentConfig.toString(),
         "SegmentConfig{_maxNumRecordsPerSegment=10000, _segmentMapperFileSizeThresholdInBytes=1000000000, "
-            + "_segmentNamePrefix='myPrefix', _segmentNamePostfix='myPostfix', _fixedSegmentName='mySegment'}");
+            + "_segmentNamePrefix='myPrefix', _segmentNamePostfix='myPostfix', _fixedSegmentName='mySegment', "
+            + "_numThreads=4, _memoryBudgetInBytes=500000000}");
 
     segmentConfig = MergeTaskUtils.getSegmentConfig(Collections.emptyMap());
     assertEquals(segmentConfig.getMaxNumRecordsPerSegment(), SegmentConfig.DEFAULT_MAX_NUM_RECORDS_PER_SEGMENT);
     assertNull(segmentConfig.getSegmentNamePrefix());
     assertNull(segmentConfig.getSegmentNamePostfix());
     assertNull(segmentConfig.getFixedSegmentName());
+    assertEquals(segmentConfig.getNumThreads(), SegmentConfig.DEFAULT_NUM_THREADS);
+    assertEquals(segmentConfig.getMemoryBudgetInBytes(), SegmentConfig.DEFAULT_MEMORY_BUDGET_IN_BYTES);
   }
 
   @Test
@@ -65,6 +65,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 
 /**
@@ -635,6 +636,176 @@ public class MergeRollupTaskGeneratorTest {
     assertEquals(pinotTaskConfigs.size(), 0);
   }
 
+  /**
+   * Test incremental merge
+   */
+  @Test
+  public void testIncrementalMerge() {
+    Map<String, Map<String, String>> taskConfigsMap = new HashMap<>();
+    Map<String, String> tableTaskConfigs = new HashMap<>();
+    tableTaskConfigs.put("daily.mergeType", "rollup");
+    tableTaskConfigs.put("daily.bufferTimePeriod", "2d");
+    tableTaskConfigs.put("daily.bucketTimePeriod", "1d");
+    tableTaskConfigs.put("daily.maxNumRecordsPerSegment", "1000000");
+    tableTaskConfigs.put("daily.incrementalMerge", "true");
+    tableTaskConfigs.put("daily.maxNumMergedSegmentsPerBucket", "2");
+    taskConfigsMap.put(MinionConstants.MergeRollupTask.TASK_TYPE, tableTaskConfigs);
+    TableConfig offlineTableConfig = getTableConfig(TableType.OFFLINE, taskConfigsMap);
+
+    // Segment 1 is already merged into the bucket, segment 2 arrives late in the same bucket
+    String segmentName1 = "merged_testTable__1";
+    String segmentName2 = "testTable__2";
+    String segmentName3 = "merged_testTable__3";
+    SegmentZKMetadata metadata1 =
+        getSegmentZKMetadata(segmentName1, 86_400_000L, 90_000_000L, TimeUnit.MILLISECONDS, null);
+    metadata1.setCustomMap(ImmutableMap.of(MinionConstants.MergeRollupTask.SEGMENT_ZK_METADATA_MERGE_LEVEL_KEY, DAILY));
+    SegmentZKMetadata metadata2 =
+        getSegmentZKMetadata(segmentName2, 95_000_000L, 100_000_000L, TimeUnit.MILLISECONDS, null);
+    ClusterInfoAccessor mockClusterInfoProvide = mock(ClusterInfoAccessor.class);
+    when(mockClusterInfoProvide.getSegmentsZKMetadata(OFFLINE_TABLE_NAME)).thenReturn(
+        Lists.newArrayList(metadata1, metadata2));
+    mockMergeRollupTaskMetadataGetterAndSetter(mockClusterInfoProvide);
+    when(mockClusterInfoProvide.getIdealState(OFFLINE_TABLE_NAME)).thenReturn(
+        getIdealState(OFFLINE_TABLE_NAME, Lists.newArrayList(segmentName1, segmentName2)));
+    TreeMap<String, Long> waterMarkMap = new TreeMap<>();
+    waterMarkMap.put(DAILY, 86_400_000L);
+    mockClusterInfoProvide.setMinionTaskMetadata(new MergeRollupTaskMetadata(OFFLINE_TABLE_NAME, waterMarkMap),
+        MinionConstants.MergeRollupTask.TASK_TYPE, -1);
+
+    // Only the unmerged segment should be merged
+    MergeRollupTaskGenerator generator = new MergeRollupTaskGenerator();
+    generator.init(mockClusterInfoProvide);
+    List<PinotTaskConfig> pinotTaskConfigs = generator.generateTasks(Lists.newArrayList(offlineTableConfig));
+    assertEquals(pinotTaskConfigs.size(), 1);
+    checkPinotTaskConfig(pinotTaskConfigs.get(0).getConfigs(), segmentName2, DAILY, "rollup", "1d", null, "1000000");
+
+    // Re-merge the whole bucket when there are too many merged segments
+    SegmentZKMetadata metadata3 =
+        getSegmentZKMetadata(segmentName3, 90_000_000L, 95_000_000L, TimeUnit.MILLISECONDS, null);
+    metadata3.setCustomMap(ImmutableMap.of(MinionConstants.MergeRollupTask.SEGMENT_ZK_METADATA_MERGE_LEVEL_KEY, DAILY));
+    when(mockClusterInfoProvide.getSegmentsZKMetadata(OFFLINE_TABLE_NAME)).thenReturn(
+        Lists.newArrayList(metadata1, metadata3, metadata2));
+    when(mockClusterInfoProvide.getIdealState(OFFLINE_TABLE_NAME)).thenReturn(
+        getIdealState(OFFLINE_TABLE_NAME, Lists.newArrayList(segmentName1, segmentName2, segmentName3)));
+    pinotTaskConfigs = generator.generateTasks(Lists.newArrayList(offlineTableConfig));
+    assertEquals(pinotTaskConfigs.size(), 1);
+    checkPinotTaskConfig(pinotTaskConfigs.get(0).getConfigs(), segmentName1 + "," + segmentName3 + "," + segmentName2,
+        DAILY, "rollup", "1d", null, "1000000");
+  }
+
+  /**
+   * Test incremental merge with DEDUP merge type, which is rejected by the validation and re-merges the whole bucket
+   */
+  @Test
+  public void testIncrementalMergeWithDedup() {
+    Map<String, Map<String, String>> taskConfigsMap = new HashMap<>();
+    Map<String, String> tableTaskConfigs = new HashMap<>();
+    tableTaskConfigs.put("daily.mergeType", "dedup");
+    tableTaskConfigs.put("daily.bufferTimePeriod", "2d");
+    tableTaskConfigs.put("daily.bucketTimePeriod", "1d");
+    tableTaskConfigs.put("daily.maxNumRecordsPerSegment", "1000000");
+    tableTaskConfigs.put("daily.incrementalMerge", "true");
+    taskConfigsMap.put(MinionConstants.MergeRollupTask.TASK_TYPE, tableTaskConfigs);
+    TableConfig offlineTableConfig = getTableConfig(TableType.OFFLINE, taskConfigsMap);
+
+    MergeRollupTaskGenerator generator = new MergeRollupTaskGenerator();
+    try {
+      generator.validateTaskConfigs(offlineTableConfig, tableTaskConfigs);
+      fail("Incremental merge with DEDUP merge type should be rejected");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage().contains("DEDUP"));
+    }
+
+    // Segment 1 is already merged into the bucket, segment 2 arrives late in the same bucket
+    String segmentName1 = "merged_testTable__1";
+    String segmentName2 = "testTable__2";
+    SegmentZKMetadata metadata1 =
+        getSegmentZKMetadata(segmentName1, 86_400_000L, 90_000_000L, TimeUnit.MILLISECONDS, null);
+    metadata1.setCustomMap(ImmutableMap.of(MinionConstants.MergeRollupTask.SEGMENT_ZK_METADATA_MERGE_LEVEL_KEY, DAILY));
+    SegmentZKMetadata metadata2 =
+        getSegmentZKMetadata(segmentName2, 95_000_000L, 100_000_000L, TimeUnit.MILLISECONDS, null);
+    ClusterInfoAccessor mockClusterInfoProvide = mock(ClusterInfoAccessor.class);
+    when(mockClusterInfoProvide.getSegmentsZKMetadata(OFFLINE_TABLE_NAME)).thenReturn(
+        Lists.newArrayList(metadata1, metadata2));
+    mockMergeRollupTaskMetadataGetterAndSetter(mockClusterInfoProvide);
+    when(mockClusterInfoProvide.getIdealState(OFFLINE_TABLE_NAME)).thenReturn(
+        getIdealState(OFFLINE_TABLE_NAME, Lists.newArrayList(segmentName1, segmentName2)));
+    TreeMap<String, Long> waterMarkMap = new TreeMap<>();
+    waterMarkMap.put(DAILY, 86_400_000L);
+    mockClusterInfoProvide.setMinionTaskMetadata(new MergeRollupTaskMetadata(OFFLINE_TABLE_NAME, waterMarkMap),
+        MinionConstants.MergeRollupTask.TASK_TYPE, -1);
+
+    // The whole bucket should be re-merged to remove the duplicates across the segments
+    generator.init(mockClusterInfoProvide);
+    List<PinotTaskConfig> pinotTaskConfigs = generator.generateTasks(Lists.newArrayList(offlineTableConfig));
+    assertEquals(pinotTaskConfigs.size(), 1);
+    checkPinotTaskConfig(pinotTaskConfigs.get(0).getConfigs(), segmentName1 + "," + segmentName2, DAILY, "dedup",
+        "1d", null, "1000000");
+  }
+
+  /**
+   * Test incremental merge skipping the segments being merged, and only counting the merged segments of the bucket
+   */
+  @Test
+  public void testIncrementalMergeWithSegmentsInMerge() {
+    Map<String, Map<String, String>> taskConfigsMap = new HashMap<>();
+    Map<String, String> tableTaskConfigs = new HashMap<>();
+    tableTaskConfigs.put("daily.mergeType", "rollup");
+    tableTaskConfigs.put("daily.bufferTimePeriod", "2d");
+    tableTaskConfigs.put("daily.bucketTimePeriod", "1d");
+    tableTaskConfigs.put("daily.maxNumRecordsPerSegment", "1000000");
+    tableTaskConfigs.put("daily.incrementalMerge", "true");
+    tableTaskConfigs.put("daily.maxNumMergedSegmentsPerBucket", "2");
+    taskConfigsMap.put(MinionConstants.MergeRollupTask.TASK_TYPE, tableTaskConfigs);
+    TableConfig offlineTableConfig = getTableConfig(TableType.OFFLINE, taskConfigsMap);
+
+    // Segment 1 is merged into the bucket and listed twice, segment 2 is merged but spills over the previous bucket,
+    // segment 3 is unmerged, and segment 4 is unmerged but being replaced
+    String segmentName1 = "merged_testTable__1";
+    String segmentName2 = "merged_testTable__2";
+    String segmentName3 = "testTable__3";
+    String segmentName4 = "testTable__4";
+    SegmentZKMetadata metadata1 =
+        getSegmentZKMetadata(segmentName1, 86_400_000L, 90_000_000L, TimeUnit.MILLISECONDS, null);
+    metadata1.setCustomMap(ImmutableMap.of(MinionConstants.MergeRollupTask.SEGMENT_ZK_METADATA_MERGE_LEVEL_KEY, DAILY));
+    SegmentZKMetadata metadata2 =
+        getSegmentZKMetadata(segmentName2, 80_000_000L, 95_000_000L, TimeUnit.MILLISECONDS, null);
+    metadata2.setCustomMap(ImmutableMap.of(MinionConstants.MergeRollupTask.SEGMENT_ZK_METADATA_MERGE_LEVEL_KEY, DAILY));
+    SegmentZKMetadata metadata3 =
+        getSegmentZKMetadata(segmentName3, 95_000_000L, 100_000_000L, TimeUnit.MILLISECONDS, null);
+    SegmentZKMetadata metadata4 =
+        getSegmentZKMetadata(segmentName4, 100_000_000L, 105_000_000L, TimeUnit.MILLISECONDS, null);
+    ClusterInfoAccessor mockClusterInfoProvide = mock(ClusterInfoAccessor.class);
+    when(mockClusterInfoProvide.getSegmentsZKMetadata(OFFLINE_TABLE_NAME)).thenReturn(
+        Lists.newArrayList(metadata1, metadata1, metadata2, metadata3, metadata4));
+    mockMergeRollupTaskMetadataGetterAndSetter(mockClusterInfoProvide);
+    when(mockClusterInfoProvide.getIdealState(OFFLINE_TABLE_NAME)).thenReturn(getIdealState(OFFLINE_TABLE_NAME,
+        Lists.newArrayList(segmentName1, segmentName2, segmentName3, segmentName4)));
+    SegmentLineage segmentLineage = new SegmentLineage(OFFLINE_TABLE_NAME);
+    segmentLineage.addLineageEntry(SegmentLineageUtils.generateLineageEntryId(),
+        new LineageEntry(Collections.singletonList(segmentName4), Collections.singletonList("merged_testTable__5"),
+            LineageEntryState.IN_PROGRESS, 11111L));
+    when(mockClusterInfoProvide.getSegmentLineage(OFFLINE_TABLE_NAME)).thenReturn(segmentLineage);
+    TreeMap<String, Long> waterMarkMap = new TreeMap<>();
+    waterMarkMap.put(DAILY, 86_400_000L);
+    mockClusterInfoProvide.setMinionTaskMetadata(new MergeRollupTaskMetadata(OFFLINE_TABLE_NAME, waterMarkMap),
+        MinionConstants.MergeRollupTask.TASK_TYPE, -1);
+
+    // Only segment 1 counts as a merged segment of the bucket, so only segment 3 should be incrementally merged
+    MergeRollupTaskGenerator generator = new MergeRollupTaskGenerator();
+    generator.init(mockClusterInfoProvide);
+    List<PinotTaskConfig> pinotTaskConfigs = generator.generateTasks(Lists.newArrayList(offlineTableConfig));
+    assertEquals(pinotTaskConfigs.size(), 1);
+    checkPinotTaskConfig(pinotTaskConfigs.get(0).getConfigs(), segmentName3, DAILY, "rollup", "1d", null, "1000000");
+
+    // No task should be generated when all the unmerged segments are being replaced
+    segmentLineage.addLineageEntry(SegmentLineageUtils.generateLineageEntryId(),
+        new LineageEntry(Collections.singletonList(segmentName3), Collections.singletonList("merged_testTable__6"),
+            LineageEntryState.IN_PROGRESS, 11111L));
+    pinotTaskConfigs = generator.generateTasks(Lists.newArrayList(offlineTableConfig));
+    assertEquals(pinotTaskConfigs.size(), 0);
+  }
+
   /**
    * Tests for incomplete task
    */
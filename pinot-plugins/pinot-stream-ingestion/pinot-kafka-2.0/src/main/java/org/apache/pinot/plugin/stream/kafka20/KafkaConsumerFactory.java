@@ -19,6 +19,7 @@
 package org.apache.pinot.plugin.stream.kafka20;
 
 import org.apache.pinot.plugin.stream.kafka.KafkaConfigBackwardCompatibleUtils;
+import org.apache.pinot.plugin.stream.kafka.KafkaPartitionLevelStreamConfig;
 import org.apache.pinot.spi.stream.PartitionGroupConsumer;
 import org.apache.pinot.spi.stream.PartitionGroupConsumptionStatus;
 import org.apache.pinot.spi.stream.StreamConfig;
@@ -47,7 +48,10 @@ public class KafkaConsumerFactory extends StreamConsumerFactory {
   @Override
   public PartitionGroupConsumer createPartitionGroupConsumer(String clientId,
       PartitionGroupConsumptionStatus partitionGroupConsumptionStatus) {
-    return new KafkaPartitionLevelConsumer(clientId, _streamConfig,
-        partitionGroupConsumptionStatus.getPartitionGroupId());
+    int partition = partitionGroupConsumptionStatus.getPartitionGroupId();
+    if (new KafkaPartitionLevelStreamConfig(_streamConfig).isSharedConsumerEnabled()) {
+      return new KafkaSharedPartitionConsumer(_streamConfig, partition);
+    }
+    return new KafkaPartitionLevelConsumer(clientId, _streamConfig, partition);
   }
 }
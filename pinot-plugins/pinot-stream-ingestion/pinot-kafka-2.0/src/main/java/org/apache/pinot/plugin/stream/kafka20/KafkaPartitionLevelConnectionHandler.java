@@ -59,22 +59,27 @@ public abstract class KafkaPartitionLevelConnectionHandler {
     _clientId = clientId;
     _partition = partition;
     _topic = _config.getKafkaTopicName();
+    _consumer = createConsumer(getConsumerProperties(_clientId, streamConfig, _config));
+    _topicPartition = new TopicPartition(_topic, _partition);
+    _consumer.assign(Collections.singletonList(_topicPartition));
+  }
+
+  static Properties getConsumerProperties(String clientId, StreamConfig streamConfig,
+      KafkaPartitionLevelStreamConfig config) {
     Properties consumerProp = new Properties();
     consumerProp.putAll(streamConfig.getStreamConfigsMap());
-    consumerProp.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, _config.getBootstrapHosts());
+    consumerProp.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getBootstrapHosts());
     consumerProp.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
     consumerProp.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BytesDeserializer.class.getName());
-    if (_config.getKafkaIsolationLevel() != null) {
-      consumerProp.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, _config.getKafkaIsolationLevel());
+    if (config.getKafkaIsolationLevel() != null) {
+      consumerProp.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, config.getKafkaIsolationLevel());
     }
-    consumerProp.put(ConsumerConfig.CLIENT_ID_CONFIG, _clientId);
+    consumerProp.put(ConsumerConfig.CLIENT_ID_CONFIG, clientId);
     KafkaSSLUtils.initSSL(consumerProp);
-    _consumer = createConsumer(consumerProp);
-    _topicPartition = new TopicPartition(_topic, _partition);
-    _consumer.assign(Collections.singletonList(_topicPartition));
+    return consumerProp;
   }
 
-  private Consumer<String, Bytes> createConsumer(Properties consumerProp) {
+  static Consumer<String, Bytes> createConsumer(Properties consumerProp) {
     // Creation of the KafkaConsumer can fail for multiple reasons including DNS issues.
     // We arbitrarily chose 5 retries with 2 seconds sleep in between retries. 10 seconds total felt
     // like a good balance of not waiting too long for a retry, but also not retrying too many times.
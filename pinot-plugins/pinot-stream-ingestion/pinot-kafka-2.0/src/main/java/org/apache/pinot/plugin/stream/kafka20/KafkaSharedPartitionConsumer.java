@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.stream.kafka20;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.pinot.plugin.stream.kafka.KafkaMessageBatch;
+import org.apache.pinot.plugin.stream.kafka.KafkaMultiPartitionFetcher.TopicPartitionKey;
+import org.apache.pinot.plugin.stream.kafka.KafkaMultiPartitionFetcherPool;
+import org.apache.pinot.plugin.stream.kafka.KafkaPartitionLevelStreamConfig;
+import org.apache.pinot.spi.stream.LongMsgOffset;
+import org.apache.pinot.spi.stream.PartitionGroupConsumer;
+import org.apache.pinot.spi.stream.StreamConfig;
+import org.apache.pinot.spi.stream.StreamPartitionMsgOffset;
+
+
+/**
+ * Partition consumer fetching through a {@link KafkaMultiPartitionConsumer} shared with the other partitions consumed
+ * on the server from the same Kafka cluster with the same client settings, across tables and topics. The partitions are
+ * spread over a pool of {@link KafkaPartitionLevelStreamConfig#getSharedConsumerPoolSize()} consumers, which reduces
+ * the number of Kafka clients, broker connections and fetch buffers compared to one {@link KafkaPartitionLevelConsumer}
+ * per partition.
+ */
+public class KafkaSharedPartitionConsumer implements PartitionGroupConsumer {
+  private static final KafkaMultiPartitionFetcherPool<KafkaMultiPartitionConsumer> FETCHER_POOL =
+      new KafkaMultiPartitionFetcherPool<>();
+
+  private final KafkaPartitionLevelStreamConfig _config;
+  private final TopicPartitionKey _partition;
+  private final Map<String, String> _fetcherKey;
+  private final KafkaMultiPartitionConsumer _fetcher;
+  private boolean _closed;
+
+  public KafkaSharedPartitionConsumer(StreamConfig streamConfig, int partition) {
+    _config = new KafkaPartitionLevelStreamConfig(streamConfig);
+    _partition = new TopicPartitionKey(_config.getKafkaTopicName(), partition);
+    // The client id is assigned by the pool
+    Properties consumerProps = KafkaPartitionLevelConnectionHandler.getConsumerProperties("", streamConfig, _config);
+    _fetcherKey = getFetcherKey(consumerProps);
+    _fetcher = FETCHER_POOL.acquire(_fetcherKey, _partition, _config.getSharedConsumerPoolSize(),
+        clientId -> new KafkaMultiPartitionConsumer(clientId, consumerProps));
+  }
+
+  /**
+   * Returns the Kafka consumer configs (e.g. broker list, security and isolation level) out of the consumer properties,
+   * which decide whether the partitions can share a Kafka consumer. The other stream configs (e.g. topic, decoder and
+   * flush thresholds) are ignored by the Kafka consumer.
+   */
+  static Map<String, String> getFetcherKey(Properties consumerProps) {
+    Map<String, String> fetcherKey = new TreeMap<>();
+    for (String name : ConsumerConfig.configNames()) {
+      Object value = consumerProps.get(name);
+      if (value != null && !name.equals(ConsumerConfig.CLIENT_ID_CONFIG)) {
+        fetcherKey.put(name, value.toString());
+      }
+    }
+    return fetcherKey;
+  }
+
+  static KafkaMultiPartitionFetcherPool<KafkaMultiPartitionConsumer> getFetcherPool() {
+    return FETCHER_POOL;
+  }
+
+  @Override
+  public KafkaMessageBatch fetchMessages(StreamPartitionMsgOffset startMsgOffset, int timeoutMs) {
+    long startOffset = ((LongMsgOffset) startMsgOffset).getOffset();
+    List<ConsumerRecord<String, Bytes>> records = _fetcher.fetch(_partition, startOffset, timeoutMs);
+    return KafkaPartitionLevelConsumer.buildMessageBatch(records, startOffset, _config.isPopulateMetadata());
+  }
+
+  @Override
+  public synchronized void close()
+      throws IOException {
+    if (!_closed) {
+      _closed = true;
+      FETCHER_POOL.release(_fetcherKey, _fetcher, _partition);
+    }
+  }
+}
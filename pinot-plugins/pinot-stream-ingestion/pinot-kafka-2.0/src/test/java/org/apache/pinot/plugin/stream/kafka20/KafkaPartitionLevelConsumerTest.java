@@ -19,7 +19,9 @@
 package org.apache.pinot.plugin.stream.kafka20;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.TimeoutException;
@@ -27,6 +29,7 @@ import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.pinot.plugin.stream.kafka.KafkaMultiPartitionFetcherPool;
 import org.apache.pinot.plugin.stream.kafka.KafkaStreamConfigProperties;
 import org.apache.pinot.plugin.stream.kafka20.utils.MiniKafkaCluster;
 import org.apache.pinot.spi.stream.LongMsgOffset;
@@ -368,6 +371,76 @@ public class KafkaPartitionLevelConsumerTest {
     }
   }
 
+  @Test
+  public void testSharedConsumer()
+      throws Exception {
+    KafkaMultiPartitionFetcherPool<KafkaMultiPartitionConsumer> fetcherPool =
+        KafkaSharedPartitionConsumer.getFetcherPool();
+    int numFetchers = fetcherPool.getNumFetchers();
+
+    // The partitions of different tables and topics consumed from the same Kafka cluster should share a Kafka consumer
+    StreamConfig streamConfig1 = getSharedConsumerStreamConfig("table1_REALTIME", TEST_TOPIC_1);
+    StreamConfig streamConfig2 = getSharedConsumerStreamConfig("table2_REALTIME", TEST_TOPIC_2);
+    List<PartitionGroupConsumer> consumers = new ArrayList<>();
+    consumers.add(createSharedConsumer(streamConfig1, 0));
+    consumers.add(createSharedConsumer(streamConfig2, 0));
+    consumers.add(createSharedConsumer(streamConfig2, 1));
+    assertEquals(fetcherPool.getNumFetchers(), numFetchers + 1);
+    for (PartitionGroupConsumer consumer : consumers) {
+      assertTrue(consumer instanceof KafkaSharedPartitionConsumer);
+      assertConsumeAll(consumer);
+    }
+
+    // Another consumer of the same partition (e.g. for the next segment) should keep its own position
+    PartitionGroupConsumer otherConsumer = createSharedConsumer(streamConfig1, 0);
+    assertEquals(fetcherPool.getNumFetchers(), numFetchers + 2);
+    MessageBatch messageBatch = otherConsumer.fetchMessages(new LongMsgOffset(500), 10000);
+    assertEquals(messageBatch.getFirstMessageOffset().toString(), "500");
+    messageBatch = consumers.get(0).fetchMessages(new LongMsgOffset(10), 10000);
+    assertEquals(messageBatch.getFirstMessageOffset().toString(), "10");
+    assertEquals(new String((byte[]) messageBatch.getStreamMessage(0).getValue()), "sample_msg_10");
+    otherConsumer.close();
+    assertEquals(fetcherPool.getNumFetchers(), numFetchers + 1);
+
+    for (PartitionGroupConsumer consumer : consumers) {
+      consumer.close();
+    }
+    assertEquals(fetcherPool.getNumFetchers(), numFetchers);
+  }
+
+  private StreamConfig getSharedConsumerStreamConfig(String tableNameWithType, String topic) {
+    Map<String, String> streamConfigMap = new HashMap<>();
+    streamConfigMap.put("streamType", "kafka");
+    streamConfigMap.put("stream.kafka.topic.name", topic);
+    streamConfigMap.put("stream.kafka.broker.list", _kafkaBrokerAddress);
+    streamConfigMap.put("stream.kafka.consumer.type", "lowlevel");
+    streamConfigMap.put("stream.kafka.consumer.factory.class.name", getKafkaConsumerFactoryName());
+    streamConfigMap.put("stream.kafka.decoder.class.name", "decoderClass");
+    streamConfigMap.put(KafkaStreamConfigProperties.constructStreamProperty(
+        KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_SHARED_CONSUMER_ENABLE), "true");
+    return new StreamConfig(tableNameWithType, streamConfigMap);
+  }
+
+  private PartitionGroupConsumer createSharedConsumer(StreamConfig streamConfig, int partition) {
+    return StreamConsumerFactoryProvider.create(streamConfig).createPartitionGroupConsumer("clientId",
+        new PartitionGroupConsumptionStatus(partition, 0, new LongMsgOffset(0),
+            new LongMsgOffset(NUM_MSG_PRODUCED_PER_PARTITION), "CONSUMING"));
+  }
+
+  private void assertConsumeAll(PartitionGroupConsumer consumer)
+      throws TimeoutException {
+    long offset = 0;
+    while (offset < NUM_MSG_PRODUCED_PER_PARTITION) {
+      MessageBatch messageBatch = consumer.fetchMessages(new LongMsgOffset(offset), 10000);
+      assertTrue(messageBatch.getMessageCount() > 0);
+      for (int i = 0; i < messageBatch.getMessageCount(); i++) {
+        assertEquals(new String((byte[]) messageBatch.getStreamMessage(i).getValue()), "sample_msg_" + (offset + i));
+      }
+      offset = ((LongMsgOffset) messageBatch.getOffsetOfNextBatch()).getOffset();
+    }
+    assertEquals(offset, NUM_MSG_PRODUCED_PER_PARTITION);
+  }
+
   protected String getKafkaConsumerFactoryName() {
     return KafkaConsumerFactory.class.getName();
   }
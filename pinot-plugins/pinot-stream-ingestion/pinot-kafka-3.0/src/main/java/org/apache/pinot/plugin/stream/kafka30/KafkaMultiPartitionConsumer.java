@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.stream.kafka30;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.pinot.plugin.stream.kafka.KafkaMultiPartitionFetcher;
+
+
+/**
+ * {@link KafkaMultiPartitionFetcher} on top of a single Kafka consumer assigned with the partitions of multiple topics.
+ * The partitions not being fetched are paused before each poll so that only the requested partitions are fetched.
+ */
+public class KafkaMultiPartitionConsumer extends KafkaMultiPartitionFetcher<ConsumerRecord<String, Bytes>> {
+  private final Consumer<String, Bytes> _consumer;
+
+  public KafkaMultiPartitionConsumer(String clientId, Properties consumerProps) {
+    Properties clientConsumerProps = new Properties();
+    clientConsumerProps.putAll(consumerProps);
+    clientConsumerProps.put(ConsumerConfig.CLIENT_ID_CONFIG, clientId);
+    _consumer = KafkaPartitionLevelConnectionHandler.createConsumer(clientConsumerProps);
+  }
+
+  @Override
+  protected void assign(Set<TopicPartitionKey> partitions) {
+    List<TopicPartition> topicPartitions = new ArrayList<>(partitions.size());
+    for (TopicPartitionKey partition : partitions) {
+      topicPartitions.add(toTopicPartition(partition));
+    }
+    _consumer.assign(topicPartitions);
+  }
+
+  @Override
+  protected void seek(TopicPartitionKey partition, long offset) {
+    _consumer.seek(toTopicPartition(partition), offset);
+  }
+
+  @Override
+  protected Map<TopicPartitionKey, List<ConsumerRecord<String, Bytes>>> poll(Set<TopicPartitionKey> partitions,
+      int timeoutMs) {
+    if (partitions.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    List<TopicPartition> partitionsToPause = new ArrayList<>();
+    List<TopicPartition> partitionsToResume = new ArrayList<>();
+    for (TopicPartition topicPartition : _consumer.assignment()) {
+      if (partitions.contains(new TopicPartitionKey(topicPartition.topic(), topicPartition.partition()))) {
+        partitionsToResume.add(topicPartition);
+      } else {
+        partitionsToPause.add(topicPartition);
+      }
+    }
+    _consumer.pause(partitionsToPause);
+    _consumer.resume(partitionsToResume);
+
+    ConsumerRecords<String, Bytes> consumerRecords = _consumer.poll(Duration.ofMillis(timeoutMs));
+    Map<TopicPartitionKey, List<ConsumerRecord<String, Bytes>>> recordsMap = new HashMap<>();
+    for (TopicPartition topicPartition : consumerRecords.partitions()) {
+      recordsMap.put(new TopicPartitionKey(topicPartition.topic(), topicPartition.partition()),
+          consumerRecords.records(topicPartition));
+    }
+    return recordsMap;
+  }
+
+  @Override
+  protected long getOffset(ConsumerRecord<String, Bytes> record) {
+    return record.offset();
+  }
+
+  @Override
+  protected void closeClient()
+      throws IOException {
+    _consumer.close();
+  }
+
+  private static TopicPartition toTopicPartition(TopicPartitionKey partition) {
+    return new TopicPartition(partition.getTopic(), partition.getPartition());
+  }
+}
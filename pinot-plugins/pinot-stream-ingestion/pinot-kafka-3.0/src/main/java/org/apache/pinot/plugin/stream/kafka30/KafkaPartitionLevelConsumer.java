@@ -66,16 +66,27 @@ public class KafkaPartitionLevelConsumer extends KafkaPartitionLevelConnectionHa
 
     ConsumerRecords<String, Bytes> consumerRecords = _consumer.poll(Duration.ofMillis(timeoutMs));
     List<ConsumerRecord<String, Bytes>> records = consumerRecords.records(_topicPartition);
+    if (!records.isEmpty()) {
+      _lastFetchedOffset = records.get(records.size() - 1).offset();
+    }
+    return buildMessageBatch(records, startOffset, _config.isPopulateMetadata());
+  }
+
+  /**
+   * Builds the message batch from the records fetched for a partition starting from the given offset. Tombstone
+   * messages are filtered out but still accounted in the unfiltered message count and the offset of the next batch.
+   */
+  static KafkaMessageBatch buildMessageBatch(List<ConsumerRecord<String, Bytes>> records, long startOffset,
+      boolean populateMetadata) {
     List<BytesStreamMessage> filteredRecords = new ArrayList<>(records.size());
     long firstOffset = -1;
     long offsetOfNextBatch = startOffset;
     StreamMessageMetadata lastMessageMetadata = null;
     if (!records.isEmpty()) {
       firstOffset = records.get(0).offset();
-      _lastFetchedOffset = records.get(records.size() - 1).offset();
-      offsetOfNextBatch = _lastFetchedOffset + 1;
+      offsetOfNextBatch = records.get(records.size() - 1).offset() + 1;
       for (ConsumerRecord<String, Bytes> record : records) {
-        StreamMessageMetadata messageMetadata = extractMessageMetadata(record);
+        StreamMessageMetadata messageMetadata = extractMessageMetadata(record, populateMetadata);
         Bytes message = record.value();
         if (message != null) {
           String key = record.key();
@@ -92,14 +103,15 @@ public class KafkaPartitionLevelConsumer extends KafkaPartitionLevelConnectionHa
         firstOffset > startOffset);
   }
 
-  private StreamMessageMetadata extractMessageMetadata(ConsumerRecord<String, Bytes> record) {
+  private static StreamMessageMetadata extractMessageMetadata(ConsumerRecord<String, Bytes> record,
+      boolean populateMetadata) {
     long timestamp = record.timestamp();
     long offset = record.offset();
 
     StreamMessageMetadata.Builder builder = new StreamMessageMetadata.Builder().setRecordIngestionTimeMs(timestamp)
         .setOffset(new LongMsgOffset(offset), new LongMsgOffset(offset + 1))
         .setSerializedValueSize(record.serializedValueSize());
-    if (_config.isPopulateMetadata()) {
+    if (populateMetadata) {
       Headers headers = record.headers();
       if (headers != null) {
         GenericRow headerGenericRow = new GenericRow();
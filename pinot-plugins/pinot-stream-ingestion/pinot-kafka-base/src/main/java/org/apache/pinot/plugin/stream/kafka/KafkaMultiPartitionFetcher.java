@@ -0,0 +1,369 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.stream.kafka;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+
+/**
+ * Multiplexes the fetches of multiple topic partitions onto a single Kafka client, so that the partitions consumed on a
+ * server from the same Kafka cluster share the broker connections, fetch sessions and fetch buffers instead of opening
+ * one client per partition.
+ *
+ * <p>No extra thread is started: the underlying client is not thread-safe, so whichever partition consumer waits for
+ * records while no other one is polling becomes the poller. It applies the pending assignment and position changes,
+ * polls the client on behalf of all the partitions without holding the lock, and hands the polled records over to the
+ * per-partition buffers. The other partition consumers either pick up their buffered records, or wait for the ongoing
+ * poll. Partitions with buffered records are excluded from the polls (paused), which bounds the buffered records of
+ * each partition to a single poll.
+ *
+ * <p>The fetch state (buffered records and position) belongs to the partition consumer that registered the partition,
+ * so a partition can only be registered once per fetcher. {@link KafkaMultiPartitionFetcherPool} places the
+ * consumers of the same partition (e.g. the consumers of the committing and the new consuming segment) on different
+ * fetchers.
+ *
+ * <p>The version specific Kafka plugins implement the client operations on top of their Kafka consumer.
+ *
+ * @param <R> type of the records returned by the client
+ */
+public abstract class KafkaMultiPartitionFetcher<R> implements Closeable {
+  // Maximum timeout of each poll, which bounds the delay of applying the assignment and position changes requested by
+  // the other partition consumers while polling
+  static final int POLL_TIMEOUT_MS = 100;
+
+  private final Map<TopicPartitionKey, PartitionState<R>> _partitionStates = new HashMap<>();
+  private boolean _assignmentChanged;
+  private boolean _polling;
+  private boolean _closed;
+
+  /**
+   * Adds the partition to the assignment of the client.
+   */
+  public synchronized void register(TopicPartitionKey partition) {
+    Preconditions.checkState(!_closed, "Fetcher is closed");
+    Preconditions.checkState(!_partitionStates.containsKey(partition), "Partition: %s is already registered",
+        partition);
+    _partitionStates.put(partition, new PartitionState<>());
+    _assignmentChanged = true;
+  }
+
+  /**
+   * Returns whether the partition is registered to the fetcher.
+   */
+  public synchronized boolean isRegistered(TopicPartitionKey partition) {
+    return _partitionStates.containsKey(partition);
+  }
+
+  /**
+   * Removes the partition from the assignment of the client, and returns whether there is no partition left.
+   */
+  public synchronized boolean unregister(TopicPartitionKey partition) {
+    Preconditions.checkState(_partitionStates.remove(partition) != null, "Partition: %s is not registered", partition);
+    _assignmentChanged = true;
+    return _partitionStates.isEmpty();
+  }
+
+  /**
+   * Fetches the records of the partition starting from the given offset. The records already buffered are returned if
+   * they are contiguous with the given offset, otherwise the partition is repositioned and the records are waited for
+   * (or polled) within the given timeout. The first returned record can have a larger offset than the start offset when
+   * the records were removed from the topic (e.g. retention or compaction). Exceptions thrown when polling the
+   * partition are rethrown here.
+   */
+  public List<R> fetch(TopicPartitionKey partition, long startOffset, int timeoutMs) {
+    long deadlineMs = System.currentTimeMillis() + timeoutMs;
+    synchronized (this) {
+      PartitionState<R> partitionState = getPartitionState(partition);
+      if (partitionState._nextOffset != startOffset) {
+        partitionState._records = new ArrayList<>();
+        partitionState._nextOffset = startOffset;
+        partitionState._seekOffset = startOffset;
+        partitionState._generation++;
+      }
+    }
+    while (true) {
+      PollRequest pollRequest;
+      long remainingTimeMs;
+      synchronized (this) {
+        PartitionState<R> partitionState = getPartitionState(partition);
+        while (true) {
+          RuntimeException exception = partitionState._exception;
+          if (exception != null) {
+            partitionState._exception = null;
+            throw exception;
+          }
+          List<R> records = partitionState._records;
+          if (!records.isEmpty()) {
+            partitionState._records = new ArrayList<>();
+            partitionState._nextOffset = getOffset(records.get(records.size() - 1)) + 1;
+            return records;
+          }
+          remainingTimeMs = deadlineMs - System.currentTimeMillis();
+          if (_closed || remainingTimeMs <= 0) {
+            return Collections.emptyList();
+          }
+          if (!_polling) {
+            _polling = true;
+            pollRequest = createPollRequest();
+            break;
+          }
+          try {
+            wait(remainingTimeMs);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+          }
+        }
+      }
+      poll(pollRequest, (int) Math.min(remainingTimeMs, POLL_TIMEOUT_MS));
+    }
+  }
+
+  /**
+   * Returns the number of the partitions currently assigned to the client.
+   */
+  public synchronized int getNumPartitions() {
+    return _partitionStates.size();
+  }
+
+  private PartitionState<R> getPartitionState(TopicPartitionKey partition) {
+    PartitionState<R> partitionState = _partitionStates.get(partition);
+    Preconditions.checkState(partitionState != null, "Partition: %s is not registered", partition);
+    return partitionState;
+  }
+
+  /**
+   * Collects the pending assignment and position changes, and the partitions to poll (positioned partitions without
+   * buffered records). Must be called with the lock held.
+   */
+  private PollRequest createPollRequest() {
+    PollRequest pollRequest = new PollRequest();
+    if (_assignmentChanged) {
+      pollRequest._assignment = Collections.unmodifiableSet(new HashSet<>(_partitionStates.keySet()));
+      _assignmentChanged = false;
+    }
+    for (Map.Entry<TopicPartitionKey, PartitionState<R>> entry : _partitionStates.entrySet()) {
+      PartitionState<R> partitionState = entry.getValue();
+      if (partitionState._seekOffset >= 0) {
+        pollRequest._seekOffsets.put(entry.getKey(), partitionState._seekOffset);
+        partitionState._seekOffset = -1;
+      }
+      if (partitionState._records.isEmpty() && partitionState._exception == null && partitionState._nextOffset >= 0) {
+        pollRequest._generations.put(entry.getKey(), partitionState._generation);
+      }
+    }
+    return pollRequest;
+  }
+
+  /**
+   * Applies the poll request to the client without holding the lock, then hands the polled records or the exception
+   * over to the partitions and wakes up the waiting partition consumers.
+   */
+  private void poll(PollRequest pollRequest, int timeoutMs) {
+    Map<TopicPartitionKey, List<R>> polledRecords = Collections.emptyMap();
+    Exception pollException = null;
+    try {
+      if (pollRequest._assignment != null) {
+        assign(pollRequest._assignment);
+      }
+      for (Map.Entry<TopicPartitionKey, Long> entry : pollRequest._seekOffsets.entrySet()) {
+        seek(entry.getKey(), entry.getValue());
+      }
+      if (!pollRequest._generations.isEmpty()) {
+        polledRecords = poll(pollRequest._generations.keySet(), timeoutMs);
+      }
+    } catch (Exception e) {
+      pollException = e;
+    }
+
+    synchronized (this) {
+      try {
+        if (pollException != null) {
+          handlePollException(pollException, pollRequest);
+        } else {
+          for (Map.Entry<TopicPartitionKey, List<R>> entry : polledRecords.entrySet()) {
+            PartitionState<R> partitionState = getPolledPartitionState(entry.getKey(), pollRequest._generations);
+            if (partitionState != null && !entry.getValue().isEmpty()) {
+              partitionState._records = entry.getValue();
+            }
+          }
+        }
+      } finally {
+        _polling = false;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Hands the exception over to the partitions involved in the failed client operations. Their positions are reset so
+   * that the next fetch repositions the partition. The assignment is reapplied by the next poll.
+   */
+  private void handlePollException(Exception e, PollRequest pollRequest) {
+    RuntimeException exception = e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+    if (pollRequest._assignment != null) {
+      _assignmentChanged = true;
+    }
+    Set<TopicPartitionKey> partitions = new HashSet<>(pollRequest._seekOffsets.keySet());
+    partitions.addAll(pollRequest._generations.keySet());
+    for (TopicPartitionKey partition : partitions) {
+      PartitionState<R> partitionState = _partitionStates.get(partition);
+      // Ignore the partitions repositioned after the failure, which will be applied by the next poll
+      if (partitionState != null && partitionState._seekOffset < 0) {
+        partitionState._exception = exception;
+        partitionState._nextOffset = -1;
+      }
+    }
+  }
+
+  /**
+   * Returns the state of the polled partition, or {@code null} if the partition is unregistered or repositioned since
+   * the poll is issued, in which case the polled records should be discarded.
+   */
+  @Nullable
+  private PartitionState<R> getPolledPartitionState(TopicPartitionKey partition,
+      Map<TopicPartitionKey, Integer> generations) {
+    PartitionState<R> partitionState = _partitionStates.get(partition);
+    if (partitionState == null) {
+      return null;
+    }
+    Integer generation = generations.get(partition);
+    return generation != null && generation == partitionState._generation ? partitionState : null;
+  }
+
+  /**
+   * Waits for the ongoing poll and closes the client.
+   */
+  @Override
+  public void close()
+      throws IOException {
+    synchronized (this) {
+      _closed = true;
+      while (_polling) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+    closeClient();
+  }
+
+  /**
+   * Replaces the partitions assigned to the client.
+   */
+  protected abstract void assign(Set<TopicPartitionKey> partitions);
+
+  /**
+   * Positions the client for the partition at the given offset.
+   */
+  protected abstract void seek(TopicPartitionKey partition, long offset);
+
+  /**
+   * Polls the records of the given partitions within the timeout, and returns them grouped by partition in offset
+   * order. The other assigned partitions must not be fetched.
+   */
+  protected abstract Map<TopicPartitionKey, List<R>> poll(Set<TopicPartitionKey> partitions, int timeoutMs);
+
+  /**
+   * Returns the offset of the record.
+   */
+  protected abstract long getOffset(R record);
+
+  /**
+   * Closes the client. Called after the ongoing poll is finished.
+   */
+  protected abstract void closeClient()
+      throws IOException;
+
+  /**
+   * Version agnostic identifier of a topic partition.
+   */
+  public static final class TopicPartitionKey {
+    private final String _topic;
+    private final int _partition;
+
+    public TopicPartitionKey(String topic, int partition) {
+      _topic = topic;
+      _partition = partition;
+    }
+
+    public String getTopic() {
+      return _topic;
+    }
+
+    public int getPartition() {
+      return _partition;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof TopicPartitionKey)) {
+        return false;
+      }
+      TopicPartitionKey that = (TopicPartitionKey) o;
+      return _partition == that._partition && _topic.equals(that._topic);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_topic, _partition);
+    }
+
+    @Override
+    public String toString() {
+      return _topic + "-" + _partition;
+    }
+  }
+
+  private static class PollRequest {
+    // New assignment to apply, null if the assignment is not changed
+    Set<TopicPartitionKey> _assignment;
+    final Map<TopicPartitionKey, Long> _seekOffsets = new HashMap<>();
+    // Key: partition to poll, value: generation of the partition position when the poll is issued
+    final Map<TopicPartitionKey, Integer> _generations = new HashMap<>();
+  }
+
+  private static class PartitionState<R> {
+    // Offset of the next fetch contiguous with the returned records, -1 if the partition is not positioned yet
+    long _nextOffset = -1;
+    // Offset to position the client at before the next poll, -1 if no repositioning is pending
+    long _seekOffset = -1;
+    // Incremented on each repositioning, so that the records polled from a stale position can be discarded
+    int _generation;
+    List<R> _records = new ArrayList<>();
+    RuntimeException _exception;
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.stream.kafka;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.apache.pinot.plugin.stream.kafka.KafkaMultiPartitionFetcher.TopicPartitionKey;
+
+
+/**
+ * Server level pool of the {@link KafkaMultiPartitionFetcher}s shared by the partition consumers. The fetchers are
+ * grouped by a key identifying the Kafka client configuration (e.g. broker list and security settings), so that the
+ * partitions of all the tables and topics consumed from the same Kafka cluster with the same settings share the same
+ * clients. Each partition is placed on the fetcher with the fewest partitions among up to {@code poolSize} fetchers,
+ * and a fetcher is closed once its last partition is released.
+ *
+ * <p>The fetch state is per consumer, so when a partition is already registered to all the fetchers of the group
+ * (e.g. while the consumer of the committing segment and the one of the new segment overlap), an extra fetcher is
+ * created for it beyond the pool size, and closed once released.
+ */
+public class KafkaMultiPartitionFetcherPool<F extends KafkaMultiPartitionFetcher<?>> {
+  private final Map<Object, List<F>> _fetchersMap = new HashMap<>();
+  private int _numFetchersCreated;
+
+  /**
+   * Returns the fetcher for the partition with the partition registered. The fetcher is created with a unique client id
+   * if there is no fetcher available for the partition.
+   */
+  public synchronized F acquire(Object key, TopicPartitionKey partition, int poolSize,
+      Function<String, F> fetcherCreator) {
+    List<F> fetchers = _fetchersMap.computeIfAbsent(key, k -> new ArrayList<>());
+    F leastLoadedFetcher = null;
+    for (F fetcher : fetchers) {
+      if (!fetcher.isRegistered(partition) && (leastLoadedFetcher == null
+          || fetcher.getNumPartitions() < leastLoadedFetcher.getNumPartitions())) {
+        leastLoadedFetcher = fetcher;
+      }
+    }
+    F fetcher = leastLoadedFetcher;
+    if (fetcher == null || (fetcher.getNumPartitions() > 0 && fetchers.size() < poolSize)) {
+      fetcher = fetcherCreator.apply("pinot-shared-kafka-consumer-" + _numFetchersCreated++);
+      fetchers.add(fetcher);
+    }
+    fetcher.register(partition);
+    return fetcher;
+  }
+
+  /**
+   * Unregisters the partition from the fetcher, and closes the fetcher if there is no partition left.
+   */
+  public synchronized void release(Object key, F fetcher, TopicPartitionKey partition)
+      throws IOException {
+    if (fetcher.unregister(partition)) {
+      List<F> fetchers = _fetchersMap.get(key);
+      fetchers.remove(fetcher);
+      if (fetchers.isEmpty()) {
+        _fetchersMap.remove(key);
+      }
+      fetcher.close();
+    }
+  }
+
+  public synchronized int getNumFetchers() {
+    int numFetchers = 0;
+    for (List<F> fetchers : _fetchersMap.values()) {
+      numFetchers += fetchers.size();
+    }
+    return numFetchers;
+  }
+}
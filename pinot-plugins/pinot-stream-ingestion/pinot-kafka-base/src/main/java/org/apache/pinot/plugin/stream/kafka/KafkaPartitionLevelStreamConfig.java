@@ -39,6 +39,8 @@ public class KafkaPartitionLevelStreamConfig {
   private final int _kafkaFetcherMinBytes;
   private final String _kafkaIsolationLevel;
   private final boolean _populateMetadata;
+  private final boolean _sharedConsumerEnabled;
+  private final int _sharedConsumerPoolSize;
   private final Map<String, String> _streamConfigMap;
 
   /**
@@ -62,6 +64,10 @@ public class KafkaPartitionLevelStreamConfig {
         KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_FETCHER_MIN_BYTES);
     String isolationLevelKey = KafkaStreamConfigProperties.constructStreamProperty(
         KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_ISOLATION_LEVEL);
+    String sharedConsumerEnableKey = KafkaStreamConfigProperties.constructStreamProperty(
+        KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_SHARED_CONSUMER_ENABLE);
+    String sharedConsumerPoolSizeKey = KafkaStreamConfigProperties.constructStreamProperty(
+        KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_SHARED_CONSUMER_POOL_SIZE);
     _bootstrapHosts = _streamConfigMap.get(llcBrokerListKey);
     _kafkaBufferSize = getIntConfigWithDefault(_streamConfigMap, llcBufferKey,
         KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_BUFFER_SIZE_DEFAULT);
@@ -84,6 +90,12 @@ public class KafkaPartitionLevelStreamConfig {
         StreamConfigProperties.METADATA_POPULATE);
     _populateMetadata = "true".equalsIgnoreCase(streamConfig.getStreamConfigsMap().get(populateRowMetadataProperty));
 
+    _sharedConsumerEnabled = Boolean.parseBoolean(_streamConfigMap.get(sharedConsumerEnableKey));
+    _sharedConsumerPoolSize = getIntConfigWithDefault(_streamConfigMap, sharedConsumerPoolSizeKey,
+        KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_SHARED_CONSUMER_POOL_SIZE_DEFAULT);
+    Preconditions.checkArgument(_sharedConsumerPoolSize > 0, "Invalid shared consumer pool size: %s",
+        _sharedConsumerPoolSize);
+
     Preconditions.checkNotNull(_bootstrapHosts,
         "Must specify kafka brokers list " + llcBrokerListKey + " in case of low level kafka consumer");
   }
@@ -120,6 +132,14 @@ public class KafkaPartitionLevelStreamConfig {
     return _populateMetadata;
   }
 
+  public boolean isSharedConsumerEnabled() {
+    return _sharedConsumerEnabled;
+  }
+
+  public int getSharedConsumerPoolSize() {
+    return _sharedConsumerPoolSize;
+  }
+
   private int getIntConfigWithDefault(Map<String, String> configMap, String key, int defaultValue) {
     String stringValue = configMap.get(key);
     try {
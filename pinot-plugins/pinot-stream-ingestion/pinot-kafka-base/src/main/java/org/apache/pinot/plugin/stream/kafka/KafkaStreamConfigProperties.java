@@ -65,6 +65,11 @@ public class KafkaStreamConfigProperties {
     public static final String KAFKA_ISOLATION_LEVEL = "kafka.isolation.level";
     public static final String KAFKA_ISOLATION_LEVEL_READ_COMMITTED = "read_committed";
     public static final String KAFKA_ISOLATION_LEVEL_READ_UNCOMMITTED = "read_uncommitted";
+    // Whether to multiplex the fetches of the partitions consumed on the server onto a small pool of shared consumers
+    public static final String KAFKA_SHARED_CONSUMER_ENABLE = "kafka.shared.consumer.enable";
+    // Number of shared consumers the partitions consumed from the same Kafka cluster are spread over
+    public static final String KAFKA_SHARED_CONSUMER_POOL_SIZE = "kafka.shared.consumer.pool.size";
+    public static final int KAFKA_SHARED_CONSUMER_POOL_SIZE_DEFAULT = 1;
   }
 
   public static final String KAFKA_CONSUMER_PROP_PREFIX = "kafka.consumer.prop";
@@ -0,0 +1,353 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.stream.kafka;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.pinot.plugin.stream.kafka.KafkaMultiPartitionFetcher.TopicPartitionKey;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class KafkaMultiPartitionFetcherTest {
+  private static final int TIMEOUT_MS = 10_000;
+  private static final TopicPartitionKey FOO_0 = new TopicPartitionKey("foo", 0);
+  private static final TopicPartitionKey FOO_1 = new TopicPartitionKey("foo", 1);
+  private static final TopicPartitionKey FOO_2 = new TopicPartitionKey("foo", 2);
+  private static final TopicPartitionKey BAR_0 = new TopicPartitionKey("bar", 0);
+
+  @Test
+  public void testFetch()
+      throws Exception {
+    // Each partition contains offsets [0, 100), and each poll returns up to 10 records per fetchable partition
+    FakeFetcher fetcher = new FakeFetcher(100, 10);
+    fetcher.register(FOO_0);
+    fetcher.register(BAR_0);
+
+    // Partitions of different topics should be fetched independently
+    assertEquals(fetcher.fetch(FOO_0, 0, TIMEOUT_MS), range(0, 10));
+    assertEquals(fetcher._assignment, Set.of(FOO_0, BAR_0));
+    assertEquals(fetcher.fetch(BAR_0, 50, TIMEOUT_MS), range(50, 60));
+    // Contiguous fetches should be served from the records polled on behalf of the partition
+    assertEquals(fetcher.fetch(FOO_0, 10, TIMEOUT_MS), range(10, 20));
+    assertEquals(fetcher.fetch(BAR_0, 60, TIMEOUT_MS), range(60, 70));
+    assertEquals(fetcher.fetch(FOO_0, 20, TIMEOUT_MS), range(20, 30));
+
+    // Non-contiguous offset should discard the buffered records and seek
+    assertEquals(fetcher.fetch(FOO_0, 40, TIMEOUT_MS), range(40, 50));
+    assertEquals(fetcher.fetch(BAR_0, 5, TIMEOUT_MS), range(5, 15));
+    assertEquals(fetcher.fetch(FOO_0, 35, TIMEOUT_MS), range(35, 45));
+    assertEquals(fetcher.fetch(FOO_0, 45, TIMEOUT_MS), range(45, 55));
+
+    // Fetching at the end of the partition should time out with no record
+    assertTrue(fetcher.fetch(BAR_0, 100, 100).isEmpty());
+
+    assertFalse(fetcher.unregister(FOO_0));
+    fetcher.fetch(BAR_0, 100, 10);
+    assertEquals(fetcher._assignment, Set.of(BAR_0));
+    assertTrue(fetcher.unregister(BAR_0));
+    fetcher.close();
+    assertTrue(fetcher._closed);
+
+    // The client should be accessed by the fetching thread without any extra thread
+    assertFalse(fetcher._concurrentAccess.get());
+    assertEquals(fetcher._clientThreads, Set.of(Thread.currentThread()));
+  }
+
+  @Test
+  public void testConcurrentFetches()
+      throws Exception {
+    int numPartitions = 4;
+    FakeFetcher fetcher = new FakeFetcher(1000, 10);
+    for (int partition = 0; partition < numPartitions; partition++) {
+      fetcher.register(new TopicPartitionKey("foo", partition));
+    }
+    ExecutorService executorService = Executors.newFixedThreadPool(numPartitions);
+    try {
+      List<Future<List<Long>>> futures = new ArrayList<>();
+      for (int partition = 0; partition < numPartitions; partition++) {
+        TopicPartitionKey topicPartition = new TopicPartitionKey("foo", partition);
+        futures.add(executorService.submit(() -> {
+          List<Long> offsets = new ArrayList<>();
+          while (offsets.size() < 1000) {
+            offsets.addAll(fetcher.fetch(topicPartition, offsets.size(), TIMEOUT_MS));
+          }
+          return offsets;
+        }));
+      }
+      for (Future<List<Long>> future : futures) {
+        assertEquals(future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS), range(0, 1000));
+      }
+    } finally {
+      executorService.shutdownNow();
+      fetcher.close();
+    }
+    // The client should never be accessed concurrently
+    assertFalse(fetcher._concurrentAccess.get());
+  }
+
+  @Test
+  public void testFetchNotBlockedByPoll()
+      throws Exception {
+    FakeFetcher fetcher = new FakeFetcher(100, 10);
+    fetcher.register(FOO_0);
+    fetcher.register(FOO_1);
+    assertEquals(fetcher.fetch(FOO_1, 0, TIMEOUT_MS), range(0, 10));
+
+    // Block the polls on partition 0
+    CountDownLatch pollStarted = new CountDownLatch(1);
+    CountDownLatch releasePoll = new CountDownLatch(1);
+    fetcher._blockedPartition = FOO_0;
+    fetcher._pollStarted = pollStarted;
+    fetcher._releasePoll = releasePoll;
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      Future<List<Long>> blockedFetch = executorService.submit(() -> fetcher.fetch(FOO_0, 0, TIMEOUT_MS));
+      assertTrue(pollStarted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+      // The other partition should wait for the ongoing poll within its own timeout, and registering should not be
+      // blocked
+      long startTimeMs = System.currentTimeMillis();
+      assertTrue(fetcher.fetch(FOO_1, 10, 100).isEmpty());
+      fetcher.register(FOO_2);
+      assertEquals(fetcher.getNumPartitions(), 3);
+      assertTrue(System.currentTimeMillis() - startTimeMs < TIMEOUT_MS);
+      assertFalse(blockedFetch.isDone());
+
+      // The blocked poll should also return the records of the other partition
+      releasePoll.countDown();
+      assertEquals(blockedFetch.get(TIMEOUT_MS, TimeUnit.MILLISECONDS), range(0, 10));
+      assertEquals(fetcher.fetch(FOO_1, 10, TIMEOUT_MS), range(10, 20));
+      assertEquals(fetcher.fetch(FOO_2, 30, TIMEOUT_MS), range(30, 40));
+    } finally {
+      executorService.shutdownNow();
+      fetcher.close();
+    }
+    assertFalse(fetcher._concurrentAccess.get());
+  }
+
+  @Test
+  public void testRegisterTwice() {
+    FakeFetcher fetcher = new FakeFetcher(100, 10);
+    fetcher.register(FOO_0);
+    try {
+      fetcher.register(FOO_0);
+      fail("Expected the partition to be registered only once");
+    } catch (IllegalStateException e) {
+      assertEquals(e.getMessage(), "Partition: foo-0 is already registered");
+    }
+  }
+
+  @Test
+  public void testPollException()
+      throws Exception {
+    FakeFetcher fetcher = new FakeFetcher(100, 10);
+    fetcher.register(FOO_0);
+    fetcher._failingPartition = FOO_0;
+    try {
+      fetcher.fetch(FOO_0, 0, TIMEOUT_MS);
+      fail("Expected the poll exception to be rethrown");
+    } catch (IllegalStateException e) {
+      assertEquals(e.getMessage(), "Failed to poll partition: foo-0");
+    }
+
+    // The next fetch should reposition the partition and succeed
+    fetcher._failingPartition = null;
+    assertEquals(fetcher.fetch(FOO_0, 0, TIMEOUT_MS), range(0, 10));
+    assertEquals(fetcher.fetch(FOO_0, 10, TIMEOUT_MS), range(10, 20));
+    fetcher.close();
+  }
+
+  @Test
+  public void testPool()
+      throws Exception {
+    KafkaMultiPartitionFetcherPool<FakeFetcher> pool = new KafkaMultiPartitionFetcherPool<>();
+    Set<String> clientIds = new HashSet<>();
+    // Partitions of different topics (e.g. tables) from the same Kafka cluster should share the fetchers
+    List<TopicPartitionKey> partitions = List.of(FOO_0, FOO_1, BAR_0, FOO_2);
+    List<FakeFetcher> fetchers = new ArrayList<>();
+    for (TopicPartitionKey partition : partitions) {
+      fetchers.add(pool.acquire("cluster1", partition, 2, clientId -> {
+        assertTrue(clientIds.add(clientId));
+        return new FakeFetcher(100, 10);
+      }));
+    }
+    assertEquals(pool.getNumFetchers(), 2);
+    assertSame(fetchers.get(0), fetchers.get(2));
+    assertSame(fetchers.get(1), fetchers.get(3));
+    assertNotSame(fetchers.get(0), fetchers.get(1));
+    assertEquals(fetchers.get(0).getNumPartitions(), 2);
+    assertEquals(fetchers.get(1).getNumPartitions(), 2);
+
+    // Another Kafka cluster should not share the fetchers
+    FakeFetcher otherClusterFetcher = pool.acquire("cluster2", FOO_0, 2, clientId -> new FakeFetcher(100, 10));
+    assertEquals(pool.getNumFetchers(), 3);
+
+    // A partition registered to all the fetchers of the pool should get an extra fetcher
+    FakeFetcher fetcher = pool.acquire("cluster1", FOO_0, 2, clientId -> new FakeFetcher(100, 10));
+    assertSame(fetcher, fetchers.get(1));
+    FakeFetcher extraFetcher = pool.acquire("cluster1", FOO_0, 2, clientId -> new FakeFetcher(100, 10));
+    assertEquals(pool.getNumFetchers(), 4);
+    pool.release("cluster1", extraFetcher, FOO_0);
+    assertTrue(extraFetcher._closed);
+    assertEquals(pool.getNumFetchers(), 3);
+    pool.release("cluster1", fetcher, FOO_0);
+
+    pool.release("cluster1", fetchers.get(0), FOO_0);
+    assertEquals(pool.getNumFetchers(), 3);
+    assertFalse(fetchers.get(0)._closed);
+    pool.release("cluster1", fetchers.get(2), BAR_0);
+    assertEquals(pool.getNumFetchers(), 2);
+    assertTrue(fetchers.get(0)._closed);
+    pool.release("cluster1", fetchers.get(1), FOO_1);
+    pool.release("cluster1", fetchers.get(3), FOO_2);
+    pool.release("cluster2", otherClusterFetcher, FOO_0);
+    assertEquals(pool.getNumFetchers(), 0);
+  }
+
+  private static List<Long> range(long start, long end) {
+    List<Long> offsets = new ArrayList<>();
+    for (long offset = start; offset < end; offset++) {
+      offsets.add(offset);
+    }
+    return offsets;
+  }
+
+  private static class FakeFetcher extends KafkaMultiPartitionFetcher<Long> {
+    final long _numRecordsPerPartition;
+    final int _maxRecordsPerPoll;
+    final Map<TopicPartitionKey, Long> _positions = new HashMap<>();
+    final Set<Thread> _clientThreads = new HashSet<>();
+    final AtomicInteger _numAccessingThreads = new AtomicInteger();
+    final AtomicBoolean _concurrentAccess = new AtomicBoolean();
+    volatile Set<TopicPartitionKey> _assignment = new HashSet<>();
+    volatile TopicPartitionKey _failingPartition;
+    volatile TopicPartitionKey _blockedPartition;
+    volatile CountDownLatch _pollStarted;
+    volatile CountDownLatch _releasePoll;
+    volatile boolean _closed;
+
+    FakeFetcher(long numRecordsPerPartition, int maxRecordsPerPoll) {
+      _numRecordsPerPartition = numRecordsPerPartition;
+      _maxRecordsPerPoll = maxRecordsPerPoll;
+    }
+
+    @Override
+    protected void assign(Set<TopicPartitionKey> partitions) {
+      enter();
+      try {
+        _assignment = new HashSet<>(partitions);
+        _positions.keySet().retainAll(partitions);
+      } finally {
+        exit();
+      }
+    }
+
+    @Override
+    protected void seek(TopicPartitionKey partition, long offset) {
+      enter();
+      try {
+        if (!_assignment.contains(partition)) {
+          throw new IllegalStateException("Partition: " + partition + " is not assigned");
+        }
+        _positions.put(partition, offset);
+      } finally {
+        exit();
+      }
+    }
+
+    @Override
+    protected Map<TopicPartitionKey, List<Long>> poll(Set<TopicPartitionKey> partitions, int timeoutMs) {
+      enter();
+      try {
+        if (partitions.contains(_failingPartition)) {
+          throw new IllegalStateException("Failed to poll partition: " + _failingPartition);
+        }
+        if (partitions.contains(_blockedPartition)) {
+          _pollStarted.countDown();
+          try {
+            _releasePoll.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        Map<TopicPartitionKey, List<Long>> recordsMap = new HashMap<>();
+        for (TopicPartitionKey partition : partitions) {
+          long position = _positions.get(partition);
+          long end = Math.min(position + _maxRecordsPerPoll, _numRecordsPerPartition);
+          if (end > position) {
+            recordsMap.put(partition, range(position, end));
+            _positions.put(partition, end);
+          }
+        }
+        if (recordsMap.isEmpty()) {
+          // Mimic the Kafka consumer, which waits for the timeout when there is no record
+          try {
+            Thread.sleep(timeoutMs);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        return recordsMap;
+      } finally {
+        exit();
+      }
+    }
+
+    @Override
+    protected long getOffset(Long record) {
+      return record;
+    }
+
+    @Override
+    protected void closeClient() {
+      _closed = true;
+    }
+
+    private void enter() {
+      if (_numAccessingThreads.incrementAndGet() > 1) {
+        _concurrentAccess.set(true);
+      }
+      synchronized (_clientThreads) {
+        _clientThreads.add(Thread.currentThread());
+      }
+    }
+
+    private void exit() {
+      _numAccessingThreads.decrementAndGet();
+    }
+  }
+}
@@ -57,6 +57,14 @@ public class PinotHintOptions {
      *   BREAK: Break window cache build process, continue to perform WINDOW operation, results might be partial.
      */
     public static final String WINDOW_OVERFLOW_MODE = "window_overflow_mode";
+
+    /**
+     * Indicates that the window input should be sorted by the PARTITION BY keys (followed by the ORDER BY keys), so
+     * that the window operator can process one partition at a time and emit the results incrementally. The receiving
+     * side of the sorted exchange still buffers all the rows of the worker to sort them, so 'max_rows_in_window' is
+     * also applied to that buffer.
+     */
+    public static final String IS_INPUT_SORTED_BY_PARTITION_KEYS = "is_input_sorted_by_partition_keys";
   }
 
   public static class JoinHintOptions {
@@ -67,6 +75,10 @@ public class PinotHintOptions {
     public static final String DYNAMIC_BROADCAST_JOIN_STRATEGY = "dynamic_broadcast";
     // "lookup" can be used when the right table is a dimension table replicated to all workers
     public static final String LOOKUP_JOIN_STRATEGY = "lookup";
+    // "merge" sorts both sides on the join keys on the receivers and merges them through a merge join. The sorted
+    // receivers buffer their whole input, capped by max_rows_in_join. Supported for INNER, LEFT, SEMI and ANTI joins
+    // with join keys.
+    public static final String MERGE_JOIN_STRATEGY = "merge";
 
     /**
      * Max rows allowed to build the right table hash collection.
@@ -80,6 +92,22 @@ public class PinotHintOptions {
      */
     public static final String JOIN_OVERFLOW_MODE = "join_overflow_mode";
 
+    /**
+     * Number of receivers (greater than 1) the rows of a hot join key can be split across for hash joins. The left
+     * side spreads the rows of the hot keys across the receivers, while the right side replicates the rows of the hot
+     * keys to the same receivers. When {@link #SKEW_HOT_KEYS} is set, the rows of the other keys are hash partitioned
+     * as usual. Otherwise, the left side detects the hot keys at runtime by sampling its keys, and the right side
+     * replicates every row to the receivers since it cannot know the detected keys. Supported for INNER, LEFT, SEMI and
+     * ANTI joins on a single join key.
+     */
+    public static final String SKEW_SPLIT_FACTOR = "skew_split_factor";
+
+    /**
+     * Comma separated values of the hot join keys to be split when {@link #SKEW_SPLIT_FACTOR} is set, e.g. 'a,b'. Both
+     * sides of the join agree on the given hot keys, so only the right side rows of these keys are replicated.
+     */
+    public static final String SKEW_HOT_KEYS = "skew_hot_keys";
+
     /**
      * Indicates that the join operator(s) within a certain selection scope are colocated
      */
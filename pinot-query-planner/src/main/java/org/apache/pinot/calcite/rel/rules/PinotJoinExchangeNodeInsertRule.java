@@ -18,16 +18,24 @@
  */
 package org.apache.pinot.calcite.rel.rules;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelCollations;
 import org.apache.calcite.rel.RelDistributions;
+import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.Join;
 import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.tools.RelBuilderFactory;
 import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
 import org.apache.pinot.calcite.rel.hint.PinotHintStrategyTable;
 import org.apache.pinot.calcite.rel.logical.PinotLogicalExchange;
+import org.apache.pinot.calcite.rel.logical.PinotLogicalSortExchange;
 
 
 /**
@@ -61,6 +69,13 @@ public class PinotJoinExchangeNodeInsertRule extends RelOptRule {
       // Lookup join - add local exchange on the left side
       newLeft = PinotLogicalExchange.create(left, RelDistributions.SINGLETON);
       newRight = right;
+    } else if (PinotHintOptions.JoinHintOptions.MERGE_JOIN_STRATEGY.equals(joinStrategy) && canUseMergeJoin(join,
+        joinInfo)) {
+      // Merge join - add hash exchange on both sides, sorted on the join keys on the receiver side
+      newLeft = PinotLogicalSortExchange.create(left, RelDistributions.hash(joinInfo.leftKeys),
+          getJoinKeyCollation(joinInfo.leftKeys), false, true);
+      newRight = PinotLogicalSortExchange.create(right, RelDistributions.hash(joinInfo.rightKeys),
+          getJoinKeyCollation(joinInfo.rightKeys), false, true);
     } else {
       // Regular join - add exchange on both sides
       if (joinInfo.leftKeys.isEmpty()) {
@@ -78,4 +93,34 @@ public class PinotJoinExchangeNodeInsertRule extends RelOptRule {
     call.transformTo(join.copy(join.getTraitSet(), join.getCondition(), newLeft, newRight, join.getJoinType(),
         join.isSemiJoinDone()));
   }
+
+  /**
+   * Merge join supports INNER, LEFT, SEMI and ANTI joins on distinct join keys. SEMI and ANTI joins must not have
+   * non-equi conditions because they are evaluated on the key only.
+   */
+  private static boolean canUseMergeJoin(Join join, JoinInfo joinInfo) {
+    JoinRelType joinType = join.getJoinType();
+    if (joinType != JoinRelType.INNER && joinType != JoinRelType.LEFT && joinType != JoinRelType.SEMI
+        && joinType != JoinRelType.ANTI) {
+      return false;
+    }
+    if (!joinType.projectsRight() && !joinInfo.nonEquiConditions.isEmpty()) {
+      return false;
+    }
+    List<Integer> leftKeys = joinInfo.leftKeys;
+    List<Integer> rightKeys = joinInfo.rightKeys;
+    return !leftKeys.isEmpty() && new HashSet<>(leftKeys).size() == leftKeys.size()
+        && new HashSet<>(rightKeys).size() == rightKeys.size();
+  }
+
+  /**
+   * Returns the ascending collation on the join keys, which is the order expected by the merge join.
+   */
+  private static RelCollation getJoinKeyCollation(List<Integer> keys) {
+    List<RelFieldCollation> fieldCollations = new ArrayList<>(keys.size());
+    for (int key : keys) {
+      fieldCollations.add(new RelFieldCollation(key));
+    }
+    return RelCollations.of(fieldCollations);
+  }
 }
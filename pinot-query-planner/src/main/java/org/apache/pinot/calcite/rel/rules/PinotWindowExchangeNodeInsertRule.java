@@ -31,7 +31,10 @@ import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.plan.RelOptRuleCall;
 import org.apache.calcite.plan.hep.HepRelVertex;
+import org.apache.calcite.rel.RelCollation;
+import org.apache.calcite.rel.RelCollations;
 import org.apache.calcite.rel.RelDistributions;
+import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.Exchange;
 import org.apache.calcite.rel.core.Project;
@@ -50,6 +53,8 @@ import org.apache.calcite.sql.SqlAggFunction;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.calcite.tools.RelBuilderFactory;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.calcite.rel.hint.PinotHintStrategyTable;
 import org.apache.pinot.calcite.rel.logical.PinotLogicalExchange;
 import org.apache.pinot.calcite.rel.logical.PinotLogicalSortExchange;
 
@@ -127,7 +132,13 @@ public class PinotWindowExchangeNodeInsertRule extends RelOptRule {
       // ORDER BY key(s) are the same)
       boolean isPartitionByOnly = isPartitionByOnlyQuery(windowGroup);
 
-      if (isPartitionByOnly) {
+      if (PinotHintStrategyTable.isHintOptionTrue(window.getHints(), PinotHintOptions.WINDOW_HINT_OPTIONS,
+          PinotHintOptions.WindowHintOptions.IS_INPUT_SORTED_BY_PARTITION_KEYS)) {
+        // Add a LogicalSortExchange hashed on the partition by keys and collation based on the partition by keys
+        // followed by the order by keys, so that the window operator can process the partitions in a streaming fashion
+        exchange = PinotLogicalSortExchange.create(input, RelDistributions.hash(windowGroup.keys.toList()),
+            getPartitionSortedCollation(windowGroup), false, true);
+      } else if (isPartitionByOnly) {
         // Only PARTITION BY or PARTITION BY and ORDER BY on the same key(s)
         // Add an Exchange hashed on the partition by keys
         exchange = PinotLogicalExchange.create(input, RelDistributions.hash(windowGroup.keys.toList()));
@@ -277,6 +288,24 @@ public class PinotWindowExchangeNodeInsertRule extends RelOptRule {
     return isPartitionByOnly;
   }
 
+  /**
+   * Returns the collation on the partition by keys (ascending) followed by the order by keys not already included.
+   */
+  private static RelCollation getPartitionSortedCollation(Window.Group windowGroup) {
+    List<RelFieldCollation> fieldCollations = new ArrayList<>();
+    Set<Integer> fieldIndexes = new HashSet<>();
+    for (int key : windowGroup.keys) {
+      fieldCollations.add(new RelFieldCollation(key));
+      fieldIndexes.add(key);
+    }
+    for (RelFieldCollation fieldCollation : windowGroup.orderKeys.getFieldCollations()) {
+      if (fieldIndexes.add(fieldCollation.getFieldIndex())) {
+        fieldCollations.add(fieldCollation);
+      }
+    }
+    return RelCollations.of(fieldCollations);
+  }
+
   /**
    * Only empty OVER() type queries using window functions that take no columns as arguments can result in a situation
    * where the LogicalProject below the LogicalWindow is an empty LogicalProject (i.e. no columns are projected).
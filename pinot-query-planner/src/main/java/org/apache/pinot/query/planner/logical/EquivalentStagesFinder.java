@@ -135,7 +135,10 @@ public class EquivalentStagesFinder {
             // TODO: Pre-partitioned and collations can probably be removed from the equivalence check, but would
             //  require some extra checks or transformation on the spooling logic. We are not doing that for now.
             && stage.isPrePartitioned() == visitedStage.isPrePartitioned()
-            && Objects.equals(stage.getCollations(), visitedStage.getCollations());
+            && Objects.equals(stage.getCollations(), visitedStage.getCollations())
+            && stage.getSkewSplitFactor() == visitedStage.getSkewSplitFactor()
+            && stage.isSkewSplitReplicate() == visitedStage.isSkewSplitReplicate()
+            && Objects.equals(stage.getSkewHotKeys(), visitedStage.getSkewHotKeys());
       }
 
       /**
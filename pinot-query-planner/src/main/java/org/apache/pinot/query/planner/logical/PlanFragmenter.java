@@ -24,7 +24,11 @@ import it.unimi.dsi.fastutil.ints.IntList;
 import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelDistribution;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
 import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
 import org.apache.pinot.query.planner.PlanFragment;
 import org.apache.pinot.query.planner.SubPlan;
@@ -63,6 +67,7 @@ public class PlanFragmenter implements PlanNodeVisitor<PlanNode, PlanFragmenter.
   private final IdentityHashMap<MailboxSendNode, ExchangeNode> _mailboxSendToExchangeNodeMap = new IdentityHashMap<>();
   private final IdentityHashMap<MailboxReceiveNode, ExchangeNode> _mailboxReceiveToExchangeNodeMap =
       new IdentityHashMap<>();
+  private final IdentityHashMap<ExchangeNode, SkewSplit> _skewSplitMap = new IdentityHashMap<>();
 
   // ROOT PlanFragment ID is 0, current PlanFragment ID starts with 1, next PlanFragment ID starts with 2.
   private int _nextPlanFragmentId = 2;
@@ -98,9 +103,67 @@ public class PlanFragmenter implements PlanNodeVisitor<PlanNode, PlanFragmenter.
 
   @Override
   public PlanNode visitJoin(JoinNode node, Context context) {
+    collectSkewSplits(node);
     return process(node, context);
   }
 
+  /**
+   * Collects the skew split of the hash exchanges feeding a hash join when the skew split factor hint is set, which is
+   * applied when the exchanges are split into mailboxes. The left sender splits the rows of the hot keys across the
+   * receivers, and the right sender replicates the rows of the hot keys to them. When the hot keys hint is set, the
+   * rows of the other keys are hash partitioned on both sides. Otherwise, the left sender detects the hot keys at
+   * runtime, and the right sender replicates every row because it cannot know the keys detected by the left sender.
+   */
+  private void collectSkewSplits(JoinNode node) {
+    if (node.getJoinStrategy() != JoinNode.JoinStrategy.HASH || node.getLeftKeys().size() != 1) {
+      return;
+    }
+    JoinRelType joinType = node.getJoinType();
+    if (joinType != JoinRelType.INNER && joinType != JoinRelType.LEFT && joinType != JoinRelType.SEMI
+        && joinType != JoinRelType.ANTI) {
+      return;
+    }
+    Map<String, String> joinOptions = node.getNodeHint().getHintOptions().get(PinotHintOptions.JOIN_HINT_OPTIONS);
+    String skewSplitFactorStr =
+        joinOptions != null ? joinOptions.get(PinotHintOptions.JoinHintOptions.SKEW_SPLIT_FACTOR) : null;
+    if (skewSplitFactorStr == null) {
+      return;
+    }
+    int skewSplitFactor = Integer.parseInt(skewSplitFactorStr);
+    if (skewSplitFactor <= 1) {
+      return;
+    }
+    List<String> skewHotKeys = new ArrayList<>();
+    String skewHotKeysStr = joinOptions.get(PinotHintOptions.JoinHintOptions.SKEW_HOT_KEYS);
+    if (skewHotKeysStr != null) {
+      for (String skewHotKey : skewHotKeysStr.split(",")) {
+        skewHotKey = skewHotKey.trim();
+        if (!skewHotKey.isEmpty()) {
+          skewHotKeys.add(skewHotKey);
+        }
+      }
+    }
+    List<PlanNode> inputs = node.getInputs();
+    ExchangeNode leftExchange = getHashPartitionedExchange(inputs.get(0));
+    ExchangeNode rightExchange = getHashPartitionedExchange(inputs.get(1));
+    if (leftExchange != null && rightExchange != null) {
+      _skewSplitMap.put(leftExchange, new SkewSplit(skewSplitFactor, false, skewHotKeys));
+      _skewSplitMap.put(rightExchange, new SkewSplit(skewSplitFactor, true, skewHotKeys));
+    }
+  }
+
+  @Nullable
+  private ExchangeNode getHashPartitionedExchange(PlanNode input) {
+    if (!(input instanceof ExchangeNode) || !isPlanFragmentSplitter(input)) {
+      return null;
+    }
+    ExchangeNode exchange = (ExchangeNode) input;
+    if (exchange.getDistributionType() != RelDistribution.Type.HASH_DISTRIBUTED || exchange.isPrePartitioned()) {
+      return null;
+    }
+    return exchange;
+  }
+
   @Override
   public PlanNode visitMailboxReceive(MailboxReceiveNode node, Context context) {
     throw new UnsupportedOperationException("MailboxReceiveNode should not be visited by PlanNodeFragmenter");
@@ -158,10 +221,11 @@ public class PlanFragmenter implements PlanNodeVisitor<PlanNode, PlanFragmenter.
     PinotRelExchangeType exchangeType = node.getExchangeType();
     RelDistribution.Type distributionType = node.getDistributionType();
     List<Integer> keys = node.getKeys();
+    SkewSplit skewSplit = _skewSplitMap.getOrDefault(node, SkewSplit.NONE);
     MailboxSendNode mailboxSendNode =
         new MailboxSendNode(senderPlanFragmentId, nextPlanFragmentRoot.getDataSchema(), List.of(nextPlanFragmentRoot),
             receiverPlanFragmentId, exchangeType, distributionType, keys, node.isPrePartitioned(), node.getCollations(),
-            node.isSortOnSender());
+            node.isSortOnSender(), skewSplit._factor, skewSplit._replicate, skewSplit._hotKeys);
     _planFragmentMap.put(senderPlanFragmentId,
         new PlanFragment(senderPlanFragmentId, mailboxSendNode, new ArrayList<>()));
     _mailboxSendToExchangeNodeMap.put(mailboxSendNode, node);
@@ -199,4 +263,18 @@ public class PlanFragmenter implements PlanNodeVisitor<PlanNode, PlanFragmenter.
       _currentPlanFragmentId = currentPlanFragmentId;
     }
   }
+
+  private static class SkewSplit {
+    static final SkewSplit NONE = new SkewSplit(0, false, List.of());
+
+    final int _factor;
+    final boolean _replicate;
+    final List<String> _hotKeys;
+
+    SkewSplit(int factor, boolean replicate, List<String> hotKeys) {
+      _factor = factor;
+      _replicate = replicate;
+      _hotKeys = hotKeys;
+    }
+  }
 }
@@ -338,6 +338,10 @@ public final class RelToPlanNodeConverter {
       Preconditions.checkState(projectInput instanceof TableScan,
           "Right input for lookup join must be a Project over TableScan, got Project over: %s",
           projectInput.getClass().getSimpleName());
+    } else if (isMergeJoinApplicable(joinType, joinInfo, left, right)) {
+      // Both inputs are sorted on the join keys, so the join can be performed by merging them without materializing
+      // either side
+      joinStrategy = JoinNode.JoinStrategy.MERGE;
     } else {
       // TODO: Consider adding DYNAMIC_BROADCAST as a separate join strategy
       joinStrategy = JoinNode.JoinStrategy.HASH;
@@ -348,6 +352,49 @@ public final class RelToPlanNodeConverter {
         joinStrategy);
   }
 
+  /**
+   * Returns whether the join can be performed as a merge join, which requires a supported join type (INNER, LEFT, SEMI
+   * or ANTI) and both inputs to be exchanges sorted on the receiver side by the join keys in ascending order.
+   */
+  private static boolean isMergeJoinApplicable(JoinRelType joinType, JoinInfo joinInfo, PlanNode left,
+      PlanNode right) {
+    switch (joinType) {
+      case INNER:
+      case LEFT:
+        break;
+      case SEMI:
+      case ANTI:
+        // SEMI and ANTI joins only check the existence of the key
+        if (!joinInfo.nonEquiConditions.isEmpty()) {
+          return false;
+        }
+        break;
+      default:
+        return false;
+    }
+    return !joinInfo.leftKeys.isEmpty() && isSortedOnKeys(left, joinInfo.leftKeys) && isSortedOnKeys(right,
+        joinInfo.rightKeys);
+  }
+
+  private static boolean isSortedOnKeys(PlanNode node, List<Integer> keys) {
+    if (!(node instanceof ExchangeNode)) {
+      return false;
+    }
+    ExchangeNode exchangeNode = (ExchangeNode) node;
+    List<RelFieldCollation> collations = exchangeNode.getCollations();
+    if (!exchangeNode.isSortOnReceiver() || collations == null || collations.size() < keys.size()) {
+      return false;
+    }
+    for (int i = 0; i < keys.size(); i++) {
+      RelFieldCollation collation = collations.get(i);
+      if (collation.getFieldIndex() != keys.get(i) || collation.direction != RelFieldCollation.Direction.ASCENDING
+          || collation.nullDirection == RelFieldCollation.NullDirection.FIRST) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private List<PlanNode> convertInputs(List<RelNode> inputs) {
     // NOTE: Inputs can be modified in place. Do not create immutable List here.
     int numInputs = inputs.size();
@@ -38,12 +38,16 @@ public class MailboxSendNode extends BasePlanNode {
   private final boolean _prePartitioned;
   private final List<RelFieldCollation> _collations;
   private final boolean _sort;
+  private final int _skewSplitFactor;
+  private final boolean _skewSplitReplicate;
+  private final List<String> _skewHotKeys;
 
   // NOTE: null List is converted to empty List because there is no way to differentiate them in proto during ser/de.
   private MailboxSendNode(int stageId, DataSchema dataSchema, List<PlanNode> inputs,
       BitSet receiverStages, PinotRelExchangeType exchangeType,
       RelDistribution.Type distributionType, @Nullable List<Integer> keys, boolean prePartitioned,
-      @Nullable List<RelFieldCollation> collations, boolean sort) {
+      @Nullable List<RelFieldCollation> collations, boolean sort, int skewSplitFactor, boolean skewSplitReplicate,
+      @Nullable List<String> skewHotKeys) {
     super(stageId, dataSchema, null, inputs);
     _receiverStages = receiverStages;
     _exchangeType = exchangeType;
@@ -52,14 +56,26 @@ public class MailboxSendNode extends BasePlanNode {
     _prePartitioned = prePartitioned;
     _collations = collations != null ? collations : List.of();
     _sort = sort;
+    _skewSplitFactor = skewSplitFactor;
+    _skewSplitReplicate = skewSplitReplicate;
+    _skewHotKeys = skewHotKeys != null ? skewHotKeys : List.of();
   }
 
   public MailboxSendNode(int stageId, DataSchema dataSchema, List<PlanNode> inputs,
       int receiverStage, PinotRelExchangeType exchangeType,
       RelDistribution.Type distributionType, @Nullable List<Integer> keys, boolean prePartitioned,
       @Nullable List<RelFieldCollation> collations, boolean sort) {
+    this(stageId, dataSchema, inputs, receiverStage, exchangeType, distributionType, keys, prePartitioned, collations,
+        sort, 0, false, null);
+  }
+
+  public MailboxSendNode(int stageId, DataSchema dataSchema, List<PlanNode> inputs,
+      int receiverStage, PinotRelExchangeType exchangeType,
+      RelDistribution.Type distributionType, @Nullable List<Integer> keys, boolean prePartitioned,
+      @Nullable List<RelFieldCollation> collations, boolean sort, int skewSplitFactor, boolean skewSplitReplicate,
+      @Nullable List<String> skewHotKeys) {
     this(stageId, dataSchema, inputs, toBitSet(receiverStage), exchangeType, distributionType, keys, prePartitioned,
-        collations, sort);
+        collations, sort, skewSplitFactor, skewSplitReplicate, skewHotKeys);
   }
 
   private static BitSet toBitSet(int receiverStage) {
@@ -83,7 +99,7 @@ public class MailboxSendNode extends BasePlanNode {
       PinotRelExchangeType exchangeType, RelDistribution.Type distributionType, @Nullable List<Integer> keys,
       boolean prePartitioned, @Nullable List<RelFieldCollation> collations, boolean sort) {
     this(stageId, dataSchema, inputs, new BitSet(), exchangeType, distributionType, keys, prePartitioned, collations,
-        sort);
+        sort, 0, false, null);
   }
 
   public boolean sharesReceiverStages(MailboxSendNode other) {
@@ -152,6 +168,31 @@ public class MailboxSendNode extends BasePlanNode {
     return _sort;
   }
 
+  /**
+   * Returns the number of receivers the rows of a hot key are spread over for hash distribution, where values smaller
+   * than 2 mean skew handling is disabled.
+   */
+  public int getSkewSplitFactor() {
+    return _skewSplitFactor;
+  }
+
+  /**
+   * Returns whether the rows of the hot keys are replicated to all the receivers the key can be split over (the side
+   * whose rows are looked up, e.g. the build side of a join), instead of being spread over them.
+   */
+  public boolean isSkewSplitReplicate() {
+    return _skewSplitReplicate;
+  }
+
+  /**
+   * Returns the string values of the hot keys whose rows are split or replicated, where the rows of the other keys are
+   * hash partitioned as usual. When empty, the splitting side detects the hot keys at runtime, and the replicating side
+   * replicates every row.
+   */
+  public List<String> getSkewHotKeys() {
+    return _skewHotKeys;
+  }
+
   @Override
   public String explain() {
     StringBuilder sb = new StringBuilder();
@@ -164,6 +205,9 @@ public class MailboxSendNode extends BasePlanNode {
     if (isSort()) {
       sb.append("[SORTED]");
     }
+    if (_skewSplitFactor > 1) {
+      sb.append(_skewSplitReplicate ? "[SKEW_REPLICATE:" : "[SKEW_SPLIT:").append(_skewSplitFactor).append(']');
+    }
     return sb.toString();
   }
 
@@ -175,7 +219,7 @@ public class MailboxSendNode extends BasePlanNode {
   @Override
   public PlanNode withInputs(List<PlanNode> inputs) {
     return new MailboxSendNode(_stageId, _dataSchema, inputs, _receiverStages, _exchangeType, _distributionType, _keys,
-        _prePartitioned, _collations, _sort);
+        _prePartitioned, _collations, _sort, _skewSplitFactor, _skewSplitReplicate, _skewHotKeys);
   }
 
   @Override
@@ -192,13 +236,15 @@ public class MailboxSendNode extends BasePlanNode {
     MailboxSendNode that = (MailboxSendNode) o;
     return Objects.equals(_receiverStages, that._receiverStages) && _prePartitioned == that._prePartitioned
         && _sort == that._sort && _exchangeType == that._exchangeType && _distributionType == that._distributionType
-        && Objects.equals(_keys, that._keys) && Objects.equals(_collations, that._collations);
+        && Objects.equals(_keys, that._keys) && Objects.equals(_collations, that._collations)
+        && _skewSplitFactor == that._skewSplitFactor && _skewSplitReplicate == that._skewSplitReplicate
+        && Objects.equals(_skewHotKeys, that._skewHotKeys);
   }
 
   @Override
   public int hashCode() {
     return Objects.hash(super.hashCode(), _receiverStages, _exchangeType, _distributionType, _keys, _prePartitioned,
-        _collations, _sort);
+        _collations, _sort, _skewSplitFactor, _skewSplitReplicate, _skewHotKeys);
   }
 
   @Override
@@ -121,7 +121,8 @@ public class PlanNodeDeserializer {
         protoMailboxSendNode.getReceiverStageId(), convertExchangeType(protoMailboxSendNode.getExchangeType()),
         convertDistributionType(protoMailboxSendNode.getDistributionType()), protoMailboxSendNode.getKeysList(),
         protoMailboxSendNode.getPrePartitioned(), convertCollations(protoMailboxSendNode.getCollationsList()),
-        protoMailboxSendNode.getSort());
+        protoMailboxSendNode.getSort(), protoMailboxSendNode.getSkewSplitFactor(),
+        protoMailboxSendNode.getSkewSplitReplicate(), protoMailboxSendNode.getSkewHotKeysList());
   }
 
   private static ProjectNode deserializeProjectNode(Plan.PlanNode protoNode) {
@@ -284,6 +285,8 @@ public class PlanNodeDeserializer {
         return JoinNode.JoinStrategy.HASH;
       case LOOKUP:
         return JoinNode.JoinStrategy.LOOKUP;
+      case MERGE:
+        return JoinNode.JoinStrategy.MERGE;
       default:
         throw new IllegalStateException("Unsupported JoinStrategy: " + joinStrategy);
     }
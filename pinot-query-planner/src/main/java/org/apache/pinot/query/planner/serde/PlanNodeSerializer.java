@@ -137,7 +137,8 @@ public class PlanNodeSerializer {
               .setExchangeType(convertExchangeType(node.getExchangeType()))
               .setDistributionType(convertDistributionType(node.getDistributionType())).addAllKeys(node.getKeys())
               .setPrePartitioned(node.isPrePartitioned()).addAllCollations(convertCollations(node.getCollations()))
-              .setSort(node.isSort()).build();
+              .setSort(node.isSort()).setSkewSplitFactor(node.getSkewSplitFactor())
+              .setSkewSplitReplicate(node.isSkewSplitReplicate()).addAllSkewHotKeys(node.getSkewHotKeys()).build();
       builder.setMailboxSendNode(mailboxSendNode);
       return null;
     }
@@ -272,6 +273,8 @@ public class PlanNodeSerializer {
           return Plan.JoinStrategy.HASH;
         case LOOKUP:
           return Plan.JoinStrategy.LOOKUP;
+        case MERGE:
+          return Plan.JoinStrategy.MERGE;
         default:
           throw new IllegalStateException("Unsupported JoinStrategy: " + joinStrategy);
       }
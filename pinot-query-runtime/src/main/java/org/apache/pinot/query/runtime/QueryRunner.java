@@ -116,6 +116,10 @@ public class QueryRunner {
   @Nullable
   private JoinOverFlowMode _joinOverflowMode;
 
+  // Sort spill settings
+  @Nullable
+  private Integer _sortSpillThresholdRows;
+
   /**
    * Initializes the query executor.
    * <p>Should be called only once and before calling any other method.
@@ -144,6 +148,9 @@ public class QueryRunner {
     _maxRowsInJoin = maxRowsInJoinStr != null ? Integer.parseInt(maxRowsInJoinStr) : null;
     String joinOverflowModeStr = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_JOIN_OVERFLOW_MODE);
     _joinOverflowMode = joinOverflowModeStr != null ? JoinOverFlowMode.valueOf(joinOverflowModeStr) : null;
+    String sortSpillThresholdRowsStr =
+        config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_SORT_SPILL_THRESHOLD_ROWS);
+    _sortSpillThresholdRows = sortSpillThresholdRowsStr != null ? Integer.parseInt(sortSpillThresholdRowsStr) : null;
 
     _executorService = ExecutorServiceUtils.create(
         config, CommonConstants.Server.CONFIG_OF_QUERY_EXECUTOR_OPCHAIN_EXECUTOR, "query-runner-on-" + port,
@@ -331,6 +338,14 @@ public class QueryRunner {
     if (joinOverflowMode != null) {
       opChainMetadata.put(QueryOptionKey.JOIN_OVERFLOW_MODE, joinOverflowMode.name());
     }
+
+    Integer sortSpillThresholdRows = QueryOptionsUtils.getSortSpillThresholdRows(opChainMetadata);
+    if (sortSpillThresholdRows == null) {
+      sortSpillThresholdRows = _sortSpillThresholdRows;
+    }
+    if (sortSpillThresholdRows != null) {
+      opChainMetadata.put(QueryOptionKey.SORT_SPILL_THRESHOLD_ROWS, Integer.toString(sortSpillThresholdRows));
+    }
     return opChainMetadata;
   }
 
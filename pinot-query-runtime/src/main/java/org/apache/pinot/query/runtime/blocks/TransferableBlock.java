@@ -21,6 +21,7 @@ package org.apache.pinot.query.runtime.blocks;
 import com.google.common.base.Preconditions;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -37,6 +38,9 @@ import org.apache.pinot.core.common.datablock.DataBlockBuilder;
 import org.apache.pinot.core.util.DataBlockExtractUtils;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.segment.spi.memory.DataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ArrayCopyUtils;
+import org.roaringbitmap.RoaringBitmap;
 
 
 
@@ -51,18 +55,53 @@ public class TransferableBlock implements Block {
   private final int _numRows;
 
   private List<Object[]> _container;
+  // Column container for COLUMNAR blocks constructed from column values. Each column is either an Object[] of the
+  // values (null for null values), or a primitive array (int[], long[], float[] or double[]) for the numeric stored
+  // types, in which case the null row ids are kept in the corresponding entry of _nullBitmaps.
+  private Object[] _columns;
+  private RoaringBitmap[] _nullBitmaps;
   private DataBlock _dataBlock;
   private Map<Integer, String> _errCodeToExceptionMap;
   @Nullable
   private final MultiStageQueryStats _queryStats;
 
+  /**
+   * Constructs a data block from an in-memory container. For {@link DataBlock.Type#ROW} the container holds one
+   * {@code Object[]} per row; for {@link DataBlock.Type#COLUMNAR} it holds one {@code Object[]} per column (all with
+   * the same length), which allows operators to produce and consume the block a column at a time.
+   */
   public TransferableBlock(List<Object[]> container, DataSchema dataSchema, DataBlock.Type type) {
-    _container = container;
     _dataSchema = dataSchema;
     Preconditions.checkArgument(type == DataBlock.Type.ROW || type == DataBlock.Type.COLUMNAR,
         "Container cannot be used to construct block of type: %s", type);
     _type = type;
-    _numRows = _container.size();
+    if (type == DataBlock.Type.ROW) {
+      _container = container;
+      _numRows = container.size();
+    } else {
+      Preconditions.checkArgument(!container.isEmpty(), "Columnar container must contain at least one column");
+      _columns = container.toArray();
+      _numRows = container.get(0).length;
+    }
+    // NOTE: Use assert to avoid breaking production code.
+    assert _numRows > 0 : "Container should not be empty";
+    _errCodeToExceptionMap = new HashMap<>();
+    _queryStats = null;
+  }
+
+  /**
+   * Constructs a {@link DataBlock.Type#COLUMNAR} data block from column vectors. Each column is either an
+   * {@code Object[]} of the values, or a primitive array ({@code int[]}, {@code long[]}, {@code float[]} or
+   * {@code double[]}) of the values in the column stored type, in which case the null row ids are read from the
+   * corresponding entry of the (optional) null bitmaps.
+   */
+  public TransferableBlock(Object[] columns, @Nullable RoaringBitmap[] nullBitmaps, DataSchema dataSchema) {
+    Preconditions.checkArgument(columns.length > 0, "Columnar container must contain at least one column");
+    _dataSchema = dataSchema;
+    _type = DataBlock.Type.COLUMNAR;
+    _columns = columns;
+    _nullBitmaps = nullBitmaps;
+    _numRows = Array.getLength(columns[0]);
     // NOTE: Use assert to avoid breaking production code.
     assert _numRows > 0 : "Container should not be empty";
     _errCodeToExceptionMap = new HashMap<>();
@@ -127,7 +166,7 @@ public class TransferableBlock implements Block {
    * Returns whether the container is already constructed.
    */
   public boolean isContainerConstructed() {
-    return _container != null;
+    return _container != null || _columns != null;
   }
 
   /**
@@ -143,6 +182,9 @@ public class TransferableBlock implements Block {
    *   By doing so only operators that actually require to keep multi-stage results in memory will allocate memory.
    *   PS: the term _allocate memory_ here means _keep alive an amount of memory proportional to the number of rows_.
    *
+   * For COLUMNAR blocks, the rows are assembled from the columns. Operators that can work a column at a time should
+   * use {@link #getColumn(int)} instead.
+   *
    * @return data container.
    */
   public List<Object[]> getContainer() {
@@ -152,6 +194,8 @@ public class TransferableBlock implements Block {
           _container = DataBlockExtractUtils.extractRows(_dataBlock);
           break;
         case COLUMNAR:
+          _container = _columns != null ? toRows() : DataBlockExtractUtils.extractRows(_dataBlock);
+          break;
         case METADATA:
         default:
           throw new UnsupportedOperationException("Unable to extract from container with type: " + _type);
@@ -160,6 +204,396 @@ public class TransferableBlock implements Block {
     return _container;
   }
 
+  /**
+   * Retrieves the values of a single column, one value per row (null for null values), in the internal stored format.
+   * This avoids materializing the rows when the block is backed by a columnar container or a serialized
+   * {@link DataBlock}, in which case only the requested column is extracted.
+   *
+   * NOTE: The returned array might be shared with the block and must not be modified.
+   */
+  public Object[] getColumn(int colId) {
+    if (_columns != null) {
+      Object column = _columns[colId];
+      return column instanceof Object[] ? (Object[]) column : box(column, getNullBitmap(colId));
+    }
+    if (_container != null) {
+      Object[] values = new Object[_numRows];
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        values[rowId] = _container.get(rowId)[colId];
+      }
+      return values;
+    }
+    Preconditions.checkState(_type != DataBlock.Type.METADATA, "Cannot extract column from METADATA block");
+    return DataBlockExtractUtils.extractColumn(_dataBlock, colId);
+  }
+
+  /**
+   * Retrieves the values of a single column as a primitive array ({@code int[]}, {@code long[]}, {@code float[]} or
+   * {@code double[]}) for the numeric stored types, or as an {@code Object[]} (same as {@link #getColumn(int)}) for
+   * the other types. The null row ids of a primitive array can be read with {@link #getNullBitmap(int)}.
+   *
+   * NOTE: The returned array might be shared with the block and must not be modified.
+   */
+  public Object getColumnVector(int colId) {
+    switch (getStoredType(colId)) {
+      case INT:
+        return getIntColumn(colId);
+      case LONG:
+        return getLongColumn(colId);
+      case FLOAT:
+        return getFloatColumn(colId);
+      case DOUBLE:
+        return getDoubleColumn(colId);
+      default:
+        return getColumn(colId);
+    }
+  }
+
+  /**
+   * Returns the row ids of the null values of the given column, or {@code null} if the column has no null value.
+   */
+  @Nullable
+  public RoaringBitmap getNullBitmap(int colId) {
+    if (_columns != null) {
+      Object column = _columns[colId];
+      if (column instanceof Object[]) {
+        return getNullBitmap((Object[]) column);
+      }
+      return _nullBitmaps != null ? _nullBitmaps[colId] : null;
+    }
+    if (_dataBlock != null) {
+      Preconditions.checkState(_type != DataBlock.Type.METADATA, "Cannot extract column from METADATA block");
+      return _dataBlock.getNullRowIds(colId);
+    }
+    return getNullBitmap(getColumn(colId));
+  }
+
+  /**
+   * Retrieves the values of a numeric column as an {@code int[]} (0 for null values), without boxing them when the
+   * block is backed by a serialized {@link DataBlock} or a primitive column vector.
+   *
+   * NOTE: The returned array might be shared with the block and must not be modified.
+   */
+  public int[] getIntColumn(int colId) {
+    if (_columns == null && _dataBlock != null) {
+      return DataBlockExtractUtils.extractIntColumn(getStoredType(colId), _dataBlock, colId,
+          _dataBlock.getNullRowIds(colId));
+    }
+    Object column = _columns != null ? _columns[colId] : getColumn(colId);
+    if (column instanceof int[]) {
+      return (int[]) column;
+    }
+    int[] values = new int[_numRows];
+    if (column instanceof long[]) {
+      ArrayCopyUtils.copy((long[]) column, values, _numRows);
+    } else if (column instanceof float[]) {
+      ArrayCopyUtils.copy((float[]) column, values, _numRows);
+    } else if (column instanceof double[]) {
+      ArrayCopyUtils.copy((double[]) column, values, _numRows);
+    } else {
+      Object[] boxedValues = (Object[]) column;
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        Object value = boxedValues[rowId];
+        if (value != null) {
+          values[rowId] = ((Number) value).intValue();
+        }
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Retrieves the values of a numeric column as a {@code long[]} (0 for null values), without boxing them when the
+   * block is backed by a serialized {@link DataBlock} or a primitive column vector.
+   *
+   * NOTE: The returned array might be shared with the block and must not be modified.
+   */
+  public long[] getLongColumn(int colId) {
+    if (_columns == null && _dataBlock != null) {
+      return DataBlockExtractUtils.extractLongColumn(getStoredType(colId), _dataBlock, colId,
+          _dataBlock.getNullRowIds(colId));
+    }
+    Object column = _columns != null ? _columns[colId] : getColumn(colId);
+    if (column instanceof long[]) {
+      return (long[]) column;
+    }
+    long[] values = new long[_numRows];
+    if (column instanceof int[]) {
+      ArrayCopyUtils.copy((int[]) column, values, _numRows);
+    } else if (column instanceof float[]) {
+      ArrayCopyUtils.copy((float[]) column, values, _numRows);
+    } else if (column instanceof double[]) {
+      ArrayCopyUtils.copy((double[]) column, values, _numRows);
+    } else {
+      Object[] boxedValues = (Object[]) column;
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        Object value = boxedValues[rowId];
+        if (value != null) {
+          values[rowId] = ((Number) value).longValue();
+        }
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Retrieves the values of a numeric column as a {@code float[]} (0 for null values), without boxing them when the
+   * block is backed by a serialized {@link DataBlock} or a primitive column vector.
+   *
+   * NOTE: The returned array might be shared with the block and must not be modified.
+   */
+  public float[] getFloatColumn(int colId) {
+    if (_columns == null && _dataBlock != null) {
+      return DataBlockExtractUtils.extractFloatColumn(getStoredType(colId), _dataBlock, colId,
+          _dataBlock.getNullRowIds(colId));
+    }
+    Object column = _columns != null ? _columns[colId] : getColumn(colId);
+    if (column instanceof float[]) {
+      return (float[]) column;
+    }
+    float[] values = new float[_numRows];
+    if (column instanceof int[]) {
+      ArrayCopyUtils.copy((int[]) column, values, _numRows);
+    } else if (column instanceof long[]) {
+      ArrayCopyUtils.copy((long[]) column, values, _numRows);
+    } else if (column instanceof double[]) {
+      ArrayCopyUtils.copy((double[]) column, values, _numRows);
+    } else {
+      Object[] boxedValues = (Object[]) column;
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        Object value = boxedValues[rowId];
+        if (value != null) {
+          values[rowId] = ((Number) value).floatValue();
+        }
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Retrieves the values of a numeric column as a {@code double[]} (0 for null values), without boxing them when the
+   * block is backed by a serialized {@link DataBlock} or a primitive column vector.
+   *
+   * NOTE: The returned array might be shared with the block and must not be modified.
+   */
+  public double[] getDoubleColumn(int colId) {
+    if (_columns == null && _dataBlock != null) {
+      return DataBlockExtractUtils.extractDoubleColumn(getStoredType(colId), _dataBlock, colId,
+          _dataBlock.getNullRowIds(colId));
+    }
+    Object column = _columns != null ? _columns[colId] : getColumn(colId);
+    if (column instanceof double[]) {
+      return (double[]) column;
+    }
+    double[] values = new double[_numRows];
+    if (column instanceof int[]) {
+      ArrayCopyUtils.copy((int[]) column, values, _numRows);
+    } else if (column instanceof long[]) {
+      ArrayCopyUtils.copy((long[]) column, values, _numRows);
+    } else if (column instanceof float[]) {
+      ArrayCopyUtils.copy((float[]) column, values, _numRows);
+    } else {
+      Object[] boxedValues = (Object[]) column;
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        Object value = boxedValues[rowId];
+        if (value != null) {
+          values[rowId] = ((Number) value).doubleValue();
+        }
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Retrieves the given rows (row ids in ascending order) of the block. When the block is backed by a columnar
+   * container or a serialized {@link DataBlock}, only the given rows are assembled.
+   *
+   * NOTE: The returned rows might be shared with the block and must not be modified.
+   */
+  public List<Object[]> getRows(int[] rowIds) {
+    int numSelectedRows = rowIds.length;
+    List<Object[]> rows = new ArrayList<>(numSelectedRows);
+    if (_container != null) {
+      for (int rowId : rowIds) {
+        rows.add(_container.get(rowId));
+      }
+      return rows;
+    }
+    if (_columns != null) {
+      int numColumns = _columns.length;
+      Object[][] columns = new Object[numColumns][];
+      for (int colId = 0; colId < numColumns; colId++) {
+        columns[colId] = getColumn(colId);
+      }
+      for (int rowId : rowIds) {
+        Object[] row = new Object[numColumns];
+        for (int colId = 0; colId < numColumns; colId++) {
+          row[colId] = columns[colId][rowId];
+        }
+        rows.add(row);
+      }
+      return rows;
+    }
+    Preconditions.checkState(_type != DataBlock.Type.METADATA, "Cannot extract rows from METADATA block");
+    return DataBlockExtractUtils.extractRows(_dataBlock, numSelectedRows, RoaringBitmap.bitmapOf(rowIds));
+  }
+
+  /**
+   * Returns a {@link DataBlock.Type#COLUMNAR} block with the given rows of this block (in the given order). The
+   * numeric columns are copied as primitive arrays so that their values are never boxed.
+   */
+  public TransferableBlock selectRows(int[] rowIds) {
+    assert _dataSchema != null;
+    int numColumns = _dataSchema.size();
+    int numSelectedRows = rowIds.length;
+    Object[] columns = new Object[numColumns];
+    RoaringBitmap[] nullBitmaps = new RoaringBitmap[numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      Object column = getColumnVector(colId);
+      if (column instanceof Object[]) {
+        Object[] values = (Object[]) column;
+        Object[] selectedValues = new Object[numSelectedRows];
+        for (int i = 0; i < numSelectedRows; i++) {
+          selectedValues[i] = values[rowIds[i]];
+        }
+        columns[colId] = selectedValues;
+      } else {
+        columns[colId] = selectValues(column, rowIds);
+        nullBitmaps[colId] = selectNullBitmap(getNullBitmap(colId), rowIds);
+      }
+    }
+    return new TransferableBlock(columns, nullBitmaps, _dataSchema);
+  }
+
+  /**
+   * Returns the values of a primitive array ({@code int[]}, {@code long[]}, {@code float[]} or {@code double[]}) at
+   * the given indexes.
+   */
+  public static Object selectValues(Object values, int[] indexes) {
+    int numIndexes = indexes.length;
+    if (values instanceof int[]) {
+      int[] intValues = (int[]) values;
+      int[] selectedValues = new int[numIndexes];
+      for (int i = 0; i < numIndexes; i++) {
+        selectedValues[i] = intValues[indexes[i]];
+      }
+      return selectedValues;
+    }
+    if (values instanceof long[]) {
+      long[] longValues = (long[]) values;
+      long[] selectedValues = new long[numIndexes];
+      for (int i = 0; i < numIndexes; i++) {
+        selectedValues[i] = longValues[indexes[i]];
+      }
+      return selectedValues;
+    }
+    if (values instanceof float[]) {
+      float[] floatValues = (float[]) values;
+      float[] selectedValues = new float[numIndexes];
+      for (int i = 0; i < numIndexes; i++) {
+        selectedValues[i] = floatValues[indexes[i]];
+      }
+      return selectedValues;
+    }
+    double[] doubleValues = (double[]) values;
+    double[] selectedValues = new double[numIndexes];
+    for (int i = 0; i < numIndexes; i++) {
+      selectedValues[i] = doubleValues[indexes[i]];
+    }
+    return selectedValues;
+  }
+
+  /**
+   * Returns the positions (in the given indexes) of the null values, or {@code null} if none of the indexes is null.
+   */
+  @Nullable
+  public static RoaringBitmap selectNullBitmap(@Nullable RoaringBitmap nullBitmap, int[] indexes) {
+    if (nullBitmap == null) {
+      return null;
+    }
+    RoaringBitmap selectedNullBitmap = new RoaringBitmap();
+    for (int i = 0; i < indexes.length; i++) {
+      if (nullBitmap.contains(indexes[i])) {
+        selectedNullBitmap.add(i);
+      }
+    }
+    return !selectedNullBitmap.isEmpty() ? selectedNullBitmap : null;
+  }
+
+  private DataType getStoredType(int colId) {
+    assert _dataSchema != null;
+    return _dataSchema.getColumnDataType(colId).toDataType().getStoredType();
+  }
+
+  @Nullable
+  private static RoaringBitmap getNullBitmap(Object[] values) {
+    RoaringBitmap nullBitmap = null;
+    for (int rowId = 0; rowId < values.length; rowId++) {
+      if (values[rowId] == null) {
+        if (nullBitmap == null) {
+          nullBitmap = new RoaringBitmap();
+        }
+        nullBitmap.add(rowId);
+      }
+    }
+    return nullBitmap;
+  }
+
+  private Object[] box(Object column, @Nullable RoaringBitmap nullBitmap) {
+    Object[] values = new Object[_numRows];
+    if (column instanceof int[]) {
+      int[] intValues = (int[]) column;
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        values[rowId] = intValues[rowId];
+      }
+    } else if (column instanceof long[]) {
+      long[] longValues = (long[]) column;
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        values[rowId] = longValues[rowId];
+      }
+    } else if (column instanceof float[]) {
+      float[] floatValues = (float[]) column;
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        values[rowId] = floatValues[rowId];
+      }
+    } else {
+      double[] doubleValues = (double[]) column;
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        values[rowId] = doubleValues[rowId];
+      }
+    }
+    if (nullBitmap != null) {
+      nullBitmap.forEach((int rowId) -> values[rowId] = null);
+    }
+    return values;
+  }
+
+  private List<Object[]> toRows() {
+    int numColumns = _columns.length;
+    Object[][] columns = new Object[numColumns][];
+    for (int colId = 0; colId < numColumns; colId++) {
+      columns[colId] = getColumn(colId);
+    }
+    List<Object[]> rows = new ArrayList<>(_numRows);
+    for (int rowId = 0; rowId < _numRows; rowId++) {
+      Object[] row = new Object[numColumns];
+      for (int colId = 0; colId < numColumns; colId++) {
+        row[colId] = columns[colId][rowId];
+      }
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  private List<Object[]> getColumns() {
+    int numColumns = _columns.length;
+    List<Object[]> columns = new ArrayList<>(numColumns);
+    for (int colId = 0; colId < numColumns; colId++) {
+      columns.add(getColumn(colId));
+    }
+    return columns;
+  }
+
   /**
    * Retrieve the binary-packed version of the data block.
    * If not already constructed. It will use {@link DataBlockBuilder} to construct the binary-packed format from
@@ -175,7 +609,7 @@ public class TransferableBlock implements Block {
             _dataBlock = DataBlockBuilder.buildFromRows(_container, _dataSchema);
             break;
           case COLUMNAR:
-            _dataBlock = DataBlockBuilder.buildFromColumns(_container, _dataSchema);
+            _dataBlock = DataBlockBuilder.buildFromColumns(getColumns(), _dataSchema);
             break;
           case METADATA:
             _dataBlock = new MetadataBlock(getSerializedStatsByStage());
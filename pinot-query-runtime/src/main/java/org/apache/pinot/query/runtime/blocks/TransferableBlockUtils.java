@@ -21,6 +21,7 @@ package org.apache.pinot.query.runtime.blocks;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -93,6 +94,32 @@ public final class TransferableBlockUtils {
         blockChunks.add(new TransferableBlock(chunk, block.getDataSchema(), block.getType()));
       }
       return blockChunks.iterator();
+    } else if (type == DataBlock.Type.COLUMNAR) {
+      // Use estimated row size, this estimate is not accurate and is used to estimate numRowsPerChunk only.
+      int numColumns = block.getDataSchema().getColumnNames().length;
+      int estimatedRowSizeInBytes = numColumns * MEDIAN_COLUMN_SIZE_BYTES;
+      int numRowsPerChunk = maxBlockSize / estimatedRowSizeInBytes;
+      Preconditions.checkState(numRowsPerChunk > 0, "row size too large for query engine to handle, abort!");
+
+      int totalNumRows = block.getNumRows();
+      if (totalNumRows <= numRowsPerChunk) {
+        return Iterators.singletonIterator(block);
+      }
+      Object[][] allColumns = new Object[numColumns][];
+      for (int colId = 0; colId < numColumns; colId++) {
+        allColumns[colId] = block.getColumn(colId);
+      }
+      int currentRow = 0;
+      while (currentRow < totalNumRows) {
+        int endRow = Math.min(currentRow + numRowsPerChunk, totalNumRows);
+        List<Object[]> chunk = new ArrayList<>(numColumns);
+        for (Object[] column : allColumns) {
+          chunk.add(Arrays.copyOfRange(column, currentRow, endRow));
+        }
+        currentRow = endRow;
+        blockChunks.add(new TransferableBlock(chunk, block.getDataSchema(), DataBlock.Type.COLUMNAR));
+      }
+      return blockChunks.iterator();
     } else if (type == DataBlock.Type.METADATA) {
       return Iterators.singletonIterator(block);
     } else {
@@ -0,0 +1,211 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.blocks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.operator.docvalsets.RowBasedBlockValSet;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * A {@link BlockValSet} reading a column of a {@link TransferableBlock} without assembling the rows of the block, so
+ * that the intermediate stage can run the v1 aggregation functions on columnar blocks. Numeric (INT, LONG, FLOAT,
+ * DOUBLE) columns are read as primitive vectors; the other columns are read through a {@link RowBasedBlockValSet}
+ * over the values of the column.
+ * TODO: Support MV
+ */
+public class TransferableBlockValSet implements BlockValSet {
+  private final ColumnDataType _columnDataType;
+  private final DataType _dataType;
+  private final TransferableBlock _block;
+  private final int _colId;
+  @Nullable
+  private final int[] _rowIds;
+  @Nullable
+  private final RoaringBitmap _nullBitmap;
+  // Value set for the non-numeric columns
+  @Nullable
+  private final RowBasedBlockValSet _rowBasedBlockValSet;
+
+  /**
+   * Reads the given column of the block, only for the given rows (in the given order) when {@code rowIds} is not null.
+   */
+  public TransferableBlockValSet(ColumnDataType columnDataType, TransferableBlock block, int colId,
+      @Nullable int[] rowIds) {
+    _columnDataType = columnDataType;
+    _dataType = columnDataType.toDataType();
+    _block = block;
+    _colId = colId;
+    _rowIds = rowIds;
+    switch (_dataType.getStoredType()) {
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        RoaringBitmap nullBitmap = block.getNullBitmap(colId);
+        _nullBitmap = rowIds != null ? TransferableBlock.selectNullBitmap(nullBitmap, rowIds) : nullBitmap;
+        _rowBasedBlockValSet = null;
+        break;
+      default:
+        _rowBasedBlockValSet = createRowBasedBlockValSet();
+        _nullBitmap = _rowBasedBlockValSet.getNullBitmap();
+        break;
+    }
+  }
+
+  @Nullable
+  @Override
+  public RoaringBitmap getNullBitmap() {
+    return _nullBitmap;
+  }
+
+  @Override
+  public DataType getValueType() {
+    return _dataType;
+  }
+
+  @Override
+  public boolean isSingleValue() {
+    return true;
+  }
+
+  @Nullable
+  @Override
+  public Dictionary getDictionary() {
+    return null;
+  }
+
+  @Override
+  public int[] getDictionaryIdsSV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int[] getIntValuesSV() {
+    if (_rowBasedBlockValSet != null) {
+      return _rowBasedBlockValSet.getIntValuesSV();
+    }
+    int[] values = _block.getIntColumn(_colId);
+    return _rowIds != null ? (int[]) TransferableBlock.selectValues(values, _rowIds) : values;
+  }
+
+  @Override
+  public long[] getLongValuesSV() {
+    if (_rowBasedBlockValSet != null) {
+      return _rowBasedBlockValSet.getLongValuesSV();
+    }
+    long[] values = _block.getLongColumn(_colId);
+    return _rowIds != null ? (long[]) TransferableBlock.selectValues(values, _rowIds) : values;
+  }
+
+  @Override
+  public float[] getFloatValuesSV() {
+    if (_rowBasedBlockValSet != null) {
+      return _rowBasedBlockValSet.getFloatValuesSV();
+    }
+    float[] values = _block.getFloatColumn(_colId);
+    return _rowIds != null ? (float[]) TransferableBlock.selectValues(values, _rowIds) : values;
+  }
+
+  @Override
+  public double[] getDoubleValuesSV() {
+    if (_rowBasedBlockValSet != null) {
+      return _rowBasedBlockValSet.getDoubleValuesSV();
+    }
+    double[] values = _block.getDoubleColumn(_colId);
+    return _rowIds != null ? (double[]) TransferableBlock.selectValues(values, _rowIds) : values;
+  }
+
+  @Override
+  public BigDecimal[] getBigDecimalValuesSV() {
+    return getRowBasedBlockValSet().getBigDecimalValuesSV();
+  }
+
+  @Override
+  public String[] getStringValuesSV() {
+    return getRowBasedBlockValSet().getStringValuesSV();
+  }
+
+  @Override
+  public byte[][] getBytesValuesSV() {
+    return getRowBasedBlockValSet().getBytesValuesSV();
+  }
+
+  @Override
+  public int[][] getDictionaryIdsMV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int[][] getIntValuesMV() {
+    return getRowBasedBlockValSet().getIntValuesMV();
+  }
+
+  @Override
+  public long[][] getLongValuesMV() {
+    return getRowBasedBlockValSet().getLongValuesMV();
+  }
+
+  @Override
+  public float[][] getFloatValuesMV() {
+    return getRowBasedBlockValSet().getFloatValuesMV();
+  }
+
+  @Override
+  public double[][] getDoubleValuesMV() {
+    return getRowBasedBlockValSet().getDoubleValuesMV();
+  }
+
+  @Override
+  public String[][] getStringValuesMV() {
+    return getRowBasedBlockValSet().getStringValuesMV();
+  }
+
+  @Override
+  public byte[][][] getBytesValuesMV() {
+    return getRowBasedBlockValSet().getBytesValuesMV();
+  }
+
+  @Override
+  public int[] getNumMVEntries() {
+    throw new UnsupportedOperationException();
+  }
+
+  private RowBasedBlockValSet getRowBasedBlockValSet() {
+    // Numeric columns might also be read as other types (e.g. BIG_DECIMAL)
+    return _rowBasedBlockValSet != null ? _rowBasedBlockValSet : createRowBasedBlockValSet();
+  }
+
+  private RowBasedBlockValSet createRowBasedBlockValSet() {
+    Object[] values = _block.getColumn(_colId);
+    int numRows = _rowIds != null ? _rowIds.length : values.length;
+    List<Object[]> rows = new ArrayList<>(numRows);
+    for (int i = 0; i < numRows; i++) {
+      rows.add(new Object[]{values[_rowIds != null ? _rowIds[i] : i]});
+    }
+    return new RowBasedBlockValSet(_columnDataType, rows, 0, true);
+  }
+}
@@ -43,6 +43,7 @@ import org.apache.pinot.query.parser.CalciteRexExpressionParser;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.AggregateNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.blocks.TransferableBlockValSet;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.roaringbitmap.RoaringBitmap;
 import org.slf4j.Logger;
@@ -249,7 +250,14 @@ public class AggregateOperator extends MultiStageOperator {
   static RoaringBitmap getMatchedBitmap(TransferableBlock block, int filterArgId) {
     Preconditions.checkArgument(filterArgId >= 0, "Got negative filter argument id: %s", filterArgId);
     RoaringBitmap matchedBitmap = new RoaringBitmap();
-    if (block.isContainerConstructed()) {
+    if (block.getType() == DataBlock.Type.COLUMNAR) {
+      int[] values = block.getIntColumn(filterArgId);
+      for (int rowId = 0; rowId < values.length; rowId++) {
+        if (values[rowId] == 1) {
+          matchedBitmap.add(rowId);
+        }
+      }
+    } else if (block.isContainerConstructed()) {
       List<Object[]> rows = block.getContainer();
       int numRows = rows.size();
       for (int rowId = 0; rowId < numRows; rowId++) {
@@ -278,7 +286,17 @@ public class AggregateOperator extends MultiStageOperator {
     }
     DataSchema dataSchema = block.getDataSchema();
     Map<ExpressionContext, BlockValSet> blockValSetMap = new HashMap<>();
-    if (block.isContainerConstructed()) {
+    if (block.getType() == DataBlock.Type.COLUMNAR) {
+      // Read the columns without assembling the rows
+      for (ExpressionContext expression : expressions) {
+        String identifier = expression.getIdentifier();
+        if (identifier != null) {
+          int colId = fromIdentifierToColId(identifier);
+          blockValSetMap.put(expression,
+              new TransferableBlockValSet(dataSchema.getColumnDataType(colId), block, colId, null));
+        }
+      }
+    } else if (block.isContainerConstructed()) {
       List<Object[]> rows = block.getContainer();
       for (ExpressionContext expression : expressions) {
         String identifier = expression.getIdentifier();
@@ -310,7 +328,18 @@ public class AggregateOperator extends MultiStageOperator {
     }
     DataSchema dataSchema = block.getDataSchema();
     Map<ExpressionContext, BlockValSet> blockValSetMap = new HashMap<>();
-    if (block.isContainerConstructed()) {
+    if (block.getType() == DataBlock.Type.COLUMNAR) {
+      // Read the matched values of the columns without assembling the rows
+      int[] matchedRowIds = matchedBitmap.toArray();
+      for (ExpressionContext expression : expressions) {
+        String identifier = expression.getIdentifier();
+        if (identifier != null) {
+          int colId = fromIdentifierToColId(identifier);
+          blockValSetMap.put(expression,
+              new TransferableBlockValSet(dataSchema.getColumnDataType(colId), block, colId, matchedRowIds));
+        }
+      }
+    } else if (block.isContainerConstructed()) {
       List<Object[]> rows = block.getContainer();
       for (ExpressionContext expression : expressions) {
         String identifier = expression.getIdentifier();
@@ -342,7 +371,9 @@ public class AggregateOperator extends MultiStageOperator {
         "Expected the first argument to be IDENTIFIER, got: %s", firstArgument.getType());
     int colId = fromIdentifierToColId(firstArgument.getIdentifier());
     int numRows = block.getNumRows();
-    if (block.isContainerConstructed()) {
+    if (block.getType() == DataBlock.Type.COLUMNAR) {
+      return block.getColumn(colId);
+    } else if (block.isContainerConstructed()) {
       Object[] values = new Object[numRows];
       List<Object[]> rows = block.getContainer();
       for (int rowId = 0; rowId < numRows; rowId++) {
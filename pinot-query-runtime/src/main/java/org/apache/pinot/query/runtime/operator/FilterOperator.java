@@ -19,7 +19,7 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.base.Preconditions;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.StatMap;
@@ -106,15 +106,28 @@ public class FilterOperator extends MultiStageOperator {
         return updateEosBlock(block, _statMap);
       }
       assert block.isDataBlock();
-      List<Object[]> rows = new ArrayList<>();
-      for (Object[] row : block.getContainer()) {
-        Object filterResult = _filterOperand.apply(row);
-        if (BooleanUtils.isTrueInternalValue(filterResult)) {
-          rows.add(row);
+      // Evaluate the filter a column at a time
+      Object[] filterResults = _filterOperand.apply(block);
+      int numRows = filterResults.length;
+      int[] matchedRowIds = new int[numRows];
+      int numMatchedRows = 0;
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        if (BooleanUtils.isTrueInternalValue(filterResults[rowId])) {
+          matchedRowIds[numMatchedRows++] = rowId;
         }
       }
-      if (!rows.isEmpty()) {
-        return new TransferableBlock(rows, _dataSchema, DataBlock.Type.ROW);
+      if (numMatchedRows == 0) {
+        continue;
+      }
+      if (numMatchedRows < numRows) {
+        matchedRowIds = Arrays.copyOf(matchedRowIds, numMatchedRows);
+      }
+      // Keep the format of the input block so that row based downstream operators don't need to assemble the rows
+      // again, and only extract the matched rows/values when the input block is columnar or still serialized
+      if (block.getType() == DataBlock.Type.ROW) {
+        return new TransferableBlock(block.getRows(matchedRowIds), _dataSchema, DataBlock.Type.ROW);
+      } else {
+        return block.selectRows(matchedRowIds);
       }
     }
   }
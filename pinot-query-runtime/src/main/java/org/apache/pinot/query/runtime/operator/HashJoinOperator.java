@@ -20,6 +20,7 @@ package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
@@ -34,6 +35,7 @@ import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.config.QueryOptionsUtils;
+import org.apache.pinot.core.data.table.Key;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
 import org.apache.pinot.query.planner.partitioning.KeySelectorFactory;
@@ -84,6 +86,7 @@ public class HashJoinOperator extends MultiStageOperator {
   private final JoinRelType _joinType;
   private final KeySelector<?> _leftKeySelector;
   private final KeySelector<?> _rightKeySelector;
+  private final int[] _leftKeyIds;
   private final DataSchema _resultSchema;
   private final int _leftColumnSize;
   private final int _resultColumnSize;
@@ -124,6 +127,11 @@ public class HashJoinOperator extends MultiStageOperator {
 
     _leftKeySelector = KeySelectorFactory.getKeySelector(node.getLeftKeys());
     _rightKeySelector = KeySelectorFactory.getKeySelector(node.getRightKeys());
+    List<Integer> leftKeys = node.getLeftKeys();
+    _leftKeyIds = new int[leftKeys.size()];
+    for (int i = 0; i < _leftKeyIds.length; i++) {
+      _leftKeyIds[i] = leftKeys.get(i);
+    }
     _leftColumnSize = leftSchema.size();
     _resultSchema = node.getDataSchema();
     _resultColumnSize = _resultSchema.size();
@@ -312,11 +320,27 @@ public class HashJoinOperator extends MultiStageOperator {
 
   private List<Object[]> buildJoinedDataBlockDefault(TransferableBlock leftBlock)
       throws ProcessingException {
-    List<Object[]> container = leftBlock.getContainer();
-    ArrayList<Object[]> rows = new ArrayList<>(container.size());
+    List<Object[]> container;
+    Object[] keys;
+    if (isRowBased(leftBlock) || needUnmatchedLeftRows()) {
+      container = leftBlock.getContainer();
+      keys = null;
+    } else {
+      // Only assemble the left rows with a matching key
+      Object[] leftKeys = getLeftKeys(leftBlock);
+      int[] matchedRowIds = getMatchedRowIds(leftKeys, true);
+      container = leftBlock.getRows(matchedRowIds);
+      keys = new Object[matchedRowIds.length];
+      for (int i = 0; i < matchedRowIds.length; i++) {
+        keys[i] = leftKeys[matchedRowIds[i]];
+      }
+    }
+    int numLeftRows = container.size();
+    ArrayList<Object[]> rows = new ArrayList<>(numLeftRows);
 
-    for (Object[] leftRow : container) {
-      Object key = _leftKeySelector.getKey(leftRow);
+    for (int leftRowId = 0; leftRowId < numLeftRows; leftRowId++) {
+      Object[] leftRow = container.get(leftRowId);
+      Object key = keys != null ? keys[leftRowId] : _leftKeySelector.getKey(leftRow);
       // NOTE: Empty key selector will always give same hash code.
       List<Object[]> rightRows = _broadcastRightTable.get(key);
       if (rightRows == null) {
@@ -364,6 +388,10 @@ public class HashJoinOperator extends MultiStageOperator {
   }
 
   private List<Object[]> buildJoinedDataBlockSemi(TransferableBlock leftBlock) {
+    if (!isRowBased(leftBlock)) {
+      // Only assemble the left rows with a matching key
+      return leftBlock.getRows(getMatchedRowIds(getLeftKeys(leftBlock), true));
+    }
     List<Object[]> container = leftBlock.getContainer();
     List<Object[]> rows = new ArrayList<>(container.size());
 
@@ -379,6 +407,10 @@ public class HashJoinOperator extends MultiStageOperator {
   }
 
   private List<Object[]> buildJoinedDataBlockAnti(TransferableBlock leftBlock) {
+    if (!isRowBased(leftBlock)) {
+      // Only assemble the left rows without matching key
+      return leftBlock.getRows(getMatchedRowIds(getLeftKeys(leftBlock), false));
+    }
     List<Object[]> container = leftBlock.getContainer();
     List<Object[]> rows = new ArrayList<>(container.size());
 
@@ -393,6 +425,53 @@ public class HashJoinOperator extends MultiStageOperator {
     return rows;
   }
 
+  private static boolean isRowBased(TransferableBlock block) {
+    return block.getType() == DataBlock.Type.ROW && block.isContainerConstructed();
+  }
+
+  /**
+   * Returns the join key of each row of a columnar or serialized left block (same as the left key selector), only
+   * extracting the key columns from the block.
+   */
+  private Object[] getLeftKeys(TransferableBlock leftBlock) {
+    int numKeys = _leftKeyIds.length;
+    if (numKeys == 0) {
+      return new Object[leftBlock.getNumRows()];
+    }
+    if (numKeys == 1) {
+      return leftBlock.getColumn(_leftKeyIds[0]);
+    }
+    Object[][] keyColumns = new Object[numKeys][];
+    for (int i = 0; i < numKeys; i++) {
+      keyColumns[i] = leftBlock.getColumn(_leftKeyIds[i]);
+    }
+    int numRows = leftBlock.getNumRows();
+    Object[] keys = new Object[numRows];
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      Object[] values = new Object[numKeys];
+      for (int i = 0; i < numKeys; i++) {
+        values[i] = keyColumns[i][rowId];
+      }
+      keys[rowId] = new Key(values);
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the ids of the rows whose key is (or is not when {@code matched} is false) in the right table.
+   */
+  private int[] getMatchedRowIds(Object[] keys, boolean matched) {
+    int numRows = keys.length;
+    int[] rowIds = new int[numRows];
+    int numMatchedRows = 0;
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      if (_broadcastRightTable.containsKey(keys[rowId]) == matched) {
+        rowIds[numMatchedRows++] = rowId;
+      }
+    }
+    return numMatchedRows < numRows ? Arrays.copyOf(rowIds, numMatchedRows) : rowIds;
+  }
+
   private List<Object[]> buildNonMatchRightRows() {
     List<Object[]> rows = new ArrayList<>();
     for (Map.Entry<Object, ArrayList<Object[]>> entry : _broadcastRightTable.entrySet()) {
@@ -22,7 +22,9 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -40,7 +42,9 @@ import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.exchange.BlockExchange;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.exception.QueryCancelledException;
+import org.apache.pinot.spi.utils.ByteArray;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,8 +69,7 @@ public class MailboxSendOperator extends MultiStageOperator {
   // TODO: Support sort on sender
   public MailboxSendOperator(OpChainExecutionContext context, MultiStageOperator input, MailboxSendNode node) {
     this(context, input,
-        statMap -> getBlockExchange(context, node.getReceiverStageId(), node.getDistributionType(), node.getKeys(),
-            statMap));
+        statMap -> getBlockExchange(context, node, statMap));
     _statMap.merge(StatKey.STAGE, context.getStageId());
     _statMap.merge(StatKey.PARALLELISM, 1);
   }
@@ -79,8 +82,10 @@ public class MailboxSendOperator extends MultiStageOperator {
     _exchange = exchangeFactory.apply(_statMap);
   }
 
-  private static BlockExchange getBlockExchange(OpChainExecutionContext context, int receiverStageId,
-      RelDistribution.Type distributionType, List<Integer> keys, StatMap<StatKey> statMap) {
+  private static BlockExchange getBlockExchange(OpChainExecutionContext context, MailboxSendNode node,
+      StatMap<StatKey> statMap) {
+    int receiverStageId = node.getReceiverStageId();
+    RelDistribution.Type distributionType = node.getDistributionType();
     Preconditions.checkState(SUPPORTED_EXCHANGE_TYPES.contains(distributionType), "Unsupported distribution type: %s",
         distributionType);
     MailboxService mailboxService = context.getMailboxService();
@@ -96,7 +101,30 @@ public class MailboxSendOperator extends MultiStageOperator {
         .map(v -> mailboxService.getSendingMailbox(v.getHostname(), v.getPort(), v.getMailboxId(), deadlineMs, statMap))
         .collect(Collectors.toList());
     statMap.merge(StatKey.FAN_OUT, sendingMailboxes.size());
-    return BlockExchange.getExchange(sendingMailboxes, distributionType, keys, TransferableBlockUtils::splitBlock);
+    return BlockExchange.getExchange(sendingMailboxes, distributionType, node.getKeys(),
+        TransferableBlockUtils::splitBlock, node.getSkewSplitFactor(), node.isSkewSplitReplicate(),
+        getSkewHotKeys(node), statMap);
+  }
+
+  /**
+   * Converts the hot keys of the skew split into the values of the hash key column.
+   */
+  @VisibleForTesting
+  static Set<Object> getSkewHotKeys(MailboxSendNode node) {
+    List<String> skewHotKeys = node.getSkewHotKeys();
+    if (skewHotKeys.isEmpty()) {
+      return Set.of();
+    }
+    List<Integer> keys = node.getKeys();
+    Preconditions.checkState(keys.size() == 1, "Skew split requires a single hash key, got: %s", keys);
+    FieldSpec.DataType dataType = node.getDataSchema().getColumnDataType(keys.get(0)).toDataType();
+    Set<Object> hotKeys = new HashSet<>();
+    for (String skewHotKey : skewHotKeys) {
+      Object hotKey = dataType.convertInternal(skewHotKey);
+      // BYTES keys are compared as ByteArray in the rows
+      hotKeys.add(hotKey instanceof byte[] ? new ByteArray((byte[]) hotKey) : hotKey);
+    }
+    return hotKeys;
   }
 
   @Override
@@ -277,7 +305,20 @@ public class MailboxSendOperator extends MultiStageOperator {
       public boolean includeDefaultInJson() {
         return true;
       }
-    };
+    },
+    /**
+     * How many hot keys were detected at runtime by a skew-aware hash exchange.
+     */
+    HOT_KEYS(StatMap.Type.INT) {
+      @Override
+      public int merge(int value1, int value2) {
+        return Math.max(value1, value2);
+      }
+    },
+    /**
+     * How many rows of hot keys were split or replicated across multiple receivers by a skew-aware hash exchange.
+     */
+    SKEW_SPLIT_ROWS(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
@@ -0,0 +1,506 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator;
+
+import com.google.common.base.Preconditions;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.StatMap;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.response.ProcessingException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
+import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.planner.plannode.JoinNode;
+import org.apache.pinot.query.planner.plannode.PlanNode;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
+import org.apache.pinot.query.runtime.operator.operands.TransformOperandFactory;
+import org.apache.pinot.query.runtime.operator.utils.SortUtils;
+import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.BooleanUtils;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.JoinOverFlowMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This {@code MergeJoinOperator} implements the sort-merge join algorithm.
+ * <p>Both inputs must be sorted on the join keys in ascending order with nulls last, which is the order produced by
+ * the sorted exchanges inserted for the {@code merge} join strategy. The join keys are compared the same way as the
+ * sort of these exchanges (see {@link SortUtils.SortComparator}), i.e. numeric keys are compared as doubles, and the
+ * rows with the same key as doubles are then matched on the exact key. The operator advances both inputs in lock step,
+ * and only buffers the right rows sharing the join key of the current left row. Note that the sorted exchanges still
+ * buffer their whole input on the receiver to sort it, which is capped by the same row limit as the join.
+ * <p>For each of the data block received from the left table, it generates a joint data block. The output is in the
+ * format of [left_row, right_row]. Rows with a {@code null} join key never match.
+ * <p>RIGHT and FULL join are not supported because the unmatched right rows are only known at the end of the merge.
+ */
+public class MergeJoinOperator extends MultiStageOperator {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MergeJoinOperator.class);
+  private static final String EXPLAIN_NAME = "MERGE_JOIN";
+  private static final int DEFAULT_MAX_ROWS_IN_JOIN = 1024 * 1024; // 2^20, around 1MM rows
+  private static final JoinOverFlowMode DEFAULT_JOIN_OVERFLOW_MODE = JoinOverFlowMode.THROW;
+
+  private static final Set<JoinRelType> SUPPORTED_JOIN_TYPES =
+      Set.of(JoinRelType.INNER, JoinRelType.LEFT, JoinRelType.SEMI, JoinRelType.ANTI);
+
+  private final MultiStageOperator _leftInput;
+  private final MultiStageOperator _rightInput;
+  private final JoinRelType _joinType;
+  private final int[] _leftKeyIds;
+  private final int[] _rightKeyIds;
+  private final boolean[] _useDoubleComparison;
+  private final DataSchema _resultSchema;
+  private final int _leftColumnSize;
+  private final int _resultColumnSize;
+  private final List<TransformOperand> _nonEquiEvaluators;
+  private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
+
+  /**
+   * Max rows allowed to be buffered for a single join key from the right table.
+   */
+  private final int _maxRowsInJoin;
+  /**
+   * Mode when join overflow happens, supported values: THROW or BREAK.
+   *   THROW(default): Throw exception when the rows of a join key from the right table exceed the limit.
+   *   BREAK: Only join with the first rows of the join key from the right table, results might be partial.
+   */
+  private final JoinOverFlowMode _joinOverflowMode;
+
+  // Cursor on the right input
+  private List<Object[]> _rightRows = Collections.emptyList();
+  private int _rightRowId;
+  private boolean _isRightInputFinished;
+
+  // Right rows sharing the same join key, which is the key of the first row
+  private final List<Object[]> _rightGroup = new ArrayList<>();
+
+  private TransferableBlock _upstreamErrorBlock;
+  private MultiStageQueryStats _rightSideStats;
+
+  public MergeJoinOperator(OpChainExecutionContext context, MultiStageOperator leftInput, DataSchema leftSchema,
+      MultiStageOperator rightInput, JoinNode node) {
+    super(context);
+    _leftInput = leftInput;
+    _rightInput = rightInput;
+    _joinType = node.getJoinType();
+    Preconditions.checkState(SUPPORTED_JOIN_TYPES.contains(_joinType), "Join type: %s is not supported for merge join",
+        _joinType);
+
+    List<Integer> leftKeys = node.getLeftKeys();
+    List<Integer> rightKeys = node.getRightKeys();
+    Preconditions.checkState(!leftKeys.isEmpty() && leftKeys.size() == rightKeys.size(),
+        "Merge join requires the same non-zero number of keys on both sides, got left: %s, right: %s", leftKeys,
+        rightKeys);
+    int numKeys = leftKeys.size();
+    _leftKeyIds = new int[numKeys];
+    _rightKeyIds = new int[numKeys];
+    _useDoubleComparison = new boolean[numKeys];
+    for (int i = 0; i < numKeys; i++) {
+      _leftKeyIds[i] = leftKeys.get(i);
+      _rightKeyIds[i] = rightKeys.get(i);
+      // The join keys have the same type on both sides
+      _useDoubleComparison[i] = leftSchema.getColumnDataType(_leftKeyIds[i]).isNumber();
+    }
+    _leftColumnSize = leftSchema.size();
+    _resultSchema = node.getDataSchema();
+    _resultColumnSize = _resultSchema.size();
+    List<RexExpression> nonEquiConditions = node.getNonEquiConditions();
+    _nonEquiEvaluators = new ArrayList<>(nonEquiConditions.size());
+    for (RexExpression nonEquiCondition : nonEquiConditions) {
+      _nonEquiEvaluators.add(TransformOperandFactory.getTransformOperand(nonEquiCondition, _resultSchema));
+    }
+    Map<String, String> metadata = context.getOpChainMetadata();
+    PlanNode.NodeHint nodeHint = node.getNodeHint();
+    _maxRowsInJoin = getMaxRowsInJoin(metadata, nodeHint);
+    _joinOverflowMode = getJoinOverflowMode(metadata, nodeHint);
+  }
+
+  @Override
+  public void registerExecution(long time, int numRows) {
+    _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
+    _statMap.merge(StatKey.EMITTED_ROWS, numRows);
+  }
+
+  @Override
+  public Type getOperatorType() {
+    return Type.MERGE_JOIN;
+  }
+
+  @Override
+  protected Logger logger() {
+    return LOGGER;
+  }
+
+  /**
+   * Returns the max number of rows of a join key buffered from the right table, which also caps the rows buffered by
+   * the sorted exchanges feeding the join.
+   */
+  public static int getMaxRowsInJoin(Map<String, String> opChainMetadata, @Nullable PlanNode.NodeHint nodeHint) {
+    if (nodeHint != null) {
+      Map<String, String> joinOptions = nodeHint.getHintOptions().get(PinotHintOptions.JOIN_HINT_OPTIONS);
+      if (joinOptions != null) {
+        String maxRowsInJoinStr = joinOptions.get(PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN);
+        if (maxRowsInJoinStr != null) {
+          return Integer.parseInt(maxRowsInJoinStr);
+        }
+      }
+    }
+    Integer maxRowsInJoin = QueryOptionsUtils.getMaxRowsInJoin(opChainMetadata);
+    return maxRowsInJoin != null ? maxRowsInJoin : DEFAULT_MAX_ROWS_IN_JOIN;
+  }
+
+  private JoinOverFlowMode getJoinOverflowMode(Map<String, String> contextMetadata,
+      @Nullable PlanNode.NodeHint nodeHint) {
+    if (nodeHint != null) {
+      Map<String, String> joinOptions = nodeHint.getHintOptions().get(PinotHintOptions.JOIN_HINT_OPTIONS);
+      if (joinOptions != null) {
+        String joinOverflowModeStr = joinOptions.get(PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE);
+        if (joinOverflowModeStr != null) {
+          return JoinOverFlowMode.valueOf(joinOverflowModeStr);
+        }
+      }
+    }
+    JoinOverFlowMode joinOverflowMode = QueryOptionsUtils.getJoinOverflowMode(contextMetadata);
+    return joinOverflowMode != null ? joinOverflowMode : DEFAULT_JOIN_OVERFLOW_MODE;
+  }
+
+  @Override
+  public List<MultiStageOperator> getChildOperators() {
+    return List.of(_leftInput, _rightInput);
+  }
+
+  @Override
+  public String toExplainString() {
+    return EXPLAIN_NAME;
+  }
+
+  @Override
+  protected TransferableBlock getNextBlock()
+      throws ProcessingException {
+    // Keep reading the input blocks until we find a match row or all blocks are processed.
+    while (true) {
+      if (_upstreamErrorBlock != null) {
+        return _upstreamErrorBlock;
+      }
+      TransferableBlock leftBlock = _leftInput.nextBlock();
+      if (leftBlock.isErrorBlock()) {
+        return leftBlock;
+      }
+      if (leftBlock.isSuccessfulEndOfStreamBlock()) {
+        // Drain the right input to collect its stats
+        finishRightInput();
+        if (_upstreamErrorBlock != null) {
+          return _upstreamErrorBlock;
+        }
+        MultiStageQueryStats leftSideStats = leftBlock.getQueryStats();
+        assert leftSideStats != null && _rightSideStats != null;
+        leftSideStats.mergeInOrder(_rightSideStats, getOperatorType(), _statMap);
+        return leftBlock;
+      }
+      assert leftBlock.isDataBlock();
+      List<Object[]> rows = buildJoinedRows(leftBlock);
+      sampleAndCheckInterruption();
+      if (_upstreamErrorBlock != null) {
+        return _upstreamErrorBlock;
+      }
+      if (!rows.isEmpty()) {
+        return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+      }
+    }
+  }
+
+  private List<Object[]> buildJoinedRows(TransferableBlock leftBlock)
+      throws ProcessingException {
+    List<Object[]> container = leftBlock.getContainer();
+    List<Object[]> rows = new ArrayList<>(container.size());
+    for (Object[] leftRow : container) {
+      List<Object[]> rightGroup = findRightGroup(leftRow);
+      if (_upstreamErrorBlock != null) {
+        break;
+      }
+      switch (_joinType) {
+        case SEMI:
+          if (hasExactKeyMatch(leftRow, rightGroup)) {
+            rows.add(leftRow);
+          }
+          break;
+        case ANTI:
+          if (!hasExactKeyMatch(leftRow, rightGroup)) {
+            rows.add(leftRow);
+          }
+          break;
+        default: { // INNER, LEFT
+          boolean hasMatchForLeftRow = false;
+          for (Object[] rightRow : rightGroup) {
+            if (!isExactKeyMatch(leftRow, rightRow)) {
+              continue;
+            }
+            // TODO: Optimize this to avoid unnecessary object copy.
+            Object[] resultRow = joinRow(leftRow, rightRow);
+            if (_nonEquiEvaluators.isEmpty() || _nonEquiEvaluators.stream()
+                .allMatch(evaluator -> BooleanUtils.isTrueInternalValue(evaluator.apply(resultRow)))) {
+              rows.add(resultRow);
+              hasMatchForLeftRow = true;
+            }
+          }
+          if (!hasMatchForLeftRow && _joinType == JoinRelType.LEFT) {
+            rows.add(joinRow(leftRow, null));
+          }
+          break;
+        }
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Advances the right input to the join key of the given left row, and returns the right rows with the same join key
+   * as compared by {@link #compareKeys}, or an empty list if there is no such row. The returned rows might not match
+   * the exact join key of the left row (see {@link #isExactKeyMatch}).
+   */
+  private List<Object[]> findRightGroup(Object[] leftRow)
+      throws ProcessingException {
+    if (hasNullKey(leftRow, _leftKeyIds)) {
+      return Collections.emptyList();
+    }
+    // Reuse the current group when the left row has the same join key
+    if (!_rightGroup.isEmpty()) {
+      int result = compareKeys(leftRow, _rightGroup.get(0));
+      if (result == 0) {
+        return _rightGroup;
+      }
+      if (result < 0) {
+        return Collections.emptyList();
+      }
+      _rightGroup.clear();
+    }
+    // Skip the right rows with smaller join key
+    Object[] rightRow = peekRightRow();
+    while (rightRow != null) {
+      int result = compareKeys(leftRow, rightRow);
+      if (result == 0) {
+        break;
+      }
+      if (result < 0) {
+        return Collections.emptyList();
+      }
+      _rightRowId++;
+      rightRow = peekRightRow();
+    }
+    if (rightRow == null) {
+      return Collections.emptyList();
+    }
+    // Collect all the right rows with the same join key
+    while (rightRow != null && compareKeys(leftRow, rightRow) == 0) {
+      if (_rightGroup.size() == _maxRowsInJoin) {
+        if (_joinOverflowMode == JoinOverFlowMode.THROW) {
+          throwProcessingExceptionForJoinRowLimitExceeded(
+              "Cannot buffer the rows of a join key for merge join operator, reached number of rows limit: "
+                  + _maxRowsInJoin);
+        }
+        // Skip the remaining rows of the key, and only join with the buffered rows
+        _statMap.merge(StatKey.MAX_ROWS_IN_JOIN_REACHED, true);
+      } else {
+        _rightGroup.add(rightRow);
+      }
+      _rightRowId++;
+      rightRow = peekRightRow();
+    }
+    return _rightGroup;
+  }
+
+  /**
+   * Returns the current row of the right input without consuming it, or {@code null} when the right input is finished.
+   */
+  @Nullable
+  private Object[] peekRightRow() {
+    while (_rightRowId == _rightRows.size()) {
+      if (_isRightInputFinished) {
+        return null;
+      }
+      TransferableBlock rightBlock = _rightInput.nextBlock();
+      if (rightBlock.isDataBlock()) {
+        _rightRows = rightBlock.getContainer();
+        _rightRowId = 0;
+      } else {
+        _isRightInputFinished = true;
+        _rightRows = Collections.emptyList();
+        _rightRowId = 0;
+        if (rightBlock.isErrorBlock()) {
+          _upstreamErrorBlock = rightBlock;
+        } else {
+          _rightSideStats = rightBlock.getQueryStats();
+          assert _rightSideStats != null;
+        }
+      }
+    }
+    return _rightRows.get(_rightRowId);
+  }
+
+  private void finishRightInput() {
+    if (_isRightInputFinished) {
+      return;
+    }
+    _rightInput.earlyTerminate();
+    _rightRows = Collections.emptyList();
+    _rightRowId = 0;
+    while (peekRightRow() != null) {
+      _rightRowId = _rightRows.size();
+    }
+  }
+
+  private static boolean hasNullKey(Object[] row, int[] keyIds) {
+    for (int keyId : keyIds) {
+      if (row[keyId] == null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Compares the join key of the left row with the join key of the right row, consistent with the ascending sort order
+   * with nulls last of the inputs, which compares the numeric values as doubles (see {@link SortUtils.SortComparator}).
+   */
+  private int compareKeys(Object[] leftRow, Object[] rightRow) {
+    for (int i = 0; i < _leftKeyIds.length; i++) {
+      Object leftValue = leftRow[_leftKeyIds[i]];
+      Object rightValue = rightRow[_rightKeyIds[i]];
+      if (leftValue == null) {
+        if (rightValue == null) {
+          continue;
+        }
+        return 1;
+      }
+      if (rightValue == null) {
+        return -1;
+      }
+      int result;
+      if (_useDoubleComparison[i]) {
+        result = Double.compare(((Number) leftValue).doubleValue(), ((Number) rightValue).doubleValue());
+      } else {
+        //noinspection rawtypes,unchecked
+        result = ((Comparable) leftValue).compareTo(rightValue);
+      }
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  private boolean hasExactKeyMatch(Object[] leftRow, List<Object[]> rightGroup) {
+    for (Object[] rightRow : rightGroup) {
+      if (isExactKeyMatch(leftRow, rightRow)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether the join keys of the left row and the right row, which are equal when compared by
+   * {@link #compareKeys}, are exactly equal. LONG and BIG_DECIMAL values can lose precision when compared as doubles.
+   */
+  private boolean isExactKeyMatch(Object[] leftRow, Object[] rightRow) {
+    for (int i = 0; i < _leftKeyIds.length; i++) {
+      if (!_useDoubleComparison[i]) {
+        continue;
+      }
+      Object leftValue = leftRow[_leftKeyIds[i]];
+      Object rightValue = rightRow[_rightKeyIds[i]];
+      if (leftValue instanceof Long && rightValue instanceof Long) {
+        if ((long) leftValue != (long) rightValue) {
+          return false;
+        }
+      } else if (leftValue instanceof BigDecimal && rightValue instanceof BigDecimal) {
+        if (((BigDecimal) leftValue).compareTo((BigDecimal) rightValue) != 0) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private Object[] joinRow(Object[] leftRow, @Nullable Object[] rightRow) {
+    Object[] resultRow = new Object[_resultColumnSize];
+    System.arraycopy(leftRow, 0, resultRow, 0, leftRow.length);
+    if (rightRow != null) {
+      System.arraycopy(rightRow, 0, resultRow, _leftColumnSize, rightRow.length);
+    }
+    return resultRow;
+  }
+
+  private void throwProcessingExceptionForJoinRowLimitExceeded(String reason)
+      throws ProcessingException {
+    ProcessingException resourceLimitExceededException =
+        new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
+    resourceLimitExceededException.setMessage(reason
+        + ". Consider increasing the limit for the maximum number of rows in a join either via the query option '"
+        + CommonConstants.Broker.Request.QueryOptionKey.MAX_ROWS_IN_JOIN + "' or the '"
+        + PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN + "' hint in the '" + PinotHintOptions.JOIN_HINT_OPTIONS
+        + "'. Alternatively, if partial results are acceptable, the join overflow mode can be set to '"
+        + JoinOverFlowMode.BREAK.name() + "' either via the query option '"
+        + CommonConstants.Broker.Request.QueryOptionKey.JOIN_OVERFLOW_MODE + "' or the '"
+        + PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE + "' hint in the '" + PinotHintOptions.JOIN_HINT_OPTIONS
+        + "'.");
+    throw resourceLimitExceededException;
+  }
+
+  public enum StatKey implements StatMap.Key {
+    //@formatter:off
+    EXECUTION_TIME_MS(StatMap.Type.LONG) {
+      @Override
+      public boolean includeDefaultInJson() {
+        return true;
+      }
+    },
+    EMITTED_ROWS(StatMap.Type.LONG) {
+      @Override
+      public boolean includeDefaultInJson() {
+        return true;
+      }
+    },
+    MAX_ROWS_IN_JOIN_REACHED(StatMap.Type.BOOLEAN);
+    //@formatter:on
+
+    private final StatMap.Type _type;
+
+    StatKey(StatMap.Type type) {
+      _type = type;
+    }
+
+    @Override
+    public StatMap.Type getType() {
+      return _type;
+    }
+  }
+}
@@ -400,6 +400,15 @@ public abstract class MultiStageOperator
         StatMap<LookupJoinOperator.StatKey> stats = (StatMap<LookupJoinOperator.StatKey>) map;
         response.mergeMaxRowsInOperator(stats.getLong(LookupJoinOperator.StatKey.EMITTED_ROWS));
       }
+    },
+    MERGE_JOIN(MergeJoinOperator.StatKey.class) {
+      @Override
+      public void mergeInto(BrokerResponseNativeV2 response, StatMap<?> map) {
+        @SuppressWarnings("unchecked")
+        StatMap<MergeJoinOperator.StatKey> stats = (StatMap<MergeJoinOperator.StatKey>) map;
+        response.mergeMaxRowsInOperator(stats.getLong(MergeJoinOperator.StatKey.EMITTED_ROWS));
+        response.mergeMaxRowsInJoinReached(stats.getBoolean(MergeJoinOperator.StatKey.MAX_ROWS_IN_JOIN_REACHED));
+      }
     };
 
     private final Class _statKeyClass;
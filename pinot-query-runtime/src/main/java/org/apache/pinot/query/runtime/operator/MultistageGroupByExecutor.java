@@ -297,10 +297,51 @@ public class MultistageGroupByExecutor {
    * GroupByAggregationResultHolders used in v1 aggregations.
    */
   private int[] generateGroupByKeys(TransferableBlock block) {
+    if (block.getType() == DataBlock.Type.COLUMNAR) {
+      return generateGroupByKeys(getGroupKeyColumns(block), null);
+    }
     return block.isContainerConstructed() ? generateGroupByKeys(block.getContainer())
         : generateGroupByKeys(block.getDataBlock());
   }
 
+  /**
+   * Returns the values of the group key columns of a columnar block, so that the group by keys can be generated
+   * without assembling the rows.
+   */
+  private Object[][] getGroupKeyColumns(TransferableBlock block) {
+    int numKeys = _groupKeyIds.length;
+    Object[][] keyColumns = new Object[numKeys][];
+    for (int i = 0; i < numKeys; i++) {
+      keyColumns[i] = block.getColumn(_groupKeyIds[i]);
+    }
+    return keyColumns;
+  }
+
+  /**
+   * Generates the group by keys from the group key columns, only for the given rows when {@code rowIds} is not null.
+   */
+  private int[] generateGroupByKeys(Object[][] keyColumns, @Nullable int[] rowIds) {
+    int numRows = rowIds != null ? rowIds.length : keyColumns[0].length;
+    int[] intKeys = new int[numRows];
+    int numKeys = keyColumns.length;
+    if (numKeys == 1) {
+      Object[] keyColumn = keyColumns[0];
+      for (int i = 0; i < numRows; i++) {
+        intKeys[i] = _groupIdGenerator.getGroupId(keyColumn[rowIds != null ? rowIds[i] : i]);
+      }
+    } else {
+      Object[] key = new Object[numKeys];
+      for (int i = 0; i < numRows; i++) {
+        int rowId = rowIds != null ? rowIds[i] : i;
+        for (int j = 0; j < numKeys; j++) {
+          key[j] = keyColumns[j][rowId];
+        }
+        intKeys[i] = _groupIdGenerator.getGroupId(key);
+      }
+    }
+    return intKeys;
+  }
+
   private int[] generateGroupByKeys(List<Object[]> rows) {
     int numRows = rows.size();
     int[] intKeys = new int[numRows];
@@ -343,6 +384,9 @@ public class MultistageGroupByExecutor {
    * GroupByAggregationResultHolders used in v1 aggregations.
    */
   private int[] generateGroupByKeys(TransferableBlock block, int numMatchedRows, RoaringBitmap matchedBitmap) {
+    if (block.getType() == DataBlock.Type.COLUMNAR) {
+      return generateGroupByKeys(getGroupKeyColumns(block), matchedBitmap.toArray());
+    }
     return block.isContainerConstructed() ? generateGroupByKeys(block.getContainer(), numMatchedRows, matchedBitmap)
         : generateGroupByKeys(block.getDataBlock(), numMatchedRows, matchedBitmap);
   }
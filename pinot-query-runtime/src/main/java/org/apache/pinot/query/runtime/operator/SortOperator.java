@@ -20,17 +20,24 @@ package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.PriorityQueue;
+import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
 import org.apache.pinot.query.planner.plannode.SortNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.utils.ExternalMergeSorter;
 import org.apache.pinot.query.runtime.operator.utils.SortUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.CommonConstants;
@@ -38,9 +45,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+/**
+ * Operator that sorts and/or trims the input rows based on the collations, offset and fetch of the {@link SortNode}.
+ *
+ * <p>When there is no limit, the input is not already sorted, and a sort spill threshold is configured (via query
+ * option {@code sortSpillThresholdRows} or server config {@code pinot.query.sort.spill.threshold.rows}), the rows are
+ * sorted with an {@link ExternalMergeSorter}: sorted runs are spilled to disk whenever the buffered rows exceed the
+ * threshold, and the output is streamed out of a k-way merge in blocks of bounded size.
+ */
 public class SortOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "SORT";
   private static final Logger LOGGER = LoggerFactory.getLogger(SortOperator.class);
+  private static final String SPILL_DIR_NAME = "pinot-query-sort-spill";
+  private static final int MAX_ROWS_PER_OUTPUT_BLOCK = ExternalMergeSorter.DEFAULT_NUM_ROWS_PER_CHUNK;
 
   private final MultiStageOperator _input;
   private final DataSchema _dataSchema;
@@ -48,10 +65,16 @@ public class SortOperator extends MultiStageOperator {
   private final int _numRowsToKeep;
   private final PriorityQueue<Object[]> _priorityQueue;
   private final ArrayList<Object[]> _rows;
+  @Nullable
+  private final ExternalMergeSorter _externalSorter;
   private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
 
   private boolean _hasConstructedSortedBlock;
   private TransferableBlock _eosBlock;
+  // Only used with the external sorter
+  private Iterator<Object[]> _sortedRowIterator;
+  private int _numRowsToSkip;
+  private int _numRowsToEmit;
 
   public SortOperator(OpChainExecutionContext context, MultiStageOperator input, SortNode node) {
     this(context, input, node, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY,
@@ -73,15 +96,25 @@ public class SortOperator extends MultiStageOperator {
     // - There is no collation
     // - Input is already sorted
     List<RelFieldCollation> collations = node.getCollations();
+    Integer sortSpillThresholdRows = QueryOptionsUtils.getSortSpillThresholdRows(context.getOpChainMetadata());
     if (collations.isEmpty() || input instanceof SortedMailboxReceiveOperator) {
       _priorityQueue = null;
       _rows = new ArrayList<>(Math.min(defaultHolderCapacity, _numRowsToKeep));
+      _externalSorter = null;
+    } else if (fetch <= 0 && sortSpillThresholdRows != null && sortSpillThresholdRows > 0) {
+      // Without limit, all the rows need to be kept, so sort them externally to bound the memory usage
+      _priorityQueue = null;
+      _rows = null;
+      _externalSorter =
+          new ExternalMergeSorter(_dataSchema, new SortUtils.SortComparator(_dataSchema, collations, false),
+              sortSpillThresholdRows, new File(FileUtils.getTempDirectory(), SPILL_DIR_NAME));
     } else {
       // Use the opposite direction as specified by the collation directions since we need the PriorityQueue to decide
       // which elements to keep and which to remove based on the limits.
       _priorityQueue = new PriorityQueue<>(Math.min(defaultHolderCapacity, _numRowsToKeep),
           new SortUtils.SortComparator(_dataSchema, collations, true));
       _rows = null;
+      _externalSorter = null;
     }
   }
 
@@ -106,8 +139,19 @@ public class SortOperator extends MultiStageOperator {
     return List.of(_input);
   }
 
+  @Override
+  public void close() {
+    super.close();
+    if (_externalSorter != null) {
+      _externalSorter.close();
+    }
+  }
+
   @Override
   public void cancel(Throwable e) {
+    if (_externalSorter != null) {
+      _externalSorter.close();
+    }
   }
 
   @Override
@@ -116,7 +160,11 @@ public class SortOperator extends MultiStageOperator {
   }
 
   @Override
-  protected TransferableBlock getNextBlock() {
+  protected TransferableBlock getNextBlock()
+      throws IOException {
+    if (_sortedRowIterator != null) {
+      return produceNextMergedBlock();
+    }
     if (_hasConstructedSortedBlock) {
       assert _eosBlock != null;
       return _eosBlock;
@@ -126,11 +174,42 @@ public class SortOperator extends MultiStageOperator {
     if (finalBlock.isErrorBlock()) {
       return finalBlock;
     }
-    _statMap.merge(StatKey.REQUIRE_SORT, _priorityQueue != null);
+    _statMap.merge(StatKey.REQUIRE_SORT, _priorityQueue != null || _externalSorter != null);
+    if (_externalSorter != null) {
+      _statMap.merge(StatKey.SPILLED_RUNS, _externalSorter.getNumSpilledRuns());
+      _statMap.merge(StatKey.SPILLED_BYTES, _externalSorter.getNumSpilledBytes());
+      _eosBlock = updateEosBlock(finalBlock, _statMap);
+      _hasConstructedSortedBlock = true;
+      _sortedRowIterator = _externalSorter.sortedIterator();
+      _numRowsToSkip = _offset;
+      _numRowsToEmit = _numRowsToKeep - _offset;
+      return produceNextMergedBlock();
+    }
     _eosBlock = updateEosBlock(finalBlock, _statMap);
     return produceSortedBlock();
   }
 
+  /**
+   * Streams the next block of rows out of the external sorter, or the EOS block when all the rows are emitted.
+   */
+  private TransferableBlock produceNextMergedBlock() {
+    while (_numRowsToSkip > 0 && _sortedRowIterator.hasNext()) {
+      _sortedRowIterator.next();
+      _numRowsToSkip--;
+    }
+    List<Object[]> rows = new ArrayList<>(Math.min(_numRowsToEmit, MAX_ROWS_PER_OUTPUT_BLOCK));
+    while (rows.size() < MAX_ROWS_PER_OUTPUT_BLOCK && _numRowsToEmit > 0 && _sortedRowIterator.hasNext()) {
+      rows.add(_sortedRowIterator.next());
+      _numRowsToEmit--;
+    }
+    if (rows.isEmpty()) {
+      _externalSorter.close();
+      return _eosBlock;
+    }
+    sampleAndCheckInterruption();
+    return new TransferableBlock(rows, _dataSchema, DataBlock.Type.ROW);
+  }
+
   private TransferableBlock produceSortedBlock() {
     _hasConstructedSortedBlock = true;
     if (_priorityQueue == null) {
@@ -154,11 +233,15 @@ public class SortOperator extends MultiStageOperator {
     }
   }
 
-  private TransferableBlock consumeInputBlocks() {
+  private TransferableBlock consumeInputBlocks()
+      throws IOException {
     TransferableBlock block = _input.nextBlock();
     while (block.isDataBlock()) {
       List<Object[]> container = block.getContainer();
-      if (_priorityQueue == null) {
+      if (_externalSorter != null) {
+        _externalSorter.addRows(container);
+        sampleAndCheckInterruption();
+      } else if (_priorityQueue == null) {
         // TODO: when push-down properly, we shouldn't get more than _numRowsToKeep
         int numRows = _rows.size();
         if (numRows < _numRowsToKeep) {
@@ -201,7 +284,15 @@ public class SortOperator extends MultiStageOperator {
       public boolean includeDefaultInJson() {
         return true;
       }
-    };
+    },
+    /**
+     * Number of sorted runs spilled to disk by the external sort.
+     */
+    SPILLED_RUNS(StatMap.Type.INT),
+    /**
+     * Number of bytes spilled to disk by the external sort.
+     */
+    SPILLED_BYTES(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
@@ -24,10 +24,13 @@ import java.util.List;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.mailbox.ReceivingMailbox;
 import org.apache.pinot.query.planner.plannode.MailboxReceiveNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.utils.SortUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.slf4j.Logger;
@@ -36,7 +39,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This {@code SortedMailboxReceiveOperator} receives data from a {@link ReceivingMailbox} and serve it out from the
- * {@link #nextBlock()} API in a sorted manner.
+ * {@link #nextBlock()} API in a sorted manner. All the received rows are buffered before being sorted. When more than
+ * the given max number of rows is received, either the query fails, or (when truncating) the rows beyond the limit are
+ * dropped and the senders are early terminated, in which case the result might be partial.
  *
  *  TODO: Once sorting on the {@code MailboxSendOperator} is available, modify this to use a k-way merge instead of
  *        resorting via the PriorityQueue.
@@ -48,16 +53,37 @@ public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
 
   private final DataSchema _dataSchema;
   private final List<RelFieldCollation> _collations;
+  private final int _maxRows;
+  private final boolean _truncateOnMaxRows;
   private final List<Object[]> _rows = new ArrayList<>();
+  private boolean _maxRowsReached;
 
   private TransferableBlock _eosBlock;
 
   // TODO: Support merge sort when sender side sort is supported.
   public SortedMailboxReceiveOperator(OpChainExecutionContext context, MailboxReceiveNode node) {
+    this(context, node, Integer.MAX_VALUE);
+  }
+
+  public SortedMailboxReceiveOperator(OpChainExecutionContext context, MailboxReceiveNode node, int maxRows) {
+    this(context, node, maxRows, false);
+  }
+
+  public SortedMailboxReceiveOperator(OpChainExecutionContext context, MailboxReceiveNode node, int maxRows,
+      boolean truncateOnMaxRows) {
     super(context, node);
     Preconditions.checkState(!CollectionUtils.isEmpty(node.getCollations()), "Field collations must be set");
     _dataSchema = node.getDataSchema();
     _collations = node.getCollations();
+    _maxRows = maxRows;
+    _truncateOnMaxRows = truncateOnMaxRows;
+  }
+
+  /**
+   * Returns {@code true} if the received rows were truncated to the max number of rows.
+   */
+  public boolean isMaxRowsReached() {
+    return _maxRowsReached;
   }
 
   @Override
@@ -79,7 +105,26 @@ public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
     while (true) {
       TransferableBlock block = _multiConsumer.readBlockBlocking();
       if (block.isDataBlock()) {
+        if (_maxRowsReached) {
+          // Drain the blocks sent before the senders are early terminated
+          continue;
+        }
         _rows.addAll(block.getContainer());
+        if (_rows.size() > _maxRows) {
+          if (_truncateOnMaxRows) {
+            _rows.subList(_maxRows, _rows.size()).clear();
+            _maxRowsReached = true;
+            earlyTerminate();
+            continue;
+          }
+          _rows.clear();
+          ProcessingException resourceLimitExceededException =
+              new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
+          resourceLimitExceededException.setMessage(
+              "Cannot buffer the rows to sort for sorted mailbox receive operator, reached number of rows limit: "
+                  + _maxRows);
+          return TransferableBlockUtils.getErrorTransferableBlock(resourceLimitExceededException);
+        }
       } else if (block.isErrorBlock()) {
         return block;
       } else {
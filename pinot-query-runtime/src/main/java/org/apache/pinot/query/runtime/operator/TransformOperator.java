@@ -26,9 +26,11 @@ import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.ProjectNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.operands.ReferenceOperand;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperandFactory;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.roaringbitmap.RoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -103,6 +105,27 @@ public class TransformOperator extends MultiStageOperator {
         return block;
       }
     }
+    // Keep the format of the input block, so that row based downstream operators don't need to assemble the rows
+    if (block.getType() == DataBlock.Type.COLUMNAR && _resultColumnSize > 0) {
+      // Evaluate the projections a column at a time, so that only the referenced input columns are extracted. The
+      // referenced columns are passed through as is, which keeps the numeric columns as primitive vectors.
+      Object[] resultColumns = new Object[_resultColumnSize];
+      RoaringBitmap[] nullBitmaps = new RoaringBitmap[_resultColumnSize];
+      for (int i = 0; i < _resultColumnSize; i++) {
+        TransformOperand transformOperand = _transformOperandsList.get(i);
+        if (transformOperand instanceof ReferenceOperand) {
+          int colId = ((ReferenceOperand) transformOperand).getIndex();
+          Object column = block.getColumnVector(colId);
+          resultColumns[i] = column;
+          if (!(column instanceof Object[])) {
+            nullBitmaps[i] = block.getNullBitmap(colId);
+          }
+        } else {
+          resultColumns[i] = transformOperand.apply(block);
+        }
+      }
+      return new TransferableBlock(resultColumns, nullBitmaps, _resultSchema);
+    }
     List<Object[]> container = block.getContainer();
     List<Object[]> resultRows = new ArrayList<>(container.size());
     for (Object[] row : container) {
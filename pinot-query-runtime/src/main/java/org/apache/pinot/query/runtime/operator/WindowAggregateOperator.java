@@ -21,6 +21,7 @@ package org.apache.pinot.query.runtime.operator;
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -35,6 +36,7 @@ import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.data.table.Key;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.planner.plannode.MailboxReceiveNode;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.planner.plannode.WindowNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
@@ -68,6 +70,14 @@ import org.slf4j.LoggerFactory;
  * should handle adding a 'SortExchange' to do the ordering prior to pipelining the data to the upstream operators
  * wherever ordering is required.
  *
+ * When the incoming rows are also sorted by the 'PARTITION BY' keys (e.g. the input is a sorted mailbox receive whose
+ * collation starts with the partition keys, or the window hint option 'is_input_sorted_by_partition_keys' is set), the
+ * operator runs in streaming mode: rows of each partition arrive contiguously, so every partition is evaluated and
+ * emitted as soon as the next partition starts, even within a single input block. In streaming mode only the rows of
+ * the current partition are buffered by this operator, so its memory usage (and the 'max_rows_in_window' limit) is
+ * bounded by the largest partition instead of the whole input. When the input is a sorted mailbox receive, that
+ * operator buffers the whole input to sort it, so the 'max_rows_in_window' limit is also applied to it.
+ *
  * Note: This class performs aggregation over the double value of input.
  * If the input is single value, the output type will be input type. Otherwise, the output type will be double.
  *
@@ -83,6 +93,8 @@ public class WindowAggregateOperator extends MultiStageOperator {
   private static final Logger LOGGER = LoggerFactory.getLogger(WindowAggregateOperator.class);
   private static final int DEFAULT_MAX_ROWS_IN_WINDOW = 1024 * 1024; // 2^20, around 1MM rows
   private static final WindowOverFlowMode DEFAULT_WINDOW_OVERFLOW_MODE = WindowOverFlowMode.THROW;
+  // In streaming mode, the results of small partitions are accumulated into the same output block up to this size
+  private static final int MAX_ROWS_PER_OUTPUT_BLOCK = 10_000;
 
   // List of window functions which can only be applied as ROWS window frame type
   public static final Set<String> ROWS_ONLY_FUNCTION_NAMES = Set.of("ROW_NUMBER");
@@ -96,6 +108,8 @@ public class WindowAggregateOperator extends MultiStageOperator {
   private final WindowFunction[] _windowFunctions;
   private final Map<Key, List<Object[]>> _partitionRows = new HashMap<>();
   private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
+  // Whether the input rows are grouped by the partition keys, in which case partitions can be processed one at a time
+  private final boolean _streaming;
 
   // Below are specific parameters to protect the window cache from growing too large.
   // Once the window cache reaches the limit, we will throw exception or break the cache build process.
@@ -114,6 +128,13 @@ public class WindowAggregateOperator extends MultiStageOperator {
   private boolean _hasReturnedWindowAggregateBlock;
   private TransferableBlock _eosBlock;
 
+  // Below are the states for the streaming mode
+  private List<Object[]> _inputRows = List.of();
+  private int _nextInputRowId;
+  private Key _currentPartitionKey;
+  private List<Object[]> _currentPartitionRows = new ArrayList<>();
+  private boolean _maxRowsInWindowReached;
+
   public WindowAggregateOperator(OpChainExecutionContext context, MultiStageOperator input, DataSchema inputSchema,
       WindowNode node) {
     super(context);
@@ -145,8 +166,9 @@ public class WindowAggregateOperator extends MultiStageOperator {
 
     Map<String, String> metadata = context.getOpChainMetadata();
     PlanNode.NodeHint nodeHint = node.getNodeHint();
-    _maxRowsInWindowCache = getMaxRowInWindow(metadata, nodeHint);
+    _maxRowsInWindowCache = getMaxRowsInWindow(metadata, nodeHint);
     _windowOverflowMode = getWindowOverflowMode(metadata, nodeHint);
+    _streaming = numKeys > 0 && isInputSortedByPartitionKeys(node, nodeHint);
   }
 
   @Override
@@ -160,7 +182,7 @@ public class WindowAggregateOperator extends MultiStageOperator {
     return LOGGER;
   }
 
-  private int getMaxRowInWindow(Map<String, String> opChainMetadata, PlanNode.NodeHint nodeHint) {
+  public static int getMaxRowsInWindow(Map<String, String> opChainMetadata, PlanNode.NodeHint nodeHint) {
     Map<String, String> windowOptions = nodeHint.getHintOptions().get(PinotHintOptions.WINDOW_HINT_OPTIONS);
     if (windowOptions != null) {
       String maxRowsInWindowStr = windowOptions.get(PinotHintOptions.WindowHintOptions.MAX_ROWS_IN_WINDOW);
@@ -172,7 +194,8 @@ public class WindowAggregateOperator extends MultiStageOperator {
     return maxRowsInWindow != null ? maxRowsInWindow : DEFAULT_MAX_ROWS_IN_WINDOW;
   }
 
-  private WindowOverFlowMode getWindowOverflowMode(Map<String, String> contextMetadata, PlanNode.NodeHint nodeHint) {
+  public static WindowOverFlowMode getWindowOverflowMode(Map<String, String> contextMetadata,
+      PlanNode.NodeHint nodeHint) {
     Map<String, String> windowOptions = nodeHint.getHintOptions().get(PinotHintOptions.WINDOW_HINT_OPTIONS);
     if (windowOptions != null) {
       String windowOverflowModeStr = windowOptions.get(PinotHintOptions.WindowHintOptions.WINDOW_OVERFLOW_MODE);
@@ -184,6 +207,38 @@ public class WindowAggregateOperator extends MultiStageOperator {
     return windowOverflowMode != null ? windowOverflowMode : DEFAULT_WINDOW_OVERFLOW_MODE;
   }
 
+  /**
+   * Returns whether the input rows are sorted (grouped) by the partition keys. This is the case when the window hint
+   * explicitly says so, or when the input is a sorted mailbox receive whose leading collation keys are exactly the
+   * partition keys.
+   */
+  private static boolean isInputSortedByPartitionKeys(WindowNode node, PlanNode.NodeHint nodeHint) {
+    Map<String, String> windowOptions = nodeHint.getHintOptions().get(PinotHintOptions.WINDOW_HINT_OPTIONS);
+    if (windowOptions != null && Boolean.parseBoolean(
+        windowOptions.get(PinotHintOptions.WindowHintOptions.IS_INPUT_SORTED_BY_PARTITION_KEYS))) {
+      return true;
+    }
+    List<PlanNode> inputs = node.getInputs();
+    if (inputs.size() != 1 || !(inputs.get(0) instanceof MailboxReceiveNode)) {
+      return false;
+    }
+    MailboxReceiveNode receiveNode = (MailboxReceiveNode) inputs.get(0);
+    if (!receiveNode.isSort()) {
+      return false;
+    }
+    List<Integer> keys = node.getKeys();
+    List<RelFieldCollation> collations = receiveNode.getCollations();
+    int numKeys = keys.size();
+    if (collations.size() < numKeys) {
+      return false;
+    }
+    Set<Integer> leadingCollationKeys = new HashSet<>();
+    for (int i = 0; i < numKeys; i++) {
+      leadingCollationKeys.add(collations.get(i).getFieldIndex());
+    }
+    return leadingCollationKeys.equals(new HashSet<>(keys));
+  }
+
   @Override
   public List<MultiStageOperator> getChildOperators() {
     return List.of(_input);
@@ -205,7 +260,94 @@ public class WindowAggregateOperator extends MultiStageOperator {
     if (_hasReturnedWindowAggregateBlock) {
       return _eosBlock;
     }
-    return computeBlocks();
+    return _streaming ? computeStreamingBlock() : computeBlocks();
+  }
+
+  /**
+   * Computes the next block in streaming mode, where the input rows are grouped by the partition keys. Each partition
+   * is evaluated once the first row of the next partition (or the end of stream) is seen, and emitted without waiting
+   * for the rest of the input block. The results of small partitions are accumulated into the same output block.
+   *
+   * @return a data block with the results of the partitions completed so far, or the final block, which must be either
+   *         an end of stream or an error.
+   */
+  private TransferableBlock computeStreamingBlock()
+      throws ProcessingException {
+    List<Object[]> rows = new ArrayList<>();
+    while (true) {
+      while (_nextInputRowId < _inputRows.size()) {
+        Object[] row = _inputRows.get(_nextInputRowId);
+        // TODO: Revisit null direction handling for all query types
+        Key key = AggregationUtils.extractRowKey(row, _keys);
+        if (_currentPartitionKey != null && !_currentPartitionKey.equals(key)) {
+          processPartitionRows(_currentPartitionRows, rows);
+          _currentPartitionRows = new ArrayList<>();
+          _currentPartitionKey = null;
+          if (rows.size() >= MAX_ROWS_PER_OUTPUT_BLOCK) {
+            return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+          }
+        }
+        if (_currentPartitionRows.size() == _maxRowsInWindowCache) {
+          if (_windowOverflowMode == WindowOverFlowMode.THROW) {
+            ProcessingException resourceLimitExceededException =
+                new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
+            resourceLimitExceededException.setMessage(
+                "Cannot build in memory window cache for WINDOW operator, reach number of rows limit: "
+                    + _maxRowsInWindowCache);
+            throw resourceLimitExceededException;
+          } else {
+            // Stop consuming more rows, and process the rows already buffered.
+            _maxRowsInWindowReached = true;
+            _statMap.merge(StatKey.MAX_ROWS_IN_WINDOW_REACHED, true);
+            // setting the inputOperator to be early terminated and awaits EOS block next.
+            _input.earlyTerminate();
+            _inputRows = List.of();
+            _nextInputRowId = 0;
+            break;
+          }
+        }
+        _currentPartitionKey = key;
+        _currentPartitionRows.add(row);
+        _nextInputRowId++;
+      }
+      // Emit the completed partitions before waiting for the next input block
+      if (!rows.isEmpty()) {
+        return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+      }
+      sampleAndCheckInterruption();
+      TransferableBlock block = _input.nextBlock();
+      if (block.isDataBlock()) {
+        if (!_maxRowsInWindowReached) {
+          _inputRows = block.getContainer();
+          _nextInputRowId = 0;
+        }
+        continue;
+      }
+      // Early termination if the block is an error block
+      if (block.isErrorBlock()) {
+        return block;
+      }
+      assert block.isSuccessfulEndOfStreamBlock();
+      _inputRows = List.of();
+      mergeSortedInputMaxRowsReached();
+      _eosBlock = updateEosBlock(block, _statMap);
+      _hasReturnedWindowAggregateBlock = true;
+      if (_currentPartitionRows.isEmpty()) {
+        return _eosBlock;
+      }
+      processPartitionRows(_currentPartitionRows, rows);
+      _currentPartitionRows = new ArrayList<>();
+      return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+    }
+  }
+
+  /**
+   * Reports the window overflow when the sorted mailbox receive feeding this operator truncated its rows.
+   */
+  private void mergeSortedInputMaxRowsReached() {
+    if (_input instanceof SortedMailboxReceiveOperator && ((SortedMailboxReceiveOperator) _input).isMaxRowsReached()) {
+      _statMap.merge(StatKey.MAX_ROWS_IN_WINDOW_REACHED, true);
+    }
   }
 
   /**
@@ -248,32 +390,12 @@ public class WindowAggregateOperator extends MultiStageOperator {
       return block;
     }
     assert block.isSuccessfulEndOfStreamBlock();
+    mergeSortedInputMaxRowsReached();
     _eosBlock = updateEosBlock(block, _statMap);
 
-    ColumnDataType[] resultStoredTypes = _resultSchema.getStoredColumnDataTypes();
     List<Object[]> rows = new ArrayList<>(_numRows);
-    for (Map.Entry<Key, List<Object[]>> e : _partitionRows.entrySet()) {
-      List<Object[]> rowList = e.getValue();
-
-      // Each window function will return a list of results for each row in the input set
-      List<List<Object>> windowFunctionResults = new ArrayList<>();
-      for (WindowFunction windowFunction : _windowFunctions) {
-        List<Object> processRows = windowFunction.processRows(rowList);
-        assert processRows.size() == rowList.size();
-        windowFunctionResults.add(processRows);
-      }
-
-      for (int rowId = 0; rowId < rowList.size(); rowId++) {
-        Object[] existingRow = rowList.get(rowId);
-        Object[] row = new Object[existingRow.length + _windowFunctions.length];
-        System.arraycopy(existingRow, 0, row, 0, existingRow.length);
-        for (int i = 0; i < _windowFunctions.length; i++) {
-          row[i + existingRow.length] = windowFunctionResults.get(i).get(rowId);
-        }
-        // Convert the results from WindowFunction to the desired type
-        TypeUtils.convertRow(row, resultStoredTypes);
-        rows.add(row);
-      }
+    for (List<Object[]> rowList : _partitionRows.values()) {
+      processPartitionRows(rowList, rows);
     }
 
     _hasReturnedWindowAggregateBlock = true;
@@ -284,6 +406,32 @@ public class WindowAggregateOperator extends MultiStageOperator {
     }
   }
 
+  /**
+   * Applies all the window functions to the rows of a single partition, and adds the result rows to the output list.
+   */
+  private void processPartitionRows(List<Object[]> rowList, List<Object[]> output) {
+    // Each window function will return a list of results for each row in the input set
+    List<List<Object>> windowFunctionResults = new ArrayList<>();
+    for (WindowFunction windowFunction : _windowFunctions) {
+      List<Object> processRows = windowFunction.processRows(rowList);
+      assert processRows.size() == rowList.size();
+      windowFunctionResults.add(processRows);
+    }
+
+    ColumnDataType[] resultStoredTypes = _resultSchema.getStoredColumnDataTypes();
+    for (int rowId = 0; rowId < rowList.size(); rowId++) {
+      Object[] existingRow = rowList.get(rowId);
+      Object[] row = new Object[existingRow.length + _windowFunctions.length];
+      System.arraycopy(existingRow, 0, row, 0, existingRow.length);
+      for (int i = 0; i < _windowFunctions.length; i++) {
+        row[i + existingRow.length] = windowFunctionResults.get(i).get(rowId);
+      }
+      // Convert the results from WindowFunction to the desired type
+      TypeUtils.convertRow(row, resultStoredTypes);
+      output.add(row);
+    }
+  }
+
   public enum StatKey implements StatMap.Key {
     //@formatter:off
     EXECUTION_TIME_MS(StatMap.Type.LONG) {
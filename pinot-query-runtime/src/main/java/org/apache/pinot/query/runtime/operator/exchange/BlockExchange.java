@@ -20,14 +20,18 @@ package org.apache.pinot.query.runtime.operator.exchange;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelDistribution;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.KeySelectorFactory;
 import org.apache.pinot.query.runtime.blocks.BlockSplitter;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.MailboxSendOperator;
 
 
 /**
@@ -43,11 +47,24 @@ public abstract class BlockExchange {
 
   public static BlockExchange getExchange(List<SendingMailbox> sendingMailboxes, RelDistribution.Type distributionType,
       List<Integer> keys, BlockSplitter splitter) {
+    return getExchange(sendingMailboxes, distributionType, keys, splitter, 0, false, Set.of(), null);
+  }
+
+  /**
+   * Returns the exchange for the given distribution type. When {@code skewSplitFactor} is greater than 1, the hash
+   * exchange either splits the rows of the {@code skewHotKeys} across {@code skewSplitFactor} receivers, or replicates
+   * them to the {@code skewSplitFactor} receivers the hot key can be split across when {@code skewSplitReplicate} is
+   * set. The rows of the other keys are hash partitioned as usual.
+   */
+  public static BlockExchange getExchange(List<SendingMailbox> sendingMailboxes, RelDistribution.Type distributionType,
+      List<Integer> keys, BlockSplitter splitter, int skewSplitFactor, boolean skewSplitReplicate,
+      Set<Object> skewHotKeys, @Nullable StatMap<MailboxSendOperator.StatKey> statMap) {
     switch (distributionType) {
       case SINGLETON:
         return new SingletonExchange(sendingMailboxes, splitter);
       case HASH_DISTRIBUTED:
-        return new HashExchange(sendingMailboxes, KeySelectorFactory.getKeySelector(keys), splitter);
+        return new HashExchange(sendingMailboxes, KeySelectorFactory.getKeySelector(keys), splitter, skewSplitFactor,
+            skewSplitReplicate, skewHotKeys, statMap);
       case RANDOM_DISTRIBUTED:
         return new RandomExchange(sendingMailboxes, splitter);
       case BROADCAST_DISTRIBUTED:
@@ -20,24 +20,63 @@ package org.apache.pinot.query.runtime.operator.exchange;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.EmptyKeySelector;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
 import org.apache.pinot.query.runtime.blocks.BlockSplitter;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.MailboxSendOperator;
 
 
 /**
  * Distributes blocks based on the hash of a key, selected by the specified
  * {@code keySelector}. This will redistribute rows from input blocks (breaking
  * them up if necessary).
+ *
+ * <p>When a skew split factor {@code F > 1} is set, a row of a hot key with hash {@code h} is no longer bound to the
+ * single receiver {@code h % numMailboxes}, but may go to any of the {@code F} consecutive receivers starting from it,
+ * while the rows of the other keys are still sent to the first one:
+ * <ul>
+ *   <li>In split mode, the rows of the hot keys are spread round-robin across the {@code F} receivers. The hot keys are
+ *   either the given ones, or detected at runtime by a {@link HotKeyDetector} when none is given.</li>
+ *   <li>In replicate mode, the rows of the hot keys are sent to all the {@code F} receivers, so that each of them can
+ *   match the rows of the hot keys split by the other side of a join. When no hot key is given, every row is
+ *   replicated because the keys detected by the other side are unknown.</li>
+ * </ul>
  */
 class HashExchange extends BlockExchange {
+  // Hot key detection samples 1 out of 8 rows into a summary of 64 keys, and starts classifying after 128 samples
+  private static final int HOT_KEY_CAPACITY = 64;
+  private static final int HOT_KEY_SAMPLE_RATE = 8;
+  private static final int HOT_KEY_MIN_SAMPLED_KEYS = 128;
+
   private final KeySelector<?> _keySelector;
+  private final int _skewSplitFactor;
+  private final boolean _skewSplitReplicate;
+  private final Set<Object> _skewHotKeys;
+  @Nullable
+  private final StatMap<MailboxSendOperator.StatKey> _statMap;
+
+  private HotKeyDetector _hotKeyDetector;
+  private int _nextSplitOffset;
 
   HashExchange(List<SendingMailbox> sendingMailboxes, KeySelector<?> keySelector, BlockSplitter splitter) {
+    this(sendingMailboxes, keySelector, splitter, 0, false, Set.of(), null);
+  }
+
+  HashExchange(List<SendingMailbox> sendingMailboxes, KeySelector<?> keySelector, BlockSplitter splitter,
+      int skewSplitFactor, boolean skewSplitReplicate, Set<Object> skewHotKeys,
+      @Nullable StatMap<MailboxSendOperator.StatKey> statMap) {
     super(sendingMailboxes, splitter);
     _keySelector = keySelector;
+    _skewSplitFactor = Math.min(skewSplitFactor, sendingMailboxes.size());
+    _skewSplitReplicate = skewSplitReplicate;
+    _skewHotKeys = skewHotKeys;
+    _statMap = statMap;
   }
 
   @Override
@@ -55,15 +94,60 @@ class HashExchange extends BlockExchange {
       mailboxIdToRowsMap[i] = new ArrayList<>();
     }
     List<Object[]> rows = block.getContainer();
-    for (Object[] row : rows) {
-      int mailboxId = _keySelector.computeHash(row) % numMailboxes;
-      mailboxIdToRowsMap[mailboxId].add(row);
+    if (_skewSplitFactor <= 1) {
+      for (Object[] row : rows) {
+        int mailboxId = _keySelector.computeHash(row) % numMailboxes;
+        mailboxIdToRowsMap[mailboxId].add(row);
+      }
+    } else {
+      routeWithSkewSplit(rows, mailboxIdToRowsMap);
     }
     for (int i = 0; i < numMailboxes; i++) {
       if (!mailboxIdToRowsMap[i].isEmpty()) {
         sendBlock(destinations.get(i),
-            new TransferableBlock(mailboxIdToRowsMap[i], block.getDataSchema(), block.getType()));
+            new TransferableBlock(mailboxIdToRowsMap[i], block.getDataSchema(), DataBlock.Type.ROW));
       }
     }
   }
+
+  private void routeWithSkewSplit(List<Object[]> rows, List<Object[]>[] mailboxIdToRowsMap) {
+    int numMailboxes = mailboxIdToRowsMap.length;
+    boolean detectHotKeys = _skewHotKeys.isEmpty();
+    if (detectHotKeys && !_skewSplitReplicate && _hotKeyDetector == null) {
+      // A key is hot when it alone accounts for at least the fair share of a receiver
+      _hotKeyDetector = new HotKeyDetector(HOT_KEY_CAPACITY, HOT_KEY_SAMPLE_RATE, HOT_KEY_MIN_SAMPLED_KEYS,
+          1.0 / numMailboxes);
+    }
+    long numSkewRows = 0;
+    for (Object[] row : rows) {
+      int mailboxId = _keySelector.computeHash(row) % numMailboxes;
+      if (!isHotKey(row, detectHotKeys)) {
+        mailboxIdToRowsMap[mailboxId].add(row);
+        continue;
+      }
+      numSkewRows++;
+      if (_skewSplitReplicate) {
+        for (int i = 0; i < _skewSplitFactor; i++) {
+          mailboxIdToRowsMap[(mailboxId + i) % numMailboxes].add(row);
+        }
+      } else {
+        mailboxIdToRowsMap[(mailboxId + _nextSplitOffset) % numMailboxes].add(row);
+        _nextSplitOffset = (_nextSplitOffset + 1) % _skewSplitFactor;
+      }
+    }
+    if (_statMap != null && numSkewRows > 0) {
+      _statMap.merge(MailboxSendOperator.StatKey.SKEW_SPLIT_ROWS, numSkewRows);
+      if (_hotKeyDetector != null) {
+        _statMap.merge(MailboxSendOperator.StatKey.HOT_KEYS, _hotKeyDetector.getNumHotKeys());
+      }
+    }
+  }
+
+  private boolean isHotKey(Object[] row, boolean detectHotKeys) {
+    if (!detectHotKeys) {
+      return _skewHotKeys.contains(_keySelector.getKey(row));
+    }
+    // Without given hot keys, the replicating side treats every key as hot
+    return _skewSplitReplicate || _hotKeyDetector.offer(_keySelector.getKey(row));
+  }
 }
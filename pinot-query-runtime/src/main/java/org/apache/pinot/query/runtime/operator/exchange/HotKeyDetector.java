@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.exchange;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+
+/**
+ * Detects the heavy hitter keys of a stream using the Space-Saving algorithm over a sample of the keys.
+ * <p>One out of every {@code sampleRate} keys is counted in a summary of at most {@code capacity} keys. A key is
+ * considered hot once enough keys are sampled and its estimated count reaches the given fraction of the sampled keys.
+ * The estimate never under-counts, and over-counts by at most {@code numSampledKeys / capacity}.
+ * <p>This class is not thread-safe.
+ */
+class HotKeyDetector {
+  private final int _capacity;
+  private final int _sampleRate;
+  private final int _minSampledKeys;
+  private final double _hotKeyFraction;
+  private final Map<Object, long[]> _counts;
+
+  private long _numKeys;
+  private long _numSampledKeys;
+
+  HotKeyDetector(int capacity, int sampleRate, int minSampledKeys, double hotKeyFraction) {
+    _capacity = capacity;
+    _sampleRate = sampleRate;
+    _minSampledKeys = minSampledKeys;
+    _hotKeyFraction = hotKeyFraction;
+    _counts = new HashMap<>(capacity * 2);
+  }
+
+  /**
+   * Offers the key of the next row, and returns whether the key is currently considered hot.
+   */
+  boolean offer(@Nullable Object key) {
+    if (_numKeys++ % _sampleRate == 0) {
+      sample(key);
+    }
+    if (_numSampledKeys < _minSampledKeys) {
+      return false;
+    }
+    long[] count = _counts.get(key);
+    return count != null && count[0] >= _numSampledKeys * _hotKeyFraction;
+  }
+
+  /**
+   * Returns the number of keys currently considered hot.
+   */
+  int getNumHotKeys() {
+    if (_numSampledKeys < _minSampledKeys) {
+      return 0;
+    }
+    int numHotKeys = 0;
+    for (long[] count : _counts.values()) {
+      if (count[0] >= _numSampledKeys * _hotKeyFraction) {
+        numHotKeys++;
+      }
+    }
+    return numHotKeys;
+  }
+
+  private void sample(@Nullable Object key) {
+    _numSampledKeys++;
+    long[] count = _counts.get(key);
+    if (count != null) {
+      count[0]++;
+      return;
+    }
+    if (_counts.size() < _capacity) {
+      _counts.put(key, new long[]{1});
+      return;
+    }
+    // Replace the key with the minimum count, and inherit its count as the over-estimation
+    Iterator<Map.Entry<Object, long[]>> iterator = _counts.entrySet().iterator();
+    Map.Entry<Object, long[]> minEntry = iterator.next();
+    while (iterator.hasNext()) {
+      Map.Entry<Object, long[]> entry = iterator.next();
+      if (entry.getValue()[0] < minEntry.getValue()[0]) {
+        minEntry = entry;
+      }
+    }
+    long[] minCount = minEntry.getValue();
+    _counts.remove(minEntry.getKey());
+    minCount[0]++;
+    _counts.put(key, minCount);
+  }
+}
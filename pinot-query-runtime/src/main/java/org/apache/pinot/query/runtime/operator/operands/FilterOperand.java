@@ -21,12 +21,15 @@ package org.apache.pinot.query.runtime.operator.operands;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Ordering;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.IntPredicate;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.roaringbitmap.RoaringBitmap;
 
 
 /**
@@ -43,6 +46,62 @@ public abstract class FilterOperand implements TransformOperand {
   @Override
   public abstract Integer apply(Object[] row);
 
+  /**
+   * Evaluates the given conditions over the selected rows of the given block, with the semantics of AND when
+   * {@code decidingValue} is 0 (FALSE), or OR when it is 1 (TRUE). Each condition is only evaluated on the rows not
+   * decided by the previous ones, which short-circuits the evaluation the same way as the row based evaluation (e.g.
+   * {@code 10 / x} is not evaluated on the rows where {@code x <> 0} is FALSE in {@code x <> 0 AND 10 / x > 1}).
+   */
+  private static Object[] applyShortCircuit(List<TransformOperand> childOperands, TransferableBlock block,
+      @Nullable int[] rowIds, int decidingValue) {
+    int numRows = rowIds != null ? rowIds.length : block.getNumRows();
+    Object[] results = new Object[numRows];
+    Arrays.fill(results, 1 - decidingValue);
+    // Positions (in the results) of the undecided rows, or null when all the rows are undecided
+    int[] undecidedPositions = null;
+    int numUndecided = numRows;
+    for (TransformOperand child : childOperands) {
+      Object[] childResults =
+          child.apply(block, undecidedPositions != null ? getRowIds(rowIds, undecidedPositions) : rowIds);
+      int[] remainingPositions = new int[numUndecided];
+      int numRemaining = 0;
+      for (int i = 0; i < numUndecided; i++) {
+        int position = undecidedPositions != null ? undecidedPositions[i] : i;
+        Object childResult = childResults[i];
+        if (childResult == null) {
+          results[position] = null;
+        } else if ((int) childResult == decidingValue) {
+          results[position] = decidingValue;
+          continue;
+        }
+        remainingPositions[numRemaining++] = position;
+      }
+      if (numRemaining == 0) {
+        break;
+      }
+      if (numRemaining < numUndecided) {
+        undecidedPositions = Arrays.copyOf(remainingPositions, numRemaining);
+        numUndecided = numRemaining;
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Returns the block row ids for the given positions in the selected rows ({@code rowIds} being null for all rows).
+   */
+  private static int[] getRowIds(@Nullable int[] rowIds, int[] positions) {
+    if (rowIds == null) {
+      return positions;
+    }
+    int numPositions = positions.length;
+    int[] selectedRowIds = new int[numPositions];
+    for (int i = 0; i < numPositions; i++) {
+      selectedRowIds[i] = rowIds[positions[i]];
+    }
+    return selectedRowIds;
+  }
+
   public static class And extends FilterOperand {
     List<TransformOperand> _childOperands;
 
@@ -67,6 +126,11 @@ public abstract class FilterOperand implements TransformOperand {
       }
       return hasNull ? null : 1;
     }
+
+    @Override
+    public Object[] apply(TransferableBlock block, @Nullable int[] rowIds) {
+      return applyShortCircuit(_childOperands, block, rowIds, 0);
+    }
   }
 
   public static class Or extends FilterOperand {
@@ -93,6 +157,11 @@ public abstract class FilterOperand implements TransformOperand {
       }
       return hasNull ? null : 0;
     }
+
+    @Override
+    public Object[] apply(TransferableBlock block, @Nullable int[] rowIds) {
+      return applyShortCircuit(_childOperands, block, rowIds, 1);
+    }
   }
 
   public static class Not extends FilterOperand {
@@ -108,6 +177,18 @@ public abstract class FilterOperand implements TransformOperand {
       Object result = _childOperand.apply(row);
       return result != null ? 1 - (int) result : null;
     }
+
+    @Override
+    public Object[] apply(TransferableBlock block, @Nullable int[] rowIds) {
+      Object[] childResults = _childOperand.apply(block, rowIds);
+      int numRows = childResults.length;
+      Object[] results = new Object[numRows];
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        Object childResult = childResults[rowId];
+        results[rowId] = childResult != null ? 1 - (int) childResult : null;
+      }
+      return results;
+    }
   }
 
   public static class In extends FilterOperand {
@@ -140,6 +221,41 @@ public abstract class FilterOperand implements TransformOperand {
       }
       return _isNotIn ? 1 : 0;
     }
+
+    @Override
+    public Object[] apply(TransferableBlock block, @Nullable int[] rowIds) {
+      Object[] firstResults = _childOperands.get(0).apply(block, rowIds);
+      int numRows = firstResults.length;
+      Object[] results = new Object[numRows];
+      // Positions (in the results) of the rows without null or matching value yet, on which the following operands
+      // are evaluated
+      int[] undecidedPositions = new int[numRows];
+      int numUndecided = 0;
+      for (int i = 0; i < numRows; i++) {
+        if (firstResults[i] != null) {
+          results[i] = _isNotIn ? 1 : 0;
+          undecidedPositions[numUndecided++] = i;
+        }
+      }
+      int numOperands = _childOperands.size();
+      for (int j = 1; j < numOperands && numUndecided > 0; j++) {
+        int[] positions = Arrays.copyOf(undecidedPositions, numUndecided);
+        Object[] childResults = _childOperands.get(j).apply(block, getRowIds(rowIds, positions));
+        numUndecided = 0;
+        for (int i = 0; i < positions.length; i++) {
+          int position = positions[i];
+          Object result = childResults[i];
+          if (result == null) {
+            results[position] = null;
+          } else if (firstResults[position].equals(result)) {
+            results[position] = _isNotIn ? 0 : 1;
+          } else {
+            undecidedPositions[numUndecided++] = position;
+          }
+        }
+      }
+      return results;
+    }
   }
 
   public static class IsTrue extends FilterOperand {
@@ -154,6 +270,18 @@ public abstract class FilterOperand implements TransformOperand {
       Object result = _childOperand.apply(row);
       return result != null ? (Integer) result : 0;
     }
+
+    @Override
+    public Object[] apply(TransferableBlock block, @Nullable int[] rowIds) {
+      Object[] childResults = _childOperand.apply(block, rowIds);
+      int numRows = childResults.length;
+      Object[] results = new Object[numRows];
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        Object childResult = childResults[rowId];
+        results[rowId] = childResult != null ? childResult : 0;
+      }
+      return results;
+    }
   }
 
   public static class IsNotTrue extends FilterOperand {
@@ -168,6 +296,18 @@ public abstract class FilterOperand implements TransformOperand {
       Object result = _childOperand.apply(row);
       return result != null ? 1 - (int) result : 1;
     }
+
+    @Override
+    public Object[] apply(TransferableBlock block, @Nullable int[] rowIds) {
+      Object[] childResults = _childOperand.apply(block, rowIds);
+      int numRows = childResults.length;
+      Object[] results = new Object[numRows];
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        Object childResult = childResults[rowId];
+        results[rowId] = childResult != null ? 1 - (int) childResult : 1;
+      }
+      return results;
+    }
   }
 
   public static class Predicate extends FilterOperand {
@@ -179,6 +319,13 @@ public abstract class FilterOperand implements TransformOperand {
     private final IntPredicate _comparisonResultPredicate;
     private final boolean _requireCasting;
     private final ColumnDataType _commonCastType;
+    // For a numeric column compared with a numeric literal, the column is compared as a primitive vector (long values
+    // for INT/LONG comparison, double values for FLOAT/DOUBLE comparison) without boxing the values
+    private final int _primitiveColumnIndex;
+    private final boolean _literalOnLeft;
+    private final boolean _compareAsLong;
+    private final long _longLiteral;
+    private final double _doubleLiteral;
 
     /**
      * Predicate constructor also resolve data type,
@@ -211,6 +358,40 @@ public abstract class FilterOperand implements TransformOperand {
               String.format("Cannot compare incompatible type: %s and: %s", lhsType, rhsType));
         }
       }
+
+      ReferenceOperand reference = null;
+      Object literalValue = null;
+      if (_lhs instanceof ReferenceOperand && _rhs instanceof LiteralOperand) {
+        reference = (ReferenceOperand) _lhs;
+        literalValue = ((LiteralOperand) _rhs).getValue();
+        _literalOnLeft = false;
+      } else if (_lhs instanceof LiteralOperand && _rhs instanceof ReferenceOperand) {
+        reference = (ReferenceOperand) _rhs;
+        literalValue = ((LiteralOperand) _lhs).getValue();
+        _literalOnLeft = true;
+      } else {
+        _literalOnLeft = false;
+      }
+      ColumnDataType compareType = _requireCasting ? _commonCastType : lhsType.getStoredType();
+      ColumnDataType columnStoredType = reference != null ? reference.getResultType().getStoredType() : null;
+      boolean isIntegralColumn = columnStoredType == ColumnDataType.INT || columnStoredType == ColumnDataType.LONG;
+      boolean isNumericColumn = isIntegralColumn || columnStoredType == ColumnDataType.FLOAT
+          || columnStoredType == ColumnDataType.DOUBLE;
+      if (literalValue instanceof Number && isNumericColumn && (
+          ((compareType == ColumnDataType.INT || compareType == ColumnDataType.LONG) && isIntegralColumn)
+              || compareType == ColumnDataType.DOUBLE
+              || (compareType == ColumnDataType.FLOAT && columnStoredType == ColumnDataType.FLOAT))) {
+        _primitiveColumnIndex = reference.getIndex();
+        _compareAsLong = compareType == ColumnDataType.INT || compareType == ColumnDataType.LONG;
+        _longLiteral = ((Number) literalValue).longValue();
+        _doubleLiteral = compareType == ColumnDataType.FLOAT ? ((Number) literalValue).floatValue()
+            : ((Number) literalValue).doubleValue();
+      } else {
+        _primitiveColumnIndex = -1;
+        _compareAsLong = false;
+        _longLiteral = 0;
+        _doubleLiteral = 0;
+      }
     }
 
     @SuppressWarnings({"rawtypes", "unchecked"})
@@ -232,6 +413,77 @@ public abstract class FilterOperand implements TransformOperand {
       return _comparisonResultPredicate.test(v1.compareTo(v2)) ? 1 : 0;
     }
 
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    @Override
+    public Object[] apply(TransferableBlock block, @Nullable int[] rowIds) {
+      if (_primitiveColumnIndex >= 0) {
+        return applyPrimitive(block, rowIds);
+      }
+      Object[] lhsValues = _lhs.apply(block, rowIds);
+      int numRows = lhsValues.length;
+      Object[] results = new Object[numRows];
+      // Only evaluate the right side on the rows where the left side is not null, same as the row based evaluation
+      int[] nonNullPositions = new int[numRows];
+      int numNonNullRows = 0;
+      for (int i = 0; i < numRows; i++) {
+        if (lhsValues[i] != null) {
+          nonNullPositions[numNonNullRows++] = i;
+        }
+      }
+      if (numNonNullRows == 0) {
+        return results;
+      }
+      Object[] rhsValues;
+      if (numNonNullRows == numRows) {
+        rhsValues = _rhs.apply(block, rowIds);
+      } else {
+        nonNullPositions = Arrays.copyOf(nonNullPositions, numNonNullRows);
+        rhsValues = _rhs.apply(block, getRowIds(rowIds, nonNullPositions));
+      }
+      for (int i = 0; i < numNonNullRows; i++) {
+        int position = nonNullPositions[i];
+        Comparable v1 = (Comparable) lhsValues[position];
+        Comparable v2 = (Comparable) rhsValues[i];
+        if (v2 == null) {
+          continue;
+        }
+        if (_requireCasting) {
+          v1 = cast(v1, _commonCastType);
+          v2 = cast(v2, _commonCastType);
+        }
+        results[position] = _comparisonResultPredicate.test(v1.compareTo(v2)) ? 1 : 0;
+      }
+      return results;
+    }
+
+    private Object[] applyPrimitive(TransferableBlock block, @Nullable int[] rowIds) {
+      int numRows = rowIds != null ? rowIds.length : block.getNumRows();
+      RoaringBitmap nullBitmap = block.getNullBitmap(_primitiveColumnIndex);
+      Object[] results = new Object[numRows];
+      if (_compareAsLong) {
+        long[] values = block.getLongColumn(_primitiveColumnIndex);
+        for (int i = 0; i < numRows; i++) {
+          int rowId = rowIds != null ? rowIds[i] : i;
+          if (nullBitmap == null || !nullBitmap.contains(rowId)) {
+            int result = _literalOnLeft ? Long.compare(_longLiteral, values[rowId])
+                : Long.compare(values[rowId], _longLiteral);
+            results[i] = _comparisonResultPredicate.test(result) ? 1 : 0;
+          }
+        }
+      } else {
+        double[] values = block.getDoubleColumn(_primitiveColumnIndex);
+        for (int i = 0; i < numRows; i++) {
+          int rowId = rowIds != null ? rowIds[i] : i;
+          if (nullBitmap == null || !nullBitmap.contains(rowId)) {
+            int result = _literalOnLeft ? Double.compare(_doubleLiteral, values[rowId])
+                : Double.compare(values[rowId], _doubleLiteral);
+            results[i] = _comparisonResultPredicate.test(result) ? 1 : 0;
+          }
+        }
+      }
+      return results;
+    }
+
     private static Comparable<?> cast(Object value, ColumnDataType type) {
       switch (type) {
         case INT:
@@ -31,6 +31,7 @@ import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.common.utils.PinotDataType;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 
 
@@ -106,6 +107,34 @@ public class FunctionOperand implements TransformOperand {
       Object value = operand.apply(row);
       _reusableOperandHolder[i] = value != null ? operand.getResultType().toExternal(value) : null;
     }
+    return invoke();
+  }
+
+  @Override
+  public Object[] apply(TransferableBlock block, @Nullable int[] rowIds) {
+    // Evaluate each operand a column at a time, then invoke the function once per row on the argument columns
+    int numOperands = _operands.size();
+    Object[][] operandValues = new Object[numOperands][];
+    for (int i = 0; i < numOperands; i++) {
+      operandValues[i] = _operands.get(i).apply(block, rowIds);
+    }
+    int numRows = rowIds != null ? rowIds.length : block.getNumRows();
+    Object[] results = new Object[numRows];
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      for (int i = 0; i < numOperands; i++) {
+        Object value = operandValues[i][rowId];
+        _reusableOperandHolder[i] = value != null ? _operands.get(i).getResultType().toExternal(value) : null;
+      }
+      results[rowId] = invoke();
+    }
+    return results;
+  }
+
+  /**
+   * Invokes the function on the arguments stored in the reusable operand holder.
+   */
+  @Nullable
+  private Object invoke() {
     // TODO: Optimize per record conversion
     Object result;
     if (_functionInvoker.getMethod().isVarArgs()) {
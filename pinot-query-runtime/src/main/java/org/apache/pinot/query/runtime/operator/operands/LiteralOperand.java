@@ -18,8 +18,11 @@
  */
 package org.apache.pinot.query.runtime.operator.operands;
 
+import java.util.Arrays;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 
 
 public class LiteralOperand implements TransformOperand {
@@ -40,4 +43,15 @@ public class LiteralOperand implements TransformOperand {
   public Object apply(Object[] row) {
     return _value;
   }
+
+  public Object getValue() {
+    return _value;
+  }
+
+  @Override
+  public Object[] apply(TransferableBlock block, @Nullable int[] rowIds) {
+    Object[] values = new Object[rowIds != null ? rowIds.length : block.getNumRows()];
+    Arrays.fill(values, _value);
+    return values;
+  }
 }
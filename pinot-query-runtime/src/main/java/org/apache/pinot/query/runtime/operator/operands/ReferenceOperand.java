@@ -21,6 +21,7 @@ package org.apache.pinot.query.runtime.operator.operands;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 
 
 public class ReferenceOperand implements TransformOperand {
@@ -42,4 +43,22 @@ public class ReferenceOperand implements TransformOperand {
   public Object apply(Object[] row) {
     return row[_index];
   }
+
+  @Override
+  public Object[] apply(TransferableBlock block, @Nullable int[] rowIds) {
+    Object[] values = block.getColumn(_index);
+    if (rowIds == null) {
+      return values;
+    }
+    int numRows = rowIds.length;
+    Object[] selectedValues = new Object[numRows];
+    for (int i = 0; i < numRows; i++) {
+      selectedValues[i] = values[rowIds[i]];
+    }
+    return selectedValues;
+  }
+
+  public int getIndex() {
+    return _index;
+  }
 }
@@ -18,8 +18,10 @@
  */
 package org.apache.pinot.query.runtime.operator.operands;
 
+import java.util.List;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 
 
 public interface TransformOperand {
@@ -28,4 +30,41 @@ public interface TransformOperand {
 
   @Nullable
   Object apply(Object[] row);
+
+  /**
+   * Evaluates the operand over all the rows of the given data block at once, and returns one value per row (null for
+   * null values). Operands override {@link #apply(TransferableBlock, int[])} to evaluate a whole column at a time,
+   * which avoids materializing the rows when the block is columnar or still serialized.
+   *
+   * NOTE: The returned array might be shared with the block and must not be modified.
+   */
+  default Object[] apply(TransferableBlock block) {
+    return apply(block, null);
+  }
+
+  /**
+   * Evaluates the operand over the selected rows of the given data block (all the rows when {@code rowIds} is null),
+   * and returns one value per selected row (null for null values). Only the selected rows are evaluated, so that a
+   * condition can short-circuit the evaluation of the following ones (e.g. {@code x <> 0 AND 10 / x > 1}) the same
+   * way as the row based evaluation. The default implementation evaluates the rows one by one.
+   *
+   * NOTE: The returned array might be shared with the block and must not be modified.
+   */
+  default Object[] apply(TransferableBlock block, @Nullable int[] rowIds) {
+    List<Object[]> rows = block.getContainer();
+    if (rowIds == null) {
+      int numRows = rows.size();
+      Object[] values = new Object[numRows];
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        values[rowId] = apply(rows.get(rowId));
+      }
+      return values;
+    }
+    int numRows = rowIds.length;
+    Object[] values = new Object[numRows];
+    for (int i = 0; i < numRows; i++) {
+      values[i] = apply(rows.get(rowIds[i]));
+    }
+    return values;
+  }
 }
@@ -0,0 +1,365 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+
+
+/**
+ * External merge sorter for rows of the multi-stage engine.
+ *
+ * <p>Rows are buffered in memory until the buffer reaches {@code maxRowsInMemory}, at which point the buffer is sorted
+ * and written to a file in the spill directory as a sorted run. A run is stored as a sequence of length-prefixed
+ * serialized {@link DataBlock}s of at most {@code numRowsPerChunk} rows each, so that the k-way merge only needs to
+ * keep one chunk per run in memory.
+ *
+ * <p>At most {@code maxMergeFanIn} sources (the in-memory rows and the runs) are merged at once. When there are more
+ * runs, they are merged in passes: the oldest {@code maxMergeFanIn} runs are merged into a new run appended to the
+ * runs, until the remaining runs and the in-memory rows can be merged in a single pass. This bounds both the number of
+ * open files and the memory held by the chunks being merged.
+ *
+ * <p>This class is not thread-safe. {@link #close()} must be called to delete the spilled runs.
+ */
+public class ExternalMergeSorter implements Closeable {
+  public static final int DEFAULT_NUM_ROWS_PER_CHUNK = 10_000;
+  public static final int DEFAULT_MAX_MERGE_FAN_IN = 64;
+
+  private final DataSchema _dataSchema;
+  private final Comparator<Object[]> _comparator;
+  private final int _maxRowsInMemory;
+  private final int _numRowsPerChunk;
+  private final int _maxMergeFanIn;
+  private final File _spillDir;
+  private final Deque<File> _runFiles = new ArrayDeque<>();
+  private final List<RunReader> _runReaders = new ArrayList<>();
+
+  private List<Object[]> _rows = new ArrayList<>();
+  private int _numSpilledRuns;
+  private long _numSpilledBytes;
+  private int _numMergePasses;
+  private boolean _finished;
+
+  public ExternalMergeSorter(DataSchema dataSchema, Comparator<Object[]> comparator, int maxRowsInMemory,
+      File spillDir) {
+    this(dataSchema, comparator, maxRowsInMemory, spillDir, DEFAULT_NUM_ROWS_PER_CHUNK);
+  }
+
+  public ExternalMergeSorter(DataSchema dataSchema, Comparator<Object[]> comparator, int maxRowsInMemory,
+      File spillDir, int numRowsPerChunk) {
+    this(dataSchema, comparator, maxRowsInMemory, spillDir, numRowsPerChunk, DEFAULT_MAX_MERGE_FAN_IN);
+  }
+
+  public ExternalMergeSorter(DataSchema dataSchema, Comparator<Object[]> comparator, int maxRowsInMemory,
+      File spillDir, int numRowsPerChunk, int maxMergeFanIn) {
+    Preconditions.checkArgument(maxRowsInMemory > 0, "Max rows in memory must be positive, got: %s", maxRowsInMemory);
+    Preconditions.checkArgument(numRowsPerChunk > 0, "Rows per chunk must be positive, got: %s", numRowsPerChunk);
+    Preconditions.checkArgument(maxMergeFanIn >= 2, "Max merge fan-in must be at least 2, got: %s", maxMergeFanIn);
+    _dataSchema = dataSchema;
+    _comparator = comparator;
+    _maxRowsInMemory = maxRowsInMemory;
+    _numRowsPerChunk = numRowsPerChunk;
+    _maxMergeFanIn = maxMergeFanIn;
+    _spillDir = spillDir;
+  }
+
+  /**
+   * Adds the rows to the sorter, spilling a sorted run to disk each time the in-memory buffer becomes full.
+   */
+  public void addRows(List<Object[]> rows)
+      throws IOException {
+    Preconditions.checkState(!_finished, "Cannot add rows after the sorted rows are retrieved");
+    for (Object[] row : rows) {
+      _rows.add(row);
+      if (_rows.size() >= _maxRowsInMemory) {
+        spill();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of sorted runs spilled from the in-memory buffer, not counting the runs written by the merge
+   * passes.
+   */
+  public int getNumSpilledRuns() {
+    return _numSpilledRuns;
+  }
+
+  public long getNumSpilledBytes() {
+    return _numSpilledBytes;
+  }
+
+  /**
+   * Returns the number of intermediate merge passes, each merging {@code maxMergeFanIn} runs into a new run.
+   */
+  public int getNumMergePasses() {
+    return _numMergePasses;
+  }
+
+  /**
+   * Returns an iterator over all the added rows in sorted order. If nothing was spilled, the rows are sorted in memory;
+   * otherwise the remaining in-memory rows are sorted and merged with the spilled runs, after merging the runs in
+   * passes when there are too many of them to merge at once.
+   */
+  public Iterator<Object[]> sortedIterator()
+      throws IOException {
+    Preconditions.checkState(!_finished, "Sorted rows can only be retrieved once");
+    _finished = true;
+    _rows.sort(_comparator);
+    if (_runFiles.isEmpty()) {
+      return _rows.iterator();
+    }
+    // Leave one source for the in-memory rows in the final merge
+    while (_runFiles.size() > _maxMergeFanIn - 1) {
+      mergeRuns();
+    }
+    List<Iterator<Object[]>> sources = new ArrayList<>(_runFiles.size() + 1);
+    sources.add(_rows.iterator());
+    for (File runFile : _runFiles) {
+      RunReader runReader = new RunReader(runFile);
+      _runReaders.add(runReader);
+      sources.add(runReader);
+    }
+    return new MergeIterator(sources);
+  }
+
+  private void spill()
+      throws IOException {
+    _rows.sort(_comparator);
+    writeRun(_rows.iterator());
+    _numSpilledRuns++;
+    // Release the rows instead of clearing the list to also release the backing array
+    _rows = new ArrayList<>();
+  }
+
+  /**
+   * Merges the oldest {@code maxMergeFanIn} runs into a new run appended to the runs, and deletes the merged runs.
+   */
+  private void mergeRuns()
+      throws IOException {
+    List<File> runFiles = new ArrayList<>(_maxMergeFanIn);
+    List<RunReader> runReaders = new ArrayList<>(_maxMergeFanIn);
+    try {
+      for (int i = 0; i < _maxMergeFanIn; i++) {
+        File runFile = _runFiles.poll();
+        runFiles.add(runFile);
+        runReaders.add(new RunReader(runFile));
+      }
+      writeRun(new MergeIterator(new ArrayList<>(runReaders)));
+    } finally {
+      for (RunReader runReader : runReaders) {
+        runReader.close();
+      }
+      for (File runFile : runFiles) {
+        FileUtils.deleteQuietly(runFile);
+      }
+    }
+    _numMergePasses++;
+  }
+
+  /**
+   * Writes the given sorted rows into a new run file in chunks of at most {@code numRowsPerChunk} rows.
+   */
+  private void writeRun(Iterator<Object[]> rows)
+      throws IOException {
+    if (_runFiles.isEmpty()) {
+      FileUtils.forceMkdir(_spillDir);
+    }
+    File runFile = File.createTempFile("sort-run-", ".tmp", _spillDir);
+    _runFiles.add(runFile);
+    try (DataOutputStream outputStream = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(runFile.toPath())))) {
+      List<Object[]> chunk = new ArrayList<>(_numRowsPerChunk);
+      while (rows.hasNext()) {
+        chunk.add(rows.next());
+        if (chunk.size() == _numRowsPerChunk || !rows.hasNext()) {
+          writeChunk(outputStream, chunk);
+          chunk.clear();
+        }
+      }
+    }
+  }
+
+  private void writeChunk(DataOutputStream outputStream, List<Object[]> chunk)
+      throws IOException {
+    List<ByteBuffer> buffers = DataBlockUtils.serialize(DataBlockBuilder.buildFromRows(chunk, _dataSchema));
+    int numBytes = 0;
+    for (ByteBuffer buffer : buffers) {
+      numBytes += buffer.remaining();
+    }
+    outputStream.writeInt(numBytes);
+    for (ByteBuffer buffer : buffers) {
+      if (buffer.hasArray()) {
+        outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+      } else {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        outputStream.write(bytes);
+      }
+    }
+    _numSpilledBytes += Integer.BYTES + numBytes;
+  }
+
+  @Override
+  public void close() {
+    for (RunReader runReader : _runReaders) {
+      runReader.close();
+    }
+    _runReaders.clear();
+    for (File runFile : _runFiles) {
+      FileUtils.deleteQuietly(runFile);
+    }
+    _runFiles.clear();
+    _rows = new ArrayList<>();
+  }
+
+  /**
+   * Streaming k-way merge over sorted sources (the in-memory rows and the spilled runs).
+   */
+  private class MergeIterator implements Iterator<Object[]> {
+    private final PriorityQueue<PeekingIterator> _queue;
+
+    MergeIterator(List<Iterator<Object[]>> sources) {
+      _queue = new PriorityQueue<>(sources.size(), (o1, o2) -> _comparator.compare(o1._next, o2._next));
+      for (Iterator<Object[]> source : sources) {
+        addIfNotEmpty(new PeekingIterator(source));
+      }
+    }
+
+    private void addIfNotEmpty(PeekingIterator iterator) {
+      if (iterator._next != null) {
+        _queue.add(iterator);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !_queue.isEmpty();
+    }
+
+    @Override
+    public Object[] next() {
+      PeekingIterator iterator = _queue.poll();
+      if (iterator == null) {
+        throw new NoSuchElementException();
+      }
+      Object[] row = iterator._next;
+      iterator.advance();
+      addIfNotEmpty(iterator);
+      return row;
+    }
+  }
+
+  private static class PeekingIterator {
+    final Iterator<Object[]> _iterator;
+    Object[] _next;
+
+    PeekingIterator(Iterator<Object[]> iterator) {
+      _iterator = iterator;
+      advance();
+    }
+
+    void advance() {
+      _next = _iterator.hasNext() ? _iterator.next() : null;
+    }
+  }
+
+  /**
+   * Reads back a sorted run one chunk at a time.
+   */
+  private static class RunReader implements Iterator<Object[]>, Closeable {
+    private final DataInputStream _inputStream;
+    private Iterator<Object[]> _currentChunk;
+    private boolean _exhausted;
+
+    RunReader(File runFile)
+        throws IOException {
+      _inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(runFile.toPath())));
+      _currentChunk = readNextChunk();
+    }
+
+    private Iterator<Object[]> readNextChunk()
+        throws IOException {
+      int numBytes;
+      try {
+        numBytes = _inputStream.readInt();
+      } catch (EOFException e) {
+        _exhausted = true;
+        return null;
+      }
+      byte[] bytes = new byte[numBytes];
+      _inputStream.readFully(bytes);
+      DataBlock dataBlock = DataBlockUtils.readFrom(ByteBuffer.wrap(bytes));
+      return DataBlockExtractUtils.extractRows(dataBlock).iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (!_exhausted && !_currentChunk.hasNext()) {
+          _currentChunk = readNextChunk();
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return !_exhausted;
+    }
+
+    @Override
+    public Object[] next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return _currentChunk.next();
+    }
+
+    @Override
+    public void close() {
+      try {
+        _inputStream.close();
+      } catch (IOException e) {
+        // Ignore
+      }
+    }
+  }
+}
@@ -19,15 +19,13 @@
 package org.apache.pinot.query.runtime.operator.window.aggregate;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.pinot.common.utils.DataSchema;
-import org.apache.pinot.core.data.table.Key;
 import org.apache.pinot.query.planner.logical.RexExpression;
-import org.apache.pinot.query.runtime.operator.utils.AggregationUtils;
 import org.apache.pinot.query.runtime.operator.window.WindowFrame;
 import org.apache.pinot.query.runtime.operator.window.WindowFunction;
 
@@ -116,60 +114,91 @@ public class AggregateWindowFunction extends WindowFunction {
       return processUnboundedPrecedingAndFollowingWindow(rows);
     }
 
-    List<Object> results = new ArrayList<>(rows.size());
+    // The input rows are sorted on the order keys, so rows with the same order key (peers) are contiguous. Each group
+    // of peers shares the same result, which can be computed with a single pass over the rows without hashing the
+    // order keys.
+    int numRows = rows.size();
+    Object[] results = new Object[numRows];
     if (_windowFrame.isUnboundedPreceding() && _windowFrame.isUpperBoundCurrentRow()) {
       // The window frame is RANGE BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW - this means that the result for rows
       // with the same order key will be the same - equal to the aggregated result from the first row of the partition
       // to the last row with that order key.
-      Map<Key, Object> keyedResult = new HashMap<>();
-      for (Object[] row : rows) {
-        Key orderKey = AggregationUtils.extractRowKey(row, _orderKeys);
-        _windowValueAggregator.addValue(extractValueFromRow(row));
-        keyedResult.put(orderKey, _windowValueAggregator.getCurrentAggregatedValue());
-      }
-
-      for (Object[] row : rows) {
-        Key orderKey = AggregationUtils.extractRowKey(row, _orderKeys);
-        results.add(keyedResult.get(orderKey));
+      int peerGroupStart = 0;
+      while (peerGroupStart < numRows) {
+        int peerGroupEnd = getPeerGroupEnd(rows, peerGroupStart);
+        for (int i = peerGroupStart; i < peerGroupEnd; i++) {
+          _windowValueAggregator.addValue(extractValueFromRow(rows.get(i)));
+        }
+        Arrays.fill(results, peerGroupStart, peerGroupEnd, _windowValueAggregator.getCurrentAggregatedValue());
+        peerGroupStart = peerGroupEnd;
       }
-      return results;
     } else if (_windowFrame.isLowerBoundCurrentRow() && _windowFrame.isUnboundedFollowing()) {
       // The window frame is RANGE BETWEEN CURRENT ROW AND UNBOUNDED FOLLOWING - this means that the result for rows
       // with the same order key will be the same - equal to the aggregated result from the first row with that order
       // key to the last row of the partition.
-      Map<Key, Object> keyedResult = new HashMap<>();
       // Do a reverse iteration
-      for (int i = rows.size() - 1; i >= 0; i--) {
-        Object[] row = rows.get(i);
-        Key orderKey = AggregationUtils.extractRowKey(row, _orderKeys);
-        _windowValueAggregator.addValue(extractValueFromRow(row));
-        keyedResult.put(orderKey, _windowValueAggregator.getCurrentAggregatedValue());
-      }
-
-      for (Object[] row : rows) {
-        Key orderKey = AggregationUtils.extractRowKey(row, _orderKeys);
-        results.add(keyedResult.get(orderKey));
+      int peerGroupEnd = numRows;
+      while (peerGroupEnd > 0) {
+        int peerGroupStart = getPeerGroupStart(rows, peerGroupEnd);
+        for (int i = peerGroupEnd - 1; i >= peerGroupStart; i--) {
+          _windowValueAggregator.addValue(extractValueFromRow(rows.get(i)));
+        }
+        Arrays.fill(results, peerGroupStart, peerGroupEnd, _windowValueAggregator.getCurrentAggregatedValue());
+        peerGroupEnd = peerGroupStart;
       }
-      return results;
     } else if (_windowFrame.isLowerBoundCurrentRow() && _windowFrame.isUpperBoundCurrentRow()) {
       // The window frame is RANGE BETWEEN CURRENT ROW AND CURRENT ROW - this means that the result for rows with the
       // same order key will be the same - equal to the aggregated result from the first row with that order key to the
       // last row with that order key.
-      Map<Key, WindowValueAggregator<Object>> keyedAggregator = new HashMap<>();
-      for (Object[] row : rows) {
-        Key orderKey = AggregationUtils.extractRowKey(row, _orderKeys);
-        keyedAggregator.computeIfAbsent(orderKey,
-                k -> WindowValueAggregatorFactory.getWindowValueAggregator(_functionName, _dataType, false))
-            .addValue(extractValueFromRow(row));
-      }
-
-      for (Object[] row : rows) {
-        Key orderKey = AggregationUtils.extractRowKey(row, _orderKeys);
-        results.add(keyedAggregator.get(orderKey).getCurrentAggregatedValue());
+      int peerGroupStart = 0;
+      while (peerGroupStart < numRows) {
+        int peerGroupEnd = getPeerGroupEnd(rows, peerGroupStart);
+        _windowValueAggregator.clear();
+        for (int i = peerGroupStart; i < peerGroupEnd; i++) {
+          _windowValueAggregator.addValue(extractValueFromRow(rows.get(i)));
+        }
+        Arrays.fill(results, peerGroupStart, peerGroupEnd, _windowValueAggregator.getCurrentAggregatedValue());
+        peerGroupStart = peerGroupEnd;
       }
-      return results;
     } else {
       throw new IllegalStateException("RANGE window frame with offset PRECEDING / FOLLOWING is not supported");
     }
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Returns the (exclusive) end index of the group of peer rows (rows with the same order key) starting at the given
+   * index.
+   */
+  private int getPeerGroupEnd(List<Object[]> rows, int peerGroupStart) {
+    int numRows = rows.size();
+    Object[] firstRow = rows.get(peerGroupStart);
+    int peerGroupEnd = peerGroupStart + 1;
+    while (peerGroupEnd < numRows && isPeer(firstRow, rows.get(peerGroupEnd))) {
+      peerGroupEnd++;
+    }
+    return peerGroupEnd;
+  }
+
+  /**
+   * Returns the (inclusive) start index of the group of peer rows (rows with the same order key) ending at the given
+   * (exclusive) index.
+   */
+  private int getPeerGroupStart(List<Object[]> rows, int peerGroupEnd) {
+    Object[] lastRow = rows.get(peerGroupEnd - 1);
+    int peerGroupStart = peerGroupEnd - 1;
+    while (peerGroupStart > 0 && isPeer(lastRow, rows.get(peerGroupStart - 1))) {
+      peerGroupStart--;
+    }
+    return peerGroupStart;
+  }
+
+  private boolean isPeer(Object[] row1, Object[] row2) {
+    for (int orderKey : _orderKeys) {
+      if (!Objects.equals(row1[orderKey], row2[orderKey])) {
+        return false;
+      }
+    }
+    return true;
   }
 }
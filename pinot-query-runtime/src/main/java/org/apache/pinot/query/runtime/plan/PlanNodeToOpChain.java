@@ -20,6 +20,7 @@ package org.apache.pinot.query.runtime.plan;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
 import org.apache.pinot.query.planner.plannode.AggregateNode;
 import org.apache.pinot.query.planner.plannode.ExchangeNode;
@@ -46,6 +47,7 @@ import org.apache.pinot.query.runtime.operator.LiteralValueOperator;
 import org.apache.pinot.query.runtime.operator.LookupJoinOperator;
 import org.apache.pinot.query.runtime.operator.MailboxReceiveOperator;
 import org.apache.pinot.query.runtime.operator.MailboxSendOperator;
+import org.apache.pinot.query.runtime.operator.MergeJoinOperator;
 import org.apache.pinot.query.runtime.operator.MinusAllOperator;
 import org.apache.pinot.query.runtime.operator.MinusOperator;
 import org.apache.pinot.query.runtime.operator.MultiStageOperator;
@@ -56,6 +58,7 @@ import org.apache.pinot.query.runtime.operator.TransformOperator;
 import org.apache.pinot.query.runtime.operator.UnionOperator;
 import org.apache.pinot.query.runtime.operator.WindowAggregateOperator;
 import org.apache.pinot.query.runtime.plan.server.ServerPlanRequestContext;
+import org.apache.pinot.spi.utils.CommonConstants.MultiStageQueryRunner.WindowOverFlowMode;
 
 
 /**
@@ -136,7 +139,20 @@ public class PlanNodeToOpChain {
     @Override
     public MultiStageOperator visitWindow(WindowNode node, OpChainExecutionContext context) {
       PlanNode input = node.getInputs().get(0);
-      return new WindowAggregateOperator(context, visit(input, context), input.getDataSchema(), node);
+      MultiStageOperator inputOperator;
+      if (input instanceof MailboxReceiveNode && ((MailboxReceiveNode) input).isSort()) {
+        // The sorted mailbox receive buffers the whole input, so the window limit also applies to it
+        Map<String, String> opChainMetadata = context.getOpChainMetadata();
+        int maxRowsInWindow = WindowAggregateOperator.getMaxRowsInWindow(opChainMetadata, node.getNodeHint());
+        boolean truncate = WindowAggregateOperator.getWindowOverflowMode(opChainMetadata, node.getNodeHint())
+            == WindowOverFlowMode.BREAK;
+        inputOperator =
+            new SortedMailboxReceiveOperator(context, (MailboxReceiveNode) input, maxRowsInWindow, truncate);
+        _tracker.accept(input, inputOperator);
+      } else {
+        inputOperator = visit(input, context);
+      }
+      return new WindowAggregateOperator(context, inputOperator, input.getDataSchema(), node);
     }
 
     @Override
@@ -175,10 +191,17 @@ public class PlanNodeToOpChain {
     public MultiStageOperator visitJoin(JoinNode node, OpChainExecutionContext context) {
       List<PlanNode> inputs = node.getInputs();
       PlanNode left = inputs.get(0);
-      MultiStageOperator leftOperator = visit(left, context);
       PlanNode right = inputs.get(1);
-      MultiStageOperator rightOperator = visit(right, context);
       JoinNode.JoinStrategy joinStrategy = node.getJoinStrategy();
+      if (joinStrategy == JoinNode.JoinStrategy.MERGE) {
+        // The sorted receivers feeding the merge join buffer their whole input, so cap them by the join row limit
+        int maxRowsInJoin = MergeJoinOperator.getMaxRowsInJoin(context.getOpChainMetadata(), node.getNodeHint());
+        MultiStageOperator leftOperator = visitMergeJoinInput(left, maxRowsInJoin, context);
+        MultiStageOperator rightOperator = visitMergeJoinInput(right, maxRowsInJoin, context);
+        return new MergeJoinOperator(context, leftOperator, left.getDataSchema(), rightOperator, node);
+      }
+      MultiStageOperator leftOperator = visit(left, context);
+      MultiStageOperator rightOperator = visit(right, context);
       if (joinStrategy == JoinNode.JoinStrategy.HASH) {
         return new HashJoinOperator(context, leftOperator, left.getDataSchema(), rightOperator, node);
       } else {
@@ -187,6 +210,15 @@ public class PlanNodeToOpChain {
       }
     }
 
+    private MultiStageOperator visitMergeJoinInput(PlanNode input, int maxRows, OpChainExecutionContext context) {
+      if (input instanceof MailboxReceiveNode && ((MailboxReceiveNode) input).isSort()) {
+        MultiStageOperator result = new SortedMailboxReceiveOperator(context, (MailboxReceiveNode) input, maxRows);
+        _tracker.accept(input, result);
+        return result;
+      }
+      return visit(input, context);
+    }
+
     @Override
     public MultiStageOperator visitProject(ProjectNode node, OpChainExecutionContext context) {
       PlanNode input = node.getInputs().get(0);
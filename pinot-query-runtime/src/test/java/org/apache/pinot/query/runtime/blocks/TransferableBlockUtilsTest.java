@@ -78,6 +78,18 @@ public class TransferableBlockUtilsTest {
         DataBlock.Type.ROW, estRowSizeInBytes * splitRowCount + 1), rows, dataSchema);
   }
 
+  @Test(dataProvider = "splitRowCountProvider")
+  public void testSplitColumnarBlock(int splitRowCount)
+      throws Exception {
+    DataSchema dataSchema = getDataSchema();
+    int estRowSizeInBytes = dataSchema.size() * TEST_EST_BYTES_PER_COLUMN;
+    List<Object[]> rows = DataBlockTestUtils.getRandomRows(dataSchema, TOTAL_ROW_COUNT, 1);
+    List<Object[]> columns = DataBlockTestUtils.convertColumnar(dataSchema, rows);
+    TransferableBlock columnarBlock = new TransferableBlock(columns, dataSchema, DataBlock.Type.COLUMNAR);
+    validateBlocks(TransferableBlockUtils.splitBlock(columnarBlock, DataBlock.Type.COLUMNAR,
+        estRowSizeInBytes * splitRowCount + 1), rows, dataSchema);
+  }
+
   @Test
   public void testNonSplittableBlock()
       throws Exception {
@@ -18,11 +18,14 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import java.util.Collections;
 import java.util.List;
 import org.apache.calcite.sql.SqlKind;
+import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.FilterNode;
 import org.apache.pinot.query.planner.plannode.PlanNode;
@@ -235,6 +238,82 @@ public class FilterOperatorTest {
     getOperator(inputSchema, startsWith);
   }
 
+  @Test
+  public void shouldFilterColumnarDataBlock()
+      throws Exception {
+    DataSchema inputSchema = new DataSchema(new String[]{"intCol", "strCol"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    List<Object[]> columns = List.of(new Object[]{1, 2, 3}, new Object[]{"a", "b", "c"});
+    when(_input.nextBlock()).thenReturn(
+        new TransferableBlock(DataBlockBuilder.buildFromColumns(columns, inputSchema)));
+    RexExpression.FunctionCall greaterThan =
+        new RexExpression.FunctionCall(ColumnDataType.BOOLEAN, SqlKind.GREATER_THAN.name(),
+            List.of(new RexExpression.InputRef(0), new RexExpression.Literal(ColumnDataType.INT, 1)));
+    FilterOperator operator = getOperator(inputSchema, greaterThan);
+    TransferableBlock block = operator.nextBlock();
+    assertEquals(block.getType(), DataBlock.Type.COLUMNAR);
+    assertEquals(block.getNumRows(), 2);
+    // Numeric columns are kept as primitive vectors
+    assertEquals(block.getColumnVector(0), new int[]{2, 3});
+    List<Object[]> resultRows = block.getContainer();
+    assertEquals(resultRows.get(0), new Object[]{2, "b"});
+    assertEquals(resultRows.get(1), new Object[]{3, "c"});
+  }
+
+  @Test
+  public void shouldKeepRowFormatForSerializedRowDataBlock()
+      throws Exception {
+    DataSchema inputSchema = new DataSchema(new String[]{"intCol", "strCol"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    List<Object[]> rows = List.of(new Object[]{1, "a"}, new Object[]{null, "b"}, new Object[]{3, "c"});
+    when(_input.nextBlock()).thenReturn(new TransferableBlock(DataBlockBuilder.buildFromRows(rows, inputSchema)));
+    RexExpression.FunctionCall greaterThan =
+        new RexExpression.FunctionCall(ColumnDataType.BOOLEAN, SqlKind.GREATER_THAN.name(),
+            List.of(new RexExpression.InputRef(0), new RexExpression.Literal(ColumnDataType.INT, 0)));
+    FilterOperator operator = getOperator(inputSchema, greaterThan);
+    TransferableBlock block = operator.nextBlock();
+    // Row based input (e.g. from the mailbox) should not be converted to columnar
+    assertEquals(block.getType(), DataBlock.Type.ROW);
+    List<Object[]> resultRows = block.getContainer();
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{1, "a"});
+    assertEquals(resultRows.get(1), new Object[]{3, "c"});
+  }
+
+  @Test
+  public void shouldShortCircuitAndOrOnColumnarDataBlock()
+      throws Exception {
+    DataSchema inputSchema = new DataSchema(new String[]{"strCol"}, new ColumnDataType[]{ColumnDataType.STRING});
+    List<Object[]> columns = Collections.singletonList(new Object[]{"2024-01-01", "invalid", "2024-02-01"});
+    RexExpression isValid = new RexExpression.FunctionCall(ColumnDataType.BOOLEAN, SqlKind.NOT_EQUALS.name(),
+        List.of(new RexExpression.InputRef(0), new RexExpression.Literal(ColumnDataType.STRING, "invalid")));
+    RexExpression isInvalid = new RexExpression.FunctionCall(ColumnDataType.BOOLEAN, SqlKind.EQUALS.name(),
+        List.of(new RexExpression.InputRef(0), new RexExpression.Literal(ColumnDataType.STRING, "invalid")));
+    // fromDateTime() throws on the invalid value, so it must only be evaluated on the rows not decided yet
+    RexExpression isAfterEpoch = new RexExpression.FunctionCall(ColumnDataType.BOOLEAN,
+        SqlKind.GREATER_THAN.name(), List.of(new RexExpression.FunctionCall(ColumnDataType.LONG, "fromDateTime",
+            List.of(new RexExpression.InputRef(0), new RexExpression.Literal(ColumnDataType.STRING, "yyyy-MM-dd"))),
+        new RexExpression.Literal(ColumnDataType.LONG, 0L)));
+
+    when(_input.nextBlock()).thenReturn(
+        new TransferableBlock(DataBlockBuilder.buildFromColumns(columns, inputSchema)));
+    RexExpression.FunctionCall andCall = new RexExpression.FunctionCall(ColumnDataType.BOOLEAN, SqlKind.AND.name(),
+        List.of(isValid, isAfterEpoch));
+    List<Object[]> resultRows = getOperator(inputSchema, andCall).nextBlock().getContainer();
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{"2024-01-01"});
+    assertEquals(resultRows.get(1), new Object[]{"2024-02-01"});
+
+    when(_input.nextBlock()).thenReturn(
+        new TransferableBlock(DataBlockBuilder.buildFromColumns(columns, inputSchema)));
+    RexExpression.FunctionCall orCall = new RexExpression.FunctionCall(ColumnDataType.BOOLEAN, SqlKind.OR.name(),
+        List.of(isInvalid, isAfterEpoch));
+    resultRows = getOperator(inputSchema, orCall).nextBlock().getContainer();
+    assertEquals(resultRows.size(), 3);
+  }
+
   private FilterOperator getOperator(DataSchema schema, RexExpression condition) {
     return new FilterOperator(OperatorTestUtil.getTracingContext(), _input,
         new FilterNode(-1, schema, PlanNode.NodeHint.EMPTY, List.of(), condition));
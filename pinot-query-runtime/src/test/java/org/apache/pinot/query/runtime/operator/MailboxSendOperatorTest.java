@@ -20,10 +20,14 @@ package org.apache.pinot.query.runtime.operator;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
+import org.apache.calcite.rel.RelDistribution;
+import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.query.mailbox.MailboxService;
+import org.apache.pinot.query.planner.plannode.MailboxSendNode;
 import org.apache.pinot.query.routing.StageMetadata;
 import org.apache.pinot.query.routing.WorkerMetadata;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
@@ -31,6 +35,7 @@ import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.exchange.BlockExchange;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.ByteArray;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.testng.annotations.AfterMethod;
@@ -41,6 +46,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
@@ -192,6 +198,21 @@ public class MailboxSendOperatorTest {
     verify(_input).earlyTerminate();
   }
 
+  @Test
+  public void shouldConvertBytesSkewHotKeysToByteArray() {
+    // Given:
+    DataSchema dataSchema = new DataSchema(new String[]{"bytesCol"}, new ColumnDataType[]{ColumnDataType.BYTES});
+    MailboxSendNode node =
+        new MailboxSendNode(SENDER_STAGE_ID, dataSchema, List.of(), 0, PinotRelExchangeType.getDefaultExchangeType(),
+            RelDistribution.Type.HASH_DISTRIBUTED, List.of(0), false, null, false, 2, false, List.of("0a0b"));
+
+    // When:
+    Set<Object> hotKeys = MailboxSendOperator.getSkewHotKeys(node);
+
+    // Then:
+    assertEquals(hotKeys, Set.of(new ByteArray(new byte[]{10, 11})));
+  }
+
   private MailboxSendOperator getOperator() {
     WorkerMetadata workerMetadata = new WorkerMetadata(0, Map.of(), Map.of());
     StageMetadata stageMetadata = new StageMetadata(SENDER_STAGE_ID, List.of(workerMetadata), Map.of());
@@ -0,0 +1,262 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.common.datatable.StatMap;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.query.planner.plannode.JoinNode;
+import org.apache.pinot.query.planner.plannode.PlanNode;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.blocks.TransferableBlockTestUtils;
+import org.mockito.Mock;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class MergeJoinOperatorTest {
+  private static final DataSchema LEFT_SCHEMA = new DataSchema(new String[]{"int_col", "string_col"},
+      new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING});
+  private static final DataSchema RIGHT_SCHEMA = new DataSchema(new String[]{"int_col", "string_col"},
+      new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING});
+  private static final DataSchema RESULT_SCHEMA =
+      new DataSchema(new String[]{"int_col1", "string_col1", "int_col2", "string_col2"}, new ColumnDataType[]{
+          ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+      });
+
+  private AutoCloseable _mocks;
+  @Mock
+  private MultiStageOperator _leftInput;
+  @Mock
+  private MultiStageOperator _rightInput;
+
+  @BeforeMethod
+  public void setUp() {
+    _mocks = openMocks(this);
+  }
+
+  @AfterMethod
+  public void tearDown()
+      throws Exception {
+    _mocks.close();
+  }
+
+  @Test
+  public void shouldHandleInnerJoinWithDuplicateKeysAcrossBlocks() {
+    when(_leftInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(LEFT_SCHEMA, new Object[]{1, "a"}, new Object[]{2, "b"}),
+            OperatorTestUtil.block(LEFT_SCHEMA, new Object[]{2, "c"}, new Object[]{4, "d"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_rightInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(RIGHT_SCHEMA, new Object[]{0, "x"}, new Object[]{2, "y"}),
+            OperatorTestUtil.block(RIGHT_SCHEMA, new Object[]{2, "z"}, new Object[]{3, "w"}, new Object[]{4, "v"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    MergeJoinOperator operator = getOperator(JoinRelType.INNER, RESULT_SCHEMA);
+
+    List<Object[]> resultRows = getAllRows(operator);
+    assertEquals(resultRows.size(), 5);
+    assertEquals(resultRows.get(0), new Object[]{2, "b", 2, "y"});
+    assertEquals(resultRows.get(1), new Object[]{2, "b", 2, "z"});
+    assertEquals(resultRows.get(2), new Object[]{2, "c", 2, "y"});
+    assertEquals(resultRows.get(3), new Object[]{2, "c", 2, "z"});
+    assertEquals(resultRows.get(4), new Object[]{4, "d", 4, "v"});
+  }
+
+  @Test
+  public void shouldHandleLeftJoinWithNullKeys() {
+    when(_leftInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(LEFT_SCHEMA, new Object[]{1, "a"}, new Object[]{2, "b"}, new Object[]{null, "c"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_rightInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(RIGHT_SCHEMA, new Object[]{2, "y"}, new Object[]{null, "z"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    MergeJoinOperator operator = getOperator(JoinRelType.LEFT, RESULT_SCHEMA);
+
+    List<Object[]> resultRows = getAllRows(operator);
+    assertEquals(resultRows.size(), 3);
+    assertEquals(resultRows.get(0), new Object[]{1, "a", null, null});
+    assertEquals(resultRows.get(1), new Object[]{2, "b", 2, "y"});
+    assertEquals(resultRows.get(2), new Object[]{null, "c", null, null});
+  }
+
+  @Test
+  public void shouldHandleSemiAndAntiJoin() {
+    for (JoinRelType joinType : new JoinRelType[]{JoinRelType.SEMI, JoinRelType.ANTI}) {
+      when(_leftInput.nextBlock()).thenReturn(
+              OperatorTestUtil.block(LEFT_SCHEMA, new Object[]{1, "a"}, new Object[]{2, "b"}, new Object[]{2, "c"},
+                  new Object[]{3, "d"}))
+          .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+      when(_rightInput.nextBlock()).thenReturn(
+              OperatorTestUtil.block(RIGHT_SCHEMA, new Object[]{2, "y"}, new Object[]{2, "z"}, new Object[]{5, "w"}))
+          .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+      MergeJoinOperator operator = getOperator(joinType, LEFT_SCHEMA);
+
+      List<Object[]> resultRows = getAllRows(operator);
+      if (joinType == JoinRelType.SEMI) {
+        assertEquals(resultRows.size(), 2);
+        assertEquals(resultRows.get(0), new Object[]{2, "b"});
+        assertEquals(resultRows.get(1), new Object[]{2, "c"});
+      } else {
+        assertEquals(resultRows.size(), 2);
+        assertEquals(resultRows.get(0), new Object[]{1, "a"});
+        assertEquals(resultRows.get(1), new Object[]{3, "d"});
+      }
+    }
+  }
+
+  @Test
+  public void shouldMatchExactKeysWithinSameDoubleKeyOrder() {
+    // The sorted exchanges compare numeric keys as doubles, so keys equal as doubles can come in any order
+    long key1 = (1L << 53) + 1;
+    long key2 = 1L << 53;
+    DataSchema longSchema = new DataSchema(new String[]{"long_col", "string_col"},
+        new ColumnDataType[]{ColumnDataType.LONG, ColumnDataType.STRING});
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"long_col1", "string_col1", "long_col2", "string_col2"}, new ColumnDataType[]{
+            ColumnDataType.LONG, ColumnDataType.STRING, ColumnDataType.LONG, ColumnDataType.STRING
+        });
+    when(_leftInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(longSchema, new Object[]{key1, "a"}, new Object[]{key2, "b"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_rightInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(longSchema, new Object[]{key2, "x"}, new Object[]{key1, "y"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    MergeJoinOperator operator = new MergeJoinOperator(OperatorTestUtil.getTracingContext(), _leftInput, longSchema,
+        _rightInput, new JoinNode(-1, resultSchema, PlanNode.NodeHint.EMPTY, List.of(), JoinRelType.INNER, List.of(0),
+        List.of(0), List.of(), JoinNode.JoinStrategy.MERGE));
+
+    List<Object[]> resultRows = getAllRows(operator);
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{key1, "a", key1, "y"});
+    assertEquals(resultRows.get(1), new Object[]{key2, "b", key2, "x"});
+  }
+
+  @Test
+  public void shouldMatchExactBigDecimalKeys() {
+    BigDecimal key1 = new BigDecimal("0.1000000000000000001");
+    BigDecimal key2 = new BigDecimal("0.1");
+    DataSchema bigDecimalSchema = new DataSchema(new String[]{"big_decimal_col", "string_col"},
+        new ColumnDataType[]{ColumnDataType.BIG_DECIMAL, ColumnDataType.STRING});
+    when(_leftInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(bigDecimalSchema, new Object[]{key1, "a"}, new Object[]{key2, "b"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_rightInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(bigDecimalSchema, new Object[]{new BigDecimal("0.10"), "x"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    MergeJoinOperator operator = new MergeJoinOperator(OperatorTestUtil.getTracingContext(), _leftInput,
+        bigDecimalSchema, _rightInput, new JoinNode(-1, bigDecimalSchema, PlanNode.NodeHint.EMPTY, List.of(),
+        JoinRelType.SEMI, List.of(0), List.of(0), List.of(), JoinNode.JoinStrategy.MERGE));
+
+    List<Object[]> resultRows = getAllRows(operator);
+    assertEquals(resultRows.size(), 1);
+    assertEquals(resultRows.get(0), new Object[]{key2, "b"});
+  }
+
+  @Test
+  public void shouldDrainRightInputWhenLeftInputFinishesFirst() {
+    when(_leftInput.nextBlock()).thenReturn(OperatorTestUtil.block(LEFT_SCHEMA, new Object[]{1, "a"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_rightInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(RIGHT_SCHEMA, new Object[]{1, "x"}),
+            OperatorTestUtil.block(RIGHT_SCHEMA, new Object[]{2, "y"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    MergeJoinOperator operator = getOperator(JoinRelType.INNER, RESULT_SCHEMA);
+
+    List<Object[]> resultRows = operator.nextBlock().getContainer();
+    assertEquals(resultRows.size(), 1);
+    assertEquals(resultRows.get(0), new Object[]{1, "a", 1, "x"});
+    TransferableBlock eosBlock = operator.nextBlock();
+    StatMap<MergeJoinOperator.StatKey> statMap =
+        OperatorTestUtil.getStatMap(MergeJoinOperator.StatKey.class, eosBlock);
+    assertFalse(statMap.getBoolean(MergeJoinOperator.StatKey.MAX_ROWS_IN_JOIN_REACHED));
+  }
+
+  @Test
+  public void shouldThrowOnReachingMaxRowsForJoinKey() {
+    when(_leftInput.nextBlock()).thenReturn(OperatorTestUtil.block(LEFT_SCHEMA, new Object[]{1, "a"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_rightInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(RIGHT_SCHEMA, new Object[]{1, "x"}, new Object[]{1, "y"}, new Object[]{1, "z"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.JOIN_HINT_OPTIONS,
+        Map.of(PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN, "2")));
+    MergeJoinOperator operator = getOperator(JoinRelType.INNER, RESULT_SCHEMA, nodeHint);
+
+    TransferableBlock block = operator.nextBlock();
+    assertTrue(block.isErrorBlock());
+    assertTrue(block.getExceptions().get(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE)
+        .contains("reached number of rows limit"));
+  }
+
+  @Test
+  public void shouldJoinWithBufferedRowsOnReachingMaxRowsForJoinKeyInBreakMode() {
+    when(_leftInput.nextBlock()).thenReturn(OperatorTestUtil.block(LEFT_SCHEMA, new Object[]{1, "a"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_rightInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(RIGHT_SCHEMA, new Object[]{1, "x"}, new Object[]{1, "y"}, new Object[]{1, "z"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.JOIN_HINT_OPTIONS,
+        Map.of(PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE, "BREAK",
+            PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN, "2")));
+    MergeJoinOperator operator = getOperator(JoinRelType.INNER, RESULT_SCHEMA, nodeHint);
+
+    List<Object[]> resultRows = operator.nextBlock().getContainer();
+    assertEquals(resultRows.size(), 2);
+    TransferableBlock eosBlock = operator.nextBlock();
+    StatMap<MergeJoinOperator.StatKey> statMap =
+        OperatorTestUtil.getStatMap(MergeJoinOperator.StatKey.class, eosBlock);
+    assertTrue(statMap.getBoolean(MergeJoinOperator.StatKey.MAX_ROWS_IN_JOIN_REACHED),
+        "Max rows in join should be reached");
+  }
+
+  private static List<Object[]> getAllRows(MergeJoinOperator operator) {
+    List<Object[]> rows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (block.isDataBlock()) {
+      rows.addAll(block.getContainer());
+      block = operator.nextBlock();
+    }
+    assertTrue(block.isSuccessfulEndOfStreamBlock(), "expected EOS block");
+    return rows;
+  }
+
+  private MergeJoinOperator getOperator(JoinRelType joinType, DataSchema resultSchema, PlanNode.NodeHint nodeHint) {
+    return new MergeJoinOperator(OperatorTestUtil.getTracingContext(), _leftInput, LEFT_SCHEMA, _rightInput,
+        new JoinNode(-1, resultSchema, nodeHint, List.of(), joinType, List.of(0), List.of(0), List.of(),
+            JoinNode.JoinStrategy.MERGE));
+  }
+
+  private MergeJoinOperator getOperator(JoinRelType joinType, DataSchema resultSchema) {
+    return getOperator(joinType, resultSchema, PlanNode.NodeHint.EMPTY);
+  }
+}
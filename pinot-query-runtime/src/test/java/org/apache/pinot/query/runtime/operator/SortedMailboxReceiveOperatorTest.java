@@ -53,6 +53,7 @@ import static org.apache.pinot.common.utils.DataSchema.ColumnDataType.INT;
 import static org.apache.pinot.common.utils.DataSchema.ColumnDataType.STRING;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
@@ -125,6 +126,54 @@ public class SortedMailboxReceiveOperatorTest {
     }
   }
 
+  @Test
+  public void shouldFailOnReachingMaxRows() {
+    when(_mailboxService.getReceivingMailbox(eq(MAILBOX_ID_1))).thenReturn(_mailbox1);
+    when(_mailbox1.poll()).thenReturn(OperatorTestUtil.block(DATA_SCHEMA, new Object[]{2, 1}, new Object[]{1, 1}),
+        OperatorTestUtil.block(DATA_SCHEMA, new Object[]{3, 1}),
+        TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    OpChainExecutionContext context =
+        OperatorTestUtil.getOpChainContext(_mailboxService, Long.MAX_VALUE, _stageMetadata1);
+    MailboxReceiveNode node = mock(MailboxReceiveNode.class);
+    when(node.getDistributionType()).thenReturn(RelDistribution.Type.SINGLETON);
+    when(node.getSenderStageId()).thenReturn(1);
+    when(node.getDataSchema()).thenReturn(DATA_SCHEMA);
+    when(node.getCollations()).thenReturn(FIELD_COLLATIONS);
+    try (SortedMailboxReceiveOperator operator = new SortedMailboxReceiveOperator(context, node, 2)) {
+      TransferableBlock block = operator.nextBlock();
+      assertTrue(block.isErrorBlock());
+      assertTrue(block.getExceptions().get(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE)
+          .contains("reached number of rows limit: 2"));
+    }
+  }
+
+  @Test
+  public void shouldTruncateOnReachingMaxRows() {
+    when(_mailboxService.getReceivingMailbox(eq(MAILBOX_ID_1))).thenReturn(_mailbox1);
+    when(_mailbox1.poll()).thenReturn(OperatorTestUtil.block(DATA_SCHEMA, new Object[]{2, 1}, new Object[]{1, 1}),
+        OperatorTestUtil.block(DATA_SCHEMA, new Object[]{3, 1}, new Object[]{0, 1}),
+        OperatorTestUtil.block(DATA_SCHEMA, new Object[]{-1, 1}),
+        TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    OpChainExecutionContext context =
+        OperatorTestUtil.getOpChainContext(_mailboxService, Long.MAX_VALUE, _stageMetadata1);
+    MailboxReceiveNode node = mock(MailboxReceiveNode.class);
+    when(node.getDistributionType()).thenReturn(RelDistribution.Type.SINGLETON);
+    when(node.getSenderStageId()).thenReturn(1);
+    when(node.getDataSchema()).thenReturn(DATA_SCHEMA);
+    when(node.getCollations()).thenReturn(FIELD_COLLATIONS);
+    try (SortedMailboxReceiveOperator operator = new SortedMailboxReceiveOperator(context, node, 3, true)) {
+      // The rows received after the limit are dropped
+      List<Object[]> resultRows = operator.nextBlock().getContainer();
+      assertEquals(resultRows.size(), 3);
+      assertEquals(resultRows.get(0), new Object[]{1, 1});
+      assertEquals(resultRows.get(1), new Object[]{2, 1});
+      assertEquals(resultRows.get(2), new Object[]{3, 1});
+      assertTrue(operator.nextBlock().isSuccessfulEndOfStreamBlock());
+      assertTrue(operator.isMaxRowsReached());
+      verify(_mailbox1).earlyTerminate();
+    }
+  }
+
   @Test
   public void shouldReceiveEosDirectlyFromSender() {
     when(_mailboxService.getReceivingMailbox(eq(MAILBOX_ID_1))).thenReturn(_mailbox1);
@@ -20,9 +20,11 @@ package org.apache.pinot.query.runtime.operator;
 
 import java.util.List;
 import org.apache.calcite.sql.SqlKind;
+import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.planner.plannode.ProjectNode;
@@ -174,6 +176,54 @@ public class TransformOperatorTest {
     assertEquals(resultRows2.get(2), new Object[]{1, "str"});
   }
 
+  @Test
+  public void shouldTransformColumnarDataBlockColumnAtATime()
+      throws Exception {
+    DataSchema inputSchema = new DataSchema(new String[]{"intCol", "strCol", "doubleCol"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.DOUBLE
+    });
+    List<Object[]> columns = List.of(new Object[]{1, 2}, new Object[]{"a", "b"}, new Object[]{1.0, 2.0});
+    when(_input.nextBlock()).thenReturn(
+        new TransferableBlock(DataBlockBuilder.buildFromColumns(columns, inputSchema)));
+    DataSchema resultSchema = new DataSchema(new String[]{"doubleCol", "plus"},
+        new ColumnDataType[]{ColumnDataType.DOUBLE, ColumnDataType.DOUBLE});
+    RexExpression.FunctionCall plus = new RexExpression.FunctionCall(ColumnDataType.DOUBLE, SqlKind.PLUS.name(),
+        List.of(new RexExpression.InputRef(2), new RexExpression.InputRef(2)));
+    List<RexExpression> projects = List.of(new RexExpression.InputRef(2), plus);
+    TransformOperator operator = getOperator(inputSchema, resultSchema, projects);
+    TransferableBlock block = operator.nextBlock();
+    assertEquals(block.getType(), DataBlock.Type.COLUMNAR);
+    // Referenced numeric columns are passed through as primitive vectors
+    assertEquals(block.getColumnVector(0), new double[]{1.0, 2.0});
+    assertEquals(block.getColumn(0), new Object[]{1.0, 2.0});
+    assertEquals(block.getColumn(1), new Object[]{2.0, 4.0});
+    List<Object[]> resultRows = block.getContainer();
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{1.0, 2.0});
+    assertEquals(resultRows.get(1), new Object[]{2.0, 4.0});
+  }
+
+  @Test
+  public void shouldKeepRowFormatForSerializedRowDataBlock()
+      throws Exception {
+    DataSchema inputSchema = new DataSchema(new String[]{"intCol", "strCol"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    List<Object[]> rows = List.of(new Object[]{1, "a"}, new Object[]{2, "b"});
+    when(_input.nextBlock()).thenReturn(new TransferableBlock(DataBlockBuilder.buildFromRows(rows, inputSchema)));
+    DataSchema resultSchema = new DataSchema(new String[]{"strCol", "intCol"},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.INT});
+    List<RexExpression> projects = List.of(new RexExpression.InputRef(1), new RexExpression.InputRef(0));
+    TransformOperator operator = getOperator(inputSchema, resultSchema, projects);
+    TransferableBlock block = operator.nextBlock();
+    // Row based input (e.g. from the mailbox) should not be converted to columnar
+    assertEquals(block.getType(), DataBlock.Type.ROW);
+    List<Object[]> resultRows = block.getContainer();
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{"a", 1});
+    assertEquals(resultRows.get(1), new Object[]{"b", 2});
+  }
+
   private TransformOperator getOperator(DataSchema inputSchema, DataSchema resultSchema, List<RexExpression> projects) {
     return new TransformOperator(OperatorTestUtil.getTracingContext(), _input, inputSchema,
         new ProjectNode(-1, resultSchema, PlanNode.NodeHint.EMPTY, List.of(), projects));
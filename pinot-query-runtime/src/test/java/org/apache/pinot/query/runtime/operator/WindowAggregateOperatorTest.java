@@ -25,6 +25,7 @@ import java.util.Map;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
@@ -506,6 +507,111 @@ public class WindowAggregateOperatorTest {
         "Max rows in window should be reached");
   }
 
+  @Test
+  public void testShouldStreamPartitionsWhenInputSortedByPartitionKeys() {
+    // Given:
+    DataSchema inputSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, INT});
+    // Input is grouped by the partition key, so each partition can be emitted as soon as the next one starts
+    when(_input.nextBlock()).thenReturn(
+            OperatorTestUtil.block(inputSchema, new Object[]{1, 1}, new Object[]{1, 2}, new Object[]{2, 3}))
+        .thenReturn(OperatorTestUtil.block(inputSchema, new Object[]{2, 4}, new Object[]{3, 5}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"group", "arg", "sum"}, new ColumnDataType[]{INT, INT, DOUBLE});
+    List<Integer> keys = List.of(0);
+    List<RexExpression.FunctionCall> aggCalls = List.of(getSum(new RexExpression.InputRef(1)));
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.WINDOW_HINT_OPTIONS,
+        Map.of(PinotHintOptions.WindowHintOptions.IS_INPUT_SORTED_BY_PARTITION_KEYS, "true")));
+    WindowAggregateOperator operator =
+        getOperator(inputSchema, resultSchema, keys, List.of(), aggCalls, WindowNode.WindowFrameType.RANGE,
+            Integer.MIN_VALUE, Integer.MAX_VALUE, nodeHint);
+
+    // When:
+    List<Object[]> resultRows1 = operator.nextBlock().getContainer();
+    List<Object[]> resultRows2 = operator.nextBlock().getContainer();
+    List<Object[]> resultRows3 = operator.nextBlock().getContainer();
+
+    // Then:
+    assertEquals(resultRows1.size(), 2);
+    assertEquals(resultRows1.get(0), new Object[]{1, 1, 3.0});
+    assertEquals(resultRows1.get(1), new Object[]{1, 2, 3.0});
+    assertEquals(resultRows2.size(), 2);
+    assertEquals(resultRows2.get(0), new Object[]{2, 3, 7.0});
+    assertEquals(resultRows2.get(1), new Object[]{2, 4, 7.0});
+    assertEquals(resultRows3.size(), 1);
+    assertEquals(resultRows3.get(0), new Object[]{3, 5, 5.0});
+    assertTrue(operator.nextBlock().isSuccessfulEndOfStreamBlock(), "Fourth block is EOS (done processing)");
+  }
+
+  @Test
+  public void testShouldStreamPartitionsWithinSingleInputBlock() {
+    // Given:
+    DataSchema inputSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, INT});
+    // A single input block (e.g. from a sorted mailbox receive) containing 3 large partitions
+    int numRowsPerPartition = 10_000;
+    List<Object[]> inputRows = new ArrayList<>();
+    for (int group = 0; group < 3; group++) {
+      for (int i = 0; i < numRowsPerPartition; i++) {
+        inputRows.add(new Object[]{group, 1});
+      }
+    }
+    when(_input.nextBlock()).thenReturn(new TransferableBlock(inputRows, inputSchema, DataBlock.Type.ROW))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"group", "arg", "sum"}, new ColumnDataType[]{INT, INT, DOUBLE});
+    List<Integer> keys = List.of(0);
+    List<RexExpression.FunctionCall> aggCalls = List.of(getSum(new RexExpression.InputRef(1)));
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.WINDOW_HINT_OPTIONS,
+        Map.of(PinotHintOptions.WindowHintOptions.IS_INPUT_SORTED_BY_PARTITION_KEYS, "true",
+            PinotHintOptions.WindowHintOptions.MAX_ROWS_IN_WINDOW, Integer.toString(numRowsPerPartition))));
+    WindowAggregateOperator operator =
+        getOperator(inputSchema, resultSchema, keys, List.of(), aggCalls, WindowNode.WindowFrameType.RANGE,
+            Integer.MIN_VALUE, Integer.MAX_VALUE, nodeHint);
+
+    // Then:
+    // Each partition is emitted as soon as the next one starts, without waiting for the end of the input block
+    for (int group = 0; group < 3; group++) {
+      List<Object[]> resultRows = operator.nextBlock().getContainer();
+      assertEquals(resultRows.size(), numRowsPerPartition);
+      assertEquals(resultRows.get(0), new Object[]{group, 1, (double) numRowsPerPartition});
+    }
+    assertTrue(operator.nextBlock().isSuccessfulEndOfStreamBlock(), "Fourth block is EOS (done processing)");
+  }
+
+  @Test
+  public void testShouldApplyWindowLimitPerPartitionWhenStreaming() {
+    // Given:
+    DataSchema inputSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, INT});
+    when(_input.nextBlock()).thenReturn(
+            OperatorTestUtil.block(inputSchema, new Object[]{1, 1}, new Object[]{2, 2}, new Object[]{3, 3}))
+        .thenReturn(OperatorTestUtil.block(inputSchema, new Object[]{4, 4}, new Object[]{4, 5}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"group", "arg", "sum"}, new ColumnDataType[]{INT, INT, DOUBLE});
+    List<Integer> keys = List.of(0);
+    List<RexExpression.FunctionCall> aggCalls = List.of(getSum(new RexExpression.InputRef(1)));
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.WINDOW_HINT_OPTIONS,
+        Map.of(PinotHintOptions.WindowHintOptions.IS_INPUT_SORTED_BY_PARTITION_KEYS, "true",
+            PinotHintOptions.WindowHintOptions.WINDOW_OVERFLOW_MODE, "THROW",
+            PinotHintOptions.WindowHintOptions.MAX_ROWS_IN_WINDOW, "1")));
+    WindowAggregateOperator operator =
+        getOperator(inputSchema, resultSchema, keys, List.of(), aggCalls, WindowNode.WindowFrameType.RANGE,
+            Integer.MIN_VALUE, Integer.MAX_VALUE, nodeHint);
+
+    // When:
+    List<Object[]> resultRows = operator.nextBlock().getContainer();
+    TransferableBlock block = operator.nextBlock();
+
+    // Then:
+    // The total number of rows exceeds the limit, but only the last partition has more rows than the limit
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{1, 1, 1.0});
+    assertEquals(resultRows.get(1), new Object[]{2, 2, 2.0});
+    assertTrue(block.isErrorBlock(), "expected ERROR block from window overflow");
+    assertTrue(block.getExceptions().get(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE)
+        .contains("reach number of rows limit"));
+  }
+
   @Test
   public void testLeadLagWindowFunction() {
     // Given:
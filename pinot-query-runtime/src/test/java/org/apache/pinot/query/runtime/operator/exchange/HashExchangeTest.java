@@ -20,13 +20,19 @@ package org.apache.pinot.query.runtime.operator.exchange;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
+import org.apache.pinot.query.planner.partitioning.KeySelectorFactory;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.operator.MailboxSendOperator;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -83,6 +89,154 @@ public class HashExchangeTest {
     Assert.assertEquals(captor.getValue().getContainer().get(0), new Object[]{2});
   }
 
+  @Test
+  public void shouldSplitHotKeyAcrossReceivers()
+      throws Exception {
+    // Given:
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 4000; i++) {
+      rows.add(new Object[]{i % 10 == 0 ? i : 1});
+    }
+    Mockito.when(_block.getContainer()).thenReturn(rows);
+    SendingMailbox mailbox3 = Mockito.mock(SendingMailbox.class);
+    ImmutableList<SendingMailbox> destinations = ImmutableList.of(_mailbox1, _mailbox2, mailbox3);
+    KeySelector<?> selector = KeySelectorFactory.getKeySelector(List.of(0));
+    int hotMailboxId = selector.computeHash(new Object[]{1}) % destinations.size();
+    StatMap<MailboxSendOperator.StatKey> statMap = new StatMap<>(MailboxSendOperator.StatKey.class);
+
+    // When:
+    new HashExchange(destinations, selector, TransferableBlockUtils::splitBlock, 2, false, Set.of(1),
+        statMap).route(destinations, _block);
+
+    // Then:
+    int[] numHotKeyRows = new int[destinations.size()];
+    int numRows = 0;
+    for (int i = 0; i < destinations.size(); i++) {
+      for (Object[] row : getSentRows(destinations.get(i))) {
+        numRows++;
+        if ((int) row[0] == 1) {
+          numHotKeyRows[i]++;
+        } else {
+          Assert.assertEquals(selector.computeHash(row) % destinations.size(), i);
+        }
+      }
+    }
+    Assert.assertEquals(numRows, rows.size());
+    Assert.assertEquals(numHotKeyRows[hotMailboxId], 1800);
+    Assert.assertEquals(numHotKeyRows[(hotMailboxId + 1) % 3], 1800);
+    Assert.assertEquals(numHotKeyRows[(hotMailboxId + 2) % 3], 0);
+    Assert.assertEquals(statMap.getLong(MailboxSendOperator.StatKey.SKEW_SPLIT_ROWS), 3600L);
+  }
+
+  @Test
+  public void shouldOnlyReplicateHotKeyRowsToSplitReceivers()
+      throws Exception {
+    // Given:
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rows.add(new Object[]{i});
+    }
+    Mockito.when(_block.getContainer()).thenReturn(rows);
+    SendingMailbox mailbox3 = Mockito.mock(SendingMailbox.class);
+    ImmutableList<SendingMailbox> destinations = ImmutableList.of(_mailbox1, _mailbox2, mailbox3);
+    KeySelector<?> selector = KeySelectorFactory.getKeySelector(List.of(0));
+    StatMap<MailboxSendOperator.StatKey> statMap = new StatMap<>(MailboxSendOperator.StatKey.class);
+
+    // When:
+    new HashExchange(destinations, selector, TransferableBlockUtils::splitBlock, 2, true, Set.of(1, 2),
+        statMap).route(destinations, _block);
+
+    // Then:
+    int numRows = 0;
+    for (int i = 0; i < destinations.size(); i++) {
+      for (Object[] row : getSentRows(destinations.get(i))) {
+        numRows++;
+        int key = (int) row[0];
+        int mailboxId = selector.computeHash(row) % destinations.size();
+        if (key == 1 || key == 2) {
+          // Hot keys are replicated to the hash receiver and the next one
+          Assert.assertTrue(i == mailboxId || i == (mailboxId + 1) % 3, "Unexpected receiver for hot key: " + key);
+        } else {
+          // The other keys are only sent to the hash receiver
+          Assert.assertEquals(i, mailboxId, "Unexpected receiver for key: " + key);
+        }
+      }
+    }
+    Assert.assertEquals(numRows, rows.size() + 2);
+    Assert.assertEquals(statMap.getLong(MailboxSendOperator.StatKey.SKEW_SPLIT_ROWS), 2L);
+  }
+
+  @Test
+  public void shouldDetectAndSplitHotKeyWithoutGivenHotKeys()
+      throws Exception {
+    // Given:
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 4000; i++) {
+      rows.add(new Object[]{i % 10 == 0 ? i : 1});
+    }
+    Mockito.when(_block.getContainer()).thenReturn(rows);
+    SendingMailbox mailbox3 = Mockito.mock(SendingMailbox.class);
+    ImmutableList<SendingMailbox> destinations = ImmutableList.of(_mailbox1, _mailbox2, mailbox3);
+    KeySelector<?> selector = KeySelectorFactory.getKeySelector(List.of(0));
+    int hotMailboxId = selector.computeHash(new Object[]{1}) % destinations.size();
+    StatMap<MailboxSendOperator.StatKey> statMap = new StatMap<>(MailboxSendOperator.StatKey.class);
+
+    // When:
+    new HashExchange(destinations, selector, TransferableBlockUtils::splitBlock, 2, false, Set.of(),
+        statMap).route(destinations, _block);
+
+    // Then:
+    int[] numHotKeyRows = new int[destinations.size()];
+    int numRows = 0;
+    for (int i = 0; i < destinations.size(); i++) {
+      for (Object[] row : getSentRows(destinations.get(i))) {
+        numRows++;
+        if ((int) row[0] == 1) {
+          numHotKeyRows[i]++;
+        } else {
+          Assert.assertEquals(selector.computeHash(row) % destinations.size(), i);
+        }
+      }
+    }
+    Assert.assertEquals(numRows, rows.size());
+    Assert.assertTrue(numHotKeyRows[hotMailboxId] > 0);
+    Assert.assertTrue(numHotKeyRows[(hotMailboxId + 1) % 3] > 0);
+    Assert.assertEquals(numHotKeyRows[(hotMailboxId + 2) % 3], 0);
+    Assert.assertEquals(statMap.getInt(MailboxSendOperator.StatKey.HOT_KEYS), 1);
+    Assert.assertTrue(statMap.getLong(MailboxSendOperator.StatKey.SKEW_SPLIT_ROWS) > 0);
+  }
+
+  @Test
+  public void shouldReplicateEveryRowWithoutGivenHotKeys()
+      throws Exception {
+    // Given:
+    Mockito.when(_block.getContainer()).thenReturn(ImmutableList.of(new Object[]{1}));
+    SendingMailbox mailbox3 = Mockito.mock(SendingMailbox.class);
+    ImmutableList<SendingMailbox> destinations = ImmutableList.of(_mailbox1, _mailbox2, mailbox3);
+    KeySelector<?> selector = KeySelectorFactory.getKeySelector(List.of(0));
+    int mailboxId = selector.computeHash(new Object[]{1}) % destinations.size();
+
+    // When:
+    new HashExchange(destinations, selector, TransferableBlockUtils::splitBlock, 2, true, Set.of(),
+        null).route(destinations, _block);
+
+    // Then:
+    Assert.assertEquals(getSentRows(destinations.get(mailboxId)).size(), 1);
+    Assert.assertEquals(getSentRows(destinations.get((mailboxId + 1) % 3)).size(), 1);
+    Assert.assertEquals(getSentRows(destinations.get((mailboxId + 2) % 3)).size(), 0);
+  }
+
+  private static List<Object[]> getSentRows(SendingMailbox mailbox)
+      throws Exception {
+    ArgumentCaptor<TransferableBlock> captor = ArgumentCaptor.forClass(TransferableBlock.class);
+    Mockito.verify(mailbox, Mockito.atLeast(0)).send(captor.capture());
+    List<Object[]> rows = new ArrayList<>();
+    for (TransferableBlock block : captor.getAllValues()) {
+      rows.addAll(block.getContainer());
+    }
+    return rows;
+  }
+
   private static class TestSelector implements KeySelector<Object> {
     private final Iterator<Integer> _hashes;
 
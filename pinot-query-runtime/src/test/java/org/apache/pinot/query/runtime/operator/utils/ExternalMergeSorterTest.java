@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+
+public class ExternalMergeSorterTest {
+  private static final File SPILL_DIR = new File(FileUtils.getTempDirectory(), "ExternalMergeSorterTest");
+  private static final DataSchema DATA_SCHEMA =
+      new DataSchema(new String[]{"key", "value"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING});
+  private static final Comparator<Object[]> COMPARATOR = Comparator.comparingInt(row -> (int) row[0]);
+
+  @AfterMethod
+  public void tearDown() {
+    FileUtils.deleteQuietly(SPILL_DIR);
+  }
+
+  @Test
+  public void testSortInMemory()
+      throws Exception {
+    try (ExternalMergeSorter sorter = new ExternalMergeSorter(DATA_SCHEMA, COMPARATOR, 100, SPILL_DIR)) {
+      sorter.addRows(getShuffledRows(50));
+      assertSorted(sorter.sortedIterator(), 50);
+      assertEquals(sorter.getNumSpilledRuns(), 0);
+      assertEquals(sorter.getNumSpilledBytes(), 0);
+    }
+    assertFalse(SPILL_DIR.exists());
+  }
+
+  @Test
+  public void testSingleMergePass()
+      throws Exception {
+    try (ExternalMergeSorter sorter = new ExternalMergeSorter(DATA_SCHEMA, COMPARATOR, 10, SPILL_DIR, 3)) {
+      sorter.addRows(getShuffledRows(105));
+      assertSorted(sorter.sortedIterator(), 105);
+      assertEquals(sorter.getNumSpilledRuns(), 10);
+      assertEquals(sorter.getNumMergePasses(), 0);
+    }
+    assertEquals(SPILL_DIR.list().length, 0);
+  }
+
+  @Test
+  public void testMultipleMergePasses()
+      throws Exception {
+    // 10 runs with a fan-in of 3 (2 runs and the in-memory rows in the final merge): 10 -> 8 -> 6 -> 4 -> 2 runs
+    try (ExternalMergeSorter sorter = new ExternalMergeSorter(DATA_SCHEMA, COMPARATOR, 10, SPILL_DIR, 3, 3)) {
+      sorter.addRows(getShuffledRows(105));
+      assertSorted(sorter.sortedIterator(), 105);
+      assertEquals(sorter.getNumSpilledRuns(), 10);
+      assertEquals(sorter.getNumMergePasses(), 4);
+      // Only the runs of the final merge are left
+      assertEquals(SPILL_DIR.list().length, 2);
+    }
+    assertEquals(SPILL_DIR.list().length, 0);
+  }
+
+  private static List<Object[]> getShuffledRows(int numRows) {
+    List<Object[]> rows = new ArrayList<>(numRows);
+    for (int i = 0; i < numRows; i++) {
+      rows.add(new Object[]{i, "v" + i});
+    }
+    Collections.shuffle(rows, new Random(42));
+    return rows;
+  }
+
+  private static void assertSorted(Iterator<Object[]> iterator, int numRows) {
+    for (int i = 0; i < numRows; i++) {
+      assertEquals(iterator.next(), new Object[]{i, "v" + i});
+    }
+    assertFalse(iterator.hasNext());
+  }
+}
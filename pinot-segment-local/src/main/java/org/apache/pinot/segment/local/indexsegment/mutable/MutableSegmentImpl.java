@@ -55,7 +55,9 @@ import org.apache.pinot.segment.local.realtime.impl.dictionary.BaseOffHeapMutabl
 import org.apache.pinot.segment.local.realtime.impl.dictionary.SameValueMutableDictionary;
 import org.apache.pinot.segment.local.realtime.impl.forward.FixedByteMVMutableForwardIndex;
 import org.apache.pinot.segment.local.realtime.impl.forward.SameValueMutableForwardIndex;
+import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeRawValueInvertedIndex;
 import org.apache.pinot.segment.local.realtime.impl.nullvalue.MutableNullValueVector;
+import org.apache.pinot.segment.local.realtime.impl.startree.MutableStarTreeIndex;
 import org.apache.pinot.segment.local.segment.index.datasource.ImmutableDataSource;
 import org.apache.pinot.segment.local.segment.index.datasource.MutableDataSource;
 import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexType;
@@ -65,6 +67,7 @@ import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
 import org.apache.pinot.segment.local.segment.virtualcolumn.VirtualColumnContext;
 import org.apache.pinot.segment.local.segment.virtualcolumn.VirtualColumnProvider;
 import org.apache.pinot.segment.local.segment.virtualcolumn.VirtualColumnProviderFactory;
+import org.apache.pinot.segment.local.startree.v2.builder.StarTreeV2BuilderConfig;
 import org.apache.pinot.segment.local.upsert.ComparisonColumns;
 import org.apache.pinot.segment.local.upsert.PartitionUpsertMetadataManager;
 import org.apache.pinot.segment.local.upsert.RecordInfo;
@@ -87,6 +90,7 @@ import org.apache.pinot.segment.spi.index.mutable.MutableDictionary;
 import org.apache.pinot.segment.spi.index.mutable.MutableForwardIndex;
 import org.apache.pinot.segment.spi.index.mutable.MutableIndex;
 import org.apache.pinot.segment.spi.index.mutable.MutableInvertedIndex;
+import org.apache.pinot.segment.spi.index.mutable.MutableRawValueInvertedIndex;
 import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
 import org.apache.pinot.segment.spi.index.mutable.provider.MutableIndexContext;
 import org.apache.pinot.segment.spi.index.startree.StarTreeV2;
@@ -95,6 +99,7 @@ import org.apache.pinot.segment.spi.partition.PartitionFunction;
 import org.apache.pinot.spi.config.table.ColumnPartitionConfig;
 import org.apache.pinot.spi.config.table.IndexConfig;
 import org.apache.pinot.spi.config.table.SegmentPartitionConfig;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
 import org.apache.pinot.spi.config.table.UpsertConfig;
 import org.apache.pinot.spi.config.table.ingestion.AggregationConfig;
 import org.apache.pinot.spi.data.ComplexFieldSpec;
@@ -109,6 +114,7 @@ import org.apache.pinot.spi.stream.RowMetadata;
 import org.apache.pinot.spi.utils.BooleanUtils;
 import org.apache.pinot.spi.utils.ByteArray;
 import org.apache.pinot.spi.utils.FixedIntArray;
+import org.apache.pinot.spi.utils.JsonShreddingUtils;
 import org.apache.pinot.spi.utils.MapUtils;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.roaringbitmap.BatchIterator;
@@ -187,6 +193,9 @@ public class MutableSegmentImpl implements MutableSegment {
   private final ThreadSafeMutableRoaringBitmap _validDocIds;
   private final ThreadSafeMutableRoaringBitmap _queryableDocIds;
 
+  // Star-tree pre-aggregations maintained while consuming, empty if star-tree is not enabled for the consuming segment
+  private final List<MutableStarTreeIndex> _mutableStarTrees;
+
   public MutableSegmentImpl(RealtimeSegmentConfig config, @Nullable ServerMetrics serverMetrics) {
     _serverMetrics = serverMetrics;
     _realtimeTableName = config.getTableNameWithType();
@@ -424,9 +433,50 @@ public class MutableSegmentImpl implements MutableSegment {
       _upsertOutOfOrderRecordColumn = null;
       _upsertDropOutOfOrderRecord = false;
     }
+
+    _mutableStarTrees = createMutableStarTrees(config.getStarTreeIndexConfigs());
+  }
+
+  private List<MutableStarTreeIndex> createMutableStarTrees(@Nullable List<StarTreeIndexConfig> starTreeIndexConfigs) {
+    if (CollectionUtils.isEmpty(starTreeIndexConfigs)) {
+      return Collections.emptyList();
+    }
+    // NOTE: Star-tree cannot reflect the records invalidated by upsert
+    if (isUpsertEnabled()) {
+      _logger.warn("Skip creating star-tree for consuming segment of upsert table");
+      return Collections.emptyList();
+    }
+    // NOTE: Star-tree counts the ingested rows, which diverges from the documents merged by metrics aggregation
+    if (isAggregateMetricsEnabled()) {
+      _logger.warn("Skip creating star-tree for consuming segment with metrics aggregation");
+      return Collections.emptyList();
+    }
+    Map<String, FieldSpec> fieldSpecMap = new HashMap<>();
+    Map<String, MutableDictionary> dictionaryMap = new HashMap<>();
+    for (Map.Entry<String, IndexContainer> entry : _indexContainerMap.entrySet()) {
+      IndexContainer indexContainer = entry.getValue();
+      fieldSpecMap.put(entry.getKey(), indexContainer._fieldSpec);
+      if (indexContainer._dictionary != null) {
+        dictionaryMap.put(entry.getKey(), indexContainer._dictionary);
+      }
+    }
+    List<MutableStarTreeIndex> mutableStarTrees = new ArrayList<>(starTreeIndexConfigs.size());
+    for (StarTreeIndexConfig starTreeIndexConfig : starTreeIndexConfigs) {
+      MutableStarTreeIndex mutableStarTree =
+          MutableStarTreeIndex.create(StarTreeV2BuilderConfig.fromIndexConfig(starTreeIndexConfig), fieldSpecMap,
+              dictionaryMap, _capacity);
+      if (mutableStarTree != null) {
+        mutableStarTrees.add(mutableStarTree);
+      }
+    }
+    return mutableStarTrees;
   }
 
   private boolean isNullable(FieldSpec fieldSpec) {
+    // Shredded JSON columns always track the missing JSON paths so that queries can tell them apart from the values
+    if (JsonShreddingUtils.isShreddedColumn(fieldSpec.getName())) {
+      return true;
+    }
     return _schema.isEnableColumnBasedNullHandling() ? fieldSpec.isNullable() : _defaultNullHandlingEnabled;
   }
 
@@ -472,9 +522,11 @@ public class MutableSegmentImpl implements MutableSegment {
       return false;
     }
     // So don't create dictionary if the column (1) is member of noDictionary, and (2) is single-value or multi-value
-    // with a fixed-width field, and (3) doesn't have an inverted index
-    return (fieldSpec.isSingleValueField() || fieldSpec.getDataType().isFixedWidth()) && indexConfigs.getConfig(
-        StandardIndexes.inverted()).isDisabled();
+    // with a fixed-width field, and (3) doesn't have an inverted index, or has an inverted index that can be served by
+    // the raw value inverted index
+    return (fieldSpec.isSingleValueField() || dataType.isFixedWidth()) && (
+        indexConfigs.getConfig(StandardIndexes.inverted()).isDisabled()
+            || RealtimeRawValueInvertedIndex.isSupported(dataType.getStoredType()));
   }
 
   public SegmentPartitionConfig getSegmentPartitionConfig() {
@@ -586,6 +638,12 @@ public class MutableSegmentImpl implements MutableSegment {
         canTakeMore = true;
       }
       _numDocsIndexed = numDocsIndexed;
+
+      // Aggregate the row into the star-trees with the dictionary ids of the row only after the row is committed, so
+      // that the star-trees never contain a row that failed to be indexed
+      for (MutableStarTreeIndex mutableStarTree : _mutableStarTrees) {
+        mutableStarTree.index(row, column -> _indexContainerMap.get(column)._dictId);
+      }
     }
 
     // Update last indexed time and latest ingestion time
@@ -990,7 +1048,17 @@ public class MutableSegmentImpl implements MutableSegment {
 
   @Override
   public List<StarTreeV2> getStarTrees() {
-    return null;
+    if (_mutableStarTrees.isEmpty()) {
+      return null;
+    }
+    List<StarTreeV2> starTrees = new ArrayList<>(_mutableStarTrees.size());
+    for (MutableStarTreeIndex mutableStarTree : _mutableStarTrees) {
+      StarTreeV2 starTree = mutableStarTree.getStarTreeV2();
+      if (starTree != null) {
+        starTrees.add(starTree);
+      }
+    }
+    return starTrees.isEmpty() ? null : starTrees;
   }
 
   @Nullable
@@ -1083,6 +1151,17 @@ public class MutableSegmentImpl implements MutableSegment {
       }
     }
 
+    // Report the heap usage of the raw value inverted indexes, which are capped (see RealtimeRawValueInvertedIndex)
+    for (Map.Entry<String, IndexContainer> entry : _indexContainerMap.entrySet()) {
+      MutableIndex invertedIndex = entry.getValue()._mutableIndexes.get(StandardIndexes.inverted());
+      if (invertedIndex instanceof MutableRawValueInvertedIndex) {
+        MutableRawValueInvertedIndex rawValueInvertedIndex = (MutableRawValueInvertedIndex) invertedIndex;
+        _logger.info("Raw value inverted index of column: {} used {} bytes of heap for {} values, full: {}",
+            entry.getKey(), rawValueInvertedIndex.getEstimatedMemoryBytes(), rawValueInvertedIndex.getNumValues(),
+            rawValueInvertedIndex.isFull());
+      }
+    }
+
     // Close the indexes
     for (IndexContainer indexContainer : _indexContainerMap.values()) {
       indexContainer.close();
@@ -0,0 +1,278 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.util;
+
+import java.util.Arrays;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * The value reader for front-coded sorted var-length values (STRING and BYTES). See {@link FrontCodedValueWriter} for
+ * the file layout.
+ * <p>Decoding a value requires decoding all the values before it within the same bucket, so besides the
+ * {@link ValueReader} methods, this reader provides binary search and bulk read methods that decode each bucket at
+ * most once.
+ */
+public class FrontCodedValueReader implements ValueReader {
+  private final PinotDataBuffer _dataBuffer;
+  private final int _numValues;
+  private final int _bucketSize;
+  private final int _maxLength;
+  private final int _numBuckets;
+  private final int _dataSectionStartOffset;
+
+  public FrontCodedValueReader(PinotDataBuffer dataBuffer) {
+    _dataBuffer = dataBuffer;
+    _numValues = dataBuffer.getInt(FrontCodedValueWriter.NUM_VALUES_OFFSET);
+    _bucketSize = dataBuffer.getInt(FrontCodedValueWriter.BUCKET_SIZE_OFFSET);
+    _maxLength = dataBuffer.getInt(FrontCodedValueWriter.MAX_LENGTH_OFFSET);
+    _numBuckets = (_numValues + _bucketSize - 1) / _bucketSize;
+    _dataSectionStartOffset = dataBuffer.getInt(FrontCodedValueWriter.DATA_SECTION_OFFSET_POSITION);
+  }
+
+  public static boolean isFrontCodedValueBuffer(PinotDataBuffer buffer) {
+    // If the buffer is smaller than header size + one bucket offset, it's not a front-coded dictionary.
+    if (buffer.size() < FrontCodedValueWriter.HEADER_LENGTH + Integer.BYTES) {
+      return false;
+    }
+    byte[] magicBytes = FrontCodedValueWriter.MAGIC_BYTES;
+    int length = magicBytes.length;
+    for (int i = 0; i < length; i++) {
+      if (buffer.getByte(i) != magicBytes[i]) {
+        return false;
+      }
+    }
+    return buffer.getInt(FrontCodedValueWriter.VERSION_OFFSET) == FrontCodedValueWriter.VERSION;
+  }
+
+  public int getNumValues() {
+    return _numValues;
+  }
+
+  public int getBucketSize() {
+    return _bucketSize;
+  }
+
+  @Override
+  public int getInt(int index) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public long getLong(int index) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public float getFloat(int index) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public double getDouble(int index) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public byte[] getUnpaddedBytes(int index, int numBytesPerValue, byte[] buffer) {
+    return getBytes(index, numBytesPerValue);
+  }
+
+  @Override
+  public String getUnpaddedString(int index, int numBytesPerValue, byte[] buffer) {
+    Decoder decoder = new Decoder(buffer);
+    decoder.seek(index);
+    return new String(decoder._buffer, 0, decoder._length, UTF_8);
+  }
+
+  @Override
+  public String getPaddedString(int index, int numBytesPerValue, byte[] buffer) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public byte[] getBytes(int index, int numBytesPerValue) {
+    Decoder decoder = new Decoder(null);
+    decoder.seek(index);
+    return Arrays.copyOf(decoder._buffer, decoder._length);
+  }
+
+  @Override
+  public int compareUtf8Bytes(int index, int numBytesPerValue, byte[] bytes) {
+    Decoder decoder = new Decoder(null);
+    decoder.seek(index);
+    return ValueReaderComparisons.compareUtf8Bytes(decoder._buffer, decoder._length, bytes);
+  }
+
+  @Override
+  public int compareBytes(int index, int numBytesPerValue, byte[] bytes) {
+    Decoder decoder = new Decoder(null);
+    decoder.seek(index);
+    return ValueReaderComparisons.compareBytes(decoder._buffer, decoder._length, bytes);
+  }
+
+  /**
+   * Reads the values at the given indexes as strings. Consecutive indexes within the same bucket are decoded
+   * incrementally, so reading sorted indexes decodes each bucket only once.
+   */
+  public void readUnpaddedStrings(int[] indexes, int length, String[] outValues) {
+    Decoder decoder = new Decoder(null);
+    for (int i = 0; i < length; i++) {
+      decoder.seek(indexes[i]);
+      outValues[i] = new String(decoder._buffer, 0, decoder._length, UTF_8);
+    }
+  }
+
+  /**
+   * Reads the values at the given indexes as bytes. Consecutive indexes within the same bucket are decoded
+   * incrementally, so reading sorted indexes decodes each bucket only once.
+   */
+  public void readBytes(int[] indexes, int length, byte[][] outValues) {
+    Decoder decoder = new Decoder(null);
+    for (int i = 0; i < length; i++) {
+      decoder.seek(indexes[i]);
+      outValues[i] = Arrays.copyOf(decoder._buffer, decoder._length);
+    }
+  }
+
+  /**
+   * Returns the index of the given UTF-8 encoded value if it exists, or {@code -(insertionIndex + 1)} otherwise, where
+   * the values are compared with the same ordering as {@link String#compareTo(String)}.
+   */
+  public int binarySearchUtf8(byte[] value) {
+    return binarySearch(value, true);
+  }
+
+  /**
+   * Returns the index of the given bytes value if it exists, or {@code -(insertionIndex + 1)} otherwise.
+   */
+  public int binarySearchBytes(byte[] value) {
+    return binarySearch(value, false);
+  }
+
+  private int binarySearch(byte[] value, boolean utf8) {
+    Decoder decoder = new Decoder(null);
+
+    // Binary search the first values of the buckets, which are stored verbatim
+    int low = 0;
+    int high = _numBuckets - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      decoder._offset = getBucketOffset(mid);
+      int length = decoder.readVarInt();
+      int compareResult =
+          utf8 ? ValueReaderComparisons.compareUtf8Bytes(_dataBuffer, decoder._offset, length, false, value)
+              : ValueReaderComparisons.compareBytes(_dataBuffer, decoder._offset, length, value);
+      if (compareResult < 0) {
+        low = mid + 1;
+      } else if (compareResult > 0) {
+        high = mid - 1;
+      } else {
+        return mid * _bucketSize;
+      }
+    }
+    if (high < 0) {
+      return -1;
+    }
+
+    // Scan the bucket whose first value is smaller than the value
+    decoder.seekToBucket(high);
+    int endIndex = Math.min((high + 1) * _bucketSize, _numValues);
+    while (decoder._index + 1 < endIndex) {
+      decoder.next();
+      int compareResult = utf8 ? ValueReaderComparisons.compareUtf8Bytes(decoder._buffer, decoder._length, value)
+          : ValueReaderComparisons.compareBytes(decoder._buffer, decoder._length, value);
+      if (compareResult == 0) {
+        return decoder._index;
+      }
+      if (compareResult > 0) {
+        return -(decoder._index + 1);
+      }
+    }
+    return -(endIndex + 1);
+  }
+
+  private int getBucketOffset(int bucketId) {
+    return _dataBuffer.getInt(_dataSectionStartOffset + (long) bucketId * Integer.BYTES);
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+
+  /**
+   * Decodes the values of a bucket sequentially into a reusable buffer.
+   */
+  private final class Decoder {
+    final byte[] _buffer;
+    long _offset;
+    int _index = -1;
+    int _length;
+
+    Decoder(byte[] buffer) {
+      _buffer = buffer != null && buffer.length >= _maxLength ? buffer : new byte[_maxLength];
+    }
+
+    /**
+     * Positions the decoder on the value at the given index, reusing the current position when the value is after it
+     * within the same bucket.
+     */
+    void seek(int index) {
+      if (_index < 0 || index < _index || index / _bucketSize != _index / _bucketSize) {
+        seekToBucket(index / _bucketSize);
+      }
+      while (_index < index) {
+        next();
+      }
+    }
+
+    void seekToBucket(int bucketId) {
+      _offset = getBucketOffset(bucketId);
+      _length = readVarInt();
+      _dataBuffer.copyTo(_offset, _buffer, 0, _length);
+      _offset += _length;
+      _index = bucketId * _bucketSize;
+    }
+
+    void next() {
+      int prefixLength = readVarInt();
+      int suffixLength = readVarInt();
+      _dataBuffer.copyTo(_offset, _buffer, prefixLength, suffixLength);
+      _offset += suffixLength;
+      _length = prefixLength + suffixLength;
+      _index++;
+    }
+
+    int readVarInt() {
+      int value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = _dataBuffer.getByte(_offset++);
+        value |= (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      return value;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.util;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * The value writer for front-coded (prefix-compressed) sorted var-length values (STRING and BYTES).
+ *
+ * The values are grouped into buckets of {@code bucketSize} consecutive values. The first value of each bucket is
+ * stored verbatim, and each of the following values only stores the length of the prefix shared with the previous
+ * value and the remaining suffix. This shrinks the dictionary of high cardinality columns with shared prefixes (e.g.
+ * URLs, host names), and lookups only need to binary search the first values of the buckets, then scan one bucket.
+ *
+ * The layout of the file is as follows:
+ * <p>
+ * Header Section:
+ * <ul>
+ *   <li>Magic bytes: ".fc;", which cannot conflict with the fixed size or {@link VarLengthValueWriter} buffers</li>
+ *   <li>Version number</li>
+ *   <li>Number of values</li>
+ *   <li>Bucket size</li>
+ *   <li>Max length of the values, which bounds the buffer required to decode a value</li>
+ *   <li>The offset where the data section starts</li>
+ * </ul>
+ * <p>
+ * Data section:
+ * <ul>
+ *   <li>
+ *     Bucket offsets array: integer offsets of the start position of the buckets, with an extra offset at the end
+ *   </li>
+ *   <li>
+ *     Buckets: for the first value, the var-int encoded length followed by the bytes; for each of the following values,
+ *     the var-int encoded shared prefix length and suffix length followed by the suffix bytes
+ *   </li>
+ * </ul>
+ *
+ * @see FrontCodedValueReader
+ */
+public class FrontCodedValueWriter implements Closeable {
+  public static final int DEFAULT_BUCKET_SIZE = 16;
+
+  static final byte[] MAGIC_BYTES = ".fc;".getBytes(UTF_8);
+  static final int VERSION = 1;
+
+  // Offsets of different fields in the header
+  static final int VERSION_OFFSET = MAGIC_BYTES.length;
+  static final int NUM_VALUES_OFFSET = VERSION_OFFSET + Integer.BYTES;
+  static final int BUCKET_SIZE_OFFSET = NUM_VALUES_OFFSET + Integer.BYTES;
+  static final int MAX_LENGTH_OFFSET = BUCKET_SIZE_OFFSET + Integer.BYTES;
+  static final int DATA_SECTION_OFFSET_POSITION = MAX_LENGTH_OFFSET + Integer.BYTES;
+  static final int HEADER_LENGTH = DATA_SECTION_OFFSET_POSITION + Integer.BYTES;
+
+  private final File _outputFile;
+  private final int _numValues;
+  private final int _bucketSize;
+  private final int[] _bucketOffsets;
+  private final DataOutputStream _dataOutputStream;
+
+  private byte[] _previousValue = new byte[0];
+  private int _previousLength;
+  private int _maxLength;
+  private int _numValuesAdded;
+
+  public FrontCodedValueWriter(File outputFile, int numValues, int bucketSize)
+      throws IOException {
+    Preconditions.checkArgument(bucketSize > 0, "Bucket size must be positive, got: %s", bucketSize);
+    _outputFile = outputFile;
+    _numValues = numValues;
+    _bucketSize = bucketSize;
+    int numBuckets = (numValues + bucketSize - 1) / bucketSize;
+    _bucketOffsets = new int[numBuckets + 1];
+    _dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile)));
+
+    // Write the header, and reserve the space for the bucket offsets which are filled when closing the writer
+    _dataOutputStream.write(MAGIC_BYTES);
+    _dataOutputStream.writeInt(VERSION);
+    _dataOutputStream.writeInt(numValues);
+    _dataOutputStream.writeInt(bucketSize);
+    // Max length is filled when closing the writer
+    _dataOutputStream.writeInt(0);
+    _dataOutputStream.writeInt(HEADER_LENGTH);
+    _dataOutputStream.write(new byte[(numBuckets + 1) * Integer.BYTES]);
+  }
+
+  /**
+   * Adds the next value. The values must be added in sorted order.
+   */
+  public void add(byte[] value)
+      throws IOException {
+    Preconditions.checkState(_numValuesAdded < _numValues, "Cannot add more than %s values", _numValues);
+    int length = value.length;
+    if (_numValuesAdded % _bucketSize == 0) {
+      _bucketOffsets[_numValuesAdded / _bucketSize] = _dataOutputStream.size();
+      writeVarInt(length);
+      _dataOutputStream.write(value);
+    } else {
+      int prefixLength = Arrays.mismatch(_previousValue, 0, _previousLength, value, 0, length);
+      if (prefixLength < 0) {
+        prefixLength = length;
+      }
+      writeVarInt(prefixLength);
+      writeVarInt(length - prefixLength);
+      _dataOutputStream.write(value, prefixLength, length - prefixLength);
+    }
+    if (_previousValue.length < length) {
+      _previousValue = new byte[Math.max(length, _previousValue.length * 2)];
+    }
+    System.arraycopy(value, 0, _previousValue, 0, length);
+    _previousLength = length;
+    _maxLength = Math.max(_maxLength, length);
+    _numValuesAdded++;
+  }
+
+  private void writeVarInt(int value)
+      throws IOException {
+    while ((value & ~0x7F) != 0) {
+      _dataOutputStream.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    _dataOutputStream.writeByte(value);
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _dataOutputStream.close();
+    Preconditions.checkState(_numValuesAdded == _numValues, "Expected %s values, got: %s", _numValues,
+        _numValuesAdded);
+    // NOTE: DataOutputStream.size() saturates at Integer.MAX_VALUE
+    int fileLength = _dataOutputStream.size();
+    Preconditions.checkState(fileLength < Integer.MAX_VALUE, "Front-coded values exceed 2GB");
+    _bucketOffsets[_bucketOffsets.length - 1] = fileLength;
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(_outputFile, "rw")) {
+      randomAccessFile.seek(MAX_LENGTH_OFFSET);
+      randomAccessFile.writeInt(_maxLength);
+      randomAccessFile.seek(HEADER_LENGTH);
+      byte[] bucketOffsetBytes = new byte[_bucketOffsets.length * Integer.BYTES];
+      for (int i = 0; i < _bucketOffsets.length; i++) {
+        int offset = _bucketOffsets[i];
+        int position = i * Integer.BYTES;
+        bucketOffsetBytes[position] = (byte) (offset >>> 24);
+        bucketOffsetBytes[position + 1] = (byte) (offset >>> 16);
+        bucketOffsetBytes[position + 2] = (byte) (offset >>> 8);
+        bucketOffsetBytes[position + 3] = (byte) offset;
+      }
+      randomAccessFile.write(bucketOffsetBytes);
+    }
+  }
+}
@@ -20,8 +20,11 @@ package org.apache.pinot.segment.local.io.util;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 
 public class ValueReaderComparisons {
   private ValueReaderComparisons() {
@@ -83,6 +86,49 @@ public class ValueReaderComparisons {
     return compareUtf8(dataBuffer, startOffset, buffer, mismatchPosition);
   }
 
+  static int compareBytes(byte[] ours, int ourLength, byte[] theirs) {
+    return Arrays.compareUnsigned(ours, 0, ourLength, theirs, 0, theirs.length);
+  }
+
+  /**
+   * Compares the first {@code ourLength} bytes of {@code ours} with {@code theirs}, both UTF-8 encoded, with the same
+   * ordering as {@link String#compareTo(String)}.
+   */
+  static int compareUtf8Bytes(byte[] ours, int ourLength, byte[] theirs) {
+    int mismatchPosition = Arrays.mismatch(ours, 0, ourLength, theirs, 0, theirs.length);
+    if (mismatchPosition == -1) {
+      return 0;
+    }
+    if (mismatchPosition == ourLength || mismatchPosition == theirs.length) {
+      return ourLength - theirs.length;
+    }
+    byte ourByte = ours[mismatchPosition];
+    byte theirByte = theirs[mismatchPosition];
+    if (ourByte >= 0 && theirByte >= 0) {
+      return ourByte - theirByte;
+    }
+    // Decode the characters where the mismatch lies to respect collation rules
+    while (mismatchPosition > 0 && isUtf8Continuation(theirs[mismatchPosition])) {
+      mismatchPosition--;
+    }
+    String ourChar = new String(ours, mismatchPosition,
+        Math.min(getUtf8SequenceLength(ours[mismatchPosition]), ourLength - mismatchPosition), UTF_8);
+    String theirChar = new String(theirs, mismatchPosition,
+        Math.min(getUtf8SequenceLength(theirs[mismatchPosition]), theirs.length - mismatchPosition), UTF_8);
+    return ourChar.compareTo(theirChar);
+  }
+
+  private static int getUtf8SequenceLength(byte first) {
+    if (first >= 0) {
+      return 1;
+    }
+    int control = first & 0xF0;
+    if (control < 0xE0) {
+      return 2;
+    }
+    return control == 0xE0 ? 3 : 4;
+  }
+
   private static int compareUtf8(PinotDataBuffer ourBuffer, long ourStartOffset, ByteBuffer theirBuffer,
       int mismatchPosition) {
     char ours1 = '\ufffd';
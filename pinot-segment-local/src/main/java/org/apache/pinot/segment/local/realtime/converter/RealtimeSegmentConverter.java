@@ -19,6 +19,7 @@
 package org.apache.pinot.segment.local.realtime.converter;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -32,6 +33,7 @@ import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationD
 import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
 import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
 import org.apache.pinot.segment.spi.creator.SegmentVersion;
+import org.apache.pinot.segment.spi.creator.SharedDictionary;
 import org.apache.pinot.spi.config.table.ColumnPartitionConfig;
 import org.apache.pinot.spi.config.table.SegmentPartitionConfig;
 import org.apache.pinot.spi.config.table.SegmentZKPropsConfig;
@@ -50,10 +52,18 @@ public class RealtimeSegmentConverter {
   private final String _segmentName;
   private final boolean _nullHandlingEnabled;
   private final boolean _enableColumnMajor;
+  private final Map<String, SharedDictionary> _sharedDictionaries;
 
   public RealtimeSegmentConverter(MutableSegmentImpl realtimeSegment, SegmentZKPropsConfig segmentZKPropsConfig,
       String outputPath, Schema schema, String tableName, TableConfig tableConfig, String segmentName,
       boolean nullHandlingEnabled) {
+    this(realtimeSegment, segmentZKPropsConfig, outputPath, schema, tableName, tableConfig, segmentName,
+        nullHandlingEnabled, Collections.emptyMap());
+  }
+
+  public RealtimeSegmentConverter(MutableSegmentImpl realtimeSegment, SegmentZKPropsConfig segmentZKPropsConfig,
+      String outputPath, Schema schema, String tableName, TableConfig tableConfig, String segmentName,
+      boolean nullHandlingEnabled, Map<String, SharedDictionary> sharedDictionaries) {
     _realtimeSegmentImpl = realtimeSegment;
     _segmentZKPropsConfig = segmentZKPropsConfig;
     _outputPath = outputPath;
@@ -69,6 +79,7 @@ public class RealtimeSegmentConverter {
     } else {
       _enableColumnMajor = _tableConfig.getIndexingConfig().isColumnMajorSegmentBuilderEnabled();
     }
+    _sharedDictionaries = sharedDictionaries;
   }
 
   public void build(@Nullable SegmentVersion segmentVersion, ServerMetrics serverMetrics)
@@ -92,6 +103,7 @@ public class RealtimeSegmentConverter {
     genConfig.setSegmentPartitionConfig(segmentPartitionConfig);
     genConfig.setDefaultNullHandlingEnabled(_nullHandlingEnabled);
     genConfig.setSegmentZKPropsConfig(_segmentZKPropsConfig);
+    genConfig.setSharedDictionaries(_sharedDictionaries);
 
     // flush any artifacts to disk to improve mutable to immutable segment conversion
     _realtimeSegmentImpl.commit();
@@ -21,6 +21,7 @@ package org.apache.pinot.segment.local.realtime.converter.stats;
 import com.google.common.base.Preconditions;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.pinot.segment.local.realtime.impl.forward.CLPMutableForwardIndex;
 import org.apache.pinot.segment.local.realtime.impl.forward.CLPMutableForwardIndexV2;
 import org.apache.pinot.segment.local.segment.creator.impl.stats.CLPStatsProvider;
@@ -28,6 +29,8 @@ import org.apache.pinot.segment.spi.creator.ColumnStatistics;
 import org.apache.pinot.segment.spi.datasource.DataSource;
 import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
 import org.apache.pinot.segment.spi.index.mutable.MutableForwardIndex;
+import org.apache.pinot.segment.spi.index.mutable.MutableRawValueInvertedIndex;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
 import org.apache.pinot.segment.spi.partition.PartitionFunction;
 
 import static org.apache.pinot.segment.spi.Constants.UNKNOWN_CARDINALITY;
@@ -36,12 +39,23 @@ import static org.apache.pinot.segment.spi.Constants.UNKNOWN_CARDINALITY;
 public class MutableNoDictionaryColStatistics implements ColumnStatistics, CLPStatsProvider {
   private final DataSourceMetadata _dataSourceMetadata;
   private final MutableForwardIndex _forwardIndex;
+  // NOTE: The raw value inverted index tracks the unique values of the column, which are required to build the raw
+  //       value inverted index of the immutable segment. They are incomplete once the index becomes full.
+  @Nullable
+  private final MutableRawValueInvertedIndex _rawValueInvertedIndex;
 
   public MutableNoDictionaryColStatistics(DataSource dataSource) {
     _dataSourceMetadata = dataSource.getDataSourceMetadata();
     _forwardIndex = (MutableForwardIndex) dataSource.getForwardIndex();
     Preconditions.checkState(_forwardIndex != null,
         String.format("Forward index should not be null for column: %s", _dataSourceMetadata.getFieldSpec().getName()));
+    InvertedIndexReader<?> invertedIndex = dataSource.getInvertedIndex();
+    if (invertedIndex instanceof MutableRawValueInvertedIndex && !((MutableRawValueInvertedIndex) invertedIndex)
+        .isFull()) {
+      _rawValueInvertedIndex = (MutableRawValueInvertedIndex) invertedIndex;
+    } else {
+      _rawValueInvertedIndex = null;
+    }
   }
 
   @Override
@@ -56,12 +70,12 @@ public class MutableNoDictionaryColStatistics implements ColumnStatistics, CLPSt
 
   @Override
   public Object getUniqueValuesSet() {
-    return null;
+    return _rawValueInvertedIndex != null ? _rawValueInvertedIndex.getSortedValues() : null;
   }
 
   @Override
   public int getCardinality() {
-    return UNKNOWN_CARDINALITY;
+    return _rawValueInvertedIndex != null ? _rawValueInvertedIndex.getNumValues() : UNKNOWN_CARDINALITY;
   }
 
   @Override
@@ -81,7 +95,7 @@ public class MutableNoDictionaryColStatistics implements ColumnStatistics, CLPSt
 
   @Override
   public int getTotalNumberOfEntries() {
-    return _dataSourceMetadata.getNumDocs();
+    return _dataSourceMetadata.getNumValues();
   }
 
   @Override
@@ -37,6 +37,7 @@ import org.apache.pinot.segment.spi.memory.PinotDataBufferMemoryManager;
 import org.apache.pinot.segment.spi.partition.PartitionFunction;
 import org.apache.pinot.spi.config.table.FieldConfig;
 import org.apache.pinot.spi.config.table.IndexConfig;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.UpsertConfig;
 import org.apache.pinot.spi.config.table.ingestion.AggregationConfig;
@@ -73,6 +74,7 @@ public class RealtimeSegmentConfig {
   private final String _consumerDir;
   private final List<FieldConfig> _fieldConfigList;
   private final List<AggregationConfig> _ingestionAggregationConfigs;
+  private final List<StarTreeIndexConfig> _starTreeIndexConfigs;
 
   // TODO: Clean up this constructor. Most of these things can be extracted from tableConfig.
 
@@ -89,7 +91,8 @@ public class RealtimeSegmentConfig {
       List<String> upsertComparisonColumns, String upsertDeleteRecordColumn, String upsertOutOfOrderRecordColumn,
       boolean upsertDropOutOfOrderRecord, PartitionUpsertMetadataManager partitionUpsertMetadataManager,
       String dedupTimeColumn, PartitionDedupMetadataManager partitionDedupMetadataManager,
-      List<FieldConfig> fieldConfigList, List<AggregationConfig> ingestionAggregationConfigs) {
+      List<FieldConfig> fieldConfigList, List<AggregationConfig> ingestionAggregationConfigs,
+      List<StarTreeIndexConfig> starTreeIndexConfigs) {
     _tableNameWithType = tableNameWithType;
     _segmentName = segmentName;
     _streamName = streamName;
@@ -119,6 +122,7 @@ public class RealtimeSegmentConfig {
     _partitionDedupMetadataManager = partitionDedupMetadataManager;
     _fieldConfigList = fieldConfigList;
     _ingestionAggregationConfigs = ingestionAggregationConfigs;
+    _starTreeIndexConfigs = starTreeIndexConfigs;
   }
 
   public String getTableNameWithType() {
@@ -241,6 +245,15 @@ public class RealtimeSegmentConfig {
     return _ingestionAggregationConfigs;
   }
 
+  /**
+   * Returns the star-tree configs to be maintained in memory for the consuming segment, or {@code null} if star-tree is
+   * not enabled for the consuming segment.
+   */
+  @Nullable
+  public List<StarTreeIndexConfig> getStarTreeIndexConfigs() {
+    return _starTreeIndexConfigs;
+  }
+
   public static class Builder {
     private String _tableNameWithType;
     private String _segmentName;
@@ -275,6 +288,7 @@ public class RealtimeSegmentConfig {
     private PartitionDedupMetadataManager _partitionDedupMetadataManager;
     private List<FieldConfig> _fieldConfigList;
     private List<AggregationConfig> _ingestionAggregationConfigs;
+    private List<StarTreeIndexConfig> _starTreeIndexConfigs;
 
     public Builder() {
       _indexConfigByCol = new HashMap<>();
@@ -475,6 +489,11 @@ public class RealtimeSegmentConfig {
       return this;
     }
 
+    public Builder setStarTreeIndexConfigs(List<StarTreeIndexConfig> starTreeIndexConfigs) {
+      _starTreeIndexConfigs = starTreeIndexConfigs;
+      return this;
+    }
+
     public RealtimeSegmentConfig build() {
       Map<String, FieldIndexConfigs> indexConfigByCol = Maps.newHashMapWithExpectedSize(_indexConfigByCol.size());
       for (Map.Entry<String, FieldIndexConfigs.Builder> entry : _indexConfigByCol.entrySet()) {
@@ -487,7 +506,7 @@ public class RealtimeSegmentConfig {
           _defaultNullHandlingEnabled, _consumerDir, _upsertMode, _upsertConsistencyMode, _upsertComparisonColumns,
           _upsertDeleteRecordColumn, _upsertOutOfOrderRecordColumn, _upsertDropOutOfOrderRecord,
           _partitionUpsertMetadataManager, _dedupTimeColumn, _partitionDedupMetadataManager, _fieldConfigList,
-          _ingestionAggregationConfigs);
+          _ingestionAggregationConfigs, _starTreeIndexConfigs);
     }
   }
 }
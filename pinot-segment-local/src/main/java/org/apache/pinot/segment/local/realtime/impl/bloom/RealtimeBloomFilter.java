@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.bloom;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.local.segment.index.readers.bloom.GuavaBloomFilterReaderUtils;
+import org.apache.pinot.segment.spi.index.mutable.MutableIndex;
+import org.apache.pinot.segment.spi.index.reader.BloomFilterReader;
+import org.apache.pinot.spi.utils.BytesUtils;
+
+
+/**
+ * Real-time bloom filter which allows adding values on the fly.
+ * <p>Values are converted to string and hashed the same way as the bloom filter creator and readers (see
+ * {@link GuavaBloomFilterReaderUtils}), so that the consuming segments can be pruned by the same segment pruner as
+ * the committed segments. The bloom filter is sized upfront with the expected number of insertions, and the false
+ * positive probability grows if more values are added.
+ * <p>This class is thread-safe for single writer multiple readers.
+ */
+public class RealtimeBloomFilter implements BloomFilterReader, MutableIndex {
+  private static final double LN_2 = Math.log(2);
+
+  private final AtomicLongArray _data;
+  private final long _numBits;
+  private final int _numHashFunctions;
+
+  public RealtimeBloomFilter(int expectedInsertions, double fpp) {
+    Preconditions.checkArgument(fpp > 0 && fpp < 1, "Invalid fpp: %s", fpp);
+    int numInsertions = Math.max(expectedInsertions, 1);
+    // See GuavaBloomFilterReaderUtils for the formulas
+    long numBits = Math.max((long) (-numInsertions * Math.log(fpp) / (LN_2 * LN_2)), Long.SIZE);
+    _data = new AtomicLongArray(Math.toIntExact((numBits + Long.SIZE - 1) / Long.SIZE));
+    _numBits = (long) _data.length() * Long.SIZE;
+    _numHashFunctions = Math.max(1, (int) Math.round((double) numBits / numInsertions * LN_2));
+  }
+
+  @Override
+  public void add(@Nonnull Object value, int dictId, int docId) {
+    put(toString(value));
+  }
+
+  @Override
+  public void add(@Nonnull Object[] values, @Nullable int[] dictIds, int docId) {
+    for (Object value : values) {
+      put(toString(value));
+    }
+  }
+
+  private static String toString(Object value) {
+    return value instanceof byte[] ? BytesUtils.toHexString((byte[]) value) : value.toString();
+  }
+
+  private void put(String value) {
+    GuavaBloomFilterReaderUtils.Hash128AsLongs hash = GuavaBloomFilterReaderUtils.hashAsLongs(value);
+    long hash2 = hash.getHash2();
+    long combinedHash = hash.getHash1();
+    for (int i = 0; i < _numHashFunctions; i++) {
+      long bitIndex = (combinedHash & Long.MAX_VALUE) % _numBits;
+      int index = (int) (bitIndex >>> 6);
+      long mask = 1L << bitIndex;
+      // NOTE: There is only one writer, so no need to compare-and-set
+      long word = _data.get(index);
+      if ((word & mask) == 0) {
+        _data.set(index, word | mask);
+      }
+      combinedHash += hash2;
+    }
+  }
+
+  @Override
+  public boolean mightContain(String value) {
+    GuavaBloomFilterReaderUtils.Hash128AsLongs hash = GuavaBloomFilterReaderUtils.hashAsLongs(value);
+    return mightContain(hash.getHash1(), hash.getHash2());
+  }
+
+  @Override
+  public boolean mightContain(long hash1, long hash2) {
+    long combinedHash = hash1;
+    for (int i = 0; i < _numHashFunctions; i++) {
+      long bitIndex = (combinedHash & Long.MAX_VALUE) % _numBits;
+      if ((_data.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+        return false;
+      }
+      combinedHash += hash2;
+    }
+    return true;
+  }
+
+  @Override
+  public void close() {
+  }
+}
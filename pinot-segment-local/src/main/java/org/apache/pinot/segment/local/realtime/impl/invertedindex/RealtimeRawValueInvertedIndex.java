@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.invertedindex;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.spi.index.mutable.MutableRawValueInvertedIndex;
+import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Real-time inverted index for raw (no-dictionary) columns which allows adding values on the fly. The posting lists
+ * are kept in a hash map keyed by the values, so that EQ and IN predicates on high cardinality raw columns (e.g. trace
+ * ids) can be solved without scanning the forward index.
+ * <p>Only INT, LONG, STRING and BYTES stored types are supported, where value equality is the same as the equality
+ * used by the raw value predicate evaluators.
+ * <p>The index is kept on heap, so the estimated memory usage is capped. Once the cap is reached, the index stops
+ * indexing new documents and keeps serving the documents indexed before (see {@link #getNumDocsLimit()}). The unique
+ * values are then no longer complete, so the committed segment is built without the inverted index.
+ * <p>This class is thread-safe for single writer multiple readers.
+ */
+public class RealtimeRawValueInvertedIndex implements MutableRawValueInvertedIndex {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeRawValueInvertedIndex.class);
+
+  public static final long DEFAULT_MAX_MEMORY_BYTES = 128L * 1024 * 1024;
+
+  // Rough heap usage of a value entry (hash map node, boxed key and bitmap with a single container), and of an extra
+  // doc id within a bitmap
+  private static final int ENTRY_OVERHEAD_BYTES = 160;
+  private static final int DOC_ID_BYTES = 2;
+
+  private final DataType _storedType;
+  private final long _maxMemoryBytes;
+  private final Map<Object, ThreadSafeMutableRoaringBitmap> _bitmaps = new ConcurrentHashMap<>();
+
+  private volatile long _estimatedMemoryBytes;
+  private volatile int _numDocsLimit = Integer.MAX_VALUE;
+
+  public RealtimeRawValueInvertedIndex(DataType storedType) {
+    this(storedType, DEFAULT_MAX_MEMORY_BYTES);
+  }
+
+  public RealtimeRawValueInvertedIndex(DataType storedType, long maxMemoryBytes) {
+    Preconditions.checkArgument(isSupported(storedType), "Unsupported stored type: %s for raw value inverted index",
+        storedType);
+    _storedType = storedType;
+    _maxMemoryBytes = maxMemoryBytes;
+  }
+
+  /**
+   * Returns whether the raw value inverted index can be created for the given stored type.
+   */
+  public static boolean isSupported(DataType storedType) {
+    switch (storedType) {
+      case INT:
+      case LONG:
+      case STRING:
+      case BYTES:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public void add(@Nonnull Object value, int dictId, int docId) {
+    if (docId < _numDocsLimit) {
+      add(toKey(value), docId);
+    }
+  }
+
+  @Override
+  public void add(@Nonnull Object[] values, @Nullable int[] dictIds, int docId) {
+    for (Object value : values) {
+      if (docId >= _numDocsLimit) {
+        return;
+      }
+      add(toKey(value), docId);
+    }
+  }
+
+  private void add(Object key, int docId) {
+    // NOTE: There is only one writer, so there is no race between the lookup and the put
+    ThreadSafeMutableRoaringBitmap bitmap = _bitmaps.get(key);
+    long estimatedMemoryBytes = _estimatedMemoryBytes;
+    if (bitmap == null) {
+      estimatedMemoryBytes += ENTRY_OVERHEAD_BYTES + getValueSize(key);
+      if (estimatedMemoryBytes > _maxMemoryBytes) {
+        markFull(docId);
+        return;
+      }
+      _bitmaps.put(key, new ThreadSafeMutableRoaringBitmap(docId));
+    } else {
+      estimatedMemoryBytes += DOC_ID_BYTES;
+      if (estimatedMemoryBytes > _maxMemoryBytes) {
+        markFull(docId);
+        return;
+      }
+      bitmap.add(docId);
+    }
+    _estimatedMemoryBytes = estimatedMemoryBytes;
+  }
+
+  /**
+   * Stops indexing from the given document. The posting lists are kept as is because they might be read concurrently,
+   * and they might contain the given document (for multi-value columns), which is excluded by the doc limit.
+   */
+  private void markFull(int docId) {
+    _numDocsLimit = docId;
+    LOGGER.warn("Raw value inverted index reached the memory limit of {} bytes with {} values, stop indexing from doc: "
+        + "{}", _maxMemoryBytes, _bitmaps.size(), docId);
+  }
+
+  private int getValueSize(Object key) {
+    switch (_storedType) {
+      case INT:
+        return 16;
+      case LONG:
+        return 24;
+      case STRING:
+        return 40 + ((String) key).length();
+      case BYTES:
+        return 32 + ((ByteArray) key).length();
+      default:
+        throw new IllegalStateException("Unsupported stored type: " + _storedType);
+    }
+  }
+
+  @Override
+  public MutableRoaringBitmap getDocIdsForValue(Object value) {
+    ThreadSafeMutableRoaringBitmap bitmap = _bitmaps.get(toKey(value));
+    return bitmap != null ? bitmap.getMutableRoaringBitmap() : new MutableRoaringBitmap();
+  }
+
+  @Override
+  public int getNumValues() {
+    return _bitmaps.size();
+  }
+
+  @Override
+  public boolean isFull() {
+    return _numDocsLimit != Integer.MAX_VALUE;
+  }
+
+  @Override
+  public int getNumDocsLimit() {
+    return _numDocsLimit;
+  }
+
+  @Override
+  public long getEstimatedMemoryBytes() {
+    return _estimatedMemoryBytes;
+  }
+
+  @Override
+  public Object getSortedValues() {
+    switch (_storedType) {
+      case INT: {
+        int[] values = _bitmaps.keySet().stream().mapToInt(key -> (Integer) key).toArray();
+        Arrays.sort(values);
+        return values;
+      }
+      case LONG: {
+        long[] values = _bitmaps.keySet().stream().mapToLong(key -> (Long) key).toArray();
+        Arrays.sort(values);
+        return values;
+      }
+      case STRING: {
+        String[] values = _bitmaps.keySet().toArray(new String[0]);
+        Arrays.sort(values);
+        return values;
+      }
+      case BYTES: {
+        ByteArray[] values = _bitmaps.keySet().toArray(new ByteArray[0]);
+        Arrays.sort(values);
+        return values;
+      }
+      default:
+        throw new IllegalStateException("Unsupported stored type: " + _storedType);
+    }
+  }
+
+  private static Object toKey(Object value) {
+    return value instanceof byte[] ? new ByteArray((byte[]) value) : value;
+  }
+
+  @Override
+  public void close() {
+  }
+}
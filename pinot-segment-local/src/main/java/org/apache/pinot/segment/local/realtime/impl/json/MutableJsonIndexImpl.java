@@ -49,7 +49,6 @@ import org.apache.pinot.segment.spi.index.creator.JsonIndexCreator;
 import org.apache.pinot.segment.spi.index.mutable.MutableJsonIndex;
 import org.apache.pinot.spi.config.table.JsonIndexConfig;
 import org.apache.pinot.spi.data.FieldSpec;
-import org.apache.pinot.spi.exception.BadQueryRequestException;
 import org.apache.pinot.spi.trace.Tracing;
 import org.apache.pinot.spi.utils.JsonUtils;
 import org.apache.pinot.sql.parsers.CalciteSqlParser;
@@ -126,14 +125,12 @@ public class MutableJsonIndexImpl implements MutableJsonIndex {
 
   @Override
   public MutableRoaringBitmap getMatchingDocIds(String filterString) {
-    FilterContext filter;
-    try {
-      filter = RequestContextUtils.getFilter(CalciteSqlParser.compileToExpression(filterString));
-      Preconditions.checkArgument(!filter.isConstant());
-    } catch (Exception e) {
-      throw new BadQueryRequestException("Invalid json match filter: " + filterString);
-    }
+    return getMatchingDocIds(RequestContextUtils.getJsonMatchFilter(filterString));
+  }
 
+  @Override
+  public MutableRoaringBitmap getMatchingDocIds(Object filterObj) {
+    FilterContext filter = (FilterContext) filterObj;
     _readLock.lock();
     try {
       if (filter.getType() == FilterContext.Type.PREDICATE && isExclusive(filter.getPredicate().getType())) {
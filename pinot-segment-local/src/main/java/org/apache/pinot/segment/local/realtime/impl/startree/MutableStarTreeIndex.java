@@ -0,0 +1,526 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.startree;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenCustomHashMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nullable;
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.pinot.segment.local.aggregator.ValueAggregatorFactory;
+import org.apache.pinot.segment.local.startree.v2.builder.StarTreeV2BuilderConfig;
+import org.apache.pinot.segment.local.startree.v2.store.StarTreeDataSource;
+import org.apache.pinot.segment.spi.AggregationFunctionType;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
+import org.apache.pinot.segment.spi.index.startree.AggregationFunctionColumnPair;
+import org.apache.pinot.segment.spi.index.startree.StarTree;
+import org.apache.pinot.segment.spi.index.startree.StarTreeNode;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2Constants;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2Metadata;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.MetricFieldSpec;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * In-memory pre-aggregation for a consuming segment, maintained incrementally as the rows are indexed and exposed to
+ * the star-tree execution path as a {@link StarTreeV2}.
+ * <p>Each unique combination of the dimension dictionary ids (using the dictionaries of the mutable segment) is stored
+ * as one pre-aggregated record. Record 0 is the aggregation of all the rows, which is the aggregated document of the
+ * root node. Because the records are appended in arrival order instead of being sorted on the split order, the tree
+ * only contains the root node as a leaf covering all the other records, and the predicates and group-by on the
+ * dimensions are solved by scanning the pre-aggregated records.
+ * <p>Only COUNT, SUM, MIN and MAX on single-value numeric columns are supported so that the aggregated values can be
+ * updated in place as primitives.
+ * <p>This class should be written by the single consuming thread only. The snapshots returned by
+ * {@link #getStarTreeV2()} copy the aggregated values under the same lock as the writes, so that each snapshot
+ * reflects exactly the rows indexed before it was taken, and can be read concurrently with the writes. Only the chunks
+ * of aggregated values modified since the previous snapshot are copied, and the other chunks are shared with it.
+ */
+public class MutableStarTreeIndex {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MutableStarTreeIndex.class);
+
+  private static final int CHUNK_SIZE_SHIFT = 12;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SIZE_SHIFT;
+  private static final int CHUNK_OFFSET_MASK = CHUNK_SIZE - 1;
+  private static final int GLOBAL_AGGREGATED_RECORD_ID = 0;
+
+  private final StarTreeV2BuilderConfig _builderConfig;
+  private final List<String> _dimensions;
+  private final Dictionary[] _dictionaries;
+  private final FieldSpec[] _dimensionFieldSpecs;
+  private final AggregationFunctionColumnPair[] _functionColumnPairs;
+  private final Object2IntOpenCustomHashMap<int[]> _recordIdMap =
+      new Object2IntOpenCustomHashMap<>(IntArrays.HASH_STRATEGY);
+  private final int[] _dictIdBuffer;
+  // Chunked storage so that the records can be appended without copying while being read
+  private final int[][][] _dimensionChunks;
+  private final double[][][] _metricChunks;
+  // Whether the aggregated values of the chunk are modified since the latest snapshot
+  private final boolean[] _dirtyChunks;
+
+  // NOTE: Only written by the consuming thread while holding the lock on this object. The volatile number of rows is
+  //       used to reuse the latest snapshot without acquiring the lock.
+  private int _numRecords;
+  private volatile int _numRowsIndexed;
+  private volatile MutableStarTreeV2 _snapshot;
+
+  private MutableStarTreeIndex(StarTreeV2BuilderConfig builderConfig, Dictionary[] dictionaries,
+      FieldSpec[] dimensionFieldSpecs, int capacity) {
+    _builderConfig = builderConfig;
+    _dimensions = builderConfig.getDimensionsSplitOrder();
+    _dictionaries = dictionaries;
+    _dimensionFieldSpecs = dimensionFieldSpecs;
+    _functionColumnPairs = builderConfig.getFunctionColumnPairs().toArray(new AggregationFunctionColumnPair[0]);
+    _recordIdMap.defaultReturnValue(-1);
+    _dictIdBuffer = new int[_dimensions.size()];
+    // One record for each row at most, plus the global aggregated record
+    int maxNumChunks = (int) (((long) capacity + CHUNK_SIZE) >>> CHUNK_SIZE_SHIFT) + 1;
+    _dimensionChunks = new int[_dimensions.size()][maxNumChunks][];
+    _metricChunks = new double[_functionColumnPairs.length][maxNumChunks][];
+    _dirtyChunks = new boolean[maxNumChunks];
+    addRecord(_dictIdBuffer);
+  }
+
+  /**
+   * Creates a mutable star-tree index for the given builder config, or returns {@code null} if it is not supported.
+   *
+   * @param builderConfig Star-tree builder config
+   * @param fieldSpecs Map from column name to field spec of the columns in the mutable segment
+   * @param dictionaries Map from column name to dictionary of the dictionary encoded columns in the mutable segment
+   * @param capacity Max number of rows in the mutable segment
+   */
+  @Nullable
+  public static MutableStarTreeIndex create(StarTreeV2BuilderConfig builderConfig, Map<String, FieldSpec> fieldSpecs,
+      Map<String, ? extends Dictionary> dictionaries, int capacity) {
+    List<String> dimensions = builderConfig.getDimensionsSplitOrder();
+    int numDimensions = dimensions.size();
+    Dictionary[] dimensionDictionaries = new Dictionary[numDimensions];
+    FieldSpec[] dimensionFieldSpecs = new FieldSpec[numDimensions];
+    for (int i = 0; i < numDimensions; i++) {
+      String dimension = dimensions.get(i);
+      FieldSpec fieldSpec = fieldSpecs.get(dimension);
+      Dictionary dictionary = dictionaries.get(dimension);
+      if (fieldSpec == null || !fieldSpec.isSingleValueField() || dictionary == null) {
+        LOGGER.warn("Cannot create mutable star-tree: {}, dimension: {} is not a single-value dictionary encoded "
+            + "column", builderConfig, dimension);
+        return null;
+      }
+      dimensionDictionaries[i] = dictionary;
+      dimensionFieldSpecs[i] = fieldSpec;
+    }
+    for (AggregationFunctionColumnPair functionColumnPair : builderConfig.getFunctionColumnPairs()) {
+      switch (functionColumnPair.getFunctionType()) {
+        case COUNT:
+          continue;
+        case SUM:
+        case MIN:
+        case MAX:
+          FieldSpec fieldSpec = fieldSpecs.get(functionColumnPair.getColumn());
+          if (fieldSpec != null && fieldSpec.isSingleValueField() && isNumeric(fieldSpec.getDataType())) {
+            continue;
+          }
+          LOGGER.warn("Cannot create mutable star-tree: {}, column of: {} is not a single-value numeric column",
+              builderConfig, functionColumnPair);
+          return null;
+        default:
+          LOGGER.warn("Cannot create mutable star-tree: {}, unsupported aggregation: {}", builderConfig,
+              functionColumnPair);
+          return null;
+      }
+    }
+    return new MutableStarTreeIndex(builderConfig, dimensionDictionaries, dimensionFieldSpecs, capacity);
+  }
+
+  private static boolean isNumeric(DataType dataType) {
+    switch (dataType.getStoredType()) {
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  public List<String> getDimensionsSplitOrder() {
+    return _dimensions;
+  }
+
+  /**
+   * Aggregates the row into the record for its dimension values.
+   *
+   * @param row Row being indexed
+   * @param dictIdProvider Provides the dictionary id of the row for a dimension
+   */
+  public void index(GenericRow row, ToIntFunction<String> dictIdProvider) {
+    int numDimensions = _dictIdBuffer.length;
+    for (int i = 0; i < numDimensions; i++) {
+      _dictIdBuffer[i] = dictIdProvider.applyAsInt(_dimensions.get(i));
+    }
+    synchronized (this) {
+      int recordId = _recordIdMap.getInt(_dictIdBuffer);
+      if (recordId < 0) {
+        recordId = addRecord(_dictIdBuffer.clone());
+      }
+      aggregate(GLOBAL_AGGREGATED_RECORD_ID, row);
+      aggregate(recordId, row);
+      _numRowsIndexed++;
+    }
+  }
+
+  private int addRecord(int[] dictIds) {
+    int recordId = _numRecords;
+    int chunkId = recordId >>> CHUNK_SIZE_SHIFT;
+    int offset = recordId & CHUNK_OFFSET_MASK;
+    _dirtyChunks[chunkId] = true;
+    if (offset == 0) {
+      for (int[][] chunks : _dimensionChunks) {
+        chunks[chunkId] = new int[CHUNK_SIZE];
+      }
+      for (double[][] chunks : _metricChunks) {
+        chunks[chunkId] = new double[CHUNK_SIZE];
+      }
+    }
+    int numDimensions = dictIds.length;
+    for (int i = 0; i < numDimensions; i++) {
+      // NOTE: The global aggregated record is stored with the star value
+      _dimensionChunks[i][chunkId][offset] =
+          recordId == GLOBAL_AGGREGATED_RECORD_ID ? StarTreeV2Constants.STAR_IN_FORWARD_INDEX : dictIds[i];
+    }
+    int numMetrics = _functionColumnPairs.length;
+    for (int i = 0; i < numMetrics; i++) {
+      _metricChunks[i][chunkId][offset] = getInitialValue(_functionColumnPairs[i].getFunctionType());
+    }
+    if (recordId != GLOBAL_AGGREGATED_RECORD_ID) {
+      _recordIdMap.put(dictIds, recordId);
+    }
+    _numRecords = recordId + 1;
+    return recordId;
+  }
+
+  private static double getInitialValue(AggregationFunctionType functionType) {
+    switch (functionType) {
+      case MIN:
+        return Double.POSITIVE_INFINITY;
+      case MAX:
+        return Double.NEGATIVE_INFINITY;
+      default:
+        return 0;
+    }
+  }
+
+  private void aggregate(int recordId, GenericRow row) {
+    int chunkId = recordId >>> CHUNK_SIZE_SHIFT;
+    int offset = recordId & CHUNK_OFFSET_MASK;
+    _dirtyChunks[chunkId] = true;
+    int numMetrics = _functionColumnPairs.length;
+    for (int i = 0; i < numMetrics; i++) {
+      AggregationFunctionColumnPair functionColumnPair = _functionColumnPairs[i];
+      double[] values = _metricChunks[i][chunkId];
+      if (functionColumnPair.getFunctionType() == AggregationFunctionType.COUNT) {
+        values[offset]++;
+        continue;
+      }
+      Object value = row.getValue(functionColumnPair.getColumn());
+      if (!(value instanceof Number)) {
+        continue;
+      }
+      double doubleValue = ((Number) value).doubleValue();
+      switch (functionColumnPair.getFunctionType()) {
+        case SUM:
+          values[offset] += doubleValue;
+          break;
+        case MIN:
+          values[offset] = Math.min(values[offset], doubleValue);
+          break;
+        case MAX:
+          values[offset] = Math.max(values[offset], doubleValue);
+          break;
+        default:
+          throw new IllegalStateException("Unsupported aggregation: " + functionColumnPair);
+      }
+    }
+  }
+
+  /**
+   * Returns a snapshot of the star-tree with the rows indexed so far, or {@code null} if no row is indexed. The
+   * snapshot is not affected by the rows indexed after it is taken, and is reused until a new row is indexed. A new
+   * snapshot only copies the chunks of aggregated values modified since the previous one.
+   */
+  @Nullable
+  public StarTreeV2 getStarTreeV2() {
+    int numRowsIndexed = _numRowsIndexed;
+    if (numRowsIndexed == 0) {
+      return null;
+    }
+    MutableStarTreeV2 snapshot = _snapshot;
+    if (snapshot != null && snapshot._numRowsIndexed == numRowsIndexed) {
+      return snapshot;
+    }
+    synchronized (this) {
+      snapshot = _snapshot;
+      if (snapshot == null || snapshot._numRowsIndexed != _numRowsIndexed) {
+        snapshot = new MutableStarTreeV2(_numRecords, _numRowsIndexed, copyMetricChunks(snapshot));
+        _snapshot = snapshot;
+      }
+      return snapshot;
+    }
+  }
+
+  /**
+   * Copies the chunks of aggregated values modified since the given previous snapshot, and shares the other chunks with
+   * it. Should be called while holding the lock.
+   */
+  private double[][][] copyMetricChunks(@Nullable MutableStarTreeV2 previousSnapshot) {
+    int numChunks = ((_numRecords - 1) >>> CHUNK_SIZE_SHIFT) + 1;
+    int numMetrics = _functionColumnPairs.length;
+    double[][][] metricChunks = new double[numMetrics][numChunks][];
+    for (int chunkId = 0; chunkId < numChunks; chunkId++) {
+      boolean copy = previousSnapshot == null || _dirtyChunks[chunkId];
+      for (int i = 0; i < numMetrics; i++) {
+        metricChunks[i][chunkId] =
+            copy ? _metricChunks[i][chunkId].clone() : previousSnapshot._metricChunks[i][chunkId];
+      }
+      _dirtyChunks[chunkId] = false;
+    }
+    return metricChunks;
+  }
+
+  private int getDictId(int dimensionId, int recordId) {
+    return _dimensionChunks[dimensionId][recordId >>> CHUNK_SIZE_SHIFT][recordId & CHUNK_OFFSET_MASK];
+  }
+
+  /**
+   * Star-tree over the first {@code numDocs} records. The root node is a leaf covering all the records except the
+   * global aggregated record, which is used as the aggregated document of the root node. The dimensions of the records
+   * never change once added, so they are read from the shared chunks, while the aggregated values are read from the
+   * chunks copied for the snapshot.
+   */
+  private class MutableStarTreeV2 implements StarTreeV2, StarTree, StarTreeNode {
+    final int _numDocs;
+    final int _numRowsIndexed;
+    final double[][][] _metricChunks;
+    final StarTreeV2Metadata _metadata;
+    final Map<String, DataSource> _dataSourceMap = new HashMap<>();
+
+    MutableStarTreeV2(int numDocs, int numRowsIndexed, double[][][] metricChunks) {
+      _numDocs = numDocs;
+      _numRowsIndexed = numRowsIndexed;
+      _metricChunks = metricChunks;
+      PropertiesConfiguration metadataProperties = new PropertiesConfiguration();
+      _builderConfig.writeMetadata(metadataProperties, numDocs);
+      _metadata = new StarTreeV2Metadata(metadataProperties);
+      int numDimensions = _dimensions.size();
+      for (int i = 0; i < numDimensions; i++) {
+        _dataSourceMap.put(_dimensions.get(i),
+            new StarTreeDataSource(_dimensionFieldSpecs[i], numDocs, new DimensionReader(i), _dictionaries[i]));
+      }
+      int numMetrics = _functionColumnPairs.length;
+      for (int i = 0; i < numMetrics; i++) {
+        AggregationFunctionColumnPair functionColumnPair = _functionColumnPairs[i];
+        String metric = functionColumnPair.toColumnName();
+        DataType dataType = ValueAggregatorFactory.getAggregatedValueType(functionColumnPair.getFunctionType());
+        _dataSourceMap.put(metric, new StarTreeDataSource(new MetricFieldSpec(metric, dataType), numDocs,
+            new MetricReader(metricChunks[i], dataType.getStoredType()), null));
+      }
+    }
+
+    @Override
+    public StarTree getStarTree() {
+      return this;
+    }
+
+    @Override
+    public StarTreeV2Metadata getMetadata() {
+      return _metadata;
+    }
+
+    @Override
+    public DataSource getDataSource(String columnName) {
+      return _dataSourceMap.get(columnName);
+    }
+
+    @Override
+    public void close() {
+      // NOTE: The records and the dictionaries are managed by the mutable segment.
+    }
+
+    @Override
+    public StarTreeNode getRoot() {
+      return this;
+    }
+
+    @Override
+    public List<String> getDimensionNames() {
+      return _dimensions;
+    }
+
+    @Override
+    public void printTree(Map<String, Dictionary> dictionaryMap) {
+      LOGGER.info("Mutable star-tree with {} pre-aggregated records", _numDocs - 1);
+    }
+
+    @Override
+    public int getDimensionId() {
+      return ALL;
+    }
+
+    @Override
+    public int getDimensionValue() {
+      return ALL;
+    }
+
+    @Override
+    public int getChildDimensionId() {
+      return ALL;
+    }
+
+    @Override
+    public int getStartDocId() {
+      return GLOBAL_AGGREGATED_RECORD_ID + 1;
+    }
+
+    @Override
+    public int getEndDocId() {
+      return _numDocs;
+    }
+
+    @Override
+    public int getAggregatedDocId() {
+      return GLOBAL_AGGREGATED_RECORD_ID;
+    }
+
+    @Override
+    public int getNumChildren() {
+      return 0;
+    }
+
+    @Override
+    public boolean isLeaf() {
+      return true;
+    }
+
+    @Nullable
+    @Override
+    public StarTreeNode getChildForDimensionValue(int dimensionValue) {
+      return null;
+    }
+
+    @Override
+    public Iterator<? extends StarTreeNode> getChildrenIterator() {
+      return Collections.emptyIterator();
+    }
+  }
+
+  private class DimensionReader implements ForwardIndexReader<ForwardIndexReaderContext> {
+    final int _dimensionId;
+
+    DimensionReader(int dimensionId) {
+      _dimensionId = dimensionId;
+    }
+
+    @Override
+    public boolean isDictionaryEncoded() {
+      return true;
+    }
+
+    @Override
+    public boolean isSingleValue() {
+      return true;
+    }
+
+    @Override
+    public DataType getStoredType() {
+      return DataType.INT;
+    }
+
+    @Override
+    public int getDictId(int docId, ForwardIndexReaderContext context) {
+      return MutableStarTreeIndex.this.getDictId(_dimensionId, docId);
+    }
+
+    @Override
+    public void readDictIds(int[] docIds, int length, int[] dictIdBuffer, ForwardIndexReaderContext context) {
+      for (int i = 0; i < length; i++) {
+        dictIdBuffer[i] = MutableStarTreeIndex.this.getDictId(_dimensionId, docIds[i]);
+      }
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static class MetricReader implements ForwardIndexReader<ForwardIndexReaderContext> {
+    final double[][] _chunks;
+    final DataType _storedType;
+
+    MetricReader(double[][] chunks, DataType storedType) {
+      _chunks = chunks;
+      _storedType = storedType;
+    }
+
+    double getValue(int docId) {
+      return _chunks[docId >>> CHUNK_SIZE_SHIFT][docId & CHUNK_OFFSET_MASK];
+    }
+
+    @Override
+    public boolean isDictionaryEncoded() {
+      return false;
+    }
+
+    @Override
+    public boolean isSingleValue() {
+      return true;
+    }
+
+    @Override
+    public DataType getStoredType() {
+      return _storedType;
+    }
+
+    @Override
+    public long getLong(int docId, ForwardIndexReaderContext context) {
+      return (long) getValue(docId);
+    }
+
+    @Override
+    public double getDouble(int docId, ForwardIndexReaderContext context) {
+      return getValue(docId);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
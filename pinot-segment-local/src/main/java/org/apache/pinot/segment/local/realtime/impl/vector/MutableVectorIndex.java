@@ -26,20 +26,22 @@ import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.StoredField;
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.VectorSimilarityFunction;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.KnnFloatVectorQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.pinot.segment.local.segment.creator.impl.vector.XKnnFloatVectorField;
+import org.apache.pinot.segment.local.segment.index.readers.vector.HnswDocIdFilterQuery;
 import org.apache.pinot.segment.local.segment.store.VectorIndexUtils;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.index.creator.VectorIndexConfig;
 import org.apache.pinot.segment.spi.index.mutable.MutableIndex;
 import org.apache.pinot.segment.spi.index.reader.VectorIndexReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,6 +67,8 @@ public class MutableVectorIndex implements VectorIndexReader, MutableIndex {
   private final File _indexDir;
 
   private final FSDirectory _indexDirectory;
+  // Shares the reader of the last commit across the searches, and reopens it only when there is a new commit
+  private final SearcherManager _searcherManager;
   private int _nextDocId;
 
   private long _lastCommitTime;
@@ -88,6 +92,7 @@ public class MutableVectorIndex implements VectorIndexReader, MutableIndex {
           vectorColumn, _indexDir.getAbsolutePath(), vectorIndexConfig.getProperties());
       _indexWriter = new IndexWriter(_indexDirectory, VectorIndexUtils.getIndexWriterConfig(vectorIndexConfig));
       _indexWriter.commit();
+      _searcherManager = new SearcherManager(_indexDirectory, null);
       _lastCommitTime = System.currentTimeMillis();
     } catch (Exception e) {
       throw new RuntimeException(
@@ -126,13 +131,29 @@ public class MutableVectorIndex implements VectorIndexReader, MutableIndex {
 
   @Override
   public MutableRoaringBitmap getDocIds(float[] vector, int topK) {
-    MutableRoaringBitmap docIds;
+    return search(new KnnFloatVectorQuery(_vectorColumn, vector, topK), topK);
+  }
+
+  @Override
+  public MutableRoaringBitmap getDocIds(float[] vector, int topK, ImmutableRoaringBitmap filterDocIds) {
+    if (filterDocIds.isEmpty()) {
+      return new MutableRoaringBitmap();
+    }
+    return search(new KnnFloatVectorQuery(_vectorColumn, vector, topK, new HnswDocIdFilterQuery(filterDocIds)),
+        topK);
+  }
+
+  private MutableRoaringBitmap search(Query query, int topK) {
+    MutableRoaringBitmap docIds = new MutableRoaringBitmap();
     try {
-      IndexSearcher indexSearcher = new IndexSearcher(DirectoryReader.open(_indexDirectory));
-      Query query = new KnnFloatVectorQuery(_vectorColumn, vector, topK);
-      docIds = new MutableRoaringBitmap();
-      TopDocs search = indexSearcher.search(query, topK);
-      Arrays.stream(search.scoreDocs).map(scoreDoc -> scoreDoc.doc).forEach(docIds::add);
+      _searcherManager.maybeRefresh();
+      IndexSearcher indexSearcher = _searcherManager.acquire();
+      try {
+        TopDocs search = indexSearcher.search(query, topK);
+        Arrays.stream(search.scoreDocs).map(scoreDoc -> scoreDoc.doc).forEach(docIds::add);
+      } finally {
+        _searcherManager.release(indexSearcher);
+      }
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -142,6 +163,7 @@ public class MutableVectorIndex implements VectorIndexReader, MutableIndex {
   @Override
   public void close() {
     try {
+      _searcherManager.close();
       _indexWriter.commit();
       _indexWriter.close();
     } catch (IOException e) {
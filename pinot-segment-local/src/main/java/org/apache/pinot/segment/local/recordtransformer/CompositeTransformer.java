@@ -50,6 +50,10 @@ public class CompositeTransformer implements RecordTransformer {
    *     destination columns
    *   </li>
    *   <li>
+   *     Optional {@link JsonShreddingTransformer} after {@link FilterTransformer}, so that the JSON columns are
+   *     already derived and the filtered records are not shredded
+   *   </li>
+   *   <li>
    *     Optional {@link SchemaConformingTransformer} after {@link FilterTransformer}, so that we can transform input
    *     records that have varying fields to a fixed schema without dropping any fields
    *   </li>
@@ -83,7 +87,7 @@ public class CompositeTransformer implements RecordTransformer {
    */
   public static List<RecordTransformer> getDefaultTransformers(TableConfig tableConfig, Schema schema) {
     return Stream.of(new ExpressionTransformer(tableConfig, schema), new FilterTransformer(tableConfig),
-            new SchemaConformingTransformer(tableConfig, schema),
+            new JsonShreddingTransformer(schema), new SchemaConformingTransformer(tableConfig, schema),
             new SchemaConformingTransformerV2(tableConfig, schema), new DataTypeTransformer(tableConfig, schema),
             new TimeValidationTransformer(tableConfig, schema), new SpecialValueTransformer(schema),
             new NullValueTransformer(tableConfig, schema), new SanitizationTransformer(schema)).filter(t -> !t.isNoOp())
@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.recordtransformer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.JsonShreddingUtils;
+import org.apache.pinot.spi.utils.JsonUtils;
+
+
+/**
+ * The {@code JsonShreddingTransformer} class fills the hidden shredded JSON columns (see {@link JsonShreddingUtils})
+ * with the values extracted from the JSON column. Each JSON document is parsed only once for all the shredded paths.
+ * <p>The values are converted the same way as {@code jsonExtractScalar} does. When the path does not exist, or the
+ * value cannot be converted to the data type of the shredded column, the shredded value is left as {@code null} so
+ * that it is tracked in the null value vector.
+ * <p>NOTE: should put this after the {@link ExpressionTransformer} so that the JSON column is already derived, and
+ * before the {@link DataTypeTransformer} so that the JSON column can still be a map parsed by the record reader.
+ */
+public class JsonShreddingTransformer implements RecordTransformer {
+  // Key: JSON column, value: shredded paths of the JSON column
+  private final Map<String, List<ShreddedPath>> _shreddedPathsMap = new HashMap<>();
+
+  public JsonShreddingTransformer(Schema schema) {
+    for (FieldSpec fieldSpec : schema.getAllFieldSpecs()) {
+      String column = fieldSpec.getName();
+      if (!fieldSpec.isVirtualColumn() && JsonShreddingUtils.isShreddedColumn(column)) {
+        _shreddedPathsMap.computeIfAbsent(JsonShreddingUtils.getJsonColumn(column), k -> new ArrayList<>())
+            .add(new ShreddedPath(column, JsonShreddingUtils.getJsonPath(column), fieldSpec.getDataType()));
+      }
+    }
+  }
+
+  @Override
+  public boolean isNoOp() {
+    return _shreddedPathsMap.isEmpty();
+  }
+
+  @Override
+  public GenericRow transform(GenericRow record) {
+    for (Map.Entry<String, List<ShreddedPath>> entry : _shreddedPathsMap.entrySet()) {
+      JsonNode jsonNode = toJsonNode(record.getValue(entry.getKey()));
+      for (ShreddedPath shreddedPath : entry.getValue()) {
+        record.putValue(shreddedPath._column, jsonNode != null ? shreddedPath.extractValue(jsonNode) : null);
+      }
+    }
+    return record;
+  }
+
+  /**
+   * Converts the value of the JSON column into a {@link JsonNode}, or returns {@code null} if the value is not a valid
+   * JSON document.
+   */
+  @Nullable
+  public static JsonNode toJsonNode(@Nullable Object value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      if (value instanceof String) {
+        return JsonUtils.stringToJsonNodeWithBigDecimal((String) value);
+      } else {
+        return JsonUtils.objectToJsonNode(value);
+      }
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Converts the JSON value into the given data type, following the conversion of {@code jsonExtractScalar}. Returns
+   * {@code null} if the value cannot be converted.
+   */
+  @Nullable
+  static Object convert(JsonNode value, DataType dataType) {
+    try {
+      switch (dataType) {
+        case INT:
+          return value.isNumber() ? value.intValue() : Integer.parseInt(value.asText());
+        case LONG:
+          return value.isNumber() ? value.longValue()
+              : new BigDecimal(value.asText()).setScale(0, RoundingMode.DOWN).longValueExact();
+        case FLOAT:
+          return value.isNumber() ? value.floatValue() : Float.parseFloat(value.asText());
+        case DOUBLE:
+          return value.isNumber() ? value.doubleValue() : Double.parseDouble(value.asText());
+        case STRING:
+          return value.isTextual() ? value.textValue() : value.toString();
+        default:
+          throw new IllegalStateException("Unsupported data type: " + dataType + " for shredded JSON column");
+      }
+    } catch (NumberFormatException | ArithmeticException e) {
+      return null;
+    }
+  }
+
+  private static class ShreddedPath {
+    final String _column;
+    final DataType _dataType;
+    // Each element is either the key (String) of an object or the index (Integer) of an array
+    final Object[] _tokens;
+
+    ShreddedPath(String column, String jsonPath, DataType dataType) {
+      _column = column;
+      _dataType = dataType;
+      List<Object> tokens = new ArrayList<>();
+      int length = jsonPath.length();
+      // Skip the leading '$'
+      int i = 1;
+      while (i < length) {
+        if (jsonPath.charAt(i) == '.') {
+          int end = i + 1;
+          while (end < length && jsonPath.charAt(end) != '.' && jsonPath.charAt(end) != '[') {
+            end++;
+          }
+          tokens.add(jsonPath.substring(i + 1, end));
+          i = end;
+        } else {
+          int end = jsonPath.indexOf(']', i);
+          tokens.add(Integer.parseInt(jsonPath.substring(i + 1, end)));
+          i = end + 1;
+        }
+      }
+      _tokens = tokens.toArray();
+    }
+
+    @Nullable
+    Object extractValue(JsonNode jsonNode) {
+      JsonNode node = jsonNode;
+      for (Object token : _tokens) {
+        if (token instanceof String) {
+          node = node.isObject() ? node.get((String) token) : null;
+        } else {
+          node = node.isArray() ? node.get((Integer) token) : null;
+        }
+        if (node == null) {
+          return null;
+        }
+      }
+      return node.isNull() ? null : convert(node, _dataType);
+    }
+  }
+}
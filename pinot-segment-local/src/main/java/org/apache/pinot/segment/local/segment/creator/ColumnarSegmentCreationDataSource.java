@@ -0,0 +1,364 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.common.Utils;
+import org.apache.pinot.segment.local.recordtransformer.CompositeTransformer;
+import org.apache.pinot.segment.local.recordtransformer.ExpressionTransformer;
+import org.apache.pinot.segment.local.recordtransformer.FilterTransformer;
+import org.apache.pinot.segment.local.recordtransformer.JsonShreddingTransformer;
+import org.apache.pinot.segment.local.recordtransformer.RecordTransformer;
+import org.apache.pinot.segment.local.recordtransformer.SchemaConformingTransformer;
+import org.apache.pinot.segment.local.recordtransformer.SchemaConformingTransformerV2;
+import org.apache.pinot.segment.local.segment.creator.impl.stats.SegmentPreIndexStatsCollectorImpl;
+import org.apache.pinot.segment.spi.creator.SegmentCreationDataSource;
+import org.apache.pinot.segment.spi.creator.SegmentPreIndexStatsCollector;
+import org.apache.pinot.segment.spi.creator.StatsCollectorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnReader;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * {@link SegmentCreationDataSource} that uses a {@link ColumnarRecordReader} as the underlying data source, and reads
+ * the data column by column so that the segment can be created without materializing each record.
+ * <p>It can only be used when no row level transform is configured (see {@link #isSupported}), so that the values of a
+ * column can be transformed independently of the other columns. The default per-value transforms (data type conversion,
+ * null value handling, sanitization etc.) are applied with a single-column schema.
+ */
+public class ColumnarSegmentCreationDataSource implements SegmentCreationDataSource {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ColumnarSegmentCreationDataSource.class);
+  private static final int PRIMITIVE_BATCH_SIZE = 1024;
+
+  private final ColumnarRecordReader _recordReader;
+  private final TableConfig _tableConfig;
+  private final Schema _schema;
+
+  public ColumnarSegmentCreationDataSource(ColumnarRecordReader recordReader, TableConfig tableConfig, Schema schema) {
+    _recordReader = recordReader;
+    _tableConfig = tableConfig;
+    _schema = schema;
+  }
+
+  /**
+   * Returns {@code true} if the segment can be created column by column from the given record reader, i.e. the record
+   * reader supports column readers and there is no transform that requires the whole record.
+   */
+  public static boolean isSupported(RecordReader recordReader, TableConfig tableConfig, Schema schema) {
+    if (!(recordReader instanceof ColumnarRecordReader)
+        || !((ColumnarRecordReader) recordReader).isColumnReaderSupported()) {
+      return false;
+    }
+    IngestionConfig ingestionConfig = tableConfig.getIngestionConfig();
+    if (ingestionConfig != null && (ingestionConfig.getComplexTypeConfig() != null || CollectionUtils.isNotEmpty(
+        ingestionConfig.getEnrichmentConfigs()))) {
+      return false;
+    }
+    return new ExpressionTransformer(tableConfig, schema).isNoOp() && new FilterTransformer(tableConfig).isNoOp()
+        && new JsonShreddingTransformer(schema).isNoOp() && new SchemaConformingTransformer(tableConfig,
+        schema).isNoOp() && new SchemaConformingTransformerV2(tableConfig, schema).isNoOp();
+  }
+
+  @Override
+  public SegmentPreIndexStatsCollector gatherStats(StatsCollectorConfig statsCollectorConfig) {
+    try {
+      SegmentPreIndexStatsCollectorImpl collector = new SegmentPreIndexStatsCollectorImpl(statsCollectorConfig);
+      collector.init();
+      for (String column : _schema.getPhysicalColumnNames()) {
+        try (ColumnReader columnReader = getColumnReader(column)) {
+          if (columnReader.getPrimitiveBatchType() != null) {
+            collectPrimitiveValues(collector, column, columnReader);
+          } else {
+            while (columnReader.hasNext()) {
+              collector.collectColumnValue(column, columnReader.next());
+            }
+          }
+        }
+      }
+      collector.setTotalDocCount(_recordReader.getNumRecords());
+      collector.build();
+      return collector;
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while gathering stats", e);
+      Utils.rethrowException(e);
+      return null;
+    }
+  }
+
+  @Override
+  public RecordReader getRecordReader() {
+    try {
+      _recordReader.rewind();
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while rewinding record reader", e);
+      Utils.rethrowException(e);
+    }
+
+    return _recordReader;
+  }
+
+  /**
+   * Returns a {@link ColumnReader} for the transformed values of the given column, where the null values are replaced
+   * with the default values. The returned reader should be closed by the caller.
+   */
+  public ColumnReader getColumnReader(String column)
+      throws IOException {
+    // NOTE: Time column is required by the time related transformers
+    Schema columnSchema = new Schema();
+    columnSchema.setSchemaName(_schema.getSchemaName());
+    columnSchema.addField(_schema.getFieldSpecFor(column));
+    String timeColumnName = _tableConfig.getValidationConfig().getTimeColumnName();
+    if (StringUtils.isNotEmpty(timeColumnName) && !timeColumnName.equals(column)) {
+      FieldSpec timeFieldSpec = _schema.getFieldSpecFor(timeColumnName);
+      if (timeFieldSpec != null) {
+        columnSchema.addField(timeFieldSpec);
+      }
+    }
+    FieldSpec fieldSpec = _schema.getFieldSpecFor(column);
+    ColumnReader columnReader = _recordReader.getColumnReader(column);
+    // NOTE: Values can be read in primitive batches when they have the same type as the column, where the only default
+    //       transforms to apply are replacing the null values and the special float/double values. Time column values
+    //       also need to be validated, so they are always read one at a time.
+    DataType primitiveBatchType = null;
+    if (fieldSpec.isSingleValueField() && !column.equals(timeColumnName) && (columnReader == null
+        || columnReader.getPrimitiveBatchType() == fieldSpec.getDataType())) {
+      switch (fieldSpec.getDataType()) {
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+          primitiveBatchType = fieldSpec.getDataType();
+          break;
+        default:
+          break;
+      }
+    }
+    return new TransformedColumnReader(column, columnReader, _recordReader.getNumRecords(),
+        CompositeTransformer.getDefaultTransformer(_tableConfig, columnSchema), primitiveBatchType,
+        fieldSpec.getDefaultNullValue());
+  }
+
+  private static void collectPrimitiveValues(SegmentPreIndexStatsCollectorImpl collector, String column,
+      ColumnReader columnReader)
+      throws IOException {
+    boolean[] nulls = new boolean[PRIMITIVE_BATCH_SIZE];
+    int numValues;
+    switch (columnReader.getPrimitiveBatchType()) {
+      case INT:
+        int[] intValues = new int[PRIMITIVE_BATCH_SIZE];
+        while ((numValues = columnReader.nextIntBatch(intValues, nulls)) > 0) {
+          collector.collectColumnValues(column, intValues, numValues);
+        }
+        break;
+      case LONG:
+        long[] longValues = new long[PRIMITIVE_BATCH_SIZE];
+        while ((numValues = columnReader.nextLongBatch(longValues, nulls)) > 0) {
+          collector.collectColumnValues(column, longValues, numValues);
+        }
+        break;
+      case FLOAT:
+        float[] floatValues = new float[PRIMITIVE_BATCH_SIZE];
+        while ((numValues = columnReader.nextFloatBatch(floatValues, nulls)) > 0) {
+          collector.collectColumnValues(column, floatValues, numValues);
+        }
+        break;
+      case DOUBLE:
+        double[] doubleValues = new double[PRIMITIVE_BATCH_SIZE];
+        while ((numValues = columnReader.nextDoubleBatch(doubleValues, nulls)) > 0) {
+          collector.collectColumnValues(column, doubleValues, numValues);
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unsupported primitive batch type: " + columnReader.getPrimitiveBatchType());
+    }
+  }
+
+  /**
+   * Column reader that applies the record transformers on each value using a reused single-value record. When the
+   * values can be read in primitive batches, the batches apply the same transforms without boxing the values.
+   */
+  private static class TransformedColumnReader implements ColumnReader {
+    private final String _column;
+    private final ColumnReader _columnReader;
+    private final int _numRecords;
+    private final RecordTransformer _recordTransformer;
+    private final DataType _primitiveBatchType;
+    private final Object _defaultNullValue;
+    private final GenericRow _reuse = new GenericRow();
+    private int _numValuesRead;
+    private boolean _isNull;
+
+    TransformedColumnReader(String column, @Nullable ColumnReader columnReader, int numRecords,
+        RecordTransformer recordTransformer, @Nullable DataType primitiveBatchType, Object defaultNullValue) {
+      _column = column;
+      _columnReader = columnReader;
+      _numRecords = numRecords;
+      _recordTransformer = recordTransformer;
+      _primitiveBatchType = primitiveBatchType;
+      _defaultNullValue = defaultNullValue;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _numValuesRead < _numRecords;
+    }
+
+    @Override
+    public Object next()
+        throws IOException {
+      _reuse.clear();
+      if (_columnReader != null) {
+        if (!_columnReader.hasNext()) {
+          throw new IllegalStateException(
+              String.format("Column: %s only has %d values, expected: %d", _column, _numValuesRead, _numRecords));
+        }
+        Object value = _columnReader.next();
+        if (value != null) {
+          _reuse.putValue(_column, value);
+        }
+      }
+      GenericRow transformedRow = _recordTransformer.transform(_reuse);
+      if (transformedRow == null) {
+        throw new IllegalStateException("Value of column: " + _column + " cannot be skipped in columnar ingestion");
+      }
+      _isNull = transformedRow.isNullValue(_column);
+      _numValuesRead++;
+      return transformedRow.getValue(_column);
+    }
+
+    @Override
+    public boolean isNull() {
+      return _isNull;
+    }
+
+    @Nullable
+    @Override
+    public DataType getPrimitiveBatchType() {
+      return _primitiveBatchType;
+    }
+
+    @Override
+    public int nextIntBatch(int[] values, boolean[] nulls)
+        throws IOException {
+      int numValues = _columnReader != null ? _columnReader.nextIntBatch(values, nulls) : fillNulls(nulls);
+      int defaultNullValue = (int) _defaultNullValue;
+      for (int i = 0; i < numValues; i++) {
+        if (nulls[i]) {
+          values[i] = defaultNullValue;
+        }
+      }
+      return endBatch(numValues);
+    }
+
+    @Override
+    public int nextLongBatch(long[] values, boolean[] nulls)
+        throws IOException {
+      int numValues = _columnReader != null ? _columnReader.nextLongBatch(values, nulls) : fillNulls(nulls);
+      long defaultNullValue = (long) _defaultNullValue;
+      for (int i = 0; i < numValues; i++) {
+        if (nulls[i]) {
+          values[i] = defaultNullValue;
+        }
+      }
+      return endBatch(numValues);
+    }
+
+    @Override
+    public int nextFloatBatch(float[] values, boolean[] nulls)
+        throws IOException {
+      int numValues = _columnReader != null ? _columnReader.nextFloatBatch(values, nulls) : fillNulls(nulls);
+      float defaultNullValue = (float) _defaultNullValue;
+      for (int i = 0; i < numValues; i++) {
+        // Same as SpecialValueTransformer: NaN is treated as null, and -0.0 is converted to 0.0
+        if (nulls[i] || Float.isNaN(values[i])) {
+          nulls[i] = true;
+          values[i] = defaultNullValue;
+        } else if (values[i] == 0.0f) {
+          values[i] = 0.0f;
+        }
+      }
+      return endBatch(numValues);
+    }
+
+    @Override
+    public int nextDoubleBatch(double[] values, boolean[] nulls)
+        throws IOException {
+      int numValues = _columnReader != null ? _columnReader.nextDoubleBatch(values, nulls) : fillNulls(nulls);
+      double defaultNullValue = (double) _defaultNullValue;
+      for (int i = 0; i < numValues; i++) {
+        // Same as SpecialValueTransformer: NaN is treated as null, and -0.0 is converted to 0.0
+        if (nulls[i] || Double.isNaN(values[i])) {
+          nulls[i] = true;
+          values[i] = defaultNullValue;
+        } else if (values[i] == 0.0d) {
+          values[i] = 0.0d;
+        }
+      }
+      return endBatch(numValues);
+    }
+
+    /**
+     * Marks the next batch of values as null for a column missing from the data source.
+     */
+    private int fillNulls(boolean[] nulls) {
+      int numValues = Math.min(nulls.length, _numRecords - _numValuesRead);
+      Arrays.fill(nulls, 0, numValues, true);
+      return numValues;
+    }
+
+    private int endBatch(int numValues) {
+      _numValuesRead += numValues;
+      if (numValues == 0 && _numValuesRead < _numRecords) {
+        throw new IllegalStateException(
+            String.format("Column: %s only has %d values, expected: %d", _column, _numValuesRead, _numRecords));
+      }
+      return numValues;
+    }
+
+    @Override
+    public void rewind()
+        throws IOException {
+      if (_columnReader != null) {
+        _columnReader.rewind();
+      }
+      _numValuesRead = 0;
+    }
+
+    @Override
+    public void close()
+        throws IOException {
+      if (_columnReader != null) {
+        _columnReader.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,622 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.io.util.FrontCodedValueReader;
+import org.apache.pinot.segment.local.io.util.PinotDataBitSet;
+import org.apache.pinot.segment.local.io.util.VarLengthValueReader;
+import org.apache.pinot.segment.local.segment.creator.impl.nullvalue.NullValueVectorCreator;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.BitmapInvertedIndexWriter;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.DensityAwareBitmapInvertedIndexWriter;
+import org.apache.pinot.segment.local.segment.index.converter.SegmentFormatConverterFactory;
+import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexType;
+import org.apache.pinot.segment.local.segment.index.forward.ForwardIndexType;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.index.readers.BitmapInvertedIndexReader;
+import org.apache.pinot.segment.local.segment.index.readers.DensityAwareBitmapInvertedIndexReader;
+import org.apache.pinot.segment.local.segment.index.readers.NullValueVectorReaderImpl;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentColumnReader;
+import org.apache.pinot.segment.local.utils.CrcUtils;
+import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.creator.IndexCreationContext;
+import org.apache.pinot.segment.spi.creator.SegmentVersion;
+import org.apache.pinot.segment.spi.index.FieldIndexConfigs;
+import org.apache.pinot.segment.spi.index.FieldIndexConfigsUtil;
+import org.apache.pinot.segment.spi.index.ForwardIndexConfig;
+import org.apache.pinot.segment.spi.index.IndexService;
+import org.apache.pinot.segment.spi.index.IndexType;
+import org.apache.pinot.segment.spi.index.RangeIndexConfig;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.segment.spi.index.creator.CombinedInvertedIndexCreator;
+import org.apache.pinot.segment.spi.index.creator.ForwardIndexCreator;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
+import org.apache.pinot.segment.spi.loader.SegmentDirectoryLoaderContext;
+import org.apache.pinot.segment.spi.loader.SegmentDirectoryLoaderRegistry;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.segment.spi.store.SegmentDirectory;
+import org.apache.pinot.segment.spi.utils.SegmentMetadataUtils;
+import org.apache.pinot.spi.config.table.FieldConfig.CompressionCodec;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.env.CommonsConfigurationUtils;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.BigDecimalUtils;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.RoaringBitmapWriter;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Column.BITS_PER_ELEMENT;
+import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Column.CARDINALITY;
+import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Column.DICTIONARY_ELEMENT_SIZE;
+import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Column.MAX_MULTI_VALUE_ELEMENTS;
+import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Column.MAX_VALUE;
+import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Column.MIN_MAX_VALUE_INVALID;
+import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Column.MIN_VALUE;
+import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Column.SHARED_DICTIONARY_VERSION;
+import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Column.TOTAL_DOCS;
+import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Column.TOTAL_NUMBER_OF_ENTRIES;
+import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Column.getKeyFor;
+
+
+/**
+ * Compacts an immutable segment down to the given valid docs (e.g. the docs not replaced by newer records in an upsert
+ * table) by remapping the doc ids of the existing indexes, instead of re-creating the segment from the rows.
+ * <ul>
+ *   <li>Dictionaries are kept as is, or pruned to the values still referenced by the valid docs if configured</li>
+ *   <li>Forward indexes are rewritten with the (remapped) dictionary ids, or the raw values for raw columns</li>
+ *   <li>Inverted indexes and null value vectors are rewritten by remapping the doc ids of their bitmaps</li>
+ *   <li>Range indexes are rewritten with the same version from the forward index values</li>
+ *   <li>Bloom filters are kept as is, which is valid because the valid docs only contain a subset of the values</li>
+ * </ul>
+ * The compacted segment keeps the indexes and the format version of the original segment. Segments with other indexes
+ * (e.g. text, json, star-tree) cannot be compacted this way, in which case {@link #compact(File)} returns {@code null}
+ * and the caller should fall back to re-creating the segment.
+ */
+public class DocIdRemappingSegmentCompactor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DocIdRemappingSegmentCompactor.class);
+  private static final String TEMP_DIR_SUFFIX = ".compaction.tmp";
+
+  private static final Set<IndexType<?, ?, ?>> SUPPORTED_INDEX_TYPES =
+      Set.of(StandardIndexes.forward(), StandardIndexes.dictionary(), StandardIndexes.inverted(),
+          StandardIndexes.range(), StandardIndexes.nullValueVector(), StandardIndexes.bloomFilter());
+
+  private final File _indexDir;
+  private final RoaringBitmap _validDocIds;
+  private final Map<String, FieldIndexConfigs> _indexConfigsByColName;
+  private final boolean _pruneDictionaries;
+
+  /**
+   * @param indexDir Directory of the segment to compact
+   * @param validDocIds Doc ids to keep
+   * @param tableConfig Table config, used for the forward index configs
+   * @param schema Schema of the table
+   * @param pruneDictionaries Whether to remove the dictionary entries not referenced by the valid docs
+   */
+  public DocIdRemappingSegmentCompactor(File indexDir, RoaringBitmap validDocIds, TableConfig tableConfig,
+      Schema schema, boolean pruneDictionaries) {
+    _indexDir = indexDir;
+    _validDocIds = validDocIds;
+    _indexConfigsByColName = FieldIndexConfigsUtil.createIndexConfigsByColName(tableConfig, schema);
+    _pruneDictionaries = pruneDictionaries;
+  }
+
+  /**
+   * Writes the compacted segment into a directory named after the segment under the given output directory, and
+   * returns the compacted segment directory, or {@code null} if the segment cannot be compacted by remapping the doc
+   * ids.
+   */
+  @Nullable
+  public File compact(File outputDir)
+      throws Exception {
+    SegmentMetadataImpl segmentMetadata = new SegmentMetadataImpl(_indexDir);
+    String segmentName = segmentMetadata.getName();
+    int numDocs = _validDocIds.getCardinality();
+    int numDocsBeforeCompaction = segmentMetadata.getTotalDocs();
+    Preconditions.checkArgument(numDocs > 0, "No valid doc for segment: %s", segmentName);
+    Preconditions.checkArgument(_validDocIds.last() < numDocsBeforeCompaction,
+        "Invalid doc id: %s for segment: %s with %s docs", _validDocIds.last(), segmentName, numDocsBeforeCompaction);
+
+    // Map from the old doc id to the new doc id, -1 for the invalid docs
+    int[] docIdMap = new int[numDocsBeforeCompaction];
+    Arrays.fill(docIdMap, -1);
+    PeekableIntIterator iterator = _validDocIds.getIntIterator();
+    int newDocId = 0;
+    while (iterator.hasNext()) {
+      docIdMap[iterator.next()] = newDocId++;
+    }
+
+    File tempDir = new File(outputDir, segmentName + TEMP_DIR_SUFFIX);
+    FileUtils.deleteQuietly(tempDir);
+    FileUtils.forceMkdir(tempDir);
+    try {
+      PropertiesConfiguration properties = SegmentMetadataUtils.getPropertiesConfiguration(_indexDir);
+      try (SegmentDirectory segmentDirectory = loadSegmentDirectory(segmentName);
+          SegmentDirectory.Reader segmentReader = segmentDirectory.createReader()) {
+        String unsupportedReason = getUnsupportedReason(segmentMetadata, segmentReader);
+        if (unsupportedReason != null) {
+          LOGGER.info("Cannot compact segment: {} by remapping doc ids: {}", segmentName, unsupportedReason);
+          return null;
+        }
+        for (ColumnMetadata columnMetadata : segmentMetadata.getColumnMetadataMap().values()) {
+          if (columnMetadata.hasDictionary()) {
+            compactDictionaryEncodedColumn(segmentReader, columnMetadata, docIdMap, tempDir, properties);
+          } else {
+            compactRawColumn(segmentReader, columnMetadata, tempDir, properties);
+          }
+          compactNullValueVector(segmentReader, columnMetadata.getColumnName(), docIdMap, tempDir);
+          String column = columnMetadata.getColumnName();
+          if (segmentReader.hasIndexFor(column, StandardIndexes.bloomFilter())) {
+            copyIndex(segmentReader, column, StandardIndexes.bloomFilter(),
+                new File(tempDir, column + V1Constants.Indexes.BLOOM_FILTER_FILE_EXTENSION));
+          }
+          properties.setProperty(getKeyFor(column, TOTAL_DOCS), String.valueOf(numDocs));
+        }
+      }
+      properties.setProperty(V1Constants.MetadataKeys.Segment.SEGMENT_TOTAL_DOCS, String.valueOf(numDocs));
+      properties.setProperty(V1Constants.MetadataKeys.Segment.SEGMENT_VERSION, SegmentVersion.v1.toString());
+      CommonsConfigurationUtils.saveToFile(properties, new File(tempDir, V1Constants.MetadataKeys.METADATA_FILE_NAME));
+
+      File segmentDir = new File(outputDir, segmentName);
+      FileUtils.deleteQuietly(segmentDir);
+      FileUtils.moveDirectory(tempDir, segmentDir);
+      if (segmentMetadata.getVersion() == SegmentVersion.v3) {
+        SegmentFormatConverterFactory.getConverter(SegmentVersion.v1, SegmentVersion.v3).convert(segmentDir);
+      }
+      // Keep the index creation time of the original segment as both segments contain the same raw data
+      long crc = CrcUtils.forAllFilesInFolder(segmentDir).computeCrc();
+      SegmentIndexCreationDriverImpl.persistCreationMeta(segmentDir, crc, segmentMetadata.getIndexCreationTime());
+      LOGGER.info("Compacted segment: {} from {} docs to {} docs by remapping doc ids", segmentName,
+          numDocsBeforeCompaction, numDocs);
+      return segmentDir;
+    } finally {
+      FileUtils.deleteQuietly(tempDir);
+    }
+  }
+
+  private SegmentDirectory loadSegmentDirectory(String segmentName)
+      throws Exception {
+    Map<String, Object> props = new HashMap<>();
+    props.put(IndexLoadingConfig.READ_MODE_KEY, ReadMode.mmap.toString());
+    return SegmentDirectoryLoaderRegistry.getDefaultSegmentDirectoryLoader().load(_indexDir.toURI(),
+        new SegmentDirectoryLoaderContext.Builder().setSegmentName(segmentName)
+            .setSegmentDirectoryConfigs(new PinotConfiguration(props)).build());
+  }
+
+  /**
+   * Returns the reason why the segment cannot be compacted by remapping the doc ids, or {@code null} if it can.
+   */
+  @Nullable
+  private String getUnsupportedReason(SegmentMetadataImpl segmentMetadata, SegmentDirectory.Reader segmentReader) {
+    if (segmentMetadata.getStarTreeV2MetadataList() != null && !segmentMetadata.getStarTreeV2MetadataList()
+        .isEmpty()) {
+      return "star-tree index";
+    }
+    for (ColumnMetadata columnMetadata : segmentMetadata.getColumnMetadataMap().values()) {
+      String column = columnMetadata.getColumnName();
+      for (IndexType<?, ?, ?> indexType : IndexService.getInstance().getAllIndexes()) {
+        if (!SUPPORTED_INDEX_TYPES.contains(indexType) && segmentReader.hasIndexFor(column, indexType)) {
+          return indexType.getPrettyName() + " index on column: " + column;
+        }
+      }
+      if (!segmentReader.hasIndexFor(column, StandardIndexes.forward())) {
+        return "no forward index on column: " + column;
+      }
+      if (!columnMetadata.hasDictionary()) {
+        if (columnMetadata.getDataType().getStoredType() == DataType.MAP) {
+          return "raw MAP column: " + column;
+        }
+        if (getForwardIndexConfig(column).getCompressionCodec() == CompressionCodec.CLP) {
+          return "CLP compression on column: " + column;
+        }
+        if (segmentReader.hasIndexFor(column, StandardIndexes.inverted())) {
+          return "raw value inverted index on column: " + column;
+        }
+        if (segmentReader.hasIndexFor(column, StandardIndexes.range()) && (columnMetadata.getMinValue() == null
+            || columnMetadata.getMaxValue() == null)) {
+          return "range index without min/max value on raw column: " + column;
+        }
+      }
+    }
+    return null;
+  }
+
+  private ForwardIndexConfig getForwardIndexConfig(String column) {
+    ForwardIndexConfig forwardIndexConfig =
+        _indexConfigsByColName.getOrDefault(column, FieldIndexConfigs.EMPTY).getConfig(StandardIndexes.forward());
+    // The segment has a forward index, so use the default config if it is disabled in the table config
+    return forwardIndexConfig.isEnabled() ? forwardIndexConfig : ForwardIndexConfig.DEFAULT;
+  }
+
+  private void compactDictionaryEncodedColumn(SegmentDirectory.Reader segmentReader, ColumnMetadata columnMetadata,
+      int[] docIdMap, File outputDir, PropertiesConfiguration properties)
+      throws Exception {
+    String column = columnMetadata.getColumnName();
+    boolean isSingleValue = columnMetadata.isSingleValue();
+    int cardinality = columnMetadata.getCardinality();
+    int[] dictIdBuffer = isSingleValue ? null : new int[columnMetadata.getMaxNumberOfMultiValues()];
+    try (ForwardIndexReader forwardIndexReader = ForwardIndexType.read(segmentReader, columnMetadata);
+        Dictionary dictionary = DictionaryIndexType.read(segmentReader, columnMetadata)) {
+      // First pass: collect the number of entries and the dictionary ids used by the valid docs
+      int totalNumberOfEntries = 0;
+      int maxNumMultiValues = 0;
+      RoaringBitmap usedDictIds = _pruneDictionaries ? new RoaringBitmap() : null;
+      if (!isSingleValue || usedDictIds != null) {
+        try (ForwardIndexReaderContext readerContext = forwardIndexReader.createContext()) {
+          PeekableIntIterator iterator = _validDocIds.getIntIterator();
+          while (iterator.hasNext()) {
+            int docId = iterator.next();
+            if (isSingleValue) {
+              usedDictIds.add(forwardIndexReader.getDictId(docId, readerContext));
+            } else {
+              int numValues = forwardIndexReader.getDictIdMV(docId, dictIdBuffer, readerContext);
+              totalNumberOfEntries += numValues;
+              maxNumMultiValues = Math.max(maxNumMultiValues, numValues);
+              if (usedDictIds != null) {
+                usedDictIds.addN(dictIdBuffer, 0, numValues);
+              }
+            }
+          }
+        }
+      }
+      int numDocs = _validDocIds.getCardinality();
+      if (isSingleValue) {
+        totalNumberOfEntries = numDocs;
+        maxNumMultiValues = columnMetadata.getMaxNumberOfMultiValues();
+      } else {
+        properties.setProperty(getKeyFor(column, MAX_MULTI_VALUE_ELEMENTS), String.valueOf(maxNumMultiValues));
+      }
+      properties.setProperty(getKeyFor(column, TOTAL_NUMBER_OF_ENTRIES), String.valueOf(totalNumberOfEntries));
+
+      // Dictionary: keep it as is, or prune the unused entries and map the old dictionary ids to the new ones
+      int[] dictIdMap = null;
+      int newCardinality = cardinality;
+      if (usedDictIds != null && usedDictIds.getCardinality() < cardinality) {
+        int[] sortedUsedDictIds = usedDictIds.toArray();
+        newCardinality = sortedUsedDictIds.length;
+        dictIdMap = new int[cardinality];
+        Arrays.fill(dictIdMap, -1);
+        for (int i = 0; i < newCardinality; i++) {
+          dictIdMap[sortedUsedDictIds[i]] = i;
+        }
+        pruneDictionary(segmentReader, columnMetadata, dictionary, sortedUsedDictIds, outputDir, properties);
+      } else {
+        copyIndex(segmentReader, column, StandardIndexes.dictionary(),
+            new File(outputDir, column + DictionaryIndexType.getFileExtension()));
+      }
+
+      IndexCreationContext context = IndexCreationContext.builder().withIndexDir(outputDir)
+          .withColumnMetadata(columnMetadata).withTotalDocs(numDocs).withCardinality(newCardinality)
+          .withTotalNumberOfEntries(totalNumberOfEntries).withMaxNumberOfMultiValueElements(maxNumMultiValues)
+          .build();
+
+      // Second pass: write the forward index and the range index with the remapped dictionary ids
+      boolean hasRangeIndex = segmentReader.hasIndexFor(column, StandardIndexes.range());
+      try (ForwardIndexCreator forwardIndexCreator = StandardIndexes.forward()
+          .createIndexCreator(context, getForwardIndexConfig(column));
+          CombinedInvertedIndexCreator rangeIndexCreator = hasRangeIndex ? StandardIndexes.range()
+              .createIndexCreator(context, new RangeIndexConfig(getRangeIndexVersion(segmentReader, column))) : null;
+          ForwardIndexReaderContext readerContext = forwardIndexReader.createContext()) {
+        PeekableIntIterator iterator = _validDocIds.getIntIterator();
+        while (iterator.hasNext()) {
+          int docId = iterator.next();
+          if (isSingleValue) {
+            int dictId = forwardIndexReader.getDictId(docId, readerContext);
+            if (dictIdMap != null) {
+              dictId = dictIdMap[dictId];
+            }
+            forwardIndexCreator.putDictId(dictId);
+            if (rangeIndexCreator != null) {
+              rangeIndexCreator.add(dictId);
+            }
+          } else {
+            int numValues = forwardIndexReader.getDictIdMV(docId, dictIdBuffer, readerContext);
+            int[] dictIds = Arrays.copyOf(dictIdBuffer, numValues);
+            if (dictIdMap != null) {
+              for (int i = 0; i < numValues; i++) {
+                dictIds[i] = dictIdMap[dictIds[i]];
+              }
+            }
+            forwardIndexCreator.putDictIdMV(dictIds);
+            if (rangeIndexCreator != null) {
+              rangeIndexCreator.add(dictIds, numValues);
+            }
+          }
+        }
+        forwardIndexCreator.seal();
+        if (rangeIndexCreator != null) {
+          rangeIndexCreator.seal();
+        }
+      }
+
+      // Inverted index of a sorted column is served by the forward index
+      if (segmentReader.hasIndexFor(column, StandardIndexes.inverted()) && !(isSingleValue
+          && columnMetadata.isSorted())) {
+        PinotDataBuffer invertedIndexBuffer = segmentReader.getIndexFor(column, StandardIndexes.inverted());
+        File invertedIndexFile = new File(outputDir, column + V1Constants.Indexes.BITMAP_INVERTED_INDEX_FILE_EXTENSION);
+        // Keep the format of the inverted index
+        if (DensityAwareBitmapInvertedIndexReader.isDensityAwareBuffer(invertedIndexBuffer)) {
+          try (DensityAwareBitmapInvertedIndexReader invertedIndexReader = new DensityAwareBitmapInvertedIndexReader(
+              invertedIndexBuffer, cardinality);
+              DensityAwareBitmapInvertedIndexWriter invertedIndexWriter = new DensityAwareBitmapInvertedIndexWriter(
+                  invertedIndexFile, newCardinality, numDocs)) {
+            for (int dictId = 0; dictId < cardinality; dictId++) {
+              if (dictIdMap == null || dictIdMap[dictId] >= 0) {
+                invertedIndexWriter.add(remapDocIds(invertedIndexReader.getDocIds(dictId), docIdMap));
+              }
+            }
+          }
+        } else {
+          try (BitmapInvertedIndexReader invertedIndexReader = new BitmapInvertedIndexReader(invertedIndexBuffer,
+              cardinality);
+              BitmapInvertedIndexWriter invertedIndexWriter = new BitmapInvertedIndexWriter(invertedIndexFile,
+                  newCardinality)) {
+            for (int dictId = 0; dictId < cardinality; dictId++) {
+              if (dictIdMap == null || dictIdMap[dictId] >= 0) {
+                invertedIndexWriter.add(remapDocIds(invertedIndexReader.getDocIds(dictId), docIdMap));
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private static void pruneDictionary(SegmentDirectory.Reader segmentReader, ColumnMetadata columnMetadata,
+      Dictionary dictionary, int[] sortedUsedDictIds, File outputDir, PropertiesConfiguration properties)
+      throws IOException {
+    String column = columnMetadata.getColumnName();
+    DataType storedType = columnMetadata.getDataType().getStoredType();
+    PinotDataBuffer dictionaryBuffer = segmentReader.getIndexFor(column, StandardIndexes.dictionary());
+    boolean useVarLengthDictionary = VarLengthValueReader.isVarLengthValueBuffer(dictionaryBuffer);
+    int frontCodingBucketSize = FrontCodedValueReader.isFrontCodedValueBuffer(dictionaryBuffer)
+        ? new FrontCodedValueReader(dictionaryBuffer).getBucketSize() : 0;
+    try (SegmentDictionaryCreator dictionaryCreator = new SegmentDictionaryCreator(columnMetadata.getFieldSpec(),
+        outputDir, useVarLengthDictionary, frontCodingBucketSize)) {
+      dictionaryCreator.build(getSortedValues(dictionary, storedType, sortedUsedDictIds));
+      properties.setProperty(getKeyFor(column, DICTIONARY_ELEMENT_SIZE),
+          String.valueOf(dictionaryCreator.getNumBytesPerEntry()));
+    }
+    int cardinality = sortedUsedDictIds.length;
+    properties.setProperty(getKeyFor(column, CARDINALITY), String.valueOf(cardinality));
+    properties.setProperty(getKeyFor(column, BITS_PER_ELEMENT),
+        String.valueOf(PinotDataBitSet.getNumBitsPerValue(cardinality - 1)));
+    properties.clearProperty(getKeyFor(column, MIN_VALUE));
+    properties.clearProperty(getKeyFor(column, MAX_VALUE));
+    properties.clearProperty(getKeyFor(column, MIN_MAX_VALUE_INVALID));
+    // The pruned dictionary no longer shares the dictionary ids with the table-level shared dictionary
+    properties.clearProperty(getKeyFor(column, SHARED_DICTIONARY_VERSION));
+    SegmentColumnarIndexCreator.addColumnMinMaxValueInfo(properties, column,
+        dictionary.getInternal(sortedUsedDictIds[0]), dictionary.getInternal(sortedUsedDictIds[cardinality - 1]),
+        storedType);
+  }
+
+  private static Object getSortedValues(Dictionary dictionary, DataType storedType, int[] sortedDictIds) {
+    int numValues = sortedDictIds.length;
+    switch (storedType) {
+      case INT:
+        int[] intValues = new int[numValues];
+        for (int i = 0; i < numValues; i++) {
+          intValues[i] = dictionary.getIntValue(sortedDictIds[i]);
+        }
+        return intValues;
+      case LONG:
+        long[] longValues = new long[numValues];
+        for (int i = 0; i < numValues; i++) {
+          longValues[i] = dictionary.getLongValue(sortedDictIds[i]);
+        }
+        return longValues;
+      case FLOAT:
+        float[] floatValues = new float[numValues];
+        for (int i = 0; i < numValues; i++) {
+          floatValues[i] = dictionary.getFloatValue(sortedDictIds[i]);
+        }
+        return floatValues;
+      case DOUBLE:
+        double[] doubleValues = new double[numValues];
+        for (int i = 0; i < numValues; i++) {
+          doubleValues[i] = dictionary.getDoubleValue(sortedDictIds[i]);
+        }
+        return doubleValues;
+      case BIG_DECIMAL:
+        BigDecimal[] bigDecimalValues = new BigDecimal[numValues];
+        for (int i = 0; i < numValues; i++) {
+          bigDecimalValues[i] = dictionary.getBigDecimalValue(sortedDictIds[i]);
+        }
+        return bigDecimalValues;
+      case STRING:
+        String[] stringValues = new String[numValues];
+        for (int i = 0; i < numValues; i++) {
+          stringValues[i] = dictionary.getStringValue(sortedDictIds[i]);
+        }
+        return stringValues;
+      case BYTES:
+        ByteArray[] bytesValues = new ByteArray[numValues];
+        for (int i = 0; i < numValues; i++) {
+          bytesValues[i] = dictionary.getByteArrayValue(sortedDictIds[i]);
+        }
+        return bytesValues;
+      default:
+        throw new IllegalStateException("Unsupported stored type for dictionary: " + storedType);
+    }
+  }
+
+  private void compactRawColumn(SegmentDirectory.Reader segmentReader, ColumnMetadata columnMetadata, File outputDir,
+      PropertiesConfiguration properties)
+      throws Exception {
+    String column = columnMetadata.getColumnName();
+    boolean isSingleValue = columnMetadata.isSingleValue();
+    DataType storedType = columnMetadata.getDataType().getStoredType();
+    int numDocs = _validDocIds.getCardinality();
+    try (ForwardIndexReader forwardIndexReader = ForwardIndexType.read(segmentReader, columnMetadata);
+        PinotSegmentColumnReader columnReader = new PinotSegmentColumnReader(forwardIndexReader, null, null,
+            columnMetadata.getMaxNumberOfMultiValues())) {
+      // First pass: collect the value lengths needed to size the raw forward index
+      int totalNumberOfEntries = numDocs;
+      int maxNumMultiValues = columnMetadata.getMaxNumberOfMultiValues();
+      int lengthOfLongestEntry = 0;
+      int maxRowLengthInBytes = 0;
+      if (!isSingleValue || !storedType.isFixedWidth()) {
+        totalNumberOfEntries = 0;
+        maxNumMultiValues = 0;
+        PeekableIntIterator iterator = _validDocIds.getIntIterator();
+        while (iterator.hasNext()) {
+          Object value = columnReader.getValue(iterator.next());
+          if (isSingleValue) {
+            lengthOfLongestEntry = Math.max(lengthOfLongestEntry, getValueSize(value, storedType));
+            totalNumberOfEntries++;
+          } else {
+            Object[] values = (Object[]) value;
+            int rowLength = 0;
+            for (Object element : values) {
+              int valueSize = getValueSize(element, storedType);
+              lengthOfLongestEntry = Math.max(lengthOfLongestEntry, valueSize);
+              rowLength += valueSize;
+            }
+            maxRowLengthInBytes = Math.max(maxRowLengthInBytes, rowLength);
+            totalNumberOfEntries += values.length;
+            maxNumMultiValues = Math.max(maxNumMultiValues, values.length);
+          }
+        }
+        if (!isSingleValue) {
+          properties.setProperty(getKeyFor(column, MAX_MULTI_VALUE_ELEMENTS), String.valueOf(maxNumMultiValues));
+        }
+      }
+      properties.setProperty(getKeyFor(column, TOTAL_NUMBER_OF_ENTRIES), String.valueOf(totalNumberOfEntries));
+
+      IndexCreationContext context = IndexCreationContext.builder().withIndexDir(outputDir)
+          .withColumnMetadata(columnMetadata).withTotalDocs(numDocs).withTotalNumberOfEntries(totalNumberOfEntries)
+          .withMaxNumberOfMultiValueElements(maxNumMultiValues).withLengthOfLongestEntry(lengthOfLongestEntry)
+          .withMaxRowLengthInBytes(maxRowLengthInBytes).build();
+
+      // Second pass: write the forward index and the range index with the raw values
+      boolean hasRangeIndex = segmentReader.hasIndexFor(column, StandardIndexes.range());
+      try (ForwardIndexCreator forwardIndexCreator = StandardIndexes.forward()
+          .createIndexCreator(context, getForwardIndexConfig(column));
+          CombinedInvertedIndexCreator rangeIndexCreator = hasRangeIndex ? StandardIndexes.range()
+              .createIndexCreator(context, new RangeIndexConfig(getRangeIndexVersion(segmentReader, column))) : null) {
+        PeekableIntIterator iterator = _validDocIds.getIntIterator();
+        while (iterator.hasNext()) {
+          Object value = columnReader.getValue(iterator.next());
+          if (isSingleValue) {
+            forwardIndexCreator.add(value, -1);
+            if (rangeIndexCreator != null) {
+              rangeIndexCreator.add(value, -1);
+            }
+          } else {
+            forwardIndexCreator.add((Object[]) value, null);
+            if (rangeIndexCreator != null) {
+              rangeIndexCreator.add((Object[]) value, null);
+            }
+          }
+        }
+        forwardIndexCreator.seal();
+        if (rangeIndexCreator != null) {
+          rangeIndexCreator.seal();
+        }
+      }
+    }
+  }
+
+  private static int getValueSize(Object value, DataType storedType) {
+    switch (storedType) {
+      case BIG_DECIMAL:
+        return BigDecimalUtils.byteSize((BigDecimal) value);
+      case STRING:
+        return ((String) value).getBytes(UTF_8).length;
+      case BYTES:
+        return ((byte[]) value).length;
+      default:
+        return storedType.size();
+    }
+  }
+
+  private static int getRangeIndexVersion(SegmentDirectory.Reader segmentReader, String column)
+      throws IOException {
+    // The first int of the range index is the version for both the range index and the bit sliced range index
+    return segmentReader.getIndexFor(column, StandardIndexes.range()).getInt(0);
+  }
+
+  private void compactNullValueVector(SegmentDirectory.Reader segmentReader, String column, int[] docIdMap,
+      File outputDir)
+      throws IOException {
+    if (!segmentReader.hasIndexFor(column, StandardIndexes.nullValueVector())) {
+      return;
+    }
+    ImmutableRoaringBitmap nullBitmap =
+        new NullValueVectorReaderImpl(segmentReader.getIndexFor(column, StandardIndexes.nullValueVector()))
+            .getNullBitmap();
+    try (NullValueVectorCreator nullValueVectorCreator = new NullValueVectorCreator(outputDir, column)) {
+      PeekableIntIterator iterator = nullBitmap.getIntIterator();
+      while (iterator.hasNext()) {
+        int newDocId = docIdMap[iterator.next()];
+        if (newDocId >= 0) {
+          nullValueVectorCreator.setNull(newDocId);
+        }
+      }
+      nullValueVectorCreator.seal();
+    }
+  }
+
+  private static RoaringBitmap remapDocIds(ImmutableRoaringBitmap docIds, int[] docIdMap) {
+    // Doc ids are remapped in order, so the remapped doc ids can be appended
+    RoaringBitmapWriter<RoaringBitmap> bitmapWriter = RoaringBitmapWriter.writer().get();
+    PeekableIntIterator iterator = docIds.getIntIterator();
+    while (iterator.hasNext()) {
+      int newDocId = docIdMap[iterator.next()];
+      if (newDocId >= 0) {
+        bitmapWriter.add(newDocId);
+      }
+    }
+    return bitmapWriter.get();
+  }
+
+  private static void copyIndex(SegmentDirectory.Reader segmentReader, String column, IndexType<?, ?, ?> indexType,
+      File indexFile)
+      throws IOException {
+    PinotDataBuffer dataBuffer = segmentReader.getIndexFor(column, indexType);
+    long size = dataBuffer.size();
+    try (PinotDataBuffer newDataBuffer = PinotDataBuffer.mapFile(indexFile, false, 0, size, ByteOrder.BIG_ENDIAN,
+        "DocIdRemappingSegmentCompactor: " + column + indexType.getId())) {
+      dataBuffer.copyTo(0, newDataBuffer, 0, size);
+    }
+  }
+}
@@ -68,8 +68,10 @@ import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.FieldSpec.FieldType;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.env.CommonsConfigurationUtils;
+import org.apache.pinot.spi.utils.JsonShreddingUtils;
 import org.apache.pinot.spi.utils.TimeUtils;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Interval;
@@ -88,6 +90,7 @@ import static org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Segment.*;
 public class SegmentColumnarIndexCreator implements SegmentCreator {
   // TODO Refactor class name to match interface name
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentColumnarIndexCreator.class);
+  private static final int PRIMITIVE_BATCH_SIZE = 1024;
   // Allow at most 512 characters for the metadata property
   static final int METADATA_PROPERTY_LENGTH_LIMIT = 512;
   private SegmentGeneratorConfig _config;
@@ -143,9 +146,12 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       ColumnIndexCreationInfo columnIndexCreationInfo = indexCreationInfoMap.get(columnName);
       Preconditions.checkNotNull(columnIndexCreationInfo, "Missing index creation info for column: %s", columnName);
       boolean dictEnabledColumn = createDictionaryForColumn(columnIndexCreationInfo, segmentCreationSpec, fieldSpec);
-      if (originalConfig.getConfig(StandardIndexes.inverted()).isEnabled()) {
-        Preconditions.checkState(dictEnabledColumn,
-            "Cannot create inverted index for raw index column: %s", columnName);
+      if (originalConfig.getConfig(StandardIndexes.inverted()).isEnabled() && !dictEnabledColumn
+          && columnIndexCreationInfo.getSortedUniqueElementsArray() == null) {
+        // Raw columns are indexed by value (see RawValueBitmapInvertedIndexCreator), which requires the unique values.
+        // They are not tracked once the raw value inverted index of the consuming segment reaches its memory limit.
+        LOGGER.warn("Skipping inverted index for raw column: {} without unique values", columnName);
+        originalConfig = new FieldIndexConfigs.Builder(originalConfig).undeclare(StandardIndexes.inverted()).build();
       }
 
       IndexType<ForwardIndexConfig, ?, ForwardIndexCreator> forwardIdx = StandardIndexes.forward();
@@ -160,6 +166,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           .withColumnIndexCreationInfo(columnIndexCreationInfo)
           .withOptimizedDictionary(_config.isOptimizeDictionary()
               || _config.isOptimizeDictionaryForMetrics() && fieldSpec.getFieldType() == FieldSpec.FieldType.METRIC)
+          .withDensityAwareInvertedIndex(_config.isDensityAwareInvertedIndex())
           .onHeap(segmentCreationSpec.isOnHeap())
           .withForwardIndexDisabled(forwardIndexDisabled)
           .withTextCommitOnClose(true)
@@ -240,6 +247,10 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   }
 
   private boolean isNullable(FieldSpec fieldSpec) {
+    // Shredded JSON columns always track the missing JSON paths so that queries can tell them apart from the values
+    if (JsonShreddingUtils.isShreddedColumn(fieldSpec.getName())) {
+      return true;
+    }
     return _schema.isEnableColumnBasedNullHandling() ? fieldSpec.isNullable() : _config.isDefaultNullHandlingEnabled();
   }
 
@@ -381,6 +392,155 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     }
   }
 
+  @Override
+  public void indexColumn(String columnName, ColumnReader columnReader)
+      throws IOException {
+    Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex = _creatorsByColAndIndex.get(columnName);
+    NullValueVectorCreator nullVec = _nullValueVectorCreatorMap.get(columnName);
+    FieldSpec fieldSpec = _schema.getFieldSpecFor(columnName);
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+    if (columnReader.getPrimitiveBatchType() != null) {
+      indexPrimitiveColumn(columnReader, dictionaryCreator, creatorsByIndex, nullVec);
+      return;
+    }
+    int docId = 0;
+    while (columnReader.hasNext()) {
+      Object columnValueToIndex = columnReader.next();
+      if (columnValueToIndex == null) {
+        throw new RuntimeException("Null value for column:" + columnName);
+      }
+      try {
+        if (fieldSpec.isSingleValueField()) {
+          indexSingleValueRow(dictionaryCreator, columnValueToIndex, creatorsByIndex);
+        } else {
+          indexMultiValueRow(dictionaryCreator, (Object[]) columnValueToIndex, creatorsByIndex);
+        }
+      } catch (JsonParseException jpe) {
+        throw new ColumnJsonParserException(columnName, jpe);
+      }
+      if (nullVec != null && columnReader.isNull()) {
+        nullVec.setNull(docId);
+      }
+      docId++;
+    }
+  }
+
+  /**
+   * Indexes a single-value primitive column read in batches. The values are put into the dictionary and the forward
+   * index without boxing, and are only boxed for the other indexes of the column.
+   */
+  private void indexPrimitiveColumn(ColumnReader columnReader, @Nullable SegmentDictionaryCreator dictionaryCreator,
+      Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex, @Nullable NullValueVectorCreator nullVec)
+      throws IOException {
+    ForwardIndexCreator forwardIndexCreator = null;
+    List<IndexCreator> otherCreators = new ArrayList<>();
+    for (IndexCreator creator : creatorsByIndex.values()) {
+      if (creator instanceof ForwardIndexCreator) {
+        forwardIndexCreator = (ForwardIndexCreator) creator;
+      } else {
+        otherCreators.add(creator);
+      }
+    }
+    boolean[] nulls = new boolean[PRIMITIVE_BATCH_SIZE];
+    int docId = 0;
+    int numValues;
+    switch (columnReader.getPrimitiveBatchType()) {
+      case INT:
+        int[] intValues = new int[PRIMITIVE_BATCH_SIZE];
+        while ((numValues = columnReader.nextIntBatch(intValues, nulls)) > 0) {
+          for (int i = 0; i < numValues; i++) {
+            int value = intValues[i];
+            int dictId = dictionaryCreator != null ? dictionaryCreator.indexOfSV(value) : -1;
+            if (forwardIndexCreator != null) {
+              if (dictId >= 0) {
+                forwardIndexCreator.putDictId(dictId);
+              } else {
+                forwardIndexCreator.putInt(value);
+              }
+            }
+            for (IndexCreator creator : otherCreators) {
+              creator.add(value, dictId);
+            }
+          }
+          docId = setNulls(nullVec, nulls, numValues, docId);
+        }
+        break;
+      case LONG:
+        long[] longValues = new long[PRIMITIVE_BATCH_SIZE];
+        while ((numValues = columnReader.nextLongBatch(longValues, nulls)) > 0) {
+          for (int i = 0; i < numValues; i++) {
+            long value = longValues[i];
+            int dictId = dictionaryCreator != null ? dictionaryCreator.indexOfSV(value) : -1;
+            if (forwardIndexCreator != null) {
+              if (dictId >= 0) {
+                forwardIndexCreator.putDictId(dictId);
+              } else {
+                forwardIndexCreator.putLong(value);
+              }
+            }
+            for (IndexCreator creator : otherCreators) {
+              creator.add(value, dictId);
+            }
+          }
+          docId = setNulls(nullVec, nulls, numValues, docId);
+        }
+        break;
+      case FLOAT:
+        float[] floatValues = new float[PRIMITIVE_BATCH_SIZE];
+        while ((numValues = columnReader.nextFloatBatch(floatValues, nulls)) > 0) {
+          for (int i = 0; i < numValues; i++) {
+            float value = floatValues[i];
+            int dictId = dictionaryCreator != null ? dictionaryCreator.indexOfSV(value) : -1;
+            if (forwardIndexCreator != null) {
+              if (dictId >= 0) {
+                forwardIndexCreator.putDictId(dictId);
+              } else {
+                forwardIndexCreator.putFloat(value);
+              }
+            }
+            for (IndexCreator creator : otherCreators) {
+              creator.add(value, dictId);
+            }
+          }
+          docId = setNulls(nullVec, nulls, numValues, docId);
+        }
+        break;
+      case DOUBLE:
+        double[] doubleValues = new double[PRIMITIVE_BATCH_SIZE];
+        while ((numValues = columnReader.nextDoubleBatch(doubleValues, nulls)) > 0) {
+          for (int i = 0; i < numValues; i++) {
+            double value = doubleValues[i];
+            int dictId = dictionaryCreator != null ? dictionaryCreator.indexOfSV(value) : -1;
+            if (forwardIndexCreator != null) {
+              if (dictId >= 0) {
+                forwardIndexCreator.putDictId(dictId);
+              } else {
+                forwardIndexCreator.putDouble(value);
+              }
+            }
+            for (IndexCreator creator : otherCreators) {
+              creator.add(value, dictId);
+            }
+          }
+          docId = setNulls(nullVec, nulls, numValues, docId);
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unsupported primitive batch type: " + columnReader.getPrimitiveBatchType());
+    }
+  }
+
+  private static int setNulls(@Nullable NullValueVectorCreator nullVec, boolean[] nulls, int numValues, int docId) {
+    if (nullVec != null) {
+      for (int i = 0; i < numValues; i++) {
+        if (nulls[i]) {
+          nullVec.setNull(docId + i);
+        }
+      }
+    }
+    return docId + numValues;
+  }
+
   private void indexColumnValue(PinotSegmentColumnReader colReader,
       Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex, String columnName, FieldSpec fieldSpec,
       SegmentDictionaryCreator dictionaryCreator, int sourceDocId, int onDiskDocPos,
@@ -598,6 +758,10 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         String.valueOf(columnIndexCreationInfo.getTotalNumberOfEntries()));
     properties.setProperty(getKeyFor(column, IS_AUTO_GENERATED),
         String.valueOf(columnIndexCreationInfo.isAutoGenerated()));
+    int sharedDictionaryVersion = columnIndexCreationInfo.getSharedDictionaryVersion();
+    if (hasDictionary && sharedDictionaryVersion >= 0) {
+      properties.setProperty(getKeyFor(column, SHARED_DICTIONARY_VERSION), String.valueOf(sharedDictionaryVersion));
+    }
     if (dataType.equals(DataType.STRING) || dataType.equals(DataType.BYTES) || dataType.equals(DataType.JSON)) {
       properties.setProperty(getKeyFor(column, SCHEMA_MAX_LENGTH), fieldSpec.getMaxLength());
       FieldSpec.MaxLengthExceedStrategy maxLengthExceedStrategy = fieldSpec.getMaxLengthExceedStrategy();
@@ -32,6 +32,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.segment.local.io.util.FixedByteValueReaderWriter;
+import org.apache.pinot.segment.local.io.util.FrontCodedValueWriter;
 import org.apache.pinot.segment.local.io.util.VarLengthValueWriter;
 import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexType;
 import org.apache.pinot.segment.spi.index.IndexCreator;
@@ -62,6 +63,7 @@ public class SegmentDictionaryCreator implements IndexCreator {
   private final DataType _storedType;
   private final File _dictionaryFile;
   private final boolean _useVarLengthDictionary;
+  private final int _frontCodingBucketSize;
 
   private Int2IntOpenHashMap _intValueToIndexMap;
   private Long2IntOpenHashMap _longValueToIndexMap;
@@ -76,13 +78,24 @@ public class SegmentDictionaryCreator implements IndexCreator {
     _storedType = storedType;
     _dictionaryFile = indexFile;
     _useVarLengthDictionary = useVarLengthDictionary;
+    _frontCodingBucketSize = 0;
   }
 
   public SegmentDictionaryCreator(FieldSpec fieldSpec, File indexDir, boolean useVarLengthDictionary) {
+    this(fieldSpec, indexDir, useVarLengthDictionary, 0);
+  }
+
+  /**
+   * @param frontCodingBucketSize when positive, STRING and BYTES values are front-coded in buckets of this many values,
+   *                              see {@link FrontCodedValueWriter}
+   */
+  public SegmentDictionaryCreator(FieldSpec fieldSpec, File indexDir, boolean useVarLengthDictionary,
+      int frontCodingBucketSize) {
     _columnName = fieldSpec.getName();
     _storedType = fieldSpec.getDataType().getStoredType();
     _dictionaryFile = new File(indexDir, _columnName + DictionaryIndexType.getFileExtension());
     _useVarLengthDictionary = useVarLengthDictionary;
+    _frontCodingBucketSize = frontCodingBucketSize;
   }
 
   @Override
@@ -264,7 +277,16 @@ public class SegmentDictionaryCreator implements IndexCreator {
    */
   private void writeBytesValueDictionary(byte[][] bytesValues)
       throws IOException {
-    if (_useVarLengthDictionary) {
+    if (_frontCodingBucketSize > 0 && (_storedType == DataType.STRING || _storedType == DataType.BYTES)) {
+      try (FrontCodedValueWriter writer = new FrontCodedValueWriter(_dictionaryFile, bytesValues.length,
+          _frontCodingBucketSize)) {
+        for (byte[] value : bytesValues) {
+          writer.add(value);
+        }
+      }
+      LOGGER.info("Using front-coded dictionary with bucket size: {} for column: {}, size: {}", _frontCodingBucketSize,
+          _columnName, _dictionaryFile.length());
+    } else if (_useVarLengthDictionary) {
       try (VarLengthValueWriter writer = new VarLengthValueWriter(_dictionaryFile, bytesValues.length)) {
         for (byte[] value : bytesValues) {
           writer.add(value);
@@ -310,6 +332,25 @@ public class SegmentDictionaryCreator implements IndexCreator {
     }
   }
 
+  /**
+   * Returns the dictionary id of the given INT value without boxing it.
+   */
+  public int indexOfSV(int value) {
+    return _intValueToIndexMap.get(value);
+  }
+
+  public int indexOfSV(long value) {
+    return _longValueToIndexMap.get(value);
+  }
+
+  public int indexOfSV(float value) {
+    return _floatValueToIndexMap.get(value);
+  }
+
+  public int indexOfSV(double value) {
+    return _doubleValueToIndexMap.get(value);
+  }
+
   public int[] indexOfMV(Object value) {
     Object[] multiValues = (Object[]) value;
     int[] indexes = new int[multiValues.length];
@@ -38,8 +38,10 @@ import org.apache.commons.io.FileUtils;
 import org.apache.pinot.segment.local.realtime.converter.stats.RealtimeSegmentSegmentCreationDataSource;
 import org.apache.pinot.segment.local.recordtransformer.ComplexTypeTransformer;
 import org.apache.pinot.segment.local.recordtransformer.RecordTransformer;
+import org.apache.pinot.segment.local.segment.creator.ColumnarSegmentCreationDataSource;
 import org.apache.pinot.segment.local.segment.creator.RecordReaderSegmentCreationDataSource;
 import org.apache.pinot.segment.local.segment.creator.TransformPipeline;
+import org.apache.pinot.segment.local.segment.creator.impl.stats.SharedDictionaryColumnStatistics;
 import org.apache.pinot.segment.local.segment.index.converter.SegmentFormatConverterFactory;
 import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexType;
 import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
@@ -47,6 +49,7 @@ import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
 import org.apache.pinot.segment.local.startree.v2.builder.MultipleTreesBuilder;
 import org.apache.pinot.segment.local.utils.CrcUtils;
 import org.apache.pinot.segment.local.utils.IngestionUtils;
+import org.apache.pinot.segment.local.utils.JsonShreddingPathDetector;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.converter.SegmentFormatConverter;
@@ -58,6 +61,7 @@ import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
 import org.apache.pinot.segment.spi.creator.SegmentIndexCreationDriver;
 import org.apache.pinot.segment.spi.creator.SegmentPreIndexStatsContainer;
 import org.apache.pinot.segment.spi.creator.SegmentVersion;
+import org.apache.pinot.segment.spi.creator.SharedDictionary;
 import org.apache.pinot.segment.spi.creator.StatsCollectorConfig;
 import org.apache.pinot.segment.spi.index.DictionaryIndexConfig;
 import org.apache.pinot.segment.spi.index.FieldIndexConfigs;
@@ -77,6 +81,8 @@ import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.IngestionSchemaValidator;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.SchemaValidatorFactory;
+import org.apache.pinot.spi.data.readers.ColumnReader;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
 import org.apache.pinot.spi.data.readers.FileFormat;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.RecordReader;
@@ -162,9 +168,23 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
 
   public void init(SegmentGeneratorConfig config, RecordReader recordReader)
       throws Exception {
-    SegmentCreationDataSource dataSource = new RecordReaderSegmentCreationDataSource(recordReader);
-    init(config, dataSource, RecordEnricherPipeline.fromTableConfig(config.getTableConfig()),
-        new TransformPipeline(config.getTableConfig(), config.getSchema()));
+    TableConfig tableConfig = config.getTableConfig();
+    // Detect the JSON paths to shred before creating the transform pipeline, which fills the shredded columns. The
+    // detected columns are added to a copy of the schema, which might be shared with other segments.
+    Schema schema = JsonShreddingPathDetector.detectShreddedColumns(tableConfig, config.getSchema(), recordReader);
+    if (schema != config.getSchema()) {
+      config.setSchema(schema);
+    }
+    SegmentCreationDataSource dataSource;
+    if (config.isColumnarIngestion() && ColumnarSegmentCreationDataSource.isSupported(recordReader, tableConfig,
+        schema)) {
+      LOGGER.info("Creating segment column by column from record reader: {}", recordReader.getClass().getSimpleName());
+      dataSource = new ColumnarSegmentCreationDataSource((ColumnarRecordReader) recordReader, tableConfig, schema);
+    } else {
+      dataSource = new RecordReaderSegmentCreationDataSource(recordReader);
+    }
+    init(config, dataSource, RecordEnricherPipeline.fromTableConfig(tableConfig), new TransformPipeline(tableConfig,
+        schema));
   }
 
   @Deprecated
@@ -246,6 +266,11 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
   @Override
   public void build()
       throws Exception {
+    if (_dataSource instanceof ColumnarSegmentCreationDataSource) {
+      buildByColumn((ColumnarSegmentCreationDataSource) _dataSource);
+      return;
+    }
+
     // Count the number of documents and gather per-column statistics
     LOGGER.debug("Start building StatsCollector!");
     collectStatsAndIndexCreationInfo();
@@ -365,6 +390,43 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     handlePostCreation();
   }
 
+  /**
+   * Builds the segment column by column from the columnar data source, where each column is read separately and there
+   * is no per-record transform.
+   */
+  private void buildByColumn(ColumnarSegmentCreationDataSource dataSource)
+      throws Exception {
+    // Count the number of documents and gather per-column statistics
+    LOGGER.debug("Start building StatsCollector!");
+    collectStatsAndIndexCreationInfo();
+    LOGGER.info("Finished building StatsCollector!");
+    LOGGER.info("Collected stats for {} documents", _totalDocs);
+
+    try {
+      // Initialize the index creation using the per-column statistics information
+      _indexCreator.init(_config, _segmentIndexCreationInfo, _indexCreationInfoMap, _dataSchema, _tempIndexDir, null);
+
+      // Build the indexes
+      LOGGER.info("Start building Index by column from columnar record reader");
+      long indexStartTimeNs = System.nanoTime();
+      for (String column : _dataSchema.getPhysicalColumnNames()) {
+        try (ColumnReader columnReader = dataSource.getColumnReader(column)) {
+          _indexCreator.indexColumn(column, columnReader);
+        }
+      }
+      _totalIndexTimeNs = System.nanoTime() - indexStartTimeNs;
+    } catch (Exception e) {
+      _indexCreator.close();
+      throw e;
+    } finally {
+      _recordReader.close();
+    }
+
+    LOGGER.info("Finished records indexing by column in IndexCreator!");
+
+    handlePostCreation();
+  }
+
   private void handlePostCreation()
       throws Exception {
     ColumnStatistics timeColumnStatistics = _segmentStats.getColumnProfileFor(_config.getTimeColumnName());
@@ -541,6 +603,7 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
         new StatsCollectorConfig(_config.getTableConfig(), _dataSchema, _config.getSegmentPartitionConfig()));
     _totalDocs = _segmentStats.getTotalDocCount();
     Map<String, FieldIndexConfigs> indexConfigsMap = _config.getIndexConfigsByColName();
+    Map<String, SharedDictionary> sharedDictionaries = _config.getSharedDictionaries();
 
     for (FieldSpec fieldSpec : _dataSchema.getAllFieldSpecs()) {
       // Ignore virtual columns
@@ -553,6 +616,21 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
       ColumnStatistics columnProfile = _segmentStats.getColumnProfileFor(column);
       DictionaryIndexConfig dictionaryIndexConfig = indexConfigsMap.get(column).getConfig(StandardIndexes.dictionary());
       boolean createDictionary = dictionaryIndexConfig.isDisabled();
+      SharedDictionary sharedDictionary = sharedDictionaries.get(column);
+      if (sharedDictionary != null && !dictionaryIndexConfig.isDisabled()
+          && fieldSpec.getDataType() == DataType.STRING) {
+        if (columnProfile.isSorted()) {
+          // Sorted forward index requires every dictionary id to be present in the segment, which is not the case for
+          // the values only in the shared dictionary
+          LOGGER.info("Column: {} is sorted, using segment dictionary instead of shared dictionary: {}", column,
+              sharedDictionary);
+        } else if (SharedDictionaryColumnStatistics.canEncode(columnProfile, sharedDictionary)) {
+          columnProfile = new SharedDictionaryColumnStatistics(columnProfile, sharedDictionary);
+        } else {
+          LOGGER.warn("Shared dictionary: {} does not contain all the values of column: {}, using segment dictionary",
+              sharedDictionary, column);
+        }
+      }
       boolean useVarLengthDictionary = dictionaryIndexConfig.getUseVarLengthDictionary()
           || DictionaryIndexType.optimizeTypeShouldUseVarLengthDictionary(storedType, columnProfile);
       Object defaultNullValue = fieldSpec.getDefaultNullValue();
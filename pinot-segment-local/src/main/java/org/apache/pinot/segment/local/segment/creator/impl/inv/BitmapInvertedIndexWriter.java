@@ -96,6 +96,20 @@ public final class BitmapInvertedIndexWriter implements Closeable {
     _currentBufferPosition += length;
   }
 
+  /**
+   * Adds a bitmap prefixed with a single byte, which is used by {@link DensityAwareBitmapInvertedIndexWriter} to record
+   * the encoding of the bitmap.
+   */
+  void add(byte prefix, RoaringBitmap bitmap)
+      throws IOException {
+    int length = bitmap.serializedSizeInBytes() + 1;
+    resizeIfNecessary(length);
+    _offsetBuffer.putInt(asUnsignedInt(_currentBufferPosition));
+    _bitmapBuffer.put(prefix);
+    bitmap.serialize(_bitmapBuffer);
+    _currentBufferPosition += length;
+  }
+
   public void add(byte[] bitmapBytes)
       throws IOException {
     add(bitmapBytes, bitmapBytes.length);
@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl.inv;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * Writer for density-aware bitmap inverted index file, where each bitmap is stored with the encoding of the smallest
+ * serialized size:
+ * <ul>
+ *   <li>
+ *     {@link #ROARING_ENCODING}: run-optimized RoaringBitmap, where each 64K chunk of document ids is stored as either
+ *     a sorted array, a bitset or run-length encoded ranges
+ *   </li>
+ *   <li>
+ *     {@link #DELTA_ENCODING}: number of document ids followed by the delta of each sorted document id to the previous
+ *     one, all as variable-length ints, which avoids the per-container overhead for very sparse bitmaps
+ *   </li>
+ *   <li>
+ *     {@link #COMPLEMENT_ENCODING}: run-optimized RoaringBitmap of the document ids NOT in the bitmap, for the bitmaps
+ *     covering most of the documents
+ *   </li>
+ * </ul>
+ * <pre>
+ * Layout for density-aware bitmap inverted index:
+ * |-------------------------------------------------------------------------|
+ * |                         MAGIC_MARKER (int)                              |
+ * |                         VERSION (int)                                   |
+ * |                         Number of documents (int)                       |
+ * |-------------------------------------------------------------------------|
+ * |    Offsets and bitmaps as written by {@link BitmapInvertedIndexWriter}, |
+ * |    where each bitmap is prefixed with its encoding (byte)               |
+ * |-------------------------------------------------------------------------|
+ * </pre>
+ */
+public final class DensityAwareBitmapInvertedIndexWriter implements Closeable {
+  // NOTE: The first int of the legacy format is the offset of the first bitmap, which can never be this value
+  public static final int MAGIC_MARKER = 0xDA1B17A5;
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 3 * Integer.BYTES;
+
+  public static final byte ROARING_ENCODING = 0;
+  public static final byte DELTA_ENCODING = 1;
+  public static final byte COMPLEMENT_ENCODING = 2;
+
+  // Cap the number of delta encoded document ids to bound the decoding cost at query time
+  static final int MAX_DELTA_ENCODED_DOC_IDS = 1024;
+  // Max serialized size of a delta encoded bitmap: encoding byte, count and deltas (5 bytes max for each varint)
+  private static final int MAX_DELTA_ENCODED_SIZE = 1 + (MAX_DELTA_ENCODED_DOC_IDS + 1) * 5;
+
+  private final BitmapInvertedIndexWriter _writer;
+  private final int _numDocs;
+  private final byte[] _deltaBuffer = new byte[MAX_DELTA_ENCODED_SIZE];
+
+  public DensityAwareBitmapInvertedIndexWriter(File outputFile, int numBitmaps, int numDocs)
+      throws IOException {
+    this(new RandomAccessFile(outputFile, "rw").getChannel(), numBitmaps, numDocs, true);
+  }
+
+  /**
+   * Creates a new writer that uses the given {@link FileChannel}. The header is written on the current position of the
+   * channel, followed by the bitmaps written with a {@link BitmapInvertedIndexWriter}.
+   *
+   * @see BitmapInvertedIndexWriter#BitmapInvertedIndexWriter(FileChannel, int, boolean)
+   */
+  public DensityAwareBitmapInvertedIndexWriter(FileChannel fileChannel, int numBitmaps, int numDocs,
+      boolean ownsChannel)
+      throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC_MARKER);
+    header.putInt(VERSION);
+    header.putInt(numDocs);
+    header.flip();
+    while (header.hasRemaining()) {
+      fileChannel.write(header);
+    }
+    _writer = new BitmapInvertedIndexWriter(fileChannel, numBitmaps, ownsChannel);
+    _numDocs = numDocs;
+  }
+
+  /**
+   * Adds the bitmap for the next dictionary id. The bitmap might be modified (run-optimized) in place.
+   */
+  public void add(RoaringBitmap bitmap)
+      throws IOException {
+    bitmap.runOptimize();
+    int cardinality = bitmap.getCardinality();
+    int roaringSize = bitmap.serializedSizeInBytes();
+    if (cardinality <= MAX_DELTA_ENCODED_DOC_IDS) {
+      int deltaSize = encodeDeltas(bitmap, cardinality);
+      if (deltaSize <= roaringSize) {
+        _writer.add(_deltaBuffer, deltaSize);
+        return;
+      }
+    }
+    if (cardinality > _numDocs / 2) {
+      RoaringBitmap complement = RoaringBitmap.flip(bitmap, 0L, _numDocs);
+      complement.runOptimize();
+      if (complement.serializedSizeInBytes() < roaringSize) {
+        _writer.add(COMPLEMENT_ENCODING, complement);
+        return;
+      }
+    }
+    _writer.add(ROARING_ENCODING, bitmap);
+  }
+
+  /**
+   * Encodes the bitmap into the delta buffer and returns the number of bytes written.
+   */
+  private int encodeDeltas(RoaringBitmap bitmap, int cardinality) {
+    _deltaBuffer[0] = DELTA_ENCODING;
+    int position = writeVarInt(cardinality, 1);
+    int previousDocId = 0;
+    PeekableIntIterator iterator = bitmap.getIntIterator();
+    while (iterator.hasNext()) {
+      int docId = iterator.next();
+      position = writeVarInt(docId - previousDocId, position);
+      previousDocId = docId;
+    }
+    return position;
+  }
+
+  private int writeVarInt(int value, int position) {
+    while ((value & ~0x7F) != 0) {
+      _deltaBuffer[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    _deltaBuffer[position++] = (byte) value;
+    return position;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _writer.close();
+  }
+}
@@ -26,6 +26,7 @@ import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
 import java.nio.file.attribute.FileAttribute;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.function.IOConsumer;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.index.creator.DictionaryBasedInvertedIndexCreator;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
@@ -72,6 +73,7 @@ public final class OffHeapBitmapInvertedIndexCreator implements DictionaryBasedI
   private final int _numDocs;
   private final int _numValues;
   private final boolean _useMMapBuffer;
+  private final boolean _densityAware;
 
   // Forward index buffers (from docId to dictId)
   private int _nextDocId;
@@ -109,6 +111,17 @@ public final class OffHeapBitmapInvertedIndexCreator implements DictionaryBasedI
     this(indexDir, fieldSpec.getName(), fieldSpec.isSingleValueField(), cardinality, numDocs, numValues, extension);
   }
 
+  /**
+   * Like calling {@link #OffHeapBitmapInvertedIndexCreator(File, FieldSpec, int, int, int)}, but writes the
+   * density-aware format (see {@link DensityAwareBitmapInvertedIndexWriter}) if {@code densityAware} is true.
+   */
+  public OffHeapBitmapInvertedIndexCreator(File indexDir, FieldSpec fieldSpec, int cardinality, int numDocs,
+      int numValues, boolean densityAware)
+      throws IOException {
+    this(indexDir, fieldSpec.getName(), fieldSpec.isSingleValueField(), cardinality, numDocs, numValues,
+        V1Constants.Indexes.BITMAP_INVERTED_INDEX_FILE_EXTENSION, densityAware);
+  }
+
   /**
    * @param indexDir The directory where the index will be created.
    * @param columnName The name of the column being indexed.
@@ -123,6 +136,16 @@ public final class OffHeapBitmapInvertedIndexCreator implements DictionaryBasedI
   public OffHeapBitmapInvertedIndexCreator(File indexDir, String columnName, boolean singleValue, int cardinality,
       int numDocs, int numValues, String extension)
       throws IOException {
+    this(indexDir, columnName, singleValue, cardinality, numDocs, numValues, extension, false);
+  }
+
+  /**
+   * @see #OffHeapBitmapInvertedIndexCreator(File, String, boolean, int, int, int, String)
+   * @param densityAware Whether to write the density-aware format, see {@link DensityAwareBitmapInvertedIndexWriter}.
+   */
+  public OffHeapBitmapInvertedIndexCreator(File indexDir, String columnName, boolean singleValue, int cardinality,
+      int numDocs, int numValues, String extension, boolean densityAware)
+      throws IOException {
     String ext = extension.equals(V1Constants.Indexes.BITMAP_INVERTED_INDEX_FILE_EXTENSION) ? "" : "." + extension;
     _invertedIndexFile = getDefaultFile(indexDir, columnName, extension);
     _forwardIndexValueBufferFile = getDefaultFile(indexDir, columnName, ext + FORWARD_INDEX_VALUE_BUFFER_SUFFIX);
@@ -134,6 +157,7 @@ public final class OffHeapBitmapInvertedIndexCreator implements DictionaryBasedI
     _numDocs = numDocs;
     _numValues = _singleValue ? numDocs : numValues;
     _useMMapBuffer = _numValues > NUM_VALUES_THRESHOLD_FOR_MMAP_BUFFER;
+    _densityAware = densityAware;
 
     try {
       _forwardIndexValueBuffer = createTempBuffer((long) _numValues * Integer.BYTES, _forwardIndexValueBufferFile);
@@ -235,18 +259,30 @@ public final class OffHeapBitmapInvertedIndexCreator implements DictionaryBasedI
   private void write(FileChannel channel)
       throws IOException {
     // Create bitmaps from inverted index buffers and serialize them to file
-    try (BitmapInvertedIndexWriter writer = new BitmapInvertedIndexWriter(channel, _cardinality, false)) {
-      RoaringBitmapWriter<RoaringBitmap> bitmapWriter = RoaringBitmapWriter.writer().get();
-      int startIndex = 0;
-      for (int dictId = 0; dictId < _cardinality; dictId++) {
-        int endIndex = getInt(_invertedIndexLengthBuffer, dictId);
-        for (int i = startIndex; i < endIndex; i++) {
-          bitmapWriter.add(getInt(_invertedIndexValueBuffer, i));
-        }
-        writer.add(bitmapWriter.get());
-        bitmapWriter.reset();
-        startIndex = endIndex;
+    if (_densityAware) {
+      try (DensityAwareBitmapInvertedIndexWriter writer = new DensityAwareBitmapInvertedIndexWriter(channel,
+          _cardinality, _numDocs, false)) {
+        writeBitmaps(writer::add);
+      }
+    } else {
+      try (BitmapInvertedIndexWriter writer = new BitmapInvertedIndexWriter(channel, _cardinality, false)) {
+        writeBitmaps(writer::add);
+      }
+    }
+  }
+
+  private void writeBitmaps(IOConsumer<RoaringBitmap> bitmapConsumer)
+      throws IOException {
+    RoaringBitmapWriter<RoaringBitmap> bitmapWriter = RoaringBitmapWriter.writer().get();
+    int startIndex = 0;
+    for (int dictId = 0; dictId < _cardinality; dictId++) {
+      int endIndex = getInt(_invertedIndexLengthBuffer, dictId);
+      for (int i = startIndex; i < endIndex; i++) {
+        bitmapWriter.add(getInt(_invertedIndexValueBuffer, i));
       }
+      bitmapConsumer.accept(bitmapWriter.get());
+      bitmapWriter.reset();
+      startIndex = endIndex;
     }
   }
 
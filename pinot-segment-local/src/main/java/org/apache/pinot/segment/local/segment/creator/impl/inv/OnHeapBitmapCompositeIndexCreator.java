@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl.inv;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.index.creator.CompositeIndexCreator;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * Implementation of {@link CompositeIndexCreator} that keeps the dictionary ids of all the documents on heap, then
+ * sorts the documents by their tuple of dictionary ids and writes one bitmap for each distinct tuple.
+ * <pre>
+ * Layout for composite index:
+ * |-------------------------------------------------------------------------|
+ * |                         VERSION (int)                                   |
+ * |                         Number of columns (int)                         |
+ * |                         Number of distinct tuples (int)                 |
+ * |-------------------------------------------------------------------------|
+ * |    For each column: length (int) and UTF-8 bytes of the column name     |
+ * |-------------------------------------------------------------------------|
+ * |    For each column: checksum of the dictionary (long)                   |
+ * |-------------------------------------------------------------------------|
+ * |    Sorted tuples of dictionary ids, number of columns ints each         |
+ * |-------------------------------------------------------------------------|
+ * |    Offsets and bitmaps as written by {@link BitmapInvertedIndexWriter}, |
+ * |    one bitmap for each tuple                                            |
+ * |-------------------------------------------------------------------------|
+ * </pre>
+ */
+public final class OnHeapBitmapCompositeIndexCreator implements CompositeIndexCreator {
+  public static final int VERSION = 1;
+
+  private final File _indexFile;
+  private final List<String> _columns;
+  private final int _numColumns;
+  // Dictionary ids indexed by column then document id
+  private final int[][] _dictIds;
+  private final long[] _dictionaryChecksums;
+  private int _nextDocId;
+
+  /**
+   * @param columns the columns of the index, starting with the column the index is attached to
+   */
+  public OnHeapBitmapCompositeIndexCreator(File indexDir, List<String> columns, int numDocs) {
+    Preconditions.checkArgument(columns.size() > 1, "Composite index requires at least 2 columns, got: %s", columns);
+    _indexFile = new File(indexDir, columns.get(0) + V1Constants.Indexes.COMPOSITE_INDEX_FILE_EXTENSION);
+    _columns = columns;
+    _numColumns = columns.size();
+    _dictIds = new int[_numColumns][numDocs];
+    _dictionaryChecksums = new long[_numColumns];
+  }
+
+  @Override
+  public void add(int[] dictIds) {
+    Preconditions.checkArgument(dictIds.length == _numColumns, "Expected %s dictionary ids, got: %s", _numColumns,
+        dictIds.length);
+    for (int i = 0; i < _numColumns; i++) {
+      _dictIds[i][_nextDocId] = dictIds[i];
+    }
+    _nextDocId++;
+  }
+
+  @Override
+  public void setDictionaryChecksums(long[] dictionaryChecksums) {
+    Preconditions.checkArgument(dictionaryChecksums.length == _numColumns, "Expected %s dictionary checksums, got: %s",
+        _numColumns, dictionaryChecksums.length);
+    System.arraycopy(dictionaryChecksums, 0, _dictionaryChecksums, 0, _numColumns);
+  }
+
+  @Override
+  public void seal()
+      throws IOException {
+    int numDocs = _nextDocId;
+    int[] sortedDocIds = new int[numDocs];
+    for (int i = 0; i < numDocs; i++) {
+      sortedDocIds[i] = i;
+    }
+    // Break ties with the document id so that the documents within each tuple are sorted
+    IntArrays.quickSort(sortedDocIds, (docId1, docId2) -> {
+      int result = compareTuples(docId1, docId2);
+      return result != 0 ? result : Integer.compare(docId1, docId2);
+    });
+    int numTuples = 0;
+    for (int i = 0; i < numDocs; i++) {
+      if (i == 0 || compareTuples(sortedDocIds[i - 1], sortedDocIds[i]) != 0) {
+        numTuples++;
+      }
+    }
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(_indexFile)))) {
+      out.writeInt(VERSION);
+      out.writeInt(_numColumns);
+      out.writeInt(numTuples);
+      for (String column : _columns) {
+        byte[] bytes = column.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      for (long dictionaryChecksum : _dictionaryChecksums) {
+        out.writeLong(dictionaryChecksum);
+      }
+      for (int i = 0; i < numDocs; i++) {
+        if (i == 0 || compareTuples(sortedDocIds[i - 1], sortedDocIds[i]) != 0) {
+          for (int j = 0; j < _numColumns; j++) {
+            out.writeInt(_dictIds[j][sortedDocIds[i]]);
+          }
+        }
+      }
+    }
+
+    FileChannel fileChannel = new RandomAccessFile(_indexFile, "rw").getChannel();
+    fileChannel.position(fileChannel.size());
+    try (BitmapInvertedIndexWriter writer = new BitmapInvertedIndexWriter(fileChannel, numTuples, true)) {
+      RoaringBitmap bitmap = new RoaringBitmap();
+      for (int i = 0; i < numDocs; i++) {
+        if (i > 0 && compareTuples(sortedDocIds[i - 1], sortedDocIds[i]) != 0) {
+          bitmap.runOptimize();
+          writer.add(bitmap);
+          bitmap = new RoaringBitmap();
+        }
+        bitmap.add(sortedDocIds[i]);
+      }
+      if (numDocs > 0) {
+        bitmap.runOptimize();
+        writer.add(bitmap);
+      }
+    }
+  }
+
+  private int compareTuples(int docId1, int docId2) {
+    for (int[] dictIds : _dictIds) {
+      int result = Integer.compare(dictIds[docId1], dictIds[docId2]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -34,9 +34,22 @@ import org.roaringbitmap.RoaringBitmapWriter;
 public final class OnHeapBitmapInvertedIndexCreator implements DictionaryBasedInvertedIndexCreator {
   private final File _invertedIndexFile;
   private final RoaringBitmapWriter<RoaringBitmap>[] _bitmapWriters;
+  private final int _numDocs;
+  private final boolean _densityAware;
   private int _nextDocId;
 
   public OnHeapBitmapInvertedIndexCreator(File indexDir, String columnName, int cardinality) {
+    this(indexDir, columnName, cardinality, 0, false);
+  }
+
+  /**
+   * @param numDocs How many documents are expected, only required for the density-aware format.
+   * @param densityAware Whether to write the density-aware format, see {@link DensityAwareBitmapInvertedIndexWriter}.
+   */
+  public OnHeapBitmapInvertedIndexCreator(File indexDir, String columnName, int cardinality, int numDocs,
+      boolean densityAware) {
+    _numDocs = numDocs;
+    _densityAware = densityAware;
     _invertedIndexFile = new File(indexDir, columnName + V1Constants.Indexes.BITMAP_INVERTED_INDEX_FILE_EXTENSION);
     RoaringBitmapWriter.Wizard<Container, RoaringBitmap> writerWizard = RoaringBitmapWriter.writer();
     _bitmapWriters = new RoaringBitmapWriter[cardinality];
@@ -61,6 +74,15 @@ public final class OnHeapBitmapInvertedIndexCreator implements DictionaryBasedIn
   @Override
   public void seal()
       throws IOException {
+    if (_densityAware) {
+      try (DensityAwareBitmapInvertedIndexWriter writer = new DensityAwareBitmapInvertedIndexWriter(_invertedIndexFile,
+          _bitmapWriters.length, _numDocs)) {
+        for (RoaringBitmapWriter<RoaringBitmap> bitmapWriter : _bitmapWriters) {
+          writer.add(bitmapWriter.get());
+        }
+      }
+      return;
+    }
     try (BitmapInvertedIndexWriter writer = new BitmapInvertedIndexWriter(_invertedIndexFile, _bitmapWriters.length)) {
       for (RoaringBitmapWriter<RoaringBitmap> bitmapWriter : _bitmapWriters) {
         writer.add(bitmapWriter.get());
@@ -0,0 +1,207 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl.inv;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.io.util.VarLengthValueWriter;
+import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeRawValueInvertedIndex;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.index.creator.DictionaryBasedInvertedIndexCreator;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ByteArray;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Bitmap inverted index creator for raw (no-dictionary) columns, where the posting lists are keyed by the values of the
+ * column instead of the dictionary ids. The values are mapped to their positions within the sorted unique values, and
+ * the bitmaps are created with an {@link OffHeapBitmapInvertedIndexCreator} on the positions.
+ * <p>Only the stored types supported by {@link RealtimeRawValueInvertedIndex} of the consuming segments are supported.
+ * <pre>
+ * Layout for raw value bitmap inverted index:
+ * |-------------------------------------------------------------------------|
+ * |                       Magic marker (int), version (int)                 |
+ * |                         Number of unique values (int)                   |
+ * |                       Size of the values section (long)                 |
+ * |-------------------------------------------------------------------------|
+ * |    Sorted unique values: fixed width (INT and LONG), or the format of   |
+ * |               {@link VarLengthValueWriter} (STRING and BYTES)           |
+ * |-------------------------------------------------------------------------|
+ * |     Bitmap inverted index (see {@link BitmapInvertedIndexWriter} and    |
+ * |           {@link DensityAwareBitmapInvertedIndexWriter})                |
+ * |-------------------------------------------------------------------------|
+ * </pre>
+ * All the header fields and the fixed width values are written in big-endian.
+ */
+public final class RawValueBitmapInvertedIndexCreator implements DictionaryBasedInvertedIndexCreator {
+  public static final int MAGIC_MARKER = 0x52415749;
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 3 * Integer.BYTES + Long.BYTES;
+
+  private static final String BITMAPS_FILE_EXTENSION = ".raw.bitmaps.tmp";
+  private static final String VALUES_FILE_EXTENSION = ".raw.values.tmp";
+
+  private final DataType _storedType;
+  private final Object _sortedValues;
+  private final int _cardinality;
+  private final File _invertedIndexFile;
+  private final File _bitmapsFile;
+  private final File _valuesFile;
+  private final OffHeapBitmapInvertedIndexCreator _bitmapsCreator;
+
+  /**
+   * @param indexDir The directory where the index will be created.
+   * @param fieldSpec The field spec of the column.
+   * @param sortedValues The sorted unique values of the column, in the format of the column statistics.
+   * @param numDocs How many documents are expected.
+   * @param numValues How many values the index will have, see {@link OffHeapBitmapInvertedIndexCreator}.
+   * @param densityAware Whether to write the bitmaps in the density-aware format.
+   */
+  public RawValueBitmapInvertedIndexCreator(File indexDir, FieldSpec fieldSpec, Object sortedValues, int numDocs,
+      int numValues, boolean densityAware)
+      throws IOException {
+    _storedType = fieldSpec.getDataType().getStoredType();
+    Preconditions.checkArgument(RealtimeRawValueInvertedIndex.isSupported(_storedType),
+        "Unsupported stored type: %s for raw value inverted index", _storedType);
+    _sortedValues = sortedValues;
+    _cardinality = Array.getLength(sortedValues);
+    String columnName = fieldSpec.getName();
+    _invertedIndexFile =
+        new File(indexDir, columnName + V1Constants.Indexes.BITMAP_INVERTED_INDEX_FILE_EXTENSION);
+    _bitmapsFile = new File(indexDir, columnName + BITMAPS_FILE_EXTENSION);
+    _valuesFile = new File(indexDir, columnName + VALUES_FILE_EXTENSION);
+    _bitmapsCreator =
+        new OffHeapBitmapInvertedIndexCreator(indexDir, columnName, fieldSpec.isSingleValueField(), _cardinality,
+            numDocs, numValues, BITMAPS_FILE_EXTENSION, densityAware);
+  }
+
+  @Override
+  public void add(@Nonnull Object value, int dictId) {
+    _bitmapsCreator.add(indexOf(value));
+  }
+
+  @Override
+  public void add(@Nonnull Object[] values, @Nullable int[] dictIds) {
+    int[] indexes = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      indexes[i] = indexOf(values[i]);
+    }
+    _bitmapsCreator.add(indexes, indexes.length);
+  }
+
+  @Override
+  public void add(int dictId) {
+    throw new UnsupportedOperationException("Raw value inverted index must be created from the values");
+  }
+
+  @Override
+  public void add(int[] dictIds, int length) {
+    throw new UnsupportedOperationException("Raw value inverted index must be created from the values");
+  }
+
+  private int indexOf(Object value) {
+    int index;
+    switch (_storedType) {
+      case INT:
+        index = Arrays.binarySearch((int[]) _sortedValues, (Integer) value);
+        break;
+      case LONG:
+        index = Arrays.binarySearch((long[]) _sortedValues, (Long) value);
+        break;
+      case STRING:
+        index = Arrays.binarySearch((String[]) _sortedValues, value);
+        break;
+      case BYTES:
+        index = Arrays.binarySearch((ByteArray[]) _sortedValues,
+            value instanceof ByteArray ? value : new ByteArray((byte[]) value));
+        break;
+      default:
+        throw new IllegalStateException("Unsupported stored type: " + _storedType);
+    }
+    Preconditions.checkState(index >= 0, "Failed to find value: %s in the sorted unique values", value);
+    return index;
+  }
+
+  @Override
+  public void seal()
+      throws IOException {
+    _bitmapsCreator.seal();
+    long valuesSize;
+    if (_storedType.isFixedWidth()) {
+      valuesSize = (long) _cardinality * _storedType.size();
+    } else {
+      try (VarLengthValueWriter valueWriter = new VarLengthValueWriter(_valuesFile, _cardinality)) {
+        if (_storedType == DataType.STRING) {
+          for (String value : (String[]) _sortedValues) {
+            valueWriter.add(value.getBytes(UTF_8));
+          }
+        } else {
+          for (ByteArray value : (ByteArray[]) _sortedValues) {
+            valueWriter.add(value.getBytes());
+          }
+        }
+      }
+      valuesSize = _valuesFile.length();
+    }
+    try (DataOutputStream outputStream = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(_invertedIndexFile)))) {
+      outputStream.writeInt(MAGIC_MARKER);
+      outputStream.writeInt(VERSION);
+      outputStream.writeInt(_cardinality);
+      outputStream.writeLong(valuesSize);
+      switch (_storedType) {
+        case INT:
+          for (int value : (int[]) _sortedValues) {
+            outputStream.writeInt(value);
+          }
+          break;
+        case LONG:
+          for (long value : (long[]) _sortedValues) {
+            outputStream.writeLong(value);
+          }
+          break;
+        default:
+          Files.copy(_valuesFile.toPath(), outputStream);
+          break;
+      }
+      Files.copy(_bitmapsFile.toPath(), outputStream);
+    }
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _bitmapsCreator.close();
+    FileUtils.deleteQuietly(_bitmapsFile);
+    FileUtils.deleteQuietly(_valuesFile);
+  }
+}
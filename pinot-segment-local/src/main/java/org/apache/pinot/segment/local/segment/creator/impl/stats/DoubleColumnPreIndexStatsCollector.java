@@ -56,16 +56,24 @@ public class DoubleColumnPreIndexStatsCollector extends AbstractColumnStatistics
       _maxNumberOfMultiValues = Math.max(_maxNumberOfMultiValues, values.length);
       updateTotalNumberOfEntries(values.length);
     } else {
-      double value = (double) entry;
-      addressSorted(value);
-      if (_values.add(value)) {
-        if (isPartitionEnabled()) {
-          updatePartition(Double.toString(value));
-        }
-      }
+      collect((double) entry);
+    }
+  }
 
-      _totalNumberOfEntries++;
+  /**
+   * Collects a single value without boxing it.
+   */
+  public void collect(double value) {
+    assert !_sealed;
+
+    addressSorted(value);
+    if (_values.add(value)) {
+      if (isPartitionEnabled()) {
+        updatePartition(Double.toString(value));
+      }
     }
+
+    _totalNumberOfEntries++;
   }
 
   private void addressSorted(double entry) {
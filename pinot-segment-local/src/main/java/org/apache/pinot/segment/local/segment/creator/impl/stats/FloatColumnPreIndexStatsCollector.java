@@ -56,16 +56,24 @@ public class FloatColumnPreIndexStatsCollector extends AbstractColumnStatisticsC
       _maxNumberOfMultiValues = Math.max(_maxNumberOfMultiValues, values.length);
       updateTotalNumberOfEntries(values.length);
     } else {
-      float value = (float) entry;
-      addressSorted(value);
-      if (_values.add(value)) {
-        if (isPartitionEnabled()) {
-          updatePartition(Float.toString(value));
-        }
-      }
+      collect((float) entry);
+    }
+  }
 
-      _totalNumberOfEntries++;
+  /**
+   * Collects a single value without boxing it.
+   */
+  public void collect(float value) {
+    assert !_sealed;
+
+    addressSorted(value);
+    if (_values.add(value)) {
+      if (isPartitionEnabled()) {
+        updatePartition(Float.toString(value));
+      }
     }
+
+    _totalNumberOfEntries++;
   }
 
   private void addressSorted(float entry) {
@@ -56,16 +56,24 @@ public class IntColumnPreIndexStatsCollector extends AbstractColumnStatisticsCol
       _maxNumberOfMultiValues = Math.max(_maxNumberOfMultiValues, values.length);
       updateTotalNumberOfEntries(values.length);
     } else {
-      int value = (int) entry;
-      addressSorted(value);
-      if (_values.add(value)) {
-        if (isPartitionEnabled()) {
-          updatePartition(Integer.toString(value));
-        }
-      }
+      collect((int) entry);
+    }
+  }
 
-      _totalNumberOfEntries++;
+  /**
+   * Collects a single value without boxing it.
+   */
+  public void collect(int value) {
+    assert !_sealed;
+
+    addressSorted(value);
+    if (_values.add(value)) {
+      if (isPartitionEnabled()) {
+        updatePartition(Integer.toString(value));
+      }
     }
+
+    _totalNumberOfEntries++;
   }
 
   private void addressSorted(int entry) {
@@ -56,16 +56,24 @@ public class LongColumnPreIndexStatsCollector extends AbstractColumnStatisticsCo
       _maxNumberOfMultiValues = Math.max(_maxNumberOfMultiValues, values.length);
       updateTotalNumberOfEntries(values.length);
     } else {
-      long value = (long) entry;
-      addressSorted(value);
-      if (_values.add(value)) {
-        if (isPartitionEnabled()) {
-          updatePartition(Long.toString(value));
-        }
-      }
+      collect((long) entry);
+    }
+  }
 
-      _totalNumberOfEntries++;
+  /**
+   * Collects a single value without boxing it.
+   */
+  public void collect(long value) {
+    assert !_sealed;
+
+    addressSorted(value);
+    if (_values.add(value)) {
+      if (isPartitionEnabled()) {
+        updatePartition(Long.toString(value));
+      }
     }
+
+    _totalNumberOfEntries++;
   }
 
   private void addressSorted(long entry) {
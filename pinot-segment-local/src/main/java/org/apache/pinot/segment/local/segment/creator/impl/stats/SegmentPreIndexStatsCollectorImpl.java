@@ -111,6 +111,74 @@ public class SegmentPreIndexStatsCollectorImpl implements SegmentPreIndexStatsCo
     _totalDocCount++;
   }
 
+  /**
+   * Collects the value of a single column, which is used when the segment is created column by column. The total doc
+   * count should be set separately with {@link #setTotalDocCount(int)}.
+   */
+  public void collectColumnValue(String column, Object value) {
+    AbstractColumnStatisticsCollector columnStatsCollector = _columnStatsCollectorMap.get(column);
+    if (columnStatsCollector != null) {
+      columnStatsCollector.collect(value);
+    }
+  }
+
+  /**
+   * Collects a batch of values of a single INT column without boxing them, which is used when the segment is created
+   * column by column.
+   */
+  public void collectColumnValues(String column, int[] values, int numValues) {
+    IntColumnPreIndexStatsCollector columnStatsCollector =
+        (IntColumnPreIndexStatsCollector) _columnStatsCollectorMap.get(column);
+    if (columnStatsCollector != null) {
+      for (int i = 0; i < numValues; i++) {
+        columnStatsCollector.collect(values[i]);
+      }
+    }
+  }
+
+  /**
+   * Collects a batch of values of a single LONG column without boxing them.
+   */
+  public void collectColumnValues(String column, long[] values, int numValues) {
+    LongColumnPreIndexStatsCollector columnStatsCollector =
+        (LongColumnPreIndexStatsCollector) _columnStatsCollectorMap.get(column);
+    if (columnStatsCollector != null) {
+      for (int i = 0; i < numValues; i++) {
+        columnStatsCollector.collect(values[i]);
+      }
+    }
+  }
+
+  /**
+   * Collects a batch of values of a single FLOAT column without boxing them.
+   */
+  public void collectColumnValues(String column, float[] values, int numValues) {
+    FloatColumnPreIndexStatsCollector columnStatsCollector =
+        (FloatColumnPreIndexStatsCollector) _columnStatsCollectorMap.get(column);
+    if (columnStatsCollector != null) {
+      for (int i = 0; i < numValues; i++) {
+        columnStatsCollector.collect(values[i]);
+      }
+    }
+  }
+
+  /**
+   * Collects a batch of values of a single DOUBLE column without boxing them.
+   */
+  public void collectColumnValues(String column, double[] values, int numValues) {
+    DoubleColumnPreIndexStatsCollector columnStatsCollector =
+        (DoubleColumnPreIndexStatsCollector) _columnStatsCollectorMap.get(column);
+    if (columnStatsCollector != null) {
+      for (int i = 0; i < numValues; i++) {
+        columnStatsCollector.collect(values[i]);
+      }
+    }
+  }
+
+  public void setTotalDocCount(int totalDocCount) {
+    _totalDocCount = totalDocCount;
+  }
+
   @Override
   public int getTotalDocCount() {
     return _totalDocCount;
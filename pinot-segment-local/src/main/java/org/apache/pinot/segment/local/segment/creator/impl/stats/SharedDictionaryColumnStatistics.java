@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl.stats;
+
+import java.util.Map;
+import java.util.Set;
+import org.apache.pinot.segment.spi.creator.ColumnStatistics;
+import org.apache.pinot.segment.spi.creator.SharedDictionary;
+import org.apache.pinot.segment.spi.partition.PartitionFunction;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Column statistics of a STRING column encoded against a table-level {@link SharedDictionary}. The unique values (and
+ * thus the dictionary and the dictionary ids) come from the shared dictionary, while the other statistics such as the
+ * min/max value still reflect the values within the segment.
+ */
+public class SharedDictionaryColumnStatistics implements ColumnStatistics {
+  private final ColumnStatistics _segmentStatistics;
+  private final SharedDictionary _sharedDictionary;
+  private final int _lengthOfShortestElement;
+  private final int _lengthOfLargestElement;
+
+  public SharedDictionaryColumnStatistics(ColumnStatistics segmentStatistics, SharedDictionary sharedDictionary) {
+    _segmentStatistics = segmentStatistics;
+    _sharedDictionary = sharedDictionary;
+    int minLength = Integer.MAX_VALUE;
+    int maxLength = 0;
+    for (String value : sharedDictionary.getSortedValues()) {
+      int length = value.getBytes(UTF_8).length;
+      minLength = Math.min(minLength, length);
+      maxLength = Math.max(maxLength, length);
+    }
+    _lengthOfShortestElement = minLength;
+    _lengthOfLargestElement = maxLength;
+  }
+
+  /**
+   * Returns {@code true} if the column within the segment can be encoded against the given shared dictionary, i.e. the
+   * shared dictionary contains all the unique values of the column, {@code false} otherwise.
+   */
+  public static boolean canEncode(ColumnStatistics segmentStatistics, SharedDictionary sharedDictionary) {
+    Object uniqueValues = segmentStatistics.getUniqueValuesSet();
+    return uniqueValues instanceof String[] && sharedDictionary.containsAll((String[]) uniqueValues);
+  }
+
+  @Override
+  public Object getMinValue() {
+    return _segmentStatistics.getMinValue();
+  }
+
+  @Override
+  public Object getMaxValue() {
+    return _segmentStatistics.getMaxValue();
+  }
+
+  @Override
+  public Object getUniqueValuesSet() {
+    return _sharedDictionary.getSortedValues();
+  }
+
+  @Override
+  public int getCardinality() {
+    return _sharedDictionary.getCardinality();
+  }
+
+  @Override
+  public int getLengthOfShortestElement() {
+    return _lengthOfShortestElement;
+  }
+
+  @Override
+  public int getLengthOfLargestElement() {
+    return _lengthOfLargestElement;
+  }
+
+  @Override
+  public boolean isSorted() {
+    return _segmentStatistics.isSorted();
+  }
+
+  @Override
+  public int getTotalNumberOfEntries() {
+    return _segmentStatistics.getTotalNumberOfEntries();
+  }
+
+  @Override
+  public int getMaxNumberOfMultiValues() {
+    return _segmentStatistics.getMaxNumberOfMultiValues();
+  }
+
+  @Override
+  public int getMaxRowLengthInBytes() {
+    return _segmentStatistics.getMaxRowLengthInBytes();
+  }
+
+  @Override
+  public int getSharedDictionaryVersion() {
+    return _sharedDictionary.getVersion();
+  }
+
+  @Override
+  public PartitionFunction getPartitionFunction() {
+    return _segmentStatistics.getPartitionFunction();
+  }
+
+  @Override
+  public int getNumPartitions() {
+    return _segmentStatistics.getNumPartitions();
+  }
+
+  @Override
+  public Map<String, String> getPartitionFunctionConfig() {
+    return _segmentStatistics.getPartitionFunctionConfig();
+  }
+
+  @Override
+  public Set<Integer> getPartitions() {
+    return _segmentStatistics.getPartitions();
+  }
+}
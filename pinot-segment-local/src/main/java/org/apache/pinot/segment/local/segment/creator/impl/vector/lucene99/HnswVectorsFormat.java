@@ -41,7 +41,7 @@ public final class HnswVectorsFormat extends KnnVectorsFormat {
   public static final int DEFAULT_MAX_DIMENSIONS = 2048;
 
   private final int _maxDimensions;
-  private final Lucene99HnswVectorsFormat _delegate;
+  private final KnnVectorsFormat _delegate;
 
   /**
    * Constructs a format using the given graph construction parameters.
@@ -51,7 +51,19 @@ public final class HnswVectorsFormat extends KnnVectorsFormat {
    * @param maxDimensions the maximum number of dimensions supported by this format
    */
   public HnswVectorsFormat(int maxConn, int beamWidth, int maxDimensions) {
-    super("Lucene99HnswVectorsFormat");
+    this(new Lucene99HnswVectorsFormat(maxConn, beamWidth), maxDimensions);
+  }
+
+  /**
+   * Constructs a format wrapping the given Lucene vectors format, e.g. the
+   * {@link org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat} for quantized vectors. The
+   * format takes the name of the delegate so that the index can be read back with the delegate format.
+   *
+   * @param delegate      the Lucene vectors format to delegate to
+   * @param maxDimensions the maximum number of dimensions supported by this format
+   */
+  public HnswVectorsFormat(KnnVectorsFormat delegate, int maxDimensions) {
+    super(delegate.getName());
     if (maxDimensions <= 0 || maxDimensions > DEFAULT_MAX_DIMENSIONS) {
       throw new IllegalArgumentException(
           "maxDimensions must be postive and less than or equal to"
@@ -59,7 +71,7 @@ public final class HnswVectorsFormat extends KnnVectorsFormat {
               + "; maxDimensions="
               + maxDimensions);
     }
-    _delegate = new Lucene99HnswVectorsFormat(maxConn, beamWidth);
+    _delegate = delegate;
     _maxDimensions = maxDimensions;
   }
 
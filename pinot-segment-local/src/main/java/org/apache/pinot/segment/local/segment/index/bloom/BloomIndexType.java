@@ -23,9 +23,11 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
+import org.apache.pinot.segment.local.realtime.impl.bloom.RealtimeBloomFilter;
 import org.apache.pinot.segment.local.segment.creator.impl.bloom.OnHeapGuavaBloomFilterCreator;
 import org.apache.pinot.segment.local.segment.index.loader.bloomfilter.BloomFilterHandler;
 import org.apache.pinot.segment.local.segment.index.readers.bloom.BloomFilterReaderFactory;
+import org.apache.pinot.segment.local.segment.index.readers.bloom.GuavaBloomFilterReaderUtils;
 import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.Constants;
 import org.apache.pinot.segment.spi.V1Constants;
@@ -39,6 +41,8 @@ import org.apache.pinot.segment.spi.index.IndexReaderFactory;
 import org.apache.pinot.segment.spi.index.IndexType;
 import org.apache.pinot.segment.spi.index.StandardIndexes;
 import org.apache.pinot.segment.spi.index.creator.BloomFilterCreator;
+import org.apache.pinot.segment.spi.index.mutable.MutableIndex;
+import org.apache.pinot.segment.spi.index.mutable.provider.MutableIndexContext;
 import org.apache.pinot.segment.spi.index.reader.BloomFilterReader;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.segment.spi.store.SegmentDirectory;
@@ -133,6 +137,23 @@ public class BloomIndexType extends AbstractIndexType<BloomFilterConfig, BloomFi
     }
   }
 
+  @Nullable
+  @Override
+  public MutableIndex createMutableIndex(MutableIndexContext context, BloomFilterConfig config) {
+    if (config.isDisabled()) {
+      return null;
+    }
+    // Without dictionary, the cardinality is unknown. Size the bloom filter with the capacity of the consuming segment
+    // so that it can hold high cardinality raw columns (e.g. trace ids) where each document has a unique value.
+    int numInsertions = context.hasDictionary() ? context.getEstimatedCardinality() : context.getCapacity();
+    double fpp = config.getFpp();
+    int maxSizeInBytes = config.getMaxSizeInBytes();
+    if (maxSizeInBytes > 0) {
+      fpp = Math.max(fpp, GuavaBloomFilterReaderUtils.computeFPP(maxSizeInBytes, numInsertions));
+    }
+    return new RealtimeBloomFilter(numInsertions, fpp);
+  }
+
   @Override
   protected void handleIndexSpecificCleanup(TableConfig tableConfig) {
     tableConfig.getIndexingConfig().setBloomFilterColumns(null);
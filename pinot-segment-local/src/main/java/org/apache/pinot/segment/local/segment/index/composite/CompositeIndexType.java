@@ -0,0 +1,168 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.composite;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.OnHeapBitmapCompositeIndexCreator;
+import org.apache.pinot.segment.local.segment.index.loader.invertedindex.CompositeIndexHandler;
+import org.apache.pinot.segment.local.segment.index.readers.BitmapCompositeIndexReader;
+import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.creator.IndexCreationContext;
+import org.apache.pinot.segment.spi.index.AbstractIndexType;
+import org.apache.pinot.segment.spi.index.ColumnConfigDeserializer;
+import org.apache.pinot.segment.spi.index.CompositeIndexConfig;
+import org.apache.pinot.segment.spi.index.DictionaryIndexConfig;
+import org.apache.pinot.segment.spi.index.FieldIndexConfigs;
+import org.apache.pinot.segment.spi.index.ForwardIndexConfig;
+import org.apache.pinot.segment.spi.index.IndexConfigDeserializer;
+import org.apache.pinot.segment.spi.index.IndexHandler;
+import org.apache.pinot.segment.spi.index.IndexReaderFactory;
+import org.apache.pinot.segment.spi.index.IndexType;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.segment.spi.index.creator.CompositeIndexCreator;
+import org.apache.pinot.segment.spi.index.reader.CompositeIndexReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.segment.spi.store.SegmentDirectory;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.Schema;
+
+
+/**
+ * Composite (multi-column) equality index keyed by the tuple of dictionary ids of its columns. It is attached to the
+ * column it is configured on and built after the segment is created, from the forward indexes of all its columns. The
+ * filter planner uses it to solve an AND of EQ predicates on all its columns with a single bitmap lookup.
+ */
+public class CompositeIndexType
+    extends AbstractIndexType<CompositeIndexConfig, CompositeIndexReader, CompositeIndexCreator> {
+  public static final String INDEX_DISPLAY_NAME = "composite";
+  private static final List<String> EXTENSIONS =
+      Collections.singletonList(V1Constants.Indexes.COMPOSITE_INDEX_FILE_EXTENSION);
+
+  protected CompositeIndexType() {
+    super(StandardIndexes.COMPOSITE_ID);
+  }
+
+  @Override
+  public BuildLifecycle getIndexBuildLifecycle() {
+    return BuildLifecycle.POST_SEGMENT_CREATION;
+  }
+
+  @Override
+  public Class<CompositeIndexConfig> getIndexConfigClass() {
+    return CompositeIndexConfig.class;
+  }
+
+  @Override
+  public CompositeIndexConfig getDefaultConfig() {
+    return CompositeIndexConfig.DISABLED;
+  }
+
+  @Override
+  public String getPrettyName() {
+    return INDEX_DISPLAY_NAME;
+  }
+
+  @Override
+  public ColumnConfigDeserializer<CompositeIndexConfig> createDeserializer() {
+    return IndexConfigDeserializer.fromIndexes(getPrettyName(), getIndexConfigClass());
+  }
+
+  @Override
+  public CompositeIndexCreator createIndexCreator(IndexCreationContext context, CompositeIndexConfig indexConfig) {
+    List<String> columns = new ArrayList<>(indexConfig.getColumns().size() + 1);
+    columns.add(context.getFieldSpec().getName());
+    columns.addAll(indexConfig.getColumns());
+    return new OnHeapBitmapCompositeIndexCreator(context.getIndexDir(), columns, context.getTotalDocs());
+  }
+
+  @Override
+  public IndexHandler createIndexHandler(SegmentDirectory segmentDirectory, Map<String, FieldIndexConfigs> configsByCol,
+      @Nullable Schema schema, @Nullable TableConfig tableConfig) {
+    return new CompositeIndexHandler(segmentDirectory, configsByCol, tableConfig);
+  }
+
+  /**
+   * Validates that every column of the enabled composite indexes is a dictionary-encoded single-value column with
+   * forward index defined in the schema, which are the columns the index can be built on.
+   */
+  public static void validate(TableConfig tableConfig, Schema schema) {
+    Map<String, CompositeIndexConfig> compositeConfigs = StandardIndexes.composite().getConfig(tableConfig, schema);
+    if (compositeConfigs.values().stream().allMatch(CompositeIndexConfig::isDisabled)) {
+      return;
+    }
+    Map<String, DictionaryIndexConfig> dictionaryConfigs = StandardIndexes.dictionary().getConfig(tableConfig, schema);
+    Map<String, ForwardIndexConfig> forwardConfigs = StandardIndexes.forward().getConfig(tableConfig, schema);
+    for (Map.Entry<String, CompositeIndexConfig> entry : compositeConfigs.entrySet()) {
+      if (entry.getValue().isDisabled()) {
+        continue;
+      }
+      String column = entry.getKey();
+      List<String> indexColumns = new ArrayList<>(entry.getValue().getColumns().size() + 1);
+      indexColumns.add(column);
+      indexColumns.addAll(entry.getValue().getColumns());
+      for (String indexColumn : indexColumns) {
+        FieldSpec fieldSpec = schema.getFieldSpecFor(indexColumn);
+        Preconditions.checkState(fieldSpec != null,
+            "Cannot create composite index on column: %s, column: %s is not defined in the schema", column,
+            indexColumn);
+        Preconditions.checkState(fieldSpec.isSingleValueField(),
+            "Cannot create composite index on column: %s, column: %s is not a single-value column", column,
+            indexColumn);
+        DictionaryIndexConfig dictionaryConfig = dictionaryConfigs.get(indexColumn);
+        Preconditions.checkState(dictionaryConfig == null || dictionaryConfig.isEnabled(),
+            "Cannot create composite index on column: %s, column: %s is not dictionary encoded", column, indexColumn);
+        ForwardIndexConfig forwardConfig = forwardConfigs.get(indexColumn);
+        Preconditions.checkState(forwardConfig == null || forwardConfig.isEnabled(),
+            "Cannot create composite index on column: %s, column: %s has forward index disabled", column, indexColumn);
+      }
+    }
+  }
+
+  @Override
+  public List<String> getFileExtensions(@Nullable ColumnMetadata columnMetadata) {
+    return EXTENSIONS;
+  }
+
+  @Override
+  protected IndexReaderFactory<CompositeIndexReader> createReaderFactory() {
+    return ReaderFactory.INSTANCE;
+  }
+
+  private static class ReaderFactory extends IndexReaderFactory.Default<CompositeIndexConfig, CompositeIndexReader> {
+    public static final ReaderFactory INSTANCE = new ReaderFactory();
+
+    @Override
+    protected IndexType<CompositeIndexConfig, CompositeIndexReader, ?> getIndexType() {
+      return StandardIndexes.composite();
+    }
+
+    @Override
+    protected CompositeIndexReader createIndexReader(PinotDataBuffer dataBuffer, ColumnMetadata metadata,
+        CompositeIndexConfig indexConfig) {
+      return new BitmapCompositeIndexReader(dataBuffer);
+    }
+  }
+}
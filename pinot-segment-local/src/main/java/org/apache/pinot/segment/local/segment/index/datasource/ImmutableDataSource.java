@@ -47,6 +47,7 @@ public class ImmutableDataSource extends BaseDataSource {
     final Comparable _maxValue;
     final PartitionFunction _partitionFunction;
     final Set<Integer> _partitions;
+    final int _sharedDictionaryVersion;
 
     ImmutableDataSourceMetadata(ColumnMetadata columnMetadata) {
       _fieldSpec = columnMetadata.getFieldSpec();
@@ -63,6 +64,7 @@ public class ImmutableDataSource extends BaseDataSource {
       _partitionFunction = columnMetadata.getPartitionFunction();
       _partitions = columnMetadata.getPartitions();
       _cardinality = columnMetadata.getCardinality();
+      _sharedDictionaryVersion = columnMetadata.getSharedDictionaryVersion();
     }
 
     @Override
@@ -118,5 +120,10 @@ public class ImmutableDataSource extends BaseDataSource {
     public int getCardinality() {
       return _cardinality;
     }
+
+    @Override
+    public int getSharedDictionaryVersion() {
+      return _sharedDictionaryVersion;
+    }
   }
 }
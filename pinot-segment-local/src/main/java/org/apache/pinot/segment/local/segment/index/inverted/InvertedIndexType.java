@@ -26,10 +26,14 @@ import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeInvertedIndex;
+import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeRawValueInvertedIndex;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.OffHeapBitmapInvertedIndexCreator;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.OnHeapBitmapInvertedIndexCreator;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.RawValueBitmapInvertedIndexCreator;
 import org.apache.pinot.segment.local.segment.index.loader.invertedindex.InvertedIndexHandler;
 import org.apache.pinot.segment.local.segment.index.readers.BitmapInvertedIndexReader;
+import org.apache.pinot.segment.local.segment.index.readers.DensityAwareBitmapInvertedIndexReader;
+import org.apache.pinot.segment.local.segment.index.readers.RawValueBitmapInvertedIndexReader;
 import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.creator.IndexCreationContext;
@@ -52,6 +56,7 @@ import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.segment.spi.store.SegmentDirectory;
 import org.apache.pinot.spi.config.table.IndexConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.Schema;
 
 
@@ -92,12 +97,21 @@ public class InvertedIndexType
 
   public DictionaryBasedInvertedIndexCreator createIndexCreator(IndexCreationContext context)
       throws IOException {
+    if (!context.hasDictionary()) {
+      // Raw columns are indexed by value, which requires the sorted unique values
+      Object sortedValues = context.getSortedUniqueElementsArray();
+      Preconditions.checkState(sortedValues != null, "Cannot create inverted index for raw column: %s without unique "
+          + "values", context.getFieldSpec().getName());
+      return new RawValueBitmapInvertedIndexCreator(context.getIndexDir(), context.getFieldSpec(), sortedValues,
+          context.getTotalDocs(), context.getTotalNumberOfEntries(), context.isDensityAwareInvertedIndex());
+    }
     if (context.isOnHeap()) {
       return new OnHeapBitmapInvertedIndexCreator(context.getIndexDir(), context.getFieldSpec().getName(),
-          context.getCardinality());
+          context.getCardinality(), context.getTotalDocs(), context.isDensityAwareInvertedIndex());
     } else {
       return new OffHeapBitmapInvertedIndexCreator(context.getIndexDir(), context.getFieldSpec(),
-          context.getCardinality(), context.getTotalDocs(), context.getTotalNumberOfEntries());
+          context.getCardinality(), context.getTotalDocs(), context.getTotalNumberOfEntries(),
+          context.isDensityAwareInvertedIndex());
     }
   }
 
@@ -143,6 +157,9 @@ public class InvertedIndexType
     /**
      * Creates a {@link InvertedIndexReader}.
      *
+     * Raw columns are read with a {@link RawValueBitmapInvertedIndexReader}, which is looked up by value instead of
+     * dictionary id.
+     *
      * Unless {@link #createSkippingForward(SegmentDirectory.Reader, ColumnMetadata)}, this method first try to use the
      * forward index reader in case it is also an inverted index. That is the case, for example, when the column is
      * sorted and single value.
@@ -155,8 +172,9 @@ public class InvertedIndexType
         return null;
       }
       if (!metadata.hasDictionary()) {
-        throw new IllegalStateException("Column " + metadata.getColumnName() + " cannot be indexed by an inverted "
-            + "index if it has no dictionary");
+        return new RawValueBitmapInvertedIndexReader(
+            segmentReader.getIndexFor(metadata.getColumnName(), StandardIndexes.inverted()),
+            metadata.getDataType().getStoredType());
       }
       if (metadata.isSorted() && metadata.isSingleValue()) {
         ForwardIndexReader fwdReader =
@@ -181,6 +199,9 @@ public class InvertedIndexType
             + "index if it has no dictionary");
       }
       PinotDataBuffer dataBuffer = segmentReader.getIndexFor(metadata.getColumnName(), StandardIndexes.inverted());
+      if (DensityAwareBitmapInvertedIndexReader.isDensityAwareBuffer(dataBuffer)) {
+        return new DensityAwareBitmapInvertedIndexReader(dataBuffer, metadata.getCardinality());
+      }
       return new BitmapInvertedIndexReader(dataBuffer, metadata.getCardinality());
     }
   }
@@ -197,7 +218,10 @@ public class InvertedIndexType
       return null;
     }
     if (!context.hasDictionary()) {
-      return null;
+      // Raw columns are indexed by value, and so is the committed segment (see RawValueBitmapInvertedIndexCreator)
+      DataType storedType = context.getFieldSpec().getDataType().getStoredType();
+      return RealtimeRawValueInvertedIndex.isSupported(storedType) ? new RealtimeRawValueInvertedIndex(storedType)
+          : null;
     }
     return new RealtimeInvertedIndex();
   }
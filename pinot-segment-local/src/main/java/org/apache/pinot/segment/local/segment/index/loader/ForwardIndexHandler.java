@@ -888,7 +888,7 @@ public class ForwardIndexHandler extends BaseIndexHandler {
           reader.getStoredType(), statsCollector) || (optimizeDictionaryType
           && DictionaryIndexType.optimizeTypeShouldUseVarLengthDictionary(reader.getStoredType(), statsCollector));
       SegmentDictionaryCreator dictionaryCreator = new SegmentDictionaryCreator(existingColMetadata.getFieldSpec(),
-          _segmentDirectory.getSegmentMetadata().getIndexDir(), useVarLength);
+          _segmentDirectory.getSegmentMetadata().getIndexDir(), useVarLength, dictConf.getFrontCodingBucketSize());
 
       dictionaryCreator.build(statsCollector.getUniqueValuesSet());
       return dictionaryCreator;
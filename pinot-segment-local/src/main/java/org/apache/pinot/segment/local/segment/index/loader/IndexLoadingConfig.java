@@ -42,6 +42,7 @@ import org.apache.pinot.spi.data.DimensionFieldSpec;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.JsonShreddingUtils;
 import org.apache.pinot.spi.utils.ReadMode;
 import org.apache.pinot.spi.utils.TimestampIndexUtils;
 
@@ -169,6 +170,7 @@ public class IndexLoadingConfig {
   private void extractFromTableConfigAndSchema() {
     if (_schema != null) {
       TimestampIndexUtils.applyTimestampIndex(_tableConfig, _schema);
+      JsonShreddingUtils.applyJsonShredding(_tableConfig, _schema);
     }
 
     IndexingConfig indexingConfig = _tableConfig.getIndexingConfig();
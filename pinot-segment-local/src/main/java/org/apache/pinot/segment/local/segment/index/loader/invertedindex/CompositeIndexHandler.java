@@ -0,0 +1,253 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.loader.invertedindex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.index.forward.ForwardIndexType;
+import org.apache.pinot.segment.local.segment.index.loader.BaseIndexHandler;
+import org.apache.pinot.segment.local.segment.index.loader.LoaderUtils;
+import org.apache.pinot.segment.local.segment.index.readers.BitmapCompositeIndexReader;
+import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.creator.IndexCreationContext;
+import org.apache.pinot.segment.spi.creator.SegmentVersion;
+import org.apache.pinot.segment.spi.index.CompositeIndexConfig;
+import org.apache.pinot.segment.spi.index.FieldIndexConfigs;
+import org.apache.pinot.segment.spi.index.FieldIndexConfigsUtil;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.segment.spi.index.creator.CompositeIndexCreator;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.segment.spi.store.SegmentDirectory;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Handler for the composite index, which is built after the segment is created because it needs the forward index of
+ * all its columns. The index is attached to the column it is configured on, and is rebuilt when the configured columns
+ * change, or when the dictionary of any of its columns changes because the index is keyed by the dictionary ids (the
+ * checksums of the dictionaries are stored with the index). Columns that are not dictionary-encoded single-value
+ * columns with a forward index are not supported, and the composite index is skipped (or removed) for them.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class CompositeIndexHandler extends BaseIndexHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(CompositeIndexHandler.class);
+  private static final int CHECKSUM_CHUNK_SIZE = 1 << 20;
+
+  private final Map<String, CompositeIndexConfig> _compositeIndexConfigs;
+
+  public CompositeIndexHandler(SegmentDirectory segmentDirectory, Map<String, FieldIndexConfigs> fieldIndexConfigs,
+      @Nullable TableConfig tableConfig) {
+    super(segmentDirectory, fieldIndexConfigs, tableConfig);
+    _compositeIndexConfigs = FieldIndexConfigsUtil.enableConfigByColumn(StandardIndexes.composite(), fieldIndexConfigs);
+  }
+
+  @Override
+  public boolean needUpdateIndices(SegmentDirectory.Reader segmentReader)
+      throws IOException {
+    String segmentName = _segmentDirectory.getSegmentMetadata().getName();
+    Map<String, List<String>> columnsToAddIdx = getColumnsToAddIdx();
+    Set<String> existingColumns = segmentReader.toSegmentDirectory().getColumnsWithIndex(StandardIndexes.composite());
+    // Check if any existing index need to be removed or rebuilt.
+    for (String column : existingColumns) {
+      List<String> indexColumns = columnsToAddIdx.remove(column);
+      if (indexColumns == null || !isExistingIndexUpToDate(segmentReader, column, indexColumns)) {
+        LOGGER.info("Need to remove existing composite index from segment: {}, column: {}", segmentName, column);
+        return true;
+      }
+    }
+    // Check if any new index need to be added.
+    for (String column : columnsToAddIdx.keySet()) {
+      LOGGER.info("Need to create new composite index for segment: {}, column: {}", segmentName, column);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void updateIndices(SegmentDirectory.Writer segmentWriter)
+      throws Exception {
+    Map<String, List<String>> columnsToAddIdx = getColumnsToAddIdx();
+    // Remove indices not set in table config any more, or built on different columns
+    String segmentName = _segmentDirectory.getSegmentMetadata().getName();
+    Set<String> existingColumns = segmentWriter.toSegmentDirectory().getColumnsWithIndex(StandardIndexes.composite());
+    for (String column : existingColumns) {
+      List<String> indexColumns = columnsToAddIdx.get(column);
+      if (indexColumns != null && isExistingIndexUpToDate(segmentWriter, column, indexColumns)) {
+        columnsToAddIdx.remove(column);
+      } else {
+        LOGGER.info("Removing existing composite index from segment: {}, column: {}", segmentName, column);
+        segmentWriter.removeIndex(column, StandardIndexes.composite());
+        LOGGER.info("Removed existing composite index from segment: {}, column: {}", segmentName, column);
+      }
+    }
+    for (Map.Entry<String, List<String>> entry : columnsToAddIdx.entrySet()) {
+      createCompositeIndexForColumn(segmentWriter, entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Returns the columns of the composite index to build keyed by the column the index is attached to, skipping the
+   * configs with columns that are not supported in this segment.
+   */
+  private Map<String, List<String>> getColumnsToAddIdx() {
+    String segmentName = _segmentDirectory.getSegmentMetadata().getName();
+    Map<String, List<String>> columnsToAddIdx = new HashMap<>();
+    for (Map.Entry<String, CompositeIndexConfig> entry : _compositeIndexConfigs.entrySet()) {
+      String column = entry.getKey();
+      List<String> indexColumns = new ArrayList<>(entry.getValue().getColumns().size() + 1);
+      indexColumns.add(column);
+      indexColumns.addAll(entry.getValue().getColumns());
+      String unsupportedColumn = null;
+      for (String indexColumn : indexColumns) {
+        if (!isSupportedColumn(indexColumn)) {
+          unsupportedColumn = indexColumn;
+          break;
+        }
+      }
+      if (unsupportedColumn == null) {
+        columnsToAddIdx.put(column, indexColumns);
+      } else {
+        LOGGER.warn("Skipping composite index for segment: {}, column: {} because column: {} is not a "
+            + "dictionary-encoded single-value column with forward index", segmentName, column, unsupportedColumn);
+      }
+    }
+    return columnsToAddIdx;
+  }
+
+  private boolean isSupportedColumn(String column) {
+    ColumnMetadata columnMetadata = _segmentDirectory.getSegmentMetadata().getColumnMetadataFor(column);
+    return columnMetadata != null && columnMetadata.isSingleValue() && columnMetadata.hasDictionary()
+        && _segmentDirectory.getColumnsWithIndex(StandardIndexes.forward()).contains(column);
+  }
+
+  /**
+   * Returns {@code true} if the existing composite index is built on the given columns, and with the current
+   * dictionaries of these columns.
+   */
+  private static boolean isExistingIndexUpToDate(SegmentDirectory.Reader segmentReader, String column,
+      List<String> indexColumns)
+      throws IOException {
+    BitmapCompositeIndexReader compositeIndexReader =
+        new BitmapCompositeIndexReader(segmentReader.getIndexFor(column, StandardIndexes.composite()));
+    return indexColumns.equals(compositeIndexReader.getColumns()) && Arrays.equals(
+        getDictionaryChecksums(segmentReader, indexColumns), compositeIndexReader.getDictionaryChecksums());
+  }
+
+  private static long[] getDictionaryChecksums(SegmentDirectory.Reader segmentReader, List<String> indexColumns)
+      throws IOException {
+    int numColumns = indexColumns.size();
+    long[] dictionaryChecksums = new long[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      PinotDataBuffer dictionaryBuffer = segmentReader.getIndexFor(indexColumns.get(i), StandardIndexes.dictionary());
+      CRC32 crc32 = new CRC32();
+      long size = dictionaryBuffer.size();
+      for (long offset = 0; offset < size; offset += CHECKSUM_CHUNK_SIZE) {
+        crc32.update(dictionaryBuffer.toDirectByteBuffer(offset, (int) Math.min(CHECKSUM_CHUNK_SIZE, size - offset),
+            ByteOrder.BIG_ENDIAN));
+      }
+      dictionaryChecksums[i] = crc32.getValue();
+    }
+    return dictionaryChecksums;
+  }
+
+  private void createCompositeIndexForColumn(SegmentDirectory.Writer segmentWriter, String columnName,
+      List<String> indexColumns)
+      throws Exception {
+    File indexDir = _segmentDirectory.getSegmentMetadata().getIndexDir();
+    String segmentName = _segmentDirectory.getSegmentMetadata().getName();
+    File inProgress =
+        new File(indexDir, columnName + V1Constants.Indexes.COMPOSITE_INDEX_FILE_EXTENSION + ".inprogress");
+    File compositeIndexFile = new File(indexDir, columnName + V1Constants.Indexes.COMPOSITE_INDEX_FILE_EXTENSION);
+
+    if (!inProgress.exists()) {
+      // Marker file does not exist, which means last run ended normally.
+      // Create a marker file.
+      FileUtils.touch(inProgress);
+    } else {
+      // Marker file exists, which means last run gets interrupted.
+      // Remove composite index if exists.
+      // For v1 and v2, it's the actual composite index. For v3, it's the temporary composite index.
+      FileUtils.deleteQuietly(compositeIndexFile);
+    }
+
+    // Create new composite index for the column.
+    LOGGER.info("Creating new composite index for segment: {}, column: {} on columns: {}", segmentName, columnName,
+        indexColumns);
+    int numColumns = indexColumns.size();
+    ForwardIndexReader[] forwardIndexReaders = new ForwardIndexReader[numColumns];
+    ForwardIndexReaderContext[] readerContexts = new ForwardIndexReaderContext[numColumns];
+    ColumnMetadata columnMetadata = _segmentDirectory.getSegmentMetadata().getColumnMetadataFor(columnName);
+    IndexCreationContext context = IndexCreationContext.builder()
+        .withIndexDir(indexDir)
+        .withColumnMetadata(columnMetadata)
+        .build();
+    try (CompositeIndexCreator compositeIndexCreator = StandardIndexes.composite()
+        .createIndexCreator(context, _compositeIndexConfigs.get(columnName))) {
+      for (int i = 0; i < numColumns; i++) {
+        forwardIndexReaders[i] = ForwardIndexType.read(segmentWriter,
+            _segmentDirectory.getSegmentMetadata().getColumnMetadataFor(indexColumns.get(i)));
+        readerContexts[i] = forwardIndexReaders[i].createContext();
+      }
+      int numDocs = columnMetadata.getTotalDocs();
+      int[] dictIds = new int[numColumns];
+      for (int docId = 0; docId < numDocs; docId++) {
+        for (int i = 0; i < numColumns; i++) {
+          dictIds[i] = forwardIndexReaders[i].getDictId(docId, readerContexts[i]);
+        }
+        compositeIndexCreator.add(dictIds);
+      }
+      compositeIndexCreator.setDictionaryChecksums(getDictionaryChecksums(segmentWriter, indexColumns));
+      compositeIndexCreator.seal();
+    } finally {
+      for (int i = 0; i < numColumns; i++) {
+        if (readerContexts[i] != null) {
+          readerContexts[i].close();
+        }
+        if (forwardIndexReaders[i] != null) {
+          forwardIndexReaders[i].close();
+        }
+      }
+    }
+
+    // For v3, write the generated composite index file into the single file and remove it.
+    if (_segmentDirectory.getSegmentMetadata().getVersion() == SegmentVersion.v3) {
+      LoaderUtils.writeIndexToV3Format(segmentWriter, columnName, compositeIndexFile, StandardIndexes.composite());
+    }
+
+    // Delete the marker file.
+    FileUtils.deleteQuietly(inProgress);
+
+    LOGGER.info("Created composite index for segment: {}, column: {}", segmentName, columnName);
+  }
+}
@@ -139,6 +139,8 @@ public class InvertedIndexHandler extends BaseIndexHandler {
     IndexCreationContext.Common context = IndexCreationContext.builder()
         .withIndexDir(indexDir)
         .withColumnMetadata(columnMetadata)
+        .withDensityAwareInvertedIndex(_tableConfig != null && _tableConfig.getIndexingConfig()
+            .isDensityAwareInvertedIndex())
         .build();
 
     try (DictionaryBasedInvertedIndexCreator creator = StandardIndexes.inverted()
@@ -0,0 +1,417 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.map;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.io.util.PinotDataBitSet;
+import org.apache.pinot.segment.local.io.writer.impl.FixedBitSVForwardIndexWriter;
+import org.apache.pinot.segment.local.io.writer.impl.VarByteChunkForwardIndexWriterV4;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentDictionaryCreator;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.BitmapInvertedIndexWriter;
+import org.apache.pinot.segment.local.segment.index.readers.forward.VarByteChunkForwardIndexReaderV4;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.index.ForwardIndexConfig;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.config.table.MapIndexConfig;
+import org.apache.pinot.spi.data.ComplexFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.MapUtils;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * Creator for the v2 (columnar) map index.
+ *
+ * <p>The keys present in at least {@link #DENSE_KEY_MIN_FREQUENCY_KEY} of the documents (up to
+ * {@link #MAX_NUM_DENSE_KEYS_KEY} most frequent keys) are stored as dense typed sub-columns, each with a sorted
+ * dictionary, a bit-compressed forward index, a bitmap inverted index and a bitmap of the documents without the key.
+ * The documents without the key store the default null value of the map values. The remaining (sparse) keys are stored
+ * per document as a serialized map in a var-byte chunk forward index. Only maps with INT, LONG, FLOAT, DOUBLE or STRING
+ * values get dense sub-columns.
+ *
+ * <p>The documents are spilled to a temporary forward index while the key frequencies are collected, and re-read on
+ * seal to build the sub-columns, so that the memory usage is bounded by the dictionaries of the dense keys.
+ *
+ * <p>Index file layout (big-endian):
+ * <pre>
+ *   int version, int numDocs, int numDenseKeys
+ *   for each dense key:
+ *     int keyLength, byte[] key, int cardinality, int numBytesPerValue, int numBitsPerValue,
+ *     (long offset, long size) for the dictionary, forward index, inverted index and null bitmap
+ *   long sparseOffset, long sparseSize
+ *   the sections, in the order of the header
+ * </pre>
+ */
+public class ColumnarMapIndexCreator extends BaseMapIndexCreator {
+  // Minimum fraction of the documents a key must be present in to be stored as a dense sub-column
+  public static final String DENSE_KEY_MIN_FREQUENCY_KEY = "denseKeyMinFrequency";
+  public static final double DEFAULT_DENSE_KEY_MIN_FREQUENCY = 0.5;
+  // Maximum number of keys stored as dense sub-columns
+  public static final String MAX_NUM_DENSE_KEYS_KEY = "maxNumDenseKeys";
+  public static final int DEFAULT_MAX_NUM_DENSE_KEYS = 100;
+
+  // Dictionary, forward index, inverted index and null bitmap
+  static final int NUM_SECTIONS_PER_DENSE_KEY = 4;
+  private static final Set<DataType> DENSE_VALUE_TYPES =
+      EnumSet.of(DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE, DataType.STRING);
+
+  private final File _indexFile;
+  private final File _tempDir;
+  private final File _docsFile;
+  private final FieldSpec _valueFieldSpec;
+  private final DataType _valueStoredType;
+  private final double _denseKeyMinFrequency;
+  private final int _maxNumDenseKeys;
+  private final Object2IntOpenHashMap<String> _keyFrequencies = new Object2IntOpenHashMap<>();
+  private final VarByteChunkForwardIndexWriterV4 _docsWriter;
+  private int _numDocs;
+  private boolean _docsWriterClosed;
+
+  public ColumnarMapIndexCreator(File indexDir, FieldSpec fieldSpec, MapIndexConfig indexConfig)
+      throws IOException {
+    super(indexDir, fieldSpec.getName(), indexConfig);
+    String column = fieldSpec.getName();
+    _indexFile = new File(indexDir, column + V1Constants.Indexes.MAP_INDEX_FILE_EXTENSION);
+    _tempDir = new File(indexDir, column + V1Constants.Indexes.MAP_INDEX_FILE_EXTENSION + ".tmp");
+    FileUtils.deleteQuietly(_tempDir);
+    FileUtils.forceMkdir(_tempDir);
+    _docsFile = new File(_tempDir, "docs");
+    _valueFieldSpec = ComplexFieldSpec.toMapFieldSpec((ComplexFieldSpec) fieldSpec).getValueFieldSpec();
+    _valueStoredType = _valueFieldSpec.getDataType().getStoredType();
+    Map<String, Object> configs = indexConfig.getConfigs();
+    Object denseKeyMinFrequency = configs.get(DENSE_KEY_MIN_FREQUENCY_KEY);
+    _denseKeyMinFrequency = denseKeyMinFrequency != null ? Double.parseDouble(denseKeyMinFrequency.toString())
+        : DEFAULT_DENSE_KEY_MIN_FREQUENCY;
+    Object maxNumDenseKeys = configs.get(MAX_NUM_DENSE_KEYS_KEY);
+    _maxNumDenseKeys =
+        maxNumDenseKeys != null ? Integer.parseInt(maxNumDenseKeys.toString()) : DEFAULT_MAX_NUM_DENSE_KEYS;
+    _docsWriter = new VarByteChunkForwardIndexWriterV4(_docsFile, ChunkCompressionType.LZ4,
+        ForwardIndexConfig.DEFAULT_TARGET_MAX_CHUNK_SIZE_BYTES);
+  }
+
+  @Override
+  public void add(Map<String, Object> mapValue) {
+    _docsWriter.putBytes(MapUtils.serializeMap(mapValue));
+    for (Map.Entry<String, Object> entry : mapValue.entrySet()) {
+      if (entry.getValue() != null) {
+        _keyFrequencies.addTo(entry.getKey(), 1);
+      }
+    }
+    _numDocs++;
+  }
+
+  @Override
+  public boolean isDictionaryEncoded() {
+    return false;
+  }
+
+  @Override
+  public boolean isSingleValue() {
+    return true;
+  }
+
+  @Override
+  public DataType getValueType() {
+    return DataType.MAP;
+  }
+
+  @Override
+  public void seal()
+      throws IOException {
+    closeDocsWriter();
+    List<String> denseKeys = selectDenseKeys();
+    int numDenseKeys = denseKeys.size();
+    Object2IntOpenHashMap<String> denseKeyIds = new Object2IntOpenHashMap<>(numDenseKeys);
+    denseKeyIds.defaultReturnValue(-1);
+    for (int i = 0; i < numDenseKeys; i++) {
+      denseKeyIds.put(denseKeys.get(i), i);
+    }
+    Object defaultNullValue = _valueFieldSpec.getDefaultNullValue();
+    File sparseFile = new File(_tempDir, "sparse");
+    SegmentDictionaryCreator[] dictionaryCreators = new SegmentDictionaryCreator[numDenseKeys];
+    int[] cardinalities = new int[numDenseKeys];
+    int[] numBitsPerValue = new int[numDenseKeys];
+    try (PinotDataBuffer docsBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(_docsFile);
+        VarByteChunkForwardIndexReaderV4 docsReader =
+            new VarByteChunkForwardIndexReaderV4(docsBuffer, DataType.MAP, true);
+        VarByteChunkForwardIndexReaderV4.ReaderContext docsContext = docsReader.createContext()) {
+      // Build the dictionaries of the dense keys
+      List<Set<Object>> valueSets = new ArrayList<>(numDenseKeys);
+      for (String denseKey : denseKeys) {
+        Set<Object> valueSet = new HashSet<>();
+        if (_keyFrequencies.getInt(denseKey) < _numDocs) {
+          valueSet.add(defaultNullValue);
+        }
+        valueSets.add(valueSet);
+      }
+      if (numDenseKeys > 0) {
+        for (int docId = 0; docId < _numDocs; docId++) {
+          Map<String, Object> map = docsReader.getMap(docId, docsContext);
+          for (int i = 0; i < numDenseKeys; i++) {
+            Object value = map.get(denseKeys.get(i));
+            if (value != null) {
+              valueSets.get(i).add(convert(value));
+            }
+          }
+        }
+      }
+      for (int i = 0; i < numDenseKeys; i++) {
+        Set<Object> valueSet = valueSets.get(i);
+        dictionaryCreators[i] = new SegmentDictionaryCreator(denseKeys.get(i), _valueStoredType,
+            new File(_tempDir, i + V1Constants.Dict.FILE_EXTENSION), false);
+        dictionaryCreators[i].build(toSortedArray(valueSet));
+        cardinalities[i] = valueSet.size();
+        numBitsPerValue[i] = PinotDataBitSet.getNumBitsPerValue(cardinalities[i] - 1);
+      }
+
+      // Build the forward index, inverted index and null bitmap of the dense keys, and the sparse remainder
+      FixedBitSVForwardIndexWriter[] forwardIndexWriters = new FixedBitSVForwardIndexWriter[numDenseKeys];
+      RoaringBitmap[][] invertedIndexes = new RoaringBitmap[numDenseKeys][];
+      RoaringBitmap[] nullBitmaps = new RoaringBitmap[numDenseKeys];
+      for (int i = 0; i < numDenseKeys; i++) {
+        forwardIndexWriters[i] =
+            new FixedBitSVForwardIndexWriter(new File(_tempDir, i + ".fwd"), _numDocs, numBitsPerValue[i]);
+        invertedIndexes[i] = new RoaringBitmap[cardinalities[i]];
+        for (int dictId = 0; dictId < cardinalities[i]; dictId++) {
+          invertedIndexes[i][dictId] = new RoaringBitmap();
+        }
+        nullBitmaps[i] = new RoaringBitmap();
+      }
+      try (VarByteChunkForwardIndexWriterV4 sparseWriter = new VarByteChunkForwardIndexWriterV4(sparseFile,
+          ChunkCompressionType.LZ4, ForwardIndexConfig.DEFAULT_TARGET_MAX_CHUNK_SIZE_BYTES)) {
+        for (int docId = 0; docId < _numDocs; docId++) {
+          Map<String, Object> map = docsReader.getMap(docId, docsContext);
+          Map<String, Object> sparseMap = new HashMap<>();
+          for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (denseKeyIds.getInt(entry.getKey()) < 0) {
+              sparseMap.put(entry.getKey(), entry.getValue());
+            }
+          }
+          sparseWriter.putBytes(MapUtils.serializeMap(sparseMap));
+          for (int i = 0; i < numDenseKeys; i++) {
+            Object value = map.get(denseKeys.get(i));
+            int dictId;
+            if (value != null) {
+              dictId = dictionaryCreators[i].indexOfSV(convert(value));
+            } else {
+              dictId = dictionaryCreators[i].indexOfSV(defaultNullValue);
+              nullBitmaps[i].add(docId);
+            }
+            forwardIndexWriters[i].putDictId(dictId);
+            invertedIndexes[i][dictId].add(docId);
+          }
+        }
+      } finally {
+        for (FixedBitSVForwardIndexWriter forwardIndexWriter : forwardIndexWriters) {
+          if (forwardIndexWriter != null) {
+            forwardIndexWriter.close();
+          }
+        }
+      }
+      for (int i = 0; i < numDenseKeys; i++) {
+        try (BitmapInvertedIndexWriter invertedIndexWriter = new BitmapInvertedIndexWriter(
+            new File(_tempDir, i + ".inv"), invertedIndexes[i].length)) {
+          for (RoaringBitmap bitmap : invertedIndexes[i]) {
+            invertedIndexWriter.add(bitmap);
+          }
+        }
+        RoaringBitmap nullBitmap = nullBitmaps[i];
+        if (!nullBitmap.isEmpty()) {
+          nullBitmap.runOptimize();
+          try (DataOutputStream outputStream = new DataOutputStream(
+              new BufferedOutputStream(new FileOutputStream(new File(_tempDir, i + ".null"))))) {
+            nullBitmap.serialize(outputStream);
+          }
+        }
+      }
+    }
+
+    writeIndexFile(denseKeys, cardinalities, dictionaryCreators, numBitsPerValue, sparseFile);
+  }
+
+  /**
+   * Returns the keys to be stored as dense sub-columns, sorted by name.
+   */
+  private List<String> selectDenseKeys() {
+    if (!DENSE_VALUE_TYPES.contains(_valueStoredType) || _maxNumDenseKeys <= 0 || _numDocs == 0) {
+      return List.of();
+    }
+    int minNumDocs = Math.max((int) Math.ceil(_denseKeyMinFrequency * _numDocs), 1);
+    List<String> denseKeys = new ArrayList<>();
+    for (Object2IntOpenHashMap.Entry<String> entry : _keyFrequencies.object2IntEntrySet()) {
+      if (entry.getIntValue() >= minNumDocs) {
+        denseKeys.add(entry.getKey());
+      }
+    }
+    if (denseKeys.size() > _maxNumDenseKeys) {
+      denseKeys.sort(
+          Comparator.comparingInt((String key) -> _keyFrequencies.getInt(key)).reversed().thenComparing(key -> key));
+      denseKeys = new ArrayList<>(denseKeys.subList(0, _maxNumDenseKeys));
+    }
+    denseKeys.sort(null);
+    return denseKeys;
+  }
+
+  private void writeIndexFile(List<String> denseKeys, int[] cardinalities,
+      SegmentDictionaryCreator[] dictionaryCreators, int[] numBitsPerValue, File sparseFile)
+      throws IOException {
+    int numDenseKeys = denseKeys.size();
+    List<byte[]> keyBytesList = new ArrayList<>(numDenseKeys);
+    long headerSize = 3 * Integer.BYTES + 2 * Long.BYTES;
+    for (String denseKey : denseKeys) {
+      byte[] keyBytes = denseKey.getBytes(StandardCharsets.UTF_8);
+      keyBytesList.add(keyBytes);
+      headerSize += 4 * Integer.BYTES + keyBytes.length + NUM_SECTIONS_PER_DENSE_KEY * 2 * Long.BYTES;
+    }
+    // Missing sections (e.g. null bitmap of a key present in all the documents) are stored with size 0
+    List<File> sections = new ArrayList<>(numDenseKeys * NUM_SECTIONS_PER_DENSE_KEY + 1);
+    for (int i = 0; i < numDenseKeys; i++) {
+      sections.add(new File(_tempDir, i + V1Constants.Dict.FILE_EXTENSION));
+      sections.add(new File(_tempDir, i + ".fwd"));
+      sections.add(new File(_tempDir, i + ".inv"));
+      sections.add(new File(_tempDir, i + ".null"));
+    }
+    sections.add(sparseFile);
+
+    try (DataOutputStream outputStream = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(_indexFile)))) {
+      outputStream.writeInt(VERSION_2);
+      outputStream.writeInt(_numDocs);
+      outputStream.writeInt(numDenseKeys);
+      long offset = headerSize;
+      int sectionId = 0;
+      for (int i = 0; i < numDenseKeys; i++) {
+        byte[] keyBytes = keyBytesList.get(i);
+        outputStream.writeInt(keyBytes.length);
+        outputStream.write(keyBytes);
+        outputStream.writeInt(cardinalities[i]);
+        outputStream.writeInt(dictionaryCreators[i].getNumBytesPerEntry());
+        outputStream.writeInt(numBitsPerValue[i]);
+        for (int j = 0; j < NUM_SECTIONS_PER_DENSE_KEY; j++) {
+          long size = sections.get(sectionId++).length();
+          outputStream.writeLong(offset);
+          outputStream.writeLong(size);
+          offset += size;
+        }
+      }
+      outputStream.writeLong(offset);
+      outputStream.writeLong(sparseFile.length());
+      for (File section : sections) {
+        if (section.exists()) {
+          Files.copy(section.toPath(), outputStream);
+        }
+      }
+    }
+  }
+
+  private Object convert(Object value) {
+    switch (_valueStoredType) {
+      case INT:
+        return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
+      case LONG:
+        return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+      case FLOAT:
+        return value instanceof Number ? ((Number) value).floatValue() : Float.parseFloat(value.toString());
+      case DOUBLE:
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+      case STRING:
+        return value.toString();
+      default:
+        throw new IllegalStateException("Unsupported value type for dense map keys: " + _valueStoredType);
+    }
+  }
+
+  private Object toSortedArray(Set<Object> values) {
+    int numValues = values.size();
+    int index = 0;
+    switch (_valueStoredType) {
+      case INT:
+        int[] intValues = new int[numValues];
+        for (Object value : values) {
+          intValues[index++] = (Integer) value;
+        }
+        Arrays.sort(intValues);
+        return intValues;
+      case LONG:
+        long[] longValues = new long[numValues];
+        for (Object value : values) {
+          longValues[index++] = (Long) value;
+        }
+        Arrays.sort(longValues);
+        return longValues;
+      case FLOAT:
+        float[] floatValues = new float[numValues];
+        for (Object value : values) {
+          floatValues[index++] = (Float) value;
+        }
+        Arrays.sort(floatValues);
+        return floatValues;
+      case DOUBLE:
+        double[] doubleValues = new double[numValues];
+        for (Object value : values) {
+          doubleValues[index++] = (Double) value;
+        }
+        Arrays.sort(doubleValues);
+        return doubleValues;
+      case STRING:
+        String[] stringValues = values.toArray(new String[0]);
+        Arrays.sort(stringValues);
+        return stringValues;
+      default:
+        throw new IllegalStateException("Unsupported value type for dense map keys: " + _valueStoredType);
+    }
+  }
+
+  private void closeDocsWriter()
+      throws IOException {
+    if (!_docsWriterClosed) {
+      _docsWriterClosed = true;
+      _docsWriter.close();
+    }
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    try {
+      closeDocsWriter();
+    } finally {
+      FileUtils.deleteQuietly(_tempDir);
+    }
+  }
+}
@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
+import org.apache.pinot.segment.local.segment.index.readers.map.ColumnarMapIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.map.ImmutableMapIndexReader;
 import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.V1Constants;
@@ -101,7 +102,7 @@ public class MapIndexType extends AbstractIndexType<MapIndexConfig, MapIndexRead
           .getConstructor(String.class, String.class, MapIndexConfig.class)
           .newInstance(context.getIndexDir(), context.getFieldSpec().getName(), indexConfig);
     }
-    throw new IllegalArgumentException("MapIndexCreator class name must be provided");
+    return new ColumnarMapIndexCreator(context.getIndexDir(), context.getFieldSpec(), indexConfig);
   }
 
   @Override
@@ -147,6 +148,9 @@ public class MapIndexType extends AbstractIndexType<MapIndexConfig, MapIndexRead
           throw new RuntimeException("Failed to create MapIndexReader", e);
         }
       }
+      if (dataBuffer.getInt(0) == MapIndexCreator.VERSION_2) {
+        return new ColumnarMapIndexReader(dataBuffer, metadata);
+      }
       return new ImmutableMapIndexReader(dataBuffer, metadata);
     }
   }
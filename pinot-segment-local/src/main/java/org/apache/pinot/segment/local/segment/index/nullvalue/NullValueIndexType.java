@@ -46,6 +46,7 @@ import org.apache.pinot.spi.config.table.IndexConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.utils.JsonShreddingUtils;
 
 
 public class NullValueIndexType extends AbstractIndexType<IndexConfig, NullValueVectorReader, NullValueVectorCreator> {
@@ -94,7 +95,8 @@ public class NullValueIndexType extends AbstractIndexType<IndexConfig, NullValue
         if (enableColumnBasedNullHandling) {
           enabled = fieldSpec.isNullable();
         } else {
-          enabled = nullHandlingEnabled;
+          // Shredded JSON columns always track the missing JSON paths
+          enabled = nullHandlingEnabled || JsonShreddingUtils.isShreddedColumn(fieldSpec.getName());
         }
         indexConfig = enabled ? IndexConfig.ENABLED : IndexConfig.DISABLED;
         configMap.put(fieldSpec.getName(), indexConfig);
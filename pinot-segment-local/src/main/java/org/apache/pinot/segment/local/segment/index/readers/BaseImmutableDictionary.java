@@ -25,6 +25,7 @@ import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import org.apache.pinot.segment.local.io.util.FixedByteValueReaderWriter;
+import org.apache.pinot.segment.local.io.util.FrontCodedValueReader;
 import org.apache.pinot.segment.local.io.util.ValueReader;
 import org.apache.pinot.segment.local.io.util.VarLengthValueReader;
 import org.apache.pinot.segment.spi.index.reader.Dictionary;
@@ -39,11 +40,18 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 @SuppressWarnings("rawtypes")
 public abstract class BaseImmutableDictionary implements Dictionary {
   private final ValueReader _valueReader;
+  // Not null when the values are front-coded, in which case lookups should go through the bucket aware methods
+  private final FrontCodedValueReader _frontCodedValueReader;
   private final int _length;
   private final int _numBytesPerValue;
 
   protected BaseImmutableDictionary(PinotDataBuffer dataBuffer, int length, int numBytesPerValue) {
-    if (VarLengthValueReader.isVarLengthValueBuffer(dataBuffer)) {
+    FrontCodedValueReader frontCodedValueReader = null;
+    if (FrontCodedValueReader.isFrontCodedValueBuffer(dataBuffer)) {
+      frontCodedValueReader = new FrontCodedValueReader(dataBuffer);
+      _valueReader = frontCodedValueReader;
+      _length = frontCodedValueReader.getNumValues();
+    } else if (VarLengthValueReader.isVarLengthValueBuffer(dataBuffer)) {
       VarLengthValueReader valueReader = new VarLengthValueReader(dataBuffer);
       _valueReader = valueReader;
       _length = valueReader.getNumValues();
@@ -54,6 +62,7 @@ public abstract class BaseImmutableDictionary implements Dictionary {
       _valueReader = new FixedByteValueReaderWriter(dataBuffer);
       _length = length;
     }
+    _frontCodedValueReader = frontCodedValueReader;
     _numBytesPerValue = numBytesPerValue;
   }
 
@@ -62,6 +71,7 @@ public abstract class BaseImmutableDictionary implements Dictionary {
    */
   protected BaseImmutableDictionary(int length) {
     _valueReader = null;
+    _frontCodedValueReader = null;
     _length = length;
     _numBytesPerValue = -1;
   }
@@ -208,9 +218,12 @@ public abstract class BaseImmutableDictionary implements Dictionary {
   }
 
   protected int binarySearch(String value) {
+    byte[] utf8 = value.getBytes(UTF_8);
+    if (_frontCodedValueReader != null) {
+      return _frontCodedValueReader.binarySearchUtf8(utf8);
+    }
     int low = 0;
     int high = _length - 1;
-    byte[] utf8 = value.getBytes(UTF_8);
     while (low <= high) {
       int mid = (low + high) >>> 1;
       int compareResult = _valueReader.compareUtf8Bytes(mid, _numBytesPerValue, utf8);
@@ -226,6 +239,9 @@ public abstract class BaseImmutableDictionary implements Dictionary {
   }
 
   protected int binarySearch(byte[] value) {
+    if (_frontCodedValueReader != null) {
+      return _frontCodedValueReader.binarySearchBytes(value);
+    }
     int low = 0;
     int high = _length - 1;
     while (low <= high) {
@@ -278,6 +294,23 @@ public abstract class BaseImmutableDictionary implements Dictionary {
     return _valueReader.getBytes(dictId, _numBytesPerValue);
   }
 
+  /**
+   * Returns whether the values are front-coded. Bulk reads of front-coded values should go through
+   * {@link #readUnpaddedStrings(int[], int, String[])} and {@link #readUnpaddedBytes(int[], int, byte[][])}, which
+   * decode each bucket at most once for sorted dict ids.
+   */
+  protected boolean isFrontCoded() {
+    return _frontCodedValueReader != null;
+  }
+
+  protected void readUnpaddedStrings(int[] dictIds, int length, String[] outValues) {
+    _frontCodedValueReader.readUnpaddedStrings(dictIds, length, outValues);
+  }
+
+  protected void readUnpaddedBytes(int[] dictIds, int length, byte[][] outValues) {
+    _frontCodedValueReader.readBytes(dictIds, length, outValues);
+  }
+
   protected byte[] getBuffer() {
     return new byte[_numBytesPerValue];
   }
@@ -316,6 +349,10 @@ public abstract class BaseImmutableDictionary implements Dictionary {
   }
 
   private int binarySearch(String value, int startDictId, int endDictId) {
+    if (_frontCodedValueReader != null) {
+      // The values are sorted, so the global search returns the same result as the search within the range
+      return binarySearch(value);
+    }
     int low = startDictId;
     int high = endDictId - 1;
     byte[] utf8 = value.getBytes(UTF_8);
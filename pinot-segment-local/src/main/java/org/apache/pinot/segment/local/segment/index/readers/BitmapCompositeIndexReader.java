@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.OnHeapBitmapCompositeIndexCreator;
+import org.apache.pinot.segment.spi.index.reader.CompositeIndexReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Reader for the composite index, which binary searches the sorted tuples of dictionary ids and reads the bitmap of the
+ * matching tuple. Please reference {@link OnHeapBitmapCompositeIndexCreator} for the index file layout.
+ */
+public class BitmapCompositeIndexReader implements CompositeIndexReader {
+  private final List<String> _columns;
+  private final long[] _dictionaryChecksums;
+  private final int _numColumns;
+  private final int _numTuples;
+  private final PinotDataBuffer _tupleBuffer;
+  private final BitmapInvertedIndexReader _bitmapReader;
+
+  public BitmapCompositeIndexReader(PinotDataBuffer dataBuffer) {
+    PinotDataBuffer buffer = dataBuffer.view(0, dataBuffer.size(), ByteOrder.BIG_ENDIAN);
+    int version = buffer.getInt(0);
+    Preconditions.checkState(version == OnHeapBitmapCompositeIndexCreator.VERSION,
+        "Unsupported composite index version: %s", version);
+    _numColumns = buffer.getInt(Integer.BYTES);
+    _numTuples = buffer.getInt(2 * Integer.BYTES);
+    long offset = 3 * Integer.BYTES;
+    List<String> columns = new ArrayList<>(_numColumns);
+    for (int i = 0; i < _numColumns; i++) {
+      byte[] bytes = new byte[buffer.getInt(offset)];
+      offset += Integer.BYTES;
+      buffer.copyTo(offset, bytes);
+      offset += bytes.length;
+      columns.add(new String(bytes, StandardCharsets.UTF_8));
+    }
+    _columns = Collections.unmodifiableList(columns);
+    _dictionaryChecksums = new long[_numColumns];
+    for (int i = 0; i < _numColumns; i++) {
+      _dictionaryChecksums[i] = buffer.getLong(offset);
+      offset += Long.BYTES;
+    }
+    long tupleBufferEndOffset = offset + (long) _numTuples * _numColumns * Integer.BYTES;
+    _tupleBuffer = buffer.view(offset, tupleBufferEndOffset, ByteOrder.BIG_ENDIAN);
+    _bitmapReader = new BitmapInvertedIndexReader(buffer.view(tupleBufferEndOffset, buffer.size()), _numTuples);
+  }
+
+  @Override
+  public List<String> getColumns() {
+    return _columns;
+  }
+
+  /**
+   * Returns the checksums of the dictionaries the index was built with, one for each column in the order of
+   * {@link #getColumns()}.
+   */
+  public long[] getDictionaryChecksums() {
+    return _dictionaryChecksums;
+  }
+
+  @Override
+  public ImmutableRoaringBitmap getDocIds(int[] dictIds) {
+    Preconditions.checkArgument(dictIds.length == _numColumns, "Expected %s dictionary ids, got: %s", _numColumns,
+        dictIds.length);
+    int low = 0;
+    int high = _numTuples - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int result = compareTuple(mid, dictIds);
+      if (result < 0) {
+        low = mid + 1;
+      } else if (result > 0) {
+        high = mid - 1;
+      } else {
+        return _bitmapReader.getDocIds(mid);
+      }
+    }
+    return new MutableRoaringBitmap();
+  }
+
+  private int compareTuple(int tupleId, int[] dictIds) {
+    long offset = (long) tupleId * _numColumns * Integer.BYTES;
+    for (int i = 0; i < _numColumns; i++) {
+      int result = Integer.compare(_tupleBuffer.getInt(offset + (long) i * Integer.BYTES), dictIds[i]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.DensityAwareBitmapInvertedIndexWriter;
+import org.apache.pinot.segment.spi.index.reader.DensityAwareInvertedIndexReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Reader for density-aware bitmap inverted index. Please reference {@link DensityAwareBitmapInvertedIndexWriter} for
+ * the index file layout.
+ */
+public class DensityAwareBitmapInvertedIndexReader implements DensityAwareInvertedIndexReader {
+  private static final int HEADER_SIZE = DensityAwareBitmapInvertedIndexWriter.HEADER_SIZE;
+
+  private final int _numDocs;
+  private final PinotDataBuffer _offsetBuffer;
+  private final PinotDataBuffer _bitmapBuffer;
+  private final long _firstOffset;
+
+  public DensityAwareBitmapInvertedIndexReader(PinotDataBuffer dataBuffer, int numBitmaps) {
+    PinotDataBuffer headerBuffer = dataBuffer.view(0, HEADER_SIZE, ByteOrder.BIG_ENDIAN);
+    Preconditions.checkState(headerBuffer.getInt(0) == DensityAwareBitmapInvertedIndexWriter.MAGIC_MARKER,
+        "Invalid magic marker for density-aware inverted index");
+    int version = headerBuffer.getInt(Integer.BYTES);
+    Preconditions.checkState(version == DensityAwareBitmapInvertedIndexWriter.VERSION,
+        "Unsupported density-aware inverted index version: %s", version);
+    _numDocs = headerBuffer.getInt(2 * Integer.BYTES);
+    long offsetBufferEndOffset = HEADER_SIZE + (long) (numBitmaps + 1) * Integer.BYTES;
+    _offsetBuffer = dataBuffer.view(HEADER_SIZE, offsetBufferEndOffset, ByteOrder.BIG_ENDIAN);
+    _bitmapBuffer = dataBuffer.view(offsetBufferEndOffset, dataBuffer.size());
+    _firstOffset = getOffset(0);
+  }
+
+  /**
+   * Returns whether the given buffer contains a density-aware bitmap inverted index.
+   */
+  public static boolean isDensityAwareBuffer(PinotDataBuffer dataBuffer) {
+    return dataBuffer.size() >= HEADER_SIZE && dataBuffer.view(0, Integer.BYTES, ByteOrder.BIG_ENDIAN).getInt(0)
+        == DensityAwareBitmapInvertedIndexWriter.MAGIC_MARKER;
+  }
+
+  @Override
+  public ImmutableRoaringBitmap getDocIds(int dictId) {
+    long offset = getOffset(dictId) - _firstOffset;
+    int length = (int) (getOffset(dictId + 1) - _firstOffset - offset);
+    ByteBuffer buffer = _bitmapBuffer.toDirectByteBuffer(offset + 1, length - 1);
+    byte encoding = _bitmapBuffer.getByte(offset);
+    switch (encoding) {
+      case DensityAwareBitmapInvertedIndexWriter.ROARING_ENCODING:
+        return new ImmutableRoaringBitmap(buffer);
+      case DensityAwareBitmapInvertedIndexWriter.DELTA_ENCODING:
+        return decodeDeltas(buffer);
+      case DensityAwareBitmapInvertedIndexWriter.COMPLEMENT_ENCODING:
+        return ImmutableRoaringBitmap.flip(new ImmutableRoaringBitmap(buffer), 0L, _numDocs);
+      default:
+        throw new IllegalStateException("Unsupported bitmap encoding: " + encoding);
+    }
+  }
+
+  @Override
+  public boolean isComplemented(int dictId) {
+    return _bitmapBuffer.getByte(getOffset(dictId) - _firstOffset)
+        == DensityAwareBitmapInvertedIndexWriter.COMPLEMENT_ENCODING;
+  }
+
+  @Override
+  public ImmutableRoaringBitmap getStoredDocIds(int dictId) {
+    if (!isComplemented(dictId)) {
+      return getDocIds(dictId);
+    }
+    long offset = getOffset(dictId) - _firstOffset;
+    int length = (int) (getOffset(dictId + 1) - _firstOffset - offset);
+    return new ImmutableRoaringBitmap(_bitmapBuffer.toDirectByteBuffer(offset + 1, length - 1));
+  }
+
+  public int getNumDocs() {
+    return _numDocs;
+  }
+
+  private long getOffset(int dictId) {
+    return _offsetBuffer.getInt(dictId * Integer.BYTES) & 0xFFFFFFFFL;
+  }
+
+  private static MutableRoaringBitmap decodeDeltas(ByteBuffer buffer) {
+    int numDocIds = readVarInt(buffer);
+    int[] docIds = new int[numDocIds];
+    int docId = 0;
+    for (int i = 0; i < numDocIds; i++) {
+      docId += readVarInt(buffer);
+      docIds[i] = docId;
+    }
+    return MutableRoaringBitmap.bitmapOf(docIds);
+  }
+
+  private static int readVarInt(ByteBuffer buffer) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get();
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return value;
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+}
@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteOrder;
+import org.apache.pinot.segment.local.io.util.FixedByteValueReaderWriter;
+import org.apache.pinot.segment.local.io.util.ValueReader;
+import org.apache.pinot.segment.local.io.util.VarLengthValueReader;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.RawValueBitmapInvertedIndexCreator;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.RawValueInvertedIndexReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Reader for raw value bitmap inverted index, which looks up the value within the sorted unique values, and reads the
+ * bitmap at the position of the value. Please reference {@link RawValueBitmapInvertedIndexCreator} for the index file
+ * layout.
+ */
+public class RawValueBitmapInvertedIndexReader implements RawValueInvertedIndexReader<ImmutableRoaringBitmap> {
+  private final DataType _storedType;
+  private final int _numValues;
+  private final ValueReader _valueReader;
+  private final InvertedIndexReader<ImmutableRoaringBitmap> _bitmapReader;
+
+  public RawValueBitmapInvertedIndexReader(PinotDataBuffer dataBuffer, DataType storedType) {
+    _storedType = storedType;
+    PinotDataBuffer headerBuffer =
+        dataBuffer.view(0, RawValueBitmapInvertedIndexCreator.HEADER_SIZE, ByteOrder.BIG_ENDIAN);
+    Preconditions.checkState(headerBuffer.getInt(0) == RawValueBitmapInvertedIndexCreator.MAGIC_MARKER,
+        "Invalid magic marker in raw value inverted index buffer");
+    int version = headerBuffer.getInt(Integer.BYTES);
+    Preconditions.checkState(version == RawValueBitmapInvertedIndexCreator.VERSION,
+        "Unsupported raw value inverted index version: %s", version);
+    _numValues = headerBuffer.getInt(2 * Integer.BYTES);
+    long valuesEndOffset = RawValueBitmapInvertedIndexCreator.HEADER_SIZE + headerBuffer.getLong(3 * Integer.BYTES);
+    PinotDataBuffer valuesBuffer =
+        dataBuffer.view(RawValueBitmapInvertedIndexCreator.HEADER_SIZE, valuesEndOffset, ByteOrder.BIG_ENDIAN);
+    _valueReader = storedType.isFixedWidth() ? new FixedByteValueReaderWriter(valuesBuffer)
+        : new VarLengthValueReader(valuesBuffer);
+    PinotDataBuffer bitmapsBuffer = dataBuffer.view(valuesEndOffset, dataBuffer.size());
+    if (DensityAwareBitmapInvertedIndexReader.isDensityAwareBuffer(bitmapsBuffer)) {
+      _bitmapReader = new DensityAwareBitmapInvertedIndexReader(bitmapsBuffer, _numValues);
+    } else {
+      _bitmapReader = new BitmapInvertedIndexReader(bitmapsBuffer, _numValues);
+    }
+  }
+
+  @Override
+  public ImmutableRoaringBitmap getDocIdsForValue(Object value) {
+    int index = indexOf(value);
+    return index >= 0 ? _bitmapReader.getDocIds(index) : new MutableRoaringBitmap();
+  }
+
+  /**
+   * Returns the number of unique values in the index.
+   */
+  public int getNumValues() {
+    return _numValues;
+  }
+
+  private int indexOf(Object value) {
+    switch (_storedType) {
+      case INT:
+        return binarySearch((int) value);
+      case LONG:
+        return binarySearch((long) value);
+      case STRING:
+        return binarySearch(((String) value).getBytes(UTF_8), true);
+      case BYTES:
+        return binarySearch(((ByteArray) value).getBytes(), false);
+      default:
+        throw new IllegalStateException("Unsupported stored type: " + _storedType);
+    }
+  }
+
+  private int binarySearch(int value) {
+    int low = 0;
+    int high = _numValues - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midValue = _valueReader.getInt(mid);
+      if (midValue < value) {
+        low = mid + 1;
+      } else if (midValue > value) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private int binarySearch(long value) {
+    int low = 0;
+    int high = _numValues - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long midValue = _valueReader.getLong(mid);
+      if (midValue < value) {
+        low = mid + 1;
+      } else if (midValue > value) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private int binarySearch(byte[] value, boolean utf8) {
+    int low = 0;
+    int high = _numValues - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int compareResult =
+          utf8 ? _valueReader.compareUtf8Bytes(mid, 0, value) : _valueReader.compareBytes(mid, 0, value);
+      if (compareResult < 0) {
+        low = mid + 1;
+      } else if (compareResult > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+}
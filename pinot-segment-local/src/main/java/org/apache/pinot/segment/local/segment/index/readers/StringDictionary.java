@@ -145,6 +145,10 @@ public class StringDictionary extends BaseImmutableDictionary {
 
   @Override
   public void readStringValues(int[] dictIds, int length, String[] outValues) {
+    if (isFrontCoded()) {
+      readUnpaddedStrings(dictIds, length, outValues);
+      return;
+    }
     byte[] buffer = getBuffer();
     for (int i = 0; i < length; i++) {
       outValues[i] = getUnpaddedString(dictIds[i], buffer);
@@ -153,6 +157,10 @@ public class StringDictionary extends BaseImmutableDictionary {
 
   @Override
   public void readBytesValues(int[] dictIds, int length, byte[][] outValues) {
+    if (isFrontCoded()) {
+      readUnpaddedBytes(dictIds, length, outValues);
+      return;
+    }
     byte[] buffer = getBuffer();
     for (int i = 0; i < length; i++) {
       outValues[i] = getUnpaddedBytes(dictIds[i], buffer);
@@ -47,13 +47,12 @@ import org.apache.pinot.segment.spi.index.creator.JsonIndexCreator;
 import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.spi.data.FieldSpec;
-import org.apache.pinot.spi.exception.BadQueryRequestException;
 import org.apache.pinot.spi.trace.Tracing;
 import org.apache.pinot.spi.utils.JsonUtils;
-import org.apache.pinot.sql.parsers.CalciteSqlParser;
 import org.roaringbitmap.IntConsumer;
 import org.roaringbitmap.PeekableIntIterator;
 import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.RoaringBitmapWriter;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
@@ -96,27 +95,20 @@ public class ImmutableJsonIndexReader implements JsonIndexReader {
 
   @Override
   public MutableRoaringBitmap getMatchingDocIds(String filterString) {
-    FilterContext filter;
-    try {
-      filter = RequestContextUtils.getFilter(CalciteSqlParser.compileToExpression(filterString));
-      Preconditions.checkArgument(!filter.isConstant());
-    } catch (Exception e) {
-      throw new BadQueryRequestException("Invalid json match filter: " + filterString);
-    }
+    return getMatchingDocIds(RequestContextUtils.getJsonMatchFilter(filterString));
+  }
 
+  @Override
+  public MutableRoaringBitmap getMatchingDocIds(Object filterObj) {
+    FilterContext filter = (FilterContext) filterObj;
     if (filter.getType() == FilterContext.Type.PREDICATE && isExclusive(filter.getPredicate().getType())) {
       // Handle exclusive predicate separately because the flip can only be applied to the unflattened doc ids in order
       // to get the correct result, and it cannot be nested
-      MutableRoaringBitmap matchingFlattenedDocIds = getMatchingFlattenedDocIds(filter.getPredicate());
-      MutableRoaringBitmap matchingDocIds = new MutableRoaringBitmap();
-      matchingFlattenedDocIds.forEach((IntConsumer) flattenedDocId -> matchingDocIds.add(getDocId(flattenedDocId)));
+      MutableRoaringBitmap matchingDocIds = getDocIds(getMatchingFlattenedDocIds(filter.getPredicate()));
       matchingDocIds.flip(0, _numDocs);
       return matchingDocIds;
     } else {
-      MutableRoaringBitmap matchingFlattenedDocIds = getMatchingFlattenedDocIds(filter);
-      MutableRoaringBitmap matchingDocIds = new MutableRoaringBitmap();
-      matchingFlattenedDocIds.forEach((IntConsumer) flattenedDocId -> matchingDocIds.add(getDocId(flattenedDocId)));
-      return matchingDocIds;
+      return getDocIds(getMatchingFlattenedDocIds(filter));
     }
   }
 
@@ -391,11 +383,68 @@ public class ImmutableJsonIndexReader implements JsonIndexReader {
     return _docIdMapping.getInt((long) flattenedDocId << 2);
   }
 
+  /**
+   * Converts the given flattened doc ids to the unflattened doc ids.
+   */
+  private MutableRoaringBitmap getDocIds(ImmutableRoaringBitmap flattenedDocIds) {
+    RoaringBitmapWriter<MutableRoaringBitmap> docIdsWriter = RoaringBitmapWriter.bufferWriter().get();
+    forEachDocId(flattenedDocIds.getIntIterator(), docIdsWriter::add);
+    return docIdsWriter.get();
+  }
+
+  /**
+   * Feeds the unflattened doc ids of the flattened doc ids from the given iterator to the consumer in ascending order
+   * without duplicates.
+   * <p>The flattened docs of a doc are stored consecutively, so the doc id mapping is sorted. Once a flattened doc id
+   * is mapped, all the other flattened docs of the same doc can be skipped by searching the end of the run of the doc
+   * id in the mapping, instead of looking up the doc id for each of them.
+   */
+  private void forEachDocId(PeekableIntIterator flattenedDocIdIterator, IntConsumer consumer) {
+    while (flattenedDocIdIterator.hasNext()) {
+      int flattenedDocId = flattenedDocIdIterator.next();
+      int docId = getDocId(flattenedDocId);
+      consumer.accept(docId);
+      flattenedDocIdIterator.advanceIfNeeded(getEndFlattenedDocId(flattenedDocId, docId));
+    }
+  }
+
+  /**
+   * Returns the first flattened doc id after the given one that does not belong to the given doc, or the number of
+   * flattened docs if there is none. Uses exponential search followed by binary search to find the end of the run.
+   */
+  private int getEndFlattenedDocId(int flattenedDocId, int docId) {
+    // Invariant: getDocId(low) == docId, and high is either out of bound or getDocId(high) != docId
+    int low = flattenedDocId;
+    int high = (int) _numFlattenedDocs;
+    int step = 1;
+    while (true) {
+      long probe = (long) low + step;
+      if (probe >= high) {
+        break;
+      }
+      if (getDocId((int) probe) != docId) {
+        high = (int) probe;
+        break;
+      }
+      low = (int) probe;
+      step <<= 1;
+    }
+    while (high - low > 1) {
+      int mid = (low + high) >>> 1;
+      if (getDocId(mid) == docId) {
+        low = mid;
+      } else {
+        high = mid;
+      }
+    }
+    return high;
+  }
+
   public void convertFlattenedDocIdsToDocIds(Map<String, RoaringBitmap> valueToFlattenedDocIds) {
     valueToFlattenedDocIds.replaceAll((key, value) -> {
-      RoaringBitmap docIds = new RoaringBitmap();
-      value.forEach((IntConsumer) flattenedDocId -> docIds.add(getDocId(flattenedDocId)));
-      return docIds;
+      RoaringBitmapWriter<RoaringBitmap> docIdsWriter = RoaringBitmapWriter.writer().get();
+      forEachDocId(value.getIntIterator(), docIdsWriter::add);
+      return docIdsWriter.get();
     });
   }
 
@@ -403,13 +452,7 @@ public class ImmutableJsonIndexReader implements JsonIndexReader {
   public Map<String, RoaringBitmap> getMatchingFlattenedDocsMap(String jsonPathKey, @Nullable String filterString) {
     RoaringBitmap filteredFlattenedDocIds = null;
     if (filterString != null) {
-      FilterContext filter;
-      try {
-        filter = RequestContextUtils.getFilter(CalciteSqlParser.compileToExpression(filterString));
-        Preconditions.checkArgument(!filter.isConstant());
-      } catch (Exception e) {
-        throw new BadQueryRequestException("Invalid json match filter: " + filterString);
-      }
+      FilterContext filter = RequestContextUtils.getJsonMatchFilter(filterString);
       if (filter.getType() == FilterContext.Type.PREDICATE && isExclusive(filter.getPredicate().getType())) {
         // Handle exclusive predicate separately because the flip can only be applied to the
         // unflattened doc ids in order to get the correct result, and it cannot be nested
@@ -0,0 +1,232 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers.map;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexType;
+import org.apache.pinot.segment.local.segment.index.map.ColumnarMapIndexCreator;
+import org.apache.pinot.segment.local.segment.index.map.MapKeyIndexReader;
+import org.apache.pinot.segment.local.segment.index.readers.BitmapInvertedIndexReader;
+import org.apache.pinot.segment.local.segment.index.readers.NullValueVectorReaderImpl;
+import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
+import org.apache.pinot.segment.local.segment.index.readers.forward.VarByteChunkForwardIndexReaderV4;
+import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.index.DictionaryIndexConfig;
+import org.apache.pinot.segment.spi.index.IndexReader;
+import org.apache.pinot.segment.spi.index.IndexType;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.segment.spi.index.creator.MapIndexCreator;
+import org.apache.pinot.segment.spi.index.metadata.ColumnMetadataImpl;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
+import org.apache.pinot.segment.spi.index.reader.MapIndexReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.ComplexFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.utils.MapUtils;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Reader for the v2 (columnar) map index created by {@link ColumnarMapIndexCreator}.
+ *
+ * <p>Each dense key is exposed as a regular dictionary-encoded column with forward, inverted and null value vector
+ * indexes, so that the projections and filters on the key run at column speed. The sparse keys are read from the
+ * serialized map of the remaining keys. {@link #getKeys()} only returns the dense keys.
+ */
+public class ColumnarMapIndexReader implements MapIndexReader<ForwardIndexReaderContext, IndexReader> {
+  private final FieldSpec _valueFieldSpec;
+  private final int _numDocs;
+  private final Map<String, DenseKey> _denseKeys;
+  private final VarByteChunkForwardIndexReaderV4 _sparseReader;
+
+  public ColumnarMapIndexReader(PinotDataBuffer dataBuffer, ColumnMetadata columnMetadata) {
+    int version = dataBuffer.getInt(0);
+    Preconditions.checkState(version == MapIndexCreator.VERSION_2, "Unsupported map index version: %s", version);
+    _valueFieldSpec =
+        ComplexFieldSpec.toMapFieldSpec((ComplexFieldSpec) columnMetadata.getFieldSpec()).getValueFieldSpec();
+    _numDocs = dataBuffer.getInt(4);
+    int numDenseKeys = dataBuffer.getInt(8);
+    _denseKeys = new LinkedHashMap<>(numDenseKeys);
+    long offset = 12;
+    for (int i = 0; i < numDenseKeys; i++) {
+      byte[] keyBytes = new byte[dataBuffer.getInt(offset)];
+      dataBuffer.copyTo(offset + Integer.BYTES, keyBytes);
+      offset += Integer.BYTES + keyBytes.length;
+      String key = new String(keyBytes, StandardCharsets.UTF_8);
+      int cardinality = dataBuffer.getInt(offset);
+      int numBytesPerValue = dataBuffer.getInt(offset + Integer.BYTES);
+      int numBitsPerValue = dataBuffer.getInt(offset + 2 * Integer.BYTES);
+      offset += 3 * Integer.BYTES;
+      PinotDataBuffer[] sections = new PinotDataBuffer[ColumnarMapIndexCreator.NUM_SECTIONS_PER_DENSE_KEY];
+      for (int j = 0; j < sections.length; j++) {
+        long sectionOffset = dataBuffer.getLong(offset);
+        long sectionSize = dataBuffer.getLong(offset + Long.BYTES);
+        offset += 2 * Long.BYTES;
+        sections[j] = sectionSize > 0 ? dataBuffer.view(sectionOffset, sectionOffset + sectionSize) : null;
+      }
+      _denseKeys.put(key, new DenseKey(cardinality, numBytesPerValue, numBitsPerValue, sections));
+    }
+    long sparseOffset = dataBuffer.getLong(offset);
+    long sparseSize = dataBuffer.getLong(offset + Long.BYTES);
+    _sparseReader = new VarByteChunkForwardIndexReaderV4(dataBuffer.view(sparseOffset, sparseOffset + sparseSize),
+        FieldSpec.DataType.MAP, true);
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+
+  @Override
+  public Set<String> getKeys() {
+    return Collections.unmodifiableSet(_denseKeys.keySet());
+  }
+
+  @Override
+  public IndexReader getKeyReader(String key, IndexType indexType) {
+    return getKeyIndexes(key).get(indexType);
+  }
+
+  @Override
+  public Map<IndexType, IndexReader> getKeyIndexes(String key) {
+    DenseKey denseKey = _denseKeys.get(key);
+    if (denseKey == null) {
+      return Map.of(StandardIndexes.forward(), new MapKeyIndexReader(_sparseReader, key, _valueFieldSpec));
+    }
+    Map<IndexType, IndexReader> indexes = new HashMap<>();
+    indexes.put(StandardIndexes.dictionary(), denseKey._dictionary);
+    indexes.put(StandardIndexes.forward(), denseKey._forwardIndex);
+    indexes.put(StandardIndexes.inverted(), denseKey._invertedIndex);
+    if (denseKey._nullValueVector != null) {
+      indexes.put(StandardIndexes.nullValueVector(), denseKey._nullValueVector);
+    }
+    return indexes;
+  }
+
+  @Override
+  public FieldSpec getKeyFieldSpec(String key) {
+    return _valueFieldSpec;
+  }
+
+  @Override
+  public FieldSpec.DataType getKeyStoredType(String key) {
+    return _denseKeys.containsKey(key) ? FieldSpec.DataType.INT : _valueFieldSpec.getDataType();
+  }
+
+  @Override
+  public ColumnMetadata getKeyMetadata(String key) {
+    DenseKey denseKey = _denseKeys.get(key);
+    if (denseKey != null) {
+      return denseKey._metadata;
+    }
+    return ColumnMetadataImpl.builder().setFieldSpec(_valueFieldSpec).setTotalDocs(_numDocs)
+        .setTotalNumberOfEntries(_numDocs).build();
+  }
+
+  @Override
+  public boolean isDictionaryEncoded() {
+    return false;
+  }
+
+  @Override
+  public boolean isSingleValue() {
+    return true;
+  }
+
+  @Override
+  public FieldSpec.DataType getStoredType() {
+    return FieldSpec.DataType.MAP;
+  }
+
+  @Nullable
+  @Override
+  public ChunkCompressionType getCompressionType() {
+    return _sparseReader.getCompressionType();
+  }
+
+  @Override
+  public ForwardIndexReaderContext createContext() {
+    return _sparseReader.createContext();
+  }
+
+  @Override
+  public Map<String, Object> getMap(int docId, ForwardIndexReaderContext context) {
+    Map<String, Object> sparseMap =
+        _sparseReader.getMap(docId, (VarByteChunkForwardIndexReaderV4.ReaderContext) context);
+    if (_denseKeys.isEmpty()) {
+      return sparseMap;
+    }
+    Map<String, Object> map = new HashMap<>(sparseMap);
+    for (Map.Entry<String, DenseKey> entry : _denseKeys.entrySet()) {
+      DenseKey denseKey = entry.getValue();
+      if (denseKey._nullBitmap == null || !denseKey._nullBitmap.contains(docId)) {
+        map.put(entry.getKey(), denseKey._dictionary.get(denseKey._forwardIndex.getDictId(docId, null)));
+      }
+    }
+    return map;
+  }
+
+  @Override
+  public String getString(int docId, ForwardIndexReaderContext context) {
+    return MapUtils.toString(getMap(docId, context));
+  }
+
+  private class DenseKey {
+    final ColumnMetadata _metadata;
+    final Dictionary _dictionary;
+    final FixedBitSVForwardIndexReaderV2 _forwardIndex;
+    final BitmapInvertedIndexReader _invertedIndex;
+    final NullValueVectorReaderImpl _nullValueVector;
+    final ImmutableRoaringBitmap _nullBitmap;
+
+    DenseKey(int cardinality, int numBytesPerValue, int numBitsPerValue, PinotDataBuffer[] sections) {
+      ColumnMetadataImpl.Builder metadataBuilder =
+          ColumnMetadataImpl.builder().setFieldSpec(_valueFieldSpec).setTotalDocs(_numDocs).setCardinality(cardinality)
+              .setHasDictionary(true).setColumnMaxLength(numBytesPerValue).setBitsPerElement(numBitsPerValue)
+              .setTotalNumberOfEntries(_numDocs);
+      try {
+        _dictionary = DictionaryIndexType.read(sections[0], metadataBuilder.build(), DictionaryIndexConfig.DEFAULT);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      _metadata = metadataBuilder.setMinValue(_dictionary.getMinVal()).setMaxValue(_dictionary.getMaxVal()).build();
+      _forwardIndex = new FixedBitSVForwardIndexReaderV2(sections[1], _numDocs, numBitsPerValue);
+      _invertedIndex = new BitmapInvertedIndexReader(sections[2], cardinality);
+      if (sections[3] != null) {
+        _nullValueVector = new NullValueVectorReaderImpl(sections[3]);
+        _nullBitmap = _nullValueVector.getNullBitmap();
+      } else {
+        _nullValueVector = null;
+        _nullBitmap = null;
+      }
+    }
+  }
+}
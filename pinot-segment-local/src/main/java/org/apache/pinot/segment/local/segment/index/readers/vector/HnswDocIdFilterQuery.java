@@ -0,0 +1,189 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers.vector;
+
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Lucene query that matches the Lucene docs whose Pinot doc ids are in the given bitmap. It is used as the filter of
+ * the {@link org.apache.lucene.search.KnnFloatVectorQuery}, so that the other predicates of the query are applied
+ * during the HNSW graph traversal instead of after the search.
+ * <p>When the Lucene doc ids are the same as the Pinot doc ids (which is the common case because the docs are added in
+ * order), the bitmap is iterated directly. Otherwise, the Lucene docs are scanned and translated to Pinot doc ids.
+ */
+public class HnswDocIdFilterQuery extends Query {
+  private final ImmutableRoaringBitmap _pinotDocIds;
+  // Null when the Lucene doc ids are the same as the Pinot doc ids
+  private final HnswVectorIndexReader.DocIdTranslator _docIdTranslator;
+
+  /**
+   * Creates the query for an index where the Lucene doc ids are the same as the Pinot doc ids.
+   */
+  public HnswDocIdFilterQuery(ImmutableRoaringBitmap pinotDocIds) {
+    this(pinotDocIds, null);
+  }
+
+  HnswDocIdFilterQuery(ImmutableRoaringBitmap pinotDocIds,
+      @Nullable HnswVectorIndexReader.DocIdTranslator docIdTranslator) {
+    _pinotDocIds = pinotDocIds;
+    _docIdTranslator = docIdTranslator;
+  }
+
+  @Override
+  public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) {
+    return new ConstantScoreWeight(this, boost) {
+      @Override
+      public Scorer scorer(LeafReaderContext context) {
+        int docBase = context.docBase;
+        int maxDoc = context.reader().maxDoc();
+        DocIdSetIterator iterator = _docIdTranslator == null ? new BitmapIterator(docBase, maxDoc)
+            : new TranslatingIterator(docBase, maxDoc);
+        return new ConstantScoreScorer(this, score(), scoreMode, iterator);
+      }
+
+      @Override
+      public boolean isCacheable(LeafReaderContext context) {
+        // The bitmap is query specific
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public void visit(QueryVisitor visitor) {
+    visitor.visitLeaf(this);
+  }
+
+  @Override
+  public String toString(String field) {
+    return "HnswDocIdFilterQuery(numDocs=" + _pinotDocIds.getCardinality() + ")";
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return sameClassAs(other) && _pinotDocIds.equals(((HnswDocIdFilterQuery) other)._pinotDocIds)
+        && _docIdTranslator == ((HnswDocIdFilterQuery) other)._docIdTranslator;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * classHash() + Objects.hashCode(_pinotDocIds);
+  }
+
+  /**
+   * Iterates the bitmap directly when the Lucene doc ids are the same as the Pinot doc ids.
+   */
+  private class BitmapIterator extends DocIdSetIterator {
+    final int _docBase;
+    final int _endDocId;
+    final PeekableIntIterator _iterator;
+    int _docId = -1;
+
+    BitmapIterator(int docBase, int maxDoc) {
+      _docBase = docBase;
+      _endDocId = docBase + maxDoc;
+      _iterator = _pinotDocIds.getIntIterator();
+      _iterator.advanceIfNeeded(docBase);
+    }
+
+    @Override
+    public int docID() {
+      return _docId;
+    }
+
+    @Override
+    public int nextDoc() {
+      if (_iterator.hasNext()) {
+        int docId = _iterator.next();
+        if (docId < _endDocId) {
+          _docId = docId - _docBase;
+          return _docId;
+        }
+      }
+      _docId = NO_MORE_DOCS;
+      return NO_MORE_DOCS;
+    }
+
+    @Override
+    public int advance(int target) {
+      _iterator.advanceIfNeeded(_docBase + target);
+      return nextDoc();
+    }
+
+    @Override
+    public long cost() {
+      return _pinotDocIds.getCardinality();
+    }
+  }
+
+  /**
+   * Scans the Lucene docs and translates them to Pinot doc ids.
+   */
+  private class TranslatingIterator extends DocIdSetIterator {
+    final int _docBase;
+    final int _maxDoc;
+    int _docId = -1;
+
+    TranslatingIterator(int docBase, int maxDoc) {
+      _docBase = docBase;
+      _maxDoc = maxDoc;
+    }
+
+    @Override
+    public int docID() {
+      return _docId;
+    }
+
+    @Override
+    public int nextDoc() {
+      return advance(_docId + 1);
+    }
+
+    @Override
+    public int advance(int target) {
+      for (int docId = target; docId < _maxDoc; docId++) {
+        if (_pinotDocIds.contains(_docIdTranslator.getPinotDocId(_docBase + docId))) {
+          _docId = docId;
+          return docId;
+        }
+      }
+      _docId = NO_MORE_DOCS;
+      return NO_MORE_DOCS;
+    }
+
+    @Override
+    public long cost() {
+      return _maxDoc;
+    }
+  }
+}
@@ -39,6 +39,7 @@ import org.apache.pinot.segment.spi.index.creator.VectorIndexConfig;
 import org.apache.pinot.segment.spi.index.reader.VectorIndexReader;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.segment.spi.store.SegmentDirectoryPaths;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.slf4j.LoggerFactory;
 
@@ -117,6 +118,26 @@ public class HnswVectorIndexReader implements VectorIndexReader {
     }
   }
 
+  @Override
+  public MutableRoaringBitmap getDocIds(float[] searchQuery, int topK, ImmutableRoaringBitmap filterDocIds) {
+    MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+    if (filterDocIds.isEmpty()) {
+      return docIds;
+    }
+    Collector docIDCollector = new HnswDocIdCollector(docIds, _docIdTranslator);
+    try {
+      HnswDocIdFilterQuery filterQuery =
+          new HnswDocIdFilterQuery(filterDocIds, _docIdTranslator.isIdentity() ? null : _docIdTranslator);
+      KnnFloatVectorQuery knnFloatVectorQuery = new KnnFloatVectorQuery(_column, searchQuery, topK, filterQuery);
+      _indexSearcher.search(knnFloatVectorQuery, docIDCollector);
+      return docIds;
+    } catch (Exception e) {
+      String msg = "Caught exception while searching the HNSW index with filter for column: " + _column
+          + ", search query: " + Arrays.toString(searchQuery);
+      throw new RuntimeException(msg, e);
+    }
+  }
+
   /**
    * When we destroy the loaded ImmutableSegment, all the indexes
    * (for each column) are destroyed and as part of that
@@ -141,6 +162,9 @@ public class HnswVectorIndexReader implements VectorIndexReader {
    */
   static class DocIdTranslator implements Closeable {
     final PinotDataBuffer _buffer;
+    // Whether the Lucene doc ids are the same as the Pinot doc ids, in which case the pre-filter bitmap can be used
+    // without translation
+    final boolean _identity;
 
     DocIdTranslator(File segmentIndexDir, String column, int numDocs, IndexSearcher indexSearcher)
         throws Exception {
@@ -171,6 +195,18 @@ public class HnswVectorIndexReader implements VectorIndexReader {
           }
         }
       }
+      boolean identity = true;
+      for (int i = 0; i < numDocs; i++) {
+        if (_buffer.getInt(i * Integer.BYTES) != i) {
+          identity = false;
+          break;
+        }
+      }
+      _identity = identity;
+    }
+
+    boolean isIdentity() {
+      return _identity;
     }
 
     int getPinotDocId(int luceneDocId) {
@@ -20,7 +20,9 @@ package org.apache.pinot.segment.local.segment.store;
 
 import java.io.File;
 import org.apache.commons.io.FileUtils;
+import org.apache.lucene.codecs.KnnVectorsFormat;
 import org.apache.lucene.codecs.lucene912.Lucene912Codec;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
 import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.VectorSimilarityFunction;
@@ -31,6 +33,20 @@ import org.apache.pinot.segment.spi.index.creator.VectorIndexConfig;
 
 
 public class VectorIndexUtils {
+  /**
+   * Vector index property for the quantization of the stored vectors, see {@link Quantization}.
+   */
+  public static final String QUANTIZATION = "quantization";
+
+  public enum Quantization {
+    // Full float32 vectors
+    NONE,
+    // Scalar quantization into 1 byte per dimension
+    INT8,
+    // Scalar quantization into half a byte per dimension
+    INT4
+  }
+
   private VectorIndexUtils() {
   }
 
@@ -75,6 +91,23 @@ public class VectorIndexUtils {
     }
   }
 
+  /**
+   * Returns the Lucene HNSW vectors format with the given quantization. With scalar quantization, the HNSW graph is
+   * searched with the quantized vectors, which are 4x (INT8) or 8x (INT4) smaller than the float vectors.
+   */
+  private static KnnVectorsFormat getKnnVectorsFormat(int maxCon, int beamWidth, Quantization quantization) {
+    switch (quantization) {
+      case NONE:
+        return new Lucene99HnswVectorsFormat(maxCon, beamWidth);
+      case INT8:
+        return new Lucene99HnswScalarQuantizedVectorsFormat(maxCon, beamWidth, 1, 7, false, null, null);
+      case INT4:
+        return new Lucene99HnswScalarQuantizedVectorsFormat(maxCon, beamWidth, 1, 4, true, null, null);
+      default:
+        throw new IllegalArgumentException("Unsupported vector quantization: " + quantization);
+    }
+  }
+
   public static IndexWriterConfig getIndexWriterConfig(VectorIndexConfig vectorIndexConfig) {
     IndexWriterConfig indexWriterConfig = new IndexWriterConfig();
 
@@ -95,8 +128,11 @@ public class VectorIndexUtils {
     int maxDimensions = Integer.parseInt(vectorIndexConfig.getProperties()
         .getOrDefault("maxDimensions", String.valueOf(HnswVectorsFormat.DEFAULT_MAX_DIMENSIONS)));
 
+    Quantization quantization = Quantization.valueOf(vectorIndexConfig.getProperties()
+        .getOrDefault(QUANTIZATION, Quantization.NONE.name()).toUpperCase());
+
     HnswVectorsFormat knnVectorsFormat =
-        new HnswVectorsFormat(maxCon, beamWidth, maxDimensions);
+        new HnswVectorsFormat(getKnnVectorsFormat(maxCon, beamWidth, quantization), maxDimensions);
 
     Lucene912Codec.Mode mode = Lucene912Codec.Mode.valueOf(vectorIndexConfig.getProperties()
         .getOrDefault("mode", Lucene912Codec.Mode.BEST_SPEED.name()));
@@ -23,6 +23,9 @@ import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.AtomicDouble;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -39,6 +42,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.io.FileUtils;
 import org.apache.helix.HelixManager;
 import org.apache.pinot.common.metrics.ServerGauge;
 import org.apache.pinot.common.metrics.ServerMeter;
@@ -87,6 +91,7 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
   protected final HashFunction _hashFunction;
   protected final PartialUpsertHandler _partialUpsertHandler;
   protected final boolean _enableSnapshot;
+  protected final boolean _enableKeyLocationSnapshot;
   protected final double _metadataTTL;
   protected final double _deletedKeysTTL;
   protected final File _tableIndexDir;
@@ -124,6 +129,11 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
   // The lock and boolean flag ensure only one thread can start preloading and preloading happens only once.
   private final Lock _preloadLock = new ReentrantLock();
   private volatile boolean _isPreloading;
+  // Memory-mapped key location snapshot used to preload segments and to incrementally persist the next snapshot. It is
+  // written without holding the snapshot WLock, but only replaced while holding it.
+  private volatile UpsertKeyLocationSnapshot _keyLocationSnapshot;
+  // Guards the temporary file of the key location snapshot being written
+  private final Lock _keyLocationSnapshotWriteLock = new ReentrantLock();
 
   // By default, the upsert consistency mode is NONE and upsertViewManager is disabled.
   private final UpsertViewManager _upsertViewManager;
@@ -149,6 +159,7 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
     _enableSnapshot = context.isSnapshotEnabled();
     _snapshotLock = _enableSnapshot ? new ReentrantReadWriteLock() : null;
     _isPreloading = context.isPreloadEnabled();
+    _enableKeyLocationSnapshot = context.isKeyLocationSnapshotEnabled();
     _metadataTTL = context.getMetadataTTL();
     _deletedKeysTTL = context.getDeletedKeysTTL();
     _tableIndexDir = context.getTableIndexDir();
@@ -177,6 +188,12 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
       _largestSeenComparisonValue = new AtomicDouble(TTL_WATERMARK_NOT_SET);
       WatermarkUtils.deleteWatermark(getWatermarkFile());
     }
+    File keyLocationSnapshotFile = getKeyLocationSnapshotFile();
+    if (_enableKeyLocationSnapshot) {
+      _keyLocationSnapshot = UpsertKeyLocationSnapshot.load(keyLocationSnapshotFile, _primaryKeyColumns.size());
+    } else {
+      FileUtils.deleteQuietly(keyLocationSnapshotFile);
+    }
   }
 
   @Override
@@ -436,6 +453,30 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
         return;
       }
     }
+    UpsertKeyLocationSnapshot keyLocationSnapshot = _keyLocationSnapshot;
+    Iterator<RecordInfo> snapshotRecordInfoIterator = keyLocationSnapshot != null
+        ? keyLocationSnapshot.getRecordInfoIterator(segmentName, segment.getSegmentMetadata().getCrc(), validDocIds)
+        : null;
+    if (snapshotRecordInfoIterator != null) {
+      _logger.info("Preloading segment: {} from key location snapshot", segmentName);
+      doPreloadSegment(segment, null, null, snapshotRecordInfoIterator);
+    } else {
+      if (keyLocationSnapshot != null) {
+        _logger.info("Key location snapshot is missing or stale for segment: {}, reading primary keys from segment",
+            segmentName);
+      }
+      preloadSegmentFromColumns(segment, validDocIds);
+    }
+
+    // Update metrics
+    long numPrimaryKeys = getNumPrimaryKeys();
+    updatePrimaryKeyGauge(numPrimaryKeys);
+    _logger.info("Finished preloading segment: {} in {}ms, current primary key count: {}", segmentName,
+        System.currentTimeMillis() - startTimeMs, numPrimaryKeys);
+  }
+
+  private void preloadSegmentFromColumns(ImmutableSegmentImpl segment, MutableRoaringBitmap validDocIds) {
+    String segmentName = segment.getSegmentName();
     try (UpsertUtils.RecordInfoReader recordInfoReader = new UpsertUtils.RecordInfoReader(segment, _primaryKeyColumns,
         _comparisonColumns, _deleteRecordColumn)) {
       doPreloadSegment(segment, null, null, UpsertUtils.getRecordInfoIterator(recordInfoReader, validDocIds));
@@ -444,12 +485,6 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
           String.format("Caught exception while preloading segment: %s, table: %s", segmentName, _tableNameWithType),
           e);
     }
-
-    // Update metrics
-    long numPrimaryKeys = getNumPrimaryKeys();
-    updatePrimaryKeyGauge(numPrimaryKeys);
-    _logger.info("Finished preloading segment: {} in {}ms, current primary key count: {}", segmentName,
-        System.currentTimeMillis() - startTimeMs, numPrimaryKeys);
   }
 
   /**
@@ -849,10 +884,14 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
       _logger.info("Skip taking snapshot because metadata manager is already stopped");
       return;
     }
+    List<KeyLocationSnapshotSegment> keyLocationSnapshotSegments = null;
     _snapshotLock.writeLock().lock();
     try {
       long startTime = System.currentTimeMillis();
       doTakeSnapshot();
+      if (_enableKeyLocationSnapshot) {
+        keyLocationSnapshotSegments = getKeyLocationSnapshotSegments();
+      }
       long duration = System.currentTimeMillis() - startTime;
       _serverMetrics.addTimedTableValue(_tableNameWithType, ServerTimer.UPSERT_SNAPSHOT_TIME_MS, duration,
           TimeUnit.MILLISECONDS);
@@ -860,6 +899,14 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
       _logger.warn("Caught exception while taking snapshot", e);
     } finally {
       _snapshotLock.writeLock().unlock();
+    }
+    try {
+      // Write the key location snapshot after releasing the snapshot WLock, so that adding and replacing segments are
+      // not blocked while reading the primary keys
+      if (keyLocationSnapshotSegments != null) {
+        persistKeyLocationSnapshot(keyLocationSnapshotSegments);
+      }
+    } finally {
       finishOperation();
     }
   }
@@ -973,6 +1020,128 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
         numConsumingSegments, System.currentTimeMillis() - startTimeMs);
   }
 
+  /**
+   * Returns the tracked immutable segments to be persisted into the key location snapshot, with a copy of their
+   * validDocIds, which matches the validDocIds snapshots just taken.
+   * NOTE: This method should be called with the snapshot WLock held.
+   */
+  private List<KeyLocationSnapshotSegment> getKeyLocationSnapshotSegments() {
+    List<KeyLocationSnapshotSegment> keyLocationSnapshotSegments = new ArrayList<>();
+    for (IndexSegment segment : _trackedSegments) {
+      if (!(segment instanceof ImmutableSegmentImpl) || segment.getValidDocIds() == null) {
+        continue;
+      }
+      MutableRoaringBitmap validDocIds = segment.getValidDocIds().getMutableRoaringBitmap();
+      if (!validDocIds.isEmpty()) {
+        keyLocationSnapshotSegments.add(new KeyLocationSnapshotSegment(segment, validDocIds));
+      }
+    }
+    return keyLocationSnapshotSegments;
+  }
+
+  /**
+   * Persists the key locations of the valid docs in the given segments. Entries of the segments with unchanged CRC are
+   * copied from the previous snapshot (filtered by the captured validDocIds), so that only the newly added segments
+   * need to be read. The snapshot is written to a temporary file without holding the snapshot WLock, then atomically
+   * moved in place and swapped while holding the WLock, so that no segment is preloaded from the snapshot being
+   * replaced. The newly added segments are read while holding their segment lock, and are skipped if the lock is not
+   * available or if they are no longer tracked, e.g. being replaced or removed.
+   */
+  @VisibleForTesting
+  void persistKeyLocationSnapshot(List<KeyLocationSnapshotSegment> keyLocationSnapshotSegments) {
+    if (!_keyLocationSnapshotWriteLock.tryLock()) {
+      _logger.info("Skip persisting key location snapshot because another one is being persisted");
+      return;
+    }
+    long startTimeMs = System.currentTimeMillis();
+    File keyLocationSnapshotFile = getKeyLocationSnapshotFile();
+    File tmpFile = new File(keyLocationSnapshotFile.getPath() + "_tmp");
+    // NOTE: The previous snapshot is only closed while holding the snapshot WLock below
+    UpsertKeyLocationSnapshot previousSnapshot = _keyLocationSnapshot;
+    TableDataManager tableDataManager = _context.getTableDataManager();
+    int numSegments = 0;
+    int numSegmentsReused = 0;
+    int numSegmentsSkipped = 0;
+    try {
+      try (UpsertKeyLocationSnapshot.Writer writer = new UpsertKeyLocationSnapshot.Writer(tmpFile,
+          _primaryKeyColumns.size())) {
+        for (KeyLocationSnapshotSegment keyLocationSnapshotSegment : keyLocationSnapshotSegments) {
+          IndexSegment segment = keyLocationSnapshotSegment._segment;
+          String segmentName = segment.getSegmentName();
+          String crc = segment.getSegmentMetadata().getCrc();
+          MutableRoaringBitmap validDocIds = keyLocationSnapshotSegment._validDocIds;
+          Iterator<RecordInfo> recordInfoIterator =
+              previousSnapshot != null ? previousSnapshot.getRecordInfoIterator(segmentName, crc, validDocIds) : null;
+          if (recordInfoIterator != null) {
+            writer.addSegment(segmentName, crc, recordInfoIterator);
+            numSegmentsReused++;
+            numSegments++;
+            continue;
+          }
+          // Do not wait for the segmentLock to avoid blocking the consuming thread, the segment will be read again from
+          // its columns when being preloaded
+          Lock segmentLock = tableDataManager.getSegmentLock(segmentName);
+          if (!segmentLock.tryLock()) {
+            numSegmentsSkipped++;
+            continue;
+          }
+          try {
+            // The segment might have been replaced or removed (and destroyed) after releasing the snapshot WLock
+            if (!_trackedSegments.contains(segment)) {
+              numSegmentsSkipped++;
+              continue;
+            }
+            try (UpsertUtils.RecordInfoReader recordInfoReader = new UpsertUtils.RecordInfoReader(segment,
+                _primaryKeyColumns, _comparisonColumns, _deleteRecordColumn)) {
+              writer.addSegment(segmentName, crc, UpsertUtils.getRecordInfoIterator(recordInfoReader, validDocIds));
+            }
+            numSegments++;
+          } finally {
+            segmentLock.unlock();
+          }
+        }
+      }
+      _snapshotLock.writeLock().lock();
+      try {
+        if (previousSnapshot != null) {
+          _keyLocationSnapshot = null;
+          previousSnapshot.close();
+        }
+        Files.move(tmpFile.toPath(), keyLocationSnapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        _keyLocationSnapshot = UpsertKeyLocationSnapshot.load(keyLocationSnapshotFile, _primaryKeyColumns.size());
+      } finally {
+        _snapshotLock.writeLock().unlock();
+      }
+      _logger.info("Persisted key location snapshot for {} segments ({} reused from previous snapshot, {} skipped) in "
+          + "{}ms", numSegments, numSegmentsReused, numSegmentsSkipped, System.currentTimeMillis() - startTimeMs);
+    } catch (Exception e) {
+      _logger.warn("Caught exception while persisting key location snapshot, skipping", e);
+      FileUtils.deleteQuietly(tmpFile);
+    } finally {
+      _keyLocationSnapshotWriteLock.unlock();
+    }
+  }
+
+  /**
+   * Immutable segment to be persisted into the key location snapshot, with the validDocIds captured while holding the
+   * snapshot WLock.
+   */
+  @VisibleForTesting
+  static class KeyLocationSnapshotSegment {
+    final IndexSegment _segment;
+    final MutableRoaringBitmap _validDocIds;
+
+    KeyLocationSnapshotSegment(IndexSegment segment, MutableRoaringBitmap validDocIds) {
+      _segment = segment;
+      _validDocIds = validDocIds;
+    }
+  }
+
+  protected File getKeyLocationSnapshotFile() {
+    return new File(_tableIndexDir, V1Constants.UPSERT_KEY_LOCATION_SNAPSHOT_TABLE_PARTITION + _partitionId);
+  }
+
   protected File getWatermarkFile() {
     return new File(_tableIndexDir, V1Constants.TTL_WATERMARK_TABLE_PARTITION + _partitionId);
   }
@@ -1059,6 +1228,10 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
       }
     }
     doClose();
+    if (_keyLocationSnapshot != null) {
+      _keyLocationSnapshot.close();
+      _keyLocationSnapshot = null;
+    }
     // We don't remove the segment from the metadata manager when
     // it's closed. This was done to make table deletion faster. Since we don't remove the segment, we never decrease
     // the primary key count. So, we set the primary key count to 0 here.
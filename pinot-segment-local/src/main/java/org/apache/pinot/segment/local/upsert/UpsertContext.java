@@ -40,6 +40,7 @@ public class UpsertContext {
   private final PartialUpsertHandler _partialUpsertHandler;
   private final boolean _enableSnapshot;
   private final boolean _enablePreload;
+  private final boolean _enableKeyLocationSnapshot;
   private final double _metadataTTL;
   private final double _deletedKeysTTL;
   private final UpsertConfig.ConsistencyMode _consistencyMode;
@@ -53,9 +54,10 @@ public class UpsertContext {
   private UpsertContext(TableConfig tableConfig, Schema schema, List<String> primaryKeyColumns,
       List<String> comparisonColumns, @Nullable String deleteRecordColumn, HashFunction hashFunction,
       @Nullable PartialUpsertHandler partialUpsertHandler, boolean enableSnapshot, boolean enablePreload,
-      double metadataTTL, double deletedKeysTTL, UpsertConfig.ConsistencyMode consistencyMode,
-      long upsertViewRefreshIntervalMs, long newSegmentTrackingTimeMs, File tableIndexDir, boolean dropOutOfOrderRecord,
-      boolean enableDeletedKeysCompactionConsistency, @Nullable TableDataManager tableDataManager) {
+      boolean enableKeyLocationSnapshot, double metadataTTL, double deletedKeysTTL,
+      UpsertConfig.ConsistencyMode consistencyMode, long upsertViewRefreshIntervalMs, long newSegmentTrackingTimeMs,
+      File tableIndexDir, boolean dropOutOfOrderRecord, boolean enableDeletedKeysCompactionConsistency,
+      @Nullable TableDataManager tableDataManager) {
     _tableConfig = tableConfig;
     _schema = schema;
     _primaryKeyColumns = primaryKeyColumns;
@@ -65,6 +67,7 @@ public class UpsertContext {
     _partialUpsertHandler = partialUpsertHandler;
     _enableSnapshot = enableSnapshot;
     _enablePreload = enablePreload;
+    _enableKeyLocationSnapshot = enableKeyLocationSnapshot;
     _metadataTTL = metadataTTL;
     _deletedKeysTTL = deletedKeysTTL;
     _consistencyMode = consistencyMode;
@@ -112,6 +115,10 @@ public class UpsertContext {
     return _enablePreload;
   }
 
+  public boolean isKeyLocationSnapshotEnabled() {
+    return _enableKeyLocationSnapshot;
+  }
+
   public double getMetadataTTL() {
     return _metadataTTL;
   }
@@ -158,6 +165,7 @@ public class UpsertContext {
     private PartialUpsertHandler _partialUpsertHandler;
     private boolean _enableSnapshot;
     private boolean _enablePreload;
+    private boolean _enableKeyLocationSnapshot;
     private double _metadataTTL;
     private double _deletedKeysTTL;
     private UpsertConfig.ConsistencyMode _consistencyMode;
@@ -213,6 +221,11 @@ public class UpsertContext {
       return this;
     }
 
+    public Builder setEnableKeyLocationSnapshot(boolean enableKeyLocationSnapshot) {
+      _enableKeyLocationSnapshot = enableKeyLocationSnapshot;
+      return this;
+    }
+
     public Builder setMetadataTTL(double metadataTTL) {
       _metadataTTL = metadataTTL;
       return this;
@@ -266,9 +279,9 @@ public class UpsertContext {
       Preconditions.checkState(_hashFunction != null, "Hash function must be set");
       Preconditions.checkState(_tableIndexDir != null, "Table index directory must be set");
       return new UpsertContext(_tableConfig, _schema, _primaryKeyColumns, _comparisonColumns, _deleteRecordColumn,
-          _hashFunction, _partialUpsertHandler, _enableSnapshot, _enablePreload, _metadataTTL, _deletedKeysTTL,
-          _consistencyMode, _upsertViewRefreshIntervalMs, _newSegmentTrackingTimeMs, _tableIndexDir,
-          _dropOutOfOrderRecord, _enableDeletedKeysCompactionConsistency, _tableDataManager);
+          _hashFunction, _partialUpsertHandler, _enableSnapshot, _enablePreload, _enableKeyLocationSnapshot,
+          _metadataTTL, _deletedKeysTTL, _consistencyMode, _upsertViewRefreshIntervalMs, _newSegmentTrackingTimeMs,
+          _tableIndexDir, _dropOutOfOrderRecord, _enableDeletedKeysCompactionConsistency, _tableDataManager);
     }
   }
 }
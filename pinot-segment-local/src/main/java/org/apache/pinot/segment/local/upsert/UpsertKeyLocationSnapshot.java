@@ -0,0 +1,416 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.upsert;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.CountingOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.BigDecimalUtils;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Persisted snapshot of the primary key locations of the immutable segments in an upsert table partition. For each
+ * segment, it keeps the doc id, primary key, comparison value and delete record flag of the valid docs, so that the
+ * upsert metadata can be rebuilt from this single memory-mapped file when preloading segments, instead of reading the
+ * primary key and comparison columns from every segment. The entries of a segment are only used when the segment CRC
+ * matches and they cover all the docs in the validDocIds snapshot of the segment.
+ *
+ * <p>File layout (big-endian):
+ * <ul>
+ *   <li>Header: version (int), number of primary key columns (int)</li>
+ *   <li>Entries of each segment: doc id (int), delete record flag (byte), primary key values, comparison value</li>
+ *   <li>Segment directory: number of segments (int), then for each segment: segment name, CRC, number of entries
+ *   (int), offset of the first entry (long), doc ids of the entries (serialized bitmap)</li>
+ *   <li>Footer: offset of the segment directory (long)</li>
+ * </ul>
+ */
+@SuppressWarnings("rawtypes")
+public class UpsertKeyLocationSnapshot implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(UpsertKeyLocationSnapshot.class);
+
+  public static final int VERSION = 1;
+
+  // Value types
+  private static final byte NULL = 0;
+  private static final byte INT = 1;
+  private static final byte LONG = 2;
+  private static final byte FLOAT = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte BIG_DECIMAL = 5;
+  private static final byte STRING = 6;
+  private static final byte BYTES = 7;
+  private static final byte BYTE_ARRAY = 8;
+
+  private final File _file;
+  private final PinotDataBuffer _dataBuffer;
+  private final int _numPrimaryKeyColumns;
+  private final Map<String, SegmentEntries> _segmentEntriesMap;
+
+  private UpsertKeyLocationSnapshot(File file, PinotDataBuffer dataBuffer, int numPrimaryKeyColumns,
+      Map<String, SegmentEntries> segmentEntriesMap) {
+    _file = file;
+    _dataBuffer = dataBuffer;
+    _numPrimaryKeyColumns = numPrimaryKeyColumns;
+    _segmentEntriesMap = segmentEntriesMap;
+  }
+
+  /**
+   * Memory-maps the snapshot from the file if exists. Returns {@code null} if the file does not exist or cannot be
+   * loaded.
+   */
+  @Nullable
+  public static UpsertKeyLocationSnapshot load(File file, int numPrimaryKeyColumns) {
+    if (!file.exists()) {
+      return null;
+    }
+    PinotDataBuffer dataBuffer = null;
+    try {
+      dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(file);
+      BufferReader reader = new BufferReader(dataBuffer, 0);
+      int version = reader.readInt();
+      Preconditions.checkState(version == VERSION, "Unsupported version: %s", version);
+      int numPrimaryKeyColumnsInFile = reader.readInt();
+      Preconditions.checkState(numPrimaryKeyColumnsInFile == numPrimaryKeyColumns,
+          "Number of primary key columns mismatch, expected: %s, got: %s", numPrimaryKeyColumns,
+          numPrimaryKeyColumnsInFile);
+      reader = new BufferReader(dataBuffer, dataBuffer.getLong(dataBuffer.size() - Long.BYTES));
+      int numSegments = reader.readInt();
+      Map<String, SegmentEntries> segmentEntriesMap = new HashMap<>(numSegments);
+      for (int i = 0; i < numSegments; i++) {
+        String segmentName = reader.readString();
+        String crc = reader.readString();
+        int numEntries = reader.readInt();
+        long entriesOffset = reader.readLong();
+        ImmutableRoaringBitmap docIds = new ImmutableRoaringBitmap(ByteBuffer.wrap(reader.readBytes()));
+        segmentEntriesMap.put(segmentName, new SegmentEntries(crc, numEntries, entriesOffset, docIds));
+      }
+      LOGGER.info("Loaded key location snapshot for {} segments from file: {}", numSegments, file);
+      return new UpsertKeyLocationSnapshot(file, dataBuffer, numPrimaryKeyColumns, segmentEntriesMap);
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while loading key location snapshot from file: {}, ignoring the snapshot", file,
+          e);
+      if (dataBuffer != null) {
+        try {
+          dataBuffer.close();
+        } catch (IOException ioe) {
+          LOGGER.warn("Failed to close the buffer for file: {}", file, ioe);
+        }
+      }
+      return null;
+    }
+  }
+
+  public int getNumSegments() {
+    return _segmentEntriesMap.size();
+  }
+
+  /**
+   * Returns an iterator of {@link RecordInfo} for the given valid docs of the segment, or {@code null} if the snapshot
+   * does not have entries for the segment with the given CRC, or the entries do not cover all the valid docs.
+   */
+  @Nullable
+  public Iterator<RecordInfo> getRecordInfoIterator(String segmentName, String crc, MutableRoaringBitmap validDocIds) {
+    SegmentEntries segmentEntries = _segmentEntriesMap.get(segmentName);
+    if (segmentEntries == null || !segmentEntries._crc.equals(crc)) {
+      return null;
+    }
+    if (ImmutableRoaringBitmap.andCardinality(segmentEntries._docIds, validDocIds) != validDocIds.getCardinality()) {
+      return null;
+    }
+    return new RecordInfoIterator(new BufferReader(_dataBuffer, segmentEntries._entriesOffset),
+        segmentEntries._numEntries, validDocIds);
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _dataBuffer.close();
+  }
+
+  @Override
+  public String toString() {
+    return "UpsertKeyLocationSnapshot{file=" + _file + ", numSegments=" + _segmentEntriesMap.size() + "}";
+  }
+
+  private static class SegmentEntries {
+    final String _crc;
+    final int _numEntries;
+    final long _entriesOffset;
+    final ImmutableRoaringBitmap _docIds;
+
+    SegmentEntries(String crc, int numEntries, long entriesOffset, ImmutableRoaringBitmap docIds) {
+      _crc = crc;
+      _numEntries = numEntries;
+      _entriesOffset = entriesOffset;
+      _docIds = docIds;
+    }
+  }
+
+  private class RecordInfoIterator implements Iterator<RecordInfo> {
+    final BufferReader _reader;
+    final MutableRoaringBitmap _validDocIds;
+    int _numRemainingEntries;
+    RecordInfo _next;
+
+    RecordInfoIterator(BufferReader reader, int numEntries, MutableRoaringBitmap validDocIds) {
+      _reader = reader;
+      _numRemainingEntries = numEntries;
+      _validDocIds = validDocIds;
+      _next = fetchNext();
+    }
+
+    @Nullable
+    private RecordInfo fetchNext() {
+      while (_numRemainingEntries > 0) {
+        _numRemainingEntries--;
+        int docId = _reader.readInt();
+        boolean deleteRecord = _reader.readByte() != 0;
+        Object[] primaryKeyValues = new Object[_numPrimaryKeyColumns];
+        for (int i = 0; i < _numPrimaryKeyColumns; i++) {
+          primaryKeyValues[i] = _reader.readValue();
+        }
+        Comparable comparisonValue = (Comparable) _reader.readValue();
+        if (_validDocIds.contains(docId)) {
+          return new RecordInfo(new PrimaryKey(primaryKeyValues), docId, comparisonValue, deleteRecord);
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _next != null;
+    }
+
+    @Override
+    public RecordInfo next() {
+      if (_next == null) {
+        throw new NoSuchElementException();
+      }
+      RecordInfo recordInfo = _next;
+      _next = fetchNext();
+      return recordInfo;
+    }
+  }
+
+  private static class BufferReader {
+    final PinotDataBuffer _dataBuffer;
+    long _offset;
+
+    BufferReader(PinotDataBuffer dataBuffer, long offset) {
+      _dataBuffer = dataBuffer;
+      _offset = offset;
+    }
+
+    byte readByte() {
+      byte value = _dataBuffer.getByte(_offset);
+      _offset++;
+      return value;
+    }
+
+    int readInt() {
+      int value = _dataBuffer.getInt(_offset);
+      _offset += Integer.BYTES;
+      return value;
+    }
+
+    long readLong() {
+      long value = _dataBuffer.getLong(_offset);
+      _offset += Long.BYTES;
+      return value;
+    }
+
+    byte[] readBytes() {
+      byte[] bytes = new byte[readInt()];
+      _dataBuffer.copyTo(_offset, bytes);
+      _offset += bytes.length;
+      return bytes;
+    }
+
+    String readString() {
+      return new String(readBytes(), UTF_8);
+    }
+
+    @Nullable
+    Object readValue() {
+      byte type = readByte();
+      switch (type) {
+        case NULL:
+          return null;
+        case INT:
+          return readInt();
+        case LONG:
+          return readLong();
+        case FLOAT: {
+          float value = _dataBuffer.getFloat(_offset);
+          _offset += Float.BYTES;
+          return value;
+        }
+        case DOUBLE: {
+          double value = _dataBuffer.getDouble(_offset);
+          _offset += Double.BYTES;
+          return value;
+        }
+        case BIG_DECIMAL:
+          return BigDecimalUtils.deserialize(readBytes());
+        case STRING:
+          return readString();
+        case BYTES:
+          return readBytes();
+        case BYTE_ARRAY:
+          return new ByteArray(readBytes());
+        default:
+          throw new IllegalStateException("Unsupported value type: " + type);
+      }
+    }
+  }
+
+  /**
+   * Writes the snapshot to a file. Segments are added one by one, and the segment directory is written when the
+   * writer is closed.
+   */
+  public static class Writer implements Closeable {
+    private final CountingOutputStream _countingOutputStream;
+    private final DataOutputStream _dataOutputStream;
+    private final List<String> _segmentNames = new ArrayList<>();
+    private final List<String> _crcs = new ArrayList<>();
+    private final List<Integer> _numEntries = new ArrayList<>();
+    private final List<Long> _entriesOffsets = new ArrayList<>();
+    private final List<MutableRoaringBitmap> _docIds = new ArrayList<>();
+
+    public Writer(File file, int numPrimaryKeyColumns)
+        throws IOException {
+      _countingOutputStream = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+      _dataOutputStream = new DataOutputStream(_countingOutputStream);
+      _dataOutputStream.writeInt(VERSION);
+      _dataOutputStream.writeInt(numPrimaryKeyColumns);
+    }
+
+    /**
+     * Adds the entries of a segment. The record info iterator should return records with incremental doc ids.
+     */
+    public void addSegment(String segmentName, String crc, Iterator<RecordInfo> recordInfoIterator)
+        throws IOException {
+      long entriesOffset = _countingOutputStream.getCount();
+      MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+      int numEntries = 0;
+      while (recordInfoIterator.hasNext()) {
+        RecordInfo recordInfo = recordInfoIterator.next();
+        _dataOutputStream.writeInt(recordInfo.getDocId());
+        _dataOutputStream.writeByte(recordInfo.isDeleteRecord() ? 1 : 0);
+        for (Object value : recordInfo.getPrimaryKey().getValues()) {
+          writeValue(value);
+        }
+        writeValue(recordInfo.getComparisonValue());
+        docIds.add(recordInfo.getDocId());
+        numEntries++;
+      }
+      _segmentNames.add(segmentName);
+      _crcs.add(crc);
+      _numEntries.add(numEntries);
+      _entriesOffsets.add(entriesOffset);
+      docIds.runOptimize();
+      _docIds.add(docIds);
+    }
+
+    private void writeBytes(byte[] bytes)
+        throws IOException {
+      _dataOutputStream.writeInt(bytes.length);
+      _dataOutputStream.write(bytes);
+    }
+
+    private void writeValue(@Nullable Object value)
+        throws IOException {
+      if (value == null) {
+        _dataOutputStream.writeByte(NULL);
+      } else if (value instanceof Integer) {
+        _dataOutputStream.writeByte(INT);
+        _dataOutputStream.writeInt((Integer) value);
+      } else if (value instanceof Long) {
+        _dataOutputStream.writeByte(LONG);
+        _dataOutputStream.writeLong((Long) value);
+      } else if (value instanceof Float) {
+        _dataOutputStream.writeByte(FLOAT);
+        _dataOutputStream.writeFloat((Float) value);
+      } else if (value instanceof Double) {
+        _dataOutputStream.writeByte(DOUBLE);
+        _dataOutputStream.writeDouble((Double) value);
+      } else if (value instanceof BigDecimal) {
+        _dataOutputStream.writeByte(BIG_DECIMAL);
+        writeBytes(BigDecimalUtils.serialize((BigDecimal) value));
+      } else if (value instanceof String) {
+        _dataOutputStream.writeByte(STRING);
+        writeBytes(((String) value).getBytes(UTF_8));
+      } else if (value instanceof byte[]) {
+        _dataOutputStream.writeByte(BYTES);
+        writeBytes((byte[]) value);
+      } else if (value instanceof ByteArray) {
+        _dataOutputStream.writeByte(BYTE_ARRAY);
+        writeBytes(((ByteArray) value).getBytes());
+      } else {
+        throw new IllegalStateException("Unsupported value type: " + value.getClass());
+      }
+    }
+
+    @Override
+    public void close()
+        throws IOException {
+      try {
+        long directoryOffset = _countingOutputStream.getCount();
+        int numSegments = _segmentNames.size();
+        _dataOutputStream.writeInt(numSegments);
+        for (int i = 0; i < numSegments; i++) {
+          writeBytes(_segmentNames.get(i).getBytes(UTF_8));
+          writeBytes(_crcs.get(i).getBytes(UTF_8));
+          _dataOutputStream.writeInt(_numEntries.get(i));
+          _dataOutputStream.writeLong(_entriesOffsets.get(i));
+          MutableRoaringBitmap docIds = _docIds.get(i);
+          _dataOutputStream.writeInt(docIds.serializedSizeInBytes());
+          docIds.serialize(_dataOutputStream);
+        }
+        _dataOutputStream.writeLong(directoryOffset);
+      } finally {
+        _dataOutputStream.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.pinot.segment.local.recordtransformer.JsonShreddingTransformer;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
+import org.apache.pinot.spi.config.table.ingestion.JsonShreddingConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
+import org.apache.pinot.spi.utils.JsonShreddingUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Detects the frequent scalar JSON paths of the JSON columns with auto-detection enabled in the
+ * {@link JsonShreddingConfig}, and adds the shredded columns for them to a per-segment copy of the schema.
+ * <p>Only the nested object keys are traversed (array elements are not), and the data type of the shredded column is
+ * LONG if all the sampled values are integral numbers, DOUBLE if all of them are numbers, or STRING otherwise.
+ */
+public class JsonShreddingPathDetector {
+  private JsonShreddingPathDetector() {
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JsonShreddingPathDetector.class);
+  private static final int MAX_DEPTH = 5;
+  private static final Pattern KEY_PATTERN = Pattern.compile("[A-Za-z0-9_]+");
+
+  /**
+   * Samples the records from the record reader to detect the JSON paths to shred, then rewinds the record reader.
+   * Returns a copy of the schema with the detected shredded columns added, or the given schema if no shredded column
+   * is detected. The given schema is never modified because it can be shared by multiple segments built concurrently,
+   * and the detected paths only apply to the segment built from the record reader.
+   */
+  public static Schema detectShreddedColumns(TableConfig tableConfig, Schema schema, RecordReader recordReader)
+      throws IOException {
+    IngestionConfig ingestionConfig = tableConfig.getIngestionConfig();
+    if (ingestionConfig == null || CollectionUtils.isEmpty(ingestionConfig.getJsonShreddingConfigs())) {
+      return schema;
+    }
+    List<JsonShreddingConfig> autoDetectConfigs = new ArrayList<>();
+    int numSampleRecords = 0;
+    for (JsonShreddingConfig jsonShreddingConfig : ingestionConfig.getJsonShreddingConfigs()) {
+      if (jsonShreddingConfig.isAutoDetect()) {
+        autoDetectConfigs.add(jsonShreddingConfig);
+        numSampleRecords = Math.max(numSampleRecords, jsonShreddingConfig.getNumAutoDetectionSampleRecords());
+      }
+    }
+    if (autoDetectConfigs.isEmpty()) {
+      return schema;
+    }
+
+    int numConfigs = autoDetectConfigs.size();
+    List<Map<String, PathStats>> pathStatsList = new ArrayList<>(numConfigs);
+    for (int i = 0; i < numConfigs; i++) {
+      pathStatsList.add(new HashMap<>());
+    }
+    GenericRow reuse = new GenericRow();
+    int numRecords = 0;
+    while (numRecords < numSampleRecords && recordReader.hasNext()) {
+      reuse.clear();
+      recordReader.next(reuse);
+      numRecords++;
+      for (int i = 0; i < numConfigs; i++) {
+        JsonShreddingConfig jsonShreddingConfig = autoDetectConfigs.get(i);
+        if (numRecords > jsonShreddingConfig.getNumAutoDetectionSampleRecords()) {
+          continue;
+        }
+        JsonNode jsonNode = JsonShreddingTransformer.toJsonNode(reuse.getValue(jsonShreddingConfig.getColumnName()));
+        if (jsonNode != null && jsonNode.isObject()) {
+          collectScalarPaths(jsonNode, "$", 1, pathStatsList.get(i));
+        }
+      }
+    }
+    recordReader.rewind();
+    if (numRecords == 0) {
+      return schema;
+    }
+
+    Schema segmentSchema = null;
+    for (int i = 0; i < numConfigs; i++) {
+      JsonShreddingConfig jsonShreddingConfig = autoDetectConfigs.get(i);
+      String jsonColumn = jsonShreddingConfig.getColumnName();
+      int numSampledRecords = Math.min(numRecords, jsonShreddingConfig.getNumAutoDetectionSampleRecords());
+      int minCount = (int) Math.ceil(jsonShreddingConfig.getMinAutoDetectedPathFrequency() * numSampledRecords);
+      List<Map.Entry<String, PathStats>> candidates = new ArrayList<>();
+      for (Map.Entry<String, PathStats> entry : pathStatsList.get(i).entrySet()) {
+        if (entry.getValue()._count >= minCount) {
+          candidates.add(entry);
+        }
+      }
+      // Pick the most frequent paths, break ties by path to make the detection deterministic
+      candidates.sort((e1, e2) -> e1.getValue()._count != e2.getValue()._count ? Integer.compare(
+          e2.getValue()._count, e1.getValue()._count) : e1.getKey().compareTo(e2.getKey()));
+      int numPaths = Math.min(candidates.size(), jsonShreddingConfig.getMaxNumAutoDetectedPaths());
+      for (int j = 0; j < numPaths; j++) {
+        String jsonPath = candidates.get(j).getKey();
+        DataType dataType = candidates.get(j).getValue().getDataType();
+        if (schema.hasColumn(JsonShreddingUtils.getShreddedColumnName(jsonColumn, jsonPath))) {
+          continue;
+        }
+        if (segmentSchema == null) {
+          segmentSchema = copySchema(schema);
+        }
+        if (JsonShreddingUtils.addShreddedColumn(segmentSchema, jsonColumn, jsonPath, dataType)) {
+          LOGGER.info("Shredding JSON path: {} of column: {} as {}", jsonPath, jsonColumn, dataType);
+        }
+      }
+    }
+    return segmentSchema != null ? segmentSchema : schema;
+  }
+
+  private static Schema copySchema(Schema schema)
+      throws IOException {
+    String schemaString;
+    // Synchronize on schema object to prevent concurrent modification
+    //noinspection SynchronizationOnLocalVariableOrMethodParameter
+    synchronized (schema) {
+      schemaString = schema.toSingleLineJsonString();
+    }
+    return Schema.fromString(schemaString);
+  }
+
+  private static void collectScalarPaths(JsonNode objectNode, String parentPath, int depth,
+      Map<String, PathStats> pathStatsMap) {
+    Iterator<Map.Entry<String, JsonNode>> fields = objectNode.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      String key = field.getKey();
+      if (!KEY_PATTERN.matcher(key).matches()) {
+        continue;
+      }
+      String path = parentPath + "." + key;
+      JsonNode value = field.getValue();
+      if (value.isObject()) {
+        if (depth < MAX_DEPTH) {
+          collectScalarPaths(value, path, depth + 1, pathStatsMap);
+        }
+      } else if (value.isValueNode() && !value.isNull()) {
+        pathStatsMap.computeIfAbsent(path, k -> new PathStats()).add(value);
+      }
+    }
+  }
+
+  private static class PathStats {
+    int _count;
+    boolean _hasNonIntegral;
+    boolean _hasNonNumeric;
+
+    void add(JsonNode value) {
+      _count++;
+      if (!value.isNumber()) {
+        _hasNonNumeric = true;
+      } else if (!value.canConvertToLong() || !value.isIntegralNumber()) {
+        _hasNonIntegral = true;
+      }
+    }
+
+    DataType getDataType() {
+      if (_hasNonNumeric) {
+        return DataType.STRING;
+      }
+      return _hasNonIntegral ? DataType.DOUBLE : DataType.LONG;
+    }
+  }
+}
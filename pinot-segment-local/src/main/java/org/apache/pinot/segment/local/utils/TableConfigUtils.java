@@ -46,7 +46,10 @@ import org.apache.pinot.segment.local.function.FunctionEvaluator;
 import org.apache.pinot.segment.local.function.FunctionEvaluatorFactory;
 import org.apache.pinot.segment.local.recordtransformer.SchemaConformingTransformer;
 import org.apache.pinot.segment.local.recordtransformer.SchemaConformingTransformerV2;
+import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeRawValueInvertedIndex;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.BitSlicedRangeIndexCreator;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.RawValueBitmapInvertedIndexCreator;
+import org.apache.pinot.segment.local.segment.index.composite.CompositeIndexType;
 import org.apache.pinot.segment.spi.AggregationFunctionType;
 import org.apache.pinot.segment.spi.index.DictionaryIndexConfig;
 import org.apache.pinot.segment.spi.index.IndexService;
@@ -76,6 +79,7 @@ import org.apache.pinot.spi.config.table.ingestion.ComplexTypeConfig;
 import org.apache.pinot.spi.config.table.ingestion.EnrichmentConfig;
 import org.apache.pinot.spi.config.table.ingestion.FilterConfig;
 import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
+import org.apache.pinot.spi.config.table.ingestion.JsonShreddingConfig;
 import org.apache.pinot.spi.config.table.ingestion.SchemaConformingTransformerConfig;
 import org.apache.pinot.spi.config.table.ingestion.SchemaConformingTransformerV2Config;
 import org.apache.pinot.spi.config.table.ingestion.StreamIngestionConfig;
@@ -91,6 +95,7 @@ import org.apache.pinot.spi.stream.StreamConfigProperties;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.DataSizeUtils;
 import org.apache.pinot.spi.utils.IngestionConfigUtils;
+import org.apache.pinot.spi.utils.JsonShreddingUtils;
 import org.apache.pinot.spi.utils.TimeUtils;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.slf4j.Logger;
@@ -180,7 +185,7 @@ public final class TableConfigUtils {
         validateStreamConfig(streamConfig);
       }
       validateTierConfigList(tableConfig.getTierConfigsList());
-      validateIndexingConfig(tableConfig.getIndexingConfig(), schema);
+      validateIndexingConfig(tableConfig.getIndexingConfig(), schema, tableConfig.getTableType());
       validateFieldConfigList(tableConfig, schema);
       validateInstancePartitionsTypeMapConfig(tableConfig);
       validatePartitionedReplicaGroupInstance(tableConfig);
@@ -614,6 +619,40 @@ public final class TableConfigUtils {
       if (null != schemaConformingTransformerV2Config && null != schema) {
         SchemaConformingTransformerV2.validateSchema(schema, schemaConformingTransformerV2Config);
       }
+
+      // JSON shredding configs
+      List<JsonShreddingConfig> jsonShreddingConfigs = ingestionConfig.getJsonShreddingConfigs();
+      if (jsonShreddingConfigs != null) {
+        Set<String> jsonShreddingColumns = new HashSet<>();
+        for (JsonShreddingConfig jsonShreddingConfig : jsonShreddingConfigs) {
+          String columnName = jsonShreddingConfig.getColumnName();
+          Preconditions.checkState(jsonShreddingColumns.add(columnName),
+              "Duplicate JSON shredding config for column: %s", columnName);
+          if (schema != null) {
+            FieldSpec fieldSpec = schema.getFieldSpecFor(columnName);
+            Preconditions.checkState(fieldSpec != null, "Failed to find JSON shredding column: %s in the schema",
+                columnName);
+            Preconditions.checkState(fieldSpec.isSingleValueField() && (fieldSpec.getDataType() == DataType.STRING
+                    || fieldSpec.getDataType() == DataType.JSON),
+                "JSON shredding column: %s must be a single-valued STRING or JSON column", columnName);
+          }
+          for (Map.Entry<String, DataType> entry : jsonShreddingConfig.getJsonPaths().entrySet()) {
+            Preconditions.checkState(JsonShreddingUtils.isShreddableJsonPath(entry.getKey()),
+                "Invalid JSON path: %s to shred for column: %s, only object keys and array indexes are supported",
+                entry.getKey(), columnName);
+            Preconditions.checkState(JsonShreddingUtils.isSupportedDataType(entry.getValue()),
+                "Unsupported data type: %s for shredded JSON path: %s of column: %s", entry.getValue(),
+                entry.getKey(), columnName);
+          }
+          Preconditions.checkState(jsonShreddingConfig.getMaxNumAutoDetectedPaths() > 0,
+              "'maxNumAutoDetectedPaths' must be positive for JSON shredding column: %s", columnName);
+          double minFrequency = jsonShreddingConfig.getMinAutoDetectedPathFrequency();
+          Preconditions.checkState(minFrequency > 0 && minFrequency <= 1,
+              "'minAutoDetectedPathFrequency' must be in (0, 1] for JSON shredding column: %s", columnName);
+          Preconditions.checkState(jsonShreddingConfig.getNumAutoDetectionSampleRecords() > 0,
+              "'numAutoDetectionSampleRecords' must be positive for JSON shredding column: %s", columnName);
+        }
+      }
     }
   }
 
@@ -975,13 +1014,24 @@ public final class TableConfigUtils {
     }
   }
 
+  /**
+   * Returns whether an inverted index can be created on the given raw (no-dictionary) column, which is indexed by value
+   * (see {@link RealtimeRawValueInvertedIndex} and {@link RawValueBitmapInvertedIndexCreator}). This is only supported
+   * for REALTIME tables, where the raw value inverted index serves the consuming segments as well.
+   */
+  private static boolean isRawValueInvertedIndexSupported(TableType tableType, @Nullable FieldSpec fieldSpec) {
+    return tableType == TableType.REALTIME && fieldSpec != null && RealtimeRawValueInvertedIndex.isSupported(
+        fieldSpec.getDataType().getStoredType());
+  }
+
   /**
    * Validates the Indexing Config
    * Ensures that every referred column name exists in the corresponding schema.
    * Also ensures proper dependency between index types (eg: Inverted Index columns
-   * cannot be present in no-dictionary columns).
+   * cannot be present in no-dictionary columns, unless they can be indexed by value).
    */
-  private static void validateIndexingConfig(IndexingConfig indexingConfig, @Nullable Schema schema) {
+  private static void validateIndexingConfig(IndexingConfig indexingConfig, @Nullable Schema schema,
+      TableType tableType) {
     if (schema == null) {
       return;
     }
@@ -1006,7 +1056,8 @@ public final class TableConfigUtils {
     }
     if (indexingConfig.getInvertedIndexColumns() != null) {
       for (String columnName : indexingConfig.getInvertedIndexColumns()) {
-        if (noDictionaryColumnsSet.contains(columnName)) {
+        if (noDictionaryColumnsSet.contains(columnName) && !isRawValueInvertedIndexSupported(tableType,
+            schema.getFieldSpecFor(columnName))) {
           throw new IllegalStateException("Cannot create an Inverted index on column " + columnName
               + " specified in the noDictionaryColumns config");
         }
@@ -1186,6 +1237,7 @@ public final class TableConfigUtils {
    * Ensures that every referred column name exists in the corresponding schema
    * Additional checks for TEXT and FST index types
    * Validates index compatibility for forward index disabled columns
+   * Validates the columns of the composite indexes
    */
   private static void validateFieldConfigList(TableConfig tableConfig, @Nullable Schema schema) {
     List<FieldConfig> fieldConfigList = tableConfig.getFieldConfigList();
@@ -1240,7 +1292,8 @@ public final class TableConfigUtils {
         for (FieldConfig.IndexType indexType : fieldConfig.getIndexTypes()) {
           switch (indexType) {
             case INVERTED:
-              Preconditions.checkState(fieldConfig.getEncodingType() == EncodingType.DICTIONARY,
+              Preconditions.checkState(fieldConfig.getEncodingType() == EncodingType.DICTIONARY
+                      || isRawValueInvertedIndexSupported(tableType, fieldSpec),
                   "Cannot create inverted index on column: %s, it can only be applied to dictionary encoded columns",
                   columnName);
               break;
@@ -1266,6 +1319,10 @@ public final class TableConfigUtils {
         }
       }
     }
+
+    if (schema != null) {
+      CompositeIndexType.validate(tableConfig, schema);
+    }
   }
 
   /**
@@ -0,0 +1,237 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.indexsegment.mutable;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.apache.pinot.segment.local.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentConfig;
+import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentStatsHistory;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.DictionaryIndexConfig;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.startree.StarTreeNode;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.stream.StreamMessageMetadata;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class MutableSegmentImplStarTreeTest {
+  private static final String SEGMENT_NAME = "testTable__0__0__155555";
+  private static final String DIMENSION_1 = "dim1";
+  private static final String DIMENSION_2 = "dim2";
+  private static final String RAW_DIMENSION = "rawDim";
+  private static final String METRIC = "metric";
+  private static final int NUM_ROWS = 1000;
+
+  private static final Schema SCHEMA = new Schema.SchemaBuilder().setSchemaName("testTable")
+      .addSingleValueDimension(DIMENSION_1, DataType.INT).addSingleValueDimension(DIMENSION_2, DataType.STRING)
+      .addSingleValueDimension(RAW_DIMENSION, DataType.STRING).addMetric(METRIC, DataType.LONG).build();
+
+  @Test
+  public void testStarTree()
+      throws Exception {
+    StarTreeIndexConfig starTreeIndexConfig =
+        new StarTreeIndexConfig(List.of(DIMENSION_1, DIMENSION_2), null, List.of("COUNT__*", "SUM__metric",
+            "MIN__metric", "MAX__metric"), null, 100);
+    MutableSegmentImpl mutableSegment = createMutableSegment(List.of(starTreeIndexConfig));
+    try {
+      assertNull(mutableSegment.getStarTrees());
+
+      Map<String, long[]> expectedValues = new HashMap<>();
+      long sum = 0;
+      Random random = new Random();
+      StreamMessageMetadata metadata = new StreamMessageMetadata(System.currentTimeMillis(), new GenericRow());
+      for (int i = 0; i < NUM_ROWS; i++) {
+        GenericRow row = new GenericRow();
+        int dim1 = random.nextInt(5);
+        String dim2 = "v" + random.nextInt(10);
+        long metric = random.nextInt(1000);
+        row.putValue(DIMENSION_1, dim1);
+        row.putValue(DIMENSION_2, dim2);
+        row.putValue(RAW_DIMENSION, "raw" + i);
+        row.putValue(METRIC, metric);
+        mutableSegment.index(row, metadata);
+        sum += metric;
+        long[] values = expectedValues.computeIfAbsent(dim1 + "_" + dim2,
+            k -> new long[]{0, 0, Long.MAX_VALUE, Long.MIN_VALUE});
+        values[0]++;
+        values[1] += metric;
+        values[2] = Math.min(values[2], metric);
+        values[3] = Math.max(values[3], metric);
+      }
+
+      List<StarTreeV2> starTrees = mutableSegment.getStarTrees();
+      assertNotNull(starTrees);
+      assertEquals(starTrees.size(), 1);
+      StarTreeV2 starTree = starTrees.get(0);
+      int numDocs = starTree.getMetadata().getNumDocs();
+      assertEquals(numDocs, expectedValues.size() + 1);
+      StarTreeNode root = starTree.getStarTree().getRoot();
+      assertTrue(root.isLeaf());
+      assertEquals(root.getStartDocId(), 1);
+      assertEquals(root.getEndDocId(), numDocs);
+
+      ForwardIndexReader<?> countReader = starTree.getDataSource("count__*").getForwardIndex();
+      ForwardIndexReader<?> sumReader = starTree.getDataSource("sum__metric").getForwardIndex();
+      ForwardIndexReader<?> minReader = starTree.getDataSource("min__metric").getForwardIndex();
+      ForwardIndexReader<?> maxReader = starTree.getDataSource("max__metric").getForwardIndex();
+      int aggregatedDocId = root.getAggregatedDocId();
+      assertEquals(countReader.getLong(aggregatedDocId, null), NUM_ROWS);
+      assertEquals(sumReader.getDouble(aggregatedDocId, null), (double) sum);
+
+      DataSource dim1DataSource = starTree.getDataSource(DIMENSION_1);
+      DataSource dim2DataSource = starTree.getDataSource(DIMENSION_2);
+      Dictionary dim1Dictionary = dim1DataSource.getDictionary();
+      Dictionary dim2Dictionary = dim2DataSource.getDictionary();
+      for (int docId = root.getStartDocId(); docId < root.getEndDocId(); docId++) {
+        Object dim1 = dim1Dictionary.get(dim1DataSource.getForwardIndex().getDictId(docId, null));
+        Object dim2 = dim2Dictionary.get(dim2DataSource.getForwardIndex().getDictId(docId, null));
+        long[] values = expectedValues.get(dim1 + "_" + dim2);
+        assertNotNull(values);
+        assertEquals(countReader.getLong(docId, null), values[0]);
+        assertEquals(sumReader.getDouble(docId, null), (double) values[1]);
+        assertEquals(minReader.getDouble(docId, null), (double) values[2]);
+        assertEquals(maxReader.getDouble(docId, null), (double) values[3]);
+      }
+
+      // Snapshot should be reused until a new row is indexed
+      assertSame(mutableSegment.getStarTrees().get(0), starTree);
+
+      // New rows should be reflected in the next snapshot, but not in the existing one
+      GenericRow row = new GenericRow();
+      row.putValue(DIMENSION_1, 100);
+      row.putValue(DIMENSION_2, "new");
+      row.putValue(RAW_DIMENSION, "raw");
+      row.putValue(METRIC, 1L);
+      mutableSegment.index(row, metadata);
+      starTrees = mutableSegment.getStarTrees();
+      assertNotNull(starTrees);
+      assertEquals(starTrees.get(0).getMetadata().getNumDocs(), numDocs + 1);
+      assertEquals(starTrees.get(0).getDataSource("count__*").getForwardIndex().getLong(0, null), NUM_ROWS + 1);
+      assertEquals(starTree.getMetadata().getNumDocs(), numDocs);
+      assertEquals(countReader.getLong(aggregatedDocId, null), NUM_ROWS);
+      assertEquals(sumReader.getDouble(aggregatedDocId, null), (double) sum);
+
+      // Row already seen should be aggregated into the existing record in the next snapshot only
+      StarTreeV2 previousStarTree = starTrees.get(0);
+      mutableSegment.index(row, metadata);
+      starTrees = mutableSegment.getStarTrees();
+      assertNotNull(starTrees);
+      assertEquals(starTrees.get(0).getMetadata().getNumDocs(), numDocs + 1);
+      ForwardIndexReader<?> newCountReader = starTrees.get(0).getDataSource("count__*").getForwardIndex();
+      assertEquals(newCountReader.getLong(numDocs, null), 2);
+      assertEquals(previousStarTree.getDataSource("count__*").getForwardIndex().getLong(numDocs, null), 1);
+    } finally {
+      mutableSegment.destroy();
+    }
+  }
+
+  @Test
+  public void testUnsupportedStarTree()
+      throws Exception {
+    // Raw dimension and unsupported aggregation function should not be maintained
+    StarTreeIndexConfig rawDimensionConfig =
+        new StarTreeIndexConfig(List.of(DIMENSION_1, RAW_DIMENSION), null, List.of("COUNT__*"), null, 100);
+    StarTreeIndexConfig unsupportedFunctionConfig =
+        new StarTreeIndexConfig(List.of(DIMENSION_1), null, List.of("DISTINCTCOUNTHLL__dim2"), null, 100);
+    MutableSegmentImpl mutableSegment = createMutableSegment(List.of(rawDimensionConfig, unsupportedFunctionConfig));
+    try {
+      GenericRow row = new GenericRow();
+      row.putValue(DIMENSION_1, 1);
+      row.putValue(DIMENSION_2, "v");
+      row.putValue(RAW_DIMENSION, "raw");
+      row.putValue(METRIC, 1L);
+      mutableSegment.index(row, new StreamMessageMetadata(System.currentTimeMillis(), new GenericRow()));
+      assertNull(mutableSegment.getStarTrees());
+    } finally {
+      mutableSegment.destroy();
+    }
+  }
+
+  @Test
+  public void testStarTreeWithMetricsAggregation()
+      throws Exception {
+    // Star-tree should not be maintained when the rows are merged by metrics aggregation
+    StarTreeIndexConfig starTreeIndexConfig =
+        new StarTreeIndexConfig(List.of(DIMENSION_1, DIMENSION_2), null, List.of("COUNT__*", "SUM__metric"), null, 100);
+    MutableSegmentImpl mutableSegment = createMutableSegment(List.of(starTreeIndexConfig), true);
+    try {
+      StreamMessageMetadata metadata = new StreamMessageMetadata(System.currentTimeMillis(), new GenericRow());
+      for (int i = 0; i < 2; i++) {
+        GenericRow row = new GenericRow();
+        row.putValue(DIMENSION_1, 1);
+        row.putValue(DIMENSION_2, "v");
+        row.putValue(RAW_DIMENSION, "raw");
+        row.putValue(METRIC, 1L);
+        mutableSegment.index(row, metadata);
+      }
+      assertEquals(mutableSegment.getNumDocsIndexed(), 1);
+      assertNull(mutableSegment.getStarTrees());
+    } finally {
+      mutableSegment.destroy();
+    }
+  }
+
+  private static MutableSegmentImpl createMutableSegment(List<StarTreeIndexConfig> starTreeIndexConfigs) {
+    return createMutableSegment(starTreeIndexConfigs, false);
+  }
+
+  private static MutableSegmentImpl createMutableSegment(List<StarTreeIndexConfig> starTreeIndexConfigs,
+      boolean aggregateMetrics) {
+    RealtimeSegmentStatsHistory statsHistory = mock(RealtimeSegmentStatsHistory.class);
+    when(statsHistory.getEstimatedCardinality(anyString())).thenReturn(200);
+    when(statsHistory.getEstimatedAvgColSize(anyString())).thenReturn(32);
+    RealtimeSegmentConfig.Builder configBuilder =
+        new RealtimeSegmentConfig.Builder().setTableNameWithType("testTable_REALTIME").setSegmentName(SEGMENT_NAME)
+            .setStreamName("testStream").setSchema(SCHEMA).setCapacity(NUM_ROWS * 2).setAvgNumMultiValues(2)
+            .setSegmentZKMetadata(new SegmentZKMetadata(SEGMENT_NAME))
+            .setMemoryManager(new DirectMemoryManager(SEGMENT_NAME)).setStatsHistory(statsHistory)
+            .setConsumerDir(new File(FileUtils.getTempDirectory(), "MutableSegmentImplStarTreeTest").getAbsolutePath())
+            .setStarTreeIndexConfigs(starTreeIndexConfigs);
+    if (aggregateMetrics) {
+      // Metrics aggregation requires raw metrics and dictionary encoded dimensions
+      configBuilder.setIndex(METRIC, StandardIndexes.dictionary(), DictionaryIndexConfig.DISABLED)
+          .setAggregateMetrics(true);
+    } else {
+      configBuilder.setIndex(RAW_DIMENSION, StandardIndexes.dictionary(), DictionaryIndexConfig.DISABLED);
+    }
+    return new MutableSegmentImpl(configBuilder.build(), null);
+  }
+}
@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link FrontCodedValueReader} and {@link FrontCodedValueWriter}.
+ */
+public class FrontCodedValueReaderWriterTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "FrontCodedValueReaderWriterTest");
+  private static final int NUM_VALUES = 1000;
+  private static final Random RANDOM = new Random();
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(TEMP_DIR);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+
+  @Test
+  public void testEmptyDictionary()
+      throws IOException {
+    File dictionaryFile = new File(TEMP_DIR, "empty");
+    FrontCodedValueWriter writer = new FrontCodedValueWriter(dictionaryFile, 0, 4);
+    writer.close();
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(dictionaryFile)) {
+      assertTrue(FrontCodedValueReader.isFrontCodedValueBuffer(dataBuffer));
+      assertFalse(VarLengthValueReader.isVarLengthValueBuffer(dataBuffer));
+      try (FrontCodedValueReader reader = new FrontCodedValueReader(dataBuffer)) {
+        assertEquals(reader.getNumValues(), 0);
+        assertEquals(reader.binarySearchUtf8("a".getBytes(UTF_8)), -1);
+      }
+    }
+  }
+
+  @Test
+  public void testSharedPrefixes()
+      throws IOException {
+    TreeSet<String> valueSet = new TreeSet<>();
+    while (valueSet.size() < NUM_VALUES) {
+      valueSet.add("https://www.example.com/" + RANDOM.nextInt(100) + "/page/" + RANDOM.nextInt(1000));
+    }
+    // Non-ASCII characters to verify the values are compared with the same ordering as String
+    valueSet.add("https://www.example.com/\u00e9");
+    valueSet.add("https://www.example.com/\uffe0");
+    valueSet.add("https://www.example.com/\ud83d\ude00");
+    valueSet.add("");
+    String[] values = valueSet.toArray(new String[0]);
+    for (int bucketSize : new int[]{1, 4, 16, 64}) {
+      testValues(values, bucketSize);
+    }
+  }
+
+  private void testValues(String[] values, int bucketSize)
+      throws IOException {
+    int numValues = values.length;
+    File dictionaryFile = new File(TEMP_DIR, "bucketSize_" + bucketSize);
+    int maxLength = 0;
+    try (FrontCodedValueWriter writer = new FrontCodedValueWriter(dictionaryFile, numValues, bucketSize)) {
+      for (String value : values) {
+        byte[] valueBytes = value.getBytes(UTF_8);
+        maxLength = Math.max(maxLength, valueBytes.length);
+        writer.add(valueBytes);
+      }
+    }
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(dictionaryFile)) {
+      assertTrue(FrontCodedValueReader.isFrontCodedValueBuffer(dataBuffer));
+      try (FrontCodedValueReader reader = new FrontCodedValueReader(dataBuffer)) {
+        assertEquals(reader.getNumValues(), numValues);
+        assertEquals(reader.getBucketSize(), bucketSize);
+        byte[] buffer = new byte[maxLength];
+        for (int i = 0; i < numValues; i++) {
+          byte[] valueBytes = values[i].getBytes(UTF_8);
+          assertEquals(reader.getUnpaddedString(i, maxLength, buffer), values[i]);
+          assertEquals(reader.getBytes(i, maxLength), valueBytes);
+          assertEquals(reader.compareUtf8Bytes(i, maxLength, valueBytes), 0);
+          assertEquals(reader.binarySearchUtf8(valueBytes), i);
+        }
+
+        // Values not in the dictionary
+        for (int i = 0; i < numValues; i++) {
+          String value = values[i] + "/" + RANDOM.nextInt(10);
+          assertEquals(reader.binarySearchUtf8(value.getBytes(UTF_8)), Arrays.binarySearch(values, value));
+        }
+        String largest = "\ud83d\ude00";
+        assertEquals(reader.binarySearchUtf8(largest.getBytes(UTF_8)), Arrays.binarySearch(values, largest));
+
+        // Bulk read
+        int[] indexes = new int[numValues];
+        for (int i = 0; i < numValues; i++) {
+          indexes[i] = RANDOM.nextInt(numValues);
+        }
+        Arrays.sort(indexes, 0, numValues / 2);
+        String[] outValues = new String[numValues];
+        reader.readUnpaddedStrings(indexes, numValues, outValues);
+        byte[][] outBytes = new byte[numValues][];
+        reader.readBytes(indexes, numValues, outBytes);
+        for (int i = 0; i < numValues; i++) {
+          assertEquals(outValues[i], values[indexes[i]]);
+          assertEquals(outBytes[i], values[indexes[i]].getBytes(UTF_8));
+        }
+      }
+    }
+  }
+}
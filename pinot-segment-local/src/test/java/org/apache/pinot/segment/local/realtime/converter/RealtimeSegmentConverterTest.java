@@ -44,18 +44,22 @@ import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeLucene
 import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeLuceneTextIndexSearcherPool;
 import org.apache.pinot.segment.local.segment.index.column.PhysicalColumnIndexContainer;
 import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.index.readers.RawValueBitmapInvertedIndexReader;
 import org.apache.pinot.segment.local.segment.index.text.TextIndexConfigBuilder;
 import org.apache.pinot.segment.local.segment.store.SegmentLocalFSDirectory;
 import org.apache.pinot.segment.local.segment.virtualcolumn.VirtualColumnProviderFactory;
 import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.creator.SegmentVersion;
+import org.apache.pinot.segment.spi.datasource.DataSource;
 import org.apache.pinot.segment.spi.index.DictionaryIndexConfig;
 import org.apache.pinot.segment.spi.index.StandardIndexes;
 import org.apache.pinot.segment.spi.index.TextIndexConfig;
 import org.apache.pinot.segment.spi.index.column.ColumnIndexContainer;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.segment.spi.index.mutable.MutableRawValueInvertedIndex;
 import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
 import org.apache.pinot.segment.spi.store.SegmentDirectory;
+import org.apache.pinot.spi.config.table.BloomFilterConfig;
 import org.apache.pinot.spi.config.table.FieldConfig;
 import org.apache.pinot.spi.config.table.IndexConfig;
 import org.apache.pinot.spi.config.table.SegmentZKPropsConfig;
@@ -75,7 +79,10 @@ import org.testng.annotations.Test;
 
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 
@@ -452,6 +459,107 @@ public class RealtimeSegmentConverterTest {
     segmentFile.destroy();
   }
 
+  @DataProvider
+  public static Object[][] columnMajorSegmentBuilderParams() {
+    return new Object[][]{{false}, {true}};
+  }
+
+  @Test(dataProvider = "columnMajorSegmentBuilderParams")
+  public void testRawColumnsWithInvertedIndex(boolean columnMajorSegmentBuilder)
+      throws Exception {
+    File tmpDir = new File(TMP_DIR, "tmp_" + System.currentTimeMillis());
+    TableConfig tableConfig =
+        new TableConfigBuilder(TableType.REALTIME).setTableName("testTable").setTimeColumnName(DATE_TIME_COLUMN)
+            .setInvertedIndexColumns(Lists.newArrayList(STRING_COLUMN4, LONG_COLUMN2))
+            .setNoDictionaryColumns(Lists.newArrayList(STRING_COLUMN4, LONG_COLUMN2))
+            .setBloomFilterColumns(Lists.newArrayList(STRING_COLUMN4))
+            .setColumnMajorSegmentBuilderEnabled(columnMajorSegmentBuilder).build();
+    Schema schema = new Schema.SchemaBuilder().addSingleValueDimension(STRING_COLUMN1, FieldSpec.DataType.STRING)
+        .addSingleValueDimension(STRING_COLUMN2, FieldSpec.DataType.STRING)
+        .addSingleValueDimension(STRING_COLUMN3, FieldSpec.DataType.STRING)
+        .addSingleValueDimension(STRING_COLUMN4, FieldSpec.DataType.STRING)
+        .addSingleValueDimension(LONG_COLUMN1, FieldSpec.DataType.LONG)
+        .addSingleValueDimension(LONG_COLUMN2, FieldSpec.DataType.LONG)
+        .addSingleValueDimension(LONG_COLUMN3, FieldSpec.DataType.LONG)
+        .addMultiValueDimension(MV_INT_COLUMN, FieldSpec.DataType.INT).addMetric(LONG_COLUMN4, FieldSpec.DataType.LONG)
+        .addDateTime(DATE_TIME_COLUMN, FieldSpec.DataType.LONG, "1:MILLISECONDS:EPOCH", "1:MILLISECONDS").build();
+
+    String tableNameWithType = tableConfig.getTableName();
+    String segmentName = "testTable__0__0__123456";
+
+    RealtimeSegmentConfig.Builder realtimeSegmentConfigBuilder =
+        new RealtimeSegmentConfig.Builder().setTableNameWithType(tableNameWithType).setSegmentName(segmentName)
+            .setStreamName(tableNameWithType).setSchema(schema).setTimeColumnName(DATE_TIME_COLUMN).setCapacity(1000)
+            .setAvgNumMultiValues(3)
+            .setIndex(Sets.newHashSet(STRING_COLUMN4, LONG_COLUMN2), StandardIndexes.dictionary(),
+                DictionaryIndexConfig.DISABLED)
+            .setIndex(Sets.newHashSet(STRING_COLUMN4, LONG_COLUMN2), StandardIndexes.inverted(), IndexConfig.ENABLED)
+            .setIndex(Sets.newHashSet(STRING_COLUMN4), StandardIndexes.bloomFilter(), BloomFilterConfig.DEFAULT)
+            .setSegmentZKMetadata(getSegmentZKMetadata(segmentName)).setOffHeap(true)
+            .setMemoryManager(new DirectMemoryManager(segmentName))
+            .setStatsHistory(RealtimeSegmentStatsHistory.deserialzeFrom(new File(tmpDir, "stats")))
+            .setConsumerDir(new File(tmpDir, "consumerDir").getAbsolutePath());
+
+    // create mutable segment impl
+    MutableSegmentImpl mutableSegmentImpl = new MutableSegmentImpl(realtimeSegmentConfigBuilder.build(), null);
+    List<GenericRow> rows = generateTestData();
+    for (GenericRow row : rows) {
+      mutableSegmentImpl.index(row, null);
+    }
+
+    // Raw columns should be indexed by value in the consuming segment
+    DataSource stringDataSource = mutableSegmentImpl.getDataSource(STRING_COLUMN4);
+    assertNull(stringDataSource.getDictionary());
+    assertTrue(stringDataSource.getInvertedIndex() instanceof MutableRawValueInvertedIndex);
+    MutableRawValueInvertedIndex stringInvertedIndex =
+        (MutableRawValueInvertedIndex) stringDataSource.getInvertedIndex();
+    assertEquals(stringInvertedIndex.getNumValues(), rows.size());
+    assertEquals(stringInvertedIndex.getDocIdsForValue("F23").toArray(), new int[]{3});
+    assertTrue(stringInvertedIndex.getDocIdsForValue("F2").isEmpty());
+    assertNotNull(stringDataSource.getBloomFilter());
+    assertTrue(stringDataSource.getBloomFilter().mightContain("F23"));
+    DataSource longDataSource = mutableSegmentImpl.getDataSource(LONG_COLUMN2);
+    assertNull(longDataSource.getDictionary());
+    MutableRawValueInvertedIndex longInvertedIndex = (MutableRawValueInvertedIndex) longDataSource.getInvertedIndex();
+    assertEquals(longInvertedIndex.getDocIdsForValue(70L).toArray(), new int[]{4});
+
+    File outputDir = new File(tmpDir, "outputDir");
+    SegmentZKPropsConfig segmentZKPropsConfig = new SegmentZKPropsConfig();
+    segmentZKPropsConfig.setStartOffset("1");
+    segmentZKPropsConfig.setEndOffset("100");
+    RealtimeSegmentConverter converter =
+        new RealtimeSegmentConverter(mutableSegmentImpl, segmentZKPropsConfig, outputDir.getAbsolutePath(), schema,
+            tableNameWithType, tableConfig, segmentName, false);
+    converter.build(SegmentVersion.v3, null);
+
+    // Raw columns should stay raw on commit, and be indexed by value
+    File indexDir = new File(outputDir, segmentName);
+    SegmentMetadataImpl segmentMetadata = new SegmentMetadataImpl(indexDir);
+    assertEquals(segmentMetadata.getTotalDocs(), rows.size());
+    for (String column : Arrays.asList(STRING_COLUMN4, LONG_COLUMN2)) {
+      ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+      assertFalse(columnMetadata.hasDictionary());
+      assertEquals(columnMetadata.getCardinality(), rows.size());
+    }
+    try (SegmentDirectory segmentDir = new SegmentLocalFSDirectory(indexDir, segmentMetadata, ReadMode.mmap);
+        SegmentDirectory.Reader segmentReader = segmentDir.createReader()) {
+      assertTrue(segmentReader.hasIndexFor(STRING_COLUMN4, StandardIndexes.inverted()));
+      assertTrue(segmentReader.hasIndexFor(LONG_COLUMN2, StandardIndexes.inverted()));
+      assertTrue(segmentReader.hasIndexFor(STRING_COLUMN4, StandardIndexes.bloomFilter()));
+      RawValueBitmapInvertedIndexReader stringReader = new RawValueBitmapInvertedIndexReader(
+          segmentReader.getIndexFor(STRING_COLUMN4, StandardIndexes.inverted()), FieldSpec.DataType.STRING);
+      assertEquals(stringReader.getNumValues(), rows.size());
+      assertEquals(stringReader.getDocIdsForValue("F23").toArray(), new int[]{3});
+      assertTrue(stringReader.getDocIdsForValue("F2").isEmpty());
+      RawValueBitmapInvertedIndexReader longReader = new RawValueBitmapInvertedIndexReader(
+          segmentReader.getIndexFor(LONG_COLUMN2, StandardIndexes.inverted()), FieldSpec.DataType.LONG);
+      assertEquals(longReader.getDocIdsForValue(70L).toArray(), new int[]{4});
+      assertTrue(longReader.getDocIdsForValue(65L).isEmpty());
+    }
+
+    testSegment(rows, indexDir, tableConfig, segmentMetadata);
+  }
+
   @DataProvider
   public static Object[][] optimizeDictionaryTypeParams() {
     // Format: {optimizeDictionaryType, expectedCRC}, crc is used here to check the correct dictionary type was used
@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.bloom;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import java.nio.charset.StandardCharsets;
+import org.apache.pinot.spi.utils.BytesUtils;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+@SuppressWarnings("UnstableApiUsage")
+public class RealtimeBloomFilterTest {
+  private static final int NUM_VALUES = 1000;
+  private static final double FPP = 0.05;
+
+  @Test
+  public void testAlignedWithGuavaBloomFilter() {
+    RealtimeBloomFilter realtimeBloomFilter = new RealtimeBloomFilter(NUM_VALUES, FPP);
+    BloomFilter<String> guavaBloomFilter =
+        BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), NUM_VALUES, FPP);
+    for (int i = 0; i < NUM_VALUES; i++) {
+      realtimeBloomFilter.add(i, -1, i);
+      guavaBloomFilter.put(Integer.toString(i));
+    }
+
+    // No false negative, and same false positives as the bloom filter used to create the immutable bloom filter
+    for (int i = 0; i < NUM_VALUES; i++) {
+      assertTrue(realtimeBloomFilter.mightContain(Integer.toString(i)));
+    }
+    for (int i = NUM_VALUES; i < 10 * NUM_VALUES; i++) {
+      String value = Integer.toString(i);
+      assertEquals(realtimeBloomFilter.mightContain(value), guavaBloomFilter.mightContain(value));
+    }
+  }
+
+  @Test
+  public void testMultiValueAndBytes() {
+    RealtimeBloomFilter realtimeBloomFilter = new RealtimeBloomFilter(NUM_VALUES, FPP);
+    realtimeBloomFilter.add(new Object[]{1L, 2L}, null, 0);
+    byte[] bytes = new byte[]{1, 2, 3};
+    realtimeBloomFilter.add(bytes, -1, 1);
+    assertTrue(realtimeBloomFilter.mightContain("1"));
+    assertTrue(realtimeBloomFilter.mightContain("2"));
+    assertTrue(realtimeBloomFilter.mightContain(BytesUtils.toHexString(bytes)));
+  }
+}
@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.invertedindex;
+
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class RealtimeRawValueInvertedIndexTest {
+
+  @Test
+  public void testSingleValue() {
+    RealtimeRawValueInvertedIndex invertedIndex = new RealtimeRawValueInvertedIndex(DataType.STRING);
+    assertTrue(invertedIndex.getDocIdsForValue("a").isEmpty());
+    invertedIndex.add("b", -1, 0);
+    invertedIndex.add("a", -1, 1);
+    invertedIndex.add("b", -1, 2);
+    assertEquals(invertedIndex.getDocIdsForValue("a").toArray(), new int[]{1});
+    assertEquals(invertedIndex.getDocIdsForValue("b").toArray(), new int[]{0, 2});
+    assertTrue(invertedIndex.getDocIdsForValue("c").isEmpty());
+    assertEquals(invertedIndex.getNumValues(), 2);
+    assertEquals((String[]) invertedIndex.getSortedValues(), new String[]{"a", "b"});
+  }
+
+  @Test
+  public void testMultiValue() {
+    RealtimeRawValueInvertedIndex invertedIndex = new RealtimeRawValueInvertedIndex(DataType.LONG);
+    invertedIndex.add(new Object[]{3L, 1L}, null, 0);
+    invertedIndex.add(new Object[]{1L, 1L}, null, 1);
+    assertEquals(invertedIndex.getDocIdsForValue(1L).toArray(), new int[]{0, 1});
+    assertEquals(invertedIndex.getDocIdsForValue(3L).toArray(), new int[]{0});
+    assertEquals(invertedIndex.getNumValues(), 2);
+    assertEquals((long[]) invertedIndex.getSortedValues(), new long[]{1L, 3L});
+  }
+
+  @Test
+  public void testBytes() {
+    RealtimeRawValueInvertedIndex invertedIndex = new RealtimeRawValueInvertedIndex(DataType.BYTES);
+    invertedIndex.add(new byte[]{2}, -1, 0);
+    invertedIndex.add(new byte[]{1}, -1, 1);
+    assertEquals(invertedIndex.getDocIdsForValue(new ByteArray(new byte[]{2})).toArray(), new int[]{0});
+    assertEquals(invertedIndex.getDocIdsForValue(new byte[]{1}).toArray(), new int[]{1});
+    assertEquals((ByteArray[]) invertedIndex.getSortedValues(),
+        new ByteArray[]{new ByteArray(new byte[]{1}), new ByteArray(new byte[]{2})});
+  }
+
+  @Test
+  public void testMemoryLimit() {
+    // Room for 2 INT values (160 + 16 bytes each) and one extra doc id (2 bytes)
+    RealtimeRawValueInvertedIndex invertedIndex = new RealtimeRawValueInvertedIndex(DataType.INT, 354);
+    invertedIndex.add(1, -1, 0);
+    invertedIndex.add(2, -1, 1);
+    invertedIndex.add(1, -1, 2);
+    assertFalse(invertedIndex.isFull());
+    assertEquals(invertedIndex.getNumDocsLimit(), Integer.MAX_VALUE);
+    assertEquals(invertedIndex.getEstimatedMemoryBytes(), 354);
+
+    // Docs from the first one exceeding the limit should not be indexed
+    invertedIndex.add(3, -1, 3);
+    invertedIndex.add(1, -1, 4);
+    assertTrue(invertedIndex.isFull());
+    assertEquals(invertedIndex.getNumDocsLimit(), 3);
+    assertEquals(invertedIndex.getEstimatedMemoryBytes(), 354);
+    assertEquals(invertedIndex.getNumValues(), 2);
+    assertEquals(invertedIndex.getDocIdsForValue(1).toArray(), new int[]{0, 2});
+    assertTrue(invertedIndex.getDocIdsForValue(3).isEmpty());
+
+    // Multi-value docs are cut at the doc boundary
+    invertedIndex = new RealtimeRawValueInvertedIndex(DataType.INT, 354);
+    invertedIndex.add(new Object[]{1, 2}, null, 0);
+    invertedIndex.add(new Object[]{1, 3, 2}, null, 1);
+    assertTrue(invertedIndex.isFull());
+    assertEquals(invertedIndex.getNumDocsLimit(), 1);
+    assertEquals(invertedIndex.getDocIdsForValue(2).toArray(), new int[]{0});
+  }
+
+  @Test
+  public void testSupportedTypes() {
+    assertTrue(RealtimeRawValueInvertedIndex.isSupported(DataType.INT));
+    assertTrue(RealtimeRawValueInvertedIndex.isSupported(DataType.LONG));
+    assertTrue(RealtimeRawValueInvertedIndex.isSupported(DataType.STRING));
+    assertTrue(RealtimeRawValueInvertedIndex.isSupported(DataType.BYTES));
+    assertFalse(RealtimeRawValueInvertedIndex.isSupported(DataType.FLOAT));
+    assertFalse(RealtimeRawValueInvertedIndex.isSupported(DataType.DOUBLE));
+    assertFalse(RealtimeRawValueInvertedIndex.isSupported(DataType.BIG_DECIMAL));
+  }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.recordtransformer;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.JsonShreddingUtils;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class JsonShreddingTransformerTest {
+  private static final String JSON_COLUMN = "payload";
+  private static final String ID_COLUMN = JsonShreddingUtils.getShreddedColumnName(JSON_COLUMN, "$.id");
+  private static final String LAST_NAME_COLUMN = JsonShreddingUtils.getShreddedColumnName(JSON_COLUMN, "$.name.last");
+  private static final String FIRST_TAG_COLUMN = JsonShreddingUtils.getShreddedColumnName(JSON_COLUMN, "$.tags[0]");
+  private static final String SCORE_COLUMN = JsonShreddingUtils.getShreddedColumnName(JSON_COLUMN, "$.score");
+
+  private static Schema getSchema() {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testTable")
+        .addSingleValueDimension(JSON_COLUMN, DataType.STRING).build();
+    JsonShreddingUtils.addShreddedColumn(schema, JSON_COLUMN, "$.id", DataType.LONG);
+    JsonShreddingUtils.addShreddedColumn(schema, JSON_COLUMN, "$.name.last", DataType.STRING);
+    JsonShreddingUtils.addShreddedColumn(schema, JSON_COLUMN, "$.tags[0]", DataType.STRING);
+    JsonShreddingUtils.addShreddedColumn(schema, JSON_COLUMN, "$.score", DataType.DOUBLE);
+    return schema;
+  }
+
+  @Test
+  public void testNoOp() {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testTable")
+        .addSingleValueDimension(JSON_COLUMN, DataType.STRING).build();
+    assertTrue(new JsonShreddingTransformer(schema).isNoOp());
+    assertFalse(new JsonShreddingTransformer(getSchema()).isNoOp());
+  }
+
+  @Test
+  public void testTransformJsonString() {
+    JsonShreddingTransformer transformer = new JsonShreddingTransformer(getSchema());
+    GenericRow record = new GenericRow();
+    record.putValue(JSON_COLUMN, "{\"id\": 123, \"name\": {\"first\": \"Donald\", \"last\": \"Duck\"}, "
+        + "\"tags\": [\"a\", \"b\"], \"score\": 1.5}");
+    transformer.transform(record);
+    assertEquals(record.getValue(ID_COLUMN), 123L);
+    assertEquals(record.getValue(LAST_NAME_COLUMN), "Duck");
+    assertEquals(record.getValue(FIRST_TAG_COLUMN), "a");
+    assertEquals(record.getValue(SCORE_COLUMN), 1.5);
+    // The JSON column itself should not be modified
+    assertTrue(record.getValue(JSON_COLUMN) instanceof String);
+  }
+
+  @Test
+  public void testTransformMap() {
+    // Record readers can parse the JSON column into a map
+    JsonShreddingTransformer transformer = new JsonShreddingTransformer(getSchema());
+    GenericRow record = new GenericRow();
+    record.putValue(JSON_COLUMN, Map.of("id", "456", "name", Map.of("last", "Mouse"), "tags", List.of("x")));
+    transformer.transform(record);
+    assertEquals(record.getValue(ID_COLUMN), 456L);
+    assertEquals(record.getValue(LAST_NAME_COLUMN), "Mouse");
+    assertEquals(record.getValue(FIRST_TAG_COLUMN), "x");
+    assertNull(record.getValue(SCORE_COLUMN));
+  }
+
+  @Test
+  public void testMissingAndInvalidValues() {
+    JsonShreddingTransformer transformer = new JsonShreddingTransformer(getSchema());
+
+    // Missing paths, type mismatch along the path and values that cannot be converted are left as null
+    GenericRow record = new GenericRow();
+    record.putValue(JSON_COLUMN, "{\"id\": \"abc\", \"name\": \"Duck\", \"tags\": {\"0\": \"a\"}, \"score\": null}");
+    transformer.transform(record);
+    assertNull(record.getValue(ID_COLUMN));
+    assertNull(record.getValue(LAST_NAME_COLUMN));
+    assertNull(record.getValue(FIRST_TAG_COLUMN));
+    assertNull(record.getValue(SCORE_COLUMN));
+
+    // Invalid JSON document
+    record = new GenericRow();
+    record.putValue(JSON_COLUMN, "not a json");
+    transformer.transform(record);
+    assertNull(record.getValue(ID_COLUMN));
+    assertNull(record.getValue(LAST_NAME_COLUMN));
+
+    // Missing JSON column
+    record = new GenericRow();
+    transformer.transform(record);
+    assertNull(record.getValue(ID_COLUMN));
+  }
+
+  @Test
+  public void testConvert() {
+    JsonShreddingTransformer transformer = new JsonShreddingTransformer(getSchema());
+    GenericRow record = new GenericRow();
+    // Decimal number for a LONG column is truncated, and non-textual value for a STRING column is serialized
+    record.putValue(JSON_COLUMN,
+        "{\"id\": \"12.9\", \"name\": {\"last\": 7}, \"tags\": [{\"k\": 1}], \"score\": \"2\"}");
+    transformer.transform(record);
+    assertEquals(record.getValue(ID_COLUMN), 12L);
+    assertEquals(record.getValue(LAST_NAME_COLUMN), "7");
+    assertEquals(record.getValue(FIRST_TAG_COLUMN), "{\"k\":1}");
+    assertEquals(record.getValue(SCORE_COLUMN), 2.0);
+  }
+}
@@ -0,0 +1,308 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
+import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnReader;
+import org.apache.pinot.spi.data.readers.ColumnarRecordReader;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that the segment created column by column from a {@link ColumnarRecordReader} is the same as the segment
+ * created row by row from the same records.
+ */
+public class ColumnarSegmentCreationDataSourceTest {
+  private static final File TEMP_DIR =
+      new File(FileUtils.getTempDirectory(), "ColumnarSegmentCreationDataSourceTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 5000;
+  private static final String D_SV = "d_sv";
+  private static final String D_MV = "d_mv";
+  private static final String M_INT = "m_int";
+  private static final String M_DOUBLE = "m_double";
+  private static final String M_FLOAT = "m_float";
+  private static final String TIME = "t";
+
+  private final Schema _schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+      .addSingleValueDimension(D_SV, DataType.STRING).addMultiValueDimension(D_MV, DataType.INT)
+      .addMetric(M_INT, DataType.INT).addMetric(M_DOUBLE, DataType.DOUBLE)
+      .addMetric(M_FLOAT, DataType.FLOAT)
+      .addDateTime(TIME, DataType.LONG, "1:MILLISECONDS:EPOCH", "1:MILLISECONDS").build();
+  private final TableConfig _tableConfig =
+      new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).setTimeColumnName(TIME)
+          .setNullHandlingEnabled(true).build();
+  private final List<GenericRow> _rows = new ArrayList<>(NUM_ROWS);
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    Random random = new Random(42);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      // Leave some values missing so that they are replaced with the default values and tracked as null
+      if (i % 11 != 0) {
+        row.putValue(D_SV, "v" + random.nextInt(100));
+      }
+      if (i % 13 != 0) {
+        int numValues = 1 + random.nextInt(3);
+        Object[] values = new Object[numValues];
+        for (int j = 0; j < numValues; j++) {
+          values[j] = random.nextInt(50);
+        }
+        row.putValue(D_MV, values);
+      }
+      if (i % 7 != 0) {
+        row.putValue(M_INT, random.nextInt());
+      }
+      row.putValue(M_DOUBLE, random.nextDouble());
+      // Include the special float values, where NaN is treated as null and -0.0 is converted to 0.0
+      if (i % 17 == 0) {
+        row.putValue(M_FLOAT, Float.NaN);
+      } else if (i % 19 == 0) {
+        row.putValue(M_FLOAT, -0.0f);
+      } else if (i % 23 != 0) {
+        row.putValue(M_FLOAT, random.nextFloat() - 0.5f);
+      }
+      row.putValue(TIME, 1_600_000_000_000L + random.nextInt(1_000_000));
+      _rows.add(row);
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testColumnarAndRowBuildsProduceSameSegment()
+      throws Exception {
+    TestColumnarRecordReader rowRecordReader = new TestColumnarRecordReader(_rows);
+    File rowIndexDir = buildSegment(rowRecordReader, false, "row");
+    assertTrue(rowRecordReader._numRowsRead > 0);
+    TestColumnarRecordReader columnarRecordReader = new TestColumnarRecordReader(_rows);
+    File columnarIndexDir = buildSegment(columnarRecordReader, true, "columnar");
+    // The columnar build should never read the records, and should read the numeric columns in primitive batches
+    assertEquals(columnarRecordReader._numRowsRead, 0);
+    assertTrue(columnarRecordReader._numPrimitiveBatchesRead > 0);
+
+    SegmentMetadataImpl rowSegmentMetadata = new SegmentMetadataImpl(rowIndexDir);
+    SegmentMetadataImpl columnarSegmentMetadata = new SegmentMetadataImpl(columnarIndexDir);
+    assertEquals(columnarSegmentMetadata.getTotalDocs(), rowSegmentMetadata.getTotalDocs());
+    assertEquals(columnarSegmentMetadata.getStartTime(), rowSegmentMetadata.getStartTime());
+    assertEquals(columnarSegmentMetadata.getEndTime(), rowSegmentMetadata.getEndTime());
+    for (String column : _schema.getPhysicalColumnNames()) {
+      ColumnMetadata rowColumnMetadata = rowSegmentMetadata.getColumnMetadataFor(column);
+      ColumnMetadata columnarColumnMetadata = columnarSegmentMetadata.getColumnMetadataFor(column);
+      assertEquals(columnarColumnMetadata.getCardinality(), rowColumnMetadata.getCardinality(), column);
+      assertEquals(columnarColumnMetadata.getMinValue(), rowColumnMetadata.getMinValue(), column);
+      assertEquals(columnarColumnMetadata.getMaxValue(), rowColumnMetadata.getMaxValue(), column);
+      assertEquals(columnarColumnMetadata.isSorted(), rowColumnMetadata.isSorted(), column);
+      assertEquals(columnarColumnMetadata.hasDictionary(), rowColumnMetadata.hasDictionary(), column);
+      assertEquals(columnarColumnMetadata.getBitsPerElement(), rowColumnMetadata.getBitsPerElement(), column);
+      assertEquals(columnarColumnMetadata.getMaxNumberOfMultiValues(), rowColumnMetadata.getMaxNumberOfMultiValues(),
+          column);
+      assertEquals(columnarColumnMetadata.getTotalNumberOfEntries(), rowColumnMetadata.getTotalNumberOfEntries(),
+          column);
+    }
+
+    try (PinotSegmentRecordReader rowSegmentReader = new PinotSegmentRecordReader(rowIndexDir);
+        PinotSegmentRecordReader columnarSegmentReader = new PinotSegmentRecordReader(columnarIndexDir)) {
+      for (int i = 0; i < NUM_ROWS; i++) {
+        GenericRow rowRecord = rowSegmentReader.next();
+        GenericRow columnarRecord = columnarSegmentReader.next();
+        assertEquals(columnarRecord.getNullValueFields(), rowRecord.getNullValueFields());
+        for (String column : _schema.getPhysicalColumnNames()) {
+          Object rowValue = rowRecord.getValue(column);
+          Object columnarValue = columnarRecord.getValue(column);
+          if (rowValue instanceof Object[]) {
+            assertEquals((Object[]) columnarValue, (Object[]) rowValue, column);
+          } else {
+            assertEquals(columnarValue, rowValue, column);
+          }
+        }
+      }
+    }
+  }
+
+  private File buildSegment(TestColumnarRecordReader recordReader, boolean columnarIngestion, String outDirName)
+      throws Exception {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(_tableConfig, _schema);
+    config.setOutDir(new File(TEMP_DIR, outDirName).getAbsolutePath());
+    config.setSegmentName(SEGMENT_NAME);
+    config.setColumnarIngestion(columnarIngestion);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, recordReader);
+    driver.build();
+    return driver.getOutputDirectory();
+  }
+
+  /**
+   * {@link ColumnarRecordReader} over in-memory records, which counts the records read row by row.
+   */
+  private static class TestColumnarRecordReader extends GenericRowRecordReader implements ColumnarRecordReader {
+    private final List<GenericRow> _rows;
+    private int _numRowsRead;
+    private int _numPrimitiveBatchesRead;
+
+    TestColumnarRecordReader(List<GenericRow> rows) {
+      super(rows);
+      _rows = rows;
+    }
+
+    @Override
+    public GenericRow next(GenericRow reuse) {
+      _numRowsRead++;
+      return super.next(reuse);
+    }
+
+    @Override
+    public int getNumRecords() {
+      return _rows.size();
+    }
+
+    @Override
+    public ColumnReader getColumnReader(String column) {
+      return new ColumnReader() {
+        private final DataType _primitiveBatchType = getNumericDataType(column);
+        private int _nextRowId;
+
+        @Override
+        public boolean hasNext() {
+          return _nextRowId < _rows.size();
+        }
+
+        @Override
+        public Object next() {
+          return _rows.get(_nextRowId++).getValue(column);
+        }
+
+        @Override
+        public DataType getPrimitiveBatchType() {
+          return _primitiveBatchType;
+        }
+
+        @Override
+        public int nextIntBatch(int[] values, boolean[] nulls) {
+          int numValues = nextBatch(nulls);
+          for (int i = 0; i < numValues; i++) {
+            if (!nulls[i]) {
+              values[i] = (int) _rows.get(_nextRowId - numValues + i).getValue(column);
+            }
+          }
+          return numValues;
+        }
+
+        @Override
+        public int nextLongBatch(long[] values, boolean[] nulls) {
+          int numValues = nextBatch(nulls);
+          for (int i = 0; i < numValues; i++) {
+            if (!nulls[i]) {
+              values[i] = (long) _rows.get(_nextRowId - numValues + i).getValue(column);
+            }
+          }
+          return numValues;
+        }
+
+        @Override
+        public int nextFloatBatch(float[] values, boolean[] nulls) {
+          int numValues = nextBatch(nulls);
+          for (int i = 0; i < numValues; i++) {
+            if (!nulls[i]) {
+              values[i] = (float) _rows.get(_nextRowId - numValues + i).getValue(column);
+            }
+          }
+          return numValues;
+        }
+
+        @Override
+        public int nextDoubleBatch(double[] values, boolean[] nulls) {
+          int numValues = nextBatch(nulls);
+          for (int i = 0; i < numValues; i++) {
+            if (!nulls[i]) {
+              values[i] = (double) _rows.get(_nextRowId - numValues + i).getValue(column);
+            }
+          }
+          return numValues;
+        }
+
+        /**
+         * Marks the null values of the next batch, and returns the number of values in the batch.
+         */
+        private int nextBatch(boolean[] nulls) {
+          int numValues = Math.min(nulls.length, _rows.size() - _nextRowId);
+          for (int i = 0; i < numValues; i++) {
+            nulls[i] = _rows.get(_nextRowId++).getValue(column) == null;
+          }
+          if (numValues > 0) {
+            _numPrimitiveBatchesRead++;
+          }
+          return numValues;
+        }
+
+        @Override
+        public void rewind() {
+          _nextRowId = 0;
+        }
+
+        @Override
+        public void close() {
+        }
+      };
+    }
+
+    private static DataType getNumericDataType(String column) {
+      switch (column) {
+        case M_INT:
+          return DataType.INT;
+        case M_DOUBLE:
+          return DataType.DOUBLE;
+        case M_FLOAT:
+          return DataType.FLOAT;
+        case TIME:
+          return DataType.LONG;
+        default:
+          return null;
+      }
+    }
+  }
+}
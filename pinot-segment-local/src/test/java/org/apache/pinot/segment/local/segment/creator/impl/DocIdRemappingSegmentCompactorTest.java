@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentColumnReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class DocIdRemappingSegmentCompactorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "DocIdRemappingSegmentCompactorTest");
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 1000;
+  private static final int NUM_DIM_VALUES = 20;
+  private static final String DIM = "dim";
+  private static final String DIM_MV = "dimMV";
+  private static final String METRIC = "metric";
+  private static final String RAW_STRING = "rawString";
+
+  private final Schema _schema =
+      new Schema.SchemaBuilder().setSchemaName("testTable").addSingleValueDimension(DIM, DataType.STRING)
+          .addMultiValueDimension(DIM_MV, DataType.INT).addSingleValueDimension(RAW_STRING, DataType.STRING)
+          .addMetric(METRIC, DataType.INT).build();
+  private final TableConfig _tableConfig =
+      new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable").setInvertedIndexColumns(List.of(DIM, DIM_MV))
+          .setNoDictionaryColumns(List.of(METRIC, RAW_STRING)).setRangeIndexColumns(List.of(METRIC))
+          .setBloomFilterColumns(List.of(DIM)).setNullHandlingEnabled(true).build();
+
+  private File _indexDir;
+  private RoaringBitmap _validDocIds;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(DIM, "v" + (i % NUM_DIM_VALUES));
+      row.putValue(DIM_MV, new Object[]{i % 7, i % 5 + 10});
+      row.putValue(RAW_STRING, "s" + i);
+      if (i % 4 == 1) {
+        row.putDefaultNullValue(METRIC, Integer.MIN_VALUE);
+      } else {
+        row.putValue(METRIC, i);
+      }
+      rows.add(row);
+    }
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(_tableConfig, _schema);
+    config.setOutDir(TEMP_DIR.getPath());
+    config.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows));
+    driver.build();
+    _indexDir = new File(TEMP_DIR, SEGMENT_NAME);
+
+    // Keep the odd docs, which only contain the odd dimension values
+    _validDocIds = new RoaringBitmap();
+    for (int i = 1; i < NUM_ROWS; i += 2) {
+      _validDocIds.add(i);
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testCompact()
+      throws Exception {
+    File segmentDir = new DocIdRemappingSegmentCompactor(_indexDir, _validDocIds, _tableConfig, _schema, false)
+        .compact(new File(TEMP_DIR, "compacted"));
+    assertNotNull(segmentDir);
+    verifySegment(segmentDir, NUM_DIM_VALUES);
+  }
+
+  @Test
+  public void testCompactWithDictionaryPruning()
+      throws Exception {
+    File segmentDir = new DocIdRemappingSegmentCompactor(_indexDir, _validDocIds, _tableConfig, _schema, true)
+        .compact(new File(TEMP_DIR, "compactedAndPruned"));
+    assertNotNull(segmentDir);
+    verifySegment(segmentDir, NUM_DIM_VALUES / 2);
+  }
+
+  private void verifySegment(File segmentDir, int expectedDimCardinality)
+      throws Exception {
+    ImmutableSegment segment =
+        ImmutableSegmentLoader.load(segmentDir, new IndexLoadingConfig(_tableConfig, _schema), false);
+    try {
+      int numDocs = NUM_ROWS / 2;
+      assertEquals(segment.getSegmentMetadata().getTotalDocs(), numDocs);
+      DataSource dimDataSource = segment.getDataSource(DIM);
+      Dictionary dimDictionary = dimDataSource.getDictionary();
+      assertEquals(dimDictionary.length(), expectedDimCardinality);
+      assertEquals(dimDataSource.getDataSourceMetadata().getCardinality(), expectedDimCardinality);
+      assertNotNull(dimDataSource.getBloomFilter());
+      assertNotNull(segment.getDataSource(METRIC).getRangeIndex());
+      NullValueVectorReader nullValueVector = segment.getDataSource(METRIC).getNullValueVector();
+      assertNotNull(nullValueVector);
+
+      try (PinotSegmentColumnReader dimReader = new PinotSegmentColumnReader(segment, DIM);
+          PinotSegmentColumnReader dimMVReader = new PinotSegmentColumnReader(segment, DIM_MV);
+          PinotSegmentColumnReader metricReader = new PinotSegmentColumnReader(segment, METRIC);
+          PinotSegmentColumnReader rawStringReader = new PinotSegmentColumnReader(segment, RAW_STRING)) {
+        for (int docId = 0; docId < numDocs; docId++) {
+          int originalDocId = 2 * docId + 1;
+          assertEquals(dimReader.getValue(docId), "v" + (originalDocId % NUM_DIM_VALUES));
+          assertEquals((Object[]) dimMVReader.getValue(docId),
+              new Object[]{originalDocId % 7, originalDocId % 5 + 10});
+          assertEquals(rawStringReader.getValue(docId), "s" + originalDocId);
+          if (originalDocId % 4 == 1) {
+            assertTrue(nullValueVector.isNull(docId));
+          } else {
+            assertEquals(metricReader.getValue(docId), originalDocId);
+            assertFalse(nullValueVector.isNull(docId));
+          }
+        }
+      }
+
+      // Inverted index should match the remapped doc ids
+      for (int dictId = 0; dictId < expectedDimCardinality; dictId++) {
+        String value = dimDictionary.getStringValue(dictId);
+        ImmutableRoaringBitmap docIds = dimDataSource.getInvertedIndex().getDocIds(dictId);
+        RoaringBitmap expectedDocIds = new RoaringBitmap();
+        for (int docId = 0; docId < numDocs; docId++) {
+          if (value.equals("v" + ((2 * docId + 1) % NUM_DIM_VALUES))) {
+            expectedDocIds.add(docId);
+          }
+        }
+        assertEquals(docIds.toRoaringBitmap(), expectedDocIds);
+      }
+    } finally {
+      segment.destroy();
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.index.map.ColumnarMapIndexCreator;
+import org.apache.pinot.segment.local.segment.index.readers.map.ColumnarMapIndexReader;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.index.IndexReader;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.segment.spi.index.metadata.ColumnMetadataImpl;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.config.table.MapIndexConfig;
+import org.apache.pinot.spi.data.ComplexFieldSpec;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link ColumnarMapIndexCreator} and {@link ColumnarMapIndexReader}.
+ */
+public class ColumnarMapIndexTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "ColumnarMapIndexTest");
+  private static final String COLUMN_NAME = "intMap";
+  private static final int NUM_DOCS = 100;
+  private static final ComplexFieldSpec FIELD_SPEC = new ComplexFieldSpec(COLUMN_NAME, DataType.MAP, true,
+      Map.of(ComplexFieldSpec.KEY_FIELD, new DimensionFieldSpec(ComplexFieldSpec.KEY_FIELD, DataType.STRING, true),
+          ComplexFieldSpec.VALUE_FIELD, new DimensionFieldSpec(ComplexFieldSpec.VALUE_FIELD, DataType.INT, true)));
+
+  @BeforeMethod
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(INDEX_DIR);
+  }
+
+  @AfterMethod
+  public void tearDown()
+      throws IOException {
+    FileUtils.deleteDirectory(INDEX_DIR);
+  }
+
+  @Test
+  public void testDenseAndSparseKeys()
+      throws Exception {
+    // Key "a" is present in all the documents, "b" in half of the documents and "c" in 10% of the documents
+    List<Map<String, Object>> maps = new ArrayList<>(NUM_DOCS);
+    for (int i = 0; i < NUM_DOCS; i++) {
+      Map<String, Object> map = new HashMap<>();
+      map.put("a", i % 5);
+      if (i % 2 == 0) {
+        map.put("b", i);
+      }
+      if (i % 10 == 0) {
+        map.put("c", i);
+      }
+      maps.add(map);
+    }
+    try (ColumnarMapIndexCreator creator = new ColumnarMapIndexCreator(INDEX_DIR, FIELD_SPEC, new MapIndexConfig())) {
+      for (Map<String, Object> map : maps) {
+        creator.add(map);
+      }
+      creator.seal();
+    }
+    File indexFile = new File(INDEX_DIR, COLUMN_NAME + V1Constants.Indexes.MAP_INDEX_FILE_EXTENSION);
+    assertTrue(indexFile.exists());
+    assertEquals(INDEX_DIR.list(), new String[]{indexFile.getName()});
+
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+        ColumnarMapIndexReader reader = new ColumnarMapIndexReader(dataBuffer,
+            ColumnMetadataImpl.builder().setFieldSpec(FIELD_SPEC).setTotalDocs(NUM_DOCS).build());
+        ForwardIndexReaderContext context = reader.createContext()) {
+      assertEquals(reader.getKeys(), Set.of("a", "b"));
+      for (int docId = 0; docId < NUM_DOCS; docId++) {
+        assertEquals(reader.getMap(docId, context), maps.get(docId));
+      }
+
+      // Dense key with all the documents: dictionary, forward and inverted index, without null value vector
+      Map<?, IndexReader> aIndexes = reader.getKeyIndexes("a");
+      Dictionary aDictionary = (Dictionary) aIndexes.get(StandardIndexes.dictionary());
+      assertEquals(aDictionary.length(), 5);
+      assertEquals(reader.getKeyMetadata("a").getCardinality(), 5);
+      assertEquals(reader.getKeyMetadata("a").getMinValue(), 0);
+      assertEquals(reader.getKeyMetadata("a").getMaxValue(), 4);
+      ForwardIndexReader aForwardIndex = (ForwardIndexReader) aIndexes.get(StandardIndexes.forward());
+      assertTrue(aForwardIndex.isDictionaryEncoded());
+      InvertedIndexReader aInvertedIndex = (InvertedIndexReader) aIndexes.get(StandardIndexes.inverted());
+      for (int docId = 0; docId < NUM_DOCS; docId++) {
+        assertEquals(aDictionary.getIntValue(aForwardIndex.getDictId(docId, null)), docId % 5);
+      }
+      int dictId = aDictionary.indexOf(3);
+      RoaringBitmap expectedDocIds = new RoaringBitmap();
+      for (int docId = 3; docId < NUM_DOCS; docId += 5) {
+        expectedDocIds.add(docId);
+      }
+      assertEquals(((ImmutableRoaringBitmap) aInvertedIndex.getDocIds(dictId)).toRoaringBitmap(), expectedDocIds);
+      assertNull(aIndexes.get(StandardIndexes.nullValueVector()));
+
+      // Dense key with missing documents: the missing documents are null and hold the default null value
+      Map<?, IndexReader> bIndexes = reader.getKeyIndexes("b");
+      NullValueVectorReader bNullValueVector =
+          (NullValueVectorReader) bIndexes.get(StandardIndexes.nullValueVector());
+      assertNotNull(bNullValueVector);
+      Dictionary bDictionary = (Dictionary) bIndexes.get(StandardIndexes.dictionary());
+      ForwardIndexReader bForwardIndex = (ForwardIndexReader) bIndexes.get(StandardIndexes.forward());
+      for (int docId = 0; docId < NUM_DOCS; docId++) {
+        int value = bDictionary.getIntValue(bForwardIndex.getDictId(docId, null));
+        if (docId % 2 == 0) {
+          assertEquals(value, docId);
+          assertFalse(bNullValueVector.isNull(docId));
+        } else {
+          assertEquals(value, Integer.MIN_VALUE);
+          assertTrue(bNullValueVector.isNull(docId));
+        }
+      }
+
+      // Sparse key is only readable through the forward index
+      Map<?, IndexReader> cIndexes = reader.getKeyIndexes("c");
+      assertEquals(cIndexes.size(), 1);
+      ForwardIndexReader cForwardIndex = (ForwardIndexReader) cIndexes.get(StandardIndexes.forward());
+      try (ForwardIndexReaderContext cContext = cForwardIndex.createContext()) {
+        assertEquals(cForwardIndex.getInt(10, cContext), 10);
+        assertEquals(cForwardIndex.getInt(11, cContext), Integer.MIN_VALUE);
+      }
+    }
+  }
+
+  @Test
+  public void testMaxNumDenseKeys()
+      throws Exception {
+    MapIndexConfig indexConfig = new MapIndexConfig();
+    indexConfig.putConfig(ColumnarMapIndexCreator.MAX_NUM_DENSE_KEYS_KEY, 1);
+    indexConfig.putConfig(ColumnarMapIndexCreator.DENSE_KEY_MIN_FREQUENCY_KEY, 0.1);
+    List<Map<String, Object>> maps = new ArrayList<>(NUM_DOCS);
+    for (int i = 0; i < NUM_DOCS; i++) {
+      maps.add(i % 3 == 0 ? Map.of("x", i, "y", -i) : Map.of("y", i));
+    }
+    try (ColumnarMapIndexCreator creator = new ColumnarMapIndexCreator(INDEX_DIR, FIELD_SPEC, indexConfig)) {
+      for (Map<String, Object> map : maps) {
+        creator.add(map);
+      }
+      creator.seal();
+    }
+    File indexFile = new File(INDEX_DIR, COLUMN_NAME + V1Constants.Indexes.MAP_INDEX_FILE_EXTENSION);
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+        ColumnarMapIndexReader reader = new ColumnarMapIndexReader(dataBuffer,
+            ColumnMetadataImpl.builder().setFieldSpec(FIELD_SPEC).setTotalDocs(NUM_DOCS).build());
+        ForwardIndexReaderContext context = reader.createContext()) {
+      // Only the most frequent key is dense
+      assertEquals(reader.getKeys(), Set.of("y"));
+      for (int docId = 0; docId < NUM_DOCS; docId++) {
+        assertEquals(reader.getMap(docId, context), maps.get(docId));
+      }
+    }
+  }
+}
@@ -0,0 +1,219 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.index.loader.invertedindex.CompositeIndexHandler;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.local.segment.store.SegmentLocalFSDirectory;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.index.StandardIndexes;
+import org.apache.pinot.segment.spi.index.reader.CompositeIndexReader;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.segment.spi.store.SegmentDirectory;
+import org.apache.pinot.spi.config.table.FieldConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.roaringbitmap.RoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class CompositeIndexTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "CompositeIndexTest");
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 1000;
+  private static final String TENANT = "tenant";
+  private static final String EVENT_TYPE = "eventType";
+  private static final String USER_ID = "userId";
+  private static final String RAW_STRING = "rawString";
+
+  private final Schema _schema =
+      new Schema.SchemaBuilder().setSchemaName("testTable").addSingleValueDimension(TENANT, DataType.STRING)
+          .addSingleValueDimension(EVENT_TYPE, DataType.STRING).addSingleValueDimension(USER_ID, DataType.INT)
+          .addSingleValueDimension(RAW_STRING, DataType.STRING).build();
+
+  private final List<GenericRow> _rows = new ArrayList<>(NUM_ROWS);
+  private File _indexDir;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(TENANT, "t" + (i % 10));
+      row.putValue(EVENT_TYPE, "e" + (i % 7));
+      row.putValue(USER_ID, i % 3);
+      row.putValue(RAW_STRING, "s" + i);
+      _rows.add(row);
+    }
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(getTableConfig(List.of(EVENT_TYPE, USER_ID)), _schema);
+    config.setOutDir(TEMP_DIR.getPath());
+    config.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(_rows));
+    driver.build();
+    _indexDir = new File(TEMP_DIR, SEGMENT_NAME);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testCompositeIndex()
+      throws Exception {
+    TableConfig tableConfig = getTableConfig(List.of(EVENT_TYPE, USER_ID));
+    ImmutableSegment segment =
+        ImmutableSegmentLoader.load(_indexDir, new IndexLoadingConfig(tableConfig, _schema), false);
+    try {
+      verifyCompositeIndex(segment, List.of(TENANT, EVENT_TYPE, USER_ID));
+    } finally {
+      segment.destroy();
+    }
+  }
+
+  @Test(dependsOnMethods = "testCompositeIndex")
+  public void testRebuildAndRemoveCompositeIndex()
+      throws Exception {
+    // Changing the columns of the composite index should rebuild it
+    TableConfig tableConfig = getTableConfig(List.of(EVENT_TYPE));
+    ImmutableSegment segment = ImmutableSegmentLoader.load(_indexDir, new IndexLoadingConfig(tableConfig, _schema));
+    try {
+      verifyCompositeIndex(segment, List.of(TENANT, EVENT_TYPE));
+    } finally {
+      segment.destroy();
+    }
+
+    // Composite index on raw columns should not be created
+    tableConfig = getTableConfig(List.of(RAW_STRING));
+    segment = ImmutableSegmentLoader.load(_indexDir, new IndexLoadingConfig(tableConfig, _schema));
+    try {
+      assertNull(segment.getDataSource(TENANT).getIndex(StandardIndexes.composite()));
+    } finally {
+      segment.destroy();
+    }
+  }
+
+  @Test(dependsOnMethods = "testRebuildAndRemoveCompositeIndex")
+  public void testRebuildCompositeIndexOnDictionaryChange()
+      throws Exception {
+    TableConfig tableConfig = getTableConfig(List.of(EVENT_TYPE, USER_ID));
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig(tableConfig, _schema);
+    // Loading the segment builds the composite index again
+    ImmutableSegmentLoader.load(_indexDir, indexLoadingConfig).destroy();
+
+    try (SegmentDirectory segmentDirectory = new SegmentLocalFSDirectory(_indexDir, ReadMode.mmap);
+        SegmentDirectory.Reader segmentReader = segmentDirectory.createReader()) {
+      CompositeIndexHandler handler =
+          new CompositeIndexHandler(segmentDirectory, indexLoadingConfig.getFieldIndexConfigByColName(), tableConfig);
+      assertFalse(handler.needUpdateIndices(segmentReader));
+
+      // Changing the dictionary of any column of the composite index should rebuild it
+      PinotDataBuffer dictionaryBuffer = segmentReader.getIndexFor(USER_ID, StandardIndexes.dictionary());
+      long size = dictionaryBuffer.size();
+      try (PinotDataBuffer changedDictionaryBuffer = PinotDataBuffer.allocateDirect(size, ByteOrder.BIG_ENDIAN,
+          "changedDictionary")) {
+        dictionaryBuffer.copyTo(0, changedDictionaryBuffer, 0, size);
+        changedDictionaryBuffer.putInt(0, ~dictionaryBuffer.getInt(0));
+        SegmentDirectory.Reader changedSegmentReader = spy(segmentReader);
+        doReturn(changedDictionaryBuffer).when(changedSegmentReader)
+            .getIndexFor(USER_ID, StandardIndexes.dictionary());
+        assertTrue(handler.needUpdateIndices(changedSegmentReader));
+      }
+    }
+  }
+
+  private void verifyCompositeIndex(ImmutableSegment segment, List<String> columns) {
+    CompositeIndexReader compositeIndex = segment.getDataSource(TENANT).getIndex(StandardIndexes.composite());
+    assertNotNull(compositeIndex);
+    assertEquals(compositeIndex.getColumns(), columns);
+
+    int numColumns = columns.size();
+    Dictionary[] dictionaries = new Dictionary[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      dictionaries[i] = segment.getDataSource(columns.get(i)).getDictionary();
+    }
+    int numTuples = 1;
+    for (Dictionary dictionary : dictionaries) {
+      numTuples *= dictionary.length();
+    }
+    // Check all the combinations of dictionary ids, including the ones without any document
+    int[] dictIds = new int[numColumns];
+    for (int tupleId = 0; tupleId < numTuples; tupleId++) {
+      int remaining = tupleId;
+      for (int i = 0; i < numColumns; i++) {
+        dictIds[i] = remaining % dictionaries[i].length();
+        remaining /= dictionaries[i].length();
+      }
+      RoaringBitmap expectedDocIds = new RoaringBitmap();
+      for (int docId = 0; docId < NUM_ROWS; docId++) {
+        boolean matches = true;
+        for (int i = 0; i < numColumns; i++) {
+          if (!dictionaries[i].get(dictIds[i]).equals(_rows.get(docId).getValue(columns.get(i)))) {
+            matches = false;
+            break;
+          }
+        }
+        if (matches) {
+          expectedDocIds.add(docId);
+        }
+      }
+      assertEquals(compositeIndex.getDocIds(dictIds).toRoaringBitmap(), expectedDocIds);
+    }
+    // 10 tenants and 7 event types are co-prime, so all the combinations should exist
+    assertTrue(compositeIndex.getDocIds(new int[numColumns]).getCardinality() > 0);
+  }
+
+  private TableConfig getTableConfig(List<String> compositeColumns)
+      throws IOException {
+    FieldConfig fieldConfig = new FieldConfig.Builder(TENANT).withEncodingType(FieldConfig.EncodingType.DICTIONARY)
+        .withIndexes(JsonUtils.stringToJsonNode(
+            "{\"composite\": {\"columns\": " + JsonUtils.objectToString(compositeColumns) + "}}")).build();
+    return new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable")
+        .setNoDictionaryColumns(List.of(RAW_STRING)).setFieldConfigList(List.of(fieldConfig)).build();
+  }
+}
@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.request.context.RequestContextUtils;
 import org.apache.pinot.segment.local.realtime.impl.json.MutableJsonIndexImpl;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.json.OffHeapJsonIndexCreator;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.json.OnHeapJsonIndexCreator;
@@ -298,6 +299,62 @@ public class JsonIndexTest {
     }
   }
 
+  @Test
+  public void testArrayHeavyIndex()
+      throws Exception {
+    // Each record has 0 to 4 array elements, so the flattened docs of a record have variable lengths
+    int numRecords = 10_000;
+    String[] records = new String[numRecords];
+    for (int i = 0; i < numRecords; i++) {
+      StringBuilder items = new StringBuilder();
+      for (int j = 0; j < i % 5; j++) {
+        if (j > 0) {
+          items.append(',');
+        }
+        items.append(String.format("{\"k\":%d,\"v\":\"v-%d\"}", j, i % 3));
+      }
+      records[i] = String.format("{\"name\":\"adam-%d\",\"items\":[%s]}", i, items);
+    }
+    JsonIndexConfig jsonIndexConfig = new JsonIndexConfig();
+
+    createIndex(true, jsonIndexConfig, records);
+    File onHeapIndexFile = new File(INDEX_DIR, ON_HEAP_COLUMN_NAME + V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION);
+    createIndex(false, jsonIndexConfig, records);
+    File offHeapIndexFile = new File(INDEX_DIR, OFF_HEAP_COLUMN_NAME + V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION);
+
+    try (PinotDataBuffer onHeapDataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(onHeapIndexFile);
+        PinotDataBuffer offHeapDataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(offHeapIndexFile);
+        JsonIndexReader onHeapIndexReader = new ImmutableJsonIndexReader(onHeapDataBuffer, records.length);
+        JsonIndexReader offHeapIndexReader = new ImmutableJsonIndexReader(offHeapDataBuffer, records.length);
+        MutableJsonIndexImpl mutableJsonIndex = new MutableJsonIndexImpl(jsonIndexConfig)) {
+      for (String record : records) {
+        mutableJsonIndex.add(record);
+      }
+      MutableRoaringBitmap expectedValueDocIds = new MutableRoaringBitmap();
+      MutableRoaringBitmap expectedKeyDocIds = new MutableRoaringBitmap();
+      MutableRoaringBitmap expectedNullDocIds = new MutableRoaringBitmap();
+      for (int i = 0; i < numRecords; i++) {
+        if (i % 3 == 1 && i % 5 > 0) {
+          expectedValueDocIds.add(i);
+        }
+        if (i % 5 == 4) {
+          expectedKeyDocIds.add(i);
+        }
+        if (i % 5 == 0) {
+          expectedNullDocIds.add(i);
+        }
+      }
+      JsonIndexReader[] indexReaders = new JsonIndexReader[]{onHeapIndexReader, offHeapIndexReader, mutableJsonIndex};
+      for (JsonIndexReader indexReader : indexReaders) {
+        Assert.assertEquals(getMatchingDocIds(indexReader, "\"items[*].v\" = 'v-1'"), expectedValueDocIds);
+        Assert.assertEquals(getMatchingDocIds(indexReader, "\"items[*].k\" = 3"), expectedKeyDocIds);
+        Assert.assertEquals(getMatchingDocIds(indexReader, "\"items[*].k\" IS NULL"), expectedNullDocIds);
+        Assert.assertEquals(getMatchingDocIds(indexReader, "name = 'adam-9999' AND \"items[3].k\" = 3").toArray(),
+            new int[]{9999});
+      }
+    }
+  }
+
   @Test
   public void testFilteringLongValues()
       throws Exception {
@@ -375,7 +432,10 @@ public class JsonIndexTest {
   }
 
   private MutableRoaringBitmap getMatchingDocIds(JsonIndexReader indexReader, String filter) {
-    return indexReader.getMatchingDocIds(filter);
+    MutableRoaringBitmap matchingDocIds = indexReader.getMatchingDocIds(filter);
+    // The parsed filter should give the same result
+    Assert.assertEquals(indexReader.getMatchingDocIds(RequestContextUtils.getJsonMatchFilter(filter)), matchingDocIds);
+    return matchingDocIds;
   }
 
   @Test
@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index;
+
+import java.io.File;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.realtime.impl.vector.MutableVectorIndex;
+import org.apache.pinot.segment.local.segment.creator.impl.vector.HnswVectorIndexCreator;
+import org.apache.pinot.segment.local.segment.index.readers.vector.HnswVectorIndexReader;
+import org.apache.pinot.segment.local.segment.store.VectorIndexUtils;
+import org.apache.pinot.segment.spi.index.creator.VectorIndexConfig;
+import org.apache.pinot.segment.spi.index.reader.VectorIndexReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class VectorIndexTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "VectorIndexTest");
+  private static final String COLUMN_NAME = "embedding";
+  private static final int NUM_DOCS = 1000;
+  private static final int VECTOR_DIMENSION = 16;
+  private static final int TOP_K = 10;
+  private static final int NUM_QUERIES = 10;
+
+  private final float[][] _vectors = new float[NUM_DOCS][VECTOR_DIMENSION];
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+    FileUtils.forceMkdir(TEMP_DIR);
+    Random random = new Random(42);
+    for (float[] vector : _vectors) {
+      for (int i = 0; i < VECTOR_DIMENSION; i++) {
+        vector[i] = random.nextFloat();
+      }
+    }
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+
+  @DataProvider
+  public Object[][] quantizations() {
+    return new Object[][]{
+        {VectorIndexUtils.Quantization.NONE}, {VectorIndexUtils.Quantization.INT8},
+        {VectorIndexUtils.Quantization.INT4}
+    };
+  }
+
+  @Test(dataProvider = "quantizations")
+  public void testImmutableIndex(VectorIndexUtils.Quantization quantization)
+      throws Exception {
+    File indexDir = new File(TEMP_DIR, quantization.name());
+    FileUtils.forceMkdir(indexDir);
+    VectorIndexConfig config = getConfig(quantization);
+    try (HnswVectorIndexCreator creator = new HnswVectorIndexCreator(COLUMN_NAME, indexDir, config)) {
+      for (float[] vector : _vectors) {
+        creator.add(vector);
+      }
+      creator.seal();
+    }
+    try (HnswVectorIndexReader reader = new HnswVectorIndexReader(COLUMN_NAME, indexDir, NUM_DOCS, config)) {
+      testSearch(reader, quantization);
+    }
+  }
+
+  @Test(dataProvider = "quantizations")
+  public void testMutableIndex(VectorIndexUtils.Quantization quantization) {
+    // Commit once all the docs are added so that they are searchable
+    MutableVectorIndex mutableIndex = new MutableVectorIndex("testSegment_" + quantization, COLUMN_NAME,
+        getConfig(quantization, Map.of("commitDocs", Integer.toString(NUM_DOCS))));
+    try {
+      addDocs(mutableIndex, 0, NUM_DOCS);
+      testSearch(mutableIndex, quantization);
+    } finally {
+      mutableIndex.close();
+    }
+  }
+
+  @Test
+  public void testMutableIndexSearchesLastCommit() {
+    // Commit after each half of the docs, and search between the commits to verify that the shared reader is refreshed
+    int numDocsPerCommit = NUM_DOCS / 2;
+    MutableVectorIndex mutableIndex = new MutableVectorIndex("testSegment_refresh", COLUMN_NAME,
+        getConfig(VectorIndexUtils.Quantization.NONE, Map.of("commitDocs", Integer.toString(numDocsPerCommit),
+            "commitIntervalMs", Long.toString(TimeUnit.HOURS.toMillis(1)))));
+    try {
+      MutableRoaringBitmap firstHalfDocIds = new MutableRoaringBitmap();
+      firstHalfDocIds.add(0L, numDocsPerCommit);
+      MutableRoaringBitmap secondHalfDocIds = new MutableRoaringBitmap();
+      secondHalfDocIds.add((long) numDocsPerCommit, NUM_DOCS);
+      float[] query = _vectors[0];
+
+      addDocs(mutableIndex, 0, numDocsPerCommit);
+      for (int i = 0; i < NUM_QUERIES; i++) {
+        assertTrue(ImmutableRoaringBitmap.andNot(mutableIndex.getDocIds(query, TOP_K), firstHalfDocIds).isEmpty());
+        assertTrue(mutableIndex.getDocIds(query, TOP_K, secondHalfDocIds).isEmpty());
+      }
+
+      addDocs(mutableIndex, numDocsPerCommit, NUM_DOCS);
+      for (int i = 0; i < NUM_QUERIES; i++) {
+        ImmutableRoaringBitmap filteredDocIds = mutableIndex.getDocIds(query, TOP_K, secondHalfDocIds);
+        assertEquals(filteredDocIds.getCardinality(), TOP_K);
+        assertTrue(ImmutableRoaringBitmap.andNot(filteredDocIds, secondHalfDocIds).isEmpty());
+      }
+    } finally {
+      mutableIndex.close();
+    }
+  }
+
+  private void addDocs(MutableVectorIndex mutableIndex, int startDocId, int endDocId) {
+    for (int docId = startDocId; docId < endDocId; docId++) {
+      Object[] values = new Object[VECTOR_DIMENSION];
+      for (int i = 0; i < VECTOR_DIMENSION; i++) {
+        values[i] = _vectors[docId][i];
+      }
+      mutableIndex.add(values, null, docId);
+    }
+  }
+
+  private void testSearch(VectorIndexReader reader, VectorIndexUtils.Quantization quantization) {
+    MutableRoaringBitmap evenDocIds = new MutableRoaringBitmap();
+    for (int docId = 0; docId < NUM_DOCS; docId += 2) {
+      evenDocIds.add(docId);
+    }
+    ImmutableRoaringBitmap fewDocIds = ImmutableRoaringBitmap.bitmapOf(1, 100, 200, 300, 999);
+    Random random = new Random(0);
+    int numExpectedMatches = 0;
+    for (int i = 0; i < NUM_QUERIES; i++) {
+      float[] query = new float[VECTOR_DIMENSION];
+      for (int j = 0; j < VECTOR_DIMENSION; j++) {
+        query[j] = random.nextFloat();
+      }
+
+      // Unfiltered search
+      assertEquals(reader.getDocIds(query, TOP_K).getCardinality(), TOP_K);
+
+      // Filtered search should always return top K docs within the filter
+      ImmutableRoaringBitmap filteredDocIds = reader.getDocIds(query, TOP_K, evenDocIds);
+      assertEquals(filteredDocIds.getCardinality(), TOP_K);
+      assertTrue(ImmutableRoaringBitmap.andNot(filteredDocIds, evenDocIds).isEmpty());
+      numExpectedMatches +=
+          ImmutableRoaringBitmap.and(filteredDocIds, getExactTopK(query, evenDocIds)).getCardinality();
+
+      // Filter with less than top K docs should return all the docs within the filter
+      assertEquals(reader.getDocIds(query, TOP_K, fewDocIds), fewDocIds);
+
+      // Empty filter should return no doc
+      assertTrue(reader.getDocIds(query, TOP_K, new MutableRoaringBitmap()).isEmpty());
+    }
+    if (quantization == VectorIndexUtils.Quantization.NONE) {
+      // HNSW search is approximate, but should find most of the exact top K docs for such a small index
+      assertTrue(numExpectedMatches >= 0.8 * NUM_QUERIES * TOP_K, "Recall too low: " + numExpectedMatches);
+    }
+  }
+
+  private ImmutableRoaringBitmap getExactTopK(float[] query, ImmutableRoaringBitmap filterDocIds) {
+    MutableRoaringBitmap topK = new MutableRoaringBitmap();
+    IntStream.of(filterDocIds.toArray())
+        .boxed()
+        .sorted(Comparator.comparingDouble(docId -> squaredDistance(query, _vectors[docId])))
+        .limit(TOP_K)
+        .forEach(topK::add);
+    return topK;
+  }
+
+  private static double squaredDistance(float[] vector1, float[] vector2) {
+    double distance = 0;
+    for (int i = 0; i < vector1.length; i++) {
+      double diff = vector1[i] - vector2[i];
+      distance += diff * diff;
+    }
+    return distance;
+  }
+
+  private static VectorIndexConfig getConfig(VectorIndexUtils.Quantization quantization) {
+    return getConfig(quantization, Map.of());
+  }
+
+  private static VectorIndexConfig getConfig(VectorIndexUtils.Quantization quantization,
+      Map<String, String> extraProperties) {
+    Map<String, String> properties = new HashMap<>(extraProperties);
+    properties.put("vectorIndexType", "HNSW");
+    properties.put("vectorDimension", Integer.toString(VECTOR_DIMENSION));
+    properties.put("vectorDistanceFunction", "EUCLIDEAN");
+    properties.put(VectorIndexUtils.QUANTIZATION, quantization.name());
+    return new VectorIndexConfig(properties);
+  }
+}
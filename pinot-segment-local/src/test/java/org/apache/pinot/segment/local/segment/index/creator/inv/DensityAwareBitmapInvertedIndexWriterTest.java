@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.creator.inv;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.BitmapInvertedIndexWriter;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.DensityAwareBitmapInvertedIndexWriter;
+import org.apache.pinot.segment.local.segment.index.readers.DensityAwareBitmapInvertedIndexReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class DensityAwareBitmapInvertedIndexWriterTest {
+  private static final File INDEX_DIR =
+      new File(FileUtils.getTempDirectory(), "DensityAwareBitmapInvertedIndexWriterTest");
+  private static final int NUM_DOCS = 1_000_000;
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(INDEX_DIR);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    FileUtils.forceDelete(INDEX_DIR);
+  }
+
+  @Test
+  public void testWriteAndRead()
+      throws IOException {
+    RoaringBitmap empty = new RoaringBitmap();
+    // Sparse bitmap spread over many containers, which should be delta encoded
+    RoaringBitmap sparse = RoaringBitmap.bitmapOf(1, 100_000, 200_000, 300_001, 400_002, 500_003, 999_999);
+    // Dense bitmap with few holes, which should be complemented
+    RoaringBitmap dense = new RoaringBitmap();
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (i % 1000 != 7) {
+        dense.add(i);
+      }
+    }
+    // Bitmap with alternating docs, which should stay as a RoaringBitmap
+    RoaringBitmap medium = new RoaringBitmap();
+    for (int i = 0; i < NUM_DOCS; i += 2) {
+      medium.add(i);
+    }
+    RoaringBitmap all = new RoaringBitmap();
+    all.add(0L, NUM_DOCS);
+    RoaringBitmap[] bitmaps = new RoaringBitmap[]{empty, sparse, dense, medium, all};
+    boolean[] expectedComplemented = new boolean[]{false, false, true, false, true};
+    RoaringBitmap[] expectedBitmaps = new RoaringBitmap[bitmaps.length];
+    for (int i = 0; i < bitmaps.length; i++) {
+      expectedBitmaps[i] = bitmaps[i].clone();
+    }
+
+    File file = new File(INDEX_DIR, "densityAware.inv");
+    try (DensityAwareBitmapInvertedIndexWriter writer = new DensityAwareBitmapInvertedIndexWriter(file,
+        bitmaps.length, NUM_DOCS)) {
+      for (RoaringBitmap bitmap : bitmaps) {
+        writer.add(bitmap);
+      }
+    }
+
+    try (PinotDataBuffer buffer = PinotDataBuffer.mapReadOnlyBigEndianFile(file);
+        DensityAwareBitmapInvertedIndexReader reader = new DensityAwareBitmapInvertedIndexReader(buffer,
+            bitmaps.length)) {
+      assertTrue(DensityAwareBitmapInvertedIndexReader.isDensityAwareBuffer(buffer));
+      assertEquals(reader.getNumDocs(), NUM_DOCS);
+      for (int dictId = 0; dictId < bitmaps.length; dictId++) {
+        assertEquals(reader.isComplemented(dictId), expectedComplemented[dictId]);
+        ImmutableRoaringBitmap docIds = reader.getDocIds(dictId);
+        assertEquals(docIds.toArray(), expectedBitmaps[dictId].toArray());
+        ImmutableRoaringBitmap storedDocIds = reader.getStoredDocIds(dictId);
+        if (expectedComplemented[dictId]) {
+          assertEquals(storedDocIds.toArray(), RoaringBitmap.flip(expectedBitmaps[dictId], 0L, NUM_DOCS).toArray());
+        } else {
+          assertEquals(storedDocIds.toArray(), expectedBitmaps[dictId].toArray());
+        }
+      }
+    }
+
+    // Index should be much smaller than the plain RoaringBitmap inverted index
+    File legacyFile = new File(INDEX_DIR, "legacy.inv");
+    try (BitmapInvertedIndexWriter writer = new BitmapInvertedIndexWriter(legacyFile, bitmaps.length)) {
+      for (RoaringBitmap bitmap : expectedBitmaps) {
+        writer.add(bitmap);
+      }
+    }
+    assertTrue(file.length() < legacyFile.length());
+    try (PinotDataBuffer buffer = PinotDataBuffer.mapReadOnlyBigEndianFile(legacyFile)) {
+      assertFalse(DensityAwareBitmapInvertedIndexReader.isDensityAwareBuffer(buffer));
+    }
+  }
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.creator.inv;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.inv.RawValueBitmapInvertedIndexCreator;
+import org.apache.pinot.segment.local.segment.index.readers.RawValueBitmapInvertedIndexReader;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class RawValueBitmapInvertedIndexCreatorTest {
+  private static final File INDEX_DIR =
+      new File(FileUtils.getTempDirectory(), "RawValueBitmapInvertedIndexCreatorTest");
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(INDEX_DIR);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    FileUtils.forceDelete(INDEX_DIR);
+  }
+
+  @DataProvider
+  public static Object[][] densityAware() {
+    return new Object[][]{{false}, {true}};
+  }
+
+  @Test(dataProvider = "densityAware")
+  public void testSingleValue(boolean densityAware)
+      throws IOException {
+    FieldSpec fieldSpec = new DimensionFieldSpec("intCol", DataType.INT, true);
+    int[] values = new int[]{7, -3, 7, 100, -3, 7};
+    try (RawValueBitmapInvertedIndexCreator creator = new RawValueBitmapInvertedIndexCreator(INDEX_DIR, fieldSpec,
+        new int[]{-3, 7, 100}, values.length, values.length, densityAware)) {
+      for (int value : values) {
+        creator.add(value, -1);
+      }
+      creator.seal();
+    }
+
+    File indexFile = new File(INDEX_DIR, "intCol" + V1Constants.Indexes.BITMAP_INVERTED_INDEX_FILE_EXTENSION);
+    // Temporary files should be cleaned up
+    assertEquals(INDEX_DIR.list(), new String[]{indexFile.getName()});
+    try (PinotDataBuffer buffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+        RawValueBitmapInvertedIndexReader reader = new RawValueBitmapInvertedIndexReader(buffer, DataType.INT)) {
+      assertEquals(reader.getNumValues(), 3);
+      assertEquals(reader.getDocIdsForValue(-3).toArray(), new int[]{1, 4});
+      assertEquals(reader.getDocIdsForValue(7).toArray(), new int[]{0, 2, 5});
+      assertEquals(reader.getDocIdsForValue(100).toArray(), new int[]{3});
+      assertTrue(reader.getDocIdsForValue(0).isEmpty());
+      assertTrue(reader.getDocIdsForValue(101).isEmpty());
+    }
+    FileUtils.forceDelete(indexFile);
+  }
+
+  @Test(dataProvider = "densityAware")
+  public void testMultiValue(boolean densityAware)
+      throws IOException {
+    FieldSpec fieldSpec = new DimensionFieldSpec("bytesCol", DataType.BYTES, false);
+    byte[] a = new byte[]{1};
+    byte[] b = new byte[]{1, 2};
+    byte[] c = new byte[]{(byte) 0xff};
+    Object[][] values = new Object[][]{{b, a}, {c}, {a, c}};
+    ByteArray[] sortedValues = new ByteArray[]{new ByteArray(a), new ByteArray(b), new ByteArray(c)};
+    try (RawValueBitmapInvertedIndexCreator creator = new RawValueBitmapInvertedIndexCreator(INDEX_DIR, fieldSpec,
+        sortedValues, values.length, 5, densityAware)) {
+      for (Object[] value : values) {
+        creator.add(value, null);
+      }
+      creator.seal();
+    }
+
+    File indexFile = new File(INDEX_DIR, "bytesCol" + V1Constants.Indexes.BITMAP_INVERTED_INDEX_FILE_EXTENSION);
+    try (PinotDataBuffer buffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+        RawValueBitmapInvertedIndexReader reader = new RawValueBitmapInvertedIndexReader(buffer, DataType.BYTES)) {
+      assertEquals(reader.getNumValues(), 3);
+      assertEquals(reader.getDocIdsForValue(new ByteArray(a)).toArray(), new int[]{0, 2});
+      assertEquals(reader.getDocIdsForValue(new ByteArray(b)).toArray(), new int[]{0});
+      assertEquals(reader.getDocIdsForValue(new ByteArray(c)).toArray(), new int[]{1, 2});
+      assertTrue(reader.getDocIdsForValue(new ByteArray(new byte[]{2})).isEmpty());
+    }
+    FileUtils.forceDelete(indexFile);
+  }
+
+  @Test
+  public void testString()
+      throws IOException {
+    FieldSpec fieldSpec = new DimensionFieldSpec("stringCol", DataType.STRING, true);
+    String[] values = new String[]{"b", "", "a", "b"};
+    try (RawValueBitmapInvertedIndexCreator creator = new RawValueBitmapInvertedIndexCreator(INDEX_DIR, fieldSpec,
+        new String[]{"", "a", "b"}, values.length, values.length, false)) {
+      for (String value : values) {
+        creator.add(value, -1);
+      }
+      creator.seal();
+    }
+
+    File indexFile = new File(INDEX_DIR, "stringCol" + V1Constants.Indexes.BITMAP_INVERTED_INDEX_FILE_EXTENSION);
+    try (PinotDataBuffer buffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+        RawValueBitmapInvertedIndexReader reader = new RawValueBitmapInvertedIndexReader(buffer, DataType.STRING)) {
+      assertEquals(reader.getDocIdsForValue("").toArray(), new int[]{1});
+      assertEquals(reader.getDocIdsForValue("a").toArray(), new int[]{2});
+      assertEquals(reader.getDocIdsForValue("b").toArray(), new int[]{0, 3});
+      assertTrue(reader.getDocIdsForValue("c").isEmpty());
+    }
+    FileUtils.forceDelete(indexFile);
+  }
+}
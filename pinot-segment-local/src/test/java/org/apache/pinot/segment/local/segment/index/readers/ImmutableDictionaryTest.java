@@ -61,6 +61,9 @@ public class ImmutableDictionaryTest {
   private static final String BIG_DECIMAL_COLUMN_NAME = "bigDecimalColumn";
   private static final String STRING_COLUMN_NAME = "stringColumn";
   private static final String BYTES_COLUMN_NAME = "bytesColumn";
+  private static final String FRONT_CODED_STRING_COLUMN_NAME = "frontCodedStringColumn";
+  private static final String FRONT_CODED_BYTES_COLUMN_NAME = "frontCodedBytesColumn";
+  private static final int FRONT_CODING_BUCKET_SIZE = 16;
   private static final int NUM_VALUES = 1000;
   private static final int MAX_STRING_LENGTH = 100;
   private static final int BYTES_LENGTH = 100;
@@ -174,6 +177,20 @@ public class ImmutableDictionaryTest {
       dictionaryCreator.build(_bytesValues);
       assertEquals(dictionaryCreator.getNumBytesPerEntry(), BYTES_LENGTH);
     }
+
+    try (SegmentDictionaryCreator dictionaryCreator = new SegmentDictionaryCreator(
+        new DimensionFieldSpec(FRONT_CODED_STRING_COLUMN_NAME, DataType.STRING, true), TEMP_DIR, false,
+        FRONT_CODING_BUCKET_SIZE)) {
+      dictionaryCreator.build(_stringValues);
+      assertEquals(dictionaryCreator.getNumBytesPerEntry(), _numBytesPerStringValue);
+    }
+
+    try (SegmentDictionaryCreator dictionaryCreator = new SegmentDictionaryCreator(
+        new DimensionFieldSpec(FRONT_CODED_BYTES_COLUMN_NAME, DataType.BYTES, true), TEMP_DIR, false,
+        FRONT_CODING_BUCKET_SIZE)) {
+      dictionaryCreator.build(_bytesValues);
+      assertEquals(dictionaryCreator.getNumBytesPerEntry(), BYTES_LENGTH);
+    }
   }
 
   @Test
@@ -391,6 +408,43 @@ public class ImmutableDictionaryTest {
     }
   }
 
+  @Test
+  public void testFrontCodedStringDictionary()
+      throws Exception {
+    try (StringDictionary stringDictionary = new StringDictionary(PinotDataBuffer.mapReadOnlyBigEndianFile(
+        new File(TEMP_DIR, FRONT_CODED_STRING_COLUMN_NAME + V1Constants.Dict.FILE_EXTENSION)), NUM_VALUES,
+        _numBytesPerStringValue)) {
+      testStringDictionary(stringDictionary);
+
+      // Bulk read with both sorted and random dict ids
+      int[] dictIds = new int[NUM_VALUES];
+      for (int i = 0; i < NUM_VALUES; i++) {
+        dictIds[i] = i;
+      }
+      String[] outValues = new String[NUM_VALUES];
+      stringDictionary.readStringValues(dictIds, NUM_VALUES, outValues);
+      assertEquals(outValues, _stringValues);
+      for (int i = 0; i < NUM_VALUES; i++) {
+        dictIds[i] = RANDOM.nextInt(NUM_VALUES);
+      }
+      stringDictionary.readStringValues(dictIds, NUM_VALUES, outValues);
+      for (int i = 0; i < NUM_VALUES; i++) {
+        assertEquals(outValues[i], _stringValues[dictIds[i]]);
+      }
+    }
+  }
+
+  @Test
+  public void testOnHeapFrontCodedStringDictionary()
+      throws Exception {
+    try (OnHeapStringDictionary onHeapStringDictionary = new OnHeapStringDictionary(
+        PinotDataBuffer.mapReadOnlyBigEndianFile(
+            new File(TEMP_DIR, FRONT_CODED_STRING_COLUMN_NAME + V1Constants.Dict.FILE_EXTENSION)), NUM_VALUES,
+        _numBytesPerStringValue, null, null)) {
+      testStringDictionary(onHeapStringDictionary);
+    }
+  }
+
   private void testStringDictionary(BaseImmutableDictionary stringDictionary) {
     for (int i = 0; i < NUM_VALUES; i++) {
       assertEquals(stringDictionary.get(i), _stringValues[i]);
@@ -435,6 +489,16 @@ public class ImmutableDictionaryTest {
     }
   }
 
+  @Test
+  public void testFrontCodedBytesDictionary()
+      throws Exception {
+    try (BytesDictionary bytesDictionary = new BytesDictionary(PinotDataBuffer.mapReadOnlyBigEndianFile(
+        new File(TEMP_DIR, FRONT_CODED_BYTES_COLUMN_NAME + V1Constants.Dict.FILE_EXTENSION)), NUM_VALUES,
+        BYTES_LENGTH)) {
+      testBytesDictionary(bytesDictionary);
+    }
+  }
+
   private void testBytesDictionary(BaseImmutableDictionary bytesDictionary) {
     for (int i = 0; i < NUM_VALUES; i++) {
       assertEquals(bytesDictionary.get(i), _bytesValues[i].getBytes());
@@ -21,6 +21,7 @@ package org.apache.pinot.segment.local.upsert;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -30,11 +31,13 @@ import java.util.TreeMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.utils.LLCSegmentName;
 import org.apache.pinot.common.utils.UploadedRealtimeSegmentName;
+import org.apache.pinot.segment.local.data.manager.TableDataManager;
 import org.apache.pinot.segment.local.indexsegment.immutable.EmptyIndexSegment;
 import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
 import org.apache.pinot.segment.local.segment.readers.PinotSegmentColumnReader;
@@ -68,8 +71,11 @@ import org.testng.annotations.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.*;
 
@@ -1164,6 +1170,105 @@ public class ConcurrentMapPartitionUpsertMetadataManagerTest {
     }
   }
 
+  @Test
+  public void testPreloadSegmentFromKeyLocationSnapshot()
+      throws IOException {
+    File keyLocationSnapshotFile = new File(INDEX_DIR, V1Constants.UPSERT_KEY_LOCATION_SNAPSHOT_TABLE_PARTITION + 0);
+    FileUtils.deleteQuietly(keyLocationSnapshotFile);
+    TableDataManager tableDataManager = mock(TableDataManager.class);
+    when(tableDataManager.getSegmentLock(anyString())).thenReturn(new ReentrantLock());
+    _contextBuilder.setEnableSnapshot(true).setEnablePreload(true).setEnableKeyLocationSnapshot(true)
+        .setTableDataManager(tableDataManager);
+
+    // segment1: 0 -> {3, 0}, 1 -> {1, 1}, 2 -> {2, 2}
+    // segment2 is not tracked, e.g. removed after its validDocIds got captured by the snapshot
+    String segmentName1 = getSegmentName(1);
+    String segmentName2 = getSegmentName(2);
+    int numRecords = 4;
+    int[] primaryKeys = new int[]{0, 1, 2, 0};
+    ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+    ConcurrentMapPartitionUpsertMetadataManager upsertMetadataManager =
+        new ConcurrentMapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, _contextBuilder.build());
+    ImmutableSegmentImpl segment1 = mockKeyLocationSnapshotSegment(segmentName1, "1000", validDocIds1, primaryKeys);
+    upsertMetadataManager.addSegment(segment1, validDocIds1, null,
+        getRecordInfoList(numRecords, primaryKeys, primaryKeys, null).iterator());
+    upsertMetadataManager._trackedSegments.add(segment1);
+    ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+    validDocIds2.add(0);
+    ImmutableSegmentImpl segment2 = mockKeyLocationSnapshotSegment(segmentName2, "2000", validDocIds2, new int[]{10});
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{1, 2, 3});
+
+    // Taking snapshot persists the key locations of segment1 after releasing the snapshot WLock
+    upsertMetadataManager.addRecord(mockMutableSegment(3, new ThreadSafeMutableRoaringBitmap(), null),
+        new RecordInfo(makePrimaryKey(100), 0, new IntWrapper(100), false));
+    upsertMetadataManager.takeSnapshot();
+    assertTrue(keyLocationSnapshotFile.exists());
+    assertFalse(new File(keyLocationSnapshotFile.getPath() + "_tmp").exists());
+    // segment2 is not tracked anymore, so it should be skipped
+    upsertMetadataManager.persistKeyLocationSnapshot(Arrays.asList(
+        new BasePartitionUpsertMetadataManager.KeyLocationSnapshotSegment(segment1,
+            validDocIds1.getMutableRoaringBitmap()),
+        new BasePartitionUpsertMetadataManager.KeyLocationSnapshotSegment(segment2,
+            validDocIds2.getMutableRoaringBitmap())));
+    verify(segment2, never()).getDataSource(anyString());
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+
+    // Preloading segment1 with the same CRC should read the key locations from the snapshot instead of the segment
+    upsertMetadataManager =
+        new ConcurrentMapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, _contextBuilder.build());
+    ImmutableSegmentImpl preloadedSegment1 =
+        mockKeyLocationSnapshotSegment(segmentName1, "1000", new ThreadSafeMutableRoaringBitmap(), primaryKeys);
+    upsertMetadataManager.doPreloadSegment(preloadedSegment1);
+    verify(preloadedSegment1, never()).getDataSource(anyString());
+    checkKeyLocations(upsertMetadataManager._primaryKeyToRecordLocationMap, preloadedSegment1);
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+
+    // Preloading segment1 with a stale CRC should reject the snapshot and read the key locations from the segment
+    upsertMetadataManager =
+        new ConcurrentMapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, _contextBuilder.build());
+    ImmutableSegmentImpl reloadedSegment1 =
+        mockKeyLocationSnapshotSegment(segmentName1, "3000", new ThreadSafeMutableRoaringBitmap(), primaryKeys);
+    upsertMetadataManager.doPreloadSegment(reloadedSegment1);
+    verify(reloadedSegment1, atLeastOnce()).getDataSource(anyString());
+    checkKeyLocations(upsertMetadataManager._primaryKeyToRecordLocationMap, reloadedSegment1);
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+
+    FileUtils.deleteQuietly(keyLocationSnapshotFile);
+  }
+
+  private ImmutableSegmentImpl mockKeyLocationSnapshotSegment(String segmentName, String crc,
+      ThreadSafeMutableRoaringBitmap validDocIds, int[] primaryKeys) {
+    SegmentMetadataImpl segmentMetadata = mock(SegmentMetadataImpl.class);
+    when(segmentMetadata.getCrc()).thenReturn(crc);
+    when(segmentMetadata.getTotalDocs()).thenReturn(primaryKeys.length);
+    // The validDocIds snapshot is only loaded when preloading the segment
+    MutableRoaringBitmap validDocIdsSnapshot = MutableRoaringBitmap.bitmapOf(1, 2, 3);
+    ImmutableSegmentImpl segment = mockImmutableSegmentWithSegmentMetadata(0, validDocIds, null,
+        getPrimaryKeyList(primaryKeys.length, primaryKeys), segmentMetadata, validDocIdsSnapshot);
+    when(segment.getSegmentName()).thenReturn(segmentName);
+    return segment;
+  }
+
+  /**
+   * Checks the key locations of segment1 with primary keys {0, 1, 2, 0} and valid docs {1, 2, 3}, where the comparison
+   * values read from the segment are the same as the primary keys.
+   */
+  private static void checkKeyLocations(Map<Object, RecordLocation> recordLocationMap, IndexSegment segment) {
+    assertEquals(recordLocationMap.size(), 3);
+    int[] docIds = new int[]{3, 1, 2};
+    for (int key = 0; key < 3; key++) {
+      RecordLocation recordLocation =
+          recordLocationMap.get(HashUtils.hashPrimaryKey(makePrimaryKey(key), HashFunction.NONE));
+      assertNotNull(recordLocation);
+      assertSame(recordLocation.getSegment(), segment);
+      assertEquals(recordLocation.getDocId(), docIds[key]);
+      assertEquals(recordLocation.getComparisonValue(), Integer.valueOf(key));
+    }
+  }
+
   @Test
   public void testAddRecordWithDeleteColumn()
       throws IOException {
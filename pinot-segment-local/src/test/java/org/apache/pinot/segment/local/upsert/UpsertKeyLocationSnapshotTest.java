@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.upsert;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class UpsertKeyLocationSnapshotTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "UpsertKeyLocationSnapshotTest");
+  private static final int NUM_DOCS = 100;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    FileUtils.forceMkdir(TEMP_DIR);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testPersistAndLoad()
+      throws Exception {
+    File file = new File(TEMP_DIR, "snapshot");
+    List<RecordInfo> intKeyRecords = new ArrayList<>();
+    List<RecordInfo> mixedKeyRecords = new ArrayList<>();
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      intKeyRecords.add(new RecordInfo(new PrimaryKey(new Object[]{docId, "k" + docId}), docId, (long) docId,
+          docId % 10 == 0));
+      mixedKeyRecords.add(new RecordInfo(
+          new PrimaryKey(new Object[]{new ByteArray(new byte[]{(byte) docId}), BigDecimal.valueOf(docId, 2)}), docId,
+          "c" + docId, false));
+    }
+    try (UpsertKeyLocationSnapshot.Writer writer = new UpsertKeyLocationSnapshot.Writer(file, 2)) {
+      writer.addSegment("seg0", "crc0", intKeyRecords.iterator());
+      writer.addSegment("seg1", "crc1", mixedKeyRecords.iterator());
+    }
+
+    assertNull(UpsertKeyLocationSnapshot.load(new File(TEMP_DIR, "nonExisting"), 2));
+    // Snapshot with a different number of primary key columns should be ignored
+    assertNull(UpsertKeyLocationSnapshot.load(file, 1));
+
+    try (UpsertKeyLocationSnapshot snapshot = UpsertKeyLocationSnapshot.load(file, 2)) {
+      assertNotNull(snapshot);
+      assertEquals(snapshot.getNumSegments(), 2);
+
+      MutableRoaringBitmap allDocIds = new MutableRoaringBitmap();
+      allDocIds.add(0L, NUM_DOCS);
+      verifyRecords(snapshot.getRecordInfoIterator("seg0", "crc0", allDocIds), intKeyRecords, allDocIds);
+      verifyRecords(snapshot.getRecordInfoIterator("seg1", "crc1", allDocIds), mixedKeyRecords, allDocIds);
+
+      // Entries should be filtered by the valid docs
+      MutableRoaringBitmap oddDocIds = new MutableRoaringBitmap();
+      for (int docId = 1; docId < NUM_DOCS; docId += 2) {
+        oddDocIds.add(docId);
+      }
+      verifyRecords(snapshot.getRecordInfoIterator("seg0", "crc0", oddDocIds), intKeyRecords, oddDocIds);
+
+      // Missing segment, CRC mismatch or valid docs not covered by the entries
+      assertNull(snapshot.getRecordInfoIterator("seg2", "crc0", allDocIds));
+      assertNull(snapshot.getRecordInfoIterator("seg0", "crc1", allDocIds));
+      MutableRoaringBitmap extraDocIds = allDocIds.clone();
+      extraDocIds.add(NUM_DOCS);
+      assertNull(snapshot.getRecordInfoIterator("seg0", "crc0", extraDocIds));
+    }
+  }
+
+  private static void verifyRecords(Iterator<RecordInfo> iterator, List<RecordInfo> expectedRecords,
+      MutableRoaringBitmap validDocIds) {
+    assertNotNull(iterator);
+    for (int docId : validDocIds.toArray()) {
+      assertTrue(iterator.hasNext());
+      RecordInfo recordInfo = iterator.next();
+      RecordInfo expectedRecord = expectedRecords.get(docId);
+      assertEquals(recordInfo.getDocId(), docId);
+      assertEquals(recordInfo.getPrimaryKey(), expectedRecord.getPrimaryKey());
+      assertEquals(recordInfo.getComparisonValue(), expectedRecord.getComparisonValue());
+      assertEquals(recordInfo.isDeleteRecord(), expectedRecord.isDeleteRecord());
+    }
+    assertFalse(iterator.hasNext());
+  }
+}
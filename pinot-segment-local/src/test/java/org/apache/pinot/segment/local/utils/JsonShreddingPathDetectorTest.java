@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
+import org.apache.pinot.spi.config.table.ingestion.JsonShreddingConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
+import org.apache.pinot.spi.utils.JsonShreddingUtils;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class JsonShreddingPathDetectorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "JsonShreddingPathDetectorTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String JSON_COLUMN = "payload";
+  private static final int NUM_RECORDS = 100;
+
+  @BeforeClass
+  public void setUp() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  private static Schema getSchema() {
+    return new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension(JSON_COLUMN, DataType.STRING).build();
+  }
+
+  private static TableConfig getTableConfig(JsonShreddingConfig jsonShreddingConfig) {
+    IngestionConfig ingestionConfig = new IngestionConfig();
+    ingestionConfig.setJsonShreddingConfigs(List.of(jsonShreddingConfig));
+    return new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).setIngestionConfig(ingestionConfig)
+        .build();
+  }
+
+  private static String getShreddedColumn(String jsonPath) {
+    return JsonShreddingUtils.getShreddedColumnName(JSON_COLUMN, jsonPath);
+  }
+
+  @Test
+  public void testDetectShreddedColumns()
+      throws Exception {
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      // "rare" only exists in 10% of the records, "mixed" is a number in half of the records and a string otherwise,
+      // arrays and keys that cannot be encoded into the column name are not traversed
+      record.putValue(JSON_COLUMN, "{\"id\": " + i + ", \"user\": {\"score\": " + (i + 0.5) + ", \"name\": \"u" + i
+          + "\"}, \"mixed\": " + (i % 2 == 0 ? i : "\"s" + i + "\"") + (i % 10 == 0 ? ", \"rare\": 1" : "")
+          + ", \"tags\": [1, 2], \"a-b\": 1}");
+      records.add(record);
+    }
+    TableConfig tableConfig = getTableConfig(new JsonShreddingConfig(JSON_COLUMN, null, true, 10, 0.5, null));
+    Schema schema = getSchema();
+    RecordReader recordReader = new GenericRowRecordReader(records);
+
+    Schema segmentSchema = JsonShreddingPathDetector.detectShreddedColumns(tableConfig, schema, recordReader);
+    assertNotSame(segmentSchema, schema);
+    assertEquals(segmentSchema.getFieldSpecFor(getShreddedColumn("$.id")).getDataType(), DataType.LONG);
+    assertEquals(segmentSchema.getFieldSpecFor(getShreddedColumn("$.user.score")).getDataType(), DataType.DOUBLE);
+    assertEquals(segmentSchema.getFieldSpecFor(getShreddedColumn("$.user.name")).getDataType(), DataType.STRING);
+    assertEquals(segmentSchema.getFieldSpecFor(getShreddedColumn("$.mixed")).getDataType(), DataType.STRING);
+    assertFalse(segmentSchema.hasColumn(getShreddedColumn("$.rare")));
+    assertEquals(segmentSchema.getColumnNames().size(), 5);
+
+    // The given schema should not be modified, and the record reader should be rewound
+    assertEquals(schema, getSchema());
+    GenericRow firstRecord = recordReader.next();
+    assertEquals(firstRecord.getValue(JSON_COLUMN), records.get(0).getValue(JSON_COLUMN));
+    recordReader.rewind();
+
+    // Max number of auto-detected paths, picking the most frequent ones and breaking ties by path
+    tableConfig = getTableConfig(new JsonShreddingConfig(JSON_COLUMN, null, true, 2, 0.05, null));
+    segmentSchema = JsonShreddingPathDetector.detectShreddedColumns(tableConfig, schema, recordReader);
+    assertTrue(segmentSchema.hasColumn(getShreddedColumn("$.id")));
+    assertTrue(segmentSchema.hasColumn(getShreddedColumn("$.mixed")));
+    assertEquals(segmentSchema.getColumnNames().size(), 3);
+
+    // Sampling only the records without "rare"
+    tableConfig = getTableConfig(new JsonShreddingConfig(JSON_COLUMN, null, true, 10, 0.5, 1));
+    segmentSchema = JsonShreddingPathDetector.detectShreddedColumns(tableConfig, schema, recordReader);
+    assertEquals(segmentSchema.getFieldSpecFor(getShreddedColumn("$.mixed")).getDataType(), DataType.LONG);
+  }
+
+  @Test
+  public void testNoDetection()
+      throws Exception {
+    List<GenericRow> records = new ArrayList<>();
+    GenericRow record = new GenericRow();
+    record.putValue(JSON_COLUMN, "{\"id\": 1}");
+    records.add(record);
+    Schema schema = getSchema();
+
+    // Auto-detection disabled
+    TableConfig tableConfig = getTableConfig(new JsonShreddingConfig(JSON_COLUMN, Map.of("$.id", DataType.LONG)));
+    assertSame(JsonShreddingPathDetector.detectShreddedColumns(tableConfig, schema,
+        new GenericRowRecordReader(records)), schema);
+
+    // Detected path already configured
+    tableConfig = getTableConfig(new JsonShreddingConfig(JSON_COLUMN, null, true, null, null, null));
+    JsonShreddingUtils.addShreddedColumn(schema, JSON_COLUMN, "$.id", DataType.LONG);
+    assertSame(JsonShreddingPathDetector.detectShreddedColumns(tableConfig, schema,
+        new GenericRowRecordReader(records)), schema);
+
+    // No record
+    assertSame(JsonShreddingPathDetector.detectShreddedColumns(tableConfig, schema,
+        new GenericRowRecordReader(new ArrayList<>())), schema);
+  }
+
+  @Test
+  public void testConcurrentSegmentBuilds()
+      throws Exception {
+    // Segments built concurrently with the same table config and schema, where each segment has its own JSON keys
+    int numSegments = 8;
+    TableConfig tableConfig = getTableConfig(new JsonShreddingConfig(JSON_COLUMN, null, true, null, null, null));
+    Schema schema = getSchema();
+    ExecutorService executorService = Executors.newFixedThreadPool(numSegments);
+    try {
+      List<Future<File>> futures = new ArrayList<>(numSegments);
+      for (int i = 0; i < numSegments; i++) {
+        int segmentId = i;
+        futures.add(executorService.submit(() -> {
+          List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+          for (int j = 0; j < NUM_RECORDS; j++) {
+            GenericRow record = new GenericRow();
+            record.putValue(JSON_COLUMN, "{\"key" + segmentId + "\": " + j + "}");
+            records.add(record);
+          }
+          String segmentName = "testSegment" + segmentId;
+          SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(tableConfig, schema);
+          segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+          segmentGeneratorConfig.setSegmentName(segmentName);
+          segmentGeneratorConfig.setOutDir(TEMP_DIR.getPath());
+          SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+          driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+          driver.build();
+          return new File(TEMP_DIR, segmentName);
+        }));
+      }
+      for (int i = 0; i < numSegments; i++) {
+        SegmentMetadataImpl segmentMetadata = new SegmentMetadataImpl(futures.get(i).get());
+        // Each segment should only contain the shredded column detected from its own records
+        assertEquals(segmentMetadata.getColumnMetadataMap().keySet(),
+            Set.of(JSON_COLUMN, getShreddedColumn("$.key" + i)));
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+    // The shared schema should not be modified
+    assertEquals(schema, getSchema());
+  }
+}
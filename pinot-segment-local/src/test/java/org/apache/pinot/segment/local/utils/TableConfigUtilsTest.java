@@ -68,6 +68,7 @@ import org.apache.pinot.spi.ingestion.batch.BatchConfigProperties;
 import org.apache.pinot.spi.stream.StreamConfig;
 import org.apache.pinot.spi.stream.StreamConfigProperties;
 import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.JsonUtils;
 import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
 import org.mockito.Mockito;
 import org.testng.Assert;
@@ -2444,6 +2445,94 @@ public class TableConfigUtilsTest {
     }
   }
 
+  @Test
+  public void testValidateRawValueInvertedIndex() {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(TABLE_NAME)
+        .addSingleValueDimension("stringCol", FieldSpec.DataType.STRING)
+        .addSingleValueDimension("doubleCol", FieldSpec.DataType.DOUBLE)
+        .addDateTime(TIME_COLUMN, FieldSpec.DataType.LONG, "1:MILLISECONDS:EPOCH", "1:MILLISECONDS").build();
+
+    // Raw columns of REALTIME tables can be indexed by value
+    TableConfig tableConfig =
+        new TableConfigBuilder(TableType.REALTIME).setStreamConfigs(getStreamConfigs()).setTableName(TABLE_NAME)
+            .setTimeColumnName(TIME_COLUMN).setNoDictionaryColumns(Arrays.asList("stringCol"))
+            .setInvertedIndexColumns(Arrays.asList("stringCol")).build();
+    TableConfigUtils.validate(tableConfig, schema);
+
+    // DOUBLE values cannot be indexed by value
+    tableConfig =
+        new TableConfigBuilder(TableType.REALTIME).setStreamConfigs(getStreamConfigs()).setTableName(TABLE_NAME)
+            .setTimeColumnName(TIME_COLUMN).setNoDictionaryColumns(Arrays.asList("doubleCol"))
+            .setInvertedIndexColumns(Arrays.asList("doubleCol")).build();
+    try {
+      TableConfigUtils.validate(tableConfig, schema);
+      Assert.fail("Should fail for inverted index on raw DOUBLE column");
+    } catch (Exception e) {
+      Assert.assertEquals(e.getMessage(),
+          "Cannot create an Inverted index on column doubleCol specified in the noDictionaryColumns config");
+    }
+
+    // Raw columns of OFFLINE tables cannot be indexed by value
+    tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME)
+        .setNoDictionaryColumns(Arrays.asList("stringCol")).setInvertedIndexColumns(Arrays.asList("stringCol")).build();
+    try {
+      TableConfigUtils.validate(tableConfig, schema);
+      Assert.fail("Should fail for inverted index on raw column of OFFLINE table");
+    } catch (Exception e) {
+      Assert.assertEquals(e.getMessage(),
+          "Cannot create an Inverted index on column stringCol specified in the noDictionaryColumns config");
+    }
+  }
+
+  @Test
+  public void testValidateCompositeIndex()
+      throws Exception {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(TABLE_NAME)
+        .addSingleValueDimension("tenantId", FieldSpec.DataType.STRING)
+        .addSingleValueDimension("eventType", FieldSpec.DataType.STRING)
+        .addSingleValueDimension("rawCol", FieldSpec.DataType.STRING)
+        .addMultiValueDimension("mvCol", FieldSpec.DataType.STRING).build();
+
+    TableConfig tableConfig = getCompositeIndexTableConfig("eventType");
+    TableConfigUtils.validate(tableConfig, schema);
+
+    tableConfig = getCompositeIndexTableConfig("unknownCol");
+    try {
+      TableConfigUtils.validate(tableConfig, schema);
+      Assert.fail("Should fail for composite index on column not defined in the schema");
+    } catch (IllegalStateException e) {
+      Assert.assertEquals(e.getMessage(),
+          "Cannot create composite index on column: tenantId, column: unknownCol is not defined in the schema");
+    }
+
+    tableConfig = getCompositeIndexTableConfig("mvCol");
+    try {
+      TableConfigUtils.validate(tableConfig, schema);
+      Assert.fail("Should fail for composite index on multi-value column");
+    } catch (IllegalStateException e) {
+      Assert.assertEquals(e.getMessage(),
+          "Cannot create composite index on column: tenantId, column: mvCol is not a single-value column");
+    }
+
+    tableConfig = getCompositeIndexTableConfig("rawCol");
+    try {
+      TableConfigUtils.validate(tableConfig, schema);
+      Assert.fail("Should fail for composite index on raw column");
+    } catch (IllegalStateException e) {
+      Assert.assertEquals(e.getMessage(),
+          "Cannot create composite index on column: tenantId, column: rawCol is not dictionary encoded");
+    }
+  }
+
+  private TableConfig getCompositeIndexTableConfig(String otherColumn)
+      throws Exception {
+    FieldConfig fieldConfig =
+        new FieldConfig.Builder("tenantId").withEncodingType(FieldConfig.EncodingType.DICTIONARY).withIndexes(
+            JsonUtils.stringToJsonNode("{\"composite\": {\"columns\": [\"" + otherColumn + "\"]}}")).build();
+    return new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME)
+        .setNoDictionaryColumns(Arrays.asList("rawCol")).setFieldConfigList(Arrays.asList(fieldConfig)).build();
+  }
+
   private Map<String, String> getStreamConfigs() {
     Map<String, String> streamConfigs = new HashMap<>();
     streamConfigs.put("streamType", "kafka");
@@ -93,4 +93,13 @@ public interface ColumnMetadata {
   Map<IndexType<?, ?, ?>, Long> getIndexSizeMap();
 
   boolean isAutoGenerated();
+
+  /**
+   * Returns the version of the table-level shared dictionary the column is encoded against, or -1 if the column has a
+   * segment-local dictionary. Columns encoded against the same version share the same dictionary ids across segments.
+   * <p>NOTE: The shared dictionary might contain values not present in the segment.
+   */
+  default int getSharedDictionaryVersion() {
+    return -1;
+  }
 }
@@ -91,6 +91,10 @@ public class ColumnIndexCreationInfo implements Serializable {
     return _columnStatistics.getMaxRowLengthInBytes();
   }
 
+  public int getSharedDictionaryVersion() {
+    return _columnStatistics.getSharedDictionaryVersion();
+  }
+
   public boolean isAutoGenerated() {
     return _isAutoGenerated;
   }
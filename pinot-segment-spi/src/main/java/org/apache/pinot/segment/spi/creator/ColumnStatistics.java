@@ -90,6 +90,14 @@ public interface ColumnStatistics extends Serializable {
     return -1;
   }
 
+  /**
+   * @return the version of the table-level shared dictionary the unique values come from, or -1 if the unique values
+   * are collected from the segment itself
+   */
+  default int getSharedDictionaryVersion() {
+    return -1;
+  }
+
   PartitionFunction getPartitionFunction();
 
   int getNumPartitions();
@@ -82,6 +82,12 @@ public interface IndexCreationContext {
    */
   boolean isOptimizeDictionary();
 
+  /**
+   * Whether the bitmap inverted index should pick the encoding of each bitmap based on its density, as configured in
+   * {@link IndexingConfig#isDensityAwareInvertedIndex()}.
+   */
+  boolean isDensityAwareInvertedIndex();
+
   boolean isFixedLength();
 
   /**
@@ -129,6 +135,7 @@ public interface IndexCreationContext {
     private boolean _forwardIndexDisabled;
     private Object _sortedUniqueElementsArray;
     private boolean _optimizedDictionary;
+    private boolean _densityAwareInvertedIndex;
     private boolean _fixedLength;
     private boolean _textCommitOnClose;
     private boolean _realtimeConversion = false;
@@ -181,6 +188,11 @@ public interface IndexCreationContext {
       return this;
     }
 
+    public Builder withDensityAwareInvertedIndex(boolean densityAwareInvertedIndex) {
+      _densityAwareInvertedIndex = densityAwareInvertedIndex;
+      return this;
+    }
+
     public Builder withFixedLength(boolean fixedLength) {
       _fixedLength = fixedLength;
       return this;
@@ -270,8 +282,8 @@ public interface IndexCreationContext {
       return new Common(Objects.requireNonNull(_indexDir), _lengthOfLongestEntry, _maxNumberOfMultiValueElements,
           _maxRowLengthInBytes, _onHeap, Objects.requireNonNull(_fieldSpec), _sorted, _cardinality,
           _totalNumberOfEntries, _totalDocs, _hasDictionary, _minValue, _maxValue, _forwardIndexDisabled,
-          _sortedUniqueElementsArray, _optimizedDictionary, _fixedLength, _textCommitOnClose, _columnStatistics,
-          _realtimeConversion, _consumerDir, _immutableToMutableIdMap);
+          _sortedUniqueElementsArray, _optimizedDictionary, _densityAwareInvertedIndex, _fixedLength,
+          _textCommitOnClose, _columnStatistics, _realtimeConversion, _consumerDir, _immutableToMutableIdMap);
     }
 
     public Builder withSortedUniqueElementsArray(Object sortedUniqueElementsArray) {
@@ -302,6 +314,7 @@ public interface IndexCreationContext {
     private final boolean _forwardIndexDisabled;
     private final Object _sortedUniqueElementsArray;
     private final boolean _optimizeDictionary;
+    private final boolean _densityAwareInvertedIndex;
     private final boolean _fixedLength;
     private final boolean _textCommitOnClose;
     private final ColumnStatistics _columnStatistics;
@@ -313,8 +326,9 @@ public interface IndexCreationContext {
         int maxNumberOfMultiValueElements, int maxRowLengthInBytes, boolean onHeap,
         FieldSpec fieldSpec, boolean sorted, int cardinality, int totalNumberOfEntries,
         int totalDocs, boolean hasDictionary, Comparable<?> minValue, Comparable<?> maxValue,
-        boolean forwardIndexDisabled, Object sortedUniqueElementsArray, boolean optimizeDictionary, boolean fixedLength,
-        boolean textCommitOnClose, ColumnStatistics columnStatistics, boolean realtimeConversion, File consumerDir,
+        boolean forwardIndexDisabled, Object sortedUniqueElementsArray, boolean optimizeDictionary,
+        boolean densityAwareInvertedIndex, boolean fixedLength, boolean textCommitOnClose,
+        ColumnStatistics columnStatistics, boolean realtimeConversion, File consumerDir,
         int[] immutableToMutableIdMap) {
       _indexDir = indexDir;
       _lengthOfLongestEntry = lengthOfLongestEntry;
@@ -332,6 +346,7 @@ public interface IndexCreationContext {
       _forwardIndexDisabled = forwardIndexDisabled;
       _sortedUniqueElementsArray = sortedUniqueElementsArray;
       _optimizeDictionary = optimizeDictionary;
+      _densityAwareInvertedIndex = densityAwareInvertedIndex;
       _fixedLength = fixedLength;
       _textCommitOnClose = textCommitOnClose;
       _columnStatistics = columnStatistics;
@@ -409,6 +424,11 @@ public interface IndexCreationContext {
       return _optimizeDictionary;
     }
 
+    @Override
+    public boolean isDensityAwareInvertedIndex() {
+      return _densityAwareInvertedIndex;
+    }
+
     @Override
     public boolean isFixedLength() {
       return _fixedLength;
@@ -28,6 +28,7 @@ import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.index.creator.SegmentIndexCreationInfo;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.ColumnReader;
 import org.apache.pinot.spi.data.readers.GenericRow;
 
 
@@ -68,6 +69,16 @@ public interface SegmentCreator extends Closeable, Serializable {
   void indexColumn(String columnName, @Nullable int[] sortedDocIds, IndexSegment segment)
       throws IOException;
 
+  /**
+   * Adds a column to the index, where the values are read from the given column reader in the doc id order.
+   *
+   * @param columnName - The name of the column being added to.
+   * @param columnReader - Used to get the values of the column. Null values should already be replaced with the
+   *                       default values, and reported by {@link ColumnReader#isNull()}.
+   */
+  void indexColumn(String columnName, ColumnReader columnReader)
+      throws IOException;
+
   /**
    * Sets the name of the segment.
    *
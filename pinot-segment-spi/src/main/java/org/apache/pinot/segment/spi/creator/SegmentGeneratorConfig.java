@@ -45,6 +45,7 @@ import org.apache.pinot.spi.config.table.SegmentPartitionConfig;
 import org.apache.pinot.spi.config.table.SegmentZKPropsConfig;
 import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.ingestion.BatchIngestionConfig;
 import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
 import org.apache.pinot.spi.data.DateTimeFieldSpec;
 import org.apache.pinot.spi.data.DateTimeFormatSpec;
@@ -55,6 +56,7 @@ import org.apache.pinot.spi.data.readers.FileFormat;
 import org.apache.pinot.spi.data.readers.RecordReaderConfig;
 import org.apache.pinot.spi.ingestion.batch.BatchConfigProperties;
 import org.apache.pinot.spi.utils.IngestionConfigUtils;
+import org.apache.pinot.spi.utils.JsonShreddingUtils;
 import org.apache.pinot.spi.utils.TimestampIndexUtils;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 
@@ -69,7 +71,7 @@ public class SegmentGeneratorConfig implements Serializable {
 
   public static final String GENERATE_INV_BEFORE_PUSH_DEPREC_PROP = "generate.inverted.index.before.push";
   private final TableConfig _tableConfig;
-  private final Schema _schema;
+  private Schema _schema;
   // NOTE: Use TreeMap to guarantee the order. The custom properties will be written into the segment metadata.
   private final TreeMap<String, String> _customProperties = new TreeMap<>();
   private final List<String> _columnSortOrder = new ArrayList<>();
@@ -110,7 +112,9 @@ public class SegmentGeneratorConfig implements Serializable {
   private boolean _rowTimeValueCheck = false;
   private boolean _segmentTimeValueCheck = true;
   private boolean _failOnEmptySegment = false;
+  private boolean _columnarIngestion = false;
   private boolean _optimizeDictionary = false;
+  private boolean _densityAwareInvertedIndex = false;
   private boolean _optimizeDictionaryForMetrics = false;
   private boolean _optimizeDictionaryType = false;
   private double _noDictionarySizeRatioThreshold = IndexingConfig.DEFAULT_NO_DICTIONARY_SIZE_RATIO_THRESHOLD;
@@ -125,6 +129,9 @@ public class SegmentGeneratorConfig implements Serializable {
 
   private SegmentZKPropsConfig _segmentZKPropsConfig;
 
+  // Table-level dictionaries to encode the columns against, keyed by column name
+  private Map<String, SharedDictionary> _sharedDictionaries = Collections.emptyMap();
+
   /**
    * Constructs the SegmentGeneratorConfig with table config and schema.
    * NOTE: The passed in table config and schema might be changed.
@@ -142,6 +149,7 @@ public class SegmentGeneratorConfig implements Serializable {
     Preconditions.checkNotNull(tableConfig);
     Preconditions.checkNotNull(schema);
     TimestampIndexUtils.applyTimestampIndex(tableConfig, schema);
+    JsonShreddingUtils.applyJsonShredding(tableConfig, schema);
     _tableConfig = tableConfig;
     _schema = schema;
     setTableName(tableConfig.getTableName());
@@ -170,6 +178,7 @@ public class SegmentGeneratorConfig implements Serializable {
     _optimizeDictionary = indexingConfig.isOptimizeDictionary();
     _optimizeDictionaryForMetrics = indexingConfig.isOptimizeDictionaryForMetrics();
     _optimizeDictionaryType = indexingConfig.isOptimizeDictionaryType();
+    _densityAwareInvertedIndex = indexingConfig.isDensityAwareInvertedIndex();
     _noDictionarySizeRatioThreshold = indexingConfig.getNoDictionarySizeRatioThreshold();
     _noDictionaryCardinalityRatioThreshold = indexingConfig.getNoDictionaryCardinalityRatioThreshold();
 
@@ -192,6 +201,10 @@ public class SegmentGeneratorConfig implements Serializable {
       _continueOnError = ingestionConfig.isContinueOnError();
       _rowTimeValueCheck = ingestionConfig.isRowTimeValueCheck();
       _segmentTimeValueCheck = ingestionConfig.isSegmentTimeValueCheck();
+      BatchIngestionConfig batchIngestionConfig = ingestionConfig.getBatchIngestionConfig();
+      if (batchIngestionConfig != null) {
+        _columnarIngestion = batchIngestionConfig.isColumnarIngestion();
+      }
     }
 
     _indexConfigsByColName = FieldIndexConfigsUtil.createIndexConfigsByColName(tableConfig, schema);
@@ -441,6 +454,18 @@ public class SegmentGeneratorConfig implements Serializable {
     return _schema;
   }
 
+  /**
+   * Replaces the schema with a per-segment copy of it that contains additional columns derived from the input data,
+   * e.g. the detected shredded JSON columns, and adds the default index configs for the additional columns. The time
+   * column and other settings derived from the schema in the constructor are not changed.
+   */
+  public void setSchema(Schema schema) {
+    Preconditions.checkNotNull(schema);
+    _schema = schema;
+    FieldIndexConfigsUtil.createIndexConfigsByColName(_tableConfig, schema)
+        .forEach(_indexConfigsByColName::putIfAbsent);
+  }
+
   public RecordReaderConfig getReaderConfig() {
     return _readerConfig;
   }
@@ -649,6 +674,14 @@ public class SegmentGeneratorConfig implements Serializable {
     _optimizeDictionary = optimizeDictionary;
   }
 
+  public boolean isDensityAwareInvertedIndex() {
+    return _densityAwareInvertedIndex;
+  }
+
+  public void setDensityAwareInvertedIndex(boolean densityAwareInvertedIndex) {
+    _densityAwareInvertedIndex = densityAwareInvertedIndex;
+  }
+
   public boolean isOptimizeDictionaryForMetrics() {
     return _optimizeDictionaryForMetrics;
   }
@@ -706,6 +739,18 @@ public class SegmentGeneratorConfig implements Serializable {
     _failOnEmptySegment = failOnEmptySegment;
   }
 
+  /**
+   * Returns whether to create the segment column by column when the record reader supports reading the columns
+   * separately (columnar input formats) and no row level transform is required.
+   */
+  public boolean isColumnarIngestion() {
+    return _columnarIngestion;
+  }
+
+  public void setColumnarIngestion(boolean columnarIngestion) {
+    _columnarIngestion = columnarIngestion;
+  }
+
   public SegmentZKPropsConfig getSegmentZKPropsConfig() {
     return _segmentZKPropsConfig;
   }
@@ -714,6 +759,19 @@ public class SegmentGeneratorConfig implements Serializable {
     _segmentZKPropsConfig = segmentZKPropsConfig;
   }
 
+  public Map<String, SharedDictionary> getSharedDictionaries() {
+    return _sharedDictionaries;
+  }
+
+  /**
+   * Sets the table-level dictionaries to encode the columns against. A column is encoded against its shared
+   * dictionary only when the dictionary contains all the values of the column within the segment, otherwise it falls
+   * back to a segment-local dictionary.
+   */
+  public void setSharedDictionaries(Map<String, SharedDictionary> sharedDictionaries) {
+    _sharedDictionaries = sharedDictionaries;
+  }
+
   public Map<String, FieldIndexConfigs> getIndexConfigsByColName() {
     return _indexConfigsByColName;
   }
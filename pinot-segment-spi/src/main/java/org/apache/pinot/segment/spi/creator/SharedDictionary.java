@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.creator;
+
+import com.google.common.base.Preconditions;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeSet;
+
+
+/**
+ * Table-level dictionary shared by all the segments of a low-cardinality STRING column.
+ * <p>The values are sorted and immutable. Adding new values produces a new version of the dictionary, so segments
+ * built against the same version share the same dictionary ids and can be merged on dictionary ids. The new values
+ * can shift the dictionary ids of the existing values, but the dictionary only grows, so the dictionary ids of an older
+ * version can always be mapped onto a newer version.
+ */
+public class SharedDictionary implements Serializable {
+  private final int _version;
+  private final String[] _sortedValues;
+
+  public SharedDictionary(int version, String[] sortedValues) {
+    Preconditions.checkArgument(version >= 0, "Shared dictionary version can't be negative");
+    _version = version;
+    _sortedValues = sortedValues;
+  }
+
+  public int getVersion() {
+    return _version;
+  }
+
+  public String[] getSortedValues() {
+    return _sortedValues;
+  }
+
+  public int getCardinality() {
+    return _sortedValues.length;
+  }
+
+  /**
+   * Returns {@code true} if the dictionary contains all the given sorted unique values, {@code false} otherwise.
+   */
+  public boolean containsAll(String[] sortedUniqueValues) {
+    if (sortedUniqueValues.length > _sortedValues.length) {
+      return false;
+    }
+    // Both arrays are sorted, so walk them together
+    int index = 0;
+    for (String value : sortedUniqueValues) {
+      while (index < _sortedValues.length && _sortedValues[index].compareTo(value) < 0) {
+        index++;
+      }
+      if (index == _sortedValues.length || !_sortedValues[index].equals(value)) {
+        return false;
+      }
+      index++;
+    }
+    return true;
+  }
+
+  /**
+   * Returns a dictionary containing both the existing and the given values. Returns this dictionary when no value is
+   * added, or a new version of the dictionary otherwise.
+   */
+  public SharedDictionary withValues(Collection<String> values) {
+    TreeSet<String> allValues = new TreeSet<>(Arrays.asList(_sortedValues));
+    if (!allValues.addAll(values)) {
+      return this;
+    }
+    return new SharedDictionary(_version + 1, allValues.toArray(new String[0]));
+  }
+
+  @Override
+  public String toString() {
+    return "SharedDictionary{_version=" + _version + ", _cardinality=" + _sortedValues.length + '}';
+  }
+}
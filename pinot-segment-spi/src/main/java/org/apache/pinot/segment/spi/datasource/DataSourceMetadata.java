@@ -108,4 +108,13 @@ public interface DataSourceMetadata {
   default int getMaxRowLengthInBytes() {
     return -1;
   }
+
+  /**
+   * Returns the version of the table-level shared dictionary the column is encoded against, or {@code -1} if the column
+   * does not use a shared dictionary. The shared dictionary might contain values not present in the segment, so it
+   * cannot be used to answer queries on the values of the column (e.g. DISTINCT, MIN/MAX) without scanning.
+   */
+  default int getSharedDictionaryVersion() {
+    return -1;
+  }
 }
@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.index;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.config.table.IndexConfig;
+
+
+/**
+ * Config for the composite index, which is configured on the first (anchor) column of the index and lists the other
+ * columns that are frequently filtered together with it, e.g.:
+ * <pre>
+ *   "fieldConfigList": [{"name": "tenantId", "indexes": {"composite": {"columns": ["eventType"]}}}]
+ * </pre>
+ */
+public class CompositeIndexConfig extends IndexConfig {
+  public static final CompositeIndexConfig DISABLED = new CompositeIndexConfig(true, null);
+
+  private final List<String> _columns;
+
+  public CompositeIndexConfig(List<String> columns) {
+    this(false, columns);
+  }
+
+  @JsonCreator
+  public CompositeIndexConfig(@JsonProperty("disabled") Boolean disabled,
+      @JsonProperty("columns") @Nullable List<String> columns) {
+    super(disabled);
+    if (isEnabled()) {
+      Preconditions.checkArgument(columns != null && !columns.isEmpty(),
+          "Composite index must be configured with at least one other column");
+    }
+    _columns = columns != null ? columns : Collections.emptyList();
+  }
+
+  /**
+   * Returns the other columns of the composite index, excluding the column the index is configured on.
+   */
+  public List<String> getColumns() {
+    return _columns;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    if (!super.equals(o)) {
+      return false;
+    }
+    CompositeIndexConfig that = (CompositeIndexConfig) o;
+    return _columns.equals(that._columns);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(super.hashCode(), _columns);
+  }
+}
@@ -20,6 +20,8 @@
 package org.apache.pinot.segment.spi.index;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 import java.util.Objects;
@@ -35,6 +37,7 @@ public class DictionaryIndexConfig extends IndexConfig {
   private final boolean _onHeap;
   private final boolean _useVarLengthDictionary;
   private final Intern _intern;
+  private final int _frontCodingBucketSize;
 
   public DictionaryIndexConfig(Boolean disabled) {
     this(disabled, false, false, null);
@@ -52,14 +55,28 @@ public class DictionaryIndexConfig extends IndexConfig {
    * Constructor for patching an existing config, but overrides the useVarLengthDictionary property with the input
    */
   public DictionaryIndexConfig(DictionaryIndexConfig base, boolean useVarLengthDictionary) {
-    this(base.isEnabled(), base.isOnHeap(), useVarLengthDictionary, base.getIntern());
+    this(base.isEnabled(), base.isOnHeap(), useVarLengthDictionary, base.getIntern(),
+        base.getFrontCodingBucketSize());
   }
 
+  public DictionaryIndexConfig(Boolean disabled, Boolean onHeap, @Nullable Boolean useVarLengthDictionary,
+      @Nullable Intern intern) {
+    this(disabled, onHeap, useVarLengthDictionary, intern, null);
+  }
+
+  /**
+   * @param frontCodingBucketSize when positive, STRING and BYTES values are front-coded (prefix-compressed) in buckets
+   *                              of this many values, which shrinks the dictionary of high cardinality columns with
+   *                              shared prefixes at the cost of decoding up to one bucket per lookup
+   */
   @JsonCreator
   public DictionaryIndexConfig(@JsonProperty("disabled") Boolean disabled, @JsonProperty("onHeap") Boolean onHeap,
       @JsonProperty("useVarLengthDictionary") @Nullable Boolean useVarLengthDictionary,
-      @JsonProperty("intern") @Nullable Intern intern) {
+      @JsonProperty("intern") @Nullable Intern intern,
+      @JsonProperty("frontCodingBucketSize") @Nullable Integer frontCodingBucketSize) {
     super(disabled);
+    Preconditions.checkArgument(frontCodingBucketSize == null || frontCodingBucketSize >= 0,
+        "Front coding bucket size must be non-negative, got: %s", frontCodingBucketSize);
 
     if (intern != null) {
       // Intern configs only work with onHeapDictionary. This precondition can be removed when/if we support interning
@@ -71,6 +88,7 @@ public class DictionaryIndexConfig extends IndexConfig {
     _onHeap = onHeap != null && onHeap;
     _useVarLengthDictionary = Boolean.TRUE.equals(useVarLengthDictionary);
     _intern = intern;
+    _frontCodingBucketSize = frontCodingBucketSize != null ? frontCodingBucketSize : 0;
   }
 
   public boolean isOnHeap() {
@@ -85,6 +103,19 @@ public class DictionaryIndexConfig extends IndexConfig {
     return _intern;
   }
 
+  /**
+   * Returns the number of values per front-coded bucket, or 0 if front coding is disabled.
+   */
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  public int getFrontCodingBucketSize() {
+    return _frontCodingBucketSize;
+  }
+
+  @JsonIgnore
+  public boolean isFrontCoded() {
+    return _frontCodingBucketSize > 0;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -95,12 +126,12 @@ public class DictionaryIndexConfig extends IndexConfig {
     }
     DictionaryIndexConfig that = (DictionaryIndexConfig) o;
     return _onHeap == that._onHeap && _useVarLengthDictionary == that._useVarLengthDictionary && Objects.equals(_intern,
-        that._intern);
+        that._intern) && _frontCodingBucketSize == that._frontCodingBucketSize;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(_onHeap, _useVarLengthDictionary, _intern);
+    return Objects.hash(_onHeap, _useVarLengthDictionary, _intern, _frontCodingBucketSize);
   }
 
   @Override
@@ -108,7 +139,8 @@ public class DictionaryIndexConfig extends IndexConfig {
     if (isEnabled()) {
       String internStr = _intern == null ? "null" : _intern.toString();
       return "DictionaryIndexConfig{" + "\"onHeap\":" + _onHeap + ", \"useVarLengthDictionary\":"
-          + _useVarLengthDictionary + ", \"intern\":" + internStr + "}";
+          + _useVarLengthDictionary + ", \"intern\":" + internStr + ", \"frontCodingBucketSize\":"
+          + _frontCodingBucketSize + "}";
     } else {
       return "DictionaryIndexConfig{" + "\"disabled\": true}";
     }
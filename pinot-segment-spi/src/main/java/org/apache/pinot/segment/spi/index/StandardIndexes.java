@@ -21,6 +21,7 @@ package org.apache.pinot.segment.spi.index;
 
 import org.apache.pinot.segment.spi.index.creator.BloomFilterCreator;
 import org.apache.pinot.segment.spi.index.creator.CombinedInvertedIndexCreator;
+import org.apache.pinot.segment.spi.index.creator.CompositeIndexCreator;
 import org.apache.pinot.segment.spi.index.creator.DictionaryBasedInvertedIndexCreator;
 import org.apache.pinot.segment.spi.index.creator.FSTIndexCreator;
 import org.apache.pinot.segment.spi.index.creator.ForwardIndexCreator;
@@ -32,6 +33,7 @@ import org.apache.pinot.segment.spi.index.creator.TextIndexCreator;
 import org.apache.pinot.segment.spi.index.creator.VectorIndexConfig;
 import org.apache.pinot.segment.spi.index.creator.VectorIndexCreator;
 import org.apache.pinot.segment.spi.index.reader.BloomFilterReader;
+import org.apache.pinot.segment.spi.index.reader.CompositeIndexReader;
 import org.apache.pinot.segment.spi.index.reader.Dictionary;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
 import org.apache.pinot.segment.spi.index.reader.H3IndexReader;
@@ -82,6 +84,7 @@ public class StandardIndexes {
   public static final String H3_ID = "h3_index";
   public static final String VECTOR_ID = "vector_index";
   public static final String MAP_ID = "map_index";
+  public static final String COMPOSITE_ID = "composite_index";
 
   private StandardIndexes() {
   }
@@ -145,4 +148,9 @@ public class StandardIndexes {
     return (IndexType<MapIndexConfig, MapIndexReader, MapIndexCreator>)
         IndexService.getInstance().get(MAP_ID);
   }
+
+  public static IndexType<CompositeIndexConfig, CompositeIndexReader, CompositeIndexCreator> composite() {
+    return (IndexType<CompositeIndexConfig, CompositeIndexReader, CompositeIndexCreator>)
+        IndexService.getInstance().get(COMPOSITE_ID);
+  }
 }
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.index.creator;
+
+import java.io.IOException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.spi.index.IndexCreator;
+
+
+/**
+ * Creator for the composite index. Unlike other index creators, it is fed with the dictionary ids of all the columns of
+ * the index for each document, so it cannot be built with the per-column add methods of {@link IndexCreator}.
+ */
+public interface CompositeIndexCreator extends IndexCreator {
+
+  /**
+   * Adds the dictionary ids of the next document, one for each column of the composite index.
+   */
+  void add(int[] dictIds)
+      throws IOException;
+
+  /**
+   * Sets the checksums of the dictionaries, one for each column of the composite index. They are stored with the index
+   * so that the index can be rebuilt when the dictionary of any of its columns changes.
+   */
+  void setDictionaryChecksums(long[] dictionaryChecksums);
+
+  @Override
+  default void add(@Nonnull Object value, int dictId) {
+    throw new UnsupportedOperationException("Composite index must be built from the dictionary ids of all columns");
+  }
+
+  @Override
+  default void add(@Nonnull Object[] values, @Nullable int[] dictIds) {
+    throw new UnsupportedOperationException("Composite index must be built from the dictionary ids of all columns");
+  }
+}
@@ -69,12 +69,13 @@ public class ColumnMetadataImpl implements ColumnMetadata {
   private final Set<Integer> _partitions;
   private final Map<IndexType<?, ?, ?>, Long> _indexSizeMap;
   private final boolean _autoGenerated;
+  private final int _sharedDictionaryVersion;
 
   private ColumnMetadataImpl(FieldSpec fieldSpec, int totalDocs, int cardinality, boolean sorted,
       Comparable<?> minValue, Comparable<?> maxValue, boolean minMaxValueInvalid, boolean hasDictionary,
       int columnMaxLength, int bitsPerElement, int maxNumberOfMultiValues, int totalNumberOfEntries,
       @Nullable PartitionFunction partitionFunction, @Nullable Set<Integer> partitions,
-      Map<IndexType<?, ?, ?>, Long> indexSizeMap, boolean autoGenerated) {
+      Map<IndexType<?, ?, ?>, Long> indexSizeMap, boolean autoGenerated, int sharedDictionaryVersion) {
     _fieldSpec = fieldSpec;
     _totalDocs = totalDocs;
     _cardinality = cardinality;
@@ -91,6 +92,7 @@ public class ColumnMetadataImpl implements ColumnMetadata {
     _partitions = partitions;
     _indexSizeMap = indexSizeMap;
     _autoGenerated = autoGenerated;
+    _sharedDictionaryVersion = sharedDictionaryVersion;
   }
 
   @Override
@@ -175,6 +177,11 @@ public class ColumnMetadataImpl implements ColumnMetadata {
     return _autoGenerated;
   }
 
+  @Override
+  public int getSharedDictionaryVersion() {
+    return _sharedDictionaryVersion;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -188,6 +195,7 @@ public class ColumnMetadataImpl implements ColumnMetadata {
         && _hasDictionary == that._hasDictionary && _columnMaxLength == that._columnMaxLength
         && _bitsPerElement == that._bitsPerElement && _maxNumberOfMultiValues == that._maxNumberOfMultiValues
         && _totalNumberOfEntries == that._totalNumberOfEntries && _autoGenerated == that._autoGenerated
+        && _sharedDictionaryVersion == that._sharedDictionaryVersion
         && Objects.equals(_fieldSpec, that._fieldSpec) && Objects.equals(_minValue, that._minValue) && Objects.equals(
         _maxValue, that._maxValue) && Objects.equals(_partitionFunction, that._partitionFunction) && Objects.equals(
         _partitions, that._partitions);
@@ -197,7 +205,7 @@ public class ColumnMetadataImpl implements ColumnMetadata {
   public int hashCode() {
     return Objects.hash(_fieldSpec, _totalDocs, _cardinality, _sorted, _minValue, _maxValue, _hasDictionary,
         _columnMaxLength, _bitsPerElement, _maxNumberOfMultiValues, _totalNumberOfEntries, _partitionFunction,
-        _partitions, _autoGenerated);
+        _partitions, _autoGenerated, _sharedDictionaryVersion);
   }
 
   @Override
@@ -207,7 +215,7 @@ public class ColumnMetadataImpl implements ColumnMetadata {
         + ", _hasDictionary=" + _hasDictionary + ", _columnMaxLength=" + _columnMaxLength + ", _bitsPerElement="
         + _bitsPerElement + ", _maxNumberOfMultiValues=" + _maxNumberOfMultiValues + ", _totalNumberOfEntries="
         + _totalNumberOfEntries + ", _partitionFunction=" + _partitionFunction + ", _partitions=" + _partitions
-        + ", _autoGenerated=" + _autoGenerated + '}';
+        + ", _autoGenerated=" + _autoGenerated + ", _sharedDictionaryVersion=" + _sharedDictionaryVersion + '}';
   }
 
   public static ColumnMetadataImpl fromPropertiesConfiguration(String column, PropertiesConfiguration config) {
@@ -219,7 +227,8 @@ public class ColumnMetadataImpl implements ColumnMetadata {
         .setColumnMaxLength(config.getInt(Column.getKeyFor(column, Column.DICTIONARY_ELEMENT_SIZE)))
         .setMaxNumberOfMultiValues(config.getInt(Column.getKeyFor(column, Column.MAX_MULTI_VALUE_ELEMENTS)))
         .setTotalNumberOfEntries(config.getInt(Column.getKeyFor(column, Column.TOTAL_NUMBER_OF_ENTRIES)))
-        .setAutoGenerated(config.getBoolean(Column.getKeyFor(column, Column.IS_AUTO_GENERATED), false));
+        .setAutoGenerated(config.getBoolean(Column.getKeyFor(column, Column.IS_AUTO_GENERATED), false))
+        .setSharedDictionaryVersion(config.getInt(Column.getKeyFor(column, Column.SHARED_DICTIONARY_VERSION), -1));
 
     FieldSpec fieldSpec = generateFieldSpec(column, config);
     builder.setFieldSpec(fieldSpec);
@@ -355,6 +364,7 @@ public class ColumnMetadataImpl implements ColumnMetadata {
     private PartitionFunction _partitionFunction;
     private Set<Integer> _partitions;
     private boolean _autoGenerated;
+    private int _sharedDictionaryVersion = -1;
     private Map<IndexType<?, ?, ?>, Long> _indexSizeMap = new HashMap<>();
 
     public Builder setFieldSpec(FieldSpec fieldSpec) {
@@ -436,10 +446,16 @@ public class ColumnMetadataImpl implements ColumnMetadata {
       return this;
     }
 
+    public Builder setSharedDictionaryVersion(int sharedDictionaryVersion) {
+      _sharedDictionaryVersion = sharedDictionaryVersion;
+      return this;
+    }
+
     public ColumnMetadataImpl build() {
       return new ColumnMetadataImpl(_fieldSpec, _totalDocs, _cardinality, _sorted, _minValue, _maxValue,
           _minMaxValueInvalid, _hasDictionary, _columnMaxLength, _bitsPerElement, _maxNumberOfMultiValues,
-          _totalNumberOfEntries, _partitionFunction, _partitions, _indexSizeMap, _autoGenerated);
+          _totalNumberOfEntries, _partitionFunction, _partitions, _indexSizeMap, _autoGenerated,
+          _sharedDictionaryVersion);
     }
 
     private Comparable<?> parseValue(DataType storedType, String column, String valueString) {
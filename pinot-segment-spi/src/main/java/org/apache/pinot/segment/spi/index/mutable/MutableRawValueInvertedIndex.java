@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.index.mutable;
+
+import org.apache.pinot.segment.spi.index.reader.RawValueInvertedIndexReader;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Mutable inverted index for raw (no-dictionary) columns, where the posting lists are keyed by the values of the
+ * column instead of the dictionary ids.
+ * <p>The index is kept on heap, so it stops indexing once it reaches its memory limit. The documents indexed before
+ * that are still served by the index, while the later ones should be solved by scanning the forward index.
+ */
+public interface MutableRawValueInvertedIndex extends RawValueInvertedIndexReader<MutableRoaringBitmap>, MutableIndex {
+
+  /**
+   * Returns the number of unique values added to the index.
+   */
+  int getNumValues();
+
+  /**
+   * Returns the unique values added to the index as a sorted primitive (or object) array of the stored type, in the
+   * same format as {@link org.apache.pinot.segment.spi.index.reader.Dictionary#getSortedValues()}.
+   */
+  Object getSortedValues();
+
+  /**
+   * Returns {@code true} if the index has reached its memory limit and stopped indexing new documents.
+   */
+  boolean isFull();
+
+  /**
+   * Returns the number of leading documents covered by the index, i.e. the first document id not indexed after the
+   * index becomes full, or {@link Integer#MAX_VALUE} if the index is not full.
+   */
+  int getNumDocsLimit();
+
+  /**
+   * Returns the estimated heap memory used by the index in bytes.
+   */
+  long getEstimatedMemoryBytes();
+}
@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.index.reader;
+
+import java.util.List;
+import org.apache.pinot.segment.spi.index.IndexReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Reader for the composite index, which maps each combination of dictionary ids of multiple dictionary-encoded
+ * single-value columns to the documents having that combination of values.
+ */
+public interface CompositeIndexReader extends IndexReader {
+
+  /**
+   * Returns the columns of the composite index, starting with the column the index is attached to.
+   */
+  List<String> getColumns();
+
+  /**
+   * Returns the documents matching all the given dictionary ids, one for each column in the order of
+   * {@link #getColumns()}. Returns an empty bitmap if no document has this combination of values.
+   */
+  ImmutableRoaringBitmap getDocIds(int[] dictIds);
+}
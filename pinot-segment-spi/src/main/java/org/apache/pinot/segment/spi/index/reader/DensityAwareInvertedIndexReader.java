@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.index.reader;
+
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Interface for bitmap inverted index reader where the bitmap of a dictionary id can be stored as its complement (the
+ * document ids NOT matching the dictionary id), which is much smaller for the values covering most of the documents.
+ * Callers aware of the encoding can apply the complement (e.g. with ANDNOT) without materializing the flipped bitmap.
+ */
+public interface DensityAwareInvertedIndexReader extends InvertedIndexReader<ImmutableRoaringBitmap> {
+
+  /**
+   * Returns {@code true} if the bitmap for the given dictionary id is stored as the complement of the matching document
+   * ids, {@code false} otherwise.
+   */
+  boolean isComplemented(int dictId);
+
+  /**
+   * Returns the bitmap stored for the given dictionary id without materializing the complement, i.e. the non-matching
+   * document ids if {@link #isComplemented(int)} returns {@code true}, or the matching document ids otherwise.
+   */
+  ImmutableRoaringBitmap getStoredDocIds(int dictId);
+}
@@ -35,6 +35,12 @@ public interface JsonIndexReader extends IndexReader {
    */
   MutableRoaringBitmap getMatchingDocIds(String filterString);
 
+  /**
+   * Returns the matching document ids for the given parsed filter (i.e. the {@code FilterContext} of the filter
+   * string). This allows parsing the filter only once per query and sharing it across all the segments.
+   */
+  MutableRoaringBitmap getMatchingDocIds(Object filterObj);
+
   /**
    * For an array of docIds and context specific to a JSON key, returns the corresponding sv value for each docId.
    * @param docIds array of docIds
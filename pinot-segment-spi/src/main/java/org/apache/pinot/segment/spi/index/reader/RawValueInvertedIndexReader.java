@@ -0,0 +1,40 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.index.reader;
+
+/**
+ * Inverted index reader for raw (no-dictionary) columns, where the posting lists are keyed by the values of the column
+ * instead of the dictionary ids.
+ * <p>The values are in the stored type of the column, with {@link org.apache.pinot.spi.utils.ByteArray} for BYTES.
+ */
+public interface RawValueInvertedIndexReader<T> extends InvertedIndexReader<T> {
+
+  /**
+   * Returns the document ids for the given value, or an empty bitmap if the value is not indexed.
+   */
+  T getDocIdsForValue(Object value);
+
+  /**
+   * Raw value inverted index cannot be looked up by dictionary id.
+   */
+  @Override
+  default T getDocIds(int dictId) {
+    throw new UnsupportedOperationException("Raw value inverted index does not support lookup by dictionary id");
+  }
+}
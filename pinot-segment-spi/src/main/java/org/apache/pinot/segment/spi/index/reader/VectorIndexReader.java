@@ -20,6 +20,7 @@ package org.apache.pinot.segment.spi.index.reader;
 
 import org.apache.pinot.segment.spi.index.IndexReader;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 /**
@@ -33,4 +34,19 @@ public interface VectorIndexReader extends IndexReader {
    * @return bitmap of top k closest vectors
    */
   ImmutableRoaringBitmap getDocIds(float[] vector, int topK);
+
+  /**
+   * Returns the bitmap of top k closest vectors from the given vector among the docs in the given filter bitmap.
+   * Implementations should apply the filter while searching (pre-filtering), so that up to k docs are returned even
+   * when the filter is selective. The default implementation applies the filter after the search.
+   * @param vector vector to search
+   * @param topK number of closest vectors to return
+   * @param filterDocIds bitmap of the docs to search from
+   * @return bitmap of top k closest vectors within the filter
+   */
+  default ImmutableRoaringBitmap getDocIds(float[] vector, int topK, ImmutableRoaringBitmap filterDocIds) {
+    MutableRoaringBitmap docIds = getDocIds(vector, topK).toMutableRoaringBitmap();
+    docIds.and(filterDocIds);
+    return docIds;
+  }
 }
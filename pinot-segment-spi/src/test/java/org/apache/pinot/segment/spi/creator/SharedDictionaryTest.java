@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.creator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+
+public class SharedDictionaryTest {
+
+  @Test
+  public void testContainsAll() {
+    SharedDictionary sharedDictionary = new SharedDictionary(1, new String[]{"CA", "DE", "FR", "US"});
+    assertTrue(sharedDictionary.containsAll(new String[0]));
+    assertTrue(sharedDictionary.containsAll(new String[]{"CA"}));
+    assertTrue(sharedDictionary.containsAll(new String[]{"DE", "US"}));
+    assertTrue(sharedDictionary.containsAll(new String[]{"CA", "DE", "FR", "US"}));
+    assertFalse(sharedDictionary.containsAll(new String[]{"BR"}));
+    assertFalse(sharedDictionary.containsAll(new String[]{"CA", "IN"}));
+    assertFalse(sharedDictionary.containsAll(new String[]{"US", "ZA"}));
+    assertFalse(sharedDictionary.containsAll(new String[]{"BR", "CA", "DE", "FR", "US"}));
+  }
+
+  @Test
+  public void testWithValues() {
+    SharedDictionary sharedDictionary = new SharedDictionary(1, new String[]{"CA", "US"});
+
+    // No new value, should return the same dictionary
+    assertSame(sharedDictionary.withValues(Collections.emptyList()), sharedDictionary);
+    assertSame(sharedDictionary.withValues(Arrays.asList("US", "CA")), sharedDictionary);
+
+    // New values should be merged in sorted order with a new version
+    SharedDictionary updatedDictionary = sharedDictionary.withValues(Arrays.asList("US", "DE", "BR", "DE"));
+    assertEquals(updatedDictionary.getVersion(), 2);
+    assertEquals(updatedDictionary.getSortedValues(), new String[]{"BR", "CA", "DE", "US"});
+    assertEquals(updatedDictionary.getCardinality(), 4);
+    assertTrue(updatedDictionary.containsAll(sharedDictionary.getSortedValues()));
+
+    // The original dictionary should not be modified
+    assertEquals(sharedDictionary.getVersion(), 1);
+    assertEquals(sharedDictionary.getSortedValues(), new String[]{"CA", "US"});
+  }
+
+  @Test
+  public void testNegativeVersion() {
+    expectThrows(IllegalArgumentException.class, () -> new SharedDictionary(-1, new String[0]));
+  }
+}
@@ -84,4 +84,20 @@ public class DictionaryIndexConfigTest {
     assertTrue(config.isOnHeap(), "Unexpected onHeap");
     assertTrue(config.getUseVarLengthDictionary(), "Unexpected useVarLengthDictionary");
   }
+
+  @Test
+  public void withFrontCoding()
+      throws JsonProcessingException {
+    String confStr = "{\"frontCodingBucketSize\": 16}";
+    DictionaryIndexConfig config = JsonUtils.stringToObject(confStr, DictionaryIndexConfig.class);
+
+    assertFalse(config.isDisabled(), "Unexpected disabled");
+    assertTrue(config.isFrontCoded(), "Unexpected frontCoded");
+    assertEquals(config.getFrontCodingBucketSize(), 16);
+    assertEquals(JsonUtils.stringToObject(JsonUtils.objectToString(config), DictionaryIndexConfig.class), config);
+
+    // Front coding bucket size is not serialized when front coding is disabled
+    assertFalse(JsonUtils.objectToString(DictionaryIndexConfig.DEFAULT).contains("frontCodingBucketSize"));
+    assertFalse(DictionaryIndexConfig.DEFAULT.isFrontCoded(), "Unexpected frontCoded");
+  }
 }
@@ -62,6 +62,8 @@ public class IndexingConfig extends BaseJsonConfig {
   private List<StarTreeIndexConfig> _starTreeIndexConfigs;
   // Whether to allow creating star-tree when server loads the segment
   private boolean _enableDynamicStarTreeCreation;
+  // Whether to maintain the star-tree pre-aggregation in memory for the consuming segments
+  private boolean _enableStarTreeForConsumingSegments;
   private SegmentPartitionConfig _segmentPartitionConfig;
   private boolean _aggregateMetrics;
   private boolean _nullHandlingEnabled;
@@ -85,6 +87,13 @@ public class IndexingConfig extends BaseJsonConfig {
    */
   private boolean _optimizeDictionaryType;
 
+  /**
+   * If `densityAwareInvertedIndex` enabled, each bitmap of the inverted index is stored with the most compact encoding
+   * based on its density (run-optimized roaring, delta encoded doc ids for the sparse ones, or the complement for the
+   * dense ones), instead of always using a plain RoaringBitmap.
+   */
+  private boolean _densityAwareInvertedIndex;
+
   private double _noDictionarySizeRatioThreshold = DEFAULT_NO_DICTIONARY_SIZE_RATIO_THRESHOLD;
 
   // Used in conjunction with `optimizeDictionary`, if cardinality / total docs is less than the threshold,
@@ -103,6 +112,13 @@ public class IndexingConfig extends BaseJsonConfig {
    */
   private List<String> _varLengthDictionaryColumns;
 
+  /**
+   * The list of low-cardinality STRING columns encoded against a table-level dictionary shared by all the segments, so
+   * that the server can merge group-by results on dictionary ids instead of values. The shared dictionary is kept in
+   * the property store and grown by the real-time segment converter.
+   */
+  private List<String> _sharedDictionaryColumns;
+
   private JsonNode _tierOverwrites;
 
   @Nullable
@@ -289,6 +305,15 @@ public class IndexingConfig extends BaseJsonConfig {
     _varLengthDictionaryColumns = varLengthDictionaryColumns;
   }
 
+  @Nullable
+  public List<String> getSharedDictionaryColumns() {
+    return _sharedDictionaryColumns;
+  }
+
+  public void setSharedDictionaryColumns(List<String> sharedDictionaryColumns) {
+    _sharedDictionaryColumns = sharedDictionaryColumns;
+  }
+
   public boolean isEnableDefaultStarTree() {
     return _enableDefaultStarTree;
   }
@@ -322,6 +347,14 @@ public class IndexingConfig extends BaseJsonConfig {
     _enableDynamicStarTreeCreation = enableDynamicStarTreeCreation;
   }
 
+  public boolean isEnableStarTreeForConsumingSegments() {
+    return _enableStarTreeForConsumingSegments;
+  }
+
+  public void setEnableStarTreeForConsumingSegments(boolean enableStarTreeForConsumingSegments) {
+    _enableStarTreeForConsumingSegments = enableStarTreeForConsumingSegments;
+  }
+
   @Nullable
   public SegmentPartitionConfig getSegmentPartitionConfig() {
     return _segmentPartitionConfig;
@@ -385,6 +418,14 @@ public class IndexingConfig extends BaseJsonConfig {
     _optimizeDictionaryType = optimizeDictionaryType;
   }
 
+  public boolean isDensityAwareInvertedIndex() {
+    return _densityAwareInvertedIndex;
+  }
+
+  public void setDensityAwareInvertedIndex(boolean densityAwareInvertedIndex) {
+    _densityAwareInvertedIndex = densityAwareInvertedIndex;
+  }
+
   public double getNoDictionarySizeRatioThreshold() {
     return _noDictionarySizeRatioThreshold;
   }
@@ -457,6 +498,9 @@ public class IndexingConfig extends BaseJsonConfig {
     if (_varLengthDictionaryColumns != null) {
       allColumns.addAll(_varLengthDictionaryColumns);
     }
+    if (_sharedDictionaryColumns != null) {
+      allColumns.addAll(_sharedDictionaryColumns);
+    }
     return allColumns;
   }
 }
@@ -82,6 +82,10 @@ public class UpsertConfig extends BaseJsonConfig {
   @JsonPropertyDescription("Whether to preload segments for fast upsert metadata recovery")
   private boolean _enablePreload;
 
+  @JsonPropertyDescription("Whether to persist the primary key locations of the partition along with the snapshots, so "
+      + "that segments can be preloaded without reading the primary key and comparison columns")
+  private boolean _enableKeyLocationSnapshot;
+
   @JsonPropertyDescription("Configure the way to provide consistent view for upsert table")
   private ConsistencyMode _consistencyMode = ConsistencyMode.NONE;
 
@@ -167,6 +171,10 @@ public class UpsertConfig extends BaseJsonConfig {
     return _enablePreload;
   }
 
+  public boolean isEnableKeyLocationSnapshot() {
+    return _enableKeyLocationSnapshot;
+  }
+
   public boolean isEnableDeletedKeysCompactionConsistency() {
     return _enableDeletedKeysCompactionConsistency;
   }
@@ -273,6 +281,10 @@ public class UpsertConfig extends BaseJsonConfig {
     _enablePreload = enablePreload;
   }
 
+  public void setEnableKeyLocationSnapshot(boolean enableKeyLocationSnapshot) {
+    _enableKeyLocationSnapshot = enableKeyLocationSnapshot;
+  }
+
   public void setConsistencyMode(ConsistencyMode consistencyMode) {
     _consistencyMode = consistencyMode;
   }
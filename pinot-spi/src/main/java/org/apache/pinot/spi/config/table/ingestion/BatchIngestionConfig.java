@@ -44,6 +44,10 @@ public class BatchIngestionConfig extends BaseJsonConfig {
   @JsonPropertyDescription("True to enable consistent data push")
   private boolean _consistentDataPush;
 
+  @JsonPropertyDescription("True to create the segments column by column from the columnar input formats (e.g. "
+      + "Parquet, ORC) when no row level transform is configured")
+  private boolean _columnarIngestion;
+
   @JsonCreator
   public BatchIngestionConfig(@JsonProperty("batchConfigMaps") @Nullable List<Map<String, String>> batchConfigMaps,
       @JsonProperty("segmentIngestionType") String segmentIngestionType,
@@ -78,6 +82,10 @@ public class BatchIngestionConfig extends BaseJsonConfig {
     return _consistentDataPush;
   }
 
+  public boolean isColumnarIngestion() {
+    return _columnarIngestion;
+  }
+
   public void setBatchConfigMaps(List<Map<String, String>> batchConfigMaps) {
     _batchConfigMaps = batchConfigMaps;
   }
@@ -93,4 +101,8 @@ public class BatchIngestionConfig extends BaseJsonConfig {
   public void setConsistentDataPush(boolean consistentDataPush) {
     _consistentDataPush = consistentDataPush;
   }
+
+  public void setColumnarIngestion(boolean columnarIngestion) {
+    _columnarIngestion = columnarIngestion;
+  }
 }
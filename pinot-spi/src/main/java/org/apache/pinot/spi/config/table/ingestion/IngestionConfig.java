@@ -57,6 +57,9 @@ public class IngestionConfig extends BaseJsonConfig {
   @JsonPropertyDescription("Configs related to record aggregation function applied during ingestion")
   private List<AggregationConfig> _aggregationConfigs;
 
+  @JsonPropertyDescription("Configs related to shredding JSON paths into hidden typed columns during ingestion")
+  private List<JsonShreddingConfig> _jsonShreddingConfigs;
+
   @JsonPropertyDescription("Configs related to skip any row which has error and continue during ingestion")
   private boolean _continueOnError;
 
@@ -133,6 +136,11 @@ public class IngestionConfig extends BaseJsonConfig {
     return _aggregationConfigs;
   }
 
+  @Nullable
+  public List<JsonShreddingConfig> getJsonShreddingConfigs() {
+    return _jsonShreddingConfigs;
+  }
+
   public boolean isContinueOnError() {
     return _continueOnError;
   }
@@ -183,6 +191,10 @@ public class IngestionConfig extends BaseJsonConfig {
     _aggregationConfigs = aggregationConfigs;
   }
 
+  public void setJsonShreddingConfigs(List<JsonShreddingConfig> jsonShreddingConfigs) {
+    _jsonShreddingConfigs = jsonShreddingConfigs;
+  }
+
   public void setContinueOnError(boolean continueOnError) {
     _continueOnError = continueOnError;
   }
@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.config.table.ingestion;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.google.common.base.Preconditions;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.config.BaseJsonConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Configs for shredding JSON paths of a JSON string column into hidden typed columns at ingestion time. Queries using
+ * {@code jsonExtractScalar(column, 'jsonPath', 'resultsType', ...)} read the shredded column instead of parsing the
+ * JSON documents when the segment contains it.
+ */
+public class JsonShreddingConfig extends BaseJsonConfig {
+  public static final int DEFAULT_MAX_NUM_AUTO_DETECTED_PATHS = 10;
+  public static final double DEFAULT_MIN_AUTO_DETECTED_PATH_FREQUENCY = 0.9;
+  public static final int DEFAULT_NUM_AUTO_DETECTION_SAMPLE_RECORDS = 1000;
+
+  @JsonPropertyDescription("Name of the JSON string column to shred")
+  private final String _columnName;
+
+  @JsonPropertyDescription("Map from JSON path (e.g. $.user.id) to the data type of the shredded column")
+  private final Map<String, DataType> _jsonPaths;
+
+  @JsonPropertyDescription("Whether to detect the frequent scalar JSON paths from the input data when building offline "
+      + "segments")
+  private final boolean _autoDetect;
+
+  @JsonPropertyDescription("Max number of JSON paths to shred when auto-detection is enabled")
+  private final int _maxNumAutoDetectedPaths;
+
+  @JsonPropertyDescription("Min fraction of the sampled records that must contain a JSON path for it to be shredded")
+  private final double _minAutoDetectedPathFrequency;
+
+  @JsonPropertyDescription("Number of records to sample for auto-detection")
+  private final int _numAutoDetectionSampleRecords;
+
+  @JsonCreator
+  public JsonShreddingConfig(@JsonProperty(value = "columnName", required = true) String columnName,
+      @JsonProperty("jsonPaths") @Nullable Map<String, DataType> jsonPaths,
+      @JsonProperty("autoDetect") boolean autoDetect,
+      @JsonProperty("maxNumAutoDetectedPaths") @Nullable Integer maxNumAutoDetectedPaths,
+      @JsonProperty("minAutoDetectedPathFrequency") @Nullable Double minAutoDetectedPathFrequency,
+      @JsonProperty("numAutoDetectionSampleRecords") @Nullable Integer numAutoDetectionSampleRecords) {
+    Preconditions.checkArgument(columnName != null, "'columnName' must be configured");
+    _columnName = columnName;
+    _jsonPaths = jsonPaths != null ? jsonPaths : Map.of();
+    _autoDetect = autoDetect;
+    _maxNumAutoDetectedPaths =
+        maxNumAutoDetectedPaths != null ? maxNumAutoDetectedPaths : DEFAULT_MAX_NUM_AUTO_DETECTED_PATHS;
+    _minAutoDetectedPathFrequency =
+        minAutoDetectedPathFrequency != null ? minAutoDetectedPathFrequency : DEFAULT_MIN_AUTO_DETECTED_PATH_FREQUENCY;
+    _numAutoDetectionSampleRecords = numAutoDetectionSampleRecords != null ? numAutoDetectionSampleRecords
+        : DEFAULT_NUM_AUTO_DETECTION_SAMPLE_RECORDS;
+  }
+
+  public JsonShreddingConfig(String columnName, Map<String, DataType> jsonPaths) {
+    this(columnName, jsonPaths, false, null, null, null);
+  }
+
+  public String getColumnName() {
+    return _columnName;
+  }
+
+  public Map<String, DataType> getJsonPaths() {
+    return _jsonPaths;
+  }
+
+  public boolean isAutoDetect() {
+    return _autoDetect;
+  }
+
+  public int getMaxNumAutoDetectedPaths() {
+    return _maxNumAutoDetectedPaths;
+  }
+
+  public double getMinAutoDetectedPathFrequency() {
+    return _minAutoDetectedPathFrequency;
+  }
+
+  public int getNumAutoDetectionSampleRecords() {
+    return _numAutoDetectionSampleRecords;
+  }
+}
@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.data.readers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * The <code>ColumnReader</code> interface is used to read the values of a single column, in the same order as the
+ * records returned by the {@link RecordReader} of the same data source.
+ * <p>Values are returned in the same format as they are put into the {@link GenericRow} by the record reader, e.g.
+ * {@code Object[]} for multi-value fields.
+ * <p>Readers of single-value primitive columns can also return the values in typed batches (see
+ * {@link #getPrimitiveBatchType()}) to avoid boxing each value.
+ */
+public interface ColumnReader extends Closeable {
+
+  /**
+   * Return <code>true</code> if more values remain to be read.
+   */
+  boolean hasNext();
+
+  /**
+   * Get the next value, or <code>null</code> if the value is missing in the record.
+   * <p>This method should be called only if {@link #hasNext()} returns <code>true</code>.
+   */
+  @Nullable
+  Object next()
+      throws IOException;
+
+  /**
+   * Return <code>true</code> if the value returned by the last {@link #next()} call is a null value. Readers that
+   * replace the null values with the default values can use this method to report the original null values.
+   */
+  default boolean isNull() {
+    return false;
+  }
+
+  /**
+   * Return the type of the values (one of INT, LONG, FLOAT and DOUBLE) if they can be read in batches with the
+   * corresponding {@code nextXxxBatch} method, or <code>null</code> if the values can only be read one at a time.
+   * <p>The batch methods read up to {@code values.length} next values into {@code values}, mark the null values in
+   * {@code nulls}, and return the number of values read, or 0 when no more values remain. They should not be mixed
+   * with {@link #hasNext()} and {@link #next()}.
+   */
+  @Nullable
+  default DataType getPrimitiveBatchType() {
+    return null;
+  }
+
+  default int nextIntBatch(int[] values, boolean[] nulls)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  default int nextLongBatch(long[] values, boolean[] nulls)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  default int nextFloatBatch(float[] values, boolean[] nulls)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  default int nextDoubleBatch(double[] values, boolean[] nulls)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Rewind the reader to start reading from the first value again.
+   */
+  void rewind()
+      throws IOException;
+}
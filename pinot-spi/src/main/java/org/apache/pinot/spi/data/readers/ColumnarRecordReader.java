@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.data.readers;
+
+import java.io.IOException;
+import javax.annotation.Nullable;
+
+
+/**
+ * The <code>ColumnarRecordReader</code> interface is implemented by the record readers for the columnar file formats
+ * (e.g. Parquet, ORC), which can read the values of a column without reading the other columns. It allows the segment
+ * to be created column by column without materializing each record into a {@link GenericRow}.
+ */
+public interface ColumnarRecordReader extends RecordReader {
+
+  /**
+   * Returns <code>true</code> if the column readers are supported by this reader. Readers wrapping different underlying
+   * implementations may only support the column readers for some of them.
+   */
+  default boolean isColumnReaderSupported() {
+    return true;
+  }
+
+  /**
+   * Returns the total number of records in the data source.
+   */
+  int getNumRecords()
+      throws IOException;
+
+  /**
+   * Returns a new {@link ColumnReader} for the given column, or <code>null</code> if the column does not exist in the
+   * data source (all values are missing). The returned reader should be closed by the caller.
+   */
+  @Nullable
+  ColumnReader getColumnReader(String column)
+      throws IOException;
+}
@@ -0,0 +1,316 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.filesystem;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.DataSizeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Helper for {@link PinotFS} implementations to transfer a large file as multiple parts in parallel, so that the
+ * throughput is not bounded by a single connection.
+ * <ul>
+ *   <li>Downloads fetch byte ranges of the remote file concurrently and write them at their offsets of the local
+ *   file.</li>
+ *   <li>Uploads hand byte ranges of the local file to a part uploader concurrently, and return the results of the parts
+ *   in order so that the caller can complete the upload (e.g. S3 multipart upload).</li>
+ * </ul>
+ * Parallel transfer is disabled by default (parallelism of 1), and only kicks in for files larger than the part size.
+ * All the transfers share a bounded thread pool, where each transfer runs at most parallelism parts concurrently.
+ */
+public class ParallelTransferHelper {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParallelTransferHelper.class);
+
+  public static final String PARALLEL_TRANSFER_PART_SIZE = "parallelTransfer.partSize";
+  public static final String PARALLEL_TRANSFER_PARALLELISM = "parallelTransfer.parallelism";
+  public static final String DEFAULT_PARALLEL_TRANSFER_PART_SIZE = "64MB";
+  public static final int DEFAULT_PARALLEL_TRANSFER_PARALLELISM = 1;
+
+  private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+
+  // Transfers are I/O bound, so allow more threads than cores, but bound them across all the concurrent transfers
+  private static final int MAX_SHARED_TRANSFER_THREADS = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+  private static final ExecutorService SHARED_EXECUTOR_SERVICE = createSharedExecutorService();
+
+  private final long _partSize;
+  private final int _parallelism;
+  private final ExecutorService _executorService;
+
+  public ParallelTransferHelper(long partSize, int parallelism) {
+    this(partSize, parallelism, SHARED_EXECUTOR_SERVICE);
+  }
+
+  @VisibleForTesting
+  ParallelTransferHelper(long partSize, int parallelism, ExecutorService executorService) {
+    Preconditions.checkArgument(partSize > 0, "Part size must be positive, got: %s", partSize);
+    Preconditions.checkArgument(parallelism > 0, "Parallelism must be positive, got: %s", parallelism);
+    _partSize = partSize;
+    _parallelism = parallelism;
+    _executorService = executorService;
+  }
+
+  private static ExecutorService createSharedExecutorService() {
+    ThreadPoolExecutor executorService =
+        new ThreadPoolExecutor(MAX_SHARED_TRANSFER_THREADS, MAX_SHARED_TRANSFER_THREADS, 1L, TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("pinot-fs-transfer-%d").setDaemon(true).build());
+    // Do not keep idle threads around when there is no transfer
+    executorService.allowCoreThreadTimeOut(true);
+    return executorService;
+  }
+
+  /**
+   * Creates the helper from the PinotFS config, e.g. {@code parallelTransfer.partSize=64MB} and
+   * {@code parallelTransfer.parallelism=8}.
+   */
+  public static ParallelTransferHelper fromConfig(PinotConfiguration config) {
+    long partSize = DataSizeUtils.toBytes(
+        config.getProperty(PARALLEL_TRANSFER_PART_SIZE, DEFAULT_PARALLEL_TRANSFER_PART_SIZE));
+    int parallelism = config.getProperty(PARALLEL_TRANSFER_PARALLELISM, DEFAULT_PARALLEL_TRANSFER_PARALLELISM);
+    return new ParallelTransferHelper(partSize, parallelism);
+  }
+
+  public long getPartSize() {
+    return _partSize;
+  }
+
+  public int getParallelism() {
+    return _parallelism;
+  }
+
+  /**
+   * Returns a helper with the same parallelism and thread pool, but the given part size, e.g. to satisfy the part
+   * limits of the remote storage.
+   */
+  public ParallelTransferHelper withPartSize(long partSize) {
+    return new ParallelTransferHelper(partSize, _parallelism, _executorService);
+  }
+
+  /**
+   * Returns whether a file of the given size should be transferred in parallel.
+   */
+  public boolean shouldTransferInParallel(long fileSize) {
+    return _parallelism > 1 && fileSize > _partSize;
+  }
+
+  public int getNumParts(long fileSize) {
+    return (int) ((fileSize + _partSize - 1) / _partSize);
+  }
+
+  /**
+   * Downloads a part of the remote file.
+   */
+  @FunctionalInterface
+  public interface RangeDownloader {
+    /**
+     * Writes the {@code length} bytes of the remote file starting at {@code offset} to the output stream.
+     */
+    void download(long offset, long length, OutputStream outputStream)
+        throws Exception;
+  }
+
+  /**
+   * Uploads a part of the local file.
+   */
+  @FunctionalInterface
+  public interface PartUploader<T> {
+    /**
+     * Uploads the {@code length} bytes of the local file starting at {@code offset} as part {@code partId} (0-based),
+     * and returns the result needed to complete the upload.
+     */
+    T upload(int partId, long offset, long length)
+        throws Exception;
+  }
+
+  /**
+   * Downloads a remote file of the given size into the local file, fetching the parts in parallel. The local file is
+   * deleted if the download fails.
+   */
+  public void download(long fileSize, File dstFile, RangeDownloader rangeDownloader)
+      throws Exception {
+    int numParts = getNumParts(fileSize);
+    LOGGER.info("Downloading {} bytes into {} in {} parts with parallelism {}", fileSize, dstFile, numParts,
+        _parallelism);
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(dstFile, "rw")) {
+      randomAccessFile.setLength(fileSize);
+    }
+    try (FileChannel fileChannel = FileChannel.open(dstFile.toPath(), StandardOpenOption.WRITE)) {
+      runInParallel(numParts, partId -> {
+        long offset = partId * _partSize;
+        long length = Math.min(_partSize, fileSize - offset);
+        PositionalOutputStream outputStream = new PositionalOutputStream(fileChannel, offset);
+        try (OutputStream bufferedOutputStream = new BufferedOutputStream(outputStream, WRITE_BUFFER_SIZE)) {
+          rangeDownloader.download(offset, length, bufferedOutputStream);
+        }
+        if (outputStream._numBytesWritten != length) {
+          throw new IOException(
+              String.format("Expected %d bytes for part %d of %s, got: %d", length, partId, dstFile,
+                  outputStream._numBytesWritten));
+        }
+        return null;
+      });
+    } catch (Exception e) {
+      FileUtils.deleteQuietly(dstFile);
+      throw e;
+    }
+  }
+
+  /**
+   * Uploads a local file by handing its parts to the part uploader in parallel, and returns the results of the parts
+   * ordered by part id.
+   */
+  public <T> List<T> upload(File srcFile, PartUploader<T> partUploader)
+      throws Exception {
+    long fileSize = srcFile.length();
+    int numParts = getNumParts(fileSize);
+    LOGGER.info("Uploading {} bytes from {} in {} parts with parallelism {}", fileSize, srcFile, numParts,
+        _parallelism);
+    return runInParallel(numParts, partId -> {
+      long offset = partId * _partSize;
+      return partUploader.upload(partId, offset, Math.min(_partSize, fileSize - offset));
+    });
+  }
+
+  /**
+   * Opens an input stream over the {@code length} bytes of the file starting at {@code offset}. Can be used by the part
+   * uploaders to read their part.
+   */
+  public static InputStream openRange(File file, long offset, long length)
+      throws IOException {
+    FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    fileChannel.position(offset);
+    return BoundedInputStream.builder().setInputStream(Channels.newInputStream(fileChannel)).setMaxCount(length)
+        .get();
+  }
+
+  @FunctionalInterface
+  private interface PartTask<T> {
+    T run(int partId)
+        throws Exception;
+  }
+
+  /**
+   * Runs the parts with at most parallelism tasks on the thread pool, each of them running the next part until all the
+   * parts are done or any part fails, and returns the results of the parts ordered by part id.
+   */
+  private <T> List<T> runInParallel(int numParts, PartTask<T> task)
+      throws Exception {
+    int numTasks = Math.min(_parallelism, numParts);
+    AtomicInteger nextPartId = new AtomicInteger();
+    AtomicBoolean failed = new AtomicBoolean();
+    Object[] results = new Object[numParts];
+    List<Future<?>> futures = new ArrayList<>(numTasks);
+    for (int i = 0; i < numTasks; i++) {
+      futures.add(_executorService.submit(() -> {
+        int partId;
+        while (!failed.get() && (partId = nextPartId.getAndIncrement()) < numParts) {
+          try {
+            results[partId] = task.run(partId);
+          } catch (Exception e) {
+            failed.set(true);
+            throw e;
+          }
+        }
+        return null;
+      }));
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      cancel(futures, failed);
+      Throwable cause = e.getCause();
+      throw cause instanceof Exception ? (Exception) cause : e;
+    } catch (InterruptedException e) {
+      cancel(futures, failed);
+      throw e;
+    }
+    List<T> resultList = new ArrayList<>(numParts);
+    for (Object result : results) {
+      //noinspection unchecked
+      resultList.add((T) result);
+    }
+    return resultList;
+  }
+
+  private static void cancel(List<Future<?>> futures, AtomicBoolean failed) {
+    failed.set(true);
+    for (Future<?> future : futures) {
+      future.cancel(true);
+    }
+  }
+
+  /**
+   * Output stream writing to a file channel from a given position, so that multiple parts can be written to the same
+   * channel concurrently.
+   */
+  private static class PositionalOutputStream extends OutputStream {
+    private final FileChannel _fileChannel;
+    private final long _startPosition;
+    private long _numBytesWritten;
+
+    PositionalOutputStream(FileChannel fileChannel, long startPosition) {
+      _fileChannel = fileChannel;
+      _startPosition = startPosition;
+    }
+
+    @Override
+    public void write(int b)
+        throws IOException {
+      write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len)
+        throws IOException {
+      ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+      while (buffer.hasRemaining()) {
+        _numBytesWritten += _fileChannel.write(buffer, _startPosition + _numBytesWritten);
+      }
+    }
+  }
+}
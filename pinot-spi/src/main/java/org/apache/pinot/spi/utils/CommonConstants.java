@@ -434,6 +434,11 @@ public class CommonConstants {
         public static final String AND_SCAN_REORDERING = "AndScanReordering";
         public static final String SKIP_INDEXES = "skipIndexes";
 
+        // When set to true, the other predicates ANDed with a VECTOR_SIMILARITY predicate are applied during the vector
+        // index search, so that the top K closest vectors are searched among the docs matching the other predicates
+        // instead of among all the docs
+        public static final String VECTOR_PRE_FILTER = "vectorPreFilter";
+
         public static final String ORDER_BY_ALGORITHM = "orderByAlgorithm";
 
         public static final String MULTI_STAGE_LEAF_LIMIT = "multiStageLeafLimit";
@@ -458,6 +463,9 @@ public class CommonConstants {
         public static final String MAX_ROWS_IN_WINDOW = "maxRowsInWindow";
         public static final String WINDOW_OVERFLOW_MODE = "windowOverflowMode";
 
+        // Handle SORT spilling: maximum number of rows buffered in memory before spilling a sorted run to disk
+        public static final String SORT_SPILL_THRESHOLD_ROWS = "sortSpillThresholdRows";
+
         // Indicates the maximum length of the serialized response per server for a query.
         public static final String MAX_SERVER_RESPONSE_SIZE_BYTES = "maxServerResponseSizeBytes";
 
@@ -490,6 +498,11 @@ public class CommonConstants {
         // possible.
         public static final String OPTIMIZE_MAX_INITIAL_RESULT_HOLDER_CAPACITY =
             "optimizeMaxInitialResultHolderCapacity";
+
+        // Max cardinality of the group-by/distinct column for which filtered COUNT group-by and DISTINCT queries are
+        // solved by intersecting the filter bitmap with the inverted index bitmap of each dictionary id instead of
+        // scanning the matching documents. Set to 0 to disable the bitmap intersection execution.
+        public static final String BITMAP_INTERSECTION_MAX_CARDINALITY = "bitmapIntersectionMaxCardinality";
       }
 
       public static class QueryOptionValue {
@@ -1139,6 +1152,7 @@ public class CommonConstants {
       public static final String BALANCE_NUM_SEGMENT_ASSIGNMENT_STRATEGY = "balanced";
       public static final String REPLICA_GROUP_SEGMENT_ASSIGNMENT_STRATEGY = "replicagroup";
       public static final String DIM_TABLE_SEGMENT_ASSIGNMENT_STRATEGY = "allservers";
+      public static final String SIZE_BALANCED_SEGMENT_ASSIGNMENT_STRATEGY = "sizebalanced";
     }
 
     public static class BuiltInVirtualColumn {
@@ -1272,6 +1286,12 @@ public class CommonConstants {
       THROW, BREAK
     }
 
+    /**
+     * Configuration for sort spilling. When set, a sort without limit that buffers more than this many rows spills
+     * sorted runs to the temporary directory and merges them when producing the output.
+     */
+    public static final String KEY_OF_SORT_SPILL_THRESHOLD_ROWS = "pinot.query.sort.spill.threshold.rows";
+
     /**
      * Constants related to plan versions.
      */
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.utils;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
+import org.apache.pinot.spi.config.table.ingestion.JsonShreddingConfig;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+
+
+/**
+ * Utils for the hidden columns that hold the values of JSON paths shredded from a JSON string column, e.g.
+ * {@code $payload$json.user.id} holds the values of {@code $.user.id} within column {@code payload}.
+ */
+public class JsonShreddingUtils {
+  private JsonShreddingUtils() {
+  }
+
+  private static final String SHREDDED_COLUMN_SEPARATOR = "$json";
+
+  // Only simple paths of object keys and array indexes can be shredded, so that the path can be encoded into the
+  // column name
+  private static final Pattern SHREDDABLE_JSON_PATH_PATTERN = Pattern.compile("\\$(\\.[A-Za-z0-9_]+|\\[[0-9]+])+");
+
+  private static final Set<DataType> SUPPORTED_DATA_TYPES =
+      EnumSet.of(DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE, DataType.STRING);
+
+  /**
+   * Returns the name of the shredded column, e.g. $payload$json.user.id.
+   */
+  public static String getShreddedColumnName(String jsonColumn, String jsonPath) {
+    return "$" + jsonColumn + SHREDDED_COLUMN_SEPARATOR + jsonPath.substring(1);
+  }
+
+  /**
+   * Returns whether the given column name is a shredded column name.
+   */
+  public static boolean isShreddedColumn(String column) {
+    if (column.isEmpty() || column.charAt(0) != '$') {
+      return false;
+    }
+    int separatorPos = column.lastIndexOf(SHREDDED_COLUMN_SEPARATOR);
+    if (separatorPos <= 1) {
+      return false;
+    }
+    return isShreddableJsonPath("$" + column.substring(separatorPos + SHREDDED_COLUMN_SEPARATOR.length()));
+  }
+
+  /**
+   * Returns the JSON column of the given shredded column.
+   */
+  public static String getJsonColumn(String shreddedColumn) {
+    return shreddedColumn.substring(1, shreddedColumn.lastIndexOf(SHREDDED_COLUMN_SEPARATOR));
+  }
+
+  /**
+   * Returns the JSON path of the given shredded column.
+   */
+  public static String getJsonPath(String shreddedColumn) {
+    return "$" + shreddedColumn.substring(
+        shreddedColumn.lastIndexOf(SHREDDED_COLUMN_SEPARATOR) + SHREDDED_COLUMN_SEPARATOR.length());
+  }
+
+  /**
+   * Returns whether the given JSON path can be shredded, i.e. it only contains object keys and array indexes.
+   */
+  public static boolean isShreddableJsonPath(String jsonPath) {
+    return SHREDDABLE_JSON_PATH_PATTERN.matcher(jsonPath).matches();
+  }
+
+  /**
+   * Returns whether the given data type is supported for the shredded columns.
+   */
+  public static boolean isSupportedDataType(DataType dataType) {
+    return SUPPORTED_DATA_TYPES.contains(dataType);
+  }
+
+  /**
+   * Adds the shredded columns configured in the table config to the schema.
+   */
+  public static void applyJsonShredding(TableConfig tableConfig, Schema schema) {
+    IngestionConfig ingestionConfig = tableConfig.getIngestionConfig();
+    if (ingestionConfig == null) {
+      return;
+    }
+    List<JsonShreddingConfig> jsonShreddingConfigs = ingestionConfig.getJsonShreddingConfigs();
+    if (CollectionUtils.isEmpty(jsonShreddingConfigs)) {
+      return;
+    }
+
+    // Synchronize on schema object to prevent concurrent modification
+    //noinspection SynchronizationOnLocalVariableOrMethodParameter
+    synchronized (schema) {
+      for (JsonShreddingConfig jsonShreddingConfig : jsonShreddingConfigs) {
+        String jsonColumn = jsonShreddingConfig.getColumnName();
+        for (Map.Entry<String, DataType> entry : jsonShreddingConfig.getJsonPaths().entrySet()) {
+          addShreddedColumn(schema, jsonColumn, entry.getKey(), entry.getValue());
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds the shredded column for the given JSON path to the schema if it does not exist yet. Returns {@code true} if
+   * the column is added.
+   */
+  public static boolean addShreddedColumn(Schema schema, String jsonColumn, String jsonPath, DataType dataType) {
+    String shreddedColumn = getShreddedColumnName(jsonColumn, jsonPath);
+    if (schema.hasColumn(shreddedColumn)) {
+      return false;
+    }
+    schema.addField(new DimensionFieldSpec(shreddedColumn, dataType, true));
+    return true;
+  }
+}
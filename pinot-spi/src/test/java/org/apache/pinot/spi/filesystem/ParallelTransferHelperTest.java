@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.spi.filesystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class ParallelTransferHelperTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "ParallelTransferHelperTest");
+  private static final int FILE_SIZE = 1_000_003;
+
+  private File _srcFile;
+  private byte[] _content;
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    FileUtils.forceMkdir(TEMP_DIR);
+    _content = new byte[FILE_SIZE];
+    new Random(42).nextBytes(_content);
+    _srcFile = new File(TEMP_DIR, "src");
+    FileUtils.writeByteArrayToFile(_srcFile, _content);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testFromConfig() {
+    ParallelTransferHelper helper = ParallelTransferHelper.fromConfig(new PinotConfiguration(
+        Map.of(ParallelTransferHelper.PARALLEL_TRANSFER_PART_SIZE, "8MB",
+            ParallelTransferHelper.PARALLEL_TRANSFER_PARALLELISM, "4")));
+    Assert.assertEquals(helper.getPartSize(), 8 * 1024 * 1024);
+    Assert.assertEquals(helper.getParallelism(), 4);
+    Assert.assertTrue(helper.shouldTransferInParallel(8 * 1024 * 1024 + 1));
+    Assert.assertFalse(helper.shouldTransferInParallel(8 * 1024 * 1024));
+
+    // Disabled by default
+    helper = ParallelTransferHelper.fromConfig(new PinotConfiguration());
+    Assert.assertFalse(helper.shouldTransferInParallel(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testDownload()
+      throws Exception {
+    ParallelTransferHelper helper = new ParallelTransferHelper(100_000, 4);
+    File dstFile = new File(TEMP_DIR, "download");
+    helper.download(FILE_SIZE, dstFile, (offset, length, outputStream) -> {
+      try (InputStream inputStream = ParallelTransferHelper.openRange(_srcFile, offset, length)) {
+        IOUtils.copy(inputStream, outputStream);
+      }
+    });
+    Assert.assertEquals(FileUtils.readFileToByteArray(dstFile), _content);
+  }
+
+  @Test
+  public void testDownloadFailureDeletesFile() {
+    ParallelTransferHelper helper = new ParallelTransferHelper(100_000, 4);
+    File dstFile = new File(TEMP_DIR, "failedDownload");
+    Assert.assertThrows(IOException.class, () -> helper.download(FILE_SIZE, dstFile, (offset, length, outputStream) -> {
+      // Short read for the last part
+      try (InputStream inputStream = ParallelTransferHelper.openRange(_srcFile, offset, Math.min(length, 99_999))) {
+        IOUtils.copy(inputStream, outputStream);
+      }
+    }));
+    Assert.assertFalse(dstFile.exists());
+  }
+
+  @Test
+  public void testUpload()
+      throws Exception {
+    ParallelTransferHelper helper = new ParallelTransferHelper(100_000, 4);
+    byte[] uploaded = new byte[FILE_SIZE];
+    List<Integer> partIds = helper.upload(_srcFile, (partId, offset, length) -> {
+      try (InputStream inputStream = ParallelTransferHelper.openRange(_srcFile, offset, length)) {
+        Assert.assertEquals(IOUtils.read(inputStream, uploaded, (int) offset, (int) length), length);
+        Assert.assertEquals(inputStream.read(), -1);
+      }
+      return partId;
+    });
+    Assert.assertEquals(partIds.size(), 11);
+    for (int i = 0; i < partIds.size(); i++) {
+      Assert.assertEquals((int) partIds.get(i), i);
+    }
+    Assert.assertEquals(uploaded, _content);
+  }
+
+  @Test
+  public void testParallelismPerTransfer()
+      throws Exception {
+    // Concurrent transfers share the thread pool, while each of them runs at most parallelism parts concurrently
+    ParallelTransferHelper helper = new ParallelTransferHelper(10_000, 2);
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(executorService.submit(() -> {
+          AtomicInteger numRunningParts = new AtomicInteger();
+          AtomicInteger maxRunningParts = new AtomicInteger();
+          helper.upload(_srcFile, (partId, offset, length) -> {
+            maxRunningParts.accumulateAndGet(numRunningParts.incrementAndGet(), Math::max);
+            Thread.sleep(1);
+            numRunningParts.decrementAndGet();
+            return partId;
+          });
+          return maxRunningParts.get();
+        }));
+      }
+      for (Future<Integer> future : futures) {
+        Assert.assertTrue(future.get() <= 2);
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testBoundedThreadPool()
+      throws Exception {
+    // Transfers make progress even when the thread pool has fewer threads than the parallelism
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      ParallelTransferHelper helper = new ParallelTransferHelper(100_000, 4, executorService);
+      List<Integer> partIds = helper.upload(_srcFile, (partId, offset, length) -> partId);
+      Assert.assertEquals(partIds.size(), 11);
+      for (int i = 0; i < partIds.size(); i++) {
+        Assert.assertEquals((int) partIds.get(i), i);
+      }
+      Assert.assertEquals(helper.withPartSize(500_000).upload(_srcFile, (partId, offset, length) -> length),
+          List.of(500_000L, 500_000L, 3L));
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testUploadFailureStopsRemainingParts() {
+    ParallelTransferHelper helper = new ParallelTransferHelper(1_000, 2);
+    AtomicInteger numUploadedParts = new AtomicInteger();
+    Assert.assertThrows(IOException.class, () -> helper.upload(_srcFile, (partId, offset, length) -> {
+      if (partId == 10) {
+        throw new IOException("Failed to upload part: " + partId);
+      }
+      return numUploadedParts.incrementAndGet();
+    }));
+    Assert.assertTrue(numUploadedParts.get() < helper.getNumParts(FILE_SIZE) - 1);
+  }
+}